@@ -0,0 +1,133 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MQTT 메시지 디코딩 벤치마크
+ * - legacyPath: 기존 MQTT.messageArrived → receiveData → handleLiveMessage의 파싱 체인
+ *   (new String, contains, extractJsonValue, split, 메시지마다 new ObjectMapper + Map 변환)
+ * - decoder: MqttPayloadDecoder 단일 패스 디코딩
+ * 로그/검증/저장은 양쪽 모두 제외하고 파싱 비용만 비교
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MqttPayloadDecoderBenchmark {
+
+    // 운영 장치에서 수집한 메시지 형식 (토픽/페이로드)
+    private static final String[][] CAPTURED = {
+            {"HBEE/thepine/TC/0008DC755397/DEV", "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"23.4\"}"},
+            {"HBEE/thepine/TC/0008DC755397/DEV", "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"Error\"}"},
+            {"HBEE/thepine/TC/0008DC755397/DEV", "{\"actcode\":\"live\",\"name\":\"din\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"0\"}"},
+            {"HBEE/thepine/TC/0008DC755397/DEV", "{\"actcode\":\"live\",\"name\":\"output\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"1\"}"},
+            {"HBEE/thepine/TC/0008DC755397/DEV", "{\"actcode\":\"setres\",\"p01\":\"-18.0\",\"p02\":\"2.0\",\"p03\":\"0\",\"p04\":\"10\",\"p05\":\"30\"}"},
+            {"HBEE/thepine/TC/0008DC755397/DEV", "{\"actcode\":\"reg\",\"userId\":\"thepine\",\"model\":\"TC\",\"mac\":\"0008DC755397\"}"},
+    };
+
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int message;
+
+    private String topic;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        topic = CAPTURED[message][0];
+        payload = CAPTURED[message][1].getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void decoder(Blackhole bh) {
+        MqttPayloadDecoder.SensorReading reading = MqttPayloadDecoder.decode(topic, payload);
+        bh.consume(reading.getKind());
+        bh.consume(reading.getValue());
+        bh.consume(reading.getUuid());
+    }
+
+    @Benchmark
+    public void legacyPath(Blackhole bh) throws Exception {
+        // MQTT.messageArrived
+        String receiveMsg = new String(payload);
+        String messageWithTopic = topic + "@" + receiveMsg;
+
+        // MqttServiceImpl.receiveData
+        boolean isDeviceRegistration = messageWithTopic.contains("\"actcode\":\"reg\"") || messageWithTopic.contains("actcode:reg");
+        boolean isLiveMessage = messageWithTopic.contains("\"actcode\":\"live\"") || messageWithTopic.contains("actcode:live");
+        bh.consume(isDeviceRegistration);
+        if (isLiveMessage) {
+            // handleLiveMessage
+            String[] parts = messageWithTopic.split("@", 2);
+            String[] topicParts = parts[0].split("/");
+            bh.consume(topicParts[1]);
+            bh.consume(topicParts[3]);
+            ObjectMapper mapper = new ObjectMapper();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> jsonData = mapper.readValue(parts[1], Map.class);
+            bh.consume(String.valueOf(jsonData.get("actcode")));
+            bh.consume(String.valueOf(jsonData.get("name")));
+            bh.consume(String.valueOf(jsonData.get("value")));
+        } else if (isDeviceRegistration) {
+            // handleDeviceRegistration
+            bh.consume(new ObjectMapper().readTree(messageWithTopic.split("@", 2)[1]));
+        } else {
+            // 폴백 경로의 isValidJson + readValue
+            String[] strArr = messageWithTopic.split("@");
+            String[] topicArr = strArr[0].split("/");
+            bh.consume(topicArr);
+            new ObjectMapper().readTree(strArr[1]);
+            bh.consume(new ObjectMapper().readValue(strArr[1], Map.class));
+        }
+
+        // MQTT.messageArrived (setres / 알람 체크용 값 추출)
+        bh.consume(receiveMsg.contains("setres"));
+        if (receiveMsg.contains("\"actcode\":\"live\"") && receiveMsg.contains("\"name\":\"ain\"")) {
+            String[] topicParts = topic.split("/");
+            bh.consume(topicParts[1]);
+            bh.consume(extractJsonValue(receiveMsg, "value"));
+        }
+    }
+
+    /**
+     * 기존 MQTT.extractJsonValue
+     */
+    private static String extractJsonValue(String json, String key) {
+        try {
+            String searchKey = "\"" + key + "\":\"";
+            int startIndex = json.indexOf(searchKey);
+            if (startIndex == -1) {
+                searchKey = "\"" + key + "\":";
+                startIndex = json.indexOf(searchKey);
+                if (startIndex == -1) return null;
+                startIndex += searchKey.length();
+                int endIndex = json.indexOf(",", startIndex);
+                if (endIndex == -1) endIndex = json.indexOf("}", startIndex);
+                return json.substring(startIndex, endIndex).trim();
+            } else {
+                startIndex += searchKey.length();
+                int endIndex = json.indexOf("\"", startIndex);
+                return json.substring(startIndex, endIndex);
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
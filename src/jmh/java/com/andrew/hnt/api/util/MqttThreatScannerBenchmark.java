@@ -0,0 +1,100 @@
+package com.andrew.hnt.api.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MQTT 보안 위협 검사 벤치마크
+ * - legacy: 기존 hasSecurityThreat (메시지마다 String.matches(".*" + pattern + ".*") 19회)
+ * - strictString / strictBytes: 기본 설정 (기존과 동일 판정, 트리거 스캔 후 필요 시에만 정규식)
+ * - tokenBytes: strict-keywords=false (토큰 경계 규칙 단일 패스)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MqttThreatScannerBenchmark {
+
+    private static final String TOPIC = "HBEE/thepine/TC/0008DC755397/DEV";
+
+    private static final String[] PAYLOADS = {
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"23.4\"}",
+            "{\"actcode\":\"setres\",\"p01\":\"-18.0\",\"p02\":\"2.0\",\"p03\":\"0\",\"p04\":\"10\",\"p05\":\"30\"}",
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"value\":\"' or 1=1 --\"}",
+    };
+
+    @Param({"0", "1", "2"})
+    public int message;
+
+    private final MqttThreatScanner strict = new MqttThreatScanner(true);
+    private final MqttThreatScanner token = new MqttThreatScanner(false);
+
+    private String text;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        text = TOPIC + "@" + PAYLOADS[message];
+        payload = PAYLOADS[message].getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String[] patterns = {
+            "(?i)(union|select|insert|update|delete|drop|create|alter|exec)",
+            "(?i)(or|and)\\s+\\d+\\s*=\\s*\\d+",
+            "(?i)(or|and)\\s+['\"]\\s*=\\s*['\"]",
+            "(?i)union\\s+select",
+            "(?i)drop\\s+table",
+            "(?i)insert\\s+into",
+            "(?i)update\\s+set",
+            "(?i)delete\\s+from",
+            "(?i)<script[^>]*>.*?</script>",
+            "(?i)<iframe[^>]*>.*?</iframe>",
+            "(?i)<object[^>]*>.*?</object>",
+            "(?i)<embed[^>]*>.*?</embed>",
+            "(?i)<link[^>]*>.*?</link>",
+            "(?i)<meta[^>]*>.*?</meta>",
+            "(?i)javascript:",
+            "(?i)vbscript:",
+            "(?i)onload\\s*=",
+            "(?i)onerror\\s*=",
+            "(?i)onclick\\s*="
+        };
+        for (String pattern : patterns) {
+            if (text.matches(".*" + pattern + ".*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public String strictString() {
+        return strict.scan(text);
+    }
+
+    @Benchmark
+    public String strictBytes() {
+        return strict.scan(TOPIC, payload);
+    }
+
+    @Benchmark
+    public String tokenBytes() {
+        return token.scan(TOPIC, payload);
+    }
+}
@@ -1,6 +1,8 @@
 package com.andrew.hnt.api;
 
 import com.andrew.hnt.api.mapper.AdminMapper;
+import com.andrew.hnt.api.mqtt.AlarmStateMachine;
+import com.andrew.hnt.api.service.MetadataCache;
 import com.andrew.hnt.api.service.NotificationService;
 import com.andrew.hnt.api.model.NotificationRequest;
 import okhttp3.*;
@@ -19,6 +21,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Component
 @EnableAsync
@@ -32,6 +35,12 @@ public class ScheduleWork {
     
     @Autowired
     private NotificationService notificationService;
+    
+    @Autowired
+    private AlarmStateMachine alarmStateMachine;
+
+    @Autowired
+    private MetadataCache metadataCache;
 
     private String apiKey = "AAAAoUCvVY0:APA91bFhv_a-RRU0OOJPmGk4MBri_Aqu0MW4r1CDfar4GrhQf3H9XPTWRhoul86dfhLTomTn-WsTrKJ-qPAakoap9vMl7JHmrj8WniVnTQE3y5mhxKFDPp09bAmjaAuDx8qUXH1qhO05";
     private String senderId = "692574967181";
@@ -39,6 +48,11 @@ public class ScheduleWork {
     @Async("taskExecutor")
     @Scheduled(fixedRate = 60000)
     public void runSchedule() throws Exception {
+        // 알람 상태 머신 사용 시 지연/재전송은 상태 머신 타이머가 처리 (분 단위 hnt_alarm 스캔 불필요)
+        if (alarmStateMachine.isEnabled()) {
+            return;
+        }
+
         logger.info("스케줄러 테스트 실행");
 
         List<Map<String, Object>> notiList = new ArrayList<Map<String, Object>>();
@@ -87,7 +101,8 @@ public class ScheduleWork {
                 }
 
                 try {
-                    sensorInfo = adminMapper.getSensorInfo(param);
+                    sensorInfo = metadataCache.getSensorInfo(Objects.toString(param.get("userId"), null),
+                        Objects.toString(param.get("sensorUuid"), null));
                 } catch (Exception e) {
                     logger.error("Error : " + e.toString());
                 }
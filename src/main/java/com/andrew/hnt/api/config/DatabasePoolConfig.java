@@ -6,14 +6,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import javax.sql.DataSource;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 데이터베이스 연결 풀 모니터링 설정
- * HikariCP 연결 풀 상태를 주기적으로 모니터링
+ * HikariCP 연결 풀 상태를 주기적으로 모니터링 (읽기 복제본 라우팅 사용 시 풀별)
  */
 @Configuration
 @EnableScheduling
@@ -25,16 +29,23 @@ public class DatabasePoolConfig {
     private DataSource dataSource;
     
     /**
-     * 5분마다 연결 풀 상태 모니터링
+     * 5분마다 연결 풀 상태 모니터링 (읽기 복제본 라우팅 사용 시 주/복제본 풀 각각)
      */
     @Scheduled(fixedRate = 300000) // 5분
     public void monitorConnectionPool() {
         try {
-            if (dataSource instanceof HikariDataSource) {
-                HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
-                HikariPoolMXBean poolBean = hikariDataSource.getHikariPoolMXBean();
-                
-                logger.info("=== 데이터베이스 연결 풀 상태 ===");
+            Map<String, HikariDataSource> pools = getPools();
+            if (pools.isEmpty()) {
+                logger.warn("HikariCP 데이터소스가 아닙니다: {}", dataSource.getClass().getName());
+                return;
+            }
+            for (Map.Entry<String, HikariDataSource> pool : pools.entrySet()) {
+                HikariPoolMXBean poolBean = pool.getValue().getHikariPoolMXBean();
+                if (poolBean == null) {
+                    continue;
+                }
+
+                logger.info("=== 데이터베이스 연결 풀 상태 ({}) ===", pool.getValue().getPoolName());
                 logger.info("활성 연결 수: {}", poolBean.getActiveConnections());
                 logger.info("유휴 연결 수: {}", poolBean.getIdleConnections());
                 logger.info("총 연결 수: {}", poolBean.getTotalConnections());
@@ -47,28 +58,79 @@ public class DatabasePoolConfig {
                 
                 // 활성 연결이 전체의 80% 이상이면 경고
                 if (totalConnections > 0 && (activeConnections * 100 / totalConnections) > 80) {
-                    logger.warn("연결 풀 사용률이 높습니다: {}% ({}/{})", 
+                    logger.warn("{} 연결 풀 사용률이 높습니다: {}% ({}/{})", pool.getKey(),
                                activeConnections * 100 / totalConnections, 
                                activeConnections, totalConnections);
                 }
                 
                 // 대기 중인 스레드가 5개 이상이면 경고
                 if (waitingThreads > 5) {
-                    logger.warn("연결 대기 스레드가 많습니다: {}", waitingThreads);
+                    logger.warn("{} 연결 대기 스레드가 많습니다: {}", pool.getKey(), waitingThreads);
                 }
                 
                 // 연결 풀 상태 평가
                 String poolStatus = evaluatePoolStatus(activeConnections, totalConnections, waitingThreads);
                 logger.info("연결 풀 상태: {}", poolStatus);
-                
-            } else {
-                logger.warn("HikariCP 데이터소스가 아닙니다: {}", dataSource.getClass().getName());
+            }
+
+            ReplicaRoutingDataSource routing = getRouting();
+            if (routing != null) {
+                logger.info("읽기 복제본 라우팅: {}", routing.getStats());
             }
             
         } catch (Exception e) {
             logger.error("연결 풀 모니터링 중 오류 발생", e);
         }
     }
+
+    /**
+     * 풀별 지표 및 라우팅 통계 (/monitoring/mqtt/pipeline 의 datasource)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, HikariDataSource> pool : getPools().entrySet()) {
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            HikariPoolMXBean poolBean = pool.getValue().getHikariPoolMXBean();
+            poolStats.put("poolName", pool.getValue().getPoolName());
+            poolStats.put("maximumPoolSize", pool.getValue().getMaximumPoolSize());
+            if (poolBean != null) {
+                int activeConnections = poolBean.getActiveConnections();
+                int totalConnections = poolBean.getTotalConnections();
+                int waitingThreads = poolBean.getThreadsAwaitingConnection();
+                poolStats.put("active", activeConnections);
+                poolStats.put("idle", poolBean.getIdleConnections());
+                poolStats.put("total", totalConnections);
+                poolStats.put("waiting", waitingThreads);
+                poolStats.put("status", evaluatePoolStatus(activeConnections, totalConnections, waitingThreads));
+            }
+            stats.put(pool.getKey(), poolStats);
+        }
+        ReplicaRoutingDataSource routing = getRouting();
+        stats.put("routing", routing == null ? "disabled" : routing.getStats());
+        return stats;
+    }
+
+    private ReplicaRoutingDataSource getRouting() {
+        if (dataSource instanceof LazyConnectionDataSourceProxy) {
+            DataSource target = ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+            if (target instanceof ReplicaRoutingDataSource) {
+                return (ReplicaRoutingDataSource) target;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, HikariDataSource> getPools() {
+        ReplicaRoutingDataSource routing = getRouting();
+        if (routing != null) {
+            return routing.getPools();
+        }
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        if (dataSource instanceof HikariDataSource) {
+            pools.put("primary", (HikariDataSource) dataSource);
+        }
+        return pools;
+    }
     
     /**
      * 연결 풀 상태 평가
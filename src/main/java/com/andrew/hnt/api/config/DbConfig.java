@@ -1,16 +1,22 @@
 package com.andrew.hnt.api.config;
 
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import com.zaxxer.hikari.HikariConfig;
@@ -20,9 +26,47 @@ import com.zaxxer.hikari.HikariDataSource;
 @EnableTransactionManagement
 public class DbConfig {
     
+    private static final Logger logger = LoggerFactory.getLogger(DbConfig.class);
+
     @Autowired
     private SlowQueryInterceptor slowQueryInterceptor;
 
+    @Autowired
+    private ReadReplicaInterceptor readReplicaInterceptor;
+
+    // 읽기 복제본 (차트/이력/내보내기 조회만 - 대상 문장은 ReadReplicaInterceptor 허용 목록)
+    @Value("${custom.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    @Value("${custom.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${custom.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${custom.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${custom.datasource.replica.maximum-pool-size:10}")
+    private int replicaMaximumPoolSize;
+
+    @Value("${custom.datasource.replica.minimum-idle:2}")
+    private int replicaMinimumIdle;
+
+    @Value("${custom.datasource.replica.max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${custom.datasource.replica.check-interval-ms:5000}")
+    private long replicaCheckIntervalMs;
+
+    @Value("${custom.datasource.replica.read-only-transactions:false}")
+    private boolean replicaReadOnlyTransactions;
+
+    @Value("${custom.datasource.replica.allow-standalone:false}")
+    private boolean replicaAllowStandalone;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
 	@Bean
 	@ConfigurationProperties(prefix = "spring.datasource.hikari")
 	public HikariConfig hikariConfig() {
@@ -63,11 +107,54 @@ public class DbConfig {
 		return config;
 	}
 
+	/**
+	 * 주 DB 연결 풀 (쓰기 및 기본 조회)
+	 */
 	@Bean
-	public DataSource dataSource(HikariConfig hikariConfig) {
+	public HikariDataSource primaryDataSource(HikariConfig hikariConfig) {
 		return new HikariDataSource(hikariConfig);
 	}
 
+	/**
+	 * 애플리케이션 데이터소스 - 복제본을 사용하지 않으면 주 DB 연결 풀 그대로,
+	 * 사용하면 주/복제본 라우팅 (실제 연결은 첫 문장 실행 시 얻음)
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariConfig hikariConfig, HikariDataSource primaryDataSource) {
+		if (!replicaEnabled) {
+			return primaryDataSource;
+		}
+		if (replicaUrl == null || replicaUrl.trim().isEmpty()) {
+			logger.warn("읽기 복제본 URL 이 없어 주 DB 만 사용합니다 (custom.datasource.replica.url)");
+			return primaryDataSource;
+		}
+		HikariConfig replicaConfig = new HikariConfig();
+		hikariConfig.copyStateTo(replicaConfig);
+		replicaConfig.setJdbcUrl(replicaUrl);
+		replicaConfig.setUsername(replicaUsername);
+		replicaConfig.setPassword(replicaPassword);
+		replicaConfig.setPoolName(primaryDataSource.getPoolName() + "-Replica");
+		replicaConfig.setMaximumPoolSize(replicaMaximumPoolSize);
+		replicaConfig.setMinimumIdle(replicaMinimumIdle);
+		replicaConfig.setReadOnly(true);
+		// 복제본이 내려가 있어도 기동 (주 DB 로 대체)
+		replicaConfig.setInitializationFailTimeout(-1);
+
+		routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, new HikariDataSource(replicaConfig),
+			replicaMaxLagSeconds, replicaCheckIntervalMs, replicaReadOnlyTransactions, replicaAllowStandalone);
+		routingDataSource.afterPropertiesSet();
+		routingDataSource.start();
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+	@PreDestroy
+	public void closeReplica() {
+		if (routingDataSource != null) {
+			routingDataSource.close();
+		}
+	}
+
 	@Bean
 	public SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception {
 		SqlSessionFactoryBean bean = new SqlSessionFactoryBean();
@@ -75,8 +162,8 @@ public class DbConfig {
 		bean.setDataSource(dataSource);
 		bean.setMapperLocations(resolver.getResources("classpath*:mapper/*.xml"));
 		
-		// 느린 쿼리 감지 인터셉터 추가
-		bean.setPlugins(slowQueryInterceptor);
+		// 느린 쿼리 감지 / 읽기 복제본 조회 표시 인터셉터 추가
+		bean.setPlugins(slowQueryInterceptor, readReplicaInterceptor);
 		
 		return bean.getObject();
 	}
@@ -0,0 +1,119 @@
+package com.andrew.hnt.api.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 읽기 복제본 조회 표시 인터셉터
+ *
+ * custom.datasource.replica.statements 에 맞는 조회 문장(매퍼이름.문장ID, * 와일드카드)을 실행하는 동안
+ * ReplicaRoutingDataSource 에 조회임을 표시 (연결을 이 안에서 얻으므로 복제본으로 라우팅)
+ * 기본 목록은 차트/이력/내보내기 조회만 명시 (허용 목록) - 권한 확인, 등록/수정 직후 목록 조회 등
+ * 방금 쓴 값을 읽어야 하는 문장은 복제 지연 중 이전 값을 볼 수 있으므로 넣지 않음
+ * 복제본을 사용하지 않으면 아무 것도 하지 않음
+ */
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+})
+public class ReadReplicaInterceptor implements Interceptor {
+
+    // 차트 / 이력 / 엑셀 / 원시 데이터 내보내기 조회
+    static final String DEFAULT_STATEMENTS = "DataMapper.selectSensorData,DataMapper.selectSensorDataForExcel*,"
+        + "DataMapper.selectDailyData*,DataMapper.selectWeeklyData,DataMapper.selectYearlyData,"
+        + "DataMapper.selectSensorDataWithCursor,DataMapper.selectReportMinuteSums,DataMapper.selectSensorRawPage";
+
+    @Value("${custom.datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${custom.datasource.replica.statements:" + DEFAULT_STATEMENTS + "}")
+    private String statements;
+
+    @Value("${custom.datasource.replica.exclude-statements:}")
+    private String excludeStatements;
+
+    private final List<Pattern> includes = new ArrayList<>();
+    private final List<Pattern> excludes = new ArrayList<>();
+    // 문장 ID -> 복제본 대상 여부
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        compile(statements, includes);
+        compile(excludeStatements, excludes);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        if (mappedStatement.getSqlCommandType() != SqlCommandType.SELECT
+                || !decisions.computeIfAbsent(mappedStatement.getId(), this::matches)) {
+            return invocation.proceed();
+        }
+        Boolean previous = ReplicaRoutingDataSource.beginRead();
+        try {
+            return invocation.proceed();
+        } finally {
+            ReplicaRoutingDataSource.endRead(previous);
+        }
+    }
+
+    /** "com.andrew.hnt.api.mapper.DataMapper.selectDailyData" -> "DataMapper.selectDailyData" 로 비교 */
+    boolean matches(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int mapper = statementId.lastIndexOf('.', method - 1);
+        String name = statementId.substring(mapper + 1);
+        for (Pattern exclude : excludes) {
+            if (exclude.matcher(name).matches()) {
+                return false;
+            }
+        }
+        for (Pattern include : includes) {
+            if (include.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void compile(String value, List<Pattern> patterns) {
+        for (String item : value.split(",")) {
+            String glob = item.trim();
+            if (!glob.isEmpty()) {
+                patterns.add(Pattern.compile(Pattern.quote(glob).replace("*", "\\E.*\\Q")));
+            }
+        }
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        // 설정은 application.yml 에서 주입
+    }
+}
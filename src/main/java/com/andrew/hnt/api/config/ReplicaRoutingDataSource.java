@@ -0,0 +1,217 @@
+package com.andrew.hnt.api.config;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 읽기 복제본 라우팅 데이터소스 (custom.datasource.replica.enabled)
+ *
+ * - 복제본 사용: ReadReplicaInterceptor 가 표시한 조회 (트랜잭션 밖 또는 읽기 전용 트랜잭션의 첫 문장)
+ *   read-only-transactions=true 면 읽기 전용 트랜잭션(@Transactional(readOnly = true)) 전체
+ *   그 외(쓰기 트랜잭션 안의 조회 포함)는 모두 주 DB
+ * - 복제 지연을 check-interval-ms 주기로 확인 (SHOW REPLICA STATUS, 구버전은 SHOW SLAVE STATUS)
+ *   지연이 max-lag-seconds 초과 / 복제 중지 / 확인 실패면 다음 확인에서 회복될 때까지 주 DB 로 대체
+ * - 트랜잭션의 읽기 전용 여부는 연결을 얻은 뒤에 정해지므로 LazyConnectionDataSourceProxy 로 감싸서 사용 (첫 문장 실행 시 라우팅)
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    // 트랜잭션 밖 조회 표시 (ReadReplicaInterceptor)
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long maxLagSeconds;
+    private final long checkIntervalMs;
+    private final boolean readOnlyTransactions;
+    private final boolean allowStandalone;
+
+    private ScheduledExecutorService lagChecker;
+    private volatile boolean healthy;
+    private volatile Long lagSeconds;
+    private volatile String unhealthyReason = "확인 전";
+    private volatile long lastCheckAt;
+
+    // 통계 정보
+    private final AtomicLong primaryRoutes = new AtomicLong(0);
+    private final AtomicLong replicaRoutes = new AtomicLong(0);
+    private final AtomicLong fallbackRoutes = new AtomicLong(0);
+    private final AtomicLong lagChecks = new AtomicLong(0);
+    private final AtomicLong lagCheckFailures = new AtomicLong(0);
+    private final AtomicLong unhealthyTransitions = new AtomicLong(0);
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, long maxLagSeconds,
+                                    long checkIntervalMs, boolean readOnlyTransactions, boolean allowStandalone) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMs = checkIntervalMs;
+        this.readOnlyTransactions = readOnlyTransactions;
+        this.allowStandalone = allowStandalone;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /** 조회 표시 시작 (이전 값 반환 - endRead 로 복원) */
+    public static Boolean beginRead() {
+        Boolean previous = READ.get();
+        READ.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void endRead(Boolean previous) {
+        if (previous == null) {
+            READ.remove();
+        } else {
+            READ.set(previous);
+        }
+    }
+
+    public void start() {
+        lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Replica-Lag-Check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("읽기 복제본 라우팅 시작 - 주: {}, 복제본: {}, 최대 지연: {}초, 확인 주기: {}ms",
+            primary.getPoolName(), replica.getPoolName(), maxLagSeconds, checkIntervalMs);
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        replica.close();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean read;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 트랜잭션(또는 동기화 범위) 안에서는 연결이 공유되므로 읽기 전용일 때만
+            read = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && (readOnlyTransactions || Boolean.TRUE.equals(READ.get()));
+        } else {
+            read = Boolean.TRUE.equals(READ.get());
+        }
+        if (!read) {
+            primaryRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (!healthy) {
+            fallbackRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        replicaRoutes.incrementAndGet();
+        return Route.REPLICA;
+    }
+
+    private void checkLag() {
+        lagChecks.incrementAndGet();
+        String reason = null;
+        Long lag = null;
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(5);
+            lag = readLag(statement);
+            if (lag == null) {
+                reason = "복제 중지 (지연 값 없음)";
+            } else if (lag > maxLagSeconds) {
+                reason = "복제 지연 " + lag + "초 (최대 " + maxLagSeconds + "초)";
+            }
+        } catch (Exception e) {
+            lagCheckFailures.incrementAndGet();
+            reason = "확인 실패: " + e.getMessage();
+        }
+
+        lagSeconds = lag;
+        lastCheckAt = System.currentTimeMillis();
+        boolean nowHealthy = reason == null;
+        if (healthy && !nowHealthy) {
+            unhealthyTransitions.incrementAndGet();
+            logger.warn("읽기 복제본 사용 중단 - 주 DB 로 대체: {}", reason);
+        } else if (!healthy && nowHealthy) {
+            logger.info("읽기 복제본 사용 - 지연: {}초", lag);
+        }
+        unhealthyReason = reason;
+        healthy = nowHealthy;
+    }
+
+    /** 복제 지연(초), 복제가 멈췄으면 null */
+    private Long readLag(Statement statement) throws SQLException {
+        ResultSet resultSet;
+        try {
+            resultSet = statement.executeQuery("SHOW REPLICA STATUS");
+        } catch (SQLException e) {
+            // MySQL 8.0.22 이전
+            resultSet = statement.executeQuery("SHOW SLAVE STATUS");
+        }
+        try {
+            if (!resultSet.next()) {
+                if (allowStandalone) {
+                    return 0L;
+                }
+                throw new SQLException("복제 상태 없음 (복제본이 아님)");
+            }
+            long lag;
+            try {
+                lag = resultSet.getLong("Seconds_Behind_Source");
+            } catch (SQLException e) {
+                lag = resultSet.getLong("Seconds_Behind_Master");
+            }
+            return resultSet.wasNull() ? null : lag;
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    public Map<String, HikariDataSource> getPools() {
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        pools.put("primary", primary);
+        pools.put("replica", replica);
+        return pools;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("replicaHealthy", healthy);
+        stats.put("lagSeconds", lagSeconds);
+        stats.put("maxLagSeconds", maxLagSeconds);
+        stats.put("unhealthyReason", unhealthyReason);
+        stats.put("lastCheckAt", lastCheckAt);
+        stats.put("lagChecks", lagChecks.get());
+        stats.put("lagCheckFailures", lagCheckFailures.get());
+        stats.put("unhealthyTransitions", unhealthyTransitions.get());
+        stats.put("primaryRoutes", primaryRoutes.get());
+        stats.put("replicaRoutes", replicaRoutes.get());
+        stats.put("fallbackRoutes", fallbackRoutes.get());
+        return stats;
+    }
+}
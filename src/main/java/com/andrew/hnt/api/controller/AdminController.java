@@ -18,7 +18,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.andrew.hnt.api.model.UserInfo;
-import com.andrew.hnt.api.mqtt.common.MQTT;
+import com.andrew.hnt.api.mqtt.MqttCommandChannel;
 import com.andrew.hnt.api.service.AdminService;
 import com.andrew.hnt.api.service.SessionManagementService;
 import com.andrew.hnt.api.service.UnifiedSessionService;
@@ -58,6 +58,9 @@ public class AdminController extends DefaultController {
 	@Autowired
 	private com.andrew.hnt.api.mapper.AdminMapper adminMapper;
 
+	@Autowired
+	private com.andrew.hnt.api.service.MetadataCache metadataCache;
+
 	@Autowired
 	private LoginService loginService;
 	
@@ -72,6 +75,12 @@ public class AdminController extends DefaultController {
 	
 	@Autowired
 	private TransactionManagementService transactionManagementService;
+
+	@Autowired
+	private com.andrew.hnt.api.mqtt.SensorAlarmConfigCache alarmConfigCache;
+
+	@Autowired
+	private MqttCommandChannel commandChannel;
 	
 	@Autowired
 	private SubAccountPermissionService subAccountPermissionService;
@@ -183,12 +192,8 @@ public class AdminController extends DefaultController {
         // 센서 정보 조회 (UUID로 직접 조회 - 간단한 방식)
         String actualSensorOwnerId = sessionUserId; // 기본값
         try {
-            // UUID로 직접 센서 정보 조회
-            Map<String, Object> param = new HashMap<>();
-            param.put("sensorUuid", sensorUuid);
-            param.put("userId", sessionUserId);
-            
-            Map<String, Object> sensorInfo = adminMapper.getSensorInfoByUuid(param);
+            // UUID로 직접 센서 정보 조회 (메타데이터 캐시)
+            Map<String, Object> sensorInfo = metadataCache.getSensorInfoByUuid(sensorUuid, sessionUserId);
             String sensorName = sensorUuid; // 기본값: UUID
             
             logger.info("센서 정보 조회 (UUID 직접 조회) - sensorUuid: {}, 조회 결과: {}", sensorUuid, sensorInfo);
@@ -616,31 +621,10 @@ public class AdminController extends DefaultController {
 				}
     		}
     		
-    		String MqttServer1 = Constants.Mqtt.SERVER;
-    		String MqttServer2 = "";
-    		String client_id = "";
-    		String userName = Constants.Mqtt.USERNAME;
-    		String password = Constants.Mqtt.PASSWORD;
-        String topic = Constants.Mqtt.TOPIC_WILDCARD;
-    		String msg = "";
-    		String readMsg = "";
-    		
-    		client_id = UUID.randomUUID().toString();
-    		
-        MQTT client = new MQTT(MqttServer1, client_id, userName, password);
-        if(null != sendTopic && !"".equals(sendTopic)) {
-            // 응답 구독 토픽은 DEV로 전환
-            if (sendTopic.endsWith("/SER")) {
-                topic = sendTopic.substring(0, sendTopic.length() - 3) + "DEV";
-            } else {
-                topic = sendTopic;
-            }
-        }
-
-        client.init(topic, "Y"); // 응답 수신을 위해 구독
-        client.publish(payload, 0, sendTopic); // 요청은 SER로 발행
-    		String resultMsg = client.getMsg();
-    		String rcvTopic = client.getRcvTopic();
+    		// 공용 명령 채널로 SER 발행 후 해당 장치의 DEV 응답(setres / actres) 대기
+    		MqttCommandChannel.CommandResponse response = commandChannel.sendAndWait(sendTopic, payload);
+    		String resultMsg = response != null ? response.getMessage() : null;
+    		String rcvTopic = response != null ? response.getTopic() : null;
     		
     		// MQTT 전송 후 p16 값을 DB에 저장 (param 설정인 경우)
     		if ("param".equals(setGu) && sensorMap.containsKey("p16") && sensorMap.containsKey("sensorUuid")) {
@@ -649,6 +633,8 @@ public class AdminController extends DefaultController {
     				updateParam.put("sensorUuid", String.valueOf(sensorMap.get("sensorUuid")));
     				updateParam.put("p16", p16);
     				adminMapper.updateConfigP16(updateParam);
+    				alarmConfigCache.invalidateConfig(String.valueOf(sensorMap.get("sensorUuid")));
+    				metadataCache.sensorChanged(String.valueOf(sensorMap.get("sensorUuid"))); // 센서 정보의 device_type (p16)
     				logger.info("p16 값 DB 저장 완료: sensorUuid={}, p16={}", sensorMap.get("sensorUuid"), p16);
     			} catch (Exception e) {
     				logger.error("p16 값 DB 저장 실패: sensorUuid={}, p16={}, error={}", sensorMap.get("sensorUuid"), p16, e.getMessage());
@@ -912,6 +898,7 @@ public class AdminController extends DefaultController {
 				if(hasChanges) {
 					// 변경사항이 있을 때만 저장
 					adminService.insertSetting(settingMap);
+					alarmConfigCache.invalidateConfig(String.valueOf(settingMap.get("sensorUuid")));
 					
 					// 마지막 줄바꿈 제거
 					String changedItemsStr = changedItems.toString();
@@ -2061,6 +2048,7 @@ public class AdminController extends DefaultController {
             if(null != alarmData && 0 < alarmData.size()) {
                 // 알람 설정 저장 서비스 호출
                 adminService.saveAlarmSetting(alarmData);
+                alarmConfigCache.invalidateConfig(String.valueOf(alarmData.get("sensorUuid")));
                 
                 resultMap.put("resultCode", "200");
                 resultMap.put("resultMessage", "알람 설정이 성공적으로 저장되었습니다.");
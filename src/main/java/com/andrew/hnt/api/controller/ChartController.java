@@ -39,7 +39,7 @@ public class ChartController extends DefaultController {
     private AdminService adminService;
     
     @Autowired
-    private com.andrew.hnt.api.mapper.AdminMapper adminMapper;
+    private com.andrew.hnt.api.service.MetadataCache metadataCache;
     
     private static final Logger logger = LoggerFactory.getLogger(ChartController.class);
 
@@ -85,12 +85,8 @@ public class ChartController extends DefaultController {
             
             // 센서 정보 조회 (UUID로 직접 조회 - 간단한 방식)
             try {
-                // UUID로 직접 센서 정보 조회
-                Map<String, Object> sensorParam = new HashMap<>();
-                sensorParam.put("sensorUuid", sensorUuid);
-                sensorParam.put("userId", sessionUserId);
-                
-                Map<String, Object> sensorInfo = adminMapper.getSensorInfoByUuid(sensorParam);
+                // UUID로 직접 센서 정보 조회 (메타데이터 캐시)
+                Map<String, Object> sensorInfo = metadataCache.getSensorInfoByUuid(sensorUuid, sessionUserId);
                 String sensorName = sensorUuid; // 기본값: UUID
                 
                 if (sensorInfo != null && !sensorInfo.isEmpty()) {
@@ -183,12 +179,8 @@ public class ChartController extends DefaultController {
                         
                         // 기본 센서의 상세 정보 조회 (UUID로 직접 조회 - 간단한 방식)
                         try {
-                            // UUID로 직접 센서 정보 조회
-                            Map<String, Object> defaultSensorParam = new HashMap<>();
-                            defaultSensorParam.put("sensorUuid", defaultSensorUuid);
-                            defaultSensorParam.put("userId", sessionUserId);
-                            
-                            Map<String, Object> sensorInfo = adminMapper.getSensorInfoByUuid(defaultSensorParam);
+                            // UUID로 직접 센서 정보 조회 (메타데이터 캐시)
+                            Map<String, Object> sensorInfo = metadataCache.getSensorInfoByUuid(defaultSensorUuid, sessionUserId);
                             String sensorName = defaultSensorName != null ? defaultSensorName : defaultSensorUuid; // 기본값
                             
                             if (sensorInfo != null && !sensorInfo.isEmpty()) {
@@ -3,24 +3,44 @@ package com.andrew.hnt.api.controller;
 import com.andrew.hnt.api.common.Constants;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import com.andrew.hnt.api.model.DeviceVO;
-import com.andrew.hnt.api.mqtt.common.MQTT;
+import com.andrew.hnt.api.mqtt.MqttCommandChannel;
 import com.andrew.hnt.api.service.AdminService;
+import com.andrew.hnt.api.service.ExportJobService;
+import com.andrew.hnt.api.service.ReportAggregationService;
+import com.andrew.hnt.api.service.ReportAggregationService.ReportSeries;
+import com.andrew.hnt.api.service.SensorRawExportService;
 import com.andrew.hnt.api.service.UnifiedSessionService;
 import com.andrew.hnt.api.service.UnifiedSessionService.SessionValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.andrew.hnt.api.util.ChartDownsampler;
 import com.andrew.hnt.api.util.ExcelUtils;
+import com.andrew.hnt.api.util.PermissionUtil;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
@@ -50,6 +70,32 @@ public class DataController {
 	@Autowired
 	private SubAccountPermissionService subAccountPermissionService;
 
+	@Autowired
+	private MqttCommandChannel commandChannel;
+
+	@Autowired
+	private ReportAggregationService reportAggregationService;
+
+	@Autowired
+	private SensorRawExportService sensorRawExportService;
+
+	@Autowired
+	private ExportJobService exportJobService;
+
+	@Value("${custom.excel.report.single-scan:true}")
+	private boolean reportSingleScan;
+
+	@Value("${custom.chart.gap-minutes:5}")
+	private int chartGapMinutes;
+
+	@Value("${custom.chart.max-points-limit:5000}")
+	private int chartMaxPointsLimit;
+
+	@Value("${custom.excel.streaming.enabled:true}")
+	private boolean excelStreamingEnabled;
+
+	@Value("${custom.excel.streaming.window-rows:100}")
+	private int excelWindowRows;
 
 
 	private static final Logger logger = LoggerFactory.getLogger(DataController.class);
@@ -231,26 +277,8 @@ public class DataController {
 					// 장치 삭제 알림 전송 (PC 대시보드 자동 갱신용) - 앱 모드
 					sendDeviceDeletedNotification(deviceVO.getUserId(), deviceVO.getSensorUuid());
 
-					String MqttServer1 = Constants.Mqtt.SERVER;
-					String clientId = "";
-					String userName = Constants.Mqtt.USERNAME;
-					String password = Constants.Mqtt.PASSWORD;
-					String topic = Constants.Mqtt.TOPIC_WILDCARD;
-
-					clientId = UUID.randomUUID().toString();
-
-					MQTT client = new MQTT(MqttServer1, clientId, userName, password);
-
-					if(null != sendTopic && !"".equals(sendTopic) && 0 < sendTopic.length()) {
-						// 응답은 DEV 토픽으로 수신하도록 구독 토픽 설정
-						if (sendTopic.endsWith("/SER")) {
-							topic = sendTopic.substring(0, sendTopic.length() - 3) + "DEV";
-						} else {
-							topic = sendTopic;
-						}
-					}
-					client.init(topic, "Y"); // DEV 구독
-					client.publish(payload, 0, sendTopic); // SER 발행
+					// 공용 명령 채널로 장치 초기화 명령 발행 (응답 대기 없음)
+					commandChannel.publish(sendTopic, payload); // SER 발행
 
 					resultMap.put("resultCode", "200");
 					resultMap.put("resultMessage", "장치 삭제 성공");
@@ -299,26 +327,8 @@ public class DataController {
 
 				param.put("topicStr", sendTopic);
 
-                String MqttServer1 = Constants.Mqtt.SERVER;
-				String clientId = "";
-				String userName = Constants.Mqtt.USERNAME;
-				String password = Constants.Mqtt.PASSWORD;
-                String topic = Constants.Mqtt.TOPIC_WILDCARD;
-
-				clientId = UUID.randomUUID().toString();
-
-				MQTT client = new MQTT(MqttServer1, clientId, userName, password);
-
-                if(null != sendTopic && !"".equals(sendTopic) && 0 < sendTopic.length()) {
-                    // 응답은 DEV 토픽으로 수신하도록 구독 토픽 설정
-                    if (sendTopic.endsWith("/SER")) {
-                        topic = sendTopic.substring(0, sendTopic.length() - 3) + "DEV";
-                    } else {
-                        topic = sendTopic;
-                    }
-                }
-				client.init(topic, "Y"); // DEV 구독
-                client.publish(payload, 0, sendTopic); // SER 발행
+				// 공용 명령 채널로 장치 초기화 명령 발행 (응답 대기 없음)
+				commandChannel.publish(sendTopic, payload); // SER 발행
 				
 				// 장치 삭제 알림 전송 (PC 대시보드 자동 갱신용)
 				sendDeviceDeletedNotification(deviceVO.getUserId(), deviceVO.getSensorUuid());
@@ -526,6 +536,15 @@ public class DataController {
 				List<String> header3 = new ArrayList<String>();
 
 			try {
+					if (excelStreamingEnabled && reportSingleScan) {
+						writeReportExcel(req, param, sensorName, res);
+						return;
+					}
+					if (excelStreamingEnabled) {
+						streamDataExcel(param, sensorName, res);
+						return;
+					}
+
 					// === 성능 최적화: 일간 데이터 조회 ===
 					long dailyStartTime = System.currentTimeMillis();
 					param.put("gu", "d");
@@ -624,6 +643,336 @@ public class DataController {
 
 	}
 	
+	/**
+	 * 스트리밍 엑셀 작성 (custom.excel.streaming.enabled)
+	 * 일간 데이터는 결과셋에서 한 행씩 받아 SXSSF 로 기록하고, 완성된 통합 문서는 응답 스트림에 바로 작성
+	 * 연간 목록은 엑셀에 쓰이지 않으므로 조회하지 않음
+	 */
+	private void streamDataExcel(Map<String, Object> param, String sensorName, HttpServletResponse res) throws IOException {
+		long startTime = System.currentTimeMillis();
+
+		try (ExcelUtils.StreamingDataExcel excel = new ExcelUtils.StreamingDataExcel(ExcelUtils.minuteHeader(), sensorName, excelWindowRows)) {
+			param.put("gu", "d");
+			dataService.streamDailyData(param, excel);
+			logger.info("일간 데이터 스트리밍 완료 - 행 수: {}, 날짜 수: {}, sensorUuid: {}, 소요시간: {}ms",
+				excel.getAcceptedRows(), excel.getDayRows(), param.get("sensorUuid"), System.currentTimeMillis() - startTime);
+
+			// 아직 응답에 쓰지 않았으므로 오류 응답 가능
+			if (excel.getValidRows() == 0) {
+				logger.warn("엑셀 다운로드 - 데이터가 없음");
+				res.sendError(HttpServletResponse.SC_NOT_FOUND, "선택한 날짜 범위에 데이터가 없습니다.");
+				return;
+			}
+
+			param.put("gu", "w");
+			List<Map<String, Object>> monthlyList = dataService.selectSensorData(param);
+			excel.writeMonthly(monthlyList, sensorName);
+
+			excel.write(res.getOutputStream());
+			logger.info("스트리밍 엑셀 전송 완료 - 일간: {}건, 월간: {}건, 총 소요시간: {}ms",
+				excel.getValidRows(), monthlyList != null ? monthlyList.size() : 0, System.currentTimeMillis() - startTime);
+		}
+	}
+
+	/**
+	 * 단일 조회 보고서 (custom.excel.report.single-scan)
+	 * 센서별로 기간을 한 번만 조회해 1분/일/월 계열을 함께 집계 (여러 센서는 병렬) 하고 SXSSF 로 응답 스트림에 바로 작성
+	 * sensorUuid 를 여러 번 보내면 첫 센서와 소유자가 같은 센서만 센서별 시트 쌍으로 추가
+	 */
+	private void writeReportExcel(HttpServletRequest req, Map<String, Object> param, String sensorName, HttpServletResponse res) throws Exception {
+		String ownerId = String.valueOf(param.get("sensorId"));
+		String[] uuidValues = req.getParameterValues("sensorUuid");
+		String[] nameValues = req.getParameterValues("sensorName");
+		List<String> sensorUuids = new ArrayList<String>();
+		List<String> sensorNames = new ArrayList<String>();
+		sensorUuids.add(String.valueOf(param.get("sensorUuid")));
+		sensorNames.add(sensorName);
+		for (int i = 1; uuidValues != null && i < uuidValues.length && sensorUuids.size() < reportAggregationService.getMaxSensors(); i++) {
+			String uuid = uuidValues[i];
+			if (uuid == null || uuid.trim().isEmpty() || sensorUuids.contains(uuid)) {
+				continue;
+			}
+			@SuppressWarnings("unchecked")
+			Map<String, Object> sensor = (Map<String, Object>) adminService.getUserInfo(ownerId, uuid).get("sensorInfo");
+			if (sensor == null || !ownerId.equals(String.valueOf(sensor.get("sensor_id")))) {
+				logger.warn("엑셀 보고서 - 소유자가 다른 센서 제외: {}", uuid);
+				continue;
+			}
+			sensorUuids.add(uuid);
+			sensorNames.add(nameValues != null && i < nameValues.length ? nameValues[i] : uuid);
+		}
+
+		List<ReportSeries> seriesList;
+		try {
+			LocalDate startDate = LocalDate.parse(String.valueOf(param.get("startDateTime")).substring(0, 10));
+			LocalDate endDate = LocalDate.parse(String.valueOf(param.get("endDateTime")).substring(0, 10));
+			seriesList = reportAggregationService.aggregate(sensorUuids, startDate, endDate);
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			logger.warn("엑셀 보고서 - 기간 오류: {}", e.getMessage());
+			res.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+			return;
+		}
+
+		// 아직 응답에 쓰지 않았으므로 오류 응답 가능
+		boolean hasData = false;
+		for (ReportSeries series : seriesList) {
+			hasData |= series.getRows() > 0;
+		}
+		if (!hasData) {
+			logger.warn("엑셀 다운로드 - 데이터가 없음");
+			res.sendError(HttpServletResponse.SC_NOT_FOUND, "선택한 날짜 범위에 데이터가 없습니다.");
+			return;
+		}
+
+		reportAggregationService.writeExcel(seriesList, sensorNames, excelWindowRows, res.getOutputStream());
+	}
+
+	/** 차트 최대 점 수 요청값 (없거나 잘못되면 0 = 축소 안 함, 상한 적용) */
+	private int parseMaxPoints(String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return 0;
+		}
+		try {
+			return Math.max(0, Math.min(Integer.parseInt(value.trim()), chartMaxPointsLimit));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * 센서 원본 데이터 내보내기 (NDJSON / CSV, 선택적 gzip)
+	 * sensorUuid 여러 개 가능, 기간은 startDate/endDate(yyyy-MM-dd) 또는 startDateTime/endDateTime(yyyy-MM-dd HH:mm:ss)
+	 * 연결이 끊기면 응답에 마지막으로 기록된 커서를 cursor 파라미터로 보내 이어받기
+	 */
+	@RequestMapping(value = "/exportRaw", method = {RequestMethod.GET, RequestMethod.POST})
+	public void exportRaw(
+			HttpServletRequest req
+			, HttpServletResponse res
+	) throws IOException {
+		HttpSession session = req.getSession();
+		SessionValidationResult validationResult = unifiedSessionService.validateSession(session, req, "B");
+		if (!validationResult.isValid()) {
+			res.sendError(HttpServletResponse.SC_UNAUTHORIZED, "로그인이 필요합니다.");
+			return;
+		}
+		String sessionUserId = validationResult.getUserId();
+		String sessionUserGrade = validationResult.getUserGrade();
+
+		List<String> sensorUuids = new ArrayList<String>();
+		String[] uuidValues = req.getParameterValues("sensorUuid");
+		for (int i = 0; uuidValues != null && i < uuidValues.length; i++) {
+			String uuid = uuidValues[i] == null ? "" : uuidValues[i].trim();
+			if (!uuid.isEmpty() && !sensorUuids.contains(uuid)) {
+				sensorUuids.add(uuid);
+			}
+		}
+		if (sensorUuids.isEmpty() || sensorUuids.size() > sensorRawExportService.getMaxSensors()) {
+			res.sendError(HttpServletResponse.SC_BAD_REQUEST,
+				"센서는 1 ~ " + sensorRawExportService.getMaxSensors() + "개까지 선택할 수 있습니다.");
+			return;
+		}
+
+		String startDateTime = req.getParameter("startDateTime");
+		String endDateTime = req.getParameter("endDateTime");
+		String startDate = req.getParameter("startDate");
+		String endDate = req.getParameter("endDate");
+		if ((startDateTime == null || startDateTime.trim().isEmpty()) && startDate != null) {
+			startDateTime = startDate.trim() + " 00:00:00";
+		}
+		if ((endDateTime == null || endDateTime.trim().isEmpty()) && endDate != null) {
+			endDateTime = endDate.trim() + " 23:59:59";
+		}
+		SensorRawExportService.Cursor cursor = null;
+		try {
+			DateTimeFormatter pattern = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+			if (startDateTime == null || endDateTime == null
+					|| LocalDateTime.parse(startDateTime.trim(), pattern).isAfter(LocalDateTime.parse(endDateTime.trim(), pattern))) {
+				throw new IllegalArgumentException("조회 기간이 올바르지 않습니다.");
+			}
+			String token = req.getParameter("cursor");
+			if (token != null && !token.trim().isEmpty()) {
+				cursor = SensorRawExportService.Cursor.parse(token);
+				if (!sensorUuids.contains(cursor.getSensorUuid())) {
+					throw new IllegalArgumentException("이어받기 커서의 센서가 요청 목록에 없습니다.");
+				}
+			}
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			logger.warn("원본 내보내기 - 파라미터 오류: {}", e.getMessage());
+			res.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage() == null ? "잘못된 요청입니다." : e.getMessage());
+			return;
+		}
+
+		for (String uuid : sensorUuids) {
+			if (!canExportSensor(session, sessionUserId, sessionUserGrade, uuid)) {
+				logger.warn("원본 내보내기 - 센서 접근 거부: {} / {}", sessionUserId, uuid);
+				res.sendError(HttpServletResponse.SC_FORBIDDEN, "센서 접근 권한이 없습니다.");
+				return;
+			}
+		}
+
+		SensorRawExportService.Format format = SensorRawExportService.Format.of(req.getParameter("format"));
+		boolean gzip = "true".equalsIgnoreCase(req.getParameter("gzip")) || "Y".equalsIgnoreCase(req.getParameter("gzip"));
+		String fileName = "sensor_raw_" + startDateTime.trim().substring(0, 10).replace("-", "") + "_"
+			+ endDateTime.trim().substring(0, 10).replace("-", "") + "." + format.getExtension() + (gzip ? ".gz" : "");
+		res.setContentType(gzip ? "application/gzip" : format.getContentType() + ";charset=UTF-8");
+		res.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+		res.setHeader("X-Accel-Buffering", "no");
+
+		OutputStream out = gzip ? new GZIPOutputStream(res.getOutputStream(), 8192, true) : res.getOutputStream();
+		try {
+			sensorRawExportService.export(sensorUuids, startDateTime.trim(), endDateTime.trim(), format, cursor, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * 내보내기 작업 제출 (format: xlsx 보고서 / csv / ndjson 원본, 기간: startDate ~ endDate)
+	 * 같은 센서/기간/형식 작업이 진행 중이면 그 작업에 합류, 캐시된 파일이 있으면 바로 완료 작업 반환
+	 */
+	@RequestMapping(value = "/submitExportJob", method = RequestMethod.POST)
+	public @ResponseBody Map<String, Object> submitExportJob(
+			HttpServletRequest req
+			, HttpServletResponse res
+	) {
+		HttpSession session = req.getSession();
+		SessionValidationResult validationResult = unifiedSessionService.validateSession(session, req, "B");
+		if (!validationResult.isValid()) {
+			return ResponseUtil.unauthorized("로그인이 필요합니다.");
+		}
+		String sessionUserId = validationResult.getUserId();
+
+		String sensorUuid = req.getParameter("sensorUuid");
+		String sensorName = req.getParameter("sensorName");
+		ExportJobService.Format format = ExportJobService.Format.of(req.getParameter("format"));
+		if (sensorUuid == null || sensorUuid.trim().isEmpty() || format == null) {
+			return ResponseUtil.badRequest("센서와 형식(xlsx, csv, ndjson)을 확인하세요.");
+		}
+		sensorUuid = sensorUuid.trim();
+
+		LocalDate startDate;
+		LocalDate endDate;
+		try {
+			startDate = LocalDate.parse(String.valueOf(req.getParameter("startDate")).trim());
+			endDate = LocalDate.parse(String.valueOf(req.getParameter("endDate")).trim());
+		} catch (DateTimeParseException e) {
+			return ResponseUtil.badRequest("날짜 범위가 필요합니다. (yyyy-MM-dd)");
+		}
+		long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+		if (days < 1 || (format == ExportJobService.Format.XLSX && days > reportAggregationService.getMaxDays())) {
+			return ResponseUtil.badRequest("조회 기간이 올바르지 않습니다.");
+		}
+
+		if (!canExportSensor(session, sessionUserId, validationResult.getUserGrade(), sensorUuid)) {
+			logger.warn("내보내기 작업 - 센서 접근 거부: {} / {}", sessionUserId, sensorUuid);
+			return ResponseUtil.forbidden("센서 접근 권한이 없습니다.");
+		}
+
+		try {
+			ExportJobService.ExportJob job = exportJobService.submit(sessionUserId, sensorUuid,
+				sensorName == null || sensorName.trim().isEmpty() ? sensorUuid : sensorName.trim(), startDate, endDate, format);
+			Map<String, Object> resultMap = ResponseUtil.success("내보내기 작업 등록 성공");
+			resultMap.put("job", job.toMap());
+			return resultMap;
+		} catch (IllegalStateException e) {
+			return ResponseUtil.error("429", e.getMessage());
+		} catch (RejectedExecutionException e) {
+			logger.warn("내보내기 작업 - 대기열 가득 참: {}", sessionUserId);
+			return ResponseUtil.serviceUnavailable("내보내기 요청이 많습니다. 잠시 후 다시 시도하세요.");
+		}
+	}
+
+	/**
+	 * 내보내기 작업 진행률 조회
+	 */
+	@RequestMapping(value = "/getExportJob", method = {RequestMethod.GET, RequestMethod.POST})
+	public @ResponseBody Map<String, Object> getExportJob(
+			HttpServletRequest req
+			, HttpServletResponse res
+	) {
+		SessionValidationResult validationResult = unifiedSessionService.validateSession(req.getSession(), req, "B");
+		if (!validationResult.isValid()) {
+			return ResponseUtil.unauthorized("로그인이 필요합니다.");
+		}
+		ExportJobService.ExportJob job = exportJobService.getJob(req.getParameter("jobId"), validationResult.getUserId(),
+			PermissionUtil.isAdmin(validationResult.getUserGrade()));
+		if (job == null) {
+			return ResponseUtil.notFound("내보내기 작업을 찾을 수 없습니다.");
+		}
+		Map<String, Object> resultMap = ResponseUtil.success("내보내기 작업 조회 성공");
+		resultMap.put("job", job.toMap());
+		return resultMap;
+	}
+
+	/**
+	 * 완료된 내보내기 파일 다운로드 (Tomcat sendfile 지원 시 sendfile, 아니면 FileChannel.transferTo)
+	 */
+	@RequestMapping(value = "/downloadExportJob", method = RequestMethod.GET)
+	public void downloadExportJob(
+			HttpServletRequest req
+			, HttpServletResponse res
+	) throws IOException {
+		SessionValidationResult validationResult = unifiedSessionService.validateSession(req.getSession(), req, "B");
+		if (!validationResult.isValid()) {
+			res.sendError(HttpServletResponse.SC_UNAUTHORIZED, "로그인이 필요합니다.");
+			return;
+		}
+		ExportJobService.ExportJob job = exportJobService.getJob(req.getParameter("jobId"), validationResult.getUserId(),
+			PermissionUtil.isAdmin(validationResult.getUserGrade()));
+		if (job == null) {
+			res.sendError(HttpServletResponse.SC_NOT_FOUND, "내보내기 작업을 찾을 수 없습니다.");
+			return;
+		}
+		if (job.getStatus() != ExportJobService.Status.DONE) {
+			res.sendError(HttpServletResponse.SC_CONFLICT, "내보내기 작업이 완료되지 않았습니다.");
+			return;
+		}
+		File file = exportJobService.openFile(job);
+		if (file == null) {
+			res.sendError(HttpServletResponse.SC_GONE, "내보내기 파일이 만료되었습니다. 다시 요청하세요.");
+			return;
+		}
+
+		long length = file.length();
+		String encodedFileName = java.net.URLEncoder.encode(job.getFileName(), "UTF-8").replaceAll("\\+", "%20");
+		res.setContentType(job.getFormat().getContentType());
+		res.setHeader("Content-Disposition",
+			"attachment; filename=\"" + job.getFileName() + "\"; filename*=UTF-8''" + encodedFileName);
+		res.setContentLengthLong(length);
+
+		// Tomcat NIO sendfile (응답 처리 후 커넥터가 FileChannel.transferTo 로 소켓에 직접 전송)
+		if (Boolean.TRUE.equals(req.getAttribute("org.apache.tomcat.sendfile.support"))) {
+			req.setAttribute("org.apache.tomcat.sendfile.filename", file.getCanonicalPath());
+			req.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+			req.setAttribute("org.apache.tomcat.sendfile.end", length);
+			exportJobService.recordDownload(true, length);
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			WritableByteChannel target = Channels.newChannel(res.getOutputStream());
+			long position = 0;
+			while (position < length) {
+				position += channel.transferTo(position, length - position, target);
+			}
+		}
+		exportJobService.recordDownload(false, length);
+	}
+
+	/**
+	 * 내보내기 센서 접근 권한 (관리자 전체 / 부계정은 허용된 센서 / 일반 사용자는 본인 소유 센서)
+	 */
+	private boolean canExportSensor(HttpSession session, String userId, String userGrade, String sensorUuid) {
+		if (PermissionUtil.isAdmin(userGrade)) {
+			return true;
+		}
+		if (PermissionUtil.isSubAccount(userGrade)) {
+			return subAccountPermissionService.validateSensorAccess(session, sensorUuid);
+		}
+		@SuppressWarnings("unchecked")
+		Map<String, Object> sensor = (Map<String, Object>) adminService.getUserInfo(userId, sensorUuid).get("sensorInfo");
+		return sensor != null && userId.equals(String.valueOf(sensor.get("sensor_id")));
+	}
+
 	@RequestMapping(value = "/getDailyData", method = RequestMethod.POST)
 	public @ResponseBody Map<String, Object> getDailyData(
 			HttpServletRequest req
@@ -637,6 +986,8 @@ public class DataController {
 			String sensorUuid = req.getParameter("sensorUuid");
 			String startDate = req.getParameter("startDate");
 			String endDate = req.getParameter("endDate");
+			// 차트 폭 기준 최대 점 수 (있으면 LTTB 축소 + 끊김 표시)
+			int maxPoints = parseMaxPoints(req.getParameter("maxPoints"));
 			// 통합 세션 검증 (모델 설정 없음)
 			HttpSession session = req.getSession();
 			SessionValidationResult validationResult = unifiedSessionService.validateSession(session, req, "B"); // 부계정 이상 권한 필요
@@ -687,7 +1038,32 @@ public class DataController {
 			logger.info("DataController.getDailyData - DB 조회 결과: dailyList.size()={}", 
 				dailyList != null ? dailyList.size() : 0);
 			
-			if(null != dailyList && 0 < dailyList.size()) {
+			if(maxPoints > 0 && null != dailyList) {
+				// 축소 + 끊김 표시 (끊김 행은 "inst_dtm^" 으로 값 없이 전달)
+				long computeStart = System.nanoTime();
+				ChartDownsampler.Result downsampled = ChartDownsampler.downsample(dailyList, maxPoints, chartGapMinutes);
+				long originalBytes = 0;
+				for (Map<String, Object> item : dailyList) {
+					if (item != null && item.get("inst_dtm") != null && item.get("sensor_value") != null) {
+						originalBytes += String.valueOf(item.get("inst_dtm")).length() + String.valueOf(item.get("sensor_value")).length() + 2;
+					}
+				}
+				for (Map<String, Object> item : downsampled.getRows()) {
+					Object value = item.get("sensor_value");
+					daily.add(item.get("inst_dtm") + "^" + (value == null ? "" : value));
+				}
+				double computeMs = Math.round((System.nanoTime() - computeStart) / 10_000.0) / 100.0;
+
+				Map<String, Object> downsample = new HashMap<String, Object>();
+				downsample.put("maxPoints", maxPoints);
+				downsample.put("originalPoints", downsampled.getOriginalPoints());
+				downsample.put("points", downsampled.getRows().size() - downsampled.getGaps());
+				downsample.put("gaps", downsampled.getGaps());
+				downsample.put("hiddenGaps", downsampled.getHiddenGaps());
+				downsample.put("computeMs", computeMs);
+				downsample.put("originalBytes", Math.max(0, originalBytes - 1));
+				resultMap.put("downsample", downsample);
+			} else if(null != dailyList && 0 < dailyList.size()) {
 				for(int i=0; i < dailyList.size(); i++) {
 					Map<String, Object> item = dailyList.get(i);
 					if(item != null && item.get("inst_dtm") != null && item.get("sensor_value") != null) {
@@ -700,6 +1076,12 @@ public class DataController {
 			
 			// 결과 데이터를 쉼표로 구분된 문자열로 변환
 			String dailyData = String.join(",", daily);
+			if (resultMap.get("downsample") != null) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> downsample = (Map<String, Object>) resultMap.get("downsample");
+				downsample.put("payloadBytes", dailyData.length());
+				logger.info("DataController.getDailyData - 차트 축소: {}", downsample);
+			}
 			
 			logger.info("DataController.getDailyData - 최종 응답: dailyData 길이={}, 내용={}", 
 				dailyData.length(), dailyData);
@@ -48,6 +48,9 @@ public class LoginController {
 	@Autowired
 	private SessionSecurityService sessionSecurityService;
 	
+	@Autowired
+	private com.andrew.hnt.api.mqtt.SensorAlarmConfigCache alarmConfigCache;
+	
 	private static final Logger logger = LoggerFactory.getLogger(LoginController.class);
 
 	/**
@@ -273,6 +276,7 @@ public class LoginController {
 								// 로그인 성공 시 고객 정보의 토큰값 업데이트
 								if(null != loginVO.getToken() && !"".equals(loginVO.getToken())) {
 									loginService.updateUserInfo(loginVO);
+									alarmConfigCache.invalidateUserToken(loginVO.getUserId());
 								}
 
 							} else {
@@ -57,6 +57,9 @@ public class MainController extends BaseController {
 	@Autowired
 	private com.andrew.hnt.api.mapper.AdminMapper adminMapper;
 
+	@Autowired
+	private com.andrew.hnt.api.service.MetadataCache metadataCache;
+
 	@Autowired
 	private MqttServiceImpl mqttService;
 	
@@ -79,6 +82,12 @@ public class MainController extends BaseController {
     @Autowired
     private com.andrew.hnt.api.service.NotificationService notificationService;
 
+    @Autowired
+    private com.andrew.hnt.api.mqtt.SensorAlarmConfigCache alarmConfigCache;
+
+    @Autowired
+    private com.andrew.hnt.api.mqtt.AlarmStateMachine alarmStateMachine;
+
 	private static final Logger logger = LoggerFactory.getLogger(MainController.class);
 
 	private String apiKey = "AAAAoUCvVY0:APA91bFhv_a-RRU0OOJPmGk4MBri_Aqu0MW4r1CDfar4GrhQf3H9XPTWRhoul86dfhLTomTn-WsTrKJ-qPAakoap9vMl7JHmrj8WniVnTQE3y5mhxKFDPp09bAmjaAuDx8qUXH1qhO05";
@@ -323,11 +332,8 @@ public class MainController extends BaseController {
 				// sensorId가 제공된 경우 해당 센서만 조회, 그렇지 않으면 전체 센서 리스트 조회
 				List<Map<String, Object>> sensorList;
 				if (sensorId != null && !sensorId.isEmpty() && !"null".equals(sensorId)) {
-					// 특정 센서 ID로 조회
-					Map<String, Object> param = new HashMap<String, Object>();
-					param.put("userId", sessionUserId);
-					param.put("sensorId", sensorId);
-					sensorList = adminMapper.getSensorListBySensorId(param);
+					// 특정 센서 ID로 조회 (메타데이터 캐시)
+					sensorList = metadataCache.getSensorListBySensorId(sessionUserId, sensorId);
 					logger.info("특정 센서 조회 - userId: {}, sensorId: {}, count: {}", 
 						sessionUserId, sensorId, sensorList != null ? sensorList.size() : 0);
 				} else {
@@ -467,6 +473,60 @@ public class MainController extends BaseController {
 		}
 	}
 
+	/**
+	 * 사용자(부계정 포함) 소유 센서 전체의 최신값 일괄 조회
+	 * sinceVersion을 전달하면 해당 버전 이후 변경된 센서만 반환
+	 * @param req HTTP 요청
+	 * @param res HTTP 응답
+	 * @param reqMap 요청 파라미터 (sinceVersion: 선택)
+	 * @return version, full, sensors
+	 */
+	@RequestMapping(value = "/getDataAll", method = RequestMethod.POST)
+	public @ResponseBody Map<String, Object> getDataAll(
+			HttpServletRequest req
+			, HttpServletResponse res
+			, @RequestBody(required = false) Map<String, Object> reqMap
+	        ) {
+
+		try {
+			// 세션 검증
+			HttpSession session = req.getSession();
+			if(!sessionManagementService.isValidSession(session)) {
+				return unifiedErrorHandler.createUnauthorizedResponse();
+			}
+
+			String sessionUserId = (String) session.getAttribute(Constants.SESSION_USER_ID);
+			if (!isValidUserId(sessionUserId)) {
+				return unifiedErrorHandler.createUnauthorizedResponse();
+			}
+
+			long sinceVersion = 0L;
+			if (reqMap != null && reqMap.get("sinceVersion") != null) {
+				try {
+					sinceVersion = Long.parseLong(String.valueOf(reqMap.get("sinceVersion")));
+				} catch (NumberFormatException e) {
+					return unifiedErrorHandler.createBadRequestResponse("sinceVersion 형식이 올바르지 않습니다.");
+				}
+			}
+
+			// 주계정/부계정 구분하여 접근 가능한 센서 목록 조회
+			List<Map<String, Object>> sensorList = subAccountService.getSensorListByUserType(sessionUserId);
+			List<String> uuids = new ArrayList<>(sensorList.size());
+			for (Map<String, Object> sensor : sensorList) {
+				Object uuid = sensor.get("sensor_uuid");
+				if (uuid != null) {
+					uuids.add(String.valueOf(uuid));
+				}
+			}
+
+			return ResponseUtil.success("데이터 조회 성공", mqttService.getSensorSnapshot(uuids, sinceVersion));
+
+		} catch(Exception e) {
+			unifiedErrorHandler.logError("getDataAll 처리", e);
+			return unifiedErrorHandler.createInternalServerErrorResponse(e);
+		}
+	}
+
 	public void insertSensorData(SensorVO sensorVO) {
 		try {
 			loginService.insertSensorData(sensorVO);
@@ -571,6 +631,13 @@ public class MainController extends BaseController {
 		
 		Map<String, Object> resultMap = new HashMap<String, Object>();
 
+		// 알람 상태 머신 사용 시 서버 수신 데이터로 알람 판정/발송 (화면 경유 중복 발송 및 hnt_alarm 적재 방지)
+		if(alarmStateMachine.isEnabled()) {
+			resultMap.put("resultCode", "200");
+			resultMap.put("resultMessage", "서버 알람 처리 중");
+			return resultMap;
+		}
+
 		if(null != reqMap && 0 < reqMap.size()) {
 			Map<String, Object> config = new HashMap<String, Object>();
 			Map<String, Object> sensorInfo = new HashMap<String, Object>();
@@ -1650,21 +1717,30 @@ public class MainController extends BaseController {
 				return unifiedErrorHandler.createUnauthorizedResponse();
 			}
 			
-			// 요청 데이터 검증
-			String userId = String.valueOf(request.get("userId"));
-			String userToken = String.valueOf(request.get("userToken"));
+			// 토큰은 세션 사용자 본인 것만 갱신 (요청 본문의 userId 는 일치 확인용)
+			String userId = (String) session.getAttribute(Constants.SESSION_USER_ID);
+			Object requestUserId = request.get("userId");
+			String userToken = request.get("userToken") == null ? null : String.valueOf(request.get("userToken"));
 			
-			if (StringUtil.isEmpty(userId) || StringUtil.isEmpty(userToken)) {
-				return unifiedErrorHandler.createBadRequestResponse("사용자 ID와 토큰이 필요합니다.");
+			if (StringUtil.isEmpty(userId)) {
+				return unifiedErrorHandler.createUnauthorizedResponse();
+			}
+			if (StringUtil.isEmpty(userToken)) {
+				return unifiedErrorHandler.createBadRequestResponse("토큰이 필요합니다.");
+			}
+			if (requestUserId != null && !userId.equals(String.valueOf(requestUserId))) {
+				logger.warn("FCM 토큰 업데이트 거부 - 세션 사용자: {}, 요청 사용자: {}", userId, requestUserId);
+				return unifiedErrorHandler.createForbiddenResponse("다른 사용자의 토큰은 변경할 수 없습니다.");
 			}
 			
-			// FCM 토큰 업데이트 로직
-			Map<String, Object> updateParam = new HashMap<>();
-			updateParam.put("userId", userId);
-			updateParam.put("userToken", userToken);
+			// FCM 토큰 업데이트 (hnt_user.token, 로그인 시 토큰 갱신과 동일 경로)
+			LoginVO loginVO = new LoginVO();
+			loginVO.setUserId(userId);
+			loginVO.setToken(userToken);
+			loginService.updateUserInfo(loginVO);
 			
-			// 사용자 정보 업데이트 (토큰 필드가 있다면)
-			// 실제 구현은 데이터베이스 스키마에 따라 조정 필요
+			// 알림 발송 시 새 토큰 사용
+			alarmConfigCache.invalidateUserToken(userId);
 			logger.info("FCM 토큰 업데이트 요청 - userId: {}, token: {}", userId, userToken);
 			
 			resultMap.put("resultCode", "200");
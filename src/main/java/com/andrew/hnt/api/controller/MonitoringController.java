@@ -1,7 +1,25 @@
 package com.andrew.hnt.api.controller;
 
+import com.andrew.hnt.api.mqtt.AlarmStateMachine;
+import com.andrew.hnt.api.mqtt.MqttCommandChannel;
+import com.andrew.hnt.api.mqtt.MqttInboundDispatcher;
+import com.andrew.hnt.api.mqtt.MqttMessageProcessor;
+import com.andrew.hnt.api.mqtt.SensorAlarmConfigCache;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.service.ChartResultCache;
+import com.andrew.hnt.api.service.FcmDispatcher;
+import com.andrew.hnt.api.service.MetadataCache;
 import com.andrew.hnt.api.service.MetricsStorageService;
+import com.andrew.hnt.api.config.DatabasePoolConfig;
+import com.andrew.hnt.api.service.ExportJobService;
+import com.andrew.hnt.api.service.ReportAggregationService;
+import com.andrew.hnt.api.service.SensorRawExportService;
 import com.andrew.hnt.api.service.SessionManagementService;
+import com.andrew.hnt.api.service.SensorDataBatchWriter;
+import com.andrew.hnt.api.service.SensorDataPartitionService;
+import com.andrew.hnt.api.service.SensorDataSchemaService;
+import com.andrew.hnt.api.service.SensorHistoryService;
+import com.andrew.hnt.api.service.SensorRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +57,60 @@ public class MonitoringController {
     @Autowired
     private SessionManagementService sessionManagementService;
     
+    @Autowired
+    private MqttInboundDispatcher mqttInboundDispatcher;
+    
+    @Autowired
+    private MqttMessageProcessor mqttMessageProcessor;
+    
+    @Autowired
+    private SensorAlarmConfigCache sensorAlarmConfigCache;
+    
+    @Autowired
+    private AlarmStateMachine alarmStateMachine;
+
+    @Autowired
+    private SensorHeartbeatTracker sensorHeartbeatTracker;
+
+    @Autowired
+    private FcmDispatcher fcmDispatcher;
+
+    @Autowired
+    private MqttCommandChannel mqttCommandChannel;
+
+    @Autowired
+    private SensorRollupService sensorRollupService;
+
+    @Autowired
+    private SensorDataPartitionService sensorDataPartitionService;
+
+    @Autowired
+    private SensorHistoryService sensorHistoryService;
+
+    @Autowired
+    private SensorDataBatchWriter sensorDataBatchWriter;
+
+    @Autowired
+    private SensorDataSchemaService sensorDataSchemaService;
+
+    @Autowired
+    private ChartResultCache chartResultCache;
+
+    @Autowired
+    private ReportAggregationService reportAggregationService;
+
+    @Autowired
+    private SensorRawExportService sensorRawExportService;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private DatabasePoolConfig databasePoolConfig;
+
+    @Autowired
+    private MetadataCache metadataCache;
+    
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     /**
@@ -447,6 +519,263 @@ public class MonitoringController {
         }
     }
     
+    /**
+     * MQTT 수신 파이프라인 상태 조회
+     * 수신 분배기(링 점유율, 전달 지연, 소비자 사용률), 배치 처리기, 알람 설정 캐시, 알람 상태 머신 통계
+     * 
+     * @param session HTTP 세션
+     * @return 파이프라인 통계
+     */
+    @GetMapping("/mqtt/pipeline")
+    public ResponseEntity<Map<String, Object>> getMqttPipelineStats(HttpSession session) {
+        try {
+            // 세션 검증
+            if (!sessionManagementService.isValidSession(session)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse("인증이 필요합니다."));
+            }
+            
+            Map<String, Object> pipeline = new HashMap<>();
+            pipeline.put("inbound", mqttInboundDispatcher.getStats());
+            pipeline.put("processor", mqttMessageProcessor.getDetailedStats());
+            pipeline.put("alarmConfigCache", sensorAlarmConfigCache.getStats());
+            pipeline.put("metadataCache", metadataCache.getStats());
+            pipeline.put("alarmStateMachine", alarmStateMachine.getStats());
+            pipeline.put("heartbeat", sensorHeartbeatTracker.getStats());
+            pipeline.put("fcm", fcmDispatcher.getStats());
+            pipeline.put("command", mqttCommandChannel.getStats());
+            pipeline.put("writer", sensorDataBatchWriter.getStats());
+            pipeline.put("rollup", sensorRollupService.getStats());
+            pipeline.put("history", sensorHistoryService.getStats());
+            pipeline.put("chartCache", chartResultCache.getStats());
+            pipeline.put("report", reportAggregationService.getStats());
+            pipeline.put("rawExport", sensorRawExportService.getStats());
+            pipeline.put("exportJob", exportJobService.getStats());
+            pipeline.put("datasource", databasePoolConfig.getStats());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", "MQTT 파이프라인 상태 조회 성공");
+            response.put("data", pipeline);
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("MQTT 파이프라인 상태 조회 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
+    /**
+     * hnt_sensor_data 파티션 현황 조회
+     * 구간별 예상 행 수, 최근 파티션 제외 확인 결과, 전환 진행 상황
+     * 
+     * @param session HTTP 세션
+     * @return 파티션 현황
+     */
+    @GetMapping("/db/partitions")
+    public ResponseEntity<Map<String, Object>> getSensorDataPartitions(HttpSession session) {
+        try {
+            if (!sessionManagementService.isValidSession(session)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse("인증이 필요합니다."));
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", "파티션 현황 조회 성공");
+            response.put("data", sensorDataPartitionService.getStatus());
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("파티션 현황 조회 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
+    /**
+     * hnt_sensor_data 파티션 관리 즉시 실행 (관리자)
+     * 다음 구간 생성, 보관 기간 초과 구간 정리, 파티션 제외 확인
+     * 
+     * @param session HTTP 세션
+     * @return 관리 결과
+     */
+    @PostMapping("/db/partitions/maintain")
+    public ResponseEntity<Map<String, Object>> maintainSensorDataPartitions(HttpSession session) {
+        try {
+            if (!sessionManagementService.isAdmin(session)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse("관리자 권한이 필요합니다."));
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", "파티션 관리 실행 완료");
+            response.put("data", sensorDataPartitionService.maintain());
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("파티션 관리 실행 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
+    /**
+     * hnt_sensor_data 파티션 온라인 전환 시작/중지 (관리자)
+     * 진행 상황은 GET /monitoring/db/partitions 의 migration 항목
+     * 
+     * @param stop true 이면 진행 중인 전환 중지 (다시 시작하면 이어서 진행)
+     * @param session HTTP 세션
+     * @return 시작 여부
+     */
+    @PostMapping("/db/partitions/migrate")
+    public ResponseEntity<Map<String, Object>> migrateSensorDataPartitions(
+            @RequestParam(value = "stop", defaultValue = "false") boolean stop,
+            HttpSession session) {
+        try {
+            if (!sessionManagementService.isAdmin(session)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse("관리자 권한이 필요합니다."));
+            }
+            
+            boolean started = false;
+            if (stop) {
+                sensorDataPartitionService.stopMigration();
+            } else {
+                started = sensorDataPartitionService.startMigration();
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", stop ? "파티션 전환 중지 요청" 
+                : started ? "파티션 전환 시작" : "이미 파티션 적용 또는 전환 진행 중");
+            response.put("data", sensorDataPartitionService.getStatus());
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("파티션 전환 요청 처리 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
+    /**
+     * hnt_sensor_data 저장 형식 현황 조회
+     * 압축 형식 여부, 사전/원본 페이로드 기록 통계, 전환 진행 상황 및 전환 전후 보고
+     * 
+     * @param session HTTP 세션
+     * @return 저장 형식 현황
+     */
+    @GetMapping("/db/sensor-data/compact")
+    public ResponseEntity<Map<String, Object>> getSensorDataCompactStatus(HttpSession session) {
+        try {
+            if (!sessionManagementService.isValidSession(session)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse("인증이 필요합니다."));
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", "저장 형식 현황 조회 성공");
+            response.put("data", sensorDataSchemaService.getStatus());
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("저장 형식 현황 조회 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
+    /**
+     * hnt_sensor_data 행당 크기 / 조회 지연 측정 (관리자)
+     * 
+     * @param session HTTP 세션
+     * @return 측정 결과
+     */
+    @PostMapping("/db/sensor-data/compact/report")
+    public ResponseEntity<Map<String, Object>> reportSensorDataCompact(HttpSession session) {
+        try {
+            if (!sessionManagementService.isAdmin(session)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse("관리자 권한이 필요합니다."));
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", "저장 형식 측정 완료");
+            response.put("data", sensorDataSchemaService.report());
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("저장 형식 측정 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
+    /**
+     * hnt_sensor_data 압축 형식 온라인 전환 시작/중지 (관리자)
+     * 진행 상황은 GET /monitoring/db/sensor-data/compact 의 migration 항목
+     * 
+     * @param stop true 이면 진행 중인 전환 중지 (다시 시작하면 이어서 진행)
+     * @param session HTTP 세션
+     * @return 시작 여부
+     */
+    @PostMapping("/db/sensor-data/compact/migrate")
+    public ResponseEntity<Map<String, Object>> migrateSensorDataCompact(
+            @RequestParam(value = "stop", defaultValue = "false") boolean stop,
+            HttpSession session) {
+        try {
+            if (!sessionManagementService.isAdmin(session)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse("관리자 권한이 필요합니다."));
+            }
+            
+            boolean started = false;
+            if (stop) {
+                sensorDataSchemaService.stopMigration();
+            } else {
+                started = sensorDataSchemaService.startMigration();
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("resultCode", "200");
+            response.put("resultMessage", stop ? "압축 형식 전환 중지 요청" 
+                : started ? "압축 형식 전환 시작" : "이미 압축 형식 또는 전환 진행 중");
+            response.put("data", sensorDataSchemaService.getStatus());
+            response.put("timestamp", LocalDateTime.now().format(DATETIME_FORMATTER));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("압축 형식 전환 요청 처리 중 오류 발생", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("서버 내부 오류가 발생했습니다."));
+        }
+    }
+    
     /**
      * 에러 응답 생성
      */
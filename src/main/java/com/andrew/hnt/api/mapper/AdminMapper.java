@@ -38,6 +38,20 @@ public interface AdminMapper {
 
 	public Map<String, Object> selectSettingByUuid(Map<String, Object> param);
 
+	public List<Map<String, Object>> selectAllAlarmSettings();
+
+	public List<Map<String, Object>> selectActiveUserTokens();
+
+	public List<Map<String, Object>> selectAlarmStates();
+
+	public void deleteAlarmState(Map<String, Object> param);
+
+	public void deleteAlarmUrgent(Map<String, Object> param);
+
+	public void insertAlarmState(Map<String, Object> param);
+
+	public List<Map<String, Object>> selectHeartbeatSensors();
+
 	public void deleteNoti2(Map<String, Object> param);
 
 	public void insertNoti(Map<String, Object> param);
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Repository;
 
 @Mapper
@@ -31,6 +32,12 @@ public interface DataMapper {
 	
 	// 최적화된 일간 데이터 조회 (30분 단위 그룹화)
 	public List<Map<String, Object>> selectDailyData(Map<String, Object> param);
+
+	// 엑셀 스트리밍용 일간 데이터 (selectDailyData 와 같은 행, 결과셋 스트리밍으로 한 행씩 전달)
+	public void selectDailyDataStream(Map<String, Object> param, ResultHandler<Map<String, Object>> handler);
+
+	// 보고서 단일 조회 (1분 구간별 slot, sum_value, cnt - 결과셋 스트리밍)
+	public void selectReportMinuteSums(Map<String, Object> param, ResultHandler<Map<String, Object>> handler);
 	
 	// 고성능 일간 데이터 조회 (커서 기반 페이징)
 	public List<Map<String, Object>> selectDailyDataWithCursor(Map<String, Object> param);
@@ -40,4 +47,85 @@ public interface DataMapper {
 	
 	// 최적화된 연간 데이터 조회
 	public List<Map<String, Object>> selectYearlyData(Map<String, Object> param);
+
+	// 커서 기반 원본 조회 (inst_dtm 이후 pageSize 건)
+	public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param);
+
+	// 원본 내보내기 페이지 ((inst_dtm, id) 키셋, pageSize 건)
+	public List<Map<String, Object>> selectSensorRawPage(Map<String, Object> param);
+
+	// 센서 이력 롤업 (상태 / 백필 / 삭제)
+	public Long selectMaxSensorDataId();
+	
+	public List<Map<String, Object>> selectSensorRollupState();
+	
+	public int insertSensorRollupStateIfAbsent(Map<String, Object> param);
+	
+	public int updateSensorRollupState(Map<String, Object> param);
+	
+	public int compareAndSetSensorRollupState(Map<String, Object> param);
+	
+	public int backfillSensorRollup(Map<String, Object> param);
+	
+	public int deleteSensorRollup(Map<String, Object> param);
+	
+	// 센서 데이터 시간 파티션 (관리 / 전환 / 파티션 단위 삭제)
+	public List<Map<String, Object>> selectTablePartitions(Map<String, Object> param);
+	
+	public int countTable(Map<String, Object> param);
+	
+	public Long selectTableMaxId(Map<String, Object> param);
+	
+	public String selectFirstSensorDataDtm();
+	
+	public void createTableLike(Map<String, Object> param);
+	
+	public void changeSensorDataPrimaryKey(Map<String, Object> param);
+	
+	public void partitionSensorDataTable(Map<String, Object> param);
+	
+	public void removeTablePartitioning(Map<String, Object> param);
+	
+	public void splitSensorDataMaxPartition(Map<String, Object> param);
+	
+	public void addSensorDataPartition(Map<String, Object> param);
+	
+	public void dropSensorDataPartition(Map<String, Object> param);
+	
+	public void exchangeSensorDataPartition(Map<String, Object> param);
+	
+	public int copySensorDataChunk(Map<String, Object> param);
+	
+	public void setTableAutoIncrement(Map<String, Object> param);
+	
+	public void swapSensorDataTable(Map<String, Object> param);
+	
+	public int deleteSensorDataInPartition(Map<String, Object> param);
+	
+	public int deleteTableSensorData(Map<String, Object> param);
+
+	// 센서 데이터 압축 형식 (사전 / 원본 페이로드 분리 테이블, 전환)
+	public Integer countTableColumn(Map<String, Object> param);
+	
+	public Map<String, Object> selectTableSize(Map<String, Object> param);
+	
+	public String selectLatestSensorDataUuid();
+	
+	public void alterSensorDataCompact(Map<String, Object> param);
+	
+	public void createSensorDictTable();
+	
+	public void createSensorRawTable();
+	
+	public int copySensorDataCompactChunk(Map<String, Object> param);
+	
+	public int upsertSensorDictChunk(Map<String, Object> param);
+	
+	public int copySensorRawChunk(Map<String, Object> param);
+	
+	public int deleteExpiredSensorRaw(Map<String, Object> param);
+	
+	public int deleteSensorRaw(Map<String, Object> param);
+	
+	public int deleteSensorDict(Map<String, Object> param);
 }
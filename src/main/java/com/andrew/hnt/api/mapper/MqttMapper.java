@@ -45,4 +45,11 @@ public interface MqttMapper {
     
     // 기본 설정 정보 삽입
     public void insertDefaultConfig(Map<String, Object> param);
+    
+    // WAL 중복 제거 기준 (노드/샤드별 마지막 저장 LSN)
+    public void upsertIngestCheckpoint(Map<String, Object> param);
+    public Long selectIngestCheckpoint(Map<String, Object> param);
+    
+    // 센서 이력 롤업 누적 (배치 저장 트랜잭션에서 호출)
+    public int upsertSensorRollup(Map<String, Object> param);
 }
@@ -0,0 +1,867 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import com.andrew.hnt.api.model.NotificationRequest;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 센서 알람 상태 머신
+ * 수신 데이터로 직접 구동되는 센서/알람 종류별 상태 (정상 → 지연 대기 → 발송 → 재전송 대기 → 해제)
+ *
+ * - 측정값마다 센서당 해시 조회 1회 + 알람 종류별 상수 시간 판정 (DB 조회 없음)
+ * - 지연/재전송 마감은 해시 타이밍 휠로 관리 (틱 단위 정밀도, 기본 100ms)
+ * - 만료 처리/발송은 작업 스레드에서 실행 (설정/토큰/센서명 DB 조회가 휠 스레드를 막지 않도록)
+ * - hnt_alarm 은 대기 중 타이머 / DI·통신에러 즉시 발송 이력의 후기록 로그로만 사용 (재기동 시 복구)
+ *
+ * 기존 ScheduleWork.runSchedule (분 단위 hnt_alarm 스캔) + /main/sendAlarm 경로를 대체
+ * - 발송 문구/알람 코드/지연·재전송 규칙은 기존 경로와 동일
+ *   (지연시간 0 이면 즉시 발송, 재전송간격 0 또는 미설정이면 재전송 없음)
+ */
+@Component
+@Order(0) // MQTT 연결 전 대기 타이머 복구
+public class AlarmStateMachine implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlarmStateMachine.class);
+
+    // 특정온도 알람 허용 오차 (±0.5°C)
+    private static final double SPECIFIC_TOLERANCE = 0.5;
+
+    // DI/통신에러 즉시 알람 재발송 제한 (기존 selectUrgentNoti 의 12시간 조건)
+    private static final long URGENT_HOLD_MS = TimeUnit.HOURS.toMillis(12);
+
+    @Autowired
+    private SensorAlarmConfigCache alarmConfigCache;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private AdminMapper adminMapper;
+
+    @Autowired
+    private MetadataCache metadataCache;
+
+    @Value("${custom.alarm.state-machine.enabled:true}")
+    private boolean enabled;
+
+    @Value("${custom.alarm.state-machine.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${custom.alarm.state-machine.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${custom.alarm.state-machine.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${custom.alarm.state-machine.retry-seconds:60}")
+    private long retrySeconds; // 발송 실패 시 재시도 간격
+
+    /**
+     * 알람 종류 (hnt_config alarm_ynN 순서, hnt_alarm alarm_type 코드)
+     * 코드는 기존 sendAlarm / ScheduleWork 와 동일 - 즉시 발송 / 지연 후 발송 / 재전송
+     */
+    public enum AlarmKind {
+        HIGH(SensorAlarmConfigCache.ALARM_HIGH, "high", "high", "rehigh", "온도 높음", false),
+        LOW(SensorAlarmConfigCache.ALARM_LOW, "low", "low", "relow", "온도 낮음", false),
+        SPECIFIC(SensorAlarmConfigCache.ALARM_SPECIFIC, "specific", "specific", "respecific", "특정온도", false),
+        DI(SensorAlarmConfigCache.ALARM_DI, "di", "di1", "di2", "DI알람", true),
+        NETWORK(SensorAlarmConfigCache.ALARM_NETWORK, "netError", "netError1", "netError2", "통신에러", true);
+
+        private final int alarmNo;
+        private final String code;
+        private final String delayCode;
+        private final String reCode;
+        private final String label;
+        private final boolean holdsUrgent; // 해제 후에도 즉시 발송 이력 유지 (12시간 내 즉시 알람 생략)
+
+        AlarmKind(int alarmNo, String code, String delayCode, String reCode, String label, boolean holdsUrgent) {
+            this.alarmNo = alarmNo;
+            this.code = code;
+            this.delayCode = delayCode;
+            this.reCode = reCode;
+            this.label = label;
+            this.holdsUrgent = holdsUrgent;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        private static AlarmKind fromCode(String code) {
+            for (AlarmKind kind : values()) {
+                if (kind.code.equals(code) || kind.delayCode.equals(code) || kind.reCode.equals(code)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 타이머 등록 (운영: 해시 타이밍 휠, 테스트: 수동 시계) - 반환값은 취소 동작
+     */
+    interface TimerScheduler {
+        Runnable schedule(Runnable task, long delayMs);
+    }
+
+    /**
+     * 알람 상태
+     */
+    public enum State {
+        NORMAL,         // 정상
+        PENDING_DELAY,  // 조건 충족, 지연시간 대기 중
+        FIRING,         // 발송 (재전송 없음 또는 발송 진행 중)
+        RENOTIFY,       // 발송 후 재전송 간격 대기 중
+        CLEARED         // 발송 후 조건 해제 (다음 측정값에서 정상 전환)
+    }
+
+    /**
+     * 센서/알람 종류별 상태 (센서 단위 락으로 보호)
+     */
+    private static final class AlarmState {
+        private final AlarmKind kind;
+        private State state = State.NORMAL;
+        private Runnable timeout;  // 타이머 취소 동작
+        private long deadline;     // 현재 타이머 마감 (epoch ms)
+        private long episode;      // 발생 구간 번호 (해제 후 늦게 도착한 발송 결과 무시)
+        private String lastValue;  // 마지막 측정값 (수신 문자열 그대로, 발송 문구용)
+        private String setValue;   // 판정 기준 설정값 (hnt_config 문자열 그대로)
+        private long firedAt;
+        private long urgentAt;     // 마지막 즉시 발송 시각 (DI/통신에러 12시간 제한)
+
+        private AlarmState(AlarmKind kind) {
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * 센서별 알람 상태 묶음
+     */
+    private static final class SensorAlarms {
+        private final String sensorUuid;
+        private volatile String userId;
+        private volatile String name;              // 센서명 힌트 (센서 정보 조회 실패 시 사용)
+        private volatile String temperature;       // 마지막 온도 (DI 알람 문구용)
+        private final AlarmState[] states = new AlarmState[AlarmKind.values().length];
+
+        private SensorAlarms(String sensorUuid, String userId) {
+            this.sensorUuid = sensorUuid;
+            this.userId = userId;
+            for (AlarmKind kind : AlarmKind.values()) {
+                states[kind.ordinal()] = new AlarmState(kind);
+            }
+        }
+    }
+
+    /**
+     * 후기록 작업 (센서/알람 종류별 최신 상태만 유지)
+     */
+    private static final class PersistOp {
+        private final String userId;
+        private final String sensorUuid;
+        private final AlarmKind kind;
+        private final String alarmType; // null 이면 삭제만
+        private final long deadline;    // 즉시 발송 이력이면 발송 시각
+        private final String setValue;
+        private final String lastValue;
+        private final boolean urgent;   // 즉시 발송 이력 (urgent_yn = 'Y')
+
+        private PersistOp(String userId, String sensorUuid, AlarmKind kind, String alarmType,
+                          long deadline, String setValue, String lastValue, boolean urgent) {
+            this.userId = userId;
+            this.sensorUuid = sensorUuid;
+            this.kind = kind;
+            this.alarmType = alarmType;
+            this.deadline = deadline;
+            this.setValue = setValue;
+            this.lastValue = lastValue;
+            this.urgent = urgent;
+        }
+    }
+
+    private final ConcurrentHashMap<String, SensorAlarms> sensors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PersistOp> pendingPersist = new ConcurrentHashMap<>();
+
+    private HashedTimingWheel wheel;
+    private TimerScheduler timers;
+    private ExecutorService worker;
+    private ScheduledExecutorService persister;
+    private LongSupplier clock = System::currentTimeMillis;
+    private volatile boolean started = false;
+
+    // 통계 정보
+    private final AtomicLong readings = new AtomicLong(0);
+    private final AtomicLong delayed = new AtomicLong(0);
+    private final AtomicLong fired = new AtomicLong(0);
+    private final AtomicLong renotified = new AtomicLong(0);
+    private final AtomicLong cancelled = new AtomicLong(0);
+    private final AtomicLong cleared = new AtomicLong(0);
+    private final AtomicLong sendSuccess = new AtomicLong(0);
+    private final AtomicLong sendFailures = new AtomicLong(0);
+    private final AtomicLong persistWrites = new AtomicLong(0);
+    private final AtomicLong persistErrors = new AtomicLong(0);
+    private final AtomicLong recovered = new AtomicLong(0);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        start();
+    }
+
+    /**
+     * 타이밍 휠/작업/후기록 스레드 시작 및 대기 타이머 복구
+     */
+    public synchronized void start() {
+        if (!enabled || started) {
+            return;
+        }
+
+        wheel = new HashedTimingWheel("Alarm-TimerWheel", tickMs, wheelSize);
+        wheel.start();
+
+        ExecutorService alarmWorker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Alarm-Worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        persister = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Alarm-Persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+        persister.scheduleWithFixedDelay(this::flushPersist, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        HashedTimingWheel timerWheel = wheel;
+        startWith((task, delayMs) -> timerWheel.newTimeout(task, delayMs)::cancel, alarmWorker, System::currentTimeMillis);
+
+        logger.info("알람 상태 머신 시작 - 틱: {}ms, 휠 크기: {}, 복구된 타이머: {}", tickMs, wheelSize, recovered.get());
+    }
+
+    /**
+     * 타이머/작업 실행기/시계를 지정해 시작 (테스트에서 수동 시계로 구동)
+     */
+    synchronized void startWith(TimerScheduler timers, ExecutorService worker, LongSupplier clock) {
+        this.timers = timers;
+        this.worker = worker;
+        this.clock = clock;
+        started = true;
+        recover();
+    }
+
+    /**
+     * 상태 머신 사용 여부 (ScheduleWork / sendAlarm 경로 비활성화 판단)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 온도(ain) 측정값 반영 - 고온/저온/특정온도 판정, 정상 수신이므로 통신이상 해제
+     * @param sensorValue 수신 문자열 (숫자가 아니면 무시, 발송 문구에는 그대로 표시)
+     */
+    public void onTemperature(String userId, String sensorUuid, String name, String sensorValue) {
+        double value;
+        try {
+            value = Double.parseDouble(sensorValue);
+        } catch (NumberFormatException | NullPointerException e) {
+            return; // 온도 값이 숫자가 아니면 무시
+        }
+        SensorAlarms alarms = prepare(userId, sensorUuid, name);
+        if (alarms == null) {
+            return;
+        }
+        alarms.temperature = sensorValue;
+        SensorAlarmConfigCache.AlarmConfig config = alarmConfigCache.getConfig(sensorUuid);
+
+        synchronized (alarms) {
+            evaluate(alarms, config, AlarmKind.HIGH, sensorValue, value > setValueOf(config, AlarmKind.HIGH));
+            evaluate(alarms, config, AlarmKind.LOW, sensorValue, value < setValueOf(config, AlarmKind.LOW));
+            evaluate(alarms, config, AlarmKind.SPECIFIC, sensorValue,
+                Math.abs(value - setValueOf(config, AlarmKind.SPECIFIC)) <= SPECIFIC_TOLERANCE);
+            evaluate(alarms, config, AlarmKind.NETWORK, sensorValue, false);
+        }
+    }
+
+    /**
+     * DI(din) 측정값 반영 - 1 이면 이상 (문구에는 기존과 같이 마지막 온도 표시)
+     */
+    public void onDigitalInput(String userId, String sensorUuid, String name, int value) {
+        SensorAlarms alarms = prepare(userId, sensorUuid, name);
+        if (alarms == null) {
+            return;
+        }
+        SensorAlarmConfigCache.AlarmConfig config = alarmConfigCache.getConfig(sensorUuid);
+
+        synchronized (alarms) {
+            evaluate(alarms, config, AlarmKind.DI, alarms.temperature, value == 1);
+        }
+    }
+
+    /**
+     * 통신이상 (ain 값이 Error) 반영
+     */
+    public void onCommError(String userId, String sensorUuid, String name) {
+        SensorAlarms alarms = prepare(userId, sensorUuid, name);
+        if (alarms == null) {
+            return;
+        }
+        SensorAlarmConfigCache.AlarmConfig config = alarmConfigCache.getConfig(sensorUuid);
+
+        synchronized (alarms) {
+            evaluate(alarms, config, AlarmKind.NETWORK, alarms.temperature, true);
+        }
+    }
+
+    /**
+     * 통신 복구 (무수신 후 정상 수신 재개) 반영 - 통신이상 해제
+     */
+    public void onCommRestored(String userId, String sensorUuid, String name) {
+        SensorAlarms alarms = prepare(userId, sensorUuid, name);
+        if (alarms == null) {
+            return;
+        }
+        SensorAlarmConfigCache.AlarmConfig config = alarmConfigCache.getConfig(sensorUuid);
+
+        synchronized (alarms) {
+            evaluate(alarms, config, AlarmKind.NETWORK, alarms.temperature, false);
+        }
+    }
+
+    /**
+     * 장치 삭제 반영 - 대기 타이머 취소 및 상태 제거 (hnt_alarm 행은 삭제 쓰기 경로에서 함께 삭제)
+     */
+    public void evict(String sensorUuid) {
+        if (!started || sensorUuid == null) {
+            return;
+        }
+        SensorAlarms alarms = sensors.remove(sensorUuid);
+        if (alarms == null) {
+            return;
+        }
+        synchronized (alarms) {
+            for (AlarmState st : alarms.states) {
+                st.episode++; // 진행 중인 발송 결과 무시
+                toNormal(alarms, st);
+                if (st.urgentAt > 0) {
+                    st.urgentAt = 0;
+                    persistUrgent(alarms, st);
+                }
+            }
+        }
+    }
+
+    /**
+     * 센서 알람 상태 조회 (없으면 null)
+     */
+    public State getState(String sensorUuid, AlarmKind kind) {
+        SensorAlarms alarms = sensors.get(sensorUuid);
+        if (alarms == null) {
+            return null;
+        }
+        synchronized (alarms) {
+            return alarms.states[kind.ordinal()].state;
+        }
+    }
+
+    private SensorAlarms prepare(String userId, String sensorUuid, String name) {
+        if (!started || sensorUuid == null) {
+            return null;
+        }
+        readings.incrementAndGet();
+        SensorAlarms alarms = sensors.get(sensorUuid);
+        if (alarms == null) {
+            alarms = sensors.computeIfAbsent(sensorUuid, uuid -> new SensorAlarms(uuid, userId));
+        }
+        if (userId != null) {
+            alarms.userId = userId;
+        }
+        if (name != null) {
+            alarms.name = name;
+        }
+        return alarms;
+    }
+
+    private static double setValueOf(SensorAlarmConfigCache.AlarmConfig config, AlarmKind kind) {
+        return config != null ? config.getSetValue(kind.alarmNo) : Double.NaN;
+    }
+
+    /**
+     * 재전송 간격 (re_delay_timeN 이 0 이거나 미설정이면 재전송 없음, 기존 sendAlarm 과 동일)
+     */
+    private static long repeatMinutesOf(SensorAlarmConfigCache.AlarmConfig config, AlarmKind kind) {
+        return Math.max(0, config.getRepeatMinutes(kind.alarmNo));
+    }
+
+    /**
+     * 상태 전이 (센서 락 보유 상태에서 호출)
+     */
+    private void evaluate(SensorAlarms alarms, SensorAlarmConfigCache.AlarmConfig config,
+                          AlarmKind kind, String value, boolean condition) {
+        AlarmState st = alarms.states[kind.ordinal()];
+        boolean alarmOn = config != null && config.isPresent() && config.isAlarmEnabled(kind.alarmNo);
+
+        // 알람 미사용으로 바뀌면 대기/발송 상태 정리
+        // (온도 알람 설정값이 숫자가 아니면 NaN 비교로 항상 조건 불충족)
+        if (!alarmOn) {
+            if (st.state != State.NORMAL) {
+                toNormal(alarms, st);
+            }
+            return;
+        }
+
+        st.lastValue = value;
+        st.setValue = config.getSetValueText(kind.alarmNo);
+
+        if (condition) {
+            switch (st.state) {
+                case NORMAL:
+                case CLEARED:
+                    st.episode++;
+                    long delayMinutes = config.getDelayMinutes(kind.alarmNo);
+                    if (delayMinutes > 0) {
+                        st.state = State.PENDING_DELAY;
+                        schedule(alarms, st, TimeUnit.MINUTES.toMillis(delayMinutes));
+                        persist(alarms, st, kind.delayCode);
+                        delayed.incrementAndGet();
+                    } else if (kind.holdsUrgent && st.urgentAt > 0 && clock.getAsLong() - st.urgentAt < URGENT_HOLD_MS) {
+                        // 즉시 알람 생략, 재전송 간격 알람만 진행 (기존 sendAlarm 과 동일)
+                        fire(alarms, st, config, null);
+                    } else {
+                        st.urgentAt = clock.getAsLong();
+                        if (kind.holdsUrgent) {
+                            persistUrgent(alarms, st);
+                        }
+                        fire(alarms, st, config, kind.code);
+                    }
+                    break;
+                default:
+                    // 지연/발송/재전송 대기 중에는 타이머가 진행
+                    break;
+            }
+        } else {
+            switch (st.state) {
+                case PENDING_DELAY:
+                    // 발송 전 정상 복귀 - 대기 알람 취소
+                    cancelTimer(st);
+                    st.state = State.NORMAL;
+                    persistDelete(alarms, st);
+                    cancelled.incrementAndGet();
+                    break;
+                case FIRING:
+                case RENOTIFY:
+                    cancelTimer(st);
+                    st.state = State.CLEARED;
+                    persistDelete(alarms, st);
+                    cleared.incrementAndGet();
+                    logger.debug("알람 해제 - sensorUuid: {}, type: {}", alarms.sensorUuid, kind.label);
+                    break;
+                case CLEARED:
+                    st.state = State.NORMAL;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void toNormal(SensorAlarms alarms, AlarmState st) {
+        cancelTimer(st);
+        if (st.state == State.PENDING_DELAY || st.state == State.RENOTIFY) {
+            persistDelete(alarms, st);
+        }
+        st.state = State.NORMAL;
+    }
+
+    private void schedule(SensorAlarms alarms, AlarmState st, long delayMs) {
+        cancelTimer(st);
+        st.deadline = clock.getAsLong() + delayMs;
+        final long episode = st.episode;
+        // 만료 처리는 설정 조회(DB)가 있으므로 작업 스레드로 넘김
+        st.timeout = timers.schedule(() -> worker.execute(() -> onTimer(alarms, st, episode)), delayMs);
+    }
+
+    private void cancelTimer(AlarmState st) {
+        if (st.timeout != null) {
+            st.timeout.run();
+            st.timeout = null;
+        }
+    }
+
+    /**
+     * 타이머 만료 (작업 스레드)
+     */
+    private void onTimer(SensorAlarms alarms, AlarmState st, long episode) {
+        SensorAlarmConfigCache.AlarmConfig config = alarmConfigCache.getConfig(alarms.sensorUuid);
+
+        synchronized (alarms) {
+            if (st.episode != episode || (st.state != State.PENDING_DELAY && st.state != State.RENOTIFY)) {
+                return; // 이미 해제/재발생된 구간
+            }
+            st.timeout = null;
+
+            if (config == null || !config.isPresent() || !config.isAlarmEnabled(st.kind.alarmNo)) {
+                toNormal(alarms, st);
+                return;
+            }
+
+            String alarmType;
+            if (st.state == State.RENOTIFY) {
+                renotified.incrementAndGet();
+                alarmType = st.kind.reCode;
+            } else {
+                alarmType = st.kind.delayCode;
+            }
+            st.setValue = config.getSetValueText(st.kind.alarmNo);
+            fire(alarms, st, config, alarmType);
+        }
+    }
+
+    /**
+     * 알람 발송 후 재전송 타이머 등록 (센서 락 보유 상태)
+     * @param alarmType 발송 알람 코드 (즉시 high / 지연 후 high, di1, netError1 / 재전송 rehigh, di2, netError2 ...),
+     *                  null 이면 발송 없이 재전송 타이머만 등록
+     */
+    private void fire(SensorAlarms alarms, AlarmState st, SensorAlarmConfigCache.AlarmConfig config, String alarmType) {
+        st.state = State.FIRING;
+        st.firedAt = clock.getAsLong();
+
+        long repeatMinutes = repeatMinutesOf(config, st.kind);
+        if (repeatMinutes > 0) {
+            st.state = State.RENOTIFY;
+            schedule(alarms, st, TimeUnit.MINUTES.toMillis(repeatMinutes));
+            persist(alarms, st, st.kind.reCode);
+        } else {
+            persistDelete(alarms, st);
+        }
+        if (alarmType == null) {
+            return;
+        }
+
+        fired.incrementAndGet();
+        final String userId = alarms.userId;
+        final String warnText = buildWarnText(alarms, st);
+        final long episode = st.episode;
+        worker.execute(() -> send(alarms, st, userId, alarmType, warnText, episode));
+    }
+
+    /**
+     * 알람 문구 (기존 ScheduleWork 와 동일)
+     */
+    private static String buildWarnText(SensorAlarms alarms, AlarmState st) {
+        switch (st.kind) {
+            case HIGH:
+            case LOW:
+            case SPECIFIC:
+                return st.kind.label + "(설정온도 : " + st.setValue + "°C, 현재온도 : " + st.lastValue + "°C)";
+            case DI:
+                return "DI알람(에러, 현재온도 : " + alarms.temperature + ")";
+            default:
+                return st.kind.label;
+        }
+    }
+
+    /**
+     * 센서명 (hnt_sensor_info.sensor_name, 조회 실패 시 힌트, 둘 다 없으면 빈 문자열)
+     */
+    private String sensorNameOf(SensorAlarms alarms, String userId) {
+        try {
+            Map<String, Object> sensorInfo = metadataCache.getSensorInfo(userId, alarms.sensorUuid);
+            if (sensorInfo != null && sensorInfo.get("sensor_name") != null) {
+                return String.valueOf(sensorInfo.get("sensor_name"));
+            }
+        } catch (Exception e) {
+            logger.warn("센서명 조회 실패 - sensorUuid: {}, error: {}", alarms.sensorUuid, e.getMessage());
+        }
+        return alarms.name != null ? alarms.name : "";
+    }
+
+    /**
+     * 알림 발송 요청 (작업 스레드 - 센서명/토큰 조회 후 비동기 발송, 결과는 FCM 콜백 스레드에서 처리)
+     */
+    private void send(SensorAlarms alarms, AlarmState st, String userId, String alarmType, String warnText, long episode) {
+        try {
+            NotificationRequest request = new NotificationRequest();
+            request.setUserId(userId);
+            request.setFcmToken(alarmConfigCache.getUserToken(userId));
+            request.setSensorUuid(alarms.sensorUuid);
+            request.setMessage(sensorNameOf(alarms, userId) + "장치 이상 발생 : " + warnText);
+            request.setAlarmType(alarmType);
+
+            notificationService.sendDualNotificationAsync(request).whenComplete((success, error) -> {
+                if (error != null) {
+                    logger.error("알림 발송 중 오류 - sensorUuid: {}", alarms.sensorUuid, error);
+                }
+                onSendResult(alarms, st, userId, episode, error == null && Boolean.TRUE.equals(success));
+            });
+        } catch (Exception e) {
+            logger.error("알림 발송 중 오류 - sensorUuid: {}", alarms.sensorUuid, e);
+            onSendResult(alarms, st, userId, episode, false);
+        }
+    }
+
+    private void onSendResult(SensorAlarms alarms, AlarmState st, String userId, long episode, boolean success) {
+        if (success) {
+            sendSuccess.incrementAndGet();
+            logger.info("알림 발송 성공 - userId: {}, sensorUuid: {}, type: {}", userId, alarms.sensorUuid, st.kind.code);
+            return;
+        }
+
+        sendFailures.incrementAndGet();
+        logger.warn("알림 발송 실패 - userId: {}, sensorUuid: {}, type: {} ({}초 후 재시도)",
+            userId, alarms.sensorUuid, st.kind.code, retrySeconds);
+
+        // 같은 구간이 유지 중이면 재전송 간격 대신 재시도 간격으로 앞당김
+        synchronized (alarms) {
+            if (st.episode == episode && (st.state == State.FIRING || st.state == State.RENOTIFY)
+                    && (st.timeout == null || st.deadline - clock.getAsLong() > TimeUnit.SECONDS.toMillis(retrySeconds))) {
+                st.state = State.RENOTIFY;
+                schedule(alarms, st, TimeUnit.SECONDS.toMillis(retrySeconds));
+                persist(alarms, st, st.kind.reCode);
+            }
+        }
+    }
+
+    private void persist(SensorAlarms alarms, AlarmState st, String alarmType) {
+        // DI 는 발송 문구의 현재온도를 in_temp 에 기록 (기존 hnt_alarm DI 행과 동일)
+        String inTemp = st.kind == AlarmKind.DI ? alarms.temperature : st.lastValue;
+        pendingPersist.put(alarms.sensorUuid + "|" + st.kind.code,
+            new PersistOp(alarms.userId, alarms.sensorUuid, st.kind, alarmType, st.deadline, st.setValue, inTemp, false));
+    }
+
+    private void persistDelete(SensorAlarms alarms, AlarmState st) {
+        pendingPersist.put(alarms.sensorUuid + "|" + st.kind.code,
+            new PersistOp(alarms.userId, alarms.sensorUuid, st.kind, null, 0, null, null, false));
+    }
+
+    /**
+     * 즉시 발송 이력 기록 (urgentAt 이 0 이면 삭제) - 타이머 행과 따로 유지 (해제 후에도 12시간 제한 적용)
+     */
+    private void persistUrgent(SensorAlarms alarms, AlarmState st) {
+        pendingPersist.put(alarms.sensorUuid + "|" + st.kind.code + "|urgent",
+            new PersistOp(alarms.userId, alarms.sensorUuid, st.kind, st.urgentAt > 0 ? st.kind.code : null,
+                st.urgentAt, null, null, true));
+    }
+
+    /**
+     * 후기록 (대기 타이머를 hnt_alarm 에 반영, 키별 최신 상태만 기록)
+     */
+    private void flushPersist() {
+        if (pendingPersist.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pendingPersist.keySet());
+        for (String key : keys) {
+            PersistOp op = pendingPersist.remove(key);
+            if (op == null) {
+                continue;
+            }
+            try {
+                Map<String, Object> param = new HashMap<>();
+                param.put("userId", op.userId);
+                param.put("sensorUuid", op.sensorUuid);
+                param.put("alarmType", op.kind.code);
+                if (op.urgent) {
+                    adminMapper.deleteAlarmUrgent(param);
+                    if (op.alarmType != null) {
+                        param.put("userToken", alarmConfigCache.getUserToken(op.userId));
+                        param.put("alarmTime", new Timestamp(op.deadline));
+                        param.put("instDtm", new Timestamp(op.deadline));
+                        param.put("urgentYn", "Y");
+                        adminMapper.insertAlarmState(param);
+                    }
+                    persistWrites.incrementAndGet();
+                    continue;
+                }
+                param.put("delayAlarmType", op.kind.delayCode);
+                param.put("reAlarmType", op.kind.reCode);
+                adminMapper.deleteAlarmState(param);
+
+                if (op.alarmType != null) {
+                    param.put("alarmType", op.alarmType);
+                    param.put("userToken", alarmConfigCache.getUserToken(op.userId));
+                    param.put("alarmTime", new Timestamp(op.deadline));
+                    param.put("curTemp", op.setValue);
+                    param.put("inTemp", op.lastValue);
+                    adminMapper.insertAlarmState(param);
+                }
+                persistWrites.incrementAndGet();
+            } catch (Exception e) {
+                persistErrors.incrementAndGet();
+                // 더 최신 작업이 없으면 다음 주기에 재시도
+                pendingPersist.putIfAbsent(key, op);
+                logger.warn("알람 상태 기록 실패 - key: {}, error: {}", key, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 재기동 시 hnt_alarm 에 기록된 대기 타이머 복구 (마감이 지난 항목은 즉시 만료)
+     * 즉시 발송 이력 행은 12시간 제한 시각만 복원 (타이머 없음)
+     */
+    private void recover() {
+        List<Map<String, Object>> rows;
+        try {
+            rows = adminMapper.selectAlarmStates();
+        } catch (Exception e) {
+            logger.warn("알람 상태 복구 실패 - 조회 오류: {}", e.getMessage());
+            return;
+        }
+        if (rows == null) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        for (Map<String, Object> row : rows) {
+            String sensorUuid = row.get("sensor_uuid") != null ? String.valueOf(row.get("sensor_uuid")) : null;
+            String alarmType = row.get("alarm_type") != null ? String.valueOf(row.get("alarm_type")) : null;
+            AlarmKind kind = AlarmKind.fromCode(alarmType);
+            long deadline = toEpochMillis(row.get("alarm_time"));
+            if (sensorUuid == null || kind == null || deadline <= 0) {
+                continue;
+            }
+
+            String userId = row.get("user_id") != null ? String.valueOf(row.get("user_id")) : null;
+            SensorAlarms alarms = sensors.computeIfAbsent(sensorUuid, uuid -> new SensorAlarms(uuid, userId));
+            synchronized (alarms) {
+                AlarmState st = alarms.states[kind.ordinal()];
+                if ("Y".equals(row.get("urgent_yn"))) {
+                    st.urgentAt = Math.max(st.urgentAt, toEpochMillis(row.get("inst_dtm")));
+                    continue;
+                }
+                st.episode++;
+                st.state = kind.reCode.equals(alarmType) ? State.RENOTIFY : State.PENDING_DELAY;
+                st.setValue = row.get("cur_temp") != null ? String.valueOf(row.get("cur_temp")) : null;
+                st.lastValue = row.get("in_temp") != null ? String.valueOf(row.get("in_temp")) : null;
+                if (kind == AlarmKind.DI && alarms.temperature == null) {
+                    alarms.temperature = st.lastValue;
+                }
+                schedule(alarms, st, Math.max(0, deadline - now));
+                st.deadline = deadline;
+            }
+            recovered.incrementAndGet();
+        }
+    }
+
+    private static long toEpochMillis(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).getTime();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).getTime();
+        }
+        if (value != null) {
+            try {
+                return Timestamp.valueOf(String.valueOf(value)).getTime();
+            } catch (IllegalArgumentException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 통계 정보 반환 (상태별 개수, 전이 횟수, 타이머 정밀도)
+     */
+    public Map<String, Object> getStats() {
+        Map<State, Integer> byState = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            byState.put(state, 0);
+        }
+        for (SensorAlarms alarms : sensors.values()) {
+            synchronized (alarms) {
+                for (AlarmState st : alarms.states) {
+                    byState.merge(st.state, 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<String, Object> states = new HashMap<>();
+        for (Map.Entry<State, Integer> entry : byState.entrySet()) {
+            states.put(entry.getKey().name(), entry.getValue());
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("started", started);
+        stats.put("sensors", sensors.size());
+        stats.put("states", states);
+        stats.put("readings", readings.get());
+        stats.put("delayed", delayed.get());
+        stats.put("fired", fired.get());
+        stats.put("renotified", renotified.get());
+        stats.put("cancelledBeforeFire", cancelled.get());
+        stats.put("cleared", cleared.get());
+        stats.put("sendSuccess", sendSuccess.get());
+        stats.put("sendFailures", sendFailures.get());
+        stats.put("persistPending", pendingPersist.size());
+        stats.put("persistWrites", persistWrites.get());
+        stats.put("persistErrors", persistErrors.get());
+        stats.put("recovered", recovered.get());
+        if (wheel != null) {
+            stats.put("timerTickMs", wheel.getTickMs());
+            stats.put("timersPending", wheel.pendingTimeouts());
+            stats.put("timersExpired", wheel.getExpiredCount());
+            stats.put("timersCancelled", wheel.getCancelledCount());
+            stats.put("timerAvgLagMs", wheel.getAvgLagMs());
+            stats.put("timerMaxLagMs", wheel.getMaxLagMs());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        if (wheel != null) {
+            wheel.stop();
+        }
+        if (persister != null) {
+            persister.shutdown();
+            try {
+                persister.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushPersist(); // 남은 대기 타이머 기록 (재기동 시 복구)
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("알람 상태 머신 종료 - 발송: {}, 재전송: {}, 해제: {}", fired.get(), renotified.get(), cleared.get());
+    }
+}
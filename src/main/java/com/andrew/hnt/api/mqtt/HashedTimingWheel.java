@@ -0,0 +1,301 @@
+package com.andrew.hnt.api.mqtt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 해시 타이밍 휠
+ * 등록/취소 O(1), 틱 단위 만료 처리 (단일 워커 스레드)
+ *
+ * 등록/취소는 큐를 통해 워커 스레드로 전달되므로 버킷은 워커 스레드만 접근.
+ * 만료 작업은 워커 스레드에서 실행되므로 오래 걸리는 작업은 별도 실행기로 넘겨야 함.
+ */
+final class HashedTimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    // 틱당 버킷으로 옮기는 신규 등록 최대 수 (대량 등록 시 틱 지연 방지)
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+    private volatile boolean running = false;
+    private Thread worker;
+    private long startNanos;
+    private long tick;
+
+    // 통계 정보
+    private final AtomicLong expiredCount = new AtomicLong(0);
+    private final AtomicLong cancelledCount = new AtomicLong(0);
+    private final AtomicLong lagNanosTotal = new AtomicLong(0);
+    private final AtomicLong maxLagNanos = new AtomicLong(0);
+
+    /**
+     * 등록된 타이머 핸들
+     */
+    static final class Timeout {
+        private final HashedTimingWheel owner;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(HashedTimingWheel owner, Runnable task, long deadlineNanos) {
+            this.owner = owner;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 타이머 취소 (이미 만료된 경우 false)
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            owner.pendingCancels.add(this);
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        /**
+         * 남은 시간 (밀리초)
+         */
+        long remainingMs() {
+            return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - (System.nanoTime() - owner.startNanos));
+        }
+    }
+
+    /**
+     * 버킷 (이중 연결 리스트, 워커 스레드 전용)
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+    }
+
+    /**
+     * @param name 워커 스레드 이름
+     * @param tickMs 틱 간격 (타이머 정밀도)
+     * @param wheelSize 버킷 수 (2의 거듭제곱으로 올림)
+     */
+    HashedTimingWheel(String name, long tickMs, int wheelSize) {
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startNanos = System.nanoTime();
+        tick = 0;
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 타이머 등록
+     * @param task 만료 시 실행 작업 (워커 스레드에서 실행)
+     * @param delayMs 지연 시간 (밀리초)
+     */
+    Timeout newTimeout(Runnable task, long delayMs) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingCount.incrementAndGet();
+        pendingAdds.add(timeout);
+        return timeout;
+    }
+
+    int pendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    long getTickMs() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    /**
+     * 평균 만료 지연 (마감 시각 대비 실제 실행 시각, 밀리초)
+     */
+    double getAvgLagMs() {
+        long expired = expiredCount.get();
+        return expired > 0 ? lagNanosTotal.get() / 1_000_000.0 / expired : 0.0;
+    }
+
+    double getMaxLagMs() {
+        return maxLagNanos.get() / 1_000_000.0;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        break;
+                    }
+                    continue;
+                }
+            }
+
+            processCancels();
+            transferAdds();
+            expire(wheel[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    private void processCancels() {
+        Timeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                pendingCount.decrementAndGet();
+                cancelledCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void transferAdds() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pendingAdds.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                pendingCount.decrementAndGet();
+                cancelledCount.incrementAndGet();
+                continue;
+            }
+            long calculated = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick); // 이미 지난 마감은 현재 틱에서 처리
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket, long tickDeadline) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next;
+            if (timeout.remainingRounds <= 0 && timeout.deadlineNanos <= tickDeadline) {
+                next = bucket.remove(timeout);
+                pendingCount.decrementAndGet();
+                if (timeout.state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                    recordLag(System.nanoTime() - startNanos - timeout.deadlineNanos);
+                    try {
+                        timeout.task.run();
+                    } catch (Throwable t) {
+                        logger.error("타이머 작업 실행 실패 - {}", name, t);
+                    }
+                }
+            } else if (timeout.isCancelled()) {
+                next = bucket.remove(timeout);
+                pendingCount.decrementAndGet();
+                cancelledCount.incrementAndGet();
+            } else {
+                timeout.remainingRounds--;
+                next = timeout.next;
+            }
+            timeout = next;
+        }
+    }
+
+    private void recordLag(long lag) {
+        expiredCount.incrementAndGet();
+        lag = Math.max(0, lag);
+        lagNanosTotal.addAndGet(lag);
+        long max = maxLagNanos.get();
+        while (lag > max && !maxLagNanos.compareAndSet(max, lag)) {
+            max = maxLagNanos.get();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.config.MqttConfig;
+import com.andrew.hnt.api.mqtt.common.MQTT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 장치 명령 채널 (SER 발행 / DEV 응답 상관)
+ * 요청마다 MQTT 클라이언트를 새로 만들어 연결 → 구독 → 발행 → getMsg() 하던 방식을 대체
+ *
+ * - 연결을 유지하는 발행 전용 클라이언트 풀 (라운드 로빈, 끊기면 재연결)
+ * - 응답은 메인 수신 클라이언트(# 구독)에서 onResponse 로 전달 → (uuid, 응답 actcode) 별 대기열의 가장 오래된 요청 완료
+ * - 요청별 타임아웃은 타이밍 휠로 처리, 왕복 지연은 히스토그램으로 집계
+ */
+@Component
+public class MqttCommandChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(MqttCommandChannel.class);
+
+    // 응답 actcode
+    public static final String RESPONSE_SET = "setres";
+    public static final String RESPONSE_ACT = "actres";
+
+    // 왕복 지연 히스토그램 버킷 상한 (ms, 마지막 버킷은 초과분)
+    private static final long[] LATENCY_BUCKETS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    @Autowired
+    private MqttConfig mqttConfig;
+
+    @Value("${custom.mqtt.command.pool-size:2}")
+    private int poolSize;
+
+    @Value("${custom.mqtt.command.timeout-ms:3000}")
+    private long defaultTimeoutMs;
+
+    @Value("${custom.mqtt.command.tick-ms:50}")
+    private long tickMs;
+
+    private MQTT[] clients;
+    private final AtomicInteger nextClient = new AtomicInteger(0);
+
+    // (uuid|응답 actcode) -> 대기 중 요청 (요청 순서)
+    private final ConcurrentHashMap<String, Queue<Pending>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger(0);
+
+    private HashedTimingWheel wheel;
+
+    // 통계 정보
+    private final AtomicLong sent = new AtomicLong(0);
+    private final AtomicLong published = new AtomicLong(0);
+    private final AtomicLong matched = new AtomicLong(0);
+    private final AtomicLong timeouts = new AtomicLong(0);
+    private final AtomicLong unmatched = new AtomicLong(0);
+    private final AtomicLong publishErrors = new AtomicLong(0);
+    private final AtomicLong reconnects = new AtomicLong(0);
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+    private final AtomicLong latencyMsTotal = new AtomicLong(0);
+    private final AtomicLong maxLatencyMs = new AtomicLong(0);
+
+    /**
+     * 명령 응답
+     */
+    public static final class CommandResponse {
+        private final String topic;
+        private final String message;
+        private final long latencyMs;
+
+        private CommandResponse(String topic, String message, long latencyMs) {
+            this.topic = topic;
+            this.message = message;
+            this.latencyMs = latencyMs;
+        }
+
+        public String getTopic() { return topic; }
+        public String getMessage() { return message; }
+        public long getLatencyMs() { return latencyMs; }
+    }
+
+    /**
+     * 응답 대기 요청
+     */
+    private static final class Pending {
+        private final String key;
+        private final long sentAt = System.currentTimeMillis();
+        private final CompletableFuture<CommandResponse> future = new CompletableFuture<>();
+        private volatile HashedTimingWheel.Timeout timeout;
+
+        private Pending(String key) {
+            this.key = key;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        clients = new MQTT[Math.max(1, poolSize)];
+        wheel = new HashedTimingWheel("MQTT-CommandTimeout", tickMs, 256);
+        wheel.start();
+        logger.info("MQTT 명령 채널 초기화 - 풀 크기: {}, 기본 타임아웃: {}ms", clients.length, defaultTimeoutMs);
+    }
+
+    /**
+     * 명령 발행 후 응답 대기 (비동기)
+     * 응답 actcode 는 명령 종류로 결정 (ACT& → actres, SET& / GET& → setres)
+     * @return 응답 (타임아웃 시 null 로 완료)
+     */
+    public CompletableFuture<CommandResponse> send(String sendTopic, String payload, long timeoutMs) {
+        String uuid = uuidOf(sendTopic);
+        if (uuid == null) {
+            publish(sendTopic, payload);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String key = uuid + "|" + responseCodeOf(payload);
+        Pending pending = new Pending(key);
+        waiters.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(pending);
+        outstanding.incrementAndGet();
+        sent.incrementAndGet();
+
+        // 발행 전에 대기 등록 (빠른 응답 누락 방지)
+        pending.timeout = wheel.newTimeout(() -> expire(pending), timeoutMs > 0 ? timeoutMs : defaultTimeoutMs);
+
+        if (!publish(sendTopic, payload)) {
+            remove(pending);
+            pending.timeout.cancel();
+            pending.future.complete(null);
+        }
+        return pending.future;
+    }
+
+    /**
+     * 명령 발행 후 응답 대기 (동기, 기본 타임아웃)
+     * @return 응답 메시지 (타임아웃 시 null)
+     */
+    public CommandResponse sendAndWait(String sendTopic, String payload) {
+        try {
+            return send(sendTopic, payload, defaultTimeoutMs).join();
+        } catch (Exception e) {
+            logger.warn("MQTT 명령 응답 대기 실패 - topic: {}, 오류: {}", sendTopic, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 응답 없이 발행만 수행 (등록 응답, 장치 삭제 등)
+     */
+    public boolean publish(String sendTopic, String payload) {
+        MQTT client = acquire();
+        if (client == null) {
+            publishErrors.incrementAndGet();
+            logger.error("MQTT 명령 채널 연결 실패 - 발행 불가, topic: {}", sendTopic);
+            return false;
+        }
+        try {
+            client.publish(payload, 0, sendTopic);
+            published.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            publishErrors.incrementAndGet();
+            logger.error("MQTT 명령 발행 실패 - topic: {}, 오류: {}", sendTopic, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * 장치 응답 수신 (메인 수신 클라이언트의 분배 스레드)
+     */
+    public void onResponse(MqttPayloadDecoder.SensorReading reading) {
+        String actcode = reading.getActcode();
+        if (reading.getUuid() == null || !(RESPONSE_SET.equals(actcode) || RESPONSE_ACT.equals(actcode))) {
+            return;
+        }
+        if (outstanding.get() == 0) {
+            return;
+        }
+
+        Queue<Pending> queue = waiters.get(reading.getUuid() + "|" + actcode);
+        Pending pending = queue != null ? queue.poll() : null;
+        if (pending == null) {
+            unmatched.incrementAndGet();
+            return;
+        }
+        outstanding.decrementAndGet();
+        if (pending.timeout != null) {
+            pending.timeout.cancel();
+        }
+
+        long latency = System.currentTimeMillis() - pending.sentAt;
+        recordLatency(latency);
+        matched.incrementAndGet();
+        pending.future.complete(new CommandResponse(reading.getTopic(), reading.getPayloadText(), latency));
+    }
+
+    private void expire(Pending pending) {
+        if (remove(pending)) {
+            timeouts.incrementAndGet();
+            logger.debug("MQTT 명령 응답 타임아웃 - key: {}", pending.key);
+            pending.future.complete(null);
+        }
+    }
+
+    private boolean remove(Pending pending) {
+        Queue<Pending> queue = waiters.get(pending.key);
+        if (queue != null && queue.remove(pending)) {
+            outstanding.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 풀에서 연결된 클라이언트 선택 (끊긴 슬롯은 재연결)
+     */
+    private MQTT acquire() {
+        int start = Math.floorMod(nextClient.getAndIncrement(), clients.length);
+        for (int i = 0; i < clients.length; i++) {
+            int slot = (start + i) % clients.length;
+            MQTT client = clients[slot];
+            if (client != null && client.isConnected()) {
+                return client;
+            }
+            client = connect(slot);
+            if (client != null) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private synchronized MQTT connect(int slot) {
+        MQTT client = clients[slot];
+        if (client != null && client.isConnected()) {
+            return client;
+        }
+        if (client != null) {
+            reconnects.incrementAndGet();
+            try {
+                client.disconnect();
+            } catch (Exception ignore) {
+                // 이미 끊긴 연결
+            }
+        }
+
+        // 발행 전용 (응답은 메인 수신 클라이언트에서 수신)
+        client = new MQTT(mqttConfig.getServer(), "hnt-cmd-" + slot + "-" + UUID.randomUUID().toString().substring(0, 8),
+            mqttConfig.getUsername(), mqttConfig.getPassword());
+        client.init("", "N");
+        if (!client.isConnected()) {
+            clients[slot] = null;
+            return null;
+        }
+        clients[slot] = client;
+        logger.info("MQTT 명령 채널 연결 - slot: {}", slot);
+        return client;
+    }
+
+    private void recordLatency(long latencyMs) {
+        int bucket = LATENCY_BUCKETS_MS.length;
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            if (latencyMs <= LATENCY_BUCKETS_MS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        latencyHistogram.incrementAndGet(bucket);
+        latencyMsTotal.addAndGet(latencyMs);
+        long max = maxLatencyMs.get();
+        while (latencyMs > max && !maxLatencyMs.compareAndSet(max, latencyMs)) {
+            max = maxLatencyMs.get();
+        }
+    }
+
+    /**
+     * 히스토그램 기반 백분위 (버킷 상한값, 초과 버킷은 최대값)
+     */
+    private long percentile(long[] counts, long total, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < LATENCY_BUCKETS_MS.length ? LATENCY_BUCKETS_MS[i] : maxLatencyMs.get();
+            }
+        }
+        return maxLatencyMs.get();
+    }
+
+    private static String uuidOf(String topic) {
+        // HBEE/{userId}/{type}/{uuid}/SER
+        if (topic == null) {
+            return null;
+        }
+        String[] parts = topic.split("/");
+        return parts.length >= 5 && !parts[3].isEmpty() ? parts[3] : null;
+    }
+
+    private static String responseCodeOf(String payload) {
+        return payload != null && payload.startsWith("ACT&") ? RESPONSE_ACT : RESPONSE_SET;
+    }
+
+    /**
+     * 통계 정보 반환 (왕복 지연 히스토그램 포함)
+     */
+    public Map<String, Object> getStats() {
+        long[] counts = new long[latencyHistogram.length()];
+        long total = 0;
+        Map<String, Object> histogram = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyHistogram.get(i);
+            total += counts[i];
+            histogram.put(i < LATENCY_BUCKETS_MS.length ? "le" + LATENCY_BUCKETS_MS[i] + "ms" : "gt" + LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1] + "ms", counts[i]);
+        }
+
+        int connected = 0;
+        List<Boolean> slots = new ArrayList<>();
+        for (MQTT client : clients) {
+            boolean up = client != null && client.isConnected();
+            slots.add(up);
+            if (up) {
+                connected++;
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", clients.length);
+        stats.put("connected", connected);
+        stats.put("slots", slots);
+        stats.put("outstanding", outstanding.get());
+        stats.put("sent", sent.get());
+        stats.put("published", published.get());
+        stats.put("matched", matched.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("unmatchedResponses", unmatched.get());
+        stats.put("publishErrors", publishErrors.get());
+        stats.put("reconnects", reconnects.get());
+        stats.put("latencyHistogram", histogram);
+        stats.put("avgLatencyMs", total > 0 ? latencyMsTotal.get() / (double) total : 0.0);
+        stats.put("p50LatencyMs", percentile(counts, total, 0.50));
+        stats.put("p95LatencyMs", percentile(counts, total, 0.95));
+        stats.put("p99LatencyMs", percentile(counts, total, 0.99));
+        stats.put("maxLatencyMs", maxLatencyMs.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        for (Map.Entry<String, Queue<Pending>> entry : waiters.entrySet()) {
+            Pending pending;
+            while ((pending = entry.getValue().poll()) != null) {
+                pending.future.complete(null);
+            }
+        }
+        for (int i = 0; i < clients.length; i++) {
+            if (clients[i] != null) {
+                try {
+                    clients[i].disconnect();
+                } catch (Exception e) {
+                    logger.warn("MQTT 명령 채널 종료 중 오류 - slot: {}, {}", i, e.toString());
+                }
+                clients[i] = null;
+            }
+        }
+        logger.info("MQTT 명령 채널 종료 - 발행: {}, 응답: {}, 타임아웃: {}", sent.get(), matched.get(), timeouts.get());
+    }
+}
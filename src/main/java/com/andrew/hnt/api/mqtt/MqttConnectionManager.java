@@ -34,6 +34,12 @@ public class MqttConnectionManager {
     @Lazy // 순환 참조 방지
     private MqttService mqttService;
     
+    @Autowired
+    private MqttInboundDispatcher inboundDispatcher;
+    
+    @Autowired
+    private MqttCommandChannel commandChannel;
+    
     private MQTT mqttClient;
     private ScheduledExecutorService scheduler;
     private AtomicBoolean isConnected = new AtomicBoolean(false);
@@ -169,6 +175,12 @@ public class MqttConnectionManager {
             mqttClient.setMqttService(mqttService);
             logger.info("MQTT 클라이언트에 MqttService 설정 완료");
             
+            // 수신 분배기 설정 (콜백 스레드는 링 버퍼 적재만 수행)
+            mqttClient.setInboundDispatcher(inboundDispatcher);
+            
+            // 명령 채널 설정 (장치 응답을 대기 중인 명령으로 전달)
+            mqttClient.setCommandChannel(commandChannel);
+            
             logger.info("MQTT 클라이언트 생성 완료 - init() 호출 시작");
             // 실제 MQTT 연결 수행
             mqttClient.init("#", "Y"); // 모든 토픽 구독 활성화
@@ -0,0 +1,451 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mqtt.common.MQTT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MQTT 수신 메시지 분배기
+ * Paho 콜백 스레드에서는 토픽/페이로드를 미리 할당된 링 버퍼 슬롯에 복사만 하고
+ * 디코딩/검증/저장 분배는 소비자 스레드 풀에서 처리 (콜백 스레드 점유 최소화)
+ *
+ * 토픽 해시로 소비자(스트라이프)를 고정하므로 같은 센서의 메시지 순서는 유지됨
+ */
+@Component
+public class MqttInboundDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MqttInboundDispatcher.class);
+
+    /**
+     * 링 버퍼가 가득 찼을 때 처리 정책
+     */
+    public enum FullPolicy {
+        BLOCK,      // 콜백 스레드 대기 (브로커 방향 배압)
+        SHED_QOS0,  // QoS 0 메시지는 버림, QoS 1/2는 대기
+        SPILL       // 힙 보조 큐에 적재 (상한 초과 시 버림)
+    }
+
+    @Value("${custom.mqtt.inbound.enabled:true}")
+    private boolean enabled;
+
+    @Value("${custom.mqtt.inbound.consumers:2}")
+    private int consumerCount;
+
+    @Value("${custom.mqtt.inbound.ring-size:4096}")
+    private int ringSize; // 소비자별 슬롯 수 (2의 거듭제곱으로 올림)
+
+    @Value("${custom.mqtt.inbound.full-policy:BLOCK}")
+    private String fullPolicyName;
+
+    @Value("${custom.mqtt.inbound.spill-max-messages:100000}")
+    private int spillMaxMessages; // 소비자별 보조 큐 상한
+
+    private static final int INITIAL_SLOT_BYTES = 512;
+    private static final long IDLE_WAIT_MS = 500;
+
+    private FullPolicy fullPolicy = FullPolicy.BLOCK;
+    private volatile boolean running = false;
+    private Stripe[] stripes;
+    private long startNanos;
+
+    // 전체 통계
+    private final AtomicLong enqueued = new AtomicLong(0);
+    private final AtomicLong shed = new AtomicLong(0);
+    private final AtomicLong spilled = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong blocked = new AtomicLong(0);
+    private final AtomicLong blockedNanos = new AtomicLong(0);
+    private final AtomicLong inline = new AtomicLong(0);
+
+    /**
+     * 링 버퍼 슬롯 (페이로드 버퍼는 재사용, 부족할 때만 확장)
+     */
+    private static final class Slot {
+        private MQTT source;
+        private String topic;
+        private byte[] payload = new byte[INITIAL_SLOT_BYTES];
+        private int length;
+        private long enqueueNanos;
+    }
+
+    /**
+     * 보조 큐 항목 (SPILL 정책)
+     */
+    private static final class Spilled {
+        private final MQTT source;
+        private final String topic;
+        private final byte[] payload;
+        private final long enqueueNanos;
+
+        private Spilled(MQTT source, String topic, byte[] payload, long enqueueNanos) {
+            this.source = source;
+            this.topic = topic;
+            this.payload = payload;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+
+    /**
+     * 소비자별 링 버퍼 + 소비 스레드
+     */
+    private final class Stripe implements Runnable {
+        private final int index;
+        private final Slot[] slots;
+        private final int mask;
+        private long head; // 다음에 읽을 위치
+        private long tail; // 다음에 쓸 위치
+        private final ArrayDeque<Spilled> spill = new ArrayDeque<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private Thread thread;
+
+        // 스트라이프 통계
+        private final AtomicLong processed = new AtomicLong(0);
+        private final AtomicLong errors = new AtomicLong(0);
+        private final AtomicLong busyNanos = new AtomicLong(0);
+        private final AtomicLong handoffNanos = new AtomicLong(0);
+        private final AtomicLong maxHandoffNanos = new AtomicLong(0);
+        private volatile int maxOccupancy = 0;
+
+        // 최근 사용률 계산용 (직전 통계 조회 시점)
+        private long sampleNanos;
+        private long sampleBusyNanos;
+
+        private Stripe(int index, int size) {
+            this.index = index;
+            this.slots = new Slot[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = new Slot();
+            }
+            this.mask = size - 1;
+        }
+
+        private int occupancy() {
+            return (int) (tail - head);
+        }
+
+        /**
+         * 메시지 적재 (콜백 스레드)
+         * @return 적재 여부 (false면 버려짐)
+         */
+        private boolean offer(MQTT source, String topic, byte[] payload, int qos) throws InterruptedException {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                // 보조 큐가 비기 전에는 보조 큐에 이어서 적재 (순서 유지)
+                if (!spill.isEmpty()) {
+                    return spillLocked(source, topic, payload, now);
+                }
+
+                if (occupancy() == slots.length) {
+                    if (fullPolicy == FullPolicy.SPILL) {
+                        return spillLocked(source, topic, payload, now);
+                    }
+                    if (fullPolicy == FullPolicy.SHED_QOS0 && qos == 0) {
+                        shed.incrementAndGet();
+                        return false;
+                    }
+                    blocked.incrementAndGet();
+                    long waitStart = System.nanoTime();
+                    while (occupancy() == slots.length && running) {
+                        notFull.await(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+                    }
+                    blockedNanos.addAndGet(System.nanoTime() - waitStart);
+                    if (occupancy() == slots.length) {
+                        return false; // 종료 중
+                    }
+                    now = System.nanoTime();
+                }
+
+                Slot slot = slots[(int) (tail & mask)];
+                if (slot.payload.length < payload.length) {
+                    slot.payload = new byte[Math.max(payload.length, slot.payload.length * 2)];
+                }
+                System.arraycopy(payload, 0, slot.payload, 0, payload.length);
+                slot.length = payload.length;
+                slot.topic = topic;
+                slot.source = source;
+                slot.enqueueNanos = now;
+                tail++;
+
+                int occupied = occupancy();
+                if (occupied > maxOccupancy) {
+                    maxOccupancy = occupied;
+                }
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean spillLocked(MQTT source, String topic, byte[] payload, long now) {
+            if (spill.size() >= spillMaxMessages) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            spill.addLast(new Spilled(source, topic, Arrays.copyOf(payload, payload.length), now));
+            spilled.incrementAndGet();
+            notEmpty.signal();
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                MQTT source;
+                String topic;
+                byte[] payload;
+                long enqueueNanos;
+
+                lock.lock();
+                try {
+                    while (occupancy() == 0 && spill.isEmpty()) {
+                        if (!running) {
+                            return;
+                        }
+                        notEmpty.await(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+                    }
+
+                    if (occupancy() > 0) {
+                        // 링에서 꺼내고 슬롯 즉시 반환
+                        Slot slot = slots[(int) (head & mask)];
+                        source = slot.source;
+                        topic = slot.topic;
+                        payload = Arrays.copyOf(slot.payload, slot.length);
+                        enqueueNanos = slot.enqueueNanos;
+                        slot.source = null;
+                        slot.topic = null;
+                        head++;
+                        notFull.signal();
+                    } else {
+                        // 링이 비면 보조 큐 (링보다 나중에 들어온 메시지)
+                        Spilled item = spill.pollFirst();
+                        source = item.source;
+                        topic = item.topic;
+                        payload = item.payload;
+                        enqueueNanos = item.enqueueNanos;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                long start = System.nanoTime();
+                long handoff = start - enqueueNanos;
+                handoffNanos.addAndGet(handoff);
+                long max = maxHandoffNanos.get();
+                while (handoff > max && !maxHandoffNanos.compareAndSet(max, handoff)) {
+                    max = maxHandoffNanos.get();
+                }
+
+                try {
+                    source.handleMessage(topic, payload);
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                    logger.error("MQTT 수신 메시지 처리 실패 - topic: {}", topic, e);
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - start);
+                    processed.incrementAndGet();
+                }
+            }
+        }
+
+        private Map<String, Object> getStats(long now) {
+            long processedCount = processed.get();
+            long busy = busyNanos.get();
+            int occupied;
+            int spillSize;
+            lock.lock();
+            try {
+                occupied = occupancy();
+                spillSize = spill.size();
+            } finally {
+                lock.unlock();
+            }
+
+            double recentUtilization;
+            synchronized (this) {
+                long window = now - sampleNanos;
+                recentUtilization = window > 0 ? (double) (busy - sampleBusyNanos) / window * 100 : 0.0;
+                sampleNanos = now;
+                sampleBusyNanos = busy;
+            }
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("consumer", index);
+            stats.put("alive", thread != null && thread.isAlive());
+            stats.put("ringSize", slots.length);
+            stats.put("occupancy", occupied);
+            stats.put("occupancyPercent", (double) occupied / slots.length * 100);
+            stats.put("maxOccupancy", maxOccupancy);
+            stats.put("spillSize", spillSize);
+            stats.put("processed", processedCount);
+            stats.put("errors", errors.get());
+            stats.put("avgHandoffMs", processedCount > 0 ? handoffNanos.get() / 1_000_000.0 / processedCount : 0.0);
+            stats.put("maxHandoffMs", maxHandoffNanos.get() / 1_000_000.0);
+            stats.put("avgHandleMs", processedCount > 0 ? busy / 1_000_000.0 / processedCount : 0.0);
+            stats.put("utilizationPercent", (double) busy / Math.max(1, now - startNanos) * 100);
+            stats.put("recentUtilizationPercent", recentUtilization);
+            return stats;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("MQTT 수신 분배기 비활성화 - 콜백 스레드에서 직접 처리");
+            return;
+        }
+
+        try {
+            fullPolicy = FullPolicy.valueOf(fullPolicyName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("알 수 없는 링 버퍼 정책 '{}' - BLOCK 사용", fullPolicyName);
+            fullPolicy = FullPolicy.BLOCK;
+        }
+
+        int count = Math.max(1, consumerCount);
+        int size = Integer.highestOneBit(Math.max(2, ringSize) - 1) << 1;
+
+        startNanos = System.nanoTime();
+        running = true;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            Stripe stripe = new Stripe(i, size);
+            stripe.sampleNanos = startNanos;
+            stripe.thread = new Thread(stripe, "MQTT-Inbound-" + i);
+            stripe.thread.setDaemon(true);
+            stripes[i] = stripe;
+            stripe.thread.start();
+        }
+
+        logger.info("MQTT 수신 분배기 시작 - 소비자: {}, 소비자별 링 크기: {}, 정책: {}", count, size, fullPolicy);
+    }
+
+    /**
+     * 분배기 사용 여부
+     */
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /**
+     * 수신 메시지 적재 (Paho 콜백 스레드에서 호출)
+     * @param source 수신 클라이언트 (소비자 스레드에서 handleMessage 호출)
+     * @param topic 토픽
+     * @param payload 페이로드 (슬롯 버퍼로 복사됨)
+     * @param qos 수신 QoS
+     */
+    public void dispatch(MQTT source, String topic, byte[] payload, int qos) {
+        Stripe[] current = stripes;
+        if (!running || current == null) {
+            // 종료 중에는 콜백 스레드에서 직접 처리
+            inline.incrementAndGet();
+            source.handleMessage(topic, payload);
+            return;
+        }
+
+        Stripe stripe = current.length == 1 ? current[0]
+            : current[((topic != null ? topic.hashCode() : 0) & 0x7fffffff) % current.length];
+        try {
+            if (stripe.offer(source, topic, payload, qos)) {
+                enqueued.incrementAndGet();
+            } else if (fullPolicy == FullPolicy.SPILL && dropped.get() % 1000 == 1) {
+                // 로그 폭주 방지 (최초 및 1000건마다)
+                logger.warn("MQTT 수신 보조 큐 상한 초과 - 누적 드롭: {} (topic: {})", dropped.get(), topic);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 통계 정보 반환 (링 점유율, 전달 지연, 소비자 사용률)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running);
+        stats.put("fullPolicy", fullPolicy.name());
+        stats.put("enqueued", enqueued.get());
+        stats.put("shedQos0", shed.get());
+        stats.put("spilled", spilled.get());
+        stats.put("dropped", dropped.get());
+        stats.put("blockedCount", blocked.get());
+        stats.put("blockedMs", blockedNanos.get() / 1_000_000.0);
+        stats.put("inlineHandled", inline.get());
+
+        Stripe[] current = stripes;
+        if (current != null) {
+            long now = System.nanoTime();
+            List<Map<String, Object>> consumers = new ArrayList<>(current.length);
+            long occupied = 0;
+            long capacity = 0;
+            long busy = 0;
+            for (Stripe stripe : current) {
+                Map<String, Object> stripeStats = stripe.getStats(now);
+                consumers.add(stripeStats);
+                occupied += (Integer) stripeStats.get("occupancy");
+                capacity += stripe.slots.length;
+                busy += stripe.busyNanos.get();
+            }
+            stats.put("consumerCount", current.length);
+            stats.put("occupancy", occupied);
+            stats.put("occupancyPercent", (double) occupied / capacity * 100);
+            stats.put("utilizationPercent", (double) busy / Math.max(1, (now - startNanos) * current.length) * 100);
+            stats.put("consumers", consumers);
+        }
+        return stats;
+    }
+
+    /**
+     * 종료 시 남은 메시지 처리 후 소비자 정리
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.notEmpty.signalAll();
+                stripe.notFull.signalAll();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("MQTT 수신 분배기 종료 - 적재: {}, 버림(QoS0): {}, 보조 큐: {}, 드롭: {}",
+            enqueued.get(), shed.get(), spilled.get(), dropped.get());
+    }
+}
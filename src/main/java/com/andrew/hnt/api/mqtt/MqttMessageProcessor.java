@@ -1,33 +1,39 @@
 package com.andrew.hnt.api.mqtt;
 
+import com.andrew.hnt.api.mapper.MqttMapper;
 import com.andrew.hnt.api.model.SensorVO;
 import com.andrew.hnt.api.service.impl.MqttServiceImpl;
 import com.andrew.hnt.api.service.TransactionManagementService;
 import com.andrew.hnt.api.service.RealtimeSyncService;
 import com.andrew.hnt.api.service.UnifiedDataConsistencyService;
-import com.andrew.hnt.api.service.NotificationService;
-import com.andrew.hnt.api.service.AdminService;
-import com.andrew.hnt.api.model.NotificationRequest;
 import com.andrew.hnt.api.util.DataConsistencyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import javax.annotation.PreDestroy;
 
 /**
  * MQTT 메시지 처리 최적화
  * 배치 처리 및 메모리 사용량 최적화
+ * 센서 UUID 해시 기반 샤드 처리 (센서별 순서 보장, 센서 간 병렬 처리)
  */
 @Component
 public class MqttMessageProcessor {
@@ -50,34 +56,453 @@ public class MqttMessageProcessor {
     private UnifiedDataConsistencyService unifiedDataConsistencyService;
     
     @Autowired
-    private NotificationService notificationService;
+    private AlarmStateMachine alarmStateMachine;
+    
+    // 배치 처리 설정 (custom.mqtt.processor)
+    @Value("${custom.mqtt.processor.shard-count:1}")
+    private int shardCount; // 샤드 수 (1이면 기존 단일 스레드 처리와 동일)
+    
+    @Value("${custom.mqtt.processor.batch-size:200}")
+    private int batchSize; // 샤드별 배치 크기
+    
+    @Value("${custom.mqtt.processor.batch-timeout-ms:3000}")
+    private long batchTimeoutMs; // 샤드별 첫 메시지 대기 시간
+    
+    @Value("${custom.mqtt.processor.queue-capacity:20000}")
+    private int queueCapacity; // 전체 큐 용량 (샤드 수로 균등 분할)
+    
+    @Value("${custom.mqtt.processor.offer-timeout-ms:0}")
+    private long offerTimeoutMs; // 샤드 큐가 가득 찼을 때 드롭 전 대기 시간 (0이면 즉시 드롭)
+    
+    // 오버플로 저널 설정 (큐가 가득 찼을 때 드롭 대신 디스크에 기록 후 재생)
+    @Value("${custom.mqtt.processor.overflow.enabled:false}")
+    private boolean overflowEnabled;
+    
+    @Value("${custom.mqtt.processor.overflow.directory:./data/mqtt-overflow}")
+    private String overflowDirectory;
+    
+    @Value("${custom.mqtt.processor.overflow.segment-size-mb:16}")
+    private int overflowSegmentSizeMb; // 세그먼트 파일 크기
+    
+    @Value("${custom.mqtt.processor.overflow.max-size-mb:512}")
+    private long overflowMaxSizeMb; // 샤드별 미재생 데이터 최대 크기 (초과 시 드롭)
+    
+    // 선기록 로그 설정 (큐 적재 전 로컬 로그 기록, 배치 저장 후 체크포인트, 기동 시 재생)
+    @Value("${custom.mqtt.processor.wal.enabled:false}")
+    private boolean walEnabled;
+    
+    @Value("${custom.mqtt.processor.wal.directory:./data/mqtt-wal}")
+    private String walDirectory;
+    
+    @Value("${custom.mqtt.processor.wal.node-id:default}")
+    private String walNodeId; // 중복 제거 기준 구분자 (인스턴스별로 달라야 함)
+    
+    @Value("${custom.mqtt.processor.wal.fsync-interval-ms:200}")
+    private long walFsyncIntervalMs; // 그룹 커밋 주기 (0이면 기록마다 fsync)
+    
+    @Value("${custom.mqtt.processor.wal.segment-size-mb:64}")
+    private int walSegmentSizeMb;
     
     @Autowired
-    private AdminService adminService;
+    private MqttMapper mqttMapper;
+    
+    private ScheduledExecutorService walFlusher;
     
-    // 메시지 처리 큐 (동적 크기 조정)
-    private final BlockingQueue<SensorVO> messageQueue = new LinkedBlockingQueue<>(20000);
+    private static final String OVERFLOW_PREFIX = "shard-";
+    private static final String INST_DTM_PATTERN = "yyyy-MM-dd HH:mm:ss";
     
-    // 배치 처리 설정 (성능 최적화)
-    private static final int BATCH_SIZE = 200; // 배치 크기 증가
-    private static final long BATCH_TIMEOUT_MS = 3000; // 3초로 단축
-    private static final int MAX_QUEUE_SIZE = 20000; // 최대 큐 크기
-    private static final int QUEUE_WARNING_THRESHOLD = 15000; // 큐 경고 임계값
+    private static final long BATCH_FILL_POLL_MS = 100; // 배치 채우기 대기 시간
+    private static final long WAL_RETRY_MAX_DELAY_MS = 30000; // 저장 실패 배치 재시도 최대 간격
+    private static final int QUEUE_WARNING_PERCENT = 75; // 큐 경고 임계값 (용량 대비 %)
     
-    // 통계 정보
+    // 통계 정보 (전체 합계)
     private final AtomicLong processedMessages = new AtomicLong(0);
     private final AtomicLong batchCount = new AtomicLong(0);
     private final AtomicLong errorCount = new AtomicLong(0);
     private final AtomicLong droppedMessages = new AtomicLong(0);
     private final AtomicLong maxQueueSize = new AtomicLong(0);
     
-    // 알람 중복 발송 방지 (userId_sensorUuid_alarmType -> 마지막 발송 시간)
-    private final ConcurrentHashMap<String, Long> lastAlarmSentTime = new ConcurrentHashMap<>();
-    private static final long ALARM_COOLDOWN_MS = 10000; // 10초 (테스트용, 운영에서는 300000으로 변경)
-    
-    // 배치 처리 스레드
+    // 샤드 (센서 UUID 해시로 라우팅 - 같은 센서는 항상 같은 샤드에서 순서대로 처리)
     private volatile boolean running = false;
-    private Thread batchProcessorThread;
+    private Shard[] shards;
+    
+    /**
+     * 처리 샤드
+     * 샤드별 큐/배치 스레드/통계를 독립적으로 보유
+     */
+    private final class Shard {
+        private final int index;
+        private final int capacity;
+        private final int warningThreshold;
+        private final BlockingQueue<SensorVO> queue;
+        private Thread thread;
+        
+        // 오버플로 저널 (비활성화 시 null)
+        // 저널에 미재생 레코드가 있는 동안은 신규 메시지도 저널에 기록하여 센서별 순서 유지
+        private SensorOverflowJournal journal;
+        private boolean overflowActive;
+        private final AtomicLong journaled = new AtomicLong(0);
+        
+        // 선기록 로그 (비활성화 시 null)
+        // WAL 기록과 큐/저널 적재를 ingestLock 안에서 함께 수행하므로 WAL 순서 = 배치 처리 순서
+        private SensorWriteAheadLog wal;
+        private final Object ingestLock = new Object();
+        private long walCursor;                       // 마지막으로 꺼낸 메시지의 LSN (배치 스레드 전용)
+        private volatile long walLimitLsn = Long.MAX_VALUE; // WAL 기록 실패 이후 메시지는 LSN 없음
+        private volatile boolean walRecovered = true;
+        private final AtomicLong walErrors = new AtomicLong(0);
+        // 저장 실패 배치를 종료로 재시도하지 못함 - 이후 배치도 저장하지 않고 재기동 시 WAL 재생 (배치 스레드 전용)
+        private boolean walHeld;
+        private final AtomicLong walBatchRetries = new AtomicLong(0);
+        
+        // 샤드 통계
+        private final AtomicLong processed = new AtomicLong(0);
+        private final AtomicLong batches = new AtomicLong(0);
+        private final AtomicLong errors = new AtomicLong(0);
+        private final AtomicLong dropped = new AtomicLong(0);
+        private final AtomicLong maxDepth = new AtomicLong(0);
+        private final AtomicLong totalBatchNanos = new AtomicLong(0);
+        private final AtomicLong maxBatchNanos = new AtomicLong(0);
+        private volatile long lastBatchNanos = 0;
+        private final long startTime = System.currentTimeMillis();
+        
+        // 최근 처리량 계산용 (직전 통계 조회 시점)
+        private long rateSampleTime = startTime;
+        private long rateSampleCount = 0;
+        
+        private Shard(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.warningThreshold = Math.max(1, capacity * QUEUE_WARNING_PERCENT / 100);
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+        
+        private String threadName() {
+            return shards.length == 1 ? "MQTT-BatchProcessor" : "MQTT-BatchProcessor-" + index;
+        }
+        
+        private void start() {
+            thread = new Thread(this::processBatches, threadName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+        
+        /**
+         * 메시지 추가 (WAL 사용 시 - 기록 후 큐/저널 적재, 적재 실패 시 기록 취소)
+         * @return 적재 성공 여부
+         */
+        private boolean offerWithWal(SensorVO sensorVO) throws InterruptedException {
+            synchronized (ingestLock) {
+                if (walLimitLsn != Long.MAX_VALUE) {
+                    return offerWithoutWal(sensorVO);
+                }
+                
+                long lsn;
+                try {
+                    lsn = wal.append(sensorVO, System.currentTimeMillis());
+                } catch (IOException e) {
+                    // 이후 메시지는 WAL 없이 처리 (그 전까지 기록된 LSN까지만 체크포인트)
+                    walLimitLsn = wal.getLastLsn();
+                    walErrors.incrementAndGet();
+                    logger.error("WAL 기록 실패 - 이후 메시지는 WAL 없이 처리 (shard: {}, 마지막 LSN: {})", index, walLimitLsn, e);
+                    return offerWithoutWal(sensorVO);
+                }
+                
+                boolean accepted = offerWithoutWal(sensorVO);
+                if (!accepted) {
+                    try {
+                        wal.cancel(lsn);
+                    } catch (IOException e) {
+                        walLimitLsn = lsn - 1;
+                        walErrors.incrementAndGet();
+                        logger.error("WAL 기록 취소 실패 - 이후 메시지는 WAL 없이 처리 (shard: {})", index, e);
+                    }
+                }
+                return accepted;
+            }
+        }
+        
+        private boolean offerWithoutWal(SensorVO sensorVO) throws InterruptedException {
+            if (journal != null) {
+                return offerWithOverflow(sensorVO);
+            } else if (offerTimeoutMs > 0) {
+                return queue.offer(sensorVO, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } else {
+                return queue.offer(sensorVO);
+            }
+        }
+        
+        /**
+         * 기동 전 WAL 재생 (체크포인트와 DB 중복 제거 기준 이후 레코드만 저장)
+         * @return 재생 완료 여부
+         */
+        private boolean recoverWal() {
+            try {
+                long dbLsn = selectIngestCheckpoint(index);
+                boolean done = wal.replay(dbLsn, batchSize, (replayBatch, lastLsn) -> saveReplayBatch(replayBatch, index, lastLsn));
+                if (done) {
+                    logger.info("WAL 재생 완료 - shard: {}, 체크포인트: {}", index, wal.getCheckpointLsn());
+                }
+                return done;
+            } catch (Exception e) {
+                logger.error("WAL 재생 실패 - 재시도 예정 (shard: {})", index, e);
+                return false;
+            }
+        }
+        
+        /**
+         * 메시지 추가 (저널 사용 시)
+         * @return 큐 또는 저널 기록 성공 여부
+         */
+        private boolean offerWithOverflow(SensorVO sensorVO) {
+            synchronized (journal) {
+                if (!journal.hasPending() && queue.offer(sensorVO)) {
+                    return true;
+                }
+                if (!overflowActive) {
+                    overflowActive = true;
+                    logger.warn("메시지 큐 가득 참 - 오버플로 저널 기록 시작 (shard: {}, 큐 크기: {})", index, queue.size());
+                }
+                if (journal.append(sensorVO, System.currentTimeMillis())) {
+                    journaled.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        }
+        
+        /**
+         * 큐가 절반 이하로 비면 저널 레코드를 기록 순서대로 큐에 재적재
+         */
+        private void replayOverflow() {
+            if (journal == null || !journal.hasPending()) {
+                return;
+            }
+            int low = capacity / 2;
+            if (queue.size() > low) {
+                return;
+            }
+            synchronized (journal) {
+                SimpleDateFormat format = new SimpleDateFormat(INST_DTM_PATTERN);
+                int room = low - queue.size();
+                while (room-- > 0) {
+                    SensorOverflowJournal.Entry entry = journal.poll();
+                    if (entry == null) {
+                        break;
+                    }
+                    if (!queue.offer(restoreReceivedTime(entry, format))) {
+                        // 저널 기록 중에는 생산자가 큐에 넣지 않으므로 발생하지 않아야 함
+                        dropped.incrementAndGet();
+                        droppedMessages.incrementAndGet();
+                        break;
+                    }
+                }
+                if (!journal.hasPending() && overflowActive) {
+                    overflowActive = false;
+                    logger.info("오버플로 저널 재생 완료 - shard: {}", index);
+                }
+            }
+        }
+        
+        private void recordDepth(int depth) {
+            long max = maxDepth.get();
+            while (depth > max && !maxDepth.compareAndSet(max, depth)) {
+                max = maxDepth.get();
+            }
+        }
+        
+        /**
+         * 배치 처리 메인 루프
+         */
+        private void processBatches() {
+            List<SensorVO> batch = new ArrayList<>(batchSize);
+            
+            while (running) {
+                try {
+                    // WAL 재생이 끝나기 전에는 신규 메시지를 저장하지 않음 (체크포인트 순서 유지)
+                    if (!walRecovered) {
+                        walRecovered = recoverWal();
+                        if (!walRecovered) {
+                            Thread.sleep(batchTimeoutMs);
+                            continue;
+                        }
+                    }
+                    
+                    replayOverflow();
+                    
+                    // 배치 수집
+                    SensorVO message = queue.poll(batchTimeoutMs, TimeUnit.MILLISECONDS);
+                    
+                    if (message != null) {
+                        batch.add(message);
+                        
+                        // 배치 크기만큼 수집하거나 타임아웃까지 대기
+                        while (batch.size() < batchSize && running) {
+                            SensorVO nextMessage = queue.poll(BATCH_FILL_POLL_MS, TimeUnit.MILLISECONDS);
+                            if (nextMessage != null) {
+                                batch.add(nextMessage);
+                            } else {
+                                break; // 타임아웃
+                            }
+                        }
+                    }
+                    
+                    // 배치 처리
+                    if (!batch.isEmpty()) {
+                        runBatch(batch);
+                        batch.clear();
+                    }
+                    
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    logger.error("배치 처리 중 오류 발생 - shard: {}", index, e);
+                    errors.incrementAndGet();
+                    errorCount.incrementAndGet();
+                }
+            }
+            
+            // 남은 메시지 처리
+            if (!batch.isEmpty()) {
+                runBatch(batch);
+            }
+        }
+        
+        /**
+         * 큐에 남은 메시지를 호출 스레드에서 모두 처리 (종료 시)
+         */
+        private void drainRemaining() {
+            if (walHeld) {
+                logger.info("WAL 체크포인트 이후 메시지 {}개는 재기동 시 재생 - shard: {}", queue.size(), index);
+                return;
+            }
+            List<SensorVO> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                runBatch(batch);
+                batch.clear();
+            }
+        }
+        
+        private void runBatch(List<SensorVO> batch) {
+            if (walHeld) {
+                return; // 앞선 실패 배치와 함께 재기동 시 WAL 재생
+            }
+            int size = batch.size();
+            
+            // 배치 마지막 메시지의 LSN (꺼낸 순서 = WAL 기록 순서)
+            Map<String, Object> ingestCheckpoint = null;
+            long batchLastLsn = 0;
+            if (wal != null) {
+                batchLastLsn = Math.min(walCursor + size, walLimitLsn);
+                if (batchLastLsn > walCursor) {
+                    ingestCheckpoint = ingestCheckpointParam(index, batchLastLsn);
+                }
+                walCursor = Math.max(walCursor, batchLastLsn);
+            }
+            
+            long start = System.nanoTime();
+            boolean success = processBatch(batch, ingestCheckpoint);
+            
+            // WAL 사용 시 저장 실패 배치는 체크포인트를 넘기지 않고 같은 배치를 재시도
+            // (이후 배치가 먼저 커밋되면 DB 중복 제거 기준이 실패 LSN 을 지나 재생되지 않으므로 순서대로 재시도)
+            long retryDelayMs = batchTimeoutMs;
+            while (!success && ingestCheckpoint != null && running) {
+                walBatchRetries.incrementAndGet();
+                logger.warn("배치 저장 실패 - {}ms 후 재시도 (shard: {}, lastLsn: {})", retryDelayMs, index, batchLastLsn);
+                try {
+                    // 종료 요청 시 바로 멈추도록 나눠서 대기
+                    for (long waited = 0; waited < retryDelayMs && running; waited += BATCH_FILL_POLL_MS) {
+                        Thread.sleep(BATCH_FILL_POLL_MS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (!running) {
+                    break;
+                }
+                retryDelayMs = Math.min(WAL_RETRY_MAX_DELAY_MS, retryDelayMs * 2);
+                success = processBatch(batch, ingestCheckpoint);
+            }
+            long elapsed = System.nanoTime() - start;
+            
+            if (ingestCheckpoint != null) {
+                if (success) {
+                    wal.checkpoint(batchLastLsn);
+                } else {
+                    walHeld = true;
+                    logger.warn("배치 저장 실패 상태로 종료 - 체크포인트 {} 이후는 재기동 시 WAL 재생 (shard: {})",
+                        wal.getCheckpointLsn(), index);
+                }
+            }
+            
+            batches.incrementAndGet();
+            totalBatchNanos.addAndGet(elapsed);
+            lastBatchNanos = elapsed;
+            long max = maxBatchNanos.get();
+            while (elapsed > max && !maxBatchNanos.compareAndSet(max, elapsed)) {
+                max = maxBatchNanos.get();
+            }
+            
+            if (success) {
+                processed.addAndGet(size);
+            } else {
+                errors.addAndGet(size);
+            }
+        }
+        
+        private synchronized Map<String, Object> getStats() {
+            long now = System.currentTimeMillis();
+            long processedNow = processed.get();
+            long batchesNow = batches.get();
+            
+            double recentThroughput = 0.0;
+            long window = now - rateSampleTime;
+            if (window > 0) {
+                recentThroughput = (processedNow - rateSampleCount) * 1000.0 / window;
+            }
+            rateSampleTime = now;
+            rateSampleCount = processedNow;
+            
+            long uptime = Math.max(1, now - startTime);
+            int depth = queue.size();
+            
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("shard", index);
+            stats.put("thread", thread != null ? thread.getName() : null);
+            stats.put("alive", thread != null && thread.isAlive());
+            stats.put("queueDepth", depth);
+            stats.put("queueCapacity", capacity);
+            stats.put("queueUtilization", (double) depth / capacity * 100);
+            stats.put("maxQueueDepth", maxDepth.get());
+            stats.put("processedMessages", processedNow);
+            stats.put("batchCount", batchesNow);
+            stats.put("errorCount", errors.get());
+            stats.put("droppedMessages", dropped.get());
+            stats.put("throughputPerSec", processedNow * 1000.0 / uptime);
+            stats.put("recentThroughputPerSec", recentThroughput);
+            stats.put("avgBatchLatencyMs", batchesNow > 0 ? totalBatchNanos.get() / 1_000_000.0 / batchesNow : 0.0);
+            stats.put("lastBatchLatencyMs", lastBatchNanos / 1_000_000.0);
+            stats.put("maxBatchLatencyMs", maxBatchNanos.get() / 1_000_000.0);
+            if (wal != null) {
+                Map<String, Object> walStats = wal.getStats();
+                walStats.put("recovered", walRecovered);
+                walStats.put("errors", walErrors.get());
+                walStats.put("batchRetries", walBatchRetries.get());
+                walStats.put("disabledAfterLsn", walLimitLsn != Long.MAX_VALUE ? walLimitLsn : null);
+                stats.put("wal", walStats);
+            }
+            if (journal != null) {
+                Map<String, Object> overflow = journal.getStats();
+                long oldest = (Long) overflow.get("oldestPendingTimestamp");
+                overflow.put("journaledMessages", journaled.get());
+                overflow.put("replayLagMs", oldest > 0 ? now - oldest : 0L);
+                stats.put("overflow", overflow);
+            }
+            return stats;
+        }
+    }
     
     /**
      * 초기화 시 배치 처리 자동 시작
@@ -85,10 +510,228 @@ public class MqttMessageProcessor {
     @javax.annotation.PostConstruct
     public void init() {
         logger.info("=== MqttMessageProcessor 초기화 시작 ===");
+        initShards();
         startProcessing();
+        replayOrphanJournals();
         logger.info("=== MqttMessageProcessor 초기화 완료 ===");
     }
     
+    /**
+     * 샤드 생성 (설정값 보정 포함)
+     */
+    private void initShards() {
+        int count = Math.max(1, shardCount);
+        batchSize = Math.max(1, batchSize);
+        batchTimeoutMs = Math.max(BATCH_FILL_POLL_MS, batchTimeoutMs);
+        int perShardCapacity = Math.max(batchSize, queueCapacity / count);
+        
+        Shard[] created = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new Shard(i, perShardCapacity);
+        }
+        shards = created;
+        
+        if (walEnabled) {
+            initWal(created);
+        }
+        
+        if (overflowEnabled) {
+            Path dir = Paths.get(overflowDirectory);
+            int segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(1, overflowSegmentSizeMb) * 1024L * 1024L);
+            long maxBytes = Math.max(1, overflowMaxSizeMb) * 1024L * 1024L;
+            for (Shard shard : created) {
+                try {
+                    shard.journal = new SensorOverflowJournal(dir, OVERFLOW_PREFIX + shard.index, segmentSize, maxBytes);
+                    if (shard.wal != null && shard.journal.hasPending()) {
+                        // 저널의 미재생 레코드는 WAL에도 있으므로 WAL 재생으로 저장
+                        logger.info("WAL 사용 중 - 오버플로 저널 미재생 레코드 {}건 폐기 (shard: {})",
+                            shard.journal.getPendingRecords(), shard.index);
+                        shard.journal.clear();
+                    }
+                    shard.overflowActive = shard.journal.hasPending();
+                } catch (IOException e) {
+                    logger.error("오버플로 저널 열기 실패 - 해당 샤드는 드롭 모드로 동작 (shard: {}, dir: {})", shard.index, dir, e);
+                }
+            }
+            logger.info("MQTT 오버플로 저널 활성화 - dir: {}, 세그먼트: {}MB, 샤드별 최대: {}MB",
+                dir.toAbsolutePath(), overflowSegmentSizeMb, overflowMaxSizeMb);
+        }
+        
+        logger.info("MQTT 배치 처리 샤드 구성 - 샤드 수: {}, 샤드별 큐 용량: {}, 배치 크기: {}, 배치 타임아웃: {}ms",
+            count, perShardCapacity, batchSize, batchTimeoutMs);
+    }
+    
+    /**
+     * WAL 열기 (샤드별) 및 그룹 커밋 스레드 시작
+     */
+    private void initWal(Shard[] created) {
+        Path dir = Paths.get(walDirectory);
+        long segmentBytes = Math.max(1, walSegmentSizeMb) * 1024L * 1024L;
+        boolean syncEveryAppend = walFsyncIntervalMs <= 0;
+        
+        for (Shard shard : created) {
+            try {
+                SensorWriteAheadLog wal = new SensorWriteAheadLog(dir, OVERFLOW_PREFIX + shard.index, segmentBytes, syncEveryAppend);
+                // DB 기준이 로컬보다 앞서면 (체크포인트 파일 유실 등) 새 LSN이 기준 이하가 되지 않도록 보정
+                wal.ensureLsnAtLeast(selectIngestCheckpointQuietly(shard.index));
+                shard.wal = wal;
+                shard.walCursor = wal.getLastLsn();
+                shard.walRecovered = wal.getRecoveryEndLsn() <= wal.getCheckpointLsn();
+            } catch (IOException e) {
+                logger.error("WAL 열기 실패 - 해당 샤드는 WAL 없이 동작 (shard: {}, dir: {})", shard.index, dir, e);
+            }
+        }
+        
+        // 현재 샤드 수보다 큰 번호의 WAL (샤드 수 축소) 은 기동 시 바로 재생
+        try {
+            for (String prefix : SensorWriteAheadLog.listPrefixes(dir)) {
+                int index = parseShardIndex(prefix);
+                if (index < created.length) {
+                    continue;
+                }
+                try {
+                    boolean done;
+                    SensorWriteAheadLog orphan = new SensorWriteAheadLog(dir, prefix, segmentBytes, false);
+                    try {
+                        long dbLsn = selectIngestCheckpoint(index);
+                        done = orphan.replay(dbLsn, batchSize, (batch, lastLsn) -> saveReplayBatch(batch, index, lastLsn));
+                    } finally {
+                        orphan.close();
+                    }
+                    if (done) {
+                        SensorWriteAheadLog.deleteFiles(dir, prefix);
+                    }
+                    logger.info("이전 샤드 WAL 재생 {} - prefix: {}", done ? "완료" : "실패 (다음 기동 시 재시도)", prefix);
+                } catch (Exception e) {
+                    logger.error("이전 샤드 WAL 재생 실패 - prefix: {}", prefix, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("이전 샤드 WAL 확인 실패 - dir: {}", dir, e);
+        }
+        
+        long period = walFsyncIntervalMs > 0 ? walFsyncIntervalMs : 1000;
+        walFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MQTT-WAL-Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        walFlusher.scheduleWithFixedDelay(this::syncWal, period, period, TimeUnit.MILLISECONDS);
+        
+        logger.info("MQTT WAL 활성화 - dir: {}, node: {}, fsync 주기: {}ms", dir.toAbsolutePath(), walNodeId,
+            syncEveryAppend ? "기록마다" : String.valueOf(walFsyncIntervalMs));
+    }
+    
+    /**
+     * 그룹 커밋 (버퍼 기록 + fsync + 체크포인트 저장)
+     */
+    private void syncWal() {
+        for (Shard shard : shards) {
+            if (shard.wal == null) {
+                continue;
+            }
+            try {
+                shard.wal.sync();
+            } catch (IOException e) {
+                shard.walErrors.incrementAndGet();
+                logger.error("WAL sync 실패 - shard: {}", shard.index, e);
+            }
+        }
+    }
+    
+    private Map<String, Object> ingestCheckpointParam(int shardNo, long lastLsn) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("walId", walNodeId);
+        param.put("shardNo", shardNo);
+        param.put("lastLsn", lastLsn);
+        return param;
+    }
+    
+    private long selectIngestCheckpoint(int shardNo) {
+        Long lsn = mqttMapper.selectIngestCheckpoint(ingestCheckpointParam(shardNo, 0L));
+        return lsn != null ? lsn : 0L;
+    }
+    
+    private long selectIngestCheckpointQuietly(int shardNo) {
+        try {
+            return selectIngestCheckpoint(shardNo);
+        } catch (Exception e) {
+            logger.warn("WAL 중복 제거 기준 조회 실패 - 로컬 체크포인트 사용 (shard: {}): {}", shardNo, e.getMessage());
+            return 0L;
+        }
+    }
+    
+    /**
+     * WAL 재생 배치 저장 (데이터와 중복 제거 기준을 같은 트랜잭션으로 저장)
+     */
+    private boolean saveReplayBatch(List<SensorVO> batch, int shardNo, long lastLsn) {
+        try {
+            Map<String, Object> result = transactionManagementService.saveSensorDataBatch(batch, ingestCheckpointParam(shardNo, lastLsn));
+            return "200".equals(result.get("resultCode"));
+        } catch (Exception e) {
+            logger.error("WAL 재생 배치 저장 실패 - shard: {}, lastLsn: {}", shardNo, lastLsn, e);
+            return false;
+        }
+    }
+    
+    /**
+     * 저널 레코드의 수신 시각을 inst_dtm으로 설정 (재생 시각 now()로 저장되지 않도록 - WAL 재생과 동일)
+     */
+    static SensorVO restoreReceivedTime(SensorOverflowJournal.Entry entry, SimpleDateFormat format) {
+        SensorVO sensor = entry.getSensor();
+        if (sensor.getInstDtm() == null && entry.getTimestamp() > 0) {
+            sensor.setInstDtm(format.format(new Date(entry.getTimestamp())));
+        }
+        return sensor;
+    }
+    
+    private static int parseShardIndex(String prefix) {
+        if (!prefix.startsWith(OVERFLOW_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(prefix.substring(OVERFLOW_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * 샤드 수 변경 등으로 현재 샤드에 속하지 않는 저널을 다시 라우팅
+     */
+    private void replayOrphanJournals() {
+        if (!overflowEnabled) {
+            return;
+        }
+        Path dir = Paths.get(overflowDirectory);
+        try {
+            for (String prefix : SensorOverflowJournal.listPrefixes(dir)) {
+                int index = parseShardIndex(prefix);
+                if (index < shards.length) {
+                    continue;
+                }
+                
+                int count = 0;
+                try (SensorOverflowJournal orphan = new SensorOverflowJournal(dir, prefix, 1, Long.MAX_VALUE)) {
+                    if (walEnabled) {
+                        // WAL 재생으로 저장되므로 폐기
+                        orphan.clear();
+                        continue;
+                    }
+                    SimpleDateFormat format = new SimpleDateFormat(INST_DTM_PATTERN);
+                    SensorOverflowJournal.Entry entry;
+                    while ((entry = orphan.poll()) != null) {
+                        addMessage(restoreReceivedTime(entry, format));
+                        count++;
+                    }
+                }
+                logger.info("이전 샤드 저널 재라우팅 완료 - prefix: {}, 메시지: {}", prefix, count);
+            }
+        } catch (IOException e) {
+            logger.error("이전 샤드 저널 재라우팅 실패 - dir: {}", dir, e);
+        }
+    }
+    
     /**
      * 메시지 처리 시작
      */
@@ -99,11 +742,11 @@ public class MqttMessageProcessor {
         }
         
         running = true;
-        batchProcessorThread = new Thread(this::processBatches, "MQTT-BatchProcessor");
-        batchProcessorThread.setDaemon(true);
-        batchProcessorThread.start();
+        for (Shard shard : shards) {
+            shard.start();
+        }
         
-        logger.info("🚀 MQTT 메시지 배치 처리 시작 (스레드: {})", batchProcessorThread.getName());
+        logger.info("🚀 MQTT 메시지 배치 처리 시작 (샤드 수: {})", shards.length);
     }
     
     /**
@@ -111,14 +754,27 @@ public class MqttMessageProcessor {
      */
     public void stopProcessing() {
         running = false;
-        if (batchProcessorThread != null) {
-            batchProcessorThread.interrupt();
+        for (Shard shard : shards) {
+            if (shard.thread != null) {
+                shard.thread.interrupt();
+            }
         }
         logger.info("MQTT 메시지 배치 처리 중지");
     }
     
     /**
-     * 메시지 큐에 추가 (개선된 버전)
+     * 센서 UUID로 샤드 선택
+     */
+    private Shard shardFor(String uuid) {
+        Shard[] current = shards;
+        if (current.length == 1 || uuid == null) {
+            return current[0];
+        }
+        return current[(uuid.hashCode() & 0x7fffffff) % current.length];
+    }
+    
+    /**
+     * 메시지 큐에 추가 (센서 UUID 기준 샤드 라우팅)
      * @param sensorVO 센서 데이터
      */
     public void addMessage(SensorVO sensorVO) {
@@ -127,29 +783,35 @@ public class MqttMessageProcessor {
             return;
         }
         
+        Shard shard = shardFor(sensorVO.getUuid());
+        
         // 큐 크기 모니터링
-        int currentQueueSize = messageQueue.size();
+        int currentQueueSize = shard.queue.size();
+        shard.recordDepth(currentQueueSize);
         if (currentQueueSize > maxQueueSize.get()) {
             maxQueueSize.set(currentQueueSize);
         }
         
         // 큐 경고 임계값 체크
-        if (currentQueueSize > QUEUE_WARNING_THRESHOLD) {
-            logger.warn("메시지 큐 크기 경고: {} (임계값: {})", currentQueueSize, QUEUE_WARNING_THRESHOLD);
+        if (currentQueueSize > shard.warningThreshold) {
+            logger.warn("메시지 큐 크기 경고 - shard: {}, 크기: {} (임계값: {})",
+                shard.index, currentQueueSize, shard.warningThreshold);
         }
         
-        // 큐가 가득 찬 경우 처리
-        if (currentQueueSize >= MAX_QUEUE_SIZE) {
-            droppedMessages.incrementAndGet();
-            logger.error("메시지 큐가 가득 참 - 메시지 드롭됨 (큐 크기: {}, 드롭된 메시지: {})", 
-                currentQueueSize, droppedMessages.get());
-            return;
+        // 메시지 추가 (저널 사용 시 큐 초과분은 저널에 기록, 아니면 설정된 시간만큼 대기 후 드롭)
+        boolean accepted;
+        try {
+            accepted = shard.wal != null ? shard.offerWithWal(sensorVO) : shard.offerWithoutWal(sensorVO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
         }
         
-        // 메시지 추가
-        if (!messageQueue.offer(sensorVO)) {
+        if (!accepted) {
+            shard.dropped.incrementAndGet();
             droppedMessages.incrementAndGet();
-            logger.warn("메시지 큐 추가 실패 - 메시지 드롭됨");
+            logger.error("메시지 큐가 가득 참 - 메시지 드롭됨 (shard: {}, 큐 크기: {}, 드롭된 메시지: {})", 
+                shard.index, shard.queue.size(), droppedMessages.get());
         } else {
             // Health Checker에 메시지 수신 기록
             if (healthChecker != null) {
@@ -158,59 +820,15 @@ public class MqttMessageProcessor {
         }
     }
     
-    /**
-     * 배치 처리 메인 루프
-     */
-    private void processBatches() {
-        List<SensorVO> batch = new ArrayList<>(BATCH_SIZE);
-        
-        while (running) {
-            try {
-                // 배치 수집
-                SensorVO message = messageQueue.poll(BATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-                
-                if (message != null) {
-                    batch.add(message);
-                    
-                    // 배치 크기만큼 수집하거나 타임아웃까지 대기
-                    while (batch.size() < BATCH_SIZE && running) {
-                        SensorVO nextMessage = messageQueue.poll(100, TimeUnit.MILLISECONDS);
-                        if (nextMessage != null) {
-                            batch.add(nextMessage);
-                        } else {
-                            break; // 타임아웃
-                        }
-                    }
-                }
-                
-                // 배치 처리
-                if (!batch.isEmpty()) {
-                    processBatch(batch);
-                    batch.clear();
-                }
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("배치 처리 중 오류 발생", e);
-                errorCount.incrementAndGet();
-            }
-        }
-        
-        // 남은 메시지 처리
-        if (!batch.isEmpty()) {
-            processBatch(batch);
-        }
-    }
-    
     /**
      * 배치 처리 실행 (데이터 일관성 보장)
      * @param batch 처리할 메시지 배치
+     * @param ingestCheckpoint WAL 중복 제거 기준 (WAL 미사용 시 null)
+     * @return 저장 성공 여부
      */
-    private void processBatch(List<SensorVO> batch) {
+    private boolean processBatch(List<SensorVO> batch, Map<String, Object> ingestCheckpoint) {
         if (batch.isEmpty()) {
-            return;
+            return true;
         }
         
         try {
@@ -233,7 +851,7 @@ public class MqttMessageProcessor {
             }
             
             // 2. 통합 데이터 일관성 서비스를 통한 배치 처리
-            Map<String, Object> result = unifiedDataConsistencyService.processBatchWithConsistency(messageBatch);
+            Map<String, Object> result = unifiedDataConsistencyService.processBatchWithConsistency(messageBatch, ingestCheckpoint);
             
             if ("200".equals(result.get("resultCode"))) {
                 // 통계 업데이트
@@ -259,6 +877,7 @@ public class MqttMessageProcessor {
                     logger.info("배치 처리 통계 - 처리된 메시지: {}, 배치 수: {}, 오류 수: {}", 
                         processedMessages.get(), batchCount.get(), errorCount.get());
                 }
+                return true;
             } else {
                 errorCount.addAndGet(batch.size());
                 logger.error("배치 처리 실패 - 오류: {}", result.get("resultMessage"));
@@ -268,6 +887,7 @@ public class MqttMessageProcessor {
             logger.error("배치 처리 중 예외 발생 - 배치 크기: {}", batch.size(), e);
             errorCount.addAndGet(batch.size());
         }
+        return false;
     }
     
     /**
@@ -277,7 +897,7 @@ public class MqttMessageProcessor {
     public String getProcessingStats() {
         return String.format("처리된 메시지: %d, 배치 수: %d, 오류 수: %d, 드롭된 메시지: %d, 큐 크기: %d, 최대 큐 크기: %d", 
             processedMessages.get(), batchCount.get(), errorCount.get(), droppedMessages.get(), 
-            messageQueue.size(), maxQueueSize.get());
+            getQueueSize(), maxQueueSize.get());
     }
     
     /**
@@ -332,10 +952,47 @@ public class MqttMessageProcessor {
         stats.put("batchCount", batchCount.get());
         stats.put("errorCount", errorCount.get());
         stats.put("droppedMessages", droppedMessages.get());
-        stats.put("currentQueueSize", messageQueue.size());
         stats.put("maxQueueSize", maxQueueSize.get());
         stats.put("isProcessing", running);
-        stats.put("queueUtilization", (double) messageQueue.size() / MAX_QUEUE_SIZE * 100);
+        
+        // 샤드별 통계 (큐 깊이, 처리량, 배치 지연)
+        List<Map<String, Object>> shardStats = new ArrayList<>(shards.length);
+        int totalQueueSize = 0;
+        long totalCapacity = 0;
+        for (Shard shard : shards) {
+            shardStats.add(shard.getStats());
+            totalQueueSize += shard.queue.size();
+            totalCapacity += shard.capacity;
+        }
+        stats.put("currentQueueSize", totalQueueSize);
+        stats.put("queueUtilization", (double) totalQueueSize / totalCapacity * 100);
+        stats.put("shardCount", shards.length);
+        stats.put("shards", shardStats);
+        
+        // 오버플로 저널 합계 (기록 바이트, 재생 지연, 가장 오래된 미재생 시각)
+        if (overflowEnabled) {
+            long overflowBytes = 0;
+            long pendingBytes = 0;
+            long pendingRecords = 0;
+            long oldest = 0;
+            for (Shard shard : shards) {
+                if (shard.journal == null) {
+                    continue;
+                }
+                overflowBytes += shard.journal.getAppendedBytes();
+                pendingBytes += shard.journal.getPendingBytes();
+                pendingRecords += shard.journal.getPendingRecords();
+                long ts = shard.journal.getOldestPendingTimestamp();
+                if (ts > 0 && (oldest == 0 || ts < oldest)) {
+                    oldest = ts;
+                }
+            }
+            stats.put("overflowBytes", overflowBytes);
+            stats.put("overflowPendingBytes", pendingBytes);
+            stats.put("overflowPendingRecords", pendingRecords);
+            stats.put("overflowOldestTimestamp", oldest);
+            stats.put("overflowReplayLagMs", oldest > 0 ? System.currentTimeMillis() - oldest : 0L);
+        }
         return stats;
     }
     
@@ -344,7 +1001,11 @@ public class MqttMessageProcessor {
      * @return 현재 큐 크기
      */
     public int getQueueSize() {
-        return messageQueue.size();
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.queue.size();
+        }
+        return size;
     }
     
     /**
@@ -356,431 +1017,63 @@ public class MqttMessageProcessor {
     }
     
     /**
-     * 알림 조건 체크 및 발송
+     * 알림 조건 체크 (알람 상태 머신으로 전달, 지연/재전송은 상태 머신 타이머가 처리)
      * @param sensor 센서 데이터
      */
     private void checkAndSendNotification(SensorVO sensor) {
-        try {
-            // thepine 사용자만 로그 출력
-            boolean isThepine = "thepine".equals(sensor.getUserId());
-            
-            if (isThepine) {
-                logger.info("===============================================");
-                logger.info("🔔 [thepine] 알림 조건 체크 시작");
-                logger.info("   - UUID: {}", sensor.getUuid());
-                logger.info("   - UserId: {}", sensor.getUserId());
-                logger.info("   - SensorId: {}", sensor.getSensorId());
-                logger.info("   - Value: {}", sensor.getSensorValue());
-                logger.info("===============================================");
-            }
-            
-            // 센서 설정 조회
-            Map<String, Object> configParam = new HashMap<>();
-            configParam.put("userId", sensor.getUserId());
-            configParam.put("sensorId", sensor.getSensorId());
-            configParam.put("sensorUuid", sensor.getUuid());
-            
-            if (isThepine) {
-                logger.info("[thepine] 센서 설정 조회 시도 - configParam: {}", configParam);
-            }
-            Map<String, Object> config = adminService.selectSetting(configParam);
-            
-            if (config == null || config.isEmpty()) {
-                if (isThepine) {
-                    logger.warn("❌ [thepine] 센서 설정이 없음 - UUID: {}", sensor.getUuid());
-                    logger.warn("   - userId: {}", sensor.getUserId());
-                    logger.warn("   - sensorId: {}", sensor.getSensorId());
-                }
-                return; // 설정이 없으면 알림 발송 안 함
-            }
-            
-            if (isThepine) {
-                logger.info("✅ [thepine] 센서 설정 조회 성공");
-                logger.info("   - UUID: {}", sensor.getUuid());
-                logger.info("   - config size: {}", config.size());
-                logger.info("   - config keys: {}", config.keySet());
-            }
-            
-            // 알림 설정 확인
-            String highAlarmYn = String.valueOf(config.get("alarm_yn1"));
-            String lowAlarmYn = String.valueOf(config.get("alarm_yn2"));
-            String specificAlarmYn = String.valueOf(config.get("alarm_yn3"));
-            String diAlarmYn = String.valueOf(config.get("alarm_yn4"));
-            String networkAlarmYn = String.valueOf(config.get("alarm_yn5"));
-            
-            if (isThepine) {
-                logger.info("[thepine] 알림 설정 확인:");
-                logger.info("   - 고온 알림: {} (alarm_yn1)", highAlarmYn);
-                logger.info("   - 저온 알림: {} (alarm_yn2)", lowAlarmYn);
-                logger.info("   - 특정온도 알림: {} (alarm_yn3)", specificAlarmYn);
-                logger.info("   - DI 알림: {} (alarm_yn4)", diAlarmYn);
-                logger.info("   - 통신이상 알림: {} (alarm_yn5)", networkAlarmYn);
-            }
-            
-            if (!"Y".equals(highAlarmYn) && !"Y".equals(lowAlarmYn) && 
-                !"Y".equals(specificAlarmYn) && !"Y".equals(diAlarmYn) && !"Y".equals(networkAlarmYn)) {
-                if (isThepine) {
-                    logger.warn("❌ [thepine] 알림 설정이 모두 비활성화됨");
-                }
-                return; // 알림 설정이 비활성화되어 있으면 발송 안 함
-            }
-            
-            // 온도 값 확인
-            double currentTemp;
-            try {
-                currentTemp = Double.parseDouble(sensor.getSensorValue());
-                if (isThepine) {
-                    logger.info("✅ [thepine] 온도 값 파싱 성공: {}°C", currentTemp);
-                }
-            } catch (NumberFormatException e) {
-                if (isThepine) {
-                    logger.warn("❌ [thepine] 온도 값 파싱 실패: {}", sensor.getSensorValue());
-                }
-                return; // 온도 값이 숫자가 아니면 무시
-            }
-            
-            // 고온 알림 체크
-            if ("Y".equals(highAlarmYn)) {
-                String highTempStr = String.valueOf(config.get("set_val1"));
-                if (isThepine) {
-                    logger.info("🔥 [thepine] 고온 알림 체크 시작");
-                    logger.info("   - 현재 온도: {}°C", currentTemp);
-                    logger.info("   - 설정 온도: {}°C (set_val1)", highTempStr);
-                }
-                
-                try {
-                    double highTemp = Double.parseDouble(highTempStr);
-                    String alarmKey = sensor.getUserId() + "_" + sensor.getUuid() + "_온도 높음";
-                    
-                    if (currentTemp > highTemp) {
-                        if (isThepine) {
-                            logger.info("🔥🔥🔥 [thepine] 고온 알림 조건 충족! 알림 발송");
-                        }
-                        sendNotification(sensor, "온도 높음", currentTemp, highTemp);
-                    } else {
-                        // 조건 미충족 시 알람 시간 초기화 (다음 조건 충족 시 즉시 발송)
-                        if (lastAlarmSentTime.containsKey(alarmKey)) {
-                            lastAlarmSentTime.remove(alarmKey);
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (현재 {} <= 설정 {}) - 알람 시간 초기화", currentTemp, highTemp);
-                            }
-                        } else {
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (현재 {} <= 설정 {})", currentTemp, highTemp);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    if (isThepine) {
-                        logger.error("[thepine] 고온 알림 체크 실패", e);
-                    }
-                }
-            }
-            
-            // 저온 알림 체크
-            if ("Y".equals(lowAlarmYn)) {
-                String lowTempStr = String.valueOf(config.get("set_val2"));
-                if (isThepine) {
-                    logger.info("❄️ [thepine] 저온 알림 체크 시작");
-                    logger.info("   - 현재 온도: {}°C", currentTemp);
-                    logger.info("   - 설정 온도: {}°C (set_val2)", lowTempStr);
-                }
-                
-                try {
-                    double lowTemp = Double.parseDouble(lowTempStr);
-                    String alarmKey = sensor.getUserId() + "_" + sensor.getUuid() + "_온도 낮음";
-                    
-                    if (currentTemp < lowTemp) {
-                        if (isThepine) {
-                            logger.info("❄️❄️❄️ [thepine] 저온 알림 조건 충족! 알림 발송");
-                        }
-                        sendNotification(sensor, "온도 낮음", currentTemp, lowTemp);
-                    } else {
-                        // 조건 미충족 시 알람 시간 초기화 (다음 조건 충족 시 즉시 발송)
-                        if (lastAlarmSentTime.containsKey(alarmKey)) {
-                            lastAlarmSentTime.remove(alarmKey);
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (현재 {} >= 설정 {}) - 알람 시간 초기화", currentTemp, lowTemp);
-                            }
-                        } else {
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (현재 {} >= 설정 {})", currentTemp, lowTemp);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    if (isThepine) {
-                        logger.error("[thepine] 저온 알림 체크 실패", e);
-                    }
-                }
-            }
-            
-            // 특정온도 알림 체크
-            if ("Y".equals(specificAlarmYn)) {
-                String specificTempStr = String.valueOf(config.get("set_val3"));
-                if (isThepine) {
-                    logger.info("🎯 [thepine] 특정온도 알림 체크 시작");
-                    logger.info("   - 현재 온도: {}°C", currentTemp);
-                    logger.info("   - 설정 온도: {}°C (set_val3)", specificTempStr);
-                }
-                
-                try {
-                    double specificTemp = Double.parseDouble(specificTempStr);
-                    String alarmKey = sensor.getUserId() + "_" + sensor.getUuid() + "_특정온도";
-                    
-                    // 특정온도와 일치하면 알람 (오차 범위 ±0.5°C)
-                    if (Math.abs(currentTemp - specificTemp) <= 0.5) {
-                        if (isThepine) {
-                            logger.info("🎯🎯🎯 [thepine] 특정온도 알림 조건 충족! 알림 발송");
-                        }
-                        sendNotification(sensor, "특정온도", currentTemp, specificTemp);
-                    } else {
-                        // 조건 미충족 시 알람 시간 초기화
-                        if (lastAlarmSentTime.containsKey(alarmKey)) {
-                            lastAlarmSentTime.remove(alarmKey);
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (현재 {} ≠ 설정 {}) - 알람 시간 초기화", currentTemp, specificTemp);
-                            }
-                        } else {
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (현재 {} ≠ 설정 {})", currentTemp, specificTemp);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    if (isThepine) {
-                        logger.error("[thepine] 특정온도 알림 체크 실패", e);
-                    }
-                }
-            }
-            
-            // DI 알림 체크 (센서 타입이 din인 경우)
-            if ("Y".equals(diAlarmYn) && "din".equals(sensor.getSensorType())) {
-                String alarmKey = sensor.getUserId() + "_" + sensor.getUuid() + "_DI이상";
-                
-                if (isThepine) {
-                    logger.info("⚠️ [thepine] DI 알림 체크 시작");
-                    logger.info("   - 센서 값: {}", sensor.getSensorValue());
-                }
-                
-                try {
-                    int dinValue = Integer.parseInt(sensor.getSensorValue());
-                    
-                    // DIN 값이 1이면 이상 (알람 발송)
-                    if (dinValue == 1) {
-                        if (isThepine) {
-                            logger.info("⚠️⚠️⚠️ [thepine] DI 이상 알림 조건 충족! 알림 발송");
-                        }
-                        sendNotification(sensor, "DI이상", dinValue, 0);
-                    } else {
-                        // 조건 미충족 시 알람 시간 초기화
-                        if (lastAlarmSentTime.containsKey(alarmKey)) {
-                            lastAlarmSentTime.remove(alarmKey);
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (DIN 정상) - 알람 시간 초기화");
-                            }
-                        } else {
-                            if (isThepine) {
-                                logger.info("   - 조건 미충족 (DIN 정상)");
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    if (isThepine) {
-                        logger.error("[thepine] DI 알림 체크 실패", e);
-                    }
-                }
-            }
-            
-            // 통신이상 알림 체크 (센서 값이 "Error"인 경우)
-            if ("Y".equals(networkAlarmYn)) {
-                String alarmKey = sensor.getUserId() + "_" + sensor.getUuid() + "_통신이상";
-                
-                if (isThepine) {
-                    logger.info("📡 [thepine] 통신이상 알림 체크 시작");
-                    logger.info("   - 센서 값: {}", sensor.getSensorValue());
-                }
-                
-                // 센서 값이 "Error"이면 통신이상
-                if ("Error".equals(sensor.getSensorValue())) {
-                    if (isThepine) {
-                        logger.info("📡📡📡 [thepine] 통신이상 알림 조건 충족! 알림 발송");
-                    }
-                    sendNotification(sensor, "통신이상", 0, 0);
-                } else {
-                    // 조건 미충족 시 알람 시간 초기화
-                    if (lastAlarmSentTime.containsKey(alarmKey)) {
-                        lastAlarmSentTime.remove(alarmKey);
-                        if (isThepine) {
-                            logger.info("   - 조건 미충족 (통신 정상) - 알람 시간 초기화");
-                        }
-                    } else {
-                        if (isThepine) {
-                            logger.info("   - 조건 미충족 (통신 정상)");
-                        }
-                    }
-                }
-            }
-            
-        } catch (Exception e) {
-            logger.error("알림 조건 체크 실패 - sensorUuid: {}", sensor.getUuid(), e);
-        }
+        // SensorVO.name 은 채널명(ain) 이므로 센서명은 상태 머신이 센서 정보에서 조회
+        alarmStateMachine.onTemperature(sensor.getUserId(), sensor.getUuid(), null, sensor.getSensorValue());
     }
     
     /**
-     * 알림 발송
-     * @param sensor 센서 데이터
-     * @param alarmType 알림 타입
-     * @param currentTemp 현재 온도
-     * @param setTemp 설정 온도
+     * 외부에서 호출 가능한 cleanup 메서드
      */
-    private void sendNotification(SensorVO sensor, String alarmType, double currentTemp, double setTemp) {
-        try {
-            boolean isThepine = "thepine".equals(sensor.getUserId());
-            
-            // DB에서 알람 설정 조회 (지연시간, 재전송간격)
-            Map<String, Object> configParam = new HashMap<>();
-            configParam.put("userId", sensor.getUserId());
-            configParam.put("sensorUuid", sensor.getUuid());
-            Map<String, Object> config = adminService.selectSetting(configParam);
-            
-            // 알람 타입에 따른 지연시간과 재전송간격 추출
-            long delayTimeMs = 0; // 지연시간 (초기 알람 발송까지 대기 시간)
-            long repeatIntervalMs = 600000; // 재전송반복간격 (기본값: 10분)
-            
-            if (config != null && !config.isEmpty()) {
-                if ("온도 높음".equals(alarmType)) {
-                    // 고온 알람 (alarm_yn1, delay_time1, re_delay_time1)
-                    String delayTimeStr = String.valueOf(config.get("delay_time1"));
-                    String repeatTimeStr = String.valueOf(config.get("re_delay_time1"));
-                    
-                    if (delayTimeStr != null && !"null".equals(delayTimeStr)) {
-                        delayTimeMs = Long.parseLong(delayTimeStr) * 60 * 1000; // 분 -> 밀리초
-                    }
-                    if (repeatTimeStr != null && !"null".equals(repeatTimeStr)) {
-                        repeatIntervalMs = Long.parseLong(repeatTimeStr) * 60 * 1000; // 분 -> 밀리초
-                    }
-                    
-                    if (isThepine) {
-                        logger.info("[thepine] 고온 알람 설정: 지연시간={}분, 재전송간격={}분", 
-                            delayTimeMs / 60000, repeatIntervalMs / 60000);
-                    }
-                } else if ("온도 낮음".equals(alarmType)) {
-                    // 저온 알람 (alarm_yn2, delay_time2, re_delay_time2)
-                    String delayTimeStr = String.valueOf(config.get("delay_time2"));
-                    String repeatTimeStr = String.valueOf(config.get("re_delay_time2"));
-                    
-                    if (delayTimeStr != null && !"null".equals(delayTimeStr)) {
-                        delayTimeMs = Long.parseLong(delayTimeStr) * 60 * 1000; // 분 -> 밀리초
-                    }
-                    if (repeatTimeStr != null && !"null".equals(repeatTimeStr)) {
-                        repeatIntervalMs = Long.parseLong(repeatTimeStr) * 60 * 1000; // 분 -> 밀리초
-                    }
-                    
-                    if (isThepine) {
-                        logger.info("[thepine] 저온 알람 설정: 지연시간={}분, 재전송간격={}분", 
-                            delayTimeMs / 60000, repeatIntervalMs / 60000);
-                    }
-                }
-            }
-            
-            // 중복 발송 방지 체크 (재전송반복간격 적용)
-            String alarmKey = sensor.getUserId() + "_" + sensor.getUuid() + "_" + alarmType;
-            Long lastSentTime = lastAlarmSentTime.get(alarmKey);
-            long currentTime = System.currentTimeMillis();
-            
-            if (lastSentTime == null) {
-                // 첫 번째 알람: 지연시간 체크
-                if (delayTimeMs > 0) {
-                    // 지연시간이 설정되어 있으면 대기
-                    if (isThepine) {
-                        logger.info("[thepine] 첫 알람 - 지연시간 {}분 대기 중 (다음 체크에서 발송)", delayTimeMs / 60000);
-                    }
-                    lastAlarmSentTime.put(alarmKey, currentTime);
-                    return; // 지연시간 동안 대기
-                } else {
-                    // 지연시간이 0분이면 즉시 발송
-                    if (isThepine) {
-                        logger.info("[thepine] 첫 알람 - 지연시간 0분, 즉시 발송");
-                    }
-                    // 발송 후 시간 기록은 아래에서 처리
-                }
-            } else {
-                // 두 번째 이후 알람: 재전송반복간격 체크
-                long timeSinceLastAlarm = currentTime - lastSentTime;
-                
-                if (timeSinceLastAlarm < repeatIntervalMs) {
-                    // 재전송간격 이내면 발송하지 않음
-                    if (isThepine) {
-                        long remainingTime = (repeatIntervalMs - timeSinceLastAlarm) / 60000;
-                        logger.info("[thepine] 알람 중복 방지 - 재전송간격 대기 시간: {}분", remainingTime);
-                    }
-                    return;
-                } else {
-                    // 재전송간격이 지났으면 발송
-                    if (isThepine) {
-                        logger.info("[thepine] 재전송간격 {}분 경과 - 알람 재발송", repeatIntervalMs / 60000);
-                    }
-                    // 발송 후 시간 기록은 아래에서 처리
+    @PreDestroy
+    public void cleanup() {
+        logger.info("MQTT 메시지 프로세서 정리 시작");
+        running = false;
+        
+        // 샤드 스레드 종료 대기 (진행 중인 배치 마무리)
+        for (Shard shard : shards) {
+            if (shard.thread != null) {
+                try {
+                    shard.thread.join(batchTimeoutMs + BATCH_FILL_POLL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
             }
-            
-            String message = String.format("%s 장치 - %s (현재: %.1f°C, 설정: %.1f°C)", 
-                sensor.getName() != null ? sensor.getName() : sensor.getUuid(),
-                alarmType, currentTemp, setTemp);
-            
-            // FCM 토큰은 hnt_user 테이블에서 조회
-            String fcmToken = null;
-            try {
-                fcmToken = adminService.getUserToken(sensor.getUserId());
-                
-                if (isThepine) {
-                    if (fcmToken != null) {
-                        logger.info("[thepine] FCM 토큰 조회 성공 (길이: {})", fcmToken.length());
-                    } else {
-                        logger.warn("[thepine] FCM 토큰이 없습니다");
-                    }
+        }
+        
+        // 남은 메시지 처리 (배치 스레드가 끝난 샤드만 - 아직 커밋 중인 샤드의 큐를 두 스레드가 꺼내지 않도록)
+        int remaining = getQueueSize();
+        if (remaining > 0) {
+            logger.info("남은 메시지 {}개 처리 중...", remaining);
+            for (Shard shard : shards) {
+                if (shard.thread != null && shard.thread.isAlive()) {
+                    logger.warn("배치 스레드 종료 대기 초과 - 남은 메시지 {}개는 {} (shard: {})", shard.queue.size(),
+                        shard.wal != null ? "재기동 시 WAL 재생" : "처리하지 않음", shard.index);
+                    continue;
                 }
-            } catch (Exception e) {
-                logger.warn("FCM 토큰 조회 실패 - userId: {}", sensor.getUserId(), e);
+                shard.drainRemaining();
             }
-            
-            NotificationRequest request = new NotificationRequest();
-            request.setUserId(sensor.getUserId());
-            request.setFcmToken(fcmToken);
-            request.setSensorUuid(sensor.getUuid());
-            request.setMessage(message);
-            request.setAlarmType(alarmType);
-            
-            boolean success = notificationService.sendDualNotification(request);
-            
-            if (success) {
-                // 알람 발송 성공 시 시간 기록
-                lastAlarmSentTime.put(alarmKey, currentTime);
-                logger.info("알림 발송 성공 - userId: {}, sensorUuid: {}, type: {}", 
-                    sensor.getUserId(), sensor.getUuid(), alarmType);
-            } else {
-                logger.warn("알림 발송 실패 - userId: {}, sensorUuid: {}, type: {}", 
-                    sensor.getUserId(), sensor.getUuid(), alarmType);
+        }
+        
+        // 저널의 미재생 레코드는 다음 기동 시 재생
+        for (Shard shard : shards) {
+            if (shard.journal != null) {
+                shard.journal.close();
             }
-            
-        } catch (Exception e) {
-            logger.error("알림 발송 중 오류 - sensorUuid: {}", sensor.getUuid(), e);
         }
-    }
-    
-    /**
-     * 외부에서 호출 가능한 cleanup 메서드
-     */
-    @PreDestroy
-    public void cleanup() {
-        logger.info("MQTT 메시지 프로세서 정리 시작");
-        running = false;
         
-        // 남은 메시지 처리
-        if (!messageQueue.isEmpty()) {
-            logger.info("남은 메시지 {}개 처리 중...", messageQueue.size());
-            processBatches();
+        // WAL 최종 sync (체크포인트 저장)
+        if (walFlusher != null) {
+            walFlusher.shutdown();
+        }
+        for (Shard shard : shards) {
+            if (shard.wal != null) {
+                shard.wal.close();
+            }
         }
         
         logger.info("MQTT 메시지 프로세서 정리 완료");
@@ -0,0 +1,289 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MQTT 페이로드 단일 패스 디코더
+ * 토픽과 byte[] 페이로드를 한 번만 읽어 SensorReading으로 변환
+ * (공유 JsonFactory 기반 스트리밍 파서 사용 - ObjectMapper/Map 생성 없음)
+ */
+public final class MqttPayloadDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(MqttPayloadDecoder.class);
+
+    // JsonFactory는 스레드 안전 - 전역 공유
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String ERROR_VALUE = "Error";
+
+    /**
+     * 메시지 분류
+     */
+    public enum Kind {
+        LIVE,       // actcode: live
+        REG,        // actcode: reg (장치 등록)
+        SETRES,     // actcode: setres (설정 응답)
+        OTHER,      // 기타 JSON 메시지
+        INVALID     // JSON 객체가 아닌 메시지
+    }
+
+    /**
+     * 디코딩 결과 (센서 측정값)
+     */
+    public static final class SensorReading {
+        private final String topic;
+        private final byte[] payload;
+        private String payloadText;
+
+        // 토픽 정보 (HBEE/{userId}/{model}/{uuid}/{DEV|SER})
+        private String userId;
+        private String model;
+        private String uuid;
+
+        // 페이로드 정보
+        private Kind kind = Kind.INVALID;
+        private String actcode;
+        private String name;
+        private String type;
+        private int channel = SensorLatestValueStore.CHANNEL_NONE;
+        private String valueText;
+        private double value;
+        private boolean numeric;
+        private boolean error;
+
+        // 장치 등록 정보 (actcode: reg)
+        private String regUserId;
+        private String regModel;
+        private String regMac;
+
+        private SensorReading(String topic, byte[] payload) {
+            this.topic = topic;
+            this.payload = payload;
+        }
+
+        // Getters
+        public String getTopic() { return topic; }
+        public byte[] getPayload() { return payload; }
+        public String getUserId() { return userId; }
+        public String getModel() { return model; }
+        public String getUuid() { return uuid; }
+        public Kind getKind() { return kind; }
+        public String getActcode() { return actcode; }
+        public String getName() { return name; }
+        public String getType() { return type; }
+        public int getChannel() { return channel; }
+        public String getValueText() { return valueText; }
+        public double getValue() { return value; }
+        public boolean isNumeric() { return numeric; }
+        public boolean isError() { return error; }
+        public String getRegUserId() { return regUserId; }
+        public String getRegModel() { return regModel; }
+        public String getRegMac() { return regMac; }
+
+        /**
+         * 토픽에 userId/uuid가 모두 있는지 여부
+         */
+        public boolean hasSensorTopic() {
+            return userId != null && uuid != null;
+        }
+
+        /**
+         * 페이로드 문자열 (최초 호출 시 한 번만 생성)
+         */
+        public String getPayloadText() {
+            String text = payloadText;
+            if (text == null) {
+                text = payload != null ? new String(payload, StandardCharsets.UTF_8) : "";
+                payloadText = text;
+            }
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SensorReading{kind=%s, userId='%s', uuid='%s', name='%s', value='%s', error=%s}",
+                kind, userId, uuid, name, valueText, error);
+        }
+    }
+
+    private MqttPayloadDecoder() {
+    }
+
+    /**
+     * 토픽과 페이로드 디코딩
+     * @param topic MQTT 토픽
+     * @param payload MQTT 페이로드
+     * @return 디코딩 결과 (null 반환 없음)
+     */
+    public static SensorReading decode(String topic, byte[] payload) {
+        SensorReading reading = new SensorReading(topic, payload);
+        parseTopic(reading, topic);
+        if (payload != null && payload.length > 0) {
+            parsePayload(reading, payload);
+        }
+        return reading;
+    }
+
+    /**
+     * 토픽 파싱 (split 없이 구분자 위치만 탐색)
+     */
+    private static void parseTopic(SensorReading reading, String topic) {
+        if (topic == null) {
+            return;
+        }
+        int s1 = topic.indexOf('/');
+        if (s1 < 0) {
+            return;
+        }
+        int s2 = topic.indexOf('/', s1 + 1);
+        if (s2 < 0) {
+            return;
+        }
+        int s3 = topic.indexOf('/', s2 + 1);
+        if (s3 < 0) {
+            return;
+        }
+        int s4 = topic.indexOf('/', s3 + 1);
+        if (s4 < 0) {
+            s4 = topic.length();
+        }
+        reading.userId = topic.substring(s1 + 1, s2);
+        reading.model = topic.substring(s2 + 1, s3);
+        reading.uuid = topic.substring(s3 + 1, s4);
+    }
+
+    /**
+     * 페이로드 파싱 (최상위 필드만 읽고 중첩 구조는 건너뜀)
+     */
+    private static void parsePayload(SensorReading reading, byte[] payload) {
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                switch (field) {
+                    case "actcode":
+                        reading.actcode = scalarText(parser, valueToken);
+                        break;
+                    case "name":
+                        reading.name = scalarText(parser, valueToken);
+                        break;
+                    case "type":
+                        reading.type = scalarText(parser, valueToken);
+                        break;
+                    case "value":
+                        readValue(reading, parser, valueToken);
+                        break;
+                    case "userid":
+                    case "userId":
+                        if (reading.regUserId == null) {
+                            reading.regUserId = scalarText(parser, valueToken);
+                        }
+                        break;
+                    case "model":
+                        reading.regModel = scalarText(parser, valueToken);
+                        break;
+                    case "mac":
+                        reading.regMac = scalarText(parser, valueToken);
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            if (token != JsonToken.END_OBJECT) {
+                return;
+            }
+
+            reading.kind = classify(reading.actcode);
+            reading.channel = channelOf(reading.name);
+
+        } catch (Exception e) {
+            // JSON 형식이 아닌 메시지 - INVALID로 분류
+            reading.kind = Kind.INVALID;
+            logger.debug("MQTT 페이로드 JSON 파싱 실패 - topic: {}, error: {}", reading.topic, e.getMessage());
+        }
+    }
+
+    private static void readValue(SensorReading reading, JsonParser parser, JsonToken token) throws java.io.IOException {
+        switch (token) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                reading.valueText = parser.getText();
+                reading.value = parser.getDoubleValue();
+                reading.numeric = true;
+                break;
+            case VALUE_STRING:
+                String text = parser.getText();
+                reading.valueText = text;
+                if (ERROR_VALUE.equals(text)) {
+                    reading.error = true;
+                } else {
+                    parseNumber(reading, text);
+                }
+                break;
+            case VALUE_NULL:
+                reading.valueText = null;
+                break;
+            default:
+                reading.valueText = parser.getText();
+                break;
+        }
+    }
+
+    private static void parseNumber(SensorReading reading, String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        try {
+            reading.value = Double.parseDouble(text);
+            reading.numeric = true;
+        } catch (NumberFormatException e) {
+            reading.numeric = false;
+        }
+    }
+
+    private static String scalarText(JsonParser parser, JsonToken token) throws java.io.IOException {
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static Kind classify(String actcode) {
+        if (actcode == null) {
+            return Kind.OTHER;
+        }
+        switch (actcode) {
+            case "live": return Kind.LIVE;
+            case "reg": return Kind.REG;
+            case "setres": return Kind.SETRES;
+            default: return Kind.OTHER;
+        }
+    }
+
+    private static int channelOf(String name) {
+        if (name == null) {
+            return SensorLatestValueStore.CHANNEL_NONE;
+        }
+        switch (name) {
+            case "ain": return SensorLatestValueStore.CHANNEL_AIN;
+            case "din": return SensorLatestValueStore.CHANNEL_DIN;
+            case "output": return SensorLatestValueStore.CHANNEL_OUTPUT;
+            default: return SensorLatestValueStore.CHANNEL_NONE;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 센서별 알람 설정 캐시
+ * 측정값마다 hnt_config / hnt_user 를 조회하던 알림 체크 경로를 메모리 조회로 대체
+ *
+ * - 기동 시 전체 설정/토큰 예열 (MQTT 연결 전)
+ * - 설정/토큰 저장 시 해당 키 무효화, TTL 경과 시 재조회 (다른 경로의 DB 변경 대비)
+ * - 설정이 없는 센서도 빈 설정으로 캐시 (매 측정값마다 DB 조회 방지)
+ */
+@Component
+@Order(0) // MqttInitializationRunner 보다 먼저 실행
+public class SensorAlarmConfigCache implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorAlarmConfigCache.class);
+
+    // 알람 번호 (alarm_yn1 ~ alarm_yn5)
+    public static final int ALARM_HIGH = 1;
+    public static final int ALARM_LOW = 2;
+    public static final int ALARM_SPECIFIC = 3;
+    public static final int ALARM_DI = 4;
+    public static final int ALARM_NETWORK = 5;
+
+    private static final int ALARM_COUNT = 5;
+
+    @Autowired
+    private AdminMapper adminMapper;
+
+    @Value("${custom.alarm.config-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${custom.alarm.config-cache.warm-up:true}")
+    private boolean warmUp;
+
+    // sensorUuid -> 알람 설정
+    private final ConcurrentHashMap<String, AlarmConfig> configs = new ConcurrentHashMap<>();
+
+    // userId -> FCM 토큰
+    private final ConcurrentHashMap<String, TokenEntry> tokens = new ConcurrentHashMap<>();
+
+    // 무효화 세대 (조회 중 무효화된 값을 캐시에 넣지 않기 위함)
+    private final AtomicLong generation = new AtomicLong(0);
+
+    // 통계 정보
+    private final AtomicLong configHits = new AtomicLong(0);
+    private final AtomicLong configMisses = new AtomicLong(0);
+    private final AtomicLong configExpired = new AtomicLong(0);
+    private final AtomicLong tokenHits = new AtomicLong(0);
+    private final AtomicLong tokenMisses = new AtomicLong(0);
+    private final AtomicLong tokenExpired = new AtomicLong(0);
+    private final AtomicLong loadErrors = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong servedAgeMsTotal = new AtomicLong(0);
+    private final AtomicLong maxServedAgeMs = new AtomicLong(0);
+    private volatile long lastWarmUpTime = 0;
+    private volatile int lastWarmUpCount = 0;
+
+    /**
+     * 센서 알람 설정 (불변, 기본형 필드)
+     */
+    public static final class AlarmConfig {
+        private final String sensorUuid;
+        private final String userId;
+        private final long loadedAt;
+        private final boolean present;
+
+        private final boolean[] alarmEnabled = new boolean[ALARM_COUNT + 1];
+        private final double[] setValue = new double[ALARM_COUNT + 1];
+        private final String[] setValueText = new String[ALARM_COUNT + 1];
+        private final long[] delayMinutes = new long[ALARM_COUNT + 1];
+        private final long[] repeatMinutes = new long[ALARM_COUNT + 1];
+
+        private AlarmConfig(String sensorUuid, Map<String, Object> row, long loadedAt) {
+            this.sensorUuid = sensorUuid;
+            this.loadedAt = loadedAt;
+            this.present = row != null && !row.isEmpty();
+            this.userId = present ? stringOf(row.get("user_id")) : null;
+            for (int i = 1; i <= ALARM_COUNT; i++) {
+                alarmEnabled[i] = present && "Y".equals(stringOf(row.get("alarm_yn" + i)));
+                setValue[i] = present ? doubleOf(row.get("set_val" + i)) : Double.NaN;
+                setValueText[i] = present ? stringOf(row.get("set_val" + i)) : null;
+                delayMinutes[i] = present ? longOf(row.get("delay_time" + i)) : -1;
+                repeatMinutes[i] = present ? longOf(row.get("re_delay_time" + i)) : -1;
+            }
+        }
+
+        /**
+         * hnt_config 설정 존재 여부
+         */
+        public boolean isPresent() {
+            return present;
+        }
+
+        /**
+         * 알람 중 하나라도 사용 중인지
+         */
+        public boolean hasAnyAlarm() {
+            for (int i = 1; i <= ALARM_COUNT; i++) {
+                if (alarmEnabled[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public boolean isAlarmEnabled(int alarmNo) {
+            return alarmEnabled[alarmNo];
+        }
+
+        /**
+         * 설정값 (set_valN, 숫자가 아니면 NaN)
+         */
+        public double getSetValue(int alarmNo) {
+            return setValue[alarmNo];
+        }
+
+        /**
+         * 설정값 원문 (set_valN, 알람 문구 표시용)
+         */
+        public String getSetValueText(int alarmNo) {
+            return setValueText[alarmNo];
+        }
+
+        /**
+         * 지연시간 (delay_timeN, 분 단위, 미설정 시 -1)
+         */
+        public long getDelayMinutes(int alarmNo) {
+            return delayMinutes[alarmNo];
+        }
+
+        /**
+         * 재전송간격 (re_delay_timeN, 분 단위, 미설정 시 -1)
+         */
+        public long getRepeatMinutes(int alarmNo) {
+            return repeatMinutes[alarmNo];
+        }
+
+        public String getSensorUuid() {
+            return sensorUuid;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("AlarmConfig{uuid=").append(sensorUuid).append(", present=").append(present);
+            for (int i = 1; i <= ALARM_COUNT; i++) {
+                sb.append(", ").append(i).append('=').append(alarmEnabled[i] ? "Y" : "N")
+                    .append('/').append(setValue[i])
+                    .append('/').append(delayMinutes[i]).append('/').append(repeatMinutes[i]);
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    /**
+     * FCM 토큰 캐시 항목 (토큰이 없는 사용자도 캐시)
+     */
+    private static final class TokenEntry {
+        private final String token;
+        private final long loadedAt;
+
+        private TokenEntry(String token, long loadedAt) {
+            this.token = token;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (warmUp) {
+            warmUp();
+        }
+    }
+
+    /**
+     * 전체 설정/토큰 예열
+     */
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        long gen = generation.get();
+        try {
+            List<Map<String, Object>> rows = adminMapper.selectAllAlarmSettings();
+            List<Map<String, Object>> tokenRows = adminMapper.selectActiveUserTokens();
+
+            // 예열 중 무효화가 있었으면 해당 시점 이후 값은 조회 시 다시 적재
+            if (gen != generation.get()) {
+                logger.info("알람 설정 캐시 예열 중 변경 감지 - 예열 결과 폐기");
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            int count = 0;
+            if (rows != null) {
+                for (Map<String, Object> row : rows) {
+                    String uuid = stringOf(row.get("sensor_uuid"));
+                    if (uuid != null) {
+                        configs.putIfAbsent(uuid, new AlarmConfig(uuid, row, now));
+                        count++;
+                    }
+                }
+            }
+            if (tokenRows != null) {
+                for (Map<String, Object> row : tokenRows) {
+                    String userId = stringOf(row.get("user_id"));
+                    if (userId != null) {
+                        tokens.putIfAbsent(userId, new TokenEntry(stringOf(row.get("token")), now));
+                    }
+                }
+            }
+
+            lastWarmUpTime = now;
+            lastWarmUpCount = count;
+            logger.info("알람 설정 캐시 예열 완료 - 설정: {}건, 토큰: {}건, 소요시간: {}ms",
+                count, tokenRows != null ? tokenRows.size() : 0, now - start);
+        } catch (Exception e) {
+            loadErrors.incrementAndGet();
+            logger.warn("알람 설정 캐시 예열 실패 - 조회 시 개별 적재: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 센서 알람 설정 조회 (캐시 미스 또는 TTL 경과 시 DB 조회)
+     * @param sensorUuid 센서 UUID
+     * @return 알람 설정 (설정이 없으면 isPresent() == false), 조회 실패 시 null
+     */
+    public AlarmConfig getConfig(String sensorUuid) {
+        if (sensorUuid == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        AlarmConfig cached = configs.get(sensorUuid);
+        if (cached != null) {
+            long age = now - cached.loadedAt;
+            if (age < ttlSeconds * 1000) {
+                configHits.incrementAndGet();
+                recordServedAge(age);
+                return cached;
+            }
+            configExpired.incrementAndGet();
+        } else {
+            configMisses.incrementAndGet();
+        }
+
+        long gen = generation.get();
+        try {
+            Map<String, Object> param = new HashMap<>();
+            param.put("sensorUuid", sensorUuid);
+            Map<String, Object> row = adminMapper.selectSetting(param);
+            AlarmConfig loaded = new AlarmConfig(sensorUuid, row, now);
+            if (gen == generation.get()) {
+                configs.put(sensorUuid, loaded);
+            }
+            return loaded;
+        } catch (Exception e) {
+            loadErrors.incrementAndGet();
+            logger.warn("알람 설정 조회 실패 - sensorUuid: {}, error: {}", sensorUuid, e.getMessage());
+            return cached; // 만료된 값이라도 있으면 사용
+        }
+    }
+
+    /**
+     * 사용자 FCM 토큰 조회 (캐시 미스 또는 TTL 경과 시 DB 조회)
+     */
+    public String getUserToken(String userId) {
+        if (userId == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        TokenEntry cached = tokens.get(userId);
+        if (cached != null) {
+            long age = now - cached.loadedAt;
+            if (age < ttlSeconds * 1000) {
+                tokenHits.incrementAndGet();
+                recordServedAge(age);
+                return cached.token;
+            }
+            tokenExpired.incrementAndGet();
+        } else {
+            tokenMisses.incrementAndGet();
+        }
+
+        long gen = generation.get();
+        try {
+            Map<String, Object> param = new HashMap<>();
+            param.put("userId", userId);
+            Map<String, Object> row = adminMapper.getUserToken(param);
+            String token = row != null ? stringOf(row.get("token")) : null;
+            if (gen == generation.get()) {
+                tokens.put(userId, new TokenEntry(token, now));
+            }
+            return token;
+        } catch (Exception e) {
+            loadErrors.incrementAndGet();
+            logger.warn("FCM 토큰 조회 실패 - userId: {}, error: {}", userId, e.getMessage());
+            return cached != null ? cached.token : null;
+        }
+    }
+
+    /**
+     * 센서 알람 설정 무효화 (설정 저장 후 호출)
+     */
+    public void invalidateConfig(String sensorUuid) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        if (sensorUuid != null) {
+            configs.remove(sensorUuid);
+        }
+        logger.debug("알람 설정 캐시 무효화 - sensorUuid: {}", sensorUuid);
+    }
+
+    /**
+     * 사용자 FCM 토큰 무효화 (토큰 갱신 후 호출)
+     */
+    public void invalidateUserToken(String userId) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        if (userId != null) {
+            tokens.remove(userId);
+        }
+        logger.debug("FCM 토큰 캐시 무효화 - userId: {}", userId);
+    }
+
+    /**
+     * 전체 무효화
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        configs.clear();
+        tokens.clear();
+        logger.info("알람 설정 캐시 전체 무효화");
+    }
+
+    private void recordServedAge(long age) {
+        servedAgeMsTotal.addAndGet(age);
+        long max = maxServedAgeMs.get();
+        while (age > max && !maxServedAgeMs.compareAndSet(max, age)) {
+            max = maxServedAgeMs.get();
+        }
+    }
+
+    /**
+     * 통계 정보 반환 (적중률, 항목 수, 캐시 값의 경과 시간)
+     */
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        long oldest = 0;
+        for (AlarmConfig config : configs.values()) {
+            oldest = Math.max(oldest, now - config.loadedAt);
+        }
+        for (TokenEntry entry : tokens.values()) {
+            oldest = Math.max(oldest, now - entry.loadedAt);
+        }
+
+        long hits = configHits.get();
+        long misses = configMisses.get() + configExpired.get();
+        long tHits = tokenHits.get();
+        long tMisses = tokenMisses.get() + tokenExpired.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("configEntries", configs.size());
+        stats.put("configHits", hits);
+        stats.put("configMisses", configMisses.get());
+        stats.put("configExpired", configExpired.get());
+        stats.put("configHitRate", hits + misses > 0 ? (double) hits / (hits + misses) * 100 : 0.0);
+        stats.put("tokenEntries", tokens.size());
+        stats.put("tokenHits", tHits);
+        stats.put("tokenMisses", tokenMisses.get());
+        stats.put("tokenExpired", tokenExpired.get());
+        stats.put("tokenHitRate", tHits + tMisses > 0 ? (double) tHits / (tHits + tMisses) * 100 : 0.0);
+        stats.put("loadErrors", loadErrors.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("oldestEntryAgeMs", oldest);
+        stats.put("avgServedAgeMs", hits + tHits > 0 ? (double) servedAgeMsTotal.get() / (hits + tHits) : 0.0);
+        stats.put("maxServedAgeMs", maxServedAgeMs.get());
+        stats.put("lastWarmUpTime", lastWarmUpTime);
+        stats.put("lastWarmUpCount", lastWarmUpCount);
+        return stats;
+    }
+
+    private static String stringOf(Object value) {
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    private static double doubleOf(Object value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long longOf(Object value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 센서 통신 상태 추적기 (마지막 수신 시각 기반)
+ * 5분 구간 hnt_sensor_data COUNT(raw_data like '%ain%') 조회로 판단하던 chkError 를 메모리 조회로 대체
+ *
+ * - 수신 데이터마다 UUID 별 마지막 수신 시각 (long) 갱신 - 개방 주소법 테이블, 객체 할당 없음
+ * - 센서당 만료 타이머 1개 (타이밍 휠), 만료 시 마지막 수신 시각을 보고 재등록 또는 통신이상 전환
+ * - 통신이상 / 복구 시 알람 상태 머신에 즉시 반영
+ * - 장치 삭제 시 evict 로 즉시 제거 (삭제된 장치가 통신이상으로 남지 않도록)
+ */
+@Component
+@Order(0) // MQTT 연결 전 등록 장치 예열
+public class SensorHeartbeatTracker implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorHeartbeatTracker.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // 슬롯 상태 비트
+    private static final byte FLAG_OFFLINE = 1;
+    private static final byte FLAG_ARMED = 2;
+
+    @Autowired
+    private AdminMapper adminMapper;
+
+    @Autowired
+    private AlarmStateMachine alarmStateMachine;
+
+    @Value("${custom.heartbeat.enabled:true}")
+    private boolean enabled;
+
+    @Value("${custom.heartbeat.offline-threshold-seconds:300}")
+    private long offlineThresholdSeconds;
+
+    @Value("${custom.heartbeat.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${custom.heartbeat.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${custom.heartbeat.warm-up:true}")
+    private boolean warmUp;
+
+    // 개방 주소법 테이블 (선형 탐사, 삭제 시 뒤 항목 당김) - lock 으로 보호
+    private final Object lock = new Object();
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private String[] userIds = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] lastSeen = new long[INITIAL_CAPACITY];
+    private long[] timerIds = new long[INITIAL_CAPACITY]; // 등록된 만료 타이머 번호 (삭제 후 남은 타이머 무시)
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+    private int offlineCount = 0;
+    private long timerSeq = 0;
+
+    private HashedTimingWheel wheel;
+    private volatile boolean started = false;
+    private volatile long startedAt = 0;
+
+    // 통계 정보
+    private final AtomicLong touches = new AtomicLong(0);
+    private final AtomicLong wentOffline = new AtomicLong(0);
+    private final AtomicLong recovered = new AtomicLong(0);
+    private final AtomicLong rearmed = new AtomicLong(0);
+    private final AtomicLong lookups = new AtomicLong(0);
+    private final AtomicLong evicted = new AtomicLong(0);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        start();
+    }
+
+    /**
+     * 만료 타이머 시작 및 등록 장치 예열
+     * 예열된 장치는 DB 의 마지막 수신 시각부터 추적 (재기동 전부터 무수신이던 장치는 바로 통신이상,
+     * 수신 기록이 없는 장치도 통신이상)
+     */
+    public synchronized void start() {
+        if (!enabled || started) {
+            return;
+        }
+
+        wheel = new HashedTimingWheel("Heartbeat-TimerWheel", tickMs, wheelSize);
+        wheel.start();
+        startedAt = System.currentTimeMillis();
+        started = true;
+
+        int seeded = 0;
+        if (warmUp) {
+            try {
+                List<Map<String, Object>> rows = adminMapper.selectHeartbeatSensors();
+                if (rows != null) {
+                    for (Map<String, Object> row : rows) {
+                        String uuid = stringOf(row.get("sensor_uuid"));
+                        long lastDtm = Math.min(epochMillisOf(row.get("last_dtm")), startedAt);
+                        if (uuid != null && seed(uuid, stringOf(row.get("user_id")), stringOf(row.get("sensor_name")),
+                                lastDtm > 0 ? lastDtm : startedAt - thresholdMs())) {
+                            seeded++;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("통신 상태 추적 예열 실패 - 수신 데이터로만 추적: {}", e.toString());
+            }
+        }
+
+        logger.info("통신 상태 추적 시작 - 기준: {}초, 예열 장치: {}", offlineThresholdSeconds, seeded);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 수신 기록 (수신 스레드)
+     * @param healthy false 이면 장치 오류값 수신 (통신은 정상이나 통신이상 알람은 오류값 경로에서 유지)
+     */
+    public void touch(String userId, String sensorUuid, boolean healthy) {
+        if (!started || sensorUuid == null) {
+            return;
+        }
+        touches.incrementAndGet();
+        long now = System.currentTimeMillis();
+        boolean restored = false;
+        long timerId = 0;
+        String restoredUserId = null;
+        String restoredName = null;
+
+        synchronized (lock) {
+            int slot = findOrInsert(sensorUuid);
+            if (userId != null) {
+                userIds[slot] = userId;
+            }
+            lastSeen[slot] = now;
+            if ((flags[slot] & FLAG_OFFLINE) != 0) {
+                flags[slot] &= ~FLAG_OFFLINE;
+                offlineCount--;
+                restored = true;
+                restoredUserId = userIds[slot];
+                restoredName = names[slot];
+            }
+            if ((flags[slot] & FLAG_ARMED) == 0) {
+                flags[slot] |= FLAG_ARMED;
+                timerId = timerIds[slot] = ++timerSeq;
+            }
+        }
+
+        if (timerId != 0) {
+            arm(sensorUuid, timerId, thresholdMs());
+        }
+        if (restored) {
+            recovered.incrementAndGet();
+            logger.info("통신 복구 - sensorUuid: {}", sensorUuid);
+            if (healthy) {
+                alarmStateMachine.onCommRestored(restoredUserId, sensorUuid, restoredName);
+            }
+        }
+    }
+
+    /**
+     * 통신 정상 여부 (기준 시간 내 수신 여부, O(1))
+     * 추적되지 않는 장치는 false
+     */
+    public boolean isOnline(String sensorUuid) {
+        if (sensorUuid == null) {
+            return false;
+        }
+        lookups.incrementAndGet();
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            int slot = find(sensorUuid);
+            return slot >= 0 && (flags[slot] & FLAG_OFFLINE) == 0 && now - lastSeen[slot] < thresholdMs();
+        }
+    }
+
+    /**
+     * 마지막 수신 시각 (epoch ms, 없으면 0)
+     */
+    public long getLastSeen(String sensorUuid) {
+        if (sensorUuid == null) {
+            return 0;
+        }
+        synchronized (lock) {
+            int slot = find(sensorUuid);
+            return slot >= 0 ? lastSeen[slot] : 0;
+        }
+    }
+
+    private long thresholdMs() {
+        return TimeUnit.SECONDS.toMillis(offlineThresholdSeconds);
+    }
+
+    private boolean seed(String sensorUuid, String userId, String name, long seenAt) {
+        long timerId = 0;
+        synchronized (lock) {
+            int slot = findOrInsert(sensorUuid);
+            if (userId != null) {
+                userIds[slot] = userId;
+            }
+            if (name != null) {
+                names[slot] = name;
+            }
+            if (lastSeen[slot] == 0) {
+                lastSeen[slot] = seenAt;
+            }
+            if ((flags[slot] & FLAG_ARMED) == 0) {
+                flags[slot] |= FLAG_ARMED;
+                timerId = timerIds[slot] = ++timerSeq;
+            }
+        }
+        if (timerId != 0) {
+            arm(sensorUuid, timerId, seenAt + thresholdMs() - System.currentTimeMillis());
+        }
+        return timerId != 0;
+    }
+
+    private void arm(String sensorUuid, long timerId, long delayMs) {
+        wheel.newTimeout(() -> onExpire(sensorUuid, timerId), delayMs);
+    }
+
+    /**
+     * 장치 삭제 반영 - 추적 항목 제거 및 알람 상태 정리 (장치 삭제 쓰기 경로에서 호출)
+     * 삭제 후 다시 수신되면 새 장치로 추적
+     */
+    public void evict(String sensorUuid) {
+        if (!started || sensorUuid == null) {
+            return;
+        }
+        boolean removed;
+        synchronized (lock) {
+            int slot = find(sensorUuid);
+            removed = slot >= 0;
+            if (removed) {
+                remove(slot);
+            }
+        }
+        if (removed) {
+            evicted.incrementAndGet();
+            logger.debug("통신 상태 추적 제거 - sensorUuid: {}", sensorUuid);
+        }
+        alarmStateMachine.evict(sensorUuid);
+    }
+
+    /**
+     * 만료 타이머 (타이밍 휠 스레드)
+     * 그 사이 수신이 있었으면 남은 시간만큼 재등록, 없으면 통신이상 전환 (복구 수신 시 재등록)
+     */
+    private void onExpire(String sensorUuid, long timerId) {
+        if (!started) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long remaining;
+        String userId;
+        String name;
+
+        synchronized (lock) {
+            int slot = find(sensorUuid);
+            if (slot < 0 || timerIds[slot] != timerId) {
+                return; // 삭제된 장치 (삭제 후 재등록됐으면 새 타이머가 추적)
+            }
+            remaining = lastSeen[slot] + thresholdMs() - now;
+            if (remaining > 0) {
+                userId = null;
+                name = null;
+            } else {
+                flags[slot] &= ~FLAG_ARMED;
+                if ((flags[slot] & FLAG_OFFLINE) == 0) {
+                    flags[slot] |= FLAG_OFFLINE;
+                    offlineCount++;
+                }
+                userId = userIds[slot];
+                name = names[slot];
+            }
+        }
+
+        if (remaining > 0) {
+            rearmed.incrementAndGet();
+            arm(sensorUuid, timerId, remaining);
+            return;
+        }
+
+        wentOffline.incrementAndGet();
+        logger.info("통신이상 감지 - sensorUuid: {}, 무수신: {}초", sensorUuid, offlineThresholdSeconds);
+        alarmStateMachine.onCommError(userId, sensorUuid, name);
+    }
+
+    // ---- 개방 주소법 (락 보유 상태에서 호출) ----
+
+    private int find(String key) {
+        int mask = keys.length - 1;
+        int i = mix(key.hashCode()) & mask;
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int findOrInsert(String key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = mix(key.hashCode()) & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    /**
+     * 항목 삭제 - 같은 탐사 구간의 뒤 항목을 빈 칸으로 당겨 탐사 연속성 유지
+     */
+    private void remove(int slot) {
+        if ((flags[slot] & FLAG_OFFLINE) != 0) {
+            offlineCount--;
+        }
+        clear(slot);
+        size--;
+
+        int mask = keys.length - 1;
+        int hole = slot;
+        int i = (slot + 1) & mask;
+        while (keys[i] != null) {
+            int home = mix(keys[i].hashCode()) & mask;
+            // 원래 위치가 (hole, i] 구간 밖이면 hole 로 당김
+            boolean inRange = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!inRange) {
+                keys[hole] = keys[i];
+                userIds[hole] = userIds[i];
+                names[hole] = names[i];
+                lastSeen[hole] = lastSeen[i];
+                timerIds[hole] = timerIds[i];
+                flags[hole] = flags[i];
+                clear(i);
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void clear(int slot) {
+        keys[slot] = null;
+        userIds[slot] = null;
+        names[slot] = null;
+        lastSeen[slot] = 0;
+        timerIds[slot] = 0;
+        flags[slot] = 0;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        String[] oldUserIds = userIds;
+        String[] oldNames = names;
+        long[] oldLastSeen = lastSeen;
+        long[] oldTimerIds = timerIds;
+        byte[] oldFlags = flags;
+
+        keys = new String[capacity];
+        userIds = new String[capacity];
+        names = new String[capacity];
+        lastSeen = new long[capacity];
+        timerIds = new long[capacity];
+        flags = new byte[capacity];
+
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) {
+                continue;
+            }
+            int i = mix(oldKeys[j].hashCode()) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            userIds[i] = oldUserIds[j];
+            names[i] = oldNames[j];
+            lastSeen[i] = oldLastSeen[j];
+            timerIds[i] = oldTimerIds[j];
+            flags[i] = oldFlags[j];
+        }
+    }
+
+    private static int mix(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h;
+    }
+
+    private static String stringOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = String.valueOf(value).trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static long epochMillisOf(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return 0;
+    }
+
+    /**
+     * 통계 정보 반환 (전체 온라인/오프라인 장치 수 포함)
+     */
+    public Map<String, Object> getStats() {
+        int tracked;
+        int offline;
+        synchronized (lock) {
+            tracked = size;
+            offline = offlineCount;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("started", started);
+        stats.put("offlineThresholdSeconds", offlineThresholdSeconds);
+        stats.put("tracked", tracked);
+        stats.put("online", tracked - offline);
+        stats.put("offline", offline);
+        stats.put("touches", touches.get());
+        stats.put("lookups", lookups.get());
+        stats.put("wentOffline", wentOffline.get());
+        stats.put("recovered", recovered.get());
+        stats.put("rearmed", rearmed.get());
+        stats.put("evicted", evicted.get());
+        stats.put("startedAt", startedAt);
+        if (wheel != null) {
+            stats.put("timersPending", wheel.pendingTimeouts());
+            stats.put("timerMaxLagMs", wheel.getMaxLagMs());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        wheel.stop();
+        logger.info("통신 상태 추적 종료 - 통신이상: {}, 복구: {}", wentOffline.get(), recovered.get());
+    }
+}
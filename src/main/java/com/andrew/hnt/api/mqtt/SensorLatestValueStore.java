@@ -0,0 +1,408 @@
+package com.andrew.hnt.api.mqtt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 센서별 최신값 저장소
+ * UUID 단위로 ain/din/output 최신값을 불변 스냅샷으로 보관하고 CAS로 교체 (전역 락 없음)
+ */
+@Component
+public class SensorLatestValueStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorLatestValueStore.class);
+
+    // 채널 상수
+    public static final int CHANNEL_NONE = 0;
+    public static final int CHANNEL_AIN = 1;
+    public static final int CHANNEL_DIN = 2;
+    public static final int CHANNEL_OUTPUT = 3;
+
+    // output 타입 (1: COMP, 2: DEF, 3: FAN)
+    public static final int OUTPUT_COMP = 1;
+    public static final int OUTPUT_DEF = 2;
+    public static final int OUTPUT_FAN = 3;
+
+    // UUID -> 최신 스냅샷
+    private final ConcurrentHashMap<String, AtomicReference<Snapshot>> store = new ConcurrentHashMap<>();
+
+    // 전역 버전 카운터 (갱신마다 1씩 증가)
+    private final AtomicLong versionSeq = new AtomicLong(0);
+
+    // 마지막으로 갱신된 스냅샷 (기존 /getData 호환용)
+    private final AtomicReference<Snapshot> lastUpdated = new AtomicReference<>();
+
+    // 통계 정보
+    private final AtomicLong updateCount = new AtomicLong(0);
+    private final AtomicLong casRetryCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+
+    /**
+     * 센서 최신값 스냅샷 (불변)
+     */
+    public static final class Snapshot {
+        private final String uuid;
+        private final String userId;
+        private final String sensorType;
+        private final long version;
+        private final int lastChannel;
+
+        private final double ainValue;
+        private final boolean ainError;
+        private final long ainTime;
+
+        private final int dinValue;
+        private final long dinTime;
+
+        private final int outputType;
+        private final int outputValue;
+        private final long outputTime;
+
+        private Snapshot(String uuid, String userId, String sensorType, long version, int lastChannel,
+                         double ainValue, boolean ainError, long ainTime,
+                         int dinValue, long dinTime,
+                         int outputType, int outputValue, long outputTime) {
+            this.uuid = uuid;
+            this.userId = userId;
+            this.sensorType = sensorType;
+            this.version = version;
+            this.lastChannel = lastChannel;
+            this.ainValue = ainValue;
+            this.ainError = ainError;
+            this.ainTime = ainTime;
+            this.dinValue = dinValue;
+            this.dinTime = dinTime;
+            this.outputType = outputType;
+            this.outputValue = outputValue;
+            this.outputTime = outputTime;
+        }
+
+        private static Snapshot empty(String uuid) {
+            return new Snapshot(uuid, null, null, 0L, CHANNEL_NONE, 0d, false, 0L, 0, 0L, 0, 0, 0L);
+        }
+
+        // Getters
+        public String getUuid() { return uuid; }
+        public String getUserId() { return userId; }
+        public String getSensorType() { return sensorType; }
+        public long getVersion() { return version; }
+        public int getLastChannel() { return lastChannel; }
+        public double getAinValue() { return ainValue; }
+        public boolean isAinError() { return ainError; }
+        public long getAinTime() { return ainTime; }
+        public int getDinValue() { return dinValue; }
+        public long getDinTime() { return dinTime; }
+        public int getOutputType() { return outputType; }
+        public int getOutputValue() { return outputValue; }
+        public long getOutputTime() { return outputTime; }
+
+        public boolean hasAin() { return ainTime > 0; }
+        public boolean hasDin() { return dinTime > 0; }
+        public boolean hasOutput() { return outputTime > 0; }
+
+        /**
+         * 기존 문자열 형식의 온도값 ("Error" 또는 숫자)
+         */
+        public String getAinText() {
+            return ainError ? "Error" : String.valueOf(ainValue);
+        }
+
+        /**
+         * 기존 문자열 형식의 출력값 (comp/1, def/0, fan/1)
+         */
+        public String getOutputText() {
+            switch (outputType) {
+                case OUTPUT_COMP: return "comp/" + outputValue;
+                case OUTPUT_DEF: return "def/" + outputValue;
+                case OUTPUT_FAN: return "fan/" + outputValue;
+                default: return "";
+            }
+        }
+
+        /**
+         * 응답용 Map 변환
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("uuid", uuid);
+            map.put("sensorType", sensorType);
+            map.put("version", version);
+            if (hasAin()) {
+                map.put("ainVal", getAinText());
+                map.put("ainError", ainError);
+                map.put("ainTime", ainTime);
+            }
+            if (hasDin()) {
+                map.put("dinVal", dinValue);
+                map.put("dinTime", dinTime);
+            }
+            if (hasOutput()) {
+                map.put("outputType", outputType);
+                map.put("outputVal", getOutputText());
+                map.put("outputTime", outputTime);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 온도(ain) 값 갱신
+     * @param uuid 센서 UUID
+     * @param userId 사용자 ID
+     * @param sensorType 장치 모델 (TC 등)
+     * @param value 온도 값 (error가 true이면 무시)
+     * @param error "Error" 수신 여부
+     * @param receivedAt 수신 시각 (ms)
+     * @return 갱신된 스냅샷
+     */
+    public Snapshot updateAin(String uuid, String userId, String sensorType, double value, boolean error, long receivedAt) {
+        AtomicReference<Snapshot> ref = refFor(uuid);
+        while (true) {
+            Snapshot cur = ref.get();
+            Snapshot next = new Snapshot(uuid, nvl(userId, cur.userId), nvl(sensorType, cur.sensorType),
+                    versionSeq.incrementAndGet(), CHANNEL_AIN,
+                    error ? cur.ainValue : value, error, receivedAt,
+                    cur.dinValue, cur.dinTime,
+                    cur.outputType, cur.outputValue, cur.outputTime);
+            if (ref.compareAndSet(cur, next)) {
+                published(next);
+                return next;
+            }
+            casRetryCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 상태(din) 값 갱신
+     */
+    public Snapshot updateDin(String uuid, String userId, String sensorType, int value, long receivedAt) {
+        AtomicReference<Snapshot> ref = refFor(uuid);
+        while (true) {
+            Snapshot cur = ref.get();
+            Snapshot next = new Snapshot(uuid, nvl(userId, cur.userId), nvl(sensorType, cur.sensorType),
+                    versionSeq.incrementAndGet(), CHANNEL_DIN,
+                    cur.ainValue, cur.ainError, cur.ainTime,
+                    value, receivedAt,
+                    cur.outputType, cur.outputValue, cur.outputTime);
+            if (ref.compareAndSet(cur, next)) {
+                published(next);
+                return next;
+            }
+            casRetryCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 출력(output) 값 갱신
+     * @param outputType 1: COMP, 2: DEF, 3: FAN
+     */
+    public Snapshot updateOutput(String uuid, String userId, String sensorType, int outputType, int value, long receivedAt) {
+        AtomicReference<Snapshot> ref = refFor(uuid);
+        while (true) {
+            Snapshot cur = ref.get();
+            Snapshot next = new Snapshot(uuid, nvl(userId, cur.userId), nvl(sensorType, cur.sensorType),
+                    versionSeq.incrementAndGet(), CHANNEL_OUTPUT,
+                    cur.ainValue, cur.ainError, cur.ainTime,
+                    cur.dinValue, cur.dinTime,
+                    outputType, value, receivedAt);
+            if (ref.compareAndSet(cur, next)) {
+                published(next);
+                return next;
+            }
+            casRetryCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * MQTT JSON 필드(name/type/value) 기준 갱신
+     * @param name 채널명 (ain, din, output)
+     * @param type output 타입 문자열 (1/2/3)
+     * @param value 값 문자열
+     * @return 갱신된 스냅샷 (알 수 없는 채널이거나 값이 없거나 숫자가 아니면 null)
+     */
+    public Snapshot update(String uuid, String userId, String sensorType, String name, String type, String value, long receivedAt) {
+        if (uuid == null || uuid.isEmpty() || name == null) {
+            rejectedCount.incrementAndGet();
+            return null;
+        }
+        try {
+            if ("ain".equals(name)) {
+                if ("Error".equals(value)) {
+                    return updateAin(uuid, userId, sensorType, 0d, true, receivedAt);
+                }
+                if (value == null || value.isEmpty() || "null".equals(value)) {
+                    // 값 없음은 측정값으로 저장하지 않음 (0.0으로 덮어쓰지 않고 이전 값 유지)
+                    rejectedCount.incrementAndGet();
+                    return null;
+                }
+                return updateAin(uuid, userId, sensorType, Double.parseDouble(value), false, receivedAt);
+            } else if ("din".equals(name)) {
+                return updateDin(uuid, userId, sensorType, Integer.parseInt(value.trim()), receivedAt);
+            } else if ("output".equals(name)) {
+                return updateOutput(uuid, userId, sensorType, Integer.parseInt(type.trim()), Integer.parseInt(value.trim()), receivedAt);
+            }
+        } catch (NumberFormatException | NullPointerException e) {
+            logger.debug("최신값 갱신 무시 - uuid: {}, name: {}, type: {}, value: {}", uuid, name, type, value);
+        }
+        rejectedCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 디코딩된 측정값 기준 갱신
+     * @param reading MqttPayloadDecoder 결과
+     * @param receivedAt 수신 시각 (ms)
+     * @return 갱신된 스냅샷 (갱신 대상이 아니면 null)
+     */
+    public Snapshot update(MqttPayloadDecoder.SensorReading reading, long receivedAt) {
+        if (reading == null || !reading.hasSensorTopic()) {
+            rejectedCount.incrementAndGet();
+            return null;
+        }
+        switch (reading.getChannel()) {
+            case CHANNEL_AIN:
+                if (reading.isNumeric() || reading.isError()) {
+                    return updateAin(reading.getUuid(), reading.getUserId(), reading.getModel(),
+                            reading.isNumeric() ? reading.getValue() : 0d, reading.isError(), receivedAt);
+                }
+                break;
+            case CHANNEL_DIN:
+                if (reading.isNumeric()) {
+                    return updateDin(reading.getUuid(), reading.getUserId(), reading.getModel(),
+                            (int) reading.getValue(), receivedAt);
+                }
+                break;
+            case CHANNEL_OUTPUT:
+                if (reading.isNumeric() && reading.getType() != null) {
+                    try {
+                        return updateOutput(reading.getUuid(), reading.getUserId(), reading.getModel(),
+                                Integer.parseInt(reading.getType().trim()), (int) reading.getValue(), receivedAt);
+                    } catch (NumberFormatException e) {
+                        logger.debug("output 타입 형식 오류 - uuid: {}, type: {}", reading.getUuid(), reading.getType());
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        rejectedCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 센서 최신 스냅샷 조회
+     * @param uuid 센서 UUID
+     * @return 스냅샷 (수신 이력이 없으면 null)
+     */
+    public Snapshot get(String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        AtomicReference<Snapshot> ref = store.get(uuid);
+        if (ref == null) {
+            return null;
+        }
+        Snapshot snapshot = ref.get();
+        return snapshot.version > 0 ? snapshot : null;
+    }
+
+    /**
+     * 마지막으로 갱신된 스냅샷 (전체 센서 기준)
+     */
+    public Snapshot getLastUpdated() {
+        return lastUpdated.get();
+    }
+
+    /**
+     * 현재 전역 버전
+     */
+    public long currentVersion() {
+        return versionSeq.get();
+    }
+
+    /**
+     * 여러 센서의 스냅샷 일괄 조회
+     * 반환되는 version은 수집 시작 전에 읽은 값이므로, 다음 요청에서 sinceVersion으로 전달하면
+     * 수집 도중의 갱신이 누락되지 않음 (중복 전달은 가능)
+     * @param uuids 조회할 센서 UUID 목록
+     * @param sinceVersion 이 버전 이후 변경된 센서만 반환 (0 이하이면 전체)
+     * @return version, full, sensors
+     */
+    public Map<String, Object> snapshot(Collection<String> uuids, long sinceVersion) {
+        long version = versionSeq.get();
+        List<Map<String, Object>> sensors = new ArrayList<>();
+
+        if (uuids != null) {
+            for (String uuid : uuids) {
+                Snapshot snapshot = get(uuid);
+                if (snapshot != null && snapshot.version > sinceVersion) {
+                    sensors.add(snapshot.toMap());
+                }
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("version", version);
+        result.put("full", sinceVersion <= 0);
+        result.put("sensors", sensors);
+        return result;
+    }
+
+    /**
+     * 센서 제거 (장치 삭제 시)
+     */
+    public void remove(String uuid) {
+        if (uuid != null) {
+            store.remove(uuid);
+        }
+    }
+
+    /**
+     * 통계 정보 반환
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sensorCount", store.size());
+        stats.put("version", versionSeq.get());
+        stats.put("updateCount", updateCount.get());
+        stats.put("casRetryCount", casRetryCount.get());
+        stats.put("rejectedCount", rejectedCount.get());
+        return stats;
+    }
+
+    private AtomicReference<Snapshot> refFor(String uuid) {
+        AtomicReference<Snapshot> ref = store.get(uuid);
+        if (ref == null) {
+            ref = store.computeIfAbsent(uuid, k -> new AtomicReference<>(Snapshot.empty(k)));
+        }
+        return ref;
+    }
+
+    private void published(Snapshot next) {
+        updateCount.incrementAndGet();
+        // 더 최신 버전을 덮어쓰지 않도록 CAS
+        while (true) {
+            Snapshot prev = lastUpdated.get();
+            if (prev != null && prev.version > next.version) {
+                return;
+            }
+            if (lastUpdated.compareAndSet(prev, next)) {
+                return;
+            }
+        }
+    }
+
+    private static String nvl(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,467 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.model.SensorVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 센서 데이터 오버플로 저널
+ * 메모리 큐가 가득 찼을 때 초과 메시지를 메모리 매핑 세그먼트 파일에 순서대로 기록하고
+ * 큐가 비워지면 기록 순서대로 다시 꺼내줌
+ *
+ * 세그먼트 구조: [magic(4) | version(4) | readOffset(8)] + 레코드...
+ * 레코드 구조: [length(4) | crc32(4) | SensorRecordCodec 본문]
+ */
+public final class SensorOverflowJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorOverflowJournal.class);
+
+    private static final int MAGIC = 0x484E544A; // "HNTJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int READ_OFFSET_POS = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * 저널에서 꺼낸 레코드
+     */
+    public static final class Entry {
+        private final long timestamp;
+        private final SensorVO sensor;
+
+        private Entry(long timestamp, SensorVO sensor) {
+            this.timestamp = timestamp;
+            this.sensor = sensor;
+        }
+
+        public long getTimestamp() { return timestamp; }
+        public SensorVO getSensor() { return sensor; }
+    }
+
+    /**
+     * 세그먼트 파일
+     */
+    private static final class Segment {
+        private final Path path;
+        private MappedByteBuffer buffer;
+        private final int capacity;
+        private int writePos;
+        private int readPos;
+        private boolean sealed; // 복구된 세그먼트는 추가 기록하지 않음
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        private boolean hasPending() {
+            return readPos < writePos;
+        }
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentSize;
+    private final long maxBytes;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long nextSeq = 0;
+
+    private volatile long pendingRecords = 0;
+    private long pendingBytes = 0;
+
+    // 통계 정보
+    private final AtomicLong appendedRecords = new AtomicLong(0);
+    private final AtomicLong appendedBytes = new AtomicLong(0);
+    private final AtomicLong replayedRecords = new AtomicLong(0);
+    private final AtomicLong rejectedRecords = new AtomicLong(0);
+    private final AtomicLong corruptRecords = new AtomicLong(0);
+    private final AtomicLong recoveredRecords = new AtomicLong(0);
+
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+
+    /**
+     * 저널 열기 (기존 세그먼트가 있으면 복구)
+     * @param directory 저널 디렉토리
+     * @param prefix 세그먼트 파일 접두어 (예: shard-0)
+     * @param segmentSize 세그먼트 크기 (바이트)
+     * @param maxBytes 미재생 데이터 최대 크기 (바이트)
+     */
+    public SensorOverflowJournal(Path directory, String prefix, int segmentSize, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentSize = Math.max(HEADER_SIZE + 1024, segmentSize);
+        this.maxBytes = Math.max(this.segmentSize, maxBytes);
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * 미재생 레코드 존재 여부
+     */
+    public boolean hasPending() {
+        return pendingRecords > 0;
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * 레코드 추가
+     * @param sensor 센서 데이터
+     * @param timestamp 수신 시각
+     * @return 기록 성공 여부 (용량 초과 시 false)
+     */
+    public synchronized boolean append(SensorVO sensor, long timestamp) {
+        ByteBuffer body = SensorRecordCodec.encode(sensor, timestamp, scratch);
+        scratch = body;
+        int bodyLength = body.remaining();
+        int recordSize = RECORD_HEADER_SIZE + bodyLength;
+
+        if (recordSize > segmentSize - HEADER_SIZE || pendingBytes + recordSize > maxBytes) {
+            rejectedRecords.incrementAndGet();
+            return false;
+        }
+
+        try {
+            Segment tail = segments.peekLast();
+            if (tail == null || tail.sealed || tail.writePos + recordSize > tail.capacity) {
+                tail = createSegment();
+            }
+
+            crc.reset();
+            crc.update(body.array(), 0, bodyLength);
+
+            MappedByteBuffer buffer = tail.buffer;
+            int pos = tail.writePos;
+            buffer.position(pos + RECORD_HEADER_SIZE);
+            buffer.put(body.array(), 0, bodyLength);
+            buffer.putInt(pos + 4, (int) crc.getValue());
+            buffer.putInt(pos, bodyLength); // 길이는 마지막에 기록 (0이면 레코드 끝)
+            tail.writePos = pos + recordSize;
+
+            pendingRecords++;
+            pendingBytes += recordSize;
+            appendedRecords.incrementAndGet();
+            appendedBytes.addAndGet(recordSize);
+            return true;
+
+        } catch (IOException e) {
+            logger.error("오버플로 저널 세그먼트 생성 실패 - dir: {}, prefix: {}", directory, prefix, e);
+            rejectedRecords.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * 가장 오래된 레코드 꺼내기 (기록 순서)
+     * @return 레코드 (없으면 null)
+     */
+    public synchronized Entry poll() {
+        while (pendingRecords > 0) {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                break;
+            }
+            if (!head.hasPending()) {
+                if (!releaseHead()) {
+                    break;
+                }
+                continue;
+            }
+
+            MappedByteBuffer buffer = head.buffer;
+            int pos = head.readPos;
+            int bodyLength = buffer.getInt(pos);
+            int storedCrc = buffer.getInt(pos + 4);
+            int recordSize = RECORD_HEADER_SIZE + bodyLength;
+
+            byte[] body = new byte[bodyLength];
+            buffer.position(pos + RECORD_HEADER_SIZE);
+            buffer.get(body);
+
+            head.readPos = pos + recordSize;
+            buffer.putLong(READ_OFFSET_POS, head.readPos);
+            pendingRecords--;
+            pendingBytes -= recordSize;
+
+            crc.reset();
+            crc.update(body, 0, bodyLength);
+            if ((int) crc.getValue() != storedCrc) {
+                corruptRecords.incrementAndGet();
+                logger.warn("오버플로 저널 레코드 CRC 불일치 - segment: {}, offset: {}", head.path.getFileName(), pos);
+                continue;
+            }
+
+            if (!head.hasPending()) {
+                releaseHead();
+            }
+
+            replayedRecords.incrementAndGet();
+            ByteBuffer record = ByteBuffer.wrap(body);
+            return new Entry(SensorRecordCodec.timestampOf(record), SensorRecordCodec.decode(record));
+        }
+        return null;
+    }
+
+    /**
+     * 가장 오래된 미재생 레코드의 수신 시각
+     * @return 수신 시각 (없으면 0)
+     */
+    public synchronized long getOldestPendingTimestamp() {
+        for (Segment segment : segments) {
+            if (segment.hasPending()) {
+                return segment.buffer.getLong(segment.readPos + RECORD_HEADER_SIZE);
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * 통계 정보 반환
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("segments", segments.size());
+        stats.put("pendingRecords", pendingRecords);
+        stats.put("pendingBytes", pendingBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("appendedRecords", appendedRecords.get());
+        stats.put("appendedBytes", appendedBytes.get());
+        stats.put("replayedRecords", replayedRecords.get());
+        stats.put("rejectedRecords", rejectedRecords.get());
+        stats.put("corruptRecords", corruptRecords.get());
+        stats.put("recoveredRecords", recoveredRecords.get());
+        stats.put("oldestPendingTimestamp", getOldestPendingTimestamp());
+        return stats;
+    }
+
+    public long getAppendedBytes() {
+        return appendedBytes.get();
+    }
+
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * 세그먼트를 디스크에 반영하고 매핑 해제 (미재생 레코드는 다음 기동 시 복구)
+     */
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            try {
+                segment.buffer.force();
+            } catch (Exception e) {
+                logger.warn("오버플로 저널 flush 실패 - segment: {}", segment.path.getFileName(), e);
+            }
+            segment.buffer = null;
+        }
+        segments.clear();
+        logger.info("오버플로 저널 닫힘 - prefix: {}, 미재생 레코드: {}", prefix, pendingRecords);
+    }
+
+    /**
+     * 미재생 레코드 전체 폐기 (세그먼트 파일 삭제)
+     */
+    public synchronized void clear() {
+        for (Segment segment : segments) {
+            segment.buffer = null;
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                logger.warn("오버플로 저널 세그먼트 삭제 실패 - {}", segment.path, e);
+            }
+        }
+        segments.clear();
+        pendingRecords = 0;
+        pendingBytes = 0;
+    }
+
+    /**
+     * 다 읽은 가장 오래된 세그먼트 삭제 (쓰기 중인 마지막 세그먼트는 유지)
+     */
+    private boolean releaseHead() {
+        Segment head = segments.peekFirst();
+        if (head == null || head.hasPending() || (segments.size() == 1 && !head.sealed)) {
+            return false;
+        }
+        segments.pollFirst();
+        head.buffer = null;
+        try {
+            Files.deleteIfExists(head.path);
+        } catch (IOException e) {
+            logger.warn("오버플로 저널 세그먼트 삭제 실패 - {}", head.path, e);
+        }
+        return true;
+    }
+
+    private Segment createSegment() throws IOException {
+        long seq = nextSeq++;
+        Path path = directory.resolve(String.format("%s-%012d%s", prefix, seq, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(READ_OFFSET_POS, HEADER_SIZE);
+
+        Segment segment = new Segment(path, buffer);
+        segment.writePos = HEADER_SIZE;
+        segment.readPos = HEADER_SIZE;
+
+        // 새 세그먼트로 넘어가면 이전 세그먼트는 추가 기록 없음
+        Segment previous = segments.peekLast();
+        if (previous != null) {
+            previous.sealed = true;
+        }
+        segments.addLast(segment);
+        releaseHead();
+        return segment;
+    }
+
+    /**
+     * 기존 세그먼트 복구 (CRC가 맞는 레코드까지만 유효)
+     */
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                files.add(path);
+            }
+        }
+        Collections.sort(files);
+
+        for (Path path : files) {
+            long seq = parseSeq(path);
+            if (seq < 0) {
+                continue;
+            }
+            nextSeq = Math.max(nextSeq, seq + 1);
+
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    logger.warn("오버플로 저널 세그먼트 크기 오류 - 무시: {}", path);
+                    continue;
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                logger.warn("오버플로 저널 세그먼트 헤더 오류 - 무시: {}", path);
+                continue;
+            }
+
+            Segment segment = new Segment(path, buffer);
+            segment.sealed = true;
+            long readOffset = buffer.getLong(READ_OFFSET_POS);
+
+            int pos = HEADER_SIZE;
+            long records = 0;
+            byte[] body = new byte[256];
+            while (pos + RECORD_HEADER_SIZE <= segment.capacity) {
+                int bodyLength = buffer.getInt(pos);
+                if (bodyLength <= 0 || pos + RECORD_HEADER_SIZE + bodyLength > segment.capacity) {
+                    break;
+                }
+                if (body.length < bodyLength) {
+                    body = new byte[bodyLength];
+                }
+                buffer.position(pos + RECORD_HEADER_SIZE);
+                buffer.get(body, 0, bodyLength);
+                crc.reset();
+                crc.update(body, 0, bodyLength);
+                if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                    corruptRecords.incrementAndGet();
+                    logger.warn("오버플로 저널 손상 레코드 이후 폐기 - segment: {}, offset: {}", path.getFileName(), pos);
+                    break;
+                }
+                if (pos >= readOffset) {
+                    records++;
+                }
+                pos += RECORD_HEADER_SIZE + bodyLength;
+            }
+
+            segment.writePos = pos;
+            // readOffset은 항상 레코드 경계에 기록됨
+            segment.readPos = (int) Math.max(HEADER_SIZE, Math.min(readOffset, pos));
+
+            if (!segment.hasPending()) {
+                segment.buffer = null;
+                Files.deleteIfExists(path);
+                continue;
+            }
+
+            segments.addLast(segment);
+            pendingRecords += records;
+            pendingBytes += segment.writePos - segment.readPos;
+            recoveredRecords.addAndGet(records);
+        }
+
+        if (pendingRecords > 0) {
+            logger.info("오버플로 저널 복구 - prefix: {}, 세그먼트: {}, 미재생 레코드: {}", prefix, segments.size(), pendingRecords);
+        }
+    }
+
+    private long parseSeq(Path path) {
+        String name = path.getFileName().toString();
+        int start = prefix.length() + 1;
+        int end = name.length() - SEGMENT_SUFFIX.length();
+        if (end <= start) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 디렉토리에 있는 저널 접두어 목록 (샤드 수 변경 시 남은 저널 확인용)
+     */
+    public static List<String> listPrefixes(Path directory) throws IOException {
+        List<String> prefixes = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return prefixes;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                int dash = name.lastIndexOf('-');
+                if (dash > 0) {
+                    String prefix = name.substring(0, dash);
+                    if (!prefixes.contains(prefix)) {
+                        prefixes.add(prefix);
+                    }
+                }
+            }
+        }
+        return prefixes;
+    }
+}
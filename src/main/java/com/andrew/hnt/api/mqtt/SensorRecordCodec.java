@@ -0,0 +1,149 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.model.SensorVO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 센서 데이터 바이너리 레코드 코덱 (오버플로 저널/WAL 공용)
+ * 본문 구조: [timestamp(8) | fieldMask(2) | (varint 길이 + UTF-8) * 필드 수]
+ */
+final class SensorRecordCodec {
+
+    // 직렬화 대상 SensorVO 필드 수 (fieldMask 비트 순서와 동일)
+    private static final int FIELD_COUNT = 15;
+
+    private SensorRecordCodec() {
+    }
+
+    /**
+     * 레코드 본문 인코딩
+     * @param sensor 센서 데이터
+     * @param timestamp 수신 시각
+     * @param scratch 재사용 버퍼 (부족하면 새로 할당)
+     * @return 읽기 모드로 전환된 버퍼 (position 0, array 기반)
+     */
+    static ByteBuffer encode(SensorVO sensor, long timestamp, ByteBuffer scratch) {
+        ByteBuffer buffer = scratch;
+        buffer.clear();
+        buffer = ensure(buffer, 10);
+        buffer.putLong(timestamp);
+        int maskPos = buffer.position();
+        buffer.putShort((short) 0);
+
+        int mask = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            String value = fieldOf(sensor, i);
+            if (value == null) {
+                continue;
+            }
+            mask |= 1 << i;
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer = ensure(buffer, bytes.length + 5);
+            putVarInt(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+        buffer.putShort(maskPos, (short) mask);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 본문의 수신 시각 (position 변경 없음)
+     */
+    static long timestampOf(ByteBuffer body) {
+        return body.getLong(body.position());
+    }
+
+    /**
+     * 레코드 본문 디코딩 (array 기반 버퍼)
+     */
+    static SensorVO decode(ByteBuffer body) {
+        body.getLong(); // timestamp
+        int mask = body.getShort() & 0xFFFF;
+        SensorVO sensor = new SensorVO();
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if ((mask & (1 << i)) == 0) {
+                continue;
+            }
+            int length = getVarInt(body);
+            String value = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+            body.position(body.position() + length);
+            setField(sensor, i, value);
+        }
+        return sensor;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String fieldOf(SensorVO sensor, int index) {
+        switch (index) {
+            case 0: return sensor.getUserId();
+            case 1: return sensor.getSensorId();
+            case 2: return sensor.getUuid();
+            case 3: return sensor.getSensorType();
+            case 4: return sensor.getSensorValue();
+            case 5: return sensor.getTopic();
+            case 6: return sensor.getName();
+            case 7: return sensor.getType();
+            case 8: return sensor.getDinVal();
+            case 9: return sensor.getOutputVal();
+            case 10: return sensor.getRawData();
+            case 11: return sensor.getInstId();
+            case 12: return sensor.getMdfId();
+            case 13: return sensor.getInstDtm();
+            case 14: return sensor.getDataJson();
+            default: return null;
+        }
+    }
+
+    private static void setField(SensorVO sensor, int index, String value) {
+        switch (index) {
+            case 0: sensor.setUserId(value); break;
+            case 1: sensor.setSensorId(value); break;
+            case 2: sensor.setUuid(value); break;
+            case 3: sensor.setSensorType(value); break;
+            case 4: sensor.setSensorValue(value); break;
+            case 5: sensor.setTopic(value); break;
+            case 6: sensor.setName(value); break;
+            case 7: sensor.setType(value); break;
+            case 8: sensor.setDinVal(value); break;
+            case 9: sensor.setOutputVal(value); break;
+            case 10: sensor.setRawData(value); break;
+            case 11: sensor.setInstId(value); break;
+            case 12: sensor.setMdfId(value); break;
+            case 13: sensor.setInstDtm(value); break;
+            case 14: sensor.setDataJson(value); break;
+            default: break;
+        }
+    }
+}
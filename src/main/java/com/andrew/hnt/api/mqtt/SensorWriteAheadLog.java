@@ -0,0 +1,579 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.model.SensorVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 센서 데이터 선기록 로그 (WAL)
+ * 수신한 센서 데이터를 큐에 넣기 전에 로컬 로그에 기록하고, 배치 저장이 끝나면 체크포인트를 전진시킴
+ * 기동 시 체크포인트 이후 레코드를 DB에 재저장하여 재시작/배포 중 유실을 방지
+ *
+ * 세그먼트 파일: {prefix}-{첫 LSN}.wal
+ * 레코드 구조: [length(4) | crc32(4) | lsn(8) | SensorRecordCodec 본문] (crc는 lsn + 본문 기준)
+ * 체크포인트 파일: {prefix}.ckpt = [lsn(8) | ~lsn(8)]
+ */
+public final class SensorWriteAheadLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorWriteAheadLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_SUFFIX = ".ckpt";
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int MAX_BODY_SIZE = 1024 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 재생 대상 배치 처리기
+     */
+    public interface ReplaySink {
+        /**
+         * @param batch 재생 배치 (기록 순서)
+         * @param lastLsn 배치 마지막 레코드의 LSN
+         * @return 저장 성공 여부 (false면 재생 중단)
+         */
+        boolean accept(List<SensorVO> batch, long lastLsn);
+    }
+
+    /**
+     * 세그먼트 정보
+     */
+    private static final class Segment {
+        private final Path path;
+        private final long firstLsn;
+
+        private Segment(Path path, long firstLsn) {
+            this.path = path;
+            this.firstLsn = firstLsn;
+        }
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final long segmentBytes;
+    private final boolean syncEveryAppend;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private FileChannel channel;
+    private long channelBytes;
+    private boolean dirty;
+
+    // 그룹 커밋 버퍼 (sync 또는 버퍼가 찰 때 파일에 기록)
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+    private final CRC32 crc = new CRC32();
+
+    // 마지막 레코드 취소용 (큐 적재 실패 시)
+    private int lastRecordBufferPos = -1;
+    private int lastRecordSize;
+
+    private long lastLsn;
+    private final long recoveryEndLsn;
+    private volatile long checkpointLsn;
+    private long persistedCheckpointLsn;
+    private FileChannel checkpointChannel;
+
+    // 통계 정보
+    private final AtomicLong appendedRecords = new AtomicLong(0);
+    private final AtomicLong appendedBytes = new AtomicLong(0);
+    private final AtomicLong cancelledRecords = new AtomicLong(0);
+    private final AtomicLong syncCount = new AtomicLong(0);
+    private final AtomicLong syncNanos = new AtomicLong(0);
+    private final AtomicLong replayedRecords = new AtomicLong(0);
+    private final AtomicLong truncatedTailBytes = new AtomicLong(0);
+
+    /**
+     * WAL 열기 (기존 세그먼트 검증 및 손상된 꼬리 잘라내기)
+     * @param directory WAL 디렉토리
+     * @param prefix 파일 접두어 (예: shard-0)
+     * @param segmentBytes 세그먼트 최대 크기
+     * @param syncEveryAppend 기록마다 fsync 여부
+     */
+    public SensorWriteAheadLog(Path directory, String prefix, long segmentBytes, boolean syncEveryAppend) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentBytes = Math.max(WRITE_BUFFER_SIZE, segmentBytes);
+        this.syncEveryAppend = syncEveryAppend;
+        Files.createDirectories(directory);
+
+        long checkpoint = readCheckpoint();
+        long last = recover();
+
+        this.checkpointLsn = checkpoint;
+        this.persistedCheckpointLsn = checkpoint;
+        this.lastLsn = Math.max(last, checkpoint);
+        this.recoveryEndLsn = this.lastLsn;
+
+        if (recoveryEndLsn > checkpoint) {
+            logger.info("WAL 복구 대상 - prefix: {}, 체크포인트: {}, 마지막 LSN: {}", prefix, checkpoint, recoveryEndLsn);
+        }
+    }
+
+    /**
+     * 레코드 기록
+     * @param sensor 센서 데이터
+     * @param timestamp 수신 시각
+     * @return 부여된 LSN
+     */
+    public synchronized long append(SensorVO sensor, long timestamp) throws IOException {
+        ByteBuffer body = SensorRecordCodec.encode(sensor, timestamp, scratch);
+        scratch = body;
+        int bodyLength = body.remaining();
+        int recordSize = RECORD_HEADER_SIZE + bodyLength;
+        long lsn = lastLsn + 1;
+
+        if (channel == null || (channelBytes > 0 && channelBytes + writeBuffer.position() + recordSize > segmentBytes)) {
+            rollSegment(lsn);
+        }
+        if (writeBuffer.remaining() < recordSize) {
+            flushBuffer();
+        }
+
+        if (recordSize <= writeBuffer.capacity()) {
+            int start = writeBuffer.position();
+            writeBuffer.putInt(bodyLength);
+            writeBuffer.putInt(0);
+            writeBuffer.putLong(lsn);
+            writeBuffer.put(body.array(), 0, bodyLength);
+            crc.reset();
+            crc.update(writeBuffer.array(), start + 8, 8 + bodyLength);
+            writeBuffer.putInt(start + 4, (int) crc.getValue());
+            lastRecordBufferPos = start;
+        } else {
+            // 버퍼보다 큰 레코드는 직접 기록
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            record.putInt(bodyLength).putInt(0).putLong(lsn).put(body.array(), 0, bodyLength);
+            crc.reset();
+            crc.update(record.array(), 8, 8 + bodyLength);
+            record.putInt(4, (int) crc.getValue());
+            record.flip();
+            writeFully(record);
+            lastRecordBufferPos = -1;
+        }
+
+        lastRecordSize = recordSize;
+        lastLsn = lsn;
+        appendedRecords.incrementAndGet();
+        appendedBytes.addAndGet(recordSize);
+
+        if (syncEveryAppend) {
+            sync();
+        }
+        return lsn;
+    }
+
+    /**
+     * 직전 레코드 취소 (기록 직후 큐 적재에 실패한 경우)
+     * @param lsn append가 반환한 LSN
+     */
+    public synchronized void cancel(long lsn) throws IOException {
+        if (lsn != lastLsn || lastRecordSize == 0) {
+            return;
+        }
+        if (lastRecordBufferPos >= 0) {
+            writeBuffer.position(lastRecordBufferPos);
+        } else {
+            channelBytes -= lastRecordSize;
+            channel.truncate(channelBytes);
+            dirty = true;
+        }
+        lastRecordBufferPos = -1;
+        lastRecordSize = 0;
+        lastLsn--;
+        cancelledRecords.incrementAndGet();
+    }
+
+    /**
+     * 배치 저장 완료 후 체크포인트 전진 (파일 반영은 sync 시점)
+     */
+    public void checkpoint(long lsn) {
+        if (lsn > checkpointLsn) {
+            checkpointLsn = lsn;
+        }
+    }
+
+    /**
+     * 그룹 커밋: 버퍼 기록 + fsync + 체크포인트 저장 + 재생이 끝난 세그먼트 삭제
+     */
+    public synchronized void sync() throws IOException {
+        if (checkpointChannel == null) {
+            return; // 이미 닫힘
+        }
+        long start = System.nanoTime();
+        flushBuffer();
+        if (dirty && channel != null) {
+            channel.force(false);
+            dirty = false;
+            syncCount.incrementAndGet();
+            syncNanos.addAndGet(System.nanoTime() - start);
+        }
+        lastRecordBufferPos = -1;
+
+        long checkpoint = checkpointLsn;
+        if (checkpoint != persistedCheckpointLsn) {
+            writeCheckpoint(checkpoint);
+            persistedCheckpointLsn = checkpoint;
+        }
+        deleteCoveredSegments(persistedCheckpointLsn);
+    }
+
+    /**
+     * LSN 하한 보정 (DB에 기록된 중복 제거 기준이 로컬보다 앞선 경우, 기록 전에 호출)
+     */
+    public synchronized void ensureLsnAtLeast(long lsn) {
+        if (lsn > lastLsn) {
+            lastLsn = lsn;
+        }
+        checkpoint(lsn);
+    }
+
+    /**
+     * 기동 시 복구: 체크포인트(또는 DB 중복 제거 기준) 이후의 레코드를 배치 단위로 재생
+     * @param afterLsn 이 LSN 이하 레코드는 건너뜀
+     * @param batchSize 배치 크기
+     * @param sink 배치 저장 처리기
+     * @return 모든 대상 레코드 재생 성공 여부
+     */
+    public boolean replay(long afterLsn, int batchSize, ReplaySink sink) throws IOException {
+        List<Segment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+        }
+        long from = Math.max(afterLsn, checkpointLsn);
+        if (from >= recoveryEndLsn) {
+            checkpoint(recoveryEndLsn);
+            return true;
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        List<SensorVO> batch = new ArrayList<>(batchSize);
+        long batchLastLsn = from;
+        byte[] record = new byte[512];
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            Segment segment = snapshot.get(i);
+            if (segment.firstLsn > recoveryEndLsn) {
+                break;
+            }
+            if (i + 1 < snapshot.size() && snapshot.get(i + 1).firstLsn <= from + 1) {
+                continue; // 전체가 재생 기준 이전인 세그먼트
+            }
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.path), WRITE_BUFFER_SIZE))) {
+                while (true) {
+                    int bodyLength;
+                    try {
+                        bodyLength = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    in.readInt(); // crc (recover에서 검증 완료)
+                    long lsn = in.readLong();
+                    if (record.length < bodyLength) {
+                        record = new byte[bodyLength];
+                    }
+                    in.readFully(record, 0, bodyLength);
+
+                    if (lsn > recoveryEndLsn) {
+                        break;
+                    }
+                    if (lsn <= from) {
+                        continue;
+                    }
+
+                    ByteBuffer body = ByteBuffer.wrap(record, 0, bodyLength);
+                    long timestamp = SensorRecordCodec.timestampOf(body);
+                    SensorVO sensor = SensorRecordCodec.decode(body);
+                    if (sensor.getInstDtm() == null) {
+                        sensor.setInstDtm(format.format(new Date(timestamp))); // 원래 수신 시각으로 저장
+                    }
+                    batch.add(sensor);
+                    batchLastLsn = lsn;
+
+                    if (batch.size() >= batchSize) {
+                        if (!sink.accept(batch, batchLastLsn)) {
+                            return false;
+                        }
+                        replayedRecords.addAndGet(batch.size());
+                        checkpoint(batchLastLsn);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            if (!sink.accept(batch, batchLastLsn)) {
+                return false;
+            }
+            replayedRecords.addAndGet(batch.size());
+        }
+        checkpoint(recoveryEndLsn);
+        return true;
+    }
+
+    public long getLastLsn() {
+        synchronized (this) {
+            return lastLsn;
+        }
+    }
+
+    public long getRecoveryEndLsn() {
+        return recoveryEndLsn;
+    }
+
+    public long getCheckpointLsn() {
+        return checkpointLsn;
+    }
+
+    /**
+     * 통계 정보 반환
+     */
+    public synchronized Map<String, Object> getStats() {
+        long syncs = syncCount.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("segments", segments.size());
+        stats.put("lastLsn", lastLsn);
+        stats.put("checkpointLsn", checkpointLsn);
+        stats.put("uncheckpointedRecords", lastLsn - checkpointLsn);
+        stats.put("recoveryEndLsn", recoveryEndLsn);
+        stats.put("appendedRecords", appendedRecords.get());
+        stats.put("appendedBytes", appendedBytes.get());
+        stats.put("cancelledRecords", cancelledRecords.get());
+        stats.put("replayedRecords", replayedRecords.get());
+        stats.put("truncatedTailBytes", truncatedTailBytes.get());
+        stats.put("syncCount", syncs);
+        stats.put("avgSyncMs", syncs > 0 ? syncNanos.get() / 1_000_000.0 / syncs : 0.0);
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.error("WAL 종료 전 sync 실패 - prefix: {}", prefix, e);
+        }
+        closeQuietly(channel);
+        closeQuietly(checkpointChannel);
+        channel = null;
+        checkpointChannel = null;
+        logger.info("WAL 닫힘 - prefix: {}, 마지막 LSN: {}, 체크포인트: {}", prefix, lastLsn, checkpointLsn);
+    }
+
+    /**
+     * 디렉토리에 있는 WAL 접두어 목록 (샤드 수 변경 시 남은 WAL 확인용)
+     */
+    public static List<String> listPrefixes(Path directory) throws IOException {
+        List<String> prefixes = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return prefixes;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                int dash = name.lastIndexOf('-');
+                if (dash > 0) {
+                    String prefix = name.substring(0, dash);
+                    if (!prefixes.contains(prefix)) {
+                        prefixes.add(prefix);
+                    }
+                }
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * 접두어에 해당하는 WAL 파일 삭제 (닫힌 상태에서 호출)
+     */
+    public static void deleteFiles(Path directory, String prefix) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(directory.resolve(prefix + CHECKPOINT_SUFFIX));
+    }
+
+    // ===== 내부 처리 =====
+
+    private void rollSegment(long firstLsn) throws IOException {
+        if (channel != null) {
+            flushBuffer();
+            channel.force(false);
+            dirty = false;
+            channel.close();
+        }
+        Path path = directory.resolve(String.format("%s-%020d%s", prefix, firstLsn, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        channelBytes = 0;
+        lastRecordBufferPos = -1;
+        segments.add(new Segment(path, firstLsn));
+    }
+
+    private void flushBuffer() throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+        lastRecordBufferPos = -1;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channelBytes += length;
+        dirty = true;
+    }
+
+    private void deleteCoveredSegments(long checkpoint) {
+        // 다음 세그먼트의 첫 LSN - 1 <= 체크포인트면 해당 세그먼트는 전부 반영됨 (쓰기 중인 마지막 세그먼트 제외)
+        while (segments.size() > 1 && segments.get(1).firstLsn - 1 <= checkpoint) {
+            Segment covered = segments.remove(0);
+            try {
+                Files.deleteIfExists(covered.path);
+            } catch (IOException e) {
+                logger.warn("WAL 세그먼트 삭제 실패 - {}", covered.path, e);
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(prefix + CHECKPOINT_SUFFIX);
+        checkpointChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (checkpointChannel.size() < 16) {
+            return 0L;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        while (buffer.hasRemaining() && checkpointChannel.read(buffer, buffer.position()) > 0) {
+            // 16바이트 읽기
+        }
+        buffer.flip();
+        long lsn = buffer.getLong();
+        long check = buffer.getLong();
+        if (check != ~lsn) {
+            logger.warn("WAL 체크포인트 파일 손상 - 처음부터 재생 (prefix: {})", prefix);
+            return 0L;
+        }
+        return lsn;
+    }
+
+    private void writeCheckpoint(long lsn) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(lsn).putLong(~lsn).flip();
+        while (buffer.hasRemaining()) {
+            checkpointChannel.write(buffer, buffer.position());
+        }
+        checkpointChannel.force(false);
+    }
+
+    /**
+     * 기존 세그먼트 검증 (CRC가 맞는 레코드까지만 유효, 이후는 잘라냄)
+     * @return 마지막 유효 LSN
+     */
+    private long recover() throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    long firstLsn = Long.parseLong(name.substring(prefix.length() + 1, name.length() - SEGMENT_SUFFIX.length()));
+                    found.add(new Segment(path, firstLsn));
+                } catch (NumberFormatException e) {
+                    logger.warn("WAL 세그먼트 이름 오류 - 무시: {}", path);
+                }
+            }
+        }
+        Collections.sort(found, (a, b) -> Long.compare(a.firstLsn, b.firstLsn));
+
+        long last = 0L;
+        byte[] record = new byte[512];
+        for (Segment segment : found) {
+            long validBytes = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.path), WRITE_BUFFER_SIZE))) {
+                while (true) {
+                    int bodyLength;
+                    int storedCrc;
+                    long lsn;
+                    try {
+                        bodyLength = in.readInt();
+                        if (bodyLength <= 0 || bodyLength > MAX_BODY_SIZE) {
+                            break;
+                        }
+                        storedCrc = in.readInt();
+                        lsn = in.readLong();
+                        if (record.length < bodyLength) {
+                            record = new byte[bodyLength];
+                        }
+                        in.readFully(record, 0, bodyLength);
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    crc.reset();
+                    crc.update(new byte[] {
+                        (byte) (lsn >>> 56), (byte) (lsn >>> 48), (byte) (lsn >>> 40), (byte) (lsn >>> 32),
+                        (byte) (lsn >>> 24), (byte) (lsn >>> 16), (byte) (lsn >>> 8), (byte) lsn
+                    });
+                    crc.update(record, 0, bodyLength);
+                    if ((int) crc.getValue() != storedCrc || lsn <= last) {
+                        break;
+                    }
+                    last = lsn;
+                    validBytes += RECORD_HEADER_SIZE + bodyLength;
+                }
+            }
+
+            long size = Files.size(segment.path);
+            if (validBytes < size) {
+                truncatedTailBytes.addAndGet(size - validBytes);
+                logger.warn("WAL 손상/미완료 꼬리 잘라냄 - segment: {}, 유효: {} / {} bytes",
+                    segment.path.getFileName(), validBytes, size);
+                try (FileChannel truncate = FileChannel.open(segment.path, StandardOpenOption.WRITE)) {
+                    truncate.truncate(validBytes);
+                    truncate.force(false);
+                }
+            }
+            segments.add(segment);
+        }
+        return last;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("WAL 파일 닫기 실패", e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.andrew.hnt.api.mqtt.common;
 
+import com.andrew.hnt.api.mqtt.MqttCommandChannel;
+import com.andrew.hnt.api.mqtt.MqttInboundDispatcher;
 import com.andrew.hnt.api.mqtt.MqttMessageProcessor;
+import com.andrew.hnt.api.mqtt.MqttPayloadDecoder;
+import com.andrew.hnt.api.mqtt.SensorLatestValueStore;
 import com.andrew.hnt.api.service.MqttService;
 import lombok.SneakyThrows;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
@@ -14,6 +18,8 @@ import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class MQTT implements MqttCallback {
 
     private static final Logger logger = LoggerFactory.getLogger(MQTT.class);
@@ -34,12 +40,35 @@ public class MQTT implements MqttCallback {
     // MqttService 참조 (메시지 처리용)
     private MqttService mqttService;
 
+    // 수신 분배기 참조 (설정 시 콜백 스레드는 링 버퍼 적재만 수행)
+    private MqttInboundDispatcher inboundDispatcher;
+
+    // 명령 채널 참조 (설정 시 setres / actres 응답을 대기 중인 명령으로 전달)
+    private MqttCommandChannel commandChannel;
+
     // 하드코딩된 설정 제거 - MqttConfig에서 주입받도록 변경
 
 	
-    	private String receiveMsg;
-	private String receiveTopic;
-	private volatile boolean hasNewMessage = false;  // 새 메시지 플래그 추가
+	// 마지막 수신 메시지 (토픽/메시지를 한 번에 교체 - 소비자 스레드 간 공유 가변 필드 없음)
+	private final AtomicReference<ReceivedMessage> lastMessage = new AtomicReference<>();
+	// 아직 확인하지 않은 수신 메시지 (hasNewMessage / clearNewMessageFlag 용)
+	private final AtomicReference<ReceivedMessage> unreadMessage = new AtomicReference<>();
+
+	/**
+	 * 수신 메시지 (불변)
+	 */
+	public static final class ReceivedMessage {
+		private final String topic;
+		private final String message;
+
+		public ReceivedMessage(String topic, String message) {
+			this.topic = topic;
+			this.message = message;
+		}
+
+		public String getTopic() { return topic; }
+		public String getMessage() { return message; }
+	}
 
 	public MQTT(String broker, String client_id, String userName, String password) {
 		this.Broker = broker;
@@ -64,6 +93,23 @@ public class MQTT implements MqttCallback {
 		logger.info("MqttService 설정 완료");
 	}
 	
+	/**
+	 * 수신 분배기 설정 (메인 수신 클라이언트 전용)
+	 * 요청별 명령 클라이언트는 설정하지 않으므로 콜백 스레드에서 직접 처리
+	 */
+	public void setInboundDispatcher(MqttInboundDispatcher inboundDispatcher) {
+		this.inboundDispatcher = inboundDispatcher;
+		logger.info("MqttInboundDispatcher 설정 완료");
+	}
+	
+	/**
+	 * 명령 채널 설정 (메인 수신 클라이언트 전용)
+	 */
+	public void setCommandChannel(MqttCommandChannel commandChannel) {
+		this.commandChannel = commandChannel;
+		logger.info("MqttCommandChannel 설정 완료");
+	}
+	
 	public void init(String topic, String gu) {
 		this.topic = topic;
 		this.persistence = new MemoryPersistence();
@@ -212,9 +258,8 @@ public class MQTT implements MqttCallback {
 			connOpts = null;
 			message = null;
 			topic = null;
-			receiveMsg = null;
-			receiveTopic = null;
-			hasNewMessage = false;
+			lastMessage.set(null);
+			unreadMessage.set(null);
 			
 			logger.info("MQTT 클라이언트 강제 종료 완료");
 			
@@ -227,9 +272,8 @@ public class MQTT implements MqttCallback {
 			connOpts = null;
 			message = null;
 			topic = null;
-			receiveMsg = null;
-			receiveTopic = null;
-			hasNewMessage = false;
+			lastMessage.set(null);
+			unreadMessage.set(null);
 		}
 	}
 	
@@ -280,106 +324,85 @@ public class MQTT implements MqttCallback {
 	@Override
 	public void messageArrived(String topic, MqttMessage mqttMessage) throws Exception {
 		if(mqttMessage != null && mqttMessage.getPayload() != null && mqttMessage.getPayload().length > 0) {
-			this.receiveMsg = new String(mqttMessage.getPayload());
-			this.receiveTopic = topic;
-			this.hasNewMessage = true;  // 새 메시지 플래그 설정
-			
-			logger.info("=== MQTT 메시지 수신 ===");
-			logger.info("Topic: {}", topic);
-			logger.info("Message: {}", this.receiveMsg);
-			
-		// MqttService로 메시지 전달 (토픽 정보 포함)
+			if(inboundDispatcher != null && inboundDispatcher.isEnabled()) {
+				// 콜백 스레드는 링 버퍼 적재만 수행 (디코딩/분배는 소비자 스레드)
+				inboundDispatcher.dispatch(this, topic, mqttMessage.getPayload(), mqttMessage.getQos());
+			} else {
+				handleMessage(topic, mqttMessage.getPayload());
+			}
+		}
+	}
+	
+	/**
+	 * 수신 메시지 디코딩 및 분배
+	 * 분배기 소비자 스레드 또는 (분배기 미설정 시) 콜백 스레드에서 호출
+	 */
+	public void handleMessage(String topic, byte[] payload) {
+		// 토픽/페이로드 단일 패스 디코딩 (이후 처리에서 재파싱하지 않음)
+		MqttPayloadDecoder.SensorReading reading = MqttPayloadDecoder.decode(topic, payload);
+		
+		// 메시지별 상태는 지역 변수로만 사용 (여러 소비자 스레드가 동시에 호출)
+		String receiveMsg = reading.getPayloadText();
+		this.setMsg(receiveMsg, topic);  // 새 메시지 플래그 설정
+		
+		if(logger.isDebugEnabled()) {
+			logger.debug("MQTT 메시지 수신 - topic: {}, message: {}", topic, receiveMsg);
+		}
+		
+		// MqttService로 메시지 전달 (디코딩 결과 전달)
 		if(mqttService != null) {
 			try {
-				logger.info("MqttService로 메시지 전달 시작...");
-				// 토픽 정보를 메시지에 포함시켜 전달 (기존 형식: topic@message)
-				String messageWithTopic = topic + "@" + this.receiveMsg;
-				mqttService.receiveData(messageWithTopic);
-				logger.info("MqttService로 메시지 전달 완료");
+				mqttService.receiveReading(reading);
 			} catch(Exception e) {
-				logger.error("MqttService 메시지 처리 실패 - topic: {}, message: {}", topic, this.receiveMsg, e);
+				logger.error("MqttService 메시지 처리 실패 - topic: {}, message: {}", topic, receiveMsg, e);
 			}
 		} else {
 			logger.warn("MqttService가 설정되지 않음 - 메시지 처리 불가");
 		}
-			
-			// setres 메시지 처리 (기존 로직 유지)
-			if(this.receiveMsg.contains("setres")) {
-				this.setMsg(this.receiveMsg, topic);
-			}
-			
-			// MqttMessageProcessor로 메시지 전달 (알람 체크용)
-			if(messageProcessor != null && this.receiveMsg.contains("\"actcode\":\"live\"") && this.receiveMsg.contains("\"name\":\"ain\"")) {
-				try {
-					// 토픽에서 정보 추출: HBEE/userId/TC/uuid/DEV
-					String[] topicParts = topic.split("/");
-					if(topicParts.length >= 4) {
-						String userId = topicParts[1];
-						String sensorUuid = topicParts[3];
-						
-						// JSON에서 온도 값 추출 (간단한 파싱)
-						String value = extractJsonValue(this.receiveMsg, "value");
-						
-						if(value != null && !value.isEmpty() && !"Error".equals(value)) {
-							// SensorVO 생성 및 전달은 MqttMessageProcessor 내부에서 처리
-							logger.debug("실시간 온도 데이터 수신 - userId: {}, uuid: {}, value: {}", userId, sensorUuid, value);
-						}
-					}
-				} catch(Exception e) {
-					logger.error("메시지 프로세서 전달 실패", e);
-				}
-			}
+		
+		// 명령 응답 상관 (대기 중인 명령이 없으면 즉시 반환)
+		if(commandChannel != null) {
+			commandChannel.onResponse(reading);
 		}
-	}
-	
-	/**
-	 * JSON 문자열에서 특정 키의 값 추출
-	 */
-	private String extractJsonValue(String json, String key) {
-		try {
-			String searchKey = "\"" + key + "\":\"";
-			int startIndex = json.indexOf(searchKey);
-			if(startIndex == -1) {
-				// 숫자 값인 경우 (따옴표 없음)
-				searchKey = "\"" + key + "\":";
-				startIndex = json.indexOf(searchKey);
-				if(startIndex == -1) return null;
-				startIndex += searchKey.length();
-				int endIndex = json.indexOf(",", startIndex);
-				if(endIndex == -1) endIndex = json.indexOf("}", startIndex);
-				return json.substring(startIndex, endIndex).trim();
-			} else {
-				startIndex += searchKey.length();
-				int endIndex = json.indexOf("\"", startIndex);
-				return json.substring(startIndex, endIndex);
-			}
-		} catch(Exception e) {
-			return null;
+		
+		if(reading.getKind() == MqttPayloadDecoder.Kind.LIVE
+				&& reading.getChannel() == SensorLatestValueStore.CHANNEL_AIN && !reading.isError()) {
+			logger.debug("실시간 온도 데이터 수신 - userId: {}, uuid: {}, value: {}",
+					reading.getUserId(), reading.getUuid(), reading.getValueText());
 		}
 	}
 	
 	public void setMsg(String msg, String rcvTopic) {
 		if(msg != null && !msg.trim().isEmpty()) {
-			this.receiveMsg = msg;
-			this.receiveTopic = rcvTopic;
-			this.hasNewMessage = true;  // 플래그 설정
+			ReceivedMessage received = new ReceivedMessage(rcvTopic, msg);
+			lastMessage.set(received);
+			unreadMessage.set(received);  // 플래그 설정
 		}
 	}
 	
+	/**
+	 * 마지막 수신 메시지 (토픽과 메시지가 항상 같은 수신 건)
+	 */
+	public ReceivedMessage getLastMessage() {
+		return lastMessage.get();
+	}
+	
 	public String getMsg() {
-		return this.receiveMsg;
+		ReceivedMessage received = lastMessage.get();
+		return received != null ? received.getMessage() : null;
 	}
 
 	public String getRcvTopic() {
-		return this.receiveTopic;
+		ReceivedMessage received = lastMessage.get();
+		return received != null ? received.getTopic() : null;
 	}
 	
 	public boolean hasNewMessage() {
-		return this.hasNewMessage;
+		return unreadMessage.get() != null;
 	}
 	
 	public void clearNewMessageFlag() {
-		this.hasNewMessage = false;
+		unreadMessage.set(null);
 	}
 	
 	@SneakyThrows
@@ -0,0 +1,494 @@
+package com.andrew.hnt.api.service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.model.SensorVO;
+
+/**
+ * 차트/보고서 조회 결과 구간 캐시
+ * 조회할 때마다 전체 기간을 다시 집계하던 것을, 닫힌 구간은 (조회 원본, uuid, 단위, 블록) 단위로 보관하고 열린 끝 구간만 다시 조회
+ * (조회 원본: 같은 단위라도 읽는 저장소/쿼리가 다르면 값이 다를 수 있어 분리 - 예: selectSensorData 롤업 vs 이력 저장소 selectDailyData)
+ *
+ * - 블록: 1분 단위는 1시간, 1시간 단위는 1일, 1일/1개월 단위는 해당 구간 1개
+ * - 블록 끝이 현재 - closed-lag-seconds 이전이면 닫힌 블록 (이후 값이 바뀌지 않음)
+ * - 조회 시작이 구간 경계인 명시 기간(startDateTime/endDateTime)만 캐시 사용, 그 외는 원래 조회
+ * - 캐시 블록 + 새로 조회한 끝 구간을 기존 응답 형식(inst_dtm / sensor_value [/ getDate])으로 합침
+ * - 크기 제한 LRU (max-bytes), off-heap 이면 블록 값을 direct 버퍼에 저장
+ * - 장치 삭제/이력 삭제(SensorHistoryService.purge), 보관 기간 정리, 닫힌 구간에 늦게 들어온 값은 해당 블록 무효화
+ * - 무효화는 이 인스턴스에서 일어난 삭제/기록만 반영 (다른 인스턴스 삭제는 알 수 없음) → 기본 비활성,
+ *   단일 인스턴스이거나 수신/삭제를 한 인스턴스에서 처리하는 구성에서만 활성화
+ */
+@Service
+public class ChartResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartResultCache.class);
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // 블록 값 형식: 구간별 상태 1바이트 + 값 8바이트
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+    private static final byte NULL_VALUE = 2;
+    // 키 / 맵 항목 / 버퍼 객체 추정 크기
+    private static final int ENTRY_OVERHEAD = 160;
+
+    /**
+     * 출력 구간 단위 (inst_dtm 형식 / 블록 크기)
+     */
+    public enum Unit {
+        MINUTE("yyyy-MM-dd HH:mm", ":00", 60),
+        HOUR("yyyy-MM-dd HH", ":00:00", 24),
+        DAY("yyyy-MM-dd", " 00:00:00", 1),
+        MONTH("yyyy-MM", "-01 00:00:00", 1);
+
+        private final DateTimeFormatter label;
+        private final String labelSuffix;
+        private final int bucketsPerBlock;
+
+        Unit(String labelPattern, String labelSuffix, int bucketsPerBlock) {
+            this.label = DateTimeFormatter.ofPattern(labelPattern);
+            this.labelSuffix = labelSuffix;
+            this.bucketsPerBlock = bucketsPerBlock;
+        }
+
+        LocalDateTime floorBucket(LocalDateTime time) {
+            switch (this) {
+                case MINUTE: return time.truncatedTo(ChronoUnit.MINUTES);
+                case HOUR: return time.truncatedTo(ChronoUnit.HOURS);
+                case DAY: return time.truncatedTo(ChronoUnit.DAYS);
+                default: return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            }
+        }
+
+        LocalDateTime nextBucket(LocalDateTime bucket) {
+            switch (this) {
+                case MINUTE: return bucket.plusMinutes(1);
+                case HOUR: return bucket.plusHours(1);
+                case DAY: return bucket.plusDays(1);
+                default: return bucket.plusMonths(1);
+            }
+        }
+
+        LocalDateTime floorBlock(LocalDateTime time) {
+            switch (this) {
+                case MINUTE: return time.truncatedTo(ChronoUnit.HOURS);
+                case HOUR: return time.truncatedTo(ChronoUnit.DAYS);
+                default: return floorBucket(time);
+            }
+        }
+
+        LocalDateTime nextBlock(LocalDateTime block) {
+            switch (this) {
+                case MINUTE: return block.plusHours(1);
+                case HOUR: return block.plusDays(1);
+                default: return nextBucket(block);
+            }
+        }
+
+        int indexOf(LocalDateTime bucket) {
+            switch (this) {
+                case MINUTE: return bucket.getMinute();
+                case HOUR: return bucket.getHour();
+                default: return 0;
+            }
+        }
+
+        LocalDateTime parseLabel(Object value) {
+            return LocalDateTime.parse(String.valueOf(value) + labelSuffix, DATE_TIME);
+        }
+
+        String label(LocalDateTime bucket) {
+            return bucket.format(label);
+        }
+    }
+
+    private static final class Key {
+        private final String source;
+        private final String uuid;
+        private final Unit unit;
+        private final LocalDateTime block;
+
+        Key(String source, String uuid, Unit unit, LocalDateTime block) {
+            this.source = source;
+            this.uuid = uuid;
+            this.unit = unit;
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return source.equals(other.source) && uuid.equals(other.uuid) && unit == other.unit && block.equals(other.block);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, uuid, unit, block);
+        }
+    }
+
+    /** 닫힌 블록 값 (절대 위치 읽기만 하므로 공유 가능) */
+    private static final class Block {
+        private final ByteBuffer buffer;
+        private final int buckets;
+
+        Block(int buckets, boolean offHeap) {
+            this.buckets = buckets;
+            this.buffer = offHeap ? ByteBuffer.allocateDirect(buckets * 9) : ByteBuffer.allocate(buckets * 9);
+        }
+
+        void set(int index, Object value) {
+            Double number = toDouble(value);
+            buffer.put(index, number == null ? NULL_VALUE : PRESENT);
+            buffer.putDouble(buckets + index * 8, number == null ? 0d : number);
+        }
+
+        byte state(int index) {
+            return buffer.get(index);
+        }
+
+        double value(int index) {
+            return buffer.getDouble(buckets + index * 8);
+        }
+
+        int bytes() {
+            return buffer.capacity();
+        }
+    }
+
+    @Value("${custom.chart-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${custom.chart-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${custom.chart-cache.off-heap:false}")
+    private boolean offHeap;
+
+    @Value("${custom.chart-cache.closed-lag-seconds:120}")
+    private long closedLagSeconds;
+
+    // 접근 순서 LRU (this 로 동기화)
+    private final LinkedHashMap<Key, Block> blocks = new LinkedHashMap<>(1024, 0.75f, true);
+    private long bytes = 0;
+    // 사용된 조회 원본 (늦은 값 무효화 시 원본별 블록 키 구성)
+    private final Set<String> sources = ConcurrentHashMap.newKeySet();
+
+    // 통계 정보
+    private final AtomicLong requests = new AtomicLong(0);
+    private final AtomicLong bypassed = new AtomicLong(0);
+    private final AtomicLong blockHits = new AtomicLong(0);
+    private final AtomicLong blockMisses = new AtomicLong(0);
+    private final AtomicLong loads = new AtomicLong(0);
+    private final AtomicLong loadNanos = new AtomicLong(0);
+    private final AtomicLong tailRecomputes = new AtomicLong(0);
+    private final AtomicLong tailNanos = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong errors = new AtomicLong(0);
+
+    /**
+     * 구간 캐시 조회
+     * @param source 조회 원본 이름 (저장소/쿼리가 다르면 다른 이름 - 블록 키에 포함)
+     * @param param 조회 파라미터 (sensorUuid, startDateTime, endDateTime - 변경하지 않음)
+     * @param unit 출력 구간 단위
+     * @param limit 결과 최대 건수 (0: 제한 없음, 원래 쿼리의 limit 과 맞춤)
+     * @param loader 원래 조회 (기간을 바꾼 파라미터 사본으로 호출)
+     */
+    public List<Map<String, Object>> select(String source, Map<String, Object> param, Unit unit, int limit,
+                                            Function<Map<String, Object>, List<Map<String, Object>>> loader) {
+        requests.incrementAndGet();
+        String uuid = param.get("sensorUuid") != null ? String.valueOf(param.get("sensorUuid")) : null;
+        LocalDateTime start = parse(param.get("startDateTime"));
+        LocalDateTime end = parse(param.get("endDateTime"));
+        if (!enabled || uuid == null || start == null || end == null || end.isBefore(start)
+                || !unit.floorBucket(start).equals(start)) {
+            bypassed.incrementAndGet();
+            return loader.apply(param);
+        }
+
+        // 캐시 구간 [start, cachedUntil) - 조회 끝을 넘지 않는 완전한 구간 중 닫힌 블록에 속한 것
+        LocalDateTime closedLimit = unit.floorBlock(LocalDateTime.now().minusSeconds(closedLagSeconds));
+        LocalDateTime cachedUntil = unit.floorBucket(end.plusSeconds(1));
+        if (cachedUntil.isAfter(closedLimit)) {
+            cachedUntil = closedLimit;
+        }
+        if (!cachedUntil.isAfter(start)) {
+            bypassed.incrementAndGet();
+            return loader.apply(param);
+        }
+
+        List<Map<String, Object>> resultList;
+        try {
+            sources.add(source);
+            resultList = cachedRows(source, uuid, unit, start, cachedUntil, param, loader);
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            logger.warn("차트 구간 캐시 조회 실패 - 원래 조회 사용 (uuid: {}, 단위: {}): {}", uuid, unit, e.toString());
+            return loader.apply(param);
+        }
+
+        // 열린 끝 구간은 매번 조회
+        if (!cachedUntil.isAfter(end)) {
+            long started = System.nanoTime();
+            List<Map<String, Object>> tail = loader.apply(withRange(param, cachedUntil, end));
+            tailRecomputes.incrementAndGet();
+            tailNanos.addAndGet(System.nanoTime() - started);
+            if (tail != null) {
+                resultList.addAll(tail);
+            }
+        }
+        if (limit > 0 && resultList.size() > limit) {
+            return new ArrayList<>(resultList.subList(0, limit));
+        }
+        return resultList;
+    }
+
+    private List<Map<String, Object>> cachedRows(String source, String uuid, Unit unit, LocalDateTime start, LocalDateTime until,
+                                                 Map<String, Object> param,
+                                                 Function<Map<String, Object>, List<Map<String, Object>>> loader) {
+        // 블록 조회, 연속으로 빠진 블록은 한 번에 조회하여 채움
+        List<LocalDateTime> keys = new ArrayList<>();
+        Map<LocalDateTime, Block> found = new HashMap<>();
+        LocalDateTime missingFrom = null;
+        for (LocalDateTime block = unit.floorBlock(start); block.isBefore(until); block = unit.nextBlock(block)) {
+            keys.add(block);
+            Block cached = get(new Key(source, uuid, unit, block));
+            if (cached != null) {
+                blockHits.incrementAndGet();
+                found.put(block, cached);
+                if (missingFrom != null) {
+                    load(source, uuid, unit, missingFrom, block, param, loader, found);
+                    missingFrom = null;
+                }
+            } else {
+                blockMisses.incrementAndGet();
+                if (missingFrom == null) {
+                    missingFrom = block;
+                }
+            }
+        }
+        if (missingFrom != null) {
+            load(source, uuid, unit, missingFrom, unit.nextBlock(keys.get(keys.size() - 1)), param, loader, found);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (LocalDateTime blockStart : keys) {
+            Block block = found.get(blockStart);
+            LocalDateTime bucket = blockStart;
+            for (int i = 0; i < block.buckets; i++, bucket = unit.nextBucket(bucket)) {
+                if (bucket.isBefore(start) || !bucket.isBefore(until) || block.state(i) == ABSENT) {
+                    continue;
+                }
+                Map<String, Object> row = new HashMap<>();
+                if (unit == Unit.MINUTE) {
+                    row.put("getDate", bucket.format(DATE));
+                }
+                row.put("inst_dtm", unit.label(bucket));
+                row.put("sensor_value", block.state(i) == PRESENT ? block.value(i) : null);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /** [from, to) 블록 조회 후 캐시 저장 */
+    private void load(String source, String uuid, Unit unit, LocalDateTime from, LocalDateTime to, Map<String, Object> param,
+                      Function<Map<String, Object>, List<Map<String, Object>>> loader, Map<LocalDateTime, Block> found) {
+        long started = System.nanoTime();
+        List<Map<String, Object>> rows = loader.apply(withRange(param, from, to.minusSeconds(1)));
+        Map<LocalDateTime, Block> loaded = new LinkedHashMap<>();
+        for (LocalDateTime block = from; block.isBefore(to); block = unit.nextBlock(block)) {
+            loaded.put(block, new Block(unit.bucketsPerBlock, offHeap));
+        }
+        if (rows != null) {
+            for (Map<String, Object> row : rows) {
+                LocalDateTime bucket = unit.parseLabel(row.get("inst_dtm"));
+                Block block = loaded.get(unit.floorBlock(bucket));
+                if (block != null) {
+                    block.set(unit.indexOf(bucket), row.get("sensor_value"));
+                }
+            }
+        }
+        for (Map.Entry<LocalDateTime, Block> entry : loaded.entrySet()) {
+            put(new Key(source, uuid, unit, entry.getKey()), entry.getValue());
+        }
+        found.putAll(loaded);
+        loads.incrementAndGet();
+        loadNanos.addAndGet(System.nanoTime() - started);
+    }
+
+    private static Map<String, Object> withRange(Map<String, Object> param, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> copy = new HashMap<>(param);
+        copy.put("startDateTime", from.format(DATE_TIME));
+        copy.put("endDateTime", to.format(DATE_TIME));
+        return copy;
+    }
+
+    private synchronized Block get(Key key) {
+        return blocks.get(key);
+    }
+
+    private synchronized void put(Key key, Block block) {
+        Block previous = blocks.put(key, block);
+        if (previous != null) {
+            bytes -= sizeOf(previous);
+        }
+        bytes += sizeOf(block);
+        Iterator<Block> iterator = blocks.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Block eldest = iterator.next();
+            iterator.remove();
+            bytes -= sizeOf(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static long sizeOf(Block block) {
+        return block.bytes() + ENTRY_OVERHEAD;
+    }
+
+    // ---- 무효화 ----
+
+    /** 장치 삭제 / 이력 삭제 */
+    public synchronized void invalidate(String sensorUuid) {
+        removeIf(key -> key.uuid.equals(sensorUuid));
+    }
+
+    /** 보관 기간 정리 (cutoff 이전 블록) */
+    public synchronized void invalidateBefore(LocalDateTime cutoff) {
+        removeIf(key -> key.block.isBefore(cutoff));
+    }
+
+    /** 사용자 삭제 등 UUID 를 알 수 없는 일괄 삭제 */
+    public synchronized void invalidateAll() {
+        invalidations.addAndGet(blocks.size());
+        blocks.clear();
+        bytes = 0;
+    }
+
+    /**
+     * 기록 후 호출 - 닫힌 블록 시각으로 늦게 들어온 값(WAL 재처리 등)이 있으면 해당 블록 무효화
+     */
+    public void onWrite(List<SensorVO> sensorDataList) {
+        if (!enabled || sensorDataList == null) {
+            return;
+        }
+        LocalDateTime closedBefore = LocalDateTime.now().minusSeconds(closedLagSeconds);
+        for (SensorVO sensorVO : sensorDataList) {
+            if (sensorVO == null || sensorVO.getInstDtm() == null || sensorVO.getUuid() == null) {
+                continue;
+            }
+            LocalDateTime time = parse(sensorVO.getInstDtm());
+            if (time == null || !time.isBefore(closedBefore)) {
+                continue;
+            }
+            synchronized (this) {
+                for (String source : sources) {
+                    for (Unit unit : Unit.values()) {
+                        Block removed = blocks.remove(new Key(source, sensorVO.getUuid(), unit, unit.floorBlock(time)));
+                        if (removed != null) {
+                            bytes -= sizeOf(removed);
+                            invalidations.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeIf(Predicate<Key> predicate) {
+        Iterator<Map.Entry<Key, Block>> iterator = blocks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Block> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                iterator.remove();
+                bytes -= sizeOf(entry.getValue());
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private static LocalDateTime parse(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = String.valueOf(value).trim().replace('T', ' ');
+        try {
+            if (text.length() == 10) {
+                return LocalDateTime.parse(text + " 00:00:00", DATE_TIME);
+            }
+            return LocalDateTime.parse(text.length() > 19 ? text.substring(0, 19) : text, DATE_TIME);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Double toDouble(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return new BigDecimal(String.valueOf(value)).doubleValue();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hits = blockHits.get();
+        long misses = blockMisses.get();
+        long loadCount = loads.get();
+        long tailCount = tailRecomputes.get();
+        stats.put("enabled", enabled);
+        stats.put("offHeap", offHeap);
+        stats.put("closedLagSeconds", closedLagSeconds);
+        synchronized (this) {
+            stats.put("entries", blocks.size());
+            stats.put("bytes", bytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("requests", requests.get());
+        stats.put("bypassed", bypassed.get());
+        stats.put("blockHits", hits);
+        stats.put("blockMisses", misses);
+        stats.put("hitRatio", hits + misses == 0 ? 0 : Math.round(hits * 1000.0 / (hits + misses)) / 10.0);
+        stats.put("loads", loadCount);
+        stats.put("avgLoadMs", loadCount == 0 ? 0 : Math.round(loadNanos.get() / (double) loadCount / 10_000) / 100.0);
+        stats.put("tailRecomputes", tailCount);
+        stats.put("avgTailRecomputeMs", tailCount == 0 ? 0 : Math.round(tailNanos.get() / (double) tailCount / 10_000) / 100.0);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+}
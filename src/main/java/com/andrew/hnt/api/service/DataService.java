@@ -2,6 +2,7 @@ package com.andrew.hnt.api.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.andrew.hnt.api.model.DeviceVO;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,9 @@ public interface DataService {
 	
 	// 최적화된 일간 데이터 조회 (30분 단위 그룹화)
 	public List<Map<String, Object>> selectDailyData(Map<String, Object> param);
+
+	// 엑셀 스트리밍용 일간 데이터 (1분 단위 행을 시간 순으로 전달)
+	public void streamDailyData(Map<String, Object> param, Consumer<Map<String, Object>> consumer);
 	
 	// 고성능 일간 데이터 조회 (커서 기반 페이징)
 	public List<Map<String, Object>> selectDailyDataWithCursor(Map<String, Object> param);
@@ -34,4 +38,7 @@ public interface DataService {
 	
 	// 최적화된 연간 데이터 조회
 	public List<Map<String, Object>> selectYearlyData(Map<String, Object> param);
+
+	// 원본 커서 페이징 조회 (inst_dtm 이후 pageSize 건)
+	public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param);
 }
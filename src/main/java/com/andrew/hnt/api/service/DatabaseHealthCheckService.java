@@ -5,6 +5,7 @@ import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import javax.management.JMX;
@@ -29,7 +30,9 @@ public class DatabaseHealthCheckService {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseHealthCheckService.class);
     
+    // 주 DB 연결 풀 (읽기 복제본 라우팅 사용 시에도 주 풀 상태/연결 확인)
     @Autowired
+    @Qualifier("primaryDataSource")
     private DataSource dataSource;
     
     private HikariPoolMXBean hikariPoolMXBean;
@@ -0,0 +1,548 @@
+package com.andrew.hnt.api.service;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.service.ReportAggregationService.ReportSeries;
+
+/**
+ * 내보내기 작업 (엑셀 보고서 / 원본 CSV·NDJSON 비동기 작성 + 디스크 캐시)
+ *
+ * - 제출하면 작업 ID 를 바로 반환하고 제한된 작업 풀(workers / queue-capacity)에서 실행, 진행률은 작업 ID 로 조회
+ * - 같은 (UUID, 센서 이름, 기간, 형식) 작업이 대기/실행 중이면 새로 만들지 않고 합류 (중복 클릭, 같은 센서의 여러 부계정)
+ *   센서 이름은 엑셀 제목에 들어가므로 이름이 다르면 다른 작업 / 다른 캐시 파일
+ * - 사용자별 대기/실행 중 작업 수 제한 (max-per-user, 다른 작업 합류는 제외)
+ * - 완성 파일은 디스크 캐시에 보관 (지난 기간 ttl-minutes / 오늘 포함 기간 open-ttl-minutes,
+ *   max-bytes 초과 시 오래 사용하지 않은 파일부터 삭제) - 캐시가 유효하면 조회 없이 완료 작업으로 응답
+ * - 기동 시 캐시 디렉터리에서 작업 파일 이름 형식(작업 ID.확장자)인 이전 실행 파일만 삭제
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 다운로드 직후 파일 삭제 방지 (sendfile 은 요청 처리 후 파일을 열기 때문)
+    private static final long PIN_MILLIS = 30_000;
+    // 작업 파일 이름 (작업 ID 32자리 16진수 + 작성 중 .part / 형식 확장자)
+    private static final Pattern JOB_FILE = Pattern.compile("^[0-9a-f]{32}\\.(part|xlsx|csv|ndjson)$");
+
+    /**
+     * 내보내기 형식
+     */
+    public enum Format {
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        CSV("csv", "text/csv;charset=UTF-8"),
+        NDJSON("ndjson", "application/x-ndjson;charset=UTF-8");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /** 알 수 없는 형식이면 null (기본 xlsx) */
+        public static Format of(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return XLSX;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * 내보내기 작업 (userIds: 작업을 요청/합류한 사용자 - 다운로드 허용 대상)
+     */
+    public static class ExportJob {
+        private final String id = UUID.randomUUID().toString().replace("-", "");
+        private final String key;
+        private final String sensorUuid;
+        private final String sensorName;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final Format format;
+        private final String ownerId;
+        private final Set<String> userIds = ConcurrentHashMap.newKeySet();
+        private final long createdAt = System.currentTimeMillis();
+        private volatile Status status = Status.QUEUED;
+        private volatile int percent;
+        private volatile long rows;
+        private volatile String message;
+        private volatile File file;
+        private volatile long bytes;
+        private volatile boolean cached;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+
+        ExportJob(String key, String sensorUuid, String sensorName, LocalDate startDate, LocalDate endDate,
+                  Format format, String ownerId) {
+            this.key = key;
+            this.sensorUuid = sensorUuid;
+            this.sensorName = sensorName;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.format = format;
+            this.ownerId = ownerId;
+            this.userIds.add(ownerId);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public boolean isAllowed(String userId) {
+            return userIds.contains(userId);
+        }
+
+        /** 다운로드 파일 이름 */
+        public String getFileName() {
+            String range = startDate.toString().replace("-", "") + "_" + endDate.toString().replace("-", "");
+            return (format == Format.XLSX ? "report_" : "sensor_raw_") + range + "." + format.getExtension();
+        }
+
+        private void progress(int percent, String message) {
+            this.percent = percent;
+            this.message = message;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", id);
+            map.put("status", status.name());
+            map.put("percent", percent);
+            map.put("message", message);
+            map.put("sensorUuid", sensorUuid);
+            map.put("startDate", startDate.toString());
+            map.put("endDate", endDate.toString());
+            map.put("format", format.getExtension());
+            map.put("rows", rows);
+            map.put("bytes", bytes);
+            map.put("cached", cached);
+            map.put("fileName", status == Status.DONE ? getFileName() : null);
+            if (startedAt > 0) {
+                map.put("waitMs", startedAt - createdAt);
+            }
+            if (finishedAt > 0 && startedAt > 0) {
+                map.put("runMs", finishedAt - startedAt);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 디스크 캐시 항목
+     */
+    private static class CacheEntry {
+        private final String key;
+        private final File file;
+        private final long bytes;
+        private final long expiresAt;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        CacheEntry(String key, File file, long bytes, long expiresAt) {
+            this.key = key;
+            this.file = file;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Autowired
+    private ReportAggregationService reportAggregationService;
+
+    @Autowired
+    private SensorRawExportService sensorRawExportService;
+
+    @Value("${custom.export.job.workers:2}")
+    private int workers;
+
+    @Value("${custom.export.job.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${custom.export.job.max-per-user:2}")
+    private int maxPerUser;
+
+    @Value("${custom.export.job.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${custom.export.job.cache.dir:./data/export-cache}")
+    private String cacheDir;
+
+    @Value("${custom.export.job.cache.max-bytes:1073741824}")
+    private long cacheMaxBytes;
+
+    @Value("${custom.export.job.cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${custom.export.job.cache.open-ttl-minutes:5}")
+    private long openTtlMinutes;
+
+    @Value("${custom.excel.streaming.window-rows:100}")
+    private int excelWindowRows;
+
+    private File directory;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService cleaner;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ExportJob> inflight = new ConcurrentHashMap<>();
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong cacheBytes = new AtomicLong(0);
+
+    // 통계 정보
+    private final AtomicLong submitted = new AtomicLong(0);
+    private final AtomicLong deduplicated = new AtomicLong(0);
+    private final AtomicLong cacheHits = new AtomicLong(0);
+    private final AtomicLong userLimited = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong completed = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong evicted = new AtomicLong(0);
+    private final AtomicLong expired = new AtomicLong(0);
+    private final AtomicLong downloads = new AtomicLong(0);
+    private final AtomicLong sendfileDownloads = new AtomicLong(0);
+    private final AtomicLong downloadBytes = new AtomicLong(0);
+    private final AtomicLong runNanos = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        directory = new File(cacheDir);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("내보내기 캐시 디렉터리 생성 실패: {}", directory.getAbsolutePath());
+        }
+        // 이전 실행의 작업 파일은 만료 시각을 알 수 없으므로 삭제 (디렉터리를 잘못 지정해도 다른 파일은 유지)
+        File[] leftovers = directory.listFiles((dir, name) -> JOB_FILE.matcher(name).matches());
+        for (int i = 0; leftovers != null && i < leftovers.length; i++) {
+            if (leftovers[i].isFile() && !leftovers[i].delete()) {
+                logger.warn("이전 내보내기 파일 삭제 실패: {}", leftovers[i].getName());
+            }
+        }
+
+        AtomicInteger threadNo = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                Thread thread = new Thread(r, "Export-Job-" + threadNo.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Export-Cache-Cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::cleanup, 60, 60, TimeUnit.SECONDS);
+
+        logger.info("내보내기 작업 시작 - 작업 스레드: {}, 대기열: {}, 사용자별 제한: {}, 캐시: {} ({}MB)",
+            workers, queueCapacity, maxPerUser, directory.getAbsolutePath(), cacheMaxBytes / (1024 * 1024));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 작업 제출 (캐시 적중 / 진행 중 작업 합류 / 새 작업)
+     *
+     * @throws IllegalStateException 사용자별 동시 작업 수 초과
+     * @throws RejectedExecutionException 작업 대기열 가득 참
+     */
+    public synchronized ExportJob submit(String userId, String sensorUuid, String sensorName,
+                                         LocalDate startDate, LocalDate endDate, Format format) {
+        String key = sensorUuid + "|" + sensorName + "|" + startDate + "|" + endDate + "|" + format.getExtension();
+
+        CacheEntry entry = cache.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis() && entry.file.isFile()) {
+            entry.lastAccess = System.currentTimeMillis();
+            ExportJob job = new ExportJob(key, sensorUuid, sensorName, startDate, endDate, format, userId);
+            job.file = entry.file;
+            job.bytes = entry.bytes;
+            job.cached = true;
+            job.status = Status.DONE;
+            job.progress(100, "캐시된 파일");
+            job.startedAt = job.finishedAt = System.currentTimeMillis();
+            jobs.put(job.id, job);
+            cacheHits.incrementAndGet();
+            return job;
+        }
+
+        ExportJob running = inflight.get(key);
+        if (running != null) {
+            running.userIds.add(userId);
+            deduplicated.incrementAndGet();
+            return running;
+        }
+
+        int active = 0;
+        for (ExportJob job : inflight.values()) {
+            if (job.ownerId.equals(userId)) {
+                active++;
+            }
+        }
+        if (active >= maxPerUser) {
+            userLimited.incrementAndGet();
+            throw new IllegalStateException("진행 중인 내보내기 작업이 " + active + "개 있습니다. 완료 후 다시 요청하세요.");
+        }
+
+        ExportJob job = new ExportJob(key, sensorUuid, sensorName, startDate, endDate, format, userId);
+        job.progress(0, "대기 중");
+        jobs.put(job.id, job);
+        inflight.put(key, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            inflight.remove(key);
+            rejected.incrementAndGet();
+            throw e;
+        }
+        submitted.incrementAndGet();
+        return job;
+    }
+
+    /**
+     * 작업 조회 (요청/합류한 사용자 또는 관리자만, 없으면 null)
+     */
+    public ExportJob getJob(String jobId, String userId, boolean admin) {
+        ExportJob job = jobId == null ? null : jobs.get(jobId);
+        if (job == null || !(admin || job.isAllowed(userId))) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * 완료된 작업 파일 (캐시에서 삭제되었으면 null - 다시 제출)
+     */
+    public File openFile(ExportJob job) {
+        if (job.status != Status.DONE) {
+            return null;
+        }
+        CacheEntry entry = cache.get(job.key);
+        if (entry == null || !entry.file.equals(job.file) || !entry.file.isFile()) {
+            return null;
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.file;
+    }
+
+    public void recordDownload(boolean sendfile, long bytes) {
+        downloads.incrementAndGet();
+        if (sendfile) {
+            sendfileDownloads.incrementAndGet();
+        }
+        downloadBytes.addAndGet(bytes);
+    }
+
+    private void run(ExportJob job) {
+        long startNanos = System.nanoTime();
+        job.startedAt = System.currentTimeMillis();
+        job.status = Status.RUNNING;
+        File part = new File(directory, job.id + ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(part), 65536)) {
+                render(job, out);
+            }
+            File target = new File(directory, job.id + "." + job.format.getExtension());
+            Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            long closedTtl = job.endDate.isBefore(LocalDate.now()) ? ttlMinutes : openTtlMinutes;
+            CacheEntry entry = new CacheEntry(job.key, target, target.length(),
+                System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(closedTtl));
+            CacheEntry previous = cache.put(job.key, entry);
+            if (previous != null) {
+                remove(previous);
+            }
+            cacheBytes.addAndGet(entry.bytes);
+            evict();
+
+            job.file = target;
+            job.bytes = entry.bytes;
+            job.progress(100, "완료");
+            job.status = Status.DONE;
+            completed.incrementAndGet();
+            logger.info("내보내기 작업 완료 - {} {} {} ~ {}, {}건, {}bytes, {}ms", job.format, job.sensorUuid,
+                job.startDate, job.endDate, job.rows, job.bytes, (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (Exception e) {
+            if (part.exists() && !part.delete()) {
+                logger.warn("내보내기 임시 파일 삭제 실패: {}", part.getName());
+            }
+            job.message = e instanceof IllegalStateException || e instanceof IllegalArgumentException
+                ? e.getMessage() : "내보내기 파일 작성 중 오류가 발생했습니다.";
+            job.status = Status.FAILED;
+            failed.incrementAndGet();
+            logger.error("내보내기 작업 실패 - {} {} {} ~ {}: {}", job.format, job.sensorUuid, job.startDate, job.endDate,
+                e.toString(), e);
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+            inflight.remove(job.key, job);
+            runNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void render(ExportJob job, OutputStream out) throws Exception {
+        if (job.format == Format.XLSX) {
+            job.progress(5, "데이터 집계 중");
+            List<ReportSeries> seriesList = reportAggregationService.aggregate(
+                Collections.singletonList(job.sensorUuid), job.startDate, job.endDate);
+            job.rows = seriesList.get(0).getRows();
+            if (job.rows == 0) {
+                throw new IllegalStateException("선택한 날짜 범위에 데이터가 없습니다.");
+            }
+            job.progress(60, "엑셀 작성 중");
+            reportAggregationService.writeExcel(seriesList, Collections.singletonList(job.sensorName), excelWindowRows, out);
+            return;
+        }
+
+        // 원본: 마지막으로 기록한 시각의 기간 내 위치로 진행률 추정
+        LocalDateTime start = job.startDate.atStartOfDay();
+        long totalMinutes = Math.max(1, ChronoUnit.MINUTES.between(start, job.endDate.plusDays(1).atStartOfDay()));
+        job.progress(0, "원본 기록 중");
+        sensorRawExportService.export(Collections.singletonList(job.sensorUuid),
+            job.startDate + " 00:00:00", job.endDate + " 23:59:59",
+            job.format == Format.CSV ? SensorRawExportService.Format.CSV : SensorRawExportService.Format.NDJSON,
+            null, out, (sensorIndex, lastInstDtm, writtenRows) -> {
+                job.rows = writtenRows;
+                try {
+                    long minutes = ChronoUnit.MINUTES.between(start, LocalDateTime.parse(lastInstDtm, DATE_TIME));
+                    job.percent = (int) Math.min(99, Math.max(0, minutes * 100 / totalMinutes));
+                } catch (DateTimeParseException e) {
+                    // 진행률 추정만 건너뜀
+                }
+            });
+    }
+
+    /** 캐시 크기 상한 초과 시 오래 사용하지 않은 파일부터 삭제 (방금 사용한 파일 제외) */
+    private void evict() {
+        if (cacheBytes.get() <= cacheMaxBytes) {
+            return;
+        }
+        List<CacheEntry> entries = new ArrayList<>(cache.values());
+        entries.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+        long pinnedSince = System.currentTimeMillis() - PIN_MILLIS;
+        for (CacheEntry entry : entries) {
+            if (cacheBytes.get() <= cacheMaxBytes) {
+                break;
+            }
+            if (entry.lastAccess < pinnedSince && cache.remove(entry.key, entry)) {
+                remove(entry);
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(CacheEntry entry) {
+        cacheBytes.addAndGet(-entry.bytes);
+        if (entry.file.exists() && !entry.file.delete()) {
+            logger.warn("내보내기 캐시 파일 삭제 실패: {}", entry.file.getName());
+        }
+    }
+
+    /** 만료 캐시 파일 / 보관 시간이 지난 작업 정리 */
+    private void cleanup() {
+        try {
+            long now = System.currentTimeMillis();
+            for (CacheEntry entry : cache.values()) {
+                if (entry.expiresAt <= now && entry.lastAccess < now - PIN_MILLIS && cache.remove(entry.key, entry)) {
+                    remove(entry);
+                    expired.incrementAndGet();
+                }
+            }
+            long retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+            jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < now - retentionMillis);
+            evict();
+        } catch (Exception e) {
+            logger.warn("내보내기 캐시 정리 실패: {}", e.toString());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long done = completed.get() + failed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", executor.getMaximumPoolSize());
+        stats.put("running", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("jobs", jobs.size());
+        stats.put("submitted", submitted.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("userLimited", userLimited.get());
+        stats.put("rejected", rejected.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("avgRunMs", done == 0 ? 0 : Math.round(runNanos.get() / (double) done / 10_000) / 100.0);
+        stats.put("cacheFiles", cache.size());
+        stats.put("cacheBytes", cacheBytes.get());
+        stats.put("cacheMaxBytes", cacheMaxBytes);
+        stats.put("evicted", evicted.get());
+        stats.put("expired", expired.get());
+        stats.put("downloads", downloads.get());
+        stats.put("sendfileDownloads", sendfileDownloads.get());
+        stats.put("downloadBytes", downloadBytes.get());
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package com.andrew.hnt.api.service;
 
 import com.andrew.hnt.api.util.StringUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import okhttp3.*;
 import org.slf4j.Logger;
@@ -10,16 +11,23 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * FCM v1 API 서비스 클래스
  * Legacy HTTP API에서 v1 API로 마이그레이션
+ *
+ * 액세스 토큰은 서비스 계정 키를 한 번만 읽어 캐시하고, 만료 전에 백그라운드에서 갱신
+ * (전송마다 키 파일 재조회 + OAuth 왕복 제거). 비동기 전송은 FcmDispatcher 사용
  */
 @Service
 public class FCMService {
@@ -38,9 +46,28 @@ public class FCMService {
     @Value("${custom.security.fcm.service-account-key-path:}")
     private String serviceAccountKeyPath;
     
+    // FCM 엔드포인트 (로컬 스텁 서버 테스트 시 변경)
+    @Value("${custom.security.fcm.endpoint:https://fcm.googleapis.com}")
+    private String endpoint;
+    
+    // 만료 몇 초 전에 토큰을 갱신할지
+    @Value("${custom.security.fcm.token-refresh-ahead-seconds:300}")
+    private long tokenRefreshAheadSeconds;
+    
     private final OkHttpClient client;
     private final ObjectMapper objectMapper;
     
+    // 액세스 토큰 캐시
+    private GoogleCredentials credentials;
+    private volatile String cachedToken;
+    private volatile long cachedTokenExpiresAt = 0;
+    private ScheduledExecutorService tokenRefresher;
+    
+    // 통계 정보
+    private final AtomicLong tokenRefreshes = new AtomicLong(0);
+    private final AtomicLong tokenRefreshFailures = new AtomicLong(0);
+    private volatile long lastTokenRefreshTime = 0;
+    
     public FCMService() {
         this.client = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
@@ -64,7 +91,60 @@ public class FCMService {
         logger.info("   - Project ID: {}", projectId);
         logger.info("   - Service Account Key: {}", serviceAccountKeyPath);
         logger.info("   - Legacy API Key: {}", apiKey != null ? "설정됨" : "설정되지 않음");
+        logger.info("   - Endpoint: {}", endpoint);
         logger.info("===============================================");
+        
+        // 서비스 계정 키가 있으면 토큰 선발급 후 주기적으로 만료 임박 여부 확인
+        if (!StringUtil.isEmpty(serviceAccountKeyPath)) {
+            tokenRefresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "FCM-TokenRefresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            tokenRefresher.execute(this::refreshAccessTokenIfNeeded);
+            tokenRefresher.scheduleWithFixedDelay(this::refreshAccessTokenIfNeeded, 60, 60, TimeUnit.SECONDS);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (tokenRefresher != null) {
+            tokenRefresher.shutdownNow();
+        }
+    }
+    
+    /**
+     * FCM v1 전송 요청 생성 (동기/비동기 전송 공용)
+     */
+    public Request buildSendRequest(String token, String title, String body, Map<String, String> data) throws IOException {
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, Object> message = new HashMap<>();
+        
+        message.put("token", token);
+        
+        Map<String, String> notification = new HashMap<>();
+        notification.put("title", title);
+        notification.put("body", body);
+        message.put("notification", notification);
+        
+        if (data != null && !data.isEmpty()) {
+            message.put("data", data);
+        }
+        
+        requestBody.put("message", message);
+        
+        String jsonBody = objectMapper.writeValueAsString(requestBody);
+        
+        return new Request.Builder()
+                .url(getSendUrl())
+                .addHeader("Authorization", "Bearer " + getAuthToken())
+                .addHeader("Content-Type", "application/json")
+                .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
+                .build();
+    }
+    
+    private String getSendUrl() {
+        return endpoint + "/v1/projects/" + projectId + "/messages:send";
     }
     
     /**
@@ -86,44 +166,7 @@ public class FCMService {
             logger.info("   - 추가 데이터: {}", data != null ? data.size() + "개" : "없음");
             logger.info("===============================================");
             
-            // FCM v1 API 요청 본문 구성
-            Map<String, Object> requestBody = new HashMap<>();
-            Map<String, Object> message = new HashMap<>();
-            
-            message.put("token", token);
-            
-            // 알림 설정
-            Map<String, String> notification = new HashMap<>();
-            notification.put("title", title);
-            notification.put("body", body);
-            message.put("notification", notification);
-            
-            // 데이터 설정
-            if (data != null && !data.isEmpty()) {
-                message.put("data", data);
-            }
-            
-            requestBody.put("message", message);
-            
-            // JSON 변환
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            
-            // 톰캣 서버에 요청 본문 로그 출력
-            logger.info("===============================================");
-            logger.info("📋 FCM v1 API 요청 본문 생성 완료");
-            logger.info("   - 요청 URL: https://fcm.googleapis.com/v1/projects/{}/messages:send", projectId);
-            logger.info("   - 요청 본문: {}", jsonBody);
-            logger.info("===============================================");
-            
-            // HTTP 요청 생성
-            RequestBody body1 = RequestBody.create(jsonBody, MediaType.parse("application/json"));
-            
-            Request request = new Request.Builder()
-                    .url("https://fcm.googleapis.com/v1/projects/" + projectId + "/messages:send")
-                    .addHeader("Authorization", "Bearer " + getAuthToken())
-                    .addHeader("Content-Type", "application/json")
-                    .post(body1)
-                    .build();
+            Request request = buildSendRequest(token, title, body, data);
             
             // 톰캣 서버에 HTTP 요청 전송 로그 출력
             logger.info("===============================================");
@@ -250,64 +293,84 @@ public class FCMService {
     }
     
     /**
-     * OAuth 2.0 액세스 토큰 발급
-     * @return 액세스 토큰 또는 null
+     * 캐시된 토큰이 없거나 만료 임박 시 갱신 (백그라운드 스레드 / 캐시 미스 시 호출 스레드)
      */
-    private String getAccessToken() {
+    private synchronized void refreshAccessTokenIfNeeded() {
+        if (cachedToken != null
+                && cachedTokenExpiresAt - System.currentTimeMillis() > TimeUnit.SECONDS.toMillis(tokenRefreshAheadSeconds)) {
+            return;
+        }
+        
         try {
-            if (StringUtil.isEmpty(serviceAccountKeyPath)) {
-                logger.warn("===============================================");
-                logger.warn("⚠️ 서비스 계정 키 경로가 설정되지 않음");
-                logger.warn("   - 환경변수 FCM_SERVICE_ACCOUNT_KEY_PATH 확인 필요");
-                logger.warn("===============================================");
-                return null;
+            if (credentials == null) {
+                credentials = loadCredentials();
             }
+            credentials.refresh();
+            AccessToken accessToken = credentials.getAccessToken();
             
-            // 톰캣 서버에 OAuth 2.0 토큰 발급 시작 로그
-            logger.info("===============================================");
-            logger.info("🔑 OAuth 2.0 액세스 토큰 발급 시작");
-            logger.info("   - 서비스 계정 키: {}", serviceAccountKeyPath);
-            logger.info("===============================================");
+            cachedToken = accessToken.getTokenValue();
+            cachedTokenExpiresAt = accessToken.getExpirationTime() != null
+                    ? accessToken.getExpirationTime().getTime()
+                    : System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(50);
+            lastTokenRefreshTime = System.currentTimeMillis();
+            tokenRefreshes.incrementAndGet();
             
-            // GoogleCredentials 사용하여 토큰 발급
-            InputStream inputStream;
-            if (serviceAccountKeyPath.startsWith("classpath:")) {
-                // classpath 리소스에서 읽기
-                String resourcePath = serviceAccountKeyPath.substring("classpath:".length());
-                inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
-                if (inputStream == null) {
-                    throw new IOException("리소스를 찾을 수 없습니다: " + resourcePath);
-                }
-            } else {
-                // 파일 시스템에서 읽기
-                inputStream = new FileInputStream(serviceAccountKeyPath);
+            logger.info("OAuth 2.0 액세스 토큰 갱신 - 만료: {}", new java.util.Date(cachedTokenExpiresAt));
+        } catch (Exception e) {
+            tokenRefreshFailures.incrementAndGet();
+            logger.error("OAuth 2.0 액세스 토큰 갱신 실패 - 키 경로: {}, 오류: {}", serviceAccountKeyPath, e.toString());
+        }
+    }
+    
+    /**
+     * 서비스 계정 키 로드 (최초 1회)
+     */
+    private GoogleCredentials loadCredentials() throws IOException {
+        InputStream inputStream;
+        if (serviceAccountKeyPath.startsWith("classpath:")) {
+            // classpath 리소스에서 읽기
+            String resourcePath = serviceAccountKeyPath.substring("classpath:".length());
+            inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
+            if (inputStream == null) {
+                throw new IOException("리소스를 찾을 수 없습니다: " + resourcePath);
             }
-            
-            GoogleCredentials credentials = GoogleCredentials
-                .fromStream(inputStream)
+        } else {
+            // 파일 시스템에서 읽기
+            inputStream = new FileInputStream(serviceAccountKeyPath);
+        }
+        
+        try (InputStream in = inputStream) {
+            return GoogleCredentials
+                .fromStream(in)
                 .createScoped("https://www.googleapis.com/auth/firebase.messaging");
-            
-            credentials.refreshIfExpired();
-            String token = credentials.getAccessToken().getTokenValue();
-            
-            logger.info("===============================================");
-            logger.info("✅ OAuth 2.0 액세스 토큰 발급 성공!");
-            logger.info("   - 토큰 길이: {} 자", token.length());
-            logger.info("   - 토큰 시작: {}...", token.substring(0, Math.min(token.length(), 20)));
-            logger.info("===============================================");
-            return token;
-            
-        } catch (Exception e) {
-            logger.error("===============================================");
-            logger.error("❌ OAuth 2.0 액세스 토큰 발급 실패!");
-            logger.error("   - 예외 타입: {}", e.getClass().getSimpleName());
-            logger.error("   - 예외 메시지: {}", e.getMessage());
-            logger.error("   - 서비스 계정 키 경로: {}", serviceAccountKeyPath);
-            logger.error("   - 발생 시간: {}", java.time.LocalDateTime.now());
-            logger.error("   - 스택 트레이스:", e);
-            logger.error("===============================================");
+        }
+    }
+    
+    /**
+     * OAuth 2.0 액세스 토큰 (캐시)
+     * @return 액세스 토큰 또는 null
+     */
+    private String getAccessToken() {
+        if (StringUtil.isEmpty(serviceAccountKeyPath)) {
             return null;
         }
+        
+        String token = cachedToken;
+        if (token != null && cachedTokenExpiresAt > System.currentTimeMillis()) {
+            return token;
+        }
+        
+        // 캐시 미스 (기동 직후 / 백그라운드 갱신 실패) - 호출 스레드에서 갱신
+        refreshAccessTokenIfNeeded();
+        token = cachedToken;
+        return token != null && cachedTokenExpiresAt > System.currentTimeMillis() ? token : null;
+    }
+    
+    /**
+     * 인증 실패(401) 응답 시 캐시된 토큰 폐기 (다음 요청에서 재발급)
+     */
+    public void invalidateAccessToken() {
+        cachedTokenExpiresAt = 0;
     }
     
     /**
@@ -322,11 +385,21 @@ public class FCMService {
         }
         
         // Fallback: Legacy API 키 사용
-        logger.warn("===============================================");
-        logger.warn("🔄 FCM v1 API → Legacy API 전환");
-        logger.warn("   - OAuth 2.0 토큰 발급 실패로 Legacy API 키 사용");
-        logger.warn("   - API 키 길이: {} 자", apiKey != null ? apiKey.length() : 0);
-        logger.warn("===============================================");
+        logger.debug("OAuth 2.0 토큰 없음 - Legacy API 키 사용");
         return apiKey;
     }
+    
+    /**
+     * 토큰 캐시 통계
+     */
+    public Map<String, Object> getTokenStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("oauthConfigured", !StringUtil.isEmpty(serviceAccountKeyPath));
+        stats.put("tokenCached", cachedToken != null && cachedTokenExpiresAt > System.currentTimeMillis());
+        stats.put("tokenExpiresAt", cachedTokenExpiresAt);
+        stats.put("tokenRefreshes", tokenRefreshes.get());
+        stats.put("tokenRefreshFailures", tokenRefreshFailures.get());
+        stats.put("lastTokenRefreshTime", lastTokenRefreshTime);
+        return stats;
+    }
 }
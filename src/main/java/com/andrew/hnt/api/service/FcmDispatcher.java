@@ -0,0 +1,347 @@
+package com.andrew.hnt.api.service;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FCM 비동기 발송기
+ * 호출 스레드(수신/스케줄러)를 막지 않도록 FCM v1 전송을 비동기로 처리
+ *
+ * - OkHttp 비동기 호출, 호스트당 동시 요청 수 제한 (초과분은 OkHttp 대기열)
+ * - 대기 + 진행 중 전송 수 상한 (초과 시 즉시 실패 처리 → 호출 측 MQTT 백업)
+ * - 429 / 5xx / 네트워크 오류는 지수 백오프 + 지터로 재시도 (Retry-After 우선)
+ * - 같은 (토큰, 센서, 알람 종류) 알림은 병합 구간 내 한 번만 발송
+ */
+@Service
+public class FcmDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FcmDispatcher.class);
+
+    @Autowired
+    private FCMService fcmService;
+
+    @Value("${custom.notification.fcm.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${custom.notification.fcm.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${custom.notification.fcm.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    @Value("${custom.notification.fcm.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${custom.notification.fcm.backoff-base-ms:500}")
+    private long backoffBaseMs;
+
+    @Value("${custom.notification.fcm.backoff-max-ms:30000}")
+    private long backoffMaxMs;
+
+    @Value("${custom.notification.fcm.coalesce-window-ms:30000}")
+    private long coalesceWindowMs;
+
+    private OkHttpClient client;
+    private ScheduledExecutorService retryScheduler;
+
+    // 병합 키 -> 발송 결과 (병합 구간 동안 유지)
+    private final ConcurrentHashMap<String, Coalesced> coalescing = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pending = new AtomicInteger(0);
+
+    // 통계 정보
+    private final AtomicLong submitted = new AtomicLong(0);
+    private final AtomicLong sent = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong retried = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong latencyMsTotal = new AtomicLong(0);
+    private final AtomicLong maxLatencyMs = new AtomicLong(0);
+    private final AtomicLong lastStatus = new AtomicLong(0);
+
+    /**
+     * 병합 대상 발송 결과
+     */
+    private static final class Coalesced {
+        private final CompletableFuture<Boolean> future;
+        private final long createdAt;
+
+        private Coalesced(CompletableFuture<Boolean> future, long createdAt) {
+            this.future = future;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * 발송 작업 (재시도 간 유지)
+     */
+    private static final class Job {
+        private final String token;
+        private final String title;
+        private final String body;
+        private final Map<String, String> data;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private final long submittedAt = System.currentTimeMillis();
+        private int attempt = 0;
+        private boolean authRetried = false;
+
+        private Job(String token, String title, String body, Map<String, String> data) {
+            this.token = token;
+            this.title = title;
+            this.body = body;
+            this.data = data;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConcurrency);
+        dispatcher.setMaxRequestsPerHost(maxConcurrency);
+
+        client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(Math.max(2, maxConcurrency), 5, TimeUnit.MINUTES))
+                .connectTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .readTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .writeTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .build();
+
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "FCM-Retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryScheduler.scheduleWithFixedDelay(this::purgeCoalescing,
+            coalesceWindowMs, Math.max(1000, coalesceWindowMs), TimeUnit.MILLISECONDS);
+
+        logger.info("FCM 비동기 발송기 초기화 - 동시 요청: {}, 대기 상한: {}, 최대 시도: {}, 병합 구간: {}ms",
+            maxConcurrency, queueCapacity, maxAttempts, coalesceWindowMs);
+    }
+
+    /**
+     * 비동기 발송
+     * @param coalesceKey 병합 키 (null 이면 병합하지 않음)
+     * @return 최종 성공 여부 (재시도 포함, 예외 없이 완료)
+     */
+    public CompletableFuture<Boolean> send(String token, String title, String body,
+                                           Map<String, String> data, String coalesceKey) {
+        if (coalesceKey == null) {
+            return submit(token, title, body, data);
+        }
+
+        long now = System.currentTimeMillis();
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Coalesced entry = coalescing.compute(coalesceKey, (key, existing) -> {
+            // 구간 내 진행 중이거나 성공한 동일 알림은 재사용 (실패한 결과는 재발송)
+            if (existing != null && now - existing.createdAt < coalesceWindowMs
+                    && !(existing.future.isDone() && !existing.future.getNow(false))) {
+                return existing;
+            }
+            return new Coalesced(future, now);
+        });
+
+        if (entry.future != future) {
+            coalesced.incrementAndGet();
+            logger.debug("FCM 알림 병합 - key: {}", coalesceKey);
+            return entry.future;
+        }
+
+        submit(token, title, body, data).thenAccept(future::complete);
+        return future;
+    }
+
+    private CompletableFuture<Boolean> submit(String token, String title, String body, Map<String, String> data) {
+        submitted.incrementAndGet();
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            rejected.incrementAndGet();
+            logger.warn("FCM 발송 대기열 초과 - 대기: {}, 상한: {}", pending.get(), queueCapacity);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Job job = new Job(token, title, body, data);
+        attempt(job);
+        return job.future;
+    }
+
+    private void attempt(Job job) {
+        job.attempt++;
+        Request request;
+        try {
+            request = fcmService.buildSendRequest(job.token, job.title, job.body, job.data);
+        } catch (Exception e) {
+            logger.error("FCM 요청 생성 실패 - {}", e.toString());
+            complete(job, false);
+            return;
+        }
+
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    int code = r.code();
+                    lastStatus.set(code);
+                    if (r.isSuccessful()) {
+                        complete(job, true);
+                    } else if (code == 401 && !job.authRetried) {
+                        // 토큰 만료/폐기 - 캐시 폐기 후 즉시 1회 재시도
+                        job.authRetried = true;
+                        fcmService.invalidateAccessToken();
+                        retry(job, 0);
+                    } else if (code == 429 || code >= 500) {
+                        retryOrFail(job, parseRetryAfterMs(r.header("Retry-After")), "HTTP " + code);
+                    } else {
+                        // 400 / 404(UNREGISTERED) 등 재시도해도 실패하는 응답
+                        String responseBody = r.body() != null ? r.body().string() : "";
+                        logger.warn("FCM 발송 실패 - 응답 코드: {}, 응답: {}", code, responseBody);
+                        complete(job, false);
+                    }
+                } catch (IOException e) {
+                    retryOrFail(job, -1, e.toString());
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                retryOrFail(job, -1, e.toString());
+            }
+        });
+    }
+
+    private void retryOrFail(Job job, long retryAfterMs, String reason) {
+        if (job.attempt >= maxAttempts) {
+            logger.warn("FCM 발송 실패 - {}회 시도, 사유: {}", job.attempt, reason);
+            complete(job, false);
+            return;
+        }
+        long delayMs = retryAfterMs >= 0 ? Math.min(retryAfterMs, backoffMaxMs) : backoffMs(job.attempt);
+        logger.debug("FCM 재시도 예정 - {}ms 후 ({}회차), 사유: {}", delayMs, job.attempt + 1, reason);
+        retry(job, delayMs);
+    }
+
+    private void retry(Job job, long delayMs) {
+        retried.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> attempt(job), delayMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // 종료 중
+            complete(job, false);
+        }
+    }
+
+    /**
+     * 지수 백오프 + 지터 (base * 2^(n-1) 의 50~100%)
+     */
+    private long backoffMs(int attempt) {
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(20, attempt - 1));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Retry-After 헤더 (초 또는 HTTP 날짜) -> 밀리초, 없으면 -1
+     */
+    static long parseRetryAfterMs(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String text = value.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(text)));
+        } catch (NumberFormatException e) {
+            try {
+                long at = ZonedDateTime.parse(text, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Math.max(0, at - System.currentTimeMillis());
+            } catch (Exception ignore) {
+                return -1;
+            }
+        }
+    }
+
+    private void complete(Job job, boolean success) {
+        pending.decrementAndGet();
+        long latency = System.currentTimeMillis() - job.submittedAt;
+        if (success) {
+            sent.incrementAndGet();
+            latencyMsTotal.addAndGet(latency);
+            long max = maxLatencyMs.get();
+            while (latency > max && !maxLatencyMs.compareAndSet(max, latency)) {
+                max = maxLatencyMs.get();
+            }
+        } else {
+            failed.incrementAndGet();
+        }
+        job.future.complete(success);
+    }
+
+    private void purgeCoalescing() {
+        long now = System.currentTimeMillis();
+        coalescing.entrySet().removeIf(e -> now - e.getValue().createdAt >= coalesceWindowMs && e.getValue().future.isDone());
+    }
+
+    /**
+     * 통계 정보 반환 (대기열 깊이, 발송 지연, 토큰 캐시)
+     */
+    public Map<String, Object> getStats() {
+        long sentCount = sent.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", pending.get());
+        if (client != null) {
+            stats.put("inFlight", client.dispatcher().runningCallsCount());
+            stats.put("httpQueued", client.dispatcher().queuedCallsCount());
+        }
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("submitted", submitted.get());
+        stats.put("sent", sentCount);
+        stats.put("failed", failed.get());
+        stats.put("retried", retried.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("rejected", rejected.get());
+        stats.put("avgLatencyMs", sentCount > 0 ? latencyMsTotal.get() / (double) sentCount : 0.0);
+        stats.put("maxLatencyMs", maxLatencyMs.get());
+        stats.put("lastStatus", lastStatus.get());
+        stats.put("coalescingKeys", coalescing.size());
+        stats.putAll(fcmService.getTokenStats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+        if (client != null) {
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        }
+        logger.info("FCM 비동기 발송기 종료 - 발송: {}, 실패: {}, 병합: {}", sent.get(), failed.get(), coalesced.get());
+    }
+}
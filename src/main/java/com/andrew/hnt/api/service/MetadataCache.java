@@ -0,0 +1,382 @@
+package com.andrew.hnt.api.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import com.andrew.hnt.api.mqtt.SensorAlarmConfigCache;
+
+/**
+ * 센서/계정 메타데이터 캐시
+ * 페이지 로드/권한 확인마다 조회하던 센서 목록, 센서 정보, 부계정 관계를 메모리 조회로 대체
+ *
+ * - 영역별 크기 제한 LRU (max-entries), TTL 은 다른 경로의 DB 변경 대비 안전장치
+ * - 쓰기 경로(장치 등록/삭제/이름 변경, 부계정 생성, 등급 변경, 사용자 삭제)에서 sensorChanged / userChanged 로 즉시 무효화
+ *   (커밋 후, 읽기 복제본 사용 시 복제 지연 허용 시간 후 한 번 더)
+ * - 조회 결과가 없는 경우도 캐시 (없는 센서 반복 조회 방지), 조회 실패는 캐시하지 않음
+ * - 호출한 쪽에서 결과 맵을 수정하므로 적중 시 복사본 반환
+ * - FCM 토큰은 SensorAlarmConfigCache 의 토큰 캐시를 함께 사용
+ */
+@Service
+public class MetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    private static final char SEPARATOR = '|';
+
+    @Autowired
+    private AdminMapper adminMapper;
+
+    @Autowired
+    private SensorAlarmConfigCache alarmConfigCache;
+
+    @Value("${custom.metadata-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${custom.metadata-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${custom.metadata-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // userId|sensorId -> 센서 목록 (getSensorListBySensorId)
+    private final Region<List<Map<String, Object>>> sensorLists = new Region<>("sensorList");
+    // sensorUuid|userId -> 센서 정보 (getSensorInfoByUuid)
+    private final Region<Map<String, Object>> sensorInfoByUuid = new Region<>("sensorInfoByUuid");
+    // userId|sensorUuid -> 센서 정보 (getSensorInfo)
+    private final Region<Map<String, Object>> sensorInfo = new Region<>("sensorInfo");
+    // userId -> 부계정 여부 (SubAccountService.isSubAccount)
+    private final Region<Boolean> subAccounts = new Region<>("subAccount");
+    // subUserId -> 주계정 ID (SubAccountService.getMainUserIdForSubUser)
+    private final Region<String> mainUserIds = new Region<>("mainUserId");
+
+    @Value("${custom.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    @Value("${custom.datasource.replica.max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${custom.datasource.replica.check-interval-ms:5000}")
+    private long replicaCheckIntervalMs;
+
+    // 읽기 복제본 사용 시 지연 무효화
+    private ScheduledExecutorService replicaInvalidator;
+
+    private final AtomicLong sensorEvents = new AtomicLong(0);
+    private final AtomicLong userEvents = new AtomicLong(0);
+
+    /**
+     * 캐시 영역 (크기 제한 LRU + TTL, 값 null 도 캐시)
+     */
+    private final class Region<V> {
+        private final String name;
+        private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<String, Entry<V>>(256, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        // 무효화 세대 (조회 중 무효화된 값을 캐시에 넣지 않기 위함)
+        private long generation;
+
+        // 통계 정보
+        private final AtomicLong hits = new AtomicLong(0);
+        private final AtomicLong misses = new AtomicLong(0);
+        private final AtomicLong expired = new AtomicLong(0);
+        private final AtomicLong evictions = new AtomicLong(0);
+        private final AtomicLong invalidated = new AtomicLong(0);
+        private final AtomicLong loadErrors = new AtomicLong(0);
+
+        private Region(String name) {
+            this.name = name;
+        }
+
+        /** 캐시 값 또는 loader 결과 (loader 예외는 캐시하지 않고 그대로 전달) */
+        V get(String key, Supplier<V> loader) {
+            if (!enabled) {
+                return loader.get();
+            }
+            long gen;
+            synchronized (this) {
+                Entry<V> cached = entries.get(key);
+                if (cached != null) {
+                    if (System.currentTimeMillis() - cached.loadedAt < ttlSeconds * 1000) {
+                        hits.incrementAndGet();
+                        return cached.value;
+                    }
+                    entries.remove(key);
+                    expired.incrementAndGet();
+                } else {
+                    misses.incrementAndGet();
+                }
+                gen = generation;
+            }
+
+            V value;
+            try {
+                value = loader.get();
+            } catch (RuntimeException e) {
+                loadErrors.incrementAndGet();
+                throw e;
+            }
+            synchronized (this) {
+                if (gen == generation) {
+                    entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+                }
+            }
+            return value;
+        }
+
+        synchronized void invalidateIf(BiPredicate<String, V> predicate) {
+            generation++;
+            int before = entries.size();
+            entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value));
+            invalidated.addAndGet(before - entries.size());
+        }
+
+        synchronized void clear() {
+            generation++;
+            invalidated.addAndGet(entries.size());
+            entries.clear();
+        }
+
+        Map<String, Object> getStats() {
+            long hit = hits.get();
+            long miss = misses.get() + expired.get();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            synchronized (this) {
+                stats.put("entries", entries.size());
+            }
+            stats.put("hits", hit);
+            stats.put("misses", misses.get());
+            stats.put("expired", expired.get());
+            stats.put("hitRate", hit + miss > 0 ? Math.round((double) hit / (hit + miss) * 10000) / 100.0 : 0.0);
+            stats.put("evictions", evictions.get());
+            stats.put("invalidated", invalidated.get());
+            stats.put("loadErrors", loadErrors.get());
+            return stats;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (replicaEnabled) {
+            replicaInvalidator = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "Metadata-Cache-Invalidator");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (replicaInvalidator != null) {
+            replicaInvalidator.shutdownNow();
+        }
+    }
+
+    /**
+     * 사용자의 특정 센서 ID 목록 (AdminMapper.getSensorListBySensorId)
+     */
+    public List<Map<String, Object>> getSensorListBySensorId(String userId, String sensorId) {
+        List<Map<String, Object>> list = sensorLists.get(key(userId, sensorId), () -> {
+            Map<String, Object> param = new HashMap<>();
+            param.put("userId", userId);
+            param.put("sensorId", sensorId);
+            List<Map<String, Object>> rows = adminMapper.getSensorListBySensorId(param);
+            return rows == null ? null : Collections.unmodifiableList(rows);
+        });
+        if (list == null) {
+            return null;
+        }
+        List<Map<String, Object>> copy = new ArrayList<>(list.size());
+        for (Map<String, Object> row : list) {
+            copy.add(copyOf(row));
+        }
+        return copy;
+    }
+
+    /**
+     * UUID 로 센서 정보 (AdminMapper.getSensorInfoByUuid, userId 가 없으면 UUID 만으로 조회)
+     */
+    public Map<String, Object> getSensorInfoByUuid(String sensorUuid, String userId) {
+        return copyOf(sensorInfoByUuid.get(key(sensorUuid, userId), () -> {
+            Map<String, Object> param = new HashMap<>();
+            param.put("sensorUuid", sensorUuid);
+            param.put("userId", userId);
+            return adminMapper.getSensorInfoByUuid(param);
+        }));
+    }
+
+    /**
+     * 사용자 센서 정보 (AdminMapper.getSensorInfo, sensorUuid 가 없으면 사용자 조건만)
+     */
+    public Map<String, Object> getSensorInfo(String userId, String sensorUuid) {
+        return copyOf(sensorInfo.get(key(userId, sensorUuid), () -> {
+            Map<String, Object> param = new HashMap<>();
+            param.put("userId", userId);
+            param.put("sensorUuid", sensorUuid);
+            return adminMapper.getSensorInfo(param);
+        }));
+    }
+
+    /**
+     * 부계정 여부 (loader: SubAccountService 의 parent_user_id / sensor_info 조회)
+     */
+    public boolean isSubAccount(String userId, Supplier<Boolean> loader) {
+        return Boolean.TRUE.equals(subAccounts.get(userId, loader));
+    }
+
+    /**
+     * 부계정의 주계정 ID (loader: SubAccountService 의 parent_user_id / sensor_info 조회)
+     */
+    public String getMainUserId(String subUserId, Supplier<String> loader) {
+        return mainUserIds.get(subUserId, loader);
+    }
+
+    /**
+     * 센서 변경 (등록/삭제/이름 변경) - 해당 UUID 센서 정보, 센서 목록 전체,
+     * 센서 행이 부계정 판정 보조 조건이므로 계정 관계도 무효화 (sensorUuid 가 null 이면 센서 정보 전체)
+     */
+    public void sensorChanged(String sensorUuid) {
+        sensorEvents.incrementAndGet();
+        invalidateSensor(sensorUuid);
+        afterWrite(() -> invalidateSensor(sensorUuid));
+    }
+
+    private void invalidateSensor(String sensorUuid) {
+        sensorInfoByUuid.invalidateIf((k, v) -> sensorUuid == null || sensorUuid.equals(part(k, 0)));
+        sensorInfo.invalidateIf((k, v) -> sensorUuid == null || sensorUuid.equals(part(k, 1)) || part(k, 1).isEmpty());
+        sensorLists.clear();
+        subAccounts.clear();
+        mainUserIds.clear();
+        logger.debug("메타데이터 캐시 센서 무효화 - sensorUuid: {}", sensorUuid);
+    }
+
+    /**
+     * 사용자 변경 (부계정 생성, 등급 변경, 사용자 삭제) - 해당 사용자 항목과 이 사용자를 주계정으로 둔 부계정 항목
+     */
+    public void userChanged(String userId) {
+        if (userId == null) {
+            return;
+        }
+        userEvents.incrementAndGet();
+        invalidateUser(userId);
+        afterWrite(() -> invalidateUser(userId));
+    }
+
+    private void invalidateUser(String userId) {
+        sensorLists.invalidateIf((k, v) -> userId.equals(part(k, 0)));
+        sensorInfoByUuid.invalidateIf((k, v) -> userId.equals(part(k, 1)));
+        sensorInfo.invalidateIf((k, v) -> userId.equals(part(k, 0)));
+        subAccounts.invalidateIf((k, v) -> userId.equals(k));
+        mainUserIds.invalidateIf((k, v) -> userId.equals(k) || userId.equals(v));
+        alarmConfigCache.invalidateUserToken(userId);
+        logger.debug("메타데이터 캐시 사용자 무효화 - userId: {}", userId);
+    }
+
+    /**
+     * 전체 무효화
+     */
+    public void invalidateAll() {
+        sensorLists.clear();
+        sensorInfoByUuid.clear();
+        sensorInfo.clear();
+        subAccounts.clear();
+        mainUserIds.clear();
+        logger.info("메타데이터 캐시 전체 무효화");
+    }
+
+    /**
+     * 변경 이후 한 번 더 무효화
+     * - 쓰기 트랜잭션 안이면 커밋 후 (커밋 전에 다른 요청이 이전 값을 다시 적재한 경우 대비)
+     * - 읽기 복제본 사용 시 복제 지연 허용 시간 후 (복제본에서 이전 값을 다시 적재한 경우 대비)
+     */
+    private void afterWrite(Runnable invalidation) {
+        Runnable committed = () -> {
+            invalidation.run();
+            if (replicaInvalidator != null) {
+                replicaInvalidator.schedule(invalidation, replicaMaxLagSeconds * 1000 + replicaCheckIntervalMs,
+                    TimeUnit.MILLISECONDS);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.run();
+                }
+            });
+        } else if (replicaInvalidator != null) {
+            committed.run();
+        }
+    }
+
+    private static String key(String first, String second) {
+        return (first != null ? first : "") + SEPARATOR + (second != null ? second : "");
+    }
+
+    private static String part(String key, int index) {
+        int separator = key.indexOf(SEPARATOR);
+        return index == 0 ? key.substring(0, separator) : key.substring(separator + 1);
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> row) {
+        return row != null ? new HashMap<>(row) : null;
+    }
+
+    /**
+     * 통계 정보 반환 (영역별 적중률 / 항목 수 / 무효화)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("sensorEvents", sensorEvents.get());
+        stats.put("userEvents", userEvents.get());
+        for (Region<?> region : new Region<?>[] {sensorLists, sensorInfoByUuid, sensorInfo, subAccounts, mainUserIds}) {
+            stats.put(region.name, region.getStats());
+        }
+        return stats;
+    }
+}
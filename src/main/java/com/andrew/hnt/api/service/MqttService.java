@@ -1,8 +1,10 @@
 package com.andrew.hnt.api.service;
 
 import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.mqtt.MqttPayloadDecoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Map;
 
 @Service
@@ -10,7 +12,21 @@ public interface MqttService {
 
     public Map<String, Object> getData() throws Exception;
 
+    /**
+     * 센서 목록의 최신값 스냅샷 조회
+     * @param uuids 센서 UUID 목록
+     * @param sinceVersion 이 버전 이후 변경분만 조회 (0 이하이면 전체)
+     * @return version, full, sensors
+     */
+    public Map<String, Object> getSensorSnapshot(Collection<String> uuids, long sinceVersion);
+
     public void insertSensorData(SensorVO sensorVO) throws Exception;
 
     public void receiveData(String str);
+
+    /**
+     * 디코딩된 MQTT 메시지 처리 (MQTT.messageArrived에서 단일 디코딩 후 호출)
+     * @param reading MqttPayloadDecoder 결과
+     */
+    public void receiveReading(MqttPayloadDecoder.SensorReading reading);
 }
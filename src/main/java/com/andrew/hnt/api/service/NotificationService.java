@@ -15,6 +15,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 이중화 알림 서비스 (FCM 우선, MQTT 백업)
  */
@@ -27,74 +29,53 @@ public class NotificationService {
     private MqttConnectionManager mqttConnectionManager;
     
     @Autowired(required = false)
-    private FCMService fcmService;
+    private FcmDispatcher fcmDispatcher;
     
     /**
-     * 이중화 알림 발송 (FCM 우선, MQTT 백업)
+     * 비동기 이중화 알림 발송 (FCM 우선, MQTT 백업) - 호출 스레드를 막지 않음
+     * 같은 (토큰, 센서, 알람 종류) 알림은 FcmDispatcher 병합 구간 내 한 번만 발송
      */
-    public boolean sendDualNotification(NotificationRequest request) {
+    public CompletableFuture<Boolean> sendDualNotificationAsync(NotificationRequest request) {
         String userId = request.getUserId();
         String fcmToken = request.getFcmToken();
         String sensorUuid = request.getSensorUuid();
         String message = request.getMessage();
         
-        logger.info("이중화 알림 발송 시작 - userId: {}, sensorUuid: {}", userId, sensorUuid);
-        
-        // 1. FCM 토큰이 있으면 FCM 발송 시도
-        if (fcmToken != null && !fcmToken.isEmpty() && !"null".equals(fcmToken)) {
-            boolean fcmSuccess = sendFcmNotification(fcmToken, sensorUuid, message);
-            
-            if (fcmSuccess) {
-                logger.info("FCM 알림 발송 성공 - userId: {}", userId);
-                return true;
-            } else {
-                logger.warn("FCM 알림 발송 실패 - MQTT 백업 사용 - userId: {}", userId);
-            }
-        } else {
-            logger.info("FCM 토큰 없음 - MQTT 알림 사용 - userId: {}", userId);
+        if (fcmDispatcher == null || fcmToken == null || fcmToken.isEmpty() || "null".equals(fcmToken)) {
+            logger.debug("FCM 토큰 없음 - MQTT 알림 사용 - userId: {}", userId);
+            return CompletableFuture.completedFuture(sendMqttNotification(userId, sensorUuid, message));
         }
         
-        // 2. FCM 실패 또는 토큰 없음 → MQTT 알림 발송
-        return sendMqttNotification(userId, sensorUuid, message);
+        java.util.Map<String, String> data = new java.util.HashMap<>();
+        data.put("sensorUuid", sensorUuid);
+        data.put("message", message);
+        data.put("type", "alarm");
+        
+        String alarmType = request.getAlarmType() != null ? request.getAlarmType() : "alarm";
+        String coalesceKey = fcmToken + "|" + sensorUuid + "|" + alarmType;
+        
+        return fcmDispatcher.send(fcmToken, "HnT 센서 알람", message, data, coalesceKey)
+            .thenApply(fcmSuccess -> {
+                if (fcmSuccess) {
+                    logger.info("FCM 알림 발송 성공 - userId: {}, sensorUuid: {}", userId, sensorUuid);
+                    return true;
+                }
+                logger.warn("FCM 알림 발송 실패 - MQTT 백업 사용 - userId: {}", userId);
+                return sendMqttNotification(userId, sensorUuid, message);
+            });
     }
     
     /**
-     * FCM v1 API 알림 발송
+     * 이중화 알림 발송 (FCM 우선, MQTT 백업)
+     * 발송 완료(재시도 포함)까지 대기 - 요청 처리 스레드 등 대기 가능한 호출 측에서 사용
      */
-    private boolean sendFcmNotification(String fcmToken, String sensorUuid, String message) {
+    public boolean sendDualNotification(NotificationRequest request) {
+        logger.info("이중화 알림 발송 시작 - userId: {}, sensorUuid: {}", request.getUserId(), request.getSensorUuid());
+        
         try {
-            // FCMService가 없으면 건너뛰기
-            if (fcmService == null) {
-                logger.warn("FCMService가 초기화되지 않음 - MQTT로 전환");
-                return false;
-            }
-            
-            logger.info("===============================================");
-            logger.info("📱 FCM v1 API 알림 발송 시작");
-            logger.info("   - FCM 토큰: {}...", fcmToken.substring(0, Math.min(fcmToken.length(), 20)));
-            logger.info("   - 센서 UUID: {}", sensorUuid);
-            logger.info("   - 메시지: {}", message);
-            
-            // FCM v1 API 호출
-            java.util.Map<String, String> data = new java.util.HashMap<>();
-            data.put("sensorUuid", sensorUuid);
-            data.put("message", message);
-            data.put("type", "alarm");
-            
-            boolean success = fcmService.sendNotification(
-                fcmToken, 
-                "HnT 센서 알람",  // title
-                message,          // body
-                data              // data
-            );
-            
-            logger.info("   - FCM v1 API 발송 결과: {}", success ? "성공" : "실패");
-            logger.info("===============================================");
-            
-            return success;
-            
+            return sendDualNotificationAsync(request).join();
         } catch (Exception e) {
-            logger.error("FCM v1 API 발송 오류", e);
+            logger.error("이중화 알림 발송 오류 - userId: {}", request.getUserId(), e);
             return false;
         }
     }
@@ -0,0 +1,339 @@
+package com.andrew.hnt.api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.service.SensorRollupService.Resolution;
+import com.andrew.hnt.api.util.ExcelUtils;
+
+/**
+ * 엑셀 보고서 집계 (센서별 단일 조회)
+ *
+ * - 센서별로 요청 기간을 한 번만 조회 (1분 롤업 사용 가능하면 롤업, 아니면 원본의 1분 구간 합계/건수)
+ * - 같은 합계/건수로 1분 / 일 계열을 한 번에 누적 (기본형 배열, 일 평균은 sum / count 가중 평균)
+ *   (통합 문서에 월 단위 시트가 없어 월 계열은 만들지 않음 - 월간 시트는 일 단위 행)
+ * - 여러 센서 보고서는 센서별로 제한된 fork-join 풀에서 병렬 집계
+ * - 단계별 소요 시간 (조회 / 집계 / 작성 / 전송) 로그 및 통계 (/monitoring/mqtt/pipeline 의 report)
+ */
+@Service
+public class ReportAggregationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportAggregationService.class);
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MINUTES_PER_DAY = 1440;
+
+    @Autowired
+    private DataMapper dataMapper;
+
+    @Autowired
+    private SensorRollupService sensorRollupService;
+
+    @Value("${custom.excel.report.parallelism:4}")
+    private int parallelism;
+
+    @Value("${custom.excel.report.max-days:732}")
+    private int maxDays;
+
+    @Value("${custom.excel.report.max-sensors:8}")
+    private int maxSensors;
+
+    private ForkJoinPool pool;
+
+    // 통계 정보
+    private final AtomicLong reports = new AtomicLong(0);
+    private final AtomicLong sensors = new AtomicLong(0);
+    private final AtomicLong minuteRows = new AtomicLong(0);
+    private final AtomicLong rollupScans = new AtomicLong(0);
+    private final AtomicLong rawScans = new AtomicLong(0);
+    private final AtomicLong errors = new AtomicLong(0);
+    private final AtomicLong queryNanos = new AtomicLong(0);
+    private final AtomicLong aggregateNanos = new AtomicLong(0);
+    private final AtomicLong renderNanos = new AtomicLong(0);
+    private final AtomicLong streamNanos = new AtomicLong(0);
+    private volatile Map<String, Object> lastReport;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public int getMaxSensors() {
+        return maxSensors;
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    /**
+     * 센서별 집계 (startDate 00:00:00 ~ endDate 23:59:59, 센서가 둘 이상이면 병렬)
+     */
+    public List<ReportSeries> aggregate(List<String> sensorUuids, LocalDate startDate, LocalDate endDate) throws Exception {
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days < 1 || days > maxDays) {
+            throw new IllegalArgumentException("보고서 기간은 1일 ~ " + maxDays + "일 이어야 합니다: " + startDate + " ~ " + endDate);
+        }
+        List<ReportSeries> seriesList = new ArrayList<>();
+        try {
+            if (sensorUuids.size() == 1) {
+                seriesList.add(aggregateSensor(sensorUuids.get(0), startDate, endDate));
+            } else {
+                List<Callable<ReportSeries>> tasks = new ArrayList<>();
+                for (String sensorUuid : sensorUuids) {
+                    tasks.add(() -> aggregateSensor(sensorUuid, startDate, endDate));
+                }
+                for (Future<ReportSeries> future : pool.invokeAll(tasks)) {
+                    seriesList.add(future.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            errors.incrementAndGet();
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            throw e;
+        }
+        return seriesList;
+    }
+
+    private ReportSeries aggregateSensor(String sensorUuid, LocalDate startDate, LocalDate endDate) {
+        ReportSeries series = new ReportSeries(sensorUuid, startDate, endDate);
+        String baseDateTime = startDate.format(DATE) + " 00:00:00";
+
+        Map<String, Object> param = new HashMap<>();
+        param.put("sensorUuid", sensorUuid);
+        param.put("startDateTime", baseDateTime);
+        param.put("endDateTime", endDate.format(DATE) + " 23:59:59");
+        param.put("baseDateTime", baseDateTime);
+        series.rollup = sensorRollupService.route(param, Resolution.MINUTE) != null;
+        (series.rollup ? rollupScans : rawScans).incrementAndGet();
+
+        long startNanos = System.nanoTime();
+        long[] accumulateNanos = {0};
+        dataMapper.selectReportMinuteSums(param, context -> {
+            long accumulateStart = System.nanoTime();
+            Map<String, Object> row = context.getResultObject();
+            Object slot = row.get("slot");
+            Object sum = row.get("sum_value");
+            Object count = row.get("cnt");
+            if (slot instanceof Number && sum instanceof Number && count instanceof Number) {
+                series.add(((Number) slot).longValue(), ((Number) sum).doubleValue(), ((Number) count).longValue());
+            }
+            accumulateNanos[0] += System.nanoTime() - accumulateStart;
+        });
+        series.queryNanos = System.nanoTime() - startNanos - accumulateNanos[0];
+        series.aggregateNanos = accumulateNanos[0];
+        return series;
+    }
+
+    /**
+     * 집계 결과를 SXSSF 통합 문서로 작성 (센서별 1분 시트 + 월간 시트) 후 out 에 기록 (out 은 호출한 쪽에서 닫음)
+     */
+    public void writeExcel(List<ReportSeries> seriesList, List<String> sensorNames, int windowRows, OutputStream out) throws IOException {
+        long renderStart = System.nanoTime();
+        try (ExcelUtils.StreamingDataExcel excel = new ExcelUtils.StreamingDataExcel(ExcelUtils.minuteHeader(), sensorNames.get(0), windowRows)) {
+            double[] values = new double[MINUTES_PER_DAY];
+            for (int i = 0; i < seriesList.size(); i++) {
+                ReportSeries series = seriesList.get(i);
+                if (i > 0) {
+                    excel.addSensor(sensorNames.get(i));
+                }
+                for (int day = 0; day < series.getDays(); day++) {
+                    if (series.minuteValues(day, values)) {
+                        excel.writeDay(series.dayLabel(day), values);
+                    }
+                }
+                excel.writeMonthly(series.getDailyRows(), sensorNames.get(i));
+            }
+
+            long streamStart = System.nanoTime();
+            excel.write(out);
+            record(seriesList, streamStart - renderStart, System.nanoTime() - streamStart);
+        }
+    }
+
+    /**
+     * 보고서 1건 단계별 소요 시간 기록 (조회/집계는 센서별 합계)
+     */
+    public void record(List<ReportSeries> seriesList, long renderTime, long streamTime) {
+        long query = 0;
+        long aggregate = 0;
+        long rows = 0;
+        for (ReportSeries series : seriesList) {
+            query += series.queryNanos;
+            aggregate += series.aggregateNanos;
+            rows += series.rows;
+        }
+        reports.incrementAndGet();
+        sensors.addAndGet(seriesList.size());
+        minuteRows.addAndGet(rows);
+        queryNanos.addAndGet(query);
+        aggregateNanos.addAndGet(aggregate);
+        renderNanos.addAndGet(renderTime);
+        streamNanos.addAndGet(streamTime);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sensors", seriesList.size());
+        report.put("days", seriesList.isEmpty() ? 0 : seriesList.get(0).days);
+        report.put("minuteRows", rows);
+        report.put("queryMs", millis(query));
+        report.put("aggregateMs", millis(aggregate));
+        report.put("renderMs", millis(renderTime));
+        report.put("streamMs", millis(streamTime));
+        lastReport = report;
+        logger.info("엑셀 보고서 작성 완료 - 센서: {}개, 1분 구간: {}건, 조회: {}ms, 집계: {}ms, 작성: {}ms, 전송: {}ms",
+            seriesList.size(), rows, millis(query), millis(aggregate), millis(renderTime), millis(streamTime));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    public Map<String, Object> getStats() {
+        long count = reports.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("parallelism", pool.getParallelism());
+        stats.put("activeThreads", pool.getActiveThreadCount());
+        stats.put("reports", count);
+        stats.put("sensors", sensors.get());
+        stats.put("minuteRows", minuteRows.get());
+        stats.put("rollupScans", rollupScans.get());
+        stats.put("rawScans", rawScans.get());
+        stats.put("errors", errors.get());
+        stats.put("avgQueryMs", count == 0 ? 0 : millis(queryNanos.get() / count));
+        stats.put("avgAggregateMs", count == 0 ? 0 : millis(aggregateNanos.get() / count));
+        stats.put("avgRenderMs", count == 0 ? 0 : millis(renderNanos.get() / count));
+        stats.put("avgStreamMs", count == 0 ? 0 : millis(streamNanos.get() / count));
+        stats.put("lastReport", lastReport);
+        return stats;
+    }
+
+    /**
+     * 센서 1개의 1분 / 일 계열 (값은 소수 1자리 반올림 x10 정수, 값 없음은 EMPTY)
+     */
+    public static class ReportSeries {
+
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private final String sensorUuid;
+        private final LocalDate startDate;
+        private final int days;
+        private final int[] minuteTenths;
+        private final double[] daySums;
+        private final long[] dayCounts;
+
+        private long rows;
+        private boolean rollup;
+        private long queryNanos;
+        private long aggregateNanos;
+
+        ReportSeries(String sensorUuid, LocalDate startDate, LocalDate endDate) {
+            this.sensorUuid = sensorUuid;
+            this.startDate = startDate;
+            this.days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            this.minuteTenths = new int[days * MINUTES_PER_DAY];
+            Arrays.fill(minuteTenths, EMPTY);
+            this.daySums = new double[days];
+            this.dayCounts = new long[days];
+        }
+
+        void add(long slot, double sum, long count) {
+            if (slot < 0 || slot >= minuteTenths.length || count <= 0) {
+                return;
+            }
+            int day = (int) (slot / MINUTES_PER_DAY);
+            minuteTenths[(int) slot] = tenths(sum / count);
+            daySums[day] += sum;
+            dayCounts[day] += count;
+            rows++;
+        }
+
+        // round(avg, 1) 과 같은 소수 1자리 반올림 (0 에서 먼 쪽, 합계 오차 보정)
+        private static int tenths(double value) {
+            long rounded = Math.round(Math.abs(value) * 10 + 1e-9);
+            return (int) (value < 0 ? -rounded : rounded);
+        }
+
+        public String getSensorUuid() {
+            return sensorUuid;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public boolean isRollup() {
+            return rollup;
+        }
+
+        /** 일자 이름 (yyyy-MM-dd) */
+        public String dayLabel(int day) {
+            return startDate.plusDays(day).format(DATE);
+        }
+
+        /** day 번째 날의 1분 값 1440개를 values 에 채움 (값 없음은 NaN), 값이 하나라도 있으면 true */
+        public boolean minuteValues(int day, double[] values) {
+            if (dayCounts[day] == 0) {
+                return false;
+            }
+            int offset = day * MINUTES_PER_DAY;
+            for (int i = 0; i < MINUTES_PER_DAY; i++) {
+                int value = minuteTenths[offset + i];
+                values[i] = value == EMPTY ? Double.NaN : value / 10.0;
+            }
+            return true;
+        }
+
+        /** 일 단위 (inst_dtm: yyyy-MM-dd, sensor_value) - selectSensorData gu=w 와 같은 형식 */
+        public List<Map<String, Object>> getDailyRows() {
+            List<Map<String, Object>> resultList = new ArrayList<>();
+            for (int day = 0; day < days; day++) {
+                if (dayCounts[day] > 0) {
+                    resultList.add(row(dayLabel(day), daySums[day] / dayCounts[day]));
+                }
+            }
+            return resultList;
+        }
+
+        private static Map<String, Object> row(String instDtm, double average) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("inst_dtm", instDtm);
+            row.put("sensor_value", tenths(average) / 10.0);
+            return row;
+        }
+    }
+}
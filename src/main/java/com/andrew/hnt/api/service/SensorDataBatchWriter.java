@@ -0,0 +1,439 @@
+package com.andrew.hnt.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.mapper.MqttMapper;
+import com.andrew.hnt.api.model.SensorVO;
+
+/**
+ * hnt_sensor_data 배치 기록기
+ *
+ * 전략 (custom.mqtt.writer.strategy, ADAPTIVE 이면 배치 크기로 선택)
+ * - SINGLE     : 기존 MqttMapper.insertSensorData 한 건씩
+ * - JDBC_BATCH : 고정 형태 단건 INSERT addBatch/executeBatch (rewriteBatchedStatements 로 드라이버가 다건 문으로 재작성)
+ * - MULTI_ROW  : 고정 크기(multi-row-chunk) 다건 VALUES 문, 남는 행은 JDBC_BATCH
+ * - LOAD_DATA  : 메모리 TSV 버퍼를 LOAD DATA LOCAL INFILE 로 전송 (대량 적체분)
+ *
+ * 모두 현재 트랜잭션의 커넥션(DataSourceUtils)을 사용하므로 롤업/체크포인트 기록과 함께 커밋/롤백됨
+ * (트랜잭션 안에서 MyBatis 실행기 유형을 BATCH 로 바꿀 수 없어 JDBC 배치로 처리)
+ * 압축 형식(SensorDataSchemaService)이면 (uuid, ch_id, sensor_value, inst_dtm) 로 기록 후 사전/원본 페이로드 부가 기록
+ * 기록 실패 시 저장 형식을 다시 확인하여 다른 인스턴스가 전환을 마친 경우 새 형식으로 한 번 재시도
+ */
+@Service
+public class SensorDataBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorDataBatchWriter.class);
+
+    public static final String TABLE = "hnt_sensor_data";
+    private static final Layout WIDE = new Layout("WIDE",
+        "(user_id, sensor_id, uuid, sensor_type, sensor_value, topic, raw_data, inst_id, inst_dtm, mdf_id, mdf_dtm)",
+        "(?, ?, ?, ?, ?, ?, ?, ?, ifnull(?, now()), ?, now())",
+        "(user_id, sensor_id, uuid, sensor_type, sensor_value, topic, raw_data, inst_id, @inst_dtm, mdf_id)"
+            + " set inst_dtm = ifnull(@inst_dtm, now()), mdf_dtm = now()");
+    private static final Layout COMPACT = new Layout("COMPACT",
+        "(uuid, ch_id, sensor_value, inst_dtm)",
+        "(?, ?, ?, ifnull(?, now()))",
+        "(uuid, ch_id, sensor_value, @inst_dtm) set inst_dtm = ifnull(@inst_dtm, now())");
+
+    public enum Strategy {
+        ADAPTIVE, SINGLE, JDBC_BATCH, MULTI_ROW, LOAD_DATA
+    }
+
+    /** 전략 구현 (현재 커넥션에 table 로 기록, 기록 행 수 반환) */
+    public interface Writer {
+        int write(Connection connection, String table, List<SensorVO> rows) throws SQLException;
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MqttMapper mqttMapper;
+
+    @Autowired
+    private SensorDataSchemaService sensorDataSchemaService;
+
+    @Value("${custom.mqtt.writer.strategy:ADAPTIVE}")
+    private Strategy strategy;
+
+    @Value("${custom.mqtt.writer.multi-row-threshold:100}")
+    private int multiRowThreshold;
+
+    @Value("${custom.mqtt.writer.multi-row-chunk:100}")
+    private int multiRowChunk;
+
+    @Value("${custom.mqtt.writer.load-data-threshold:5000}")
+    private int loadDataThreshold;
+
+    @Value("${custom.mqtt.writer.load-data-enabled:false}")
+    private volatile boolean loadDataEnabled;
+
+    private final Map<Strategy, Writer> writers = new EnumMap<>(Strategy.class);
+    private final Map<Strategy, StrategyStats> stats = new EnumMap<>(Strategy.class);
+    // 테이블별 다건 문 (청크 크기 고정이라 문장 형태가 하나)
+    private final Map<String, String> multiRowSql = new ConcurrentHashMap<>();
+    private volatile String loadDataDisabledReason;
+    private final AtomicLong layoutRetries = new AtomicLong(0);
+
+    /** 테이블 형식별 컬럼 / 행 / LOAD DATA 컬럼 목록 */
+    private static final class Layout {
+        final String name;
+        final String columns;
+        final String row;
+        final String loadColumns;
+        final int params;
+
+        Layout(String name, String columns, String row, String loadColumns) {
+            this.name = name;
+            this.columns = columns;
+            this.row = row;
+            this.loadColumns = loadColumns;
+            this.params = row.length() - row.replace("?", "").length();
+        }
+
+        Object[] values(SensorVO sensorVO) {
+            if (this == COMPACT) {
+                return new Object[] {
+                    sensorVO.getUuid(), String.valueOf(SensorDataSchemaService.channelOf(sensorVO)),
+                    SensorDataSchemaService.numericOrNull(sensorVO.getSensorValue()), sensorVO.getInstDtm()
+                };
+            }
+            return new Object[] {
+                sensorVO.getUserId(), sensorVO.getSensorId(), sensorVO.getUuid(), sensorVO.getSensorType(),
+                sensorVO.getSensorValue(), sensorVO.getTopic(), sensorVO.getRawData(), sensorVO.getInstId(),
+                sensorVO.getInstDtm(), sensorVO.getMdfId()
+            };
+        }
+    }
+
+    private static Layout layout() {
+        return SensorDataSchemaService.isCompact() ? COMPACT : WIDE;
+    }
+
+    /** 전략별 처리량 */
+    private static final class StrategyStats {
+        final AtomicLong batches = new AtomicLong(0);
+        final AtomicLong rows = new AtomicLong(0);
+        final AtomicLong nanos = new AtomicLong(0);
+        final AtomicLong failures = new AtomicLong(0);
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            long elapsed = nanos.get();
+            map.put("batches", batches.get());
+            map.put("rows", rows.get());
+            map.put("failures", failures.get());
+            map.put("totalMs", elapsed / 1_000_000);
+            map.put("rowsPerSec", elapsed == 0 ? 0 : rows.get() * 1_000_000_000L / elapsed);
+            return map;
+        }
+    }
+
+    public SensorDataBatchWriter() {
+        writers.put(Strategy.SINGLE, this::writeSingle);
+        writers.put(Strategy.JDBC_BATCH, SensorDataBatchWriter::writeJdbcBatch);
+        writers.put(Strategy.MULTI_ROW, this::writeMultiRow);
+        writers.put(Strategy.LOAD_DATA, SensorDataBatchWriter::writeLoadData);
+        for (Strategy each : writers.keySet()) {
+            stats.put(each, new StrategyStats());
+        }
+    }
+
+    /**
+     * hnt_sensor_data 기록 (현재 트랜잭션 참여, 실패 시 MyBatis 와 같은 DataAccessException)
+     */
+    public int write(List<SensorVO> sensorDataList) {
+        List<SensorVO> rows = new ArrayList<>(sensorDataList.size());
+        for (SensorVO sensorVO : sensorDataList) {
+            if (sensorVO != null) {
+                rows.add(sensorVO);
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Strategy selected = select(rows.size());
+        if (selected == Strategy.LOAD_DATA) {
+            try {
+                return writeChecked(rows, selected);
+            } catch (SQLException e) {
+                if (!isLocalInfileRefused(e)) {
+                    // 일시 오류 (잠금 대기/연결 끊김 등) - 트랜잭션 롤백 후 배치 전체 재시도
+                    throw new SQLErrorCodeSQLExceptionTranslator(dataSource).translate("센서 데이터 배치 기록 (" + selected + ")", null, e);
+                }
+                // 서버/드라이버에서 LOCAL INFILE 이 막혀 있으면 이후 배치는 JDBC_BATCH 사용
+                loadDataEnabled = false;
+                loadDataDisabledReason = e.toString();
+                logger.warn("LOAD DATA 기록 실패 - JDBC_BATCH 로 전환 (allowLoadLocalInfile / local_infile 확인): {}", e.toString());
+                selected = Strategy.JDBC_BATCH;
+            }
+        }
+        try {
+            return writeChecked(rows, selected);
+        } catch (SQLException e) {
+            throw new SQLErrorCodeSQLExceptionTranslator(dataSource).translate("센서 데이터 배치 기록 (" + selected + ")", null, e);
+        }
+    }
+
+    /**
+     * LOCAL INFILE 거부 여부
+     * - 서버: ER_NOT_ALLOWED_COMMAND(1148) / ER_CLIENT_LOCAL_FILES_DISABLED(3948), SQLState 42000
+     * - 드라이버: allowLoadLocalInfile 미설정 / MySQL 드라이버 아님
+     */
+    static boolean isLocalInfileRefused(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLFeatureNotSupportedException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                if (sqlException.getErrorCode() == 1148 || sqlException.getErrorCode() == 3948) {
+                    return true;
+                }
+            }
+            if (cause.getMessage() != null && cause.getMessage().contains("allowLoadLocalInfile")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 배치 크기별 전략 선택 */
+    private Strategy select(int size) {
+        if (strategy != Strategy.ADAPTIVE) {
+            return strategy == Strategy.LOAD_DATA && !loadDataEnabled ? Strategy.JDBC_BATCH : strategy;
+        }
+        if (loadDataEnabled && size >= loadDataThreshold) {
+            return Strategy.LOAD_DATA;
+        }
+        if (size >= multiRowThreshold && size >= multiRowChunk) {
+            return Strategy.MULTI_ROW;
+        }
+        return Strategy.JDBC_BATCH;
+    }
+
+    /**
+     * 형식 불일치(컬럼 없음)는 첫 문장에서 실패하므로 기록된 행 없이 재시도 가능
+     * 형식이 그대로면 원래 예외 전달
+     */
+    private int writeChecked(List<SensorVO> rows, Strategy selected) throws SQLException {
+        try {
+            return write(TABLE, rows, selected);
+        } catch (SQLException | RuntimeException e) {
+            if (!sensorDataSchemaService.refreshLayout()) {
+                throw e;
+            }
+            layoutRetries.incrementAndGet();
+            logger.warn("센서 데이터 기록 실패 후 저장 형식 변경 확인 - {} 형식으로 재시도: {}", layout().name, e.toString());
+            return write(TABLE, rows, selected);
+        }
+    }
+
+    private int write(String table, List<SensorVO> rows, Strategy selected) throws SQLException {
+        StrategyStats stat = stats.get(selected);
+        long started = System.nanoTime();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            int written = writers.get(selected).write(connection, table, rows);
+            if (selected != Strategy.SINGLE && TABLE.equals(table) && SensorDataSchemaService.isCompact()) {
+                // SINGLE 은 매퍼 문이 부가 기록까지 수행
+                sensorDataSchemaService.writeSideTables(connection, rows);
+            }
+            stat.batches.incrementAndGet();
+            stat.rows.addAndGet(rows.size());
+            stat.nanos.addAndGet(System.nanoTime() - started);
+            return written;
+        } catch (SQLException | RuntimeException e) {
+            stat.failures.incrementAndGet();
+            throw e;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private int writeSingle(Connection connection, String table, List<SensorVO> rows) throws SQLException {
+        if (!TABLE.equals(table)) {
+            // 매퍼 문은 hnt_sensor_data 고정 (다른 테이블은 같은 형태의 단건 JDBC 문)
+            return writeEach(connection, table, rows);
+        }
+        for (SensorVO sensorVO : rows) {
+            mqttMapper.insertSensorData(sensorVO);
+        }
+        return rows.size();
+    }
+
+    private static int writeEach(Connection connection, String table, List<SensorVO> rows) throws SQLException {
+        Layout layout = layout();
+        try (PreparedStatement statement = connection.prepareStatement("insert into " + table + " " + layout.columns + " values " + layout.row)) {
+            for (SensorVO sensorVO : rows) {
+                bind(statement, 0, layout, sensorVO);
+                statement.executeUpdate();
+            }
+        }
+        return rows.size();
+    }
+
+    private static int writeJdbcBatch(Connection connection, String table, List<SensorVO> rows) throws SQLException {
+        Layout layout = layout();
+        try (PreparedStatement statement = connection.prepareStatement("insert into " + table + " " + layout.columns + " values " + layout.row)) {
+            for (SensorVO sensorVO : rows) {
+                bind(statement, 0, layout, sensorVO);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        return rows.size();
+    }
+
+    private int writeMultiRow(Connection connection, String table, List<SensorVO> rows) throws SQLException {
+        int chunk = Math.max(1, multiRowChunk);
+        int full = rows.size() / chunk * chunk;
+        if (full > 0) {
+            Layout layout = layout();
+            String sql = multiRowSql.computeIfAbsent(table + "|" + layout.name + "|" + chunk, key -> {
+                StringBuilder builder = new StringBuilder("insert into ").append(table).append(' ').append(layout.columns).append(" values ");
+                for (int i = 0; i < chunk; i++) {
+                    builder.append(i == 0 ? "" : ", ").append(layout.row);
+                }
+                return builder.toString();
+            });
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int start = 0; start < full; start += chunk) {
+                    for (int i = 0; i < chunk; i++) {
+                        bind(statement, i * layout.params, layout, rows.get(start + i));
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        }
+        if (full < rows.size()) {
+            writeJdbcBatch(connection, table, rows.subList(full, rows.size()));
+        }
+        return rows.size();
+    }
+
+    private static int writeLoadData(Connection connection, String table, List<SensorVO> rows) throws SQLException {
+        Layout layout = layout();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(rows.size() * 128);
+        StringBuilder line = new StringBuilder(256);
+        for (SensorVO sensorVO : rows) {
+            line.setLength(0);
+            Object[] values = layout.values(sensorVO);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append('\t');
+                }
+                appendField(line, values[i]);
+            }
+            line.append('\n');
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.write(bytes, 0, bytes.length);
+        }
+        String sql = "load data local infile 'sensor_data.tsv' into table " + table + " character set utf8mb4"
+            + " fields terminated by '\\t' escaped by '\\\\' lines terminated by '\\n'"
+            + " " + layout.loadColumns;
+        try (Statement statement = connection.createStatement()) {
+            setLocalInfileInputStream(statement, new ByteArrayInputStream(buffer.toByteArray()));
+            return statement.executeUpdate(sql);
+        }
+    }
+
+    /** MySQL 드라이버 전용 API (런타임 의존성이라 리플렉션 호출) */
+    private static void setLocalInfileInputStream(Statement statement, InputStream stream) throws SQLException {
+        try {
+            Class<?> type = Class.forName("com.mysql.cj.jdbc.JdbcStatement");
+            Object target = statement.unwrap(type);
+            type.getMethod("setLocalInfileInputStream", InputStream.class).invoke(target, stream);
+        } catch (SQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLFeatureNotSupportedException("LOAD DATA 입력 스트림 설정 실패 (MySQL 드라이버 필요)", e);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, int offset, Layout layout, SensorVO sensorVO) throws SQLException {
+        Object[] values = layout.values(sensorVO);
+        for (int i = 0; i < values.length; i++) {
+            statement.setString(offset + i + 1, (String) values[i]);
+        }
+    }
+
+    /** LOAD DATA 기본 이스케이프 (NULL 은 \N) */
+    private static void appendField(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("\\N");
+            return;
+        }
+        String text = String.valueOf(value);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\0':
+                    line.append("\\0");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    /**
+     * 전략 구현 (성능 테스트 하네스에서 일회용 스키마 테이블에 직접 기록할 때 사용)
+     */
+    Writer writer(Strategy selected) {
+        return writers.get(selected);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("strategy", strategy.name());
+        map.put("layout", layout().name);
+        map.put("layoutRetries", layoutRetries.get());
+        map.put("multiRowThreshold", multiRowThreshold);
+        map.put("multiRowChunk", multiRowChunk);
+        map.put("loadDataThreshold", loadDataThreshold);
+        map.put("loadDataEnabled", loadDataEnabled);
+        map.put("loadDataDisabledReason", loadDataDisabledReason);
+        for (Map.Entry<Strategy, StrategyStats> entry : stats.entrySet()) {
+            map.put(entry.getKey().name(), entry.getValue().toMap());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,663 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hnt_sensor_data 시간 파티션 관리
+ * uuid + limit 1000 반복 삭제 대신 구간(파티션) 단위로 보관 기간 관리
+ *
+ * - inst_dtm RANGE COLUMNS 파티션 (월/일 단위), pmax 분할로 다음 구간 미리 생성
+ * - 보관 기간 초과 구간은 DROP 또는 EXCHANGE (보관 테이블로 분리)
+ * - 조회 쿼리(DataMapper) 파티션 제외 여부를 EXPLAIN 으로 확인
+ * - 기존 테이블 온라인 전환 (id 구간 복사 → RENAME 교체)
+ *   전환 중 장치 데이터 삭제는 새 테이블에도 반영하고 기록하여 교체 직전 / 추가 복사 후 재적용
+ * - 참고: sql/sensor_data_partition.sql
+ */
+@Service
+@Order(2) // MQTT 초기화 이후 구간 점검
+public class SensorDataPartitionService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorDataPartitionService.class);
+
+    private static final String TABLE = "hnt_sensor_data";
+    private static final String NEW_TABLE = "hnt_sensor_data_part";
+    private static final String OLD_TABLE = "hnt_sensor_data_old";
+    private static final String ARCHIVE_PREFIX = "hnt_sensor_data_arch_";
+    private static final String MAX_PARTITION = "pmax";
+    private static final String DATA_MAPPER = "com.andrew.hnt.api.mapper.DataMapper.";
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter DAY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 파티션 제외 확인 대상 (원본 조회 경로)
+    private static final String[][] PRUNING_QUERIES = {
+        {"selectDailyData", null},
+        {"selectWeeklyData", null},
+        {"selectYearlyData", null},
+        {"selectSensorData", "d"},
+        {"selectSensorData", "w"},
+        {"selectSensorData", "y"}
+    };
+
+    @Autowired
+    private DataMapper dataMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Lazy
+    private SensorDataSchemaService sensorDataSchemaService;
+
+    @Autowired
+    private ChartResultCache chartResultCache;
+
+    @Value("${custom.partition.enabled:false}")
+    private boolean enabled;
+
+    @Value("${custom.partition.interval:MONTH}")
+    private String interval;
+
+    @Value("${custom.partition.premake-count:3}")
+    private int premakeCount;
+
+    @Value("${custom.partition.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${custom.partition.retention-mode:DROP}")
+    private String retentionMode;
+
+    @Value("${custom.partition.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    @Value("${custom.partition.migration.chunk-size:20000}")
+    private long migrationChunkSize;
+
+    @Value("${custom.partition.migration.pause-ms:100}")
+    private long migrationPauseMs;
+
+    @Value("${custom.partition.migration.auto-increment-gap:100000}")
+    private long autoIncrementGap;
+
+    private volatile boolean partitioned = false;
+    private volatile List<String> partitionNames = new ArrayList<>();
+    private volatile Map<String, Object> lastPruningCheck = new LinkedHashMap<>();
+    private volatile String lastMaintenance;
+
+    // 전환 작업 상태
+    private Thread migrationThread;
+    private volatile boolean migrating = false;
+    private volatile String migrationPhase = "IDLE";
+    private volatile long migrationCopiedId = 0;
+    private volatile long migrationTargetId = 0;
+    private volatile String migrationError;
+
+    // 전환 중 삭제된 장치 (복사된 행이 교체 후 되살아나지 않도록 재적용) - swapLock 으로 교체와 직렬화
+    private final Object swapLock = new Object();
+    private final Set<String> purgedDuringMigration = ConcurrentHashMap.newKeySet();
+    private volatile boolean swapped = false;
+
+    // 통계 정보
+    private final AtomicLong partitionsCreated = new AtomicLong(0);
+    private final AtomicLong partitionsDropped = new AtomicLong(0);
+    private final AtomicLong partitionsExchanged = new AtomicLong(0);
+    private final AtomicLong maintenanceErrors = new AtomicLong(0);
+    private final AtomicLong migrationRowsCopied = new AtomicLong(0);
+    private final AtomicLong purgedRows = new AtomicLong(0);
+    private final AtomicLong migrationPurgedRows = new AtomicLong(0);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        maintain();
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * 정기 관리 (다음 구간 생성 + 보관 기간 초과 구간 정리 + 파티션 제외 확인)
+     */
+    @Scheduled(cron = "${custom.partition.maintenance-cron:0 10 3 * * *}")
+    public void scheduledMaintain() {
+        if (enabled && !migrating) {
+            maintain();
+        }
+    }
+
+    public synchronized Map<String, Object> maintain() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            List<Partition> partitions = loadPartitions();
+            if (!partitioned) {
+                result.put("partitioned", false);
+                logger.info("hnt_sensor_data 파티션 미적용 - 전환 필요 (POST /monitoring/db/partitions/migrate)");
+                return result;
+            }
+
+            result.put("created", premake(partitions));
+            partitions = loadPartitions();
+            result.put("retired", retire(partitions));
+            result.put("pruning", verifyPruning());
+            lastMaintenance = LocalDateTime.now().format(BOUND_FORMAT);
+            logger.info("hnt_sensor_data 파티션 관리 완료 - {}", result);
+        } catch (Exception e) {
+            maintenanceErrors.incrementAndGet();
+            result.put("error", e.toString());
+            logger.error("hnt_sensor_data 파티션 관리 실패", e);
+        }
+        return result;
+    }
+
+    /**
+     * pmax 분할로 현재 + premake-count 구간까지 생성
+     */
+    private List<String> premake(List<Partition> partitions) {
+        List<String> created = new ArrayList<>();
+        LocalDateTime highest = null;
+        boolean hasMax = false;
+        for (Partition partition : partitions) {
+            if (partition.upperBound == null) {
+                hasMax = true;
+            } else if (highest == null || partition.upperBound.isAfter(highest)) {
+                highest = partition.upperBound;
+            }
+        }
+
+        LocalDateTime target = next(floor(LocalDateTime.now()), premakeCount + 1);
+        LocalDateTime lower = highest != null ? highest : floor(LocalDateTime.now());
+        while (lower.isBefore(target)) {
+            LocalDateTime upper = next(lower, 1);
+            Map<String, Object> param = new HashMap<>();
+            param.put("partitionName", partitionName(lower));
+            param.put("bound", upper.format(BOUND_FORMAT));
+            if (hasMax) {
+                dataMapper.splitSensorDataMaxPartition(param);
+            } else {
+                dataMapper.addSensorDataPartition(param);
+            }
+            partitionsCreated.incrementAndGet();
+            created.add(partitionName(lower));
+            lower = upper;
+        }
+        return created;
+    }
+
+    /**
+     * 보관 기간 초과 구간 정리 (구간 상한이 기준 시각 이하인 것만 - 부분 구간은 유지)
+     */
+    private List<String> retire(List<Partition> partitions) {
+        List<String> retired = new ArrayList<>();
+        if (retentionDays <= 0) {
+            return retired;
+        }
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        int remaining = partitions.size();
+        for (Partition partition : partitions) {
+            if (partition.upperBound == null || partition.upperBound.isAfter(cutoff) || remaining <= 2) {
+                continue;
+            }
+            Map<String, Object> param = new HashMap<>();
+            param.put("partitionName", partition.name);
+            if ("EXCHANGE".equalsIgnoreCase(retentionMode)) {
+                // 같은 구조의 비파티션 테이블로 교환 후 빈 구간 삭제 (데이터는 보관 테이블에 남음)
+                String archive = ARCHIVE_PREFIX + partition.name;
+                Map<String, Object> table = new HashMap<>();
+                table.put("table", archive);
+                table.put("source", TABLE);
+                dataMapper.createTableLike(table);
+                dataMapper.removeTablePartitioning(table);
+                param.put("table", archive);
+                dataMapper.exchangeSensorDataPartition(param);
+                partitionsExchanged.incrementAndGet();
+                logger.info("보관 기간 초과 구간 분리 - {} → {}", partition.name, archive);
+            }
+            dataMapper.dropSensorDataPartition(param);
+            partitionsDropped.incrementAndGet();
+            retired.add(partition.name);
+            remaining--;
+            logger.info("보관 기간 초과 구간 삭제 - {} (상한: {})", partition.name, partition.upperBound);
+        }
+        if (!retired.isEmpty()) {
+            chartResultCache.invalidateBefore(cutoff);
+        }
+        return retired;
+    }
+
+    /**
+     * DataMapper 조회 쿼리 파티션 제외 확인 (EXPLAIN partitions 컬럼)
+     * 원본 조회 경로 기준, 최근 7일 구간
+     */
+    public Map<String, Object> verifyPruning() {
+        Map<String, Object> results = new LinkedHashMap<>();
+        int total = partitionNames.size();
+        LocalDateTime end = LocalDate.now().atStartOfDay().minusSeconds(1);
+        LocalDateTime start = end.plusSeconds(1).minusDays(7);
+
+        for (String[] query : PRUNING_QUERIES) {
+            String key = query[0] + (query[1] != null ? "(gu=" + query[1] + ")" : "");
+            Map<String, Object> param = new HashMap<>();
+            param.put("sensorUuid", "pruning-check");
+            param.put("startDateTime", start.format(BOUND_FORMAT));
+            param.put("endDateTime", end.format(BOUND_FORMAT));
+            if (query[1] != null) {
+                param.put("gu", query[1]);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            try {
+                String accessed = explainPartitions(query[0], param);
+                int count = accessed == null || accessed.isEmpty() ? total : accessed.split(",").length;
+                result.put("partitions", accessed);
+                result.put("accessed", count);
+                result.put("total", total);
+                result.put("pruned", count < total);
+                if (count >= total && total > 1) {
+                    logger.warn("파티션 제외 미적용 쿼리 - {}: {}", key, accessed);
+                }
+            } catch (Exception e) {
+                result.put("error", e.toString());
+            }
+            results.put(key, result);
+        }
+        lastPruningCheck = results;
+        return results;
+    }
+
+    private String explainPartitions(String statementId, Map<String, Object> param) throws Exception {
+        MappedStatement statement = sqlSessionFactory.getConfiguration().getMappedStatement(DATA_MAPPER + statementId);
+        BoundSql boundSql = statement.getBoundSql(param);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("explain " + boundSql.getSql())) {
+            new DefaultParameterHandler(statement, param, boundSql).setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (TABLE.equals(rs.getString("table"))) {
+                        return rs.getString("partitions");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 장치 데이터 삭제 (구간별로 나누어 삭제 - 각 삭제는 한 구간만 접근)
+     * @return 삭제 행 수
+     */
+    public int deleteSensorData(String sensorUuid) {
+        int total = 0;
+        List<String> names = new ArrayList<>(partitionNames);
+        // 최근 구간부터 (화면에 보이는 데이터 먼저 정리)
+        for (int i = names.size() - 1; i >= 0; i--) {
+            Map<String, Object> param = new HashMap<>();
+            param.put("partitionName", names.get(i));
+            param.put("sensorUuid", sensorUuid);
+            param.put("batchSize", deleteBatchSize);
+            int deleted;
+            do {
+                deleted = dataMapper.deleteSensorDataInPartition(param);
+                total += deleted;
+            } while (deleted >= deleteBatchSize);
+        }
+        purgedRows.addAndGet(total);
+        return total;
+    }
+
+    /**
+     * 장치 데이터 삭제 반영 (MysqlSensorHistoryStore.purge - 원본 삭제 후 호출)
+     * 전환 중이거나 중단된 새 테이블이 남아 있으면 이미 복사된 행도 삭제 (insert ignore ... select 로 되살아나는 것 방지)
+     * 이 프로세스에서 교체한 뒤에는 교체 전후에 걸친 삭제가 남지 않도록 hnt_sensor_data 에 다시 적용
+     */
+    public void purge(String sensorUuid) {
+        if (sensorUuid == null) {
+            return;
+        }
+        synchronized (swapLock) {
+            if (migrating) {
+                purgedDuringMigration.add(sensorUuid);
+            }
+            if (swapped) {
+                migrationPurgedRows.addAndGet(deleteFrom(TABLE, sensorUuid));
+            } else if (tableExists(NEW_TABLE)) {
+                migrationPurgedRows.addAndGet(deleteFrom(NEW_TABLE, sensorUuid));
+            }
+        }
+    }
+
+    /**
+     * 전환 중 삭제된 장치 재적용 (swapLock 보유 상태에서 호출)
+     */
+    private void replayPurges(String table) {
+        for (String sensorUuid : purgedDuringMigration) {
+            migrationPurgedRows.addAndGet(deleteFrom(table, sensorUuid));
+        }
+    }
+
+    private int deleteFrom(String table, String sensorUuid) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        param.put("sensorUuid", sensorUuid);
+        param.put("batchSize", deleteBatchSize);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = dataMapper.deleteTableSensorData(param);
+            total += deleted;
+        } while (deleted >= deleteBatchSize);
+        return total;
+    }
+
+    // ---- 온라인 전환 ----
+
+    /**
+     * 기존 hnt_sensor_data 파티션 전환 시작 (백그라운드)
+     * @return 시작 여부 (이미 파티션 적용 / 진행 중 / 압축 형식 전환 중이면 false)
+     */
+    public synchronized boolean startMigration() {
+        if (migrating || sensorDataSchemaService.isMigrating()) {
+            return false;
+        }
+        loadPartitions();
+        if (partitioned) {
+            migrationPhase = "DONE";
+            return false;
+        }
+        migrating = true;
+        migrationError = null;
+        purgedDuringMigration.clear();
+        migrationThread = new Thread(this::migrate, "SensorData-PartitionMigration");
+        migrationThread.setDaemon(true);
+        migrationThread.start();
+        return true;
+    }
+
+    private void migrate() {
+        try {
+            // 1. 새 테이블 준비 (재개 시 기존 테이블 사용)
+            migrationPhase = "PREPARE";
+            if (!tableExists(NEW_TABLE)) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("table", NEW_TABLE);
+                param.put("source", TABLE);
+                dataMapper.createTableLike(param);
+                dataMapper.changeSensorDataPrimaryKey(param);
+                param.put("definitions", initialDefinitions());
+                dataMapper.partitionSensorDataTable(param);
+                logger.info("파티션 전환 - {} 생성", NEW_TABLE);
+            }
+
+            // 2. id 구간 복사 (잔여분이 한 구간 이하가 될 때까지)
+            migrationPhase = "COPY";
+            migrationCopiedId = maxId(NEW_TABLE);
+            migrationTargetId = maxId(TABLE);
+            logger.info("파티션 전환 - 복사 시작 위치: {} / {}", migrationCopiedId, migrationTargetId);
+            while (migrating && migrationTargetId - migrationCopiedId > migrationChunkSize) {
+                copyUntil(migrationTargetId);
+                migrationTargetId = maxId(TABLE);
+            }
+            if (!migrating) {
+                migrationPhase = "STOPPED";
+                return;
+            }
+
+            // 3. 교체 (AUTO_INCREMENT 여유를 두어 교체 직전 구 테이블 유입분과 id 충돌 방지)
+            //    마지막 복사 ~ 교체 ~ 추가 복사 동안 삭제 반영은 대기 후 교체된 테이블에 적용
+            migrationPhase = "SWAP";
+            synchronized (swapLock) {
+                copyUntil(maxId(TABLE));
+                if (!migrating) {
+                    migrationPhase = "STOPPED";
+                    return;
+                }
+                replayPurges(NEW_TABLE);
+                long oldMaxId = maxId(TABLE);
+                Map<String, Object> param = new HashMap<>();
+                param.put("table", NEW_TABLE);
+                param.put("autoIncrement", oldMaxId + autoIncrementGap);
+                dataMapper.setTableAutoIncrement(param);
+                param.put("oldTable", OLD_TABLE);
+                param.put("newTable", NEW_TABLE);
+                dataMapper.swapSensorDataTable(param);
+                swapped = true;
+
+                // 4. 교체 직전 구 테이블에 저장된 행 추가 복사 후 전환 중 삭제 재적용
+                migrationPhase = "CATCH_UP";
+                Map<String, Object> copy = new HashMap<>();
+                copy.put("target", TABLE);
+                copy.put("source", OLD_TABLE);
+                copy.put("fromId", migrationCopiedId);
+                copy.put("toId", Long.MAX_VALUE);
+                migrationRowsCopied.addAndGet(dataMapper.copySensorDataChunk(copy));
+                replayPurges(TABLE);
+            }
+
+            migrationPhase = "DONE";
+            logger.info("파티션 전환 완료 - 구 테이블 {} 확인 후 수동 삭제", OLD_TABLE);
+            maintain();
+        } catch (Exception e) {
+            String phase = migrationPhase;
+            migrationPhase = "FAILED";
+            migrationError = e.toString();
+            logger.error("파티션 전환 실패 (단계: {}, 위치: {}) - 다시 실행하면 이어서 진행", phase, migrationCopiedId, e);
+        } finally {
+            migrating = false;
+        }
+    }
+
+    private void copyUntil(long targetId) throws InterruptedException {
+        while (migrating && migrationCopiedId < targetId) {
+            long toId = Math.min(migrationCopiedId + migrationChunkSize, targetId);
+            Map<String, Object> param = new HashMap<>();
+            param.put("target", NEW_TABLE);
+            param.put("source", TABLE);
+            param.put("fromId", migrationCopiedId);
+            param.put("toId", toId);
+            migrationRowsCopied.addAndGet(dataMapper.copySensorDataChunk(param));
+            migrationCopiedId = toId;
+            if (migrationPauseMs > 0) {
+                Thread.sleep(migrationPauseMs);
+            }
+        }
+    }
+
+    /**
+     * 초기 구간 정의 (가장 오래된 행 구간 ~ 현재 + premake-count, pmax)
+     */
+    private String initialDefinitions() {
+        LocalDateTime now = floor(LocalDateTime.now());
+        LocalDateTime first = now;
+        String firstDtm = dataMapper.selectFirstSensorDataDtm();
+        if (firstDtm != null) {
+            LocalDateTime parsed = floor(LocalDateTime.parse(firstDtm, BOUND_FORMAT));
+            if (parsed.isBefore(now)) {
+                first = parsed;
+            }
+        }
+
+        StringBuilder definitions = new StringBuilder();
+        LocalDateTime target = next(now, premakeCount + 1);
+        for (LocalDateTime lower = first; lower.isBefore(target); lower = next(lower, 1)) {
+            definitions.append("partition ").append(partitionName(lower))
+                .append(" values less than ('").append(next(lower, 1).format(BOUND_FORMAT)).append("'),\n");
+        }
+        definitions.append("partition ").append(MAX_PARTITION).append(" values less than (MAXVALUE)");
+        return definitions.toString();
+    }
+
+    public synchronized void stopMigration() {
+        migrating = false;
+    }
+
+    public boolean isMigrating() {
+        return migrating;
+    }
+
+    // ---- 구간 계산 ----
+
+    private boolean isDaily() {
+        return "DAY".equalsIgnoreCase(interval);
+    }
+
+    private LocalDateTime floor(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        return (isDaily() ? date : date.withDayOfMonth(1)).atStartOfDay();
+    }
+
+    private LocalDateTime next(LocalDateTime lower, int count) {
+        return isDaily() ? lower.plusDays(count) : lower.plusMonths(count);
+    }
+
+    private String partitionName(LocalDateTime lower) {
+        return "p" + lower.format(isDaily() ? DAY_NAME : MONTH_NAME);
+    }
+
+    private List<Partition> loadPartitions() {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", TABLE);
+        List<Partition> partitions = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Map<String, Object>> rows = dataMapper.selectTablePartitions(param);
+        if (rows != null) {
+            for (Map<String, Object> row : rows) {
+                Object name = row.get("partition_name");
+                if (name == null) {
+                    continue;
+                }
+                Partition partition = new Partition();
+                partition.name = String.valueOf(name);
+                partition.upperBound = parseBound(row.get("partition_description"));
+                Object tableRows = row.get("table_rows");
+                partition.rows = tableRows instanceof Number ? ((Number) tableRows).longValue() : 0;
+                partitions.add(partition);
+                names.add(partition.name);
+            }
+        }
+        partitioned = !partitions.isEmpty();
+        partitionNames = names;
+        return partitions;
+    }
+
+    private static LocalDateTime parseBound(Object description) {
+        if (description == null) {
+            return null;
+        }
+        String text = String.valueOf(description).replace("'", "").trim();
+        if (text.toUpperCase(Locale.ROOT).startsWith("MAXVALUE")) {
+            return null;
+        }
+        return LocalDateTime.parse(text.length() == 10 ? text + " 00:00:00" : text, BOUND_FORMAT);
+    }
+
+    private boolean tableExists(String table) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        Integer count = dataMapper.countTable(param);
+        return count != null && count > 0;
+    }
+
+    private long maxId(String table) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        Long id = dataMapper.selectTableMaxId(param);
+        return id != null ? id : 0L;
+    }
+
+    private static final class Partition {
+        private String name;
+        private LocalDateTime upperBound; // null: MAXVALUE
+        private long rows;
+    }
+
+    /**
+     * 파티션 현황 (구간별 예상 행 수, 최근 파티션 제외 확인 결과, 전환 진행 상황)
+     */
+    public Map<String, Object> getStatus() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        try {
+            for (Partition partition : loadPartitions()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("name", partition.name);
+                item.put("lessThan", partition.upperBound != null ? partition.upperBound.format(BOUND_FORMAT) : "MAXVALUE");
+                item.put("rows", partition.rows);
+                list.add(item);
+            }
+        } catch (Exception e) {
+            logger.warn("파티션 현황 조회 실패: {}", e.toString());
+        }
+
+        Map<String, Object> migration = new LinkedHashMap<>();
+        migration.put("running", migrating);
+        migration.put("phase", migrationPhase);
+        migration.put("copiedId", migrationCopiedId);
+        migration.put("targetId", migrationTargetId);
+        migration.put("rowsCopied", migrationRowsCopied.get());
+        migration.put("purgedDevices", purgedDuringMigration.size());
+        migration.put("purgedRows", migrationPurgedRows.get());
+        migration.put("error", migrationError);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("partitioned", partitioned);
+        status.put("interval", isDaily() ? "DAY" : "MONTH");
+        status.put("retentionDays", retentionDays);
+        status.put("retentionMode", retentionMode);
+        status.put("partitions", list);
+        status.put("pruning", lastPruningCheck);
+        status.put("lastMaintenance", lastMaintenance);
+        status.put("partitionsCreated", partitionsCreated.get());
+        status.put("partitionsDropped", partitionsDropped.get());
+        status.put("partitionsExchanged", partitionsExchanged.get());
+        status.put("maintenanceErrors", maintenanceErrors.get());
+        status.put("purgedRows", purgedRows.get());
+        status.put("migration", migration);
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migrating = false;
+        if (migrationThread != null) {
+            migrationThread.interrupt();
+        }
+    }
+}
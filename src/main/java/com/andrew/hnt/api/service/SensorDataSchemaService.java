@@ -0,0 +1,635 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.model.SensorVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * hnt_sensor_data 압축 형식 관리
+ * 값 한 건마다 topic / raw_data(JSON) / user_id / sensor_id / inst_id / mdf_id 를 반복 저장하던 것을 분리
+ *
+ * - hnt_sensor_data : id, uuid, ch_id(1:ain 2:din 3:output), sensor_value(decimal), inst_dtm
+ * - hnt_sensor_dict : UUID 별 user_id / sensor_id / topic / inst_id / mdf_id (값이 바뀔 때만 갱신)
+ * - hnt_sensor_raw  : 원본 페이로드 compress() 저장, 별도 보관 기간 (raw.enabled 가 꺼져 있으면 저장 안 함)
+ * - 형식은 hnt_sensor_data 에 raw_data 컬럼이 있는지로 판단 (매퍼는 isCompact() 로 분기)
+ *   기동 시 + 주기 확인 + 기록 실패 시 다시 확인 (다른 인스턴스가 전환한 경우 반영)
+ * - 기존 테이블 온라인 전환 (id 구간 복사 → RENAME 교체), 전환 전후 행당 크기 / 조회 지연 보고
+ *   전환 중 장치 데이터 삭제는 새 테이블에도 반영하고 기록하여 교체 직전 / 추가 복사 후 재적용
+ * - 참고: sql/sensor_data_compact.sql
+ */
+@Service
+public class SensorDataSchemaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorDataSchemaService.class);
+
+    private static final String TABLE = "hnt_sensor_data";
+    private static final String NEW_TABLE = "hnt_sensor_data_compact";
+    private static final String OLD_TABLE = "hnt_sensor_data_wide";
+    private static final String DICT_TABLE = "hnt_sensor_dict";
+    private static final String RAW_TABLE = "hnt_sensor_raw";
+
+    private static final String RAW_INSERT =
+        "insert into " + RAW_TABLE + " (uuid, inst_dtm, raw_z) values (?, ifnull(?, now()), compress(?))";
+    private static final String DICT_UPSERT =
+        "insert into " + DICT_TABLE + " (uuid, user_id, sensor_id, topic, inst_id, mdf_id, mdf_dtm)"
+        + " values (?, ?, ?, ?, ?, ?, now())"
+        + " on duplicate key update user_id = values(user_id), sensor_id = values(sensor_id), topic = values(topic),"
+        + " inst_id = values(inst_id), mdf_id = values(mdf_id), mdf_dtm = now()";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern NUMERIC = Pattern.compile("^-?[0-9]+([.][0-9]+)?$");
+    private static final int REPORT_REPEAT = 20;
+
+    // 매퍼 OGNL(@...SensorDataSchemaService@isCompact()) 에서 참조하므로 정적 상태
+    private static volatile boolean compact = false;
+    private static volatile boolean rawEnabled = true;
+
+    @Autowired
+    private DataMapper dataMapper;
+
+    @Autowired
+    private AdminMapper adminMapper;
+
+    @Autowired
+    @Lazy
+    private SensorDataPartitionService sensorDataPartitionService;
+
+    @Value("${custom.sensor-data.compact.raw.enabled:true}")
+    private boolean rawEnabledConfig;
+
+    @Value("${custom.sensor-data.compact.raw.retention-days:7}")
+    private int rawRetentionDays;
+
+    @Value("${custom.sensor-data.compact.raw.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    @Value("${custom.sensor-data.compact.migration.chunk-size:20000}")
+    private long migrationChunkSize;
+
+    @Value("${custom.sensor-data.compact.migration.pause-ms:100}")
+    private long migrationPauseMs;
+
+    @Value("${custom.sensor-data.compact.migration.auto-increment-gap:100000}")
+    private long autoIncrementGap;
+
+    // UUID 별 마지막으로 기록한 사전 값 (같으면 갱신 생략)
+    private final Map<String, String> dictionary = new ConcurrentHashMap<>();
+
+    // 전환 작업 상태
+    private Thread migrationThread;
+    private volatile boolean migrating = false;
+    private volatile String migrationPhase = "IDLE";
+    private volatile long migrationCopiedId = 0;
+    private volatile long migrationTargetId = 0;
+    private volatile String migrationError;
+    private volatile Map<String, Object> reportBefore;
+    private volatile Map<String, Object> reportAfter;
+    private volatile Map<String, Object> lastReport;
+
+    // 전환 중 삭제된 장치 (복사된 행이 교체 후 되살아나지 않도록 재적용) - swapLock 으로 교체와 직렬화
+    private final Object swapLock = new Object();
+    private final Set<String> purgedDuringMigration = ConcurrentHashMap.newKeySet();
+    private volatile boolean swapped = false;
+
+    // 통계 정보
+    private final AtomicLong rawRowsWritten = new AtomicLong(0);
+    private final AtomicLong dictUpserts = new AtomicLong(0);
+    private final AtomicLong dictSkipped = new AtomicLong(0);
+    private final AtomicLong rawRowsExpired = new AtomicLong(0);
+    private final AtomicLong migrationRowsCopied = new AtomicLong(0);
+    private final AtomicLong migrationPurgedRows = new AtomicLong(0);
+    private final AtomicLong layoutChanges = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        rawEnabled = rawEnabledConfig;
+        try {
+            compact = detectCompact();
+            logger.info("hnt_sensor_data 저장 형식: {}", compact ? "압축 (ch_id / 사전 / 원본 분리)" : "기존");
+        } catch (Exception e) {
+            logger.warn("hnt_sensor_data 저장 형식 확인 실패 - 기존 형식으로 동작: {}", e.toString());
+        }
+    }
+
+    public static boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * 저장 형식 다시 확인 (다른 인스턴스가 전환을 마친 경우 반영)
+     * 주기 호출 + 기록 실패 시 SensorDataBatchWriter 에서 호출
+     * @return 형식이 바뀌었으면 true (호출 측에서 재시도)
+     */
+    @Scheduled(fixedDelayString = "${custom.sensor-data.compact.detect-interval-ms:30000}")
+    public synchronized boolean refreshLayout() {
+        if (migrating) {
+            return false; // 전환 중인 인스턴스는 교체 시점에 직접 바꿈
+        }
+        boolean detected;
+        try {
+            detected = detectCompact();
+        } catch (Exception e) {
+            logger.debug("hnt_sensor_data 저장 형식 재확인 실패: {}", e.toString());
+            return false;
+        }
+        if (detected == compact) {
+            return false;
+        }
+        compact = detected;
+        dictionary.clear();
+        layoutChanges.incrementAndGet();
+        logger.warn("hnt_sensor_data 저장 형식 변경 감지 - {}", detected ? "압축" : "기존");
+        return true;
+    }
+
+    public static boolean isRawEnabled() {
+        return rawEnabled;
+    }
+
+    /**
+     * 채널 번호 (sensor_type 우선, 없으면 기존 raw_data like '%ain%' 판별과 같은 순서)
+     */
+    public static int channelOf(SensorVO sensorVO) {
+        String type = sensorVO.getSensorType();
+        if ("ain".equals(type)) {
+            return 1;
+        }
+        if ("din".equals(type)) {
+            return 2;
+        }
+        if ("output".equals(type)) {
+            return 3;
+        }
+        String raw = sensorVO.getRawData();
+        if (raw != null) {
+            if (raw.contains("ain")) {
+                return 1;
+            }
+            if (raw.contains("din")) {
+                return 2;
+            }
+            if (raw.contains("output")) {
+                return 3;
+            }
+        }
+        return 0;
+    }
+
+    /** 숫자 값만 저장 (Error 등은 null, 전환 복사의 regexp 조건과 같은 형식) */
+    public static String numericOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.trim();
+        return NUMERIC.matcher(text).matches() ? text : null;
+    }
+
+    private boolean detectCompact() {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", TABLE);
+        param.put("column", "raw_data");
+        Integer rawColumn = dataMapper.countTableColumn(param);
+        param.put("column", "ch_id");
+        Integer channelColumn = dataMapper.countTableColumn(param);
+        return (rawColumn == null || rawColumn == 0) && channelColumn != null && channelColumn > 0;
+    }
+
+    // ---- 수신 기록 ----
+
+    /**
+     * 압축 형식 부가 기록 (배치 기록기와 같은 커넥션 / 트랜잭션)
+     * 원본 페이로드는 JDBC 배치, 사전은 값이 바뀐 UUID 만 갱신 (롤백 시 캐시 되돌림)
+     */
+    public void writeSideTables(Connection connection, List<SensorVO> rows) throws SQLException {
+        if (rawEnabled) {
+            int count = 0;
+            try (PreparedStatement statement = connection.prepareStatement(RAW_INSERT)) {
+                for (SensorVO sensorVO : rows) {
+                    if (sensorVO.getRawData() == null) {
+                        continue;
+                    }
+                    statement.setString(1, sensorVO.getUuid());
+                    statement.setString(2, sensorVO.getInstDtm());
+                    statement.setString(3, sensorVO.getRawData());
+                    statement.addBatch();
+                    count++;
+                }
+                if (count > 0) {
+                    statement.executeBatch();
+                }
+            }
+            rawRowsWritten.addAndGet(count);
+        }
+
+        Map<String, SensorVO> changed = new LinkedHashMap<>();
+        for (SensorVO sensorVO : rows) {
+            String uuid = sensorVO.getUuid();
+            if (uuid != null && !signatureOf(sensorVO).equals(dictionary.get(uuid))) {
+                changed.put(uuid, sensorVO);
+            }
+        }
+        dictSkipped.addAndGet(rows.size() - changed.size());
+        if (changed.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(DICT_UPSERT)) {
+            for (SensorVO sensorVO : changed.values()) {
+                statement.setString(1, sensorVO.getUuid());
+                statement.setString(2, sensorVO.getUserId());
+                statement.setString(3, sensorVO.getSensorId());
+                statement.setString(4, sensorVO.getTopic());
+                statement.setString(5, sensorVO.getInstId());
+                statement.setString(6, sensorVO.getMdfId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        dictUpserts.addAndGet(changed.size());
+        for (SensorVO sensorVO : changed.values()) {
+            dictionary.put(sensorVO.getUuid(), signatureOf(sensorVO));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        dictionary.keySet().removeAll(changed.keySet());
+                    }
+                }
+            });
+        }
+    }
+
+    private static String signatureOf(SensorVO sensorVO) {
+        return sensorVO.getUserId() + "|" + sensorVO.getSensorId() + "|" + sensorVO.getTopic()
+            + "|" + sensorVO.getInstId() + "|" + sensorVO.getMdfId();
+    }
+
+    /**
+     * 원본 페이로드 보관 기간 초과분 삭제 (batch 단위 반복)
+     */
+    @Scheduled(cron = "${custom.sensor-data.compact.raw.retention-cron:0 40 3 * * *}")
+    public void purgeExpiredRaw() {
+        if (!compact || rawRetentionDays <= 0) {
+            return;
+        }
+        Map<String, Object> param = new HashMap<>();
+        param.put("cutoffDate", LocalDate.now().minusDays(rawRetentionDays).atStartOfDay().format(DATE_TIME));
+        param.put("batchSize", deleteBatchSize);
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = dataMapper.deleteExpiredSensorRaw(param);
+                total += deleted;
+            } while (deleted >= deleteBatchSize);
+            rawRowsExpired.addAndGet(total);
+            logger.info("원본 페이로드 보관 기간 초과분 삭제 - {}건 ({}일 이전)", total, rawRetentionDays);
+        } catch (Exception e) {
+            logger.error("원본 페이로드 보관 기간 정리 실패 ({}건 삭제 후)", total, e);
+        }
+    }
+
+    /**
+     * 센서 삭제/이전 시 사전 / 원본 페이로드 삭제 (MysqlSensorHistoryStore.purge - 원본 삭제 후 호출)
+     * 전환 중이거나 중단된 새 테이블이 남아 있으면 이미 복사된 값 행도 삭제 (insert ignore ... select 로 되살아나는 것 방지)
+     * 이 프로세스에서 교체한 뒤에는 교체 전후에 걸친 삭제가 남지 않도록 hnt_sensor_data 에 다시 적용
+     */
+    public void purge(String sensorUuid) {
+        dictionary.remove(sensorUuid);
+        if (sensorUuid == null) {
+            return;
+        }
+        synchronized (swapLock) {
+            if (migrating) {
+                purgedDuringMigration.add(sensorUuid);
+            }
+            boolean pending = !compact && tableExists(NEW_TABLE);
+            if (swapped) {
+                migrationPurgedRows.addAndGet(deleteRows(TABLE, sensorUuid));
+            } else if (pending) {
+                migrationPurgedRows.addAndGet(deleteRows(NEW_TABLE, sensorUuid));
+            }
+            if (compact || pending) {
+                deleteSideRows(sensorUuid);
+            }
+        }
+    }
+
+    /**
+     * 전환 중 삭제된 장치 재적용 (swapLock 보유 상태에서 호출)
+     */
+    private void replayPurges(String table) {
+        for (String sensorUuid : purgedDuringMigration) {
+            migrationPurgedRows.addAndGet(deleteRows(table, sensorUuid));
+            deleteSideRows(sensorUuid);
+        }
+    }
+
+    private int deleteRows(String table, String sensorUuid) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        param.put("sensorUuid", sensorUuid);
+        param.put("batchSize", deleteBatchSize);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = dataMapper.deleteTableSensorData(param);
+            total += deleted;
+        } while (deleted >= deleteBatchSize);
+        return total;
+    }
+
+    private void deleteSideRows(String sensorUuid) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("sensorUuid", sensorUuid);
+        param.put("batchSize", deleteBatchSize);
+        int deleted;
+        do {
+            deleted = dataMapper.deleteSensorRaw(param);
+        } while (deleted >= deleteBatchSize);
+        dataMapper.deleteSensorDict(param);
+    }
+
+    // ---- 온라인 전환 ----
+
+    /**
+     * 기존 hnt_sensor_data 압축 형식 전환 시작 (백그라운드)
+     * @return 시작 여부 (이미 압축 형식 / 진행 중 / 파티션 전환 중이면 false)
+     */
+    public synchronized boolean startMigration() {
+        if (migrating || sensorDataPartitionService.isMigrating()) {
+            return false;
+        }
+        compact = detectCompact();
+        if (compact) {
+            migrationPhase = "DONE";
+            return false;
+        }
+        migrating = true;
+        migrationError = null;
+        purgedDuringMigration.clear();
+        swapped = false;
+        migrationThread = new Thread(this::migrate, "SensorData-CompactMigration");
+        migrationThread.setDaemon(true);
+        migrationThread.start();
+        return true;
+    }
+
+    private void migrate() {
+        try {
+            // 1. 새 테이블 / 사전 / 원본 테이블 준비 (재개 시 기존 테이블 사용)
+            migrationPhase = "PREPARE";
+            if (reportBefore == null) {
+                reportBefore = report();
+            }
+            dataMapper.createSensorDictTable();
+            dataMapper.createSensorRawTable();
+            if (!tableExists(NEW_TABLE)) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("table", NEW_TABLE);
+                param.put("source", TABLE);
+                dataMapper.createTableLike(param);
+                dataMapper.alterSensorDataCompact(param);
+                logger.info("압축 형식 전환 - {} 생성", NEW_TABLE);
+            }
+
+            // 2. id 구간 복사 (잔여분이 한 구간 이하가 될 때까지)
+            migrationPhase = "COPY";
+            migrationCopiedId = maxId(NEW_TABLE);
+            migrationTargetId = maxId(TABLE);
+            logger.info("압축 형식 전환 - 복사 시작 위치: {} / {}", migrationCopiedId, migrationTargetId);
+            while (migrating && migrationTargetId - migrationCopiedId > migrationChunkSize) {
+                copyUntil(TABLE, migrationTargetId);
+                migrationTargetId = maxId(TABLE);
+            }
+            if (!migrating) {
+                migrationPhase = "STOPPED";
+                return;
+            }
+
+            // 3. 교체 (AUTO_INCREMENT 여유를 두어 교체 직전 구 테이블 유입분과 id 충돌 방지)
+            //    마지막 복사 ~ 교체 ~ 추가 복사 동안 삭제 반영은 대기 후 교체된 테이블에 적용
+            migrationPhase = "SWAP";
+            synchronized (swapLock) {
+                copyUntil(TABLE, maxId(TABLE));
+                if (!migrating) {
+                    migrationPhase = "STOPPED";
+                    return;
+                }
+                replayPurges(NEW_TABLE);
+                long oldMaxId = maxId(TABLE);
+                Map<String, Object> param = new HashMap<>();
+                param.put("autoIncrement", oldMaxId + autoIncrementGap);
+                param.put("table", NEW_TABLE);
+                dataMapper.setTableAutoIncrement(param);
+                param.put("table", RAW_TABLE);
+                dataMapper.setTableAutoIncrement(param);
+                param.put("oldTable", OLD_TABLE);
+                param.put("newTable", NEW_TABLE);
+                dataMapper.swapSensorDataTable(param);
+                compact = true;
+                swapped = true;
+                dictionary.clear();
+
+                // 4. 교체 직전 구 테이블에 저장된 행 추가 복사 후 전환 중 삭제 재적용
+                migrationPhase = "CATCH_UP";
+                copyChunk(TABLE, OLD_TABLE, migrationCopiedId, Long.MAX_VALUE);
+                replayPurges(TABLE);
+            }
+
+            reportAfter = report();
+            migrationPhase = "DONE";
+            logger.info("압축 형식 전환 완료 - 구 테이블 {} 확인 후 수동 삭제, 전: {}, 후: {}", OLD_TABLE, reportBefore, reportAfter);
+        } catch (Exception e) {
+            String phase = migrationPhase;
+            migrationPhase = "FAILED";
+            migrationError = e.toString();
+            logger.error("압축 형식 전환 실패 (단계: {}, 위치: {}) - 다시 실행하면 이어서 진행", phase, migrationCopiedId, e);
+        } finally {
+            migrating = false;
+        }
+    }
+
+    private void copyUntil(String source, long targetId) throws InterruptedException {
+        while (migrating && migrationCopiedId < targetId) {
+            long toId = Math.min(migrationCopiedId + migrationChunkSize, targetId);
+            copyChunk(NEW_TABLE, source, migrationCopiedId, toId);
+            migrationCopiedId = toId;
+            if (migrationPauseMs > 0) {
+                Thread.sleep(migrationPauseMs);
+            }
+        }
+    }
+
+    /** 값 / 사전 / 원본 페이로드 구간 복사 (모두 재실행 가능) */
+    private void copyChunk(String target, String source, long fromId, long toId) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("target", target);
+        param.put("source", source);
+        param.put("fromId", fromId);
+        param.put("toId", toId);
+        migrationRowsCopied.addAndGet(dataMapper.copySensorDataCompactChunk(param));
+        dataMapper.upsertSensorDictChunk(param);
+        if (rawEnabled) {
+            param.put("rawSince", LocalDate.now().minusDays(Math.max(0, rawRetentionDays)).atStartOfDay().format(DATE_TIME));
+            dataMapper.copySensorRawChunk(param);
+        }
+    }
+
+    public synchronized void stopMigration() {
+        migrating = false;
+    }
+
+    public boolean isMigrating() {
+        return migrating;
+    }
+
+    // ---- 크기 / 지연 보고 ----
+
+    /**
+     * 현재 형식의 행당 크기 (information_schema 추정치, 사전/원본 테이블 포함) 와 조회 지연
+     * 조회 지연은 최근 수신 UUID 기준 getCurTemp / chkError / 당일 selectDailyData 평균
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", compact ? "COMPACT" : "WIDE");
+        result.put("measuredAt", LocalDateTime.now().format(DATE_TIME));
+
+        Map<String, Object> main = tableSize(TABLE);
+        long rows = longOf(main.get("table_rows"));
+        long mainBytes = longOf(main.get("data_length")) + longOf(main.get("index_length"));
+        long sideBytes = 0;
+        if (compact) {
+            for (String table : new String[] {DICT_TABLE, RAW_TABLE}) {
+                Map<String, Object> side = tableSize(table);
+                sideBytes += longOf(side.get("data_length")) + longOf(side.get("index_length"));
+            }
+        }
+        result.put("rows", rows);
+        result.put("dataBytes", longOf(main.get("data_length")));
+        result.put("indexBytes", longOf(main.get("index_length")));
+        result.put("sideTableBytes", sideBytes);
+        result.put("bytesPerRow", rows == 0 ? 0 : mainBytes / rows);
+        result.put("totalBytesPerRow", rows == 0 ? 0 : (mainBytes + sideBytes) / rows);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        try {
+            String uuid = dataMapper.selectLatestSensorDataUuid();
+            if (uuid != null) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("sensorUuid", uuid);
+                param.put("startDateTime", LocalDate.now().atStartOfDay().format(DATE_TIME));
+                param.put("endDateTime", LocalDateTime.now().format(DATE_TIME));
+                latency.put("sensorUuid", uuid);
+                latency.put("getCurTemp", averageMillis(() -> adminMapper.getCurTemp(param)));
+                latency.put("chkError", averageMillis(() -> adminMapper.chkError(param)));
+                latency.put("selectDailyData", averageMillis(() -> dataMapper.selectDailyData(param)));
+            }
+        } catch (Exception e) {
+            latency.put("error", e.toString());
+        }
+        result.put("latencyMs", latency);
+        lastReport = result;
+        return result;
+    }
+
+    private Map<String, Object> tableSize(String table) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        Map<String, Object> size = dataMapper.selectTableSize(param);
+        return size != null ? size : new HashMap<>();
+    }
+
+    private static double averageMillis(Runnable query) {
+        query.run(); // 캐시 적재
+        long started = System.nanoTime();
+        for (int i = 0; i < REPORT_REPEAT; i++) {
+            query.run();
+        }
+        return Math.round((System.nanoTime() - started) / (double) REPORT_REPEAT / 10_000) / 100.0;
+    }
+
+    private static long longOf(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private boolean tableExists(String table) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        Integer count = dataMapper.countTable(param);
+        return count != null && count > 0;
+    }
+
+    private long maxId(String table) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("table", table);
+        Long id = dataMapper.selectTableMaxId(param);
+        return id != null ? id : 0L;
+    }
+
+    /**
+     * 형식 / 부가 기록 / 전환 진행 상황 / 전환 전후 보고
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> migration = new LinkedHashMap<>();
+        migration.put("running", migrating);
+        migration.put("phase", migrationPhase);
+        migration.put("copiedId", migrationCopiedId);
+        migration.put("targetId", migrationTargetId);
+        migration.put("rowsCopied", migrationRowsCopied.get());
+        migration.put("purgedDevices", purgedDuringMigration.size());
+        migration.put("purgedRows", migrationPurgedRows.get());
+        migration.put("error", migrationError);
+        migration.put("reportBefore", reportBefore);
+        migration.put("reportAfter", reportAfter);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("compact", compact);
+        status.put("layoutChanges", layoutChanges.get());
+        status.put("rawEnabled", rawEnabled);
+        status.put("rawRetentionDays", rawRetentionDays);
+        status.put("rawRowsWritten", rawRowsWritten.get());
+        status.put("rawRowsExpired", rawRowsExpired.get());
+        status.put("dictUpserts", dictUpserts.get());
+        status.put("dictSkipped", dictSkipped.get());
+        status.put("dictCached", dictionary.size());
+        status.put("lastReport", lastReport);
+        status.put("migration", migration);
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migrating = false;
+        if (migrationThread != null) {
+            migrationThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.andrew.hnt.api.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.impl.ColumnarSensorHistoryStore;
+import com.andrew.hnt.api.service.impl.MysqlSensorHistoryStore;
+
+/**
+ * 센서 이력 저장소 선택 / 이중 기록 / 비교
+ *
+ * - 조회: custom.history.read-store 저장소 사용, 컬럼형이 조회 범위를 보유하지 않으면 MySQL 로 대체
+ * - 기록: 컬럼형이 활성화되어 있으면 수신 배치를 원본 커밋 이후 함께 기록 (이중 기록)
+ * - 비교: custom.history.compare 이면 두 저장소 결과를 비교하여 불일치 건수/첫 차이를 기록 (응답은 조회 저장소 결과)
+ */
+@Service
+public class SensorHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorHistoryService.class);
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 평균 반올림(소수 1자리) 차이 허용
+    private static final double VALUE_TOLERANCE = 0.11;
+
+    @Autowired
+    private MysqlSensorHistoryStore mysqlStore;
+
+    @Autowired
+    private ColumnarSensorHistoryStore columnarStore;
+
+    @Autowired
+    private ChartResultCache chartResultCache;
+
+    @Value("${custom.history.read-store:mysql}")
+    private String readStoreName;
+
+    @Value("${custom.history.compare:false}")
+    private boolean compare;
+
+    private final AtomicLong mysqlReads = new AtomicLong(0);
+    private final AtomicLong columnarReads = new AtomicLong(0);
+    private final AtomicLong fallbackReads = new AtomicLong(0);
+    private final AtomicLong compareMatched = new AtomicLong(0);
+    private final AtomicLong compareMismatched = new AtomicLong(0);
+    private final AtomicLong compareSkipped = new AtomicLong(0);
+    private final AtomicLong compareFailed = new AtomicLong(0);
+    private volatile String lastMismatch;
+
+    @PostConstruct
+    public void init() {
+        if (ColumnarSensorHistoryStore.NAME.equals(readStoreName) && !columnarStore.isEnabled()) {
+            logger.warn("센서 이력 조회 저장소가 columnar 이지만 custom.history.columnar.enabled 가 꺼져 있어 MySQL 사용");
+        }
+    }
+
+    public List<Map<String, Object>> selectDailyData(Map<String, Object> param) {
+        return read("selectDailyData", param, SensorHistoryStore::selectDailyData);
+    }
+
+    public List<Map<String, Object>> selectWeeklyData(Map<String, Object> param) {
+        return read("selectWeeklyData", param, SensorHistoryStore::selectWeeklyData);
+    }
+
+    public List<Map<String, Object>> selectYearlyData(Map<String, Object> param) {
+        return read("selectYearlyData", param, SensorHistoryStore::selectYearlyData);
+    }
+
+    public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param) {
+        return read("selectSensorDataWithCursor", param, SensorHistoryStore::selectSensorDataWithCursor);
+    }
+
+    /**
+     * 1분 단위 행을 한 행씩 전달 (엑셀 스트리밍, 목록을 만들지 않으므로 비교 대상 아님)
+     */
+    public void streamDailyData(Map<String, Object> param, Consumer<Map<String, Object>> consumer) {
+        primaryFor(param).streamDailyData(param, consumer);
+    }
+
+    private SensorHistoryStore primaryFor(Map<String, Object> param) {
+        SensorHistoryStore primary = mysqlStore;
+        if (ColumnarSensorHistoryStore.NAME.equals(readStoreName) && columnarStore.isEnabled()) {
+            if (columnarStore.covers(param)) {
+                primary = columnarStore;
+            } else {
+                fallbackReads.incrementAndGet();
+            }
+        }
+        (primary == mysqlStore ? mysqlReads : columnarReads).incrementAndGet();
+        return primary;
+    }
+
+    private List<Map<String, Object>> read(String query, Map<String, Object> param,
+                                           BiFunction<SensorHistoryStore, Map<String, Object>, List<Map<String, Object>>> call) {
+        SensorHistoryStore primary = primaryFor(param);
+        List<Map<String, Object>> resultList = call.apply(primary, param);
+
+        if (compare && columnarStore.isEnabled()) {
+            compare(query, param, primary, resultList, call);
+        }
+        return resultList;
+    }
+
+    private void compare(String query, Map<String, Object> param, SensorHistoryStore primary, List<Map<String, Object>> primaryList,
+                         BiFunction<SensorHistoryStore, Map<String, Object>, List<Map<String, Object>>> call) {
+        if (primary != columnarStore && !columnarStore.covers(param)) {
+            compareSkipped.incrementAndGet();
+            return;
+        }
+        SensorHistoryStore secondary = primary == mysqlStore ? columnarStore : mysqlStore;
+        try {
+            List<Map<String, Object>> secondaryList = call.apply(secondary, new HashMap<>(param));
+            String difference = difference(primaryList, secondaryList);
+            if (difference == null) {
+                compareMatched.incrementAndGet();
+            } else {
+                compareMismatched.incrementAndGet();
+                lastMismatch = query + " " + param.get("sensorUuid") + " " + param.get("startDateTime") + " ~ "
+                    + param.get("endDateTime") + " : " + difference;
+                logger.warn("센서 이력 저장소 비교 불일치 - {} ({}: {}건, {}: {}건)", lastMismatch,
+                    primary.getName(), primaryList == null ? 0 : primaryList.size(),
+                    secondary.getName(), secondaryList == null ? 0 : secondaryList.size());
+            }
+        } catch (Exception e) {
+            compareFailed.incrementAndGet();
+            logger.warn("센서 이력 저장소 비교 실패 - {}: {}", query, e.toString());
+        }
+    }
+
+    /** 첫 차이 설명 (같으면 null) - inst_dtm 문자열 / sensor_value 허용 오차 비교 */
+    private static String difference(List<Map<String, Object>> expected, List<Map<String, Object>> actual) {
+        int expectedSize = expected == null ? 0 : expected.size();
+        int actualSize = actual == null ? 0 : actual.size();
+        for (int i = 0; i < Math.min(expectedSize, actualSize); i++) {
+            String expectedTime = timeOf(expected.get(i).get("inst_dtm"));
+            String actualTime = timeOf(actual.get(i).get("inst_dtm"));
+            if (!expectedTime.equals(actualTime)) {
+                return "행 " + i + " 시각 " + expectedTime + " / " + actualTime;
+            }
+            double expectedValue = valueOf(expected.get(i).get("sensor_value"));
+            double actualValue = valueOf(actual.get(i).get("sensor_value"));
+            if (Math.abs(expectedValue - actualValue) > VALUE_TOLERANCE) {
+                return "행 " + i + " (" + expectedTime + ") 값 " + expectedValue + " / " + actualValue;
+            }
+        }
+        return expectedSize == actualSize ? null : "건수 " + expectedSize + " / " + actualSize;
+    }
+
+    private static String timeOf(Object value) {
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(DATE_TIME);
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().format(DATE_TIME);
+        }
+        String text = String.valueOf(value).replace('T', ' ');
+        return text.length() > 19 ? text.substring(0, 19) : text;
+    }
+
+    private static double valueOf(Object value) {
+        try {
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(String.valueOf(value));
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * 수신 배치 이중 기록 / 늦게 들어온 값의 차트 캐시 무효화 (트랜잭션 안이면 커밋 이후, 롤백 시 반영하지 않음)
+     */
+    public void append(List<SensorVO> sensorDataList) {
+        if (sensorDataList == null || sensorDataList.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyCommitted(sensorDataList);
+                }
+            });
+        } else {
+            applyCommitted(sensorDataList);
+        }
+    }
+
+    private void applyCommitted(List<SensorVO> sensorDataList) {
+        chartResultCache.onWrite(sensorDataList);
+        if (columnarStore.isEnabled()) {
+            columnarStore.append(sensorDataList);
+        }
+    }
+
+    /**
+     * 센서 삭제/이전 시 모든 저장소의 이력 삭제 (MySQL 롤업 / 차트 구간 캐시 포함)
+     */
+    public void purge(String sensorUuid) {
+        mysqlStore.purge(sensorUuid);
+        columnarStore.purge(sensorUuid);
+        chartResultCache.invalidate(sensorUuid);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readStore", readStoreName);
+        stats.put("compare", compare);
+        stats.put("mysqlReads", mysqlReads.get());
+        stats.put("columnarReads", columnarReads.get());
+        stats.put("fallbackReads", fallbackReads.get());
+        stats.put("compareMatched", compareMatched.get());
+        stats.put("compareMismatched", compareMismatched.get());
+        stats.put("compareSkipped", compareSkipped.get());
+        stats.put("compareFailed", compareFailed.get());
+        stats.put("lastMismatch", lastMismatch);
+        stats.put("columnar", columnarStore.getStats());
+        return stats;
+    }
+}
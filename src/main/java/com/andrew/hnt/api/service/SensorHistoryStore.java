@@ -0,0 +1,49 @@
+package com.andrew.hnt.api.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.andrew.hnt.api.model.SensorVO;
+
+/**
+ * 센서 이력 저장소
+ * 조회 파라미터(sensorUuid, startDateTime, endDateTime, lastCursor, pageSize)와
+ * 결과 행 형식은 DataMapper 의 같은 이름 쿼리와 동일
+ */
+public interface SensorHistoryStore {
+
+	/** 저장소 이름 (custom.history.read-store 값) */
+	public String getName();
+
+	/** 수신 데이터 반영 (원본 DB 커밋 이후 호출) */
+	public void append(List<SensorVO> sensorDataList);
+
+	/** 조회 범위 전체를 이 저장소가 보유하는지 (비교/전환 시 판단) */
+	public boolean covers(Map<String, Object> param);
+
+	// 1분 단위 (getDate, inst_dtm, sensor_value)
+	public List<Map<String, Object>> selectDailyData(Map<String, Object> param);
+
+	// 1분 단위 행을 시간 순으로 한 행씩 전달 (기본: 목록 조회 후 전달, 결과셋 스트리밍이 가능한 저장소는 재정의)
+	public default void streamDailyData(Map<String, Object> param, Consumer<Map<String, Object>> consumer) {
+		List<Map<String, Object>> resultList = selectDailyData(param);
+		if (resultList != null) {
+			resultList.forEach(consumer);
+		}
+	}
+
+	// 일 단위 (inst_dtm, sensor_value)
+	public List<Map<String, Object>> selectWeeklyData(Map<String, Object> param);
+
+	// 월 단위 (inst_dtm, sensor_value)
+	public List<Map<String, Object>> selectYearlyData(Map<String, Object> param);
+
+	// 원본 커서 페이징 (inst_dtm, sensor_value, uuid)
+	public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param);
+
+	/** 센서 삭제/이전 시 이력 삭제 */
+	public void purge(String sensorUuid);
+
+	public Map<String, Object> getStats();
+}
@@ -0,0 +1,330 @@
+package com.andrew.hnt.api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+/**
+ * 센서 원본 데이터 내보내기 (NDJSON / CSV 스트리밍)
+ *
+ * - (inst_dtm, id) 키셋 페이지 반복 조회 (page-size 건씩), 페이지를 다 쓰면 flush - 기간과 무관하게 메모리 일정
+ * - 페이지 조회가 끝난 뒤 응답에 쓰므로 느린 클라이언트가 DB 연결을 잡고 있지 않음
+ * - 페이지마다 이어받기 커서 기록 (NDJSON: {"cursor":"..."} 행, CSV: # cursor=... 주석 행)
+ *   연결이 끊기면 마지막으로 받은 커서로 다시 요청 (커서 이후 받은 행은 다시 전송됨)
+ * - 여러 UUID 는 요청 순서대로 이어서 기록
+ */
+@Service
+public class SensorRawExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorRawExportService.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 내보내기 형식
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            return "csv".equalsIgnoreCase(value) ? CSV : NDJSON;
+        }
+    }
+
+    /**
+     * 이어받기 위치 (UUID, 마지막 행 inst_dtm / id) - 토큰은 "uuid|inst_dtm|id" 의 base64url
+     */
+    public static class Cursor {
+        private final String sensorUuid;
+        private final String instDtm;
+        private final long id;
+
+        Cursor(String sensorUuid, String instDtm, long id) {
+            this.sensorUuid = sensorUuid;
+            this.instDtm = instDtm;
+            this.id = id;
+        }
+
+        public String getSensorUuid() {
+            return sensorUuid;
+        }
+
+        public String toToken() {
+            String text = sensorUuid + "|" + instDtm + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** 잘못된 토큰이면 IllegalArgumentException */
+        public static Cursor parse(String token) {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[1].matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}")) {
+                throw new IllegalArgumentException("잘못된 이어받기 커서입니다.");
+            }
+            return new Cursor(parts[0], parts[1], Long.parseLong(parts[2]));
+        }
+    }
+
+    @Autowired
+    private DataMapper dataMapper;
+
+    @Value("${custom.export.raw.page-size:10000}")
+    private int pageSize;
+
+    @Value("${custom.export.raw.max-sensors:20}")
+    private int maxSensors;
+
+    // 통계 정보
+    private final AtomicInteger active = new AtomicInteger(0);
+    private final AtomicLong exports = new AtomicLong(0);
+    private final AtomicLong resumed = new AtomicLong(0);
+    private final AtomicLong rows = new AtomicLong(0);
+    private final AtomicLong pages = new AtomicLong(0);
+    private final AtomicLong aborted = new AtomicLong(0);
+    private final AtomicLong exportNanos = new AtomicLong(0);
+
+    public int getMaxSensors() {
+        return maxSensors;
+    }
+
+    /**
+     * 페이지 기록 후 진행 상황 (내보내기 작업 진행률)
+     */
+    public interface ProgressListener {
+        void page(int sensorIndex, String lastInstDtm, long writtenRows);
+    }
+
+    /**
+     * 내보내기 (out 은 호출한 쪽에서 닫음)
+     *
+     * @param cursor 이어받기 위치 (없으면 처음부터) - 목록에서 커서 UUID 이전 UUID 는 건너뜀
+     * @return 기록한 행 수
+     */
+    public long export(List<String> sensorUuids, String startDateTime, String endDateTime, Format format,
+                       Cursor cursor, OutputStream out) throws IOException {
+        return export(sensorUuids, startDateTime, endDateTime, format, cursor, out, null);
+    }
+
+    public long export(List<String> sensorUuids, String startDateTime, String endDateTime, Format format,
+                       Cursor cursor, OutputStream out, ProgressListener listener) throws IOException {
+        int first = cursor == null ? 0 : sensorUuids.indexOf(cursor.getSensorUuid());
+        if (first < 0) {
+            throw new IllegalArgumentException("이어받기 커서의 센서가 요청 목록에 없습니다.");
+        }
+        long startNanos = System.nanoTime();
+        long written = 0;
+        active.incrementAndGet();
+        exports.incrementAndGet();
+        if (cursor != null) {
+            resumed.incrementAndGet();
+        }
+        boolean compact = SensorDataSchemaService.isCompact();
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer, compact) : new NdjsonRowWriter(writer);
+        try {
+            for (int i = first; i < sensorUuids.size(); i++) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("sensorUuid", sensorUuids.get(i));
+                param.put("startDateTime", startDateTime);
+                param.put("endDateTime", endDateTime);
+                param.put("pageSize", pageSize);
+                if (i == first && cursor != null) {
+                    param.put("lastDtm", cursor.instDtm);
+                    param.put("lastId", cursor.id);
+                }
+                while (true) {
+                    List<Map<String, Object>> page = dataMapper.selectSensorRawPage(param);
+                    pages.incrementAndGet();
+                    if (page == null || page.isEmpty()) {
+                        break;
+                    }
+                    for (Map<String, Object> row : page) {
+                        rowWriter.row(row);
+                    }
+                    written += page.size();
+                    rows.addAndGet(page.size());
+
+                    Map<String, Object> last = page.get(page.size() - 1);
+                    param.put("lastDtm", String.valueOf(last.get("inst_dtm")));
+                    param.put("lastId", ((Number) last.get("id")).longValue());
+                    rowWriter.checkpoint(new Cursor(sensorUuids.get(i), String.valueOf(last.get("inst_dtm")),
+                        ((Number) last.get("id")).longValue()).toToken());
+                    if (listener != null) {
+                        listener.page(i, String.valueOf(last.get("inst_dtm")), written);
+                    }
+                    if (page.size() < pageSize) {
+                        break;
+                    }
+                }
+            }
+            rowWriter.close();
+        } catch (IOException e) {
+            // 클라이언트 연결 끊김 (이어받기 커서로 재요청)
+            aborted.incrementAndGet();
+            logger.info("원본 내보내기 중단 - {}건 기록 후: {}", written, e.toString());
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            exportNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+        logger.info("원본 내보내기 완료 - 센서: {}개, {}건, 형식: {}, 소요시간: {}ms", sensorUuids.size() - first,
+            written, format, (System.nanoTime() - startNanos) / 1_000_000);
+        return written;
+    }
+
+    private interface RowWriter {
+        void row(Map<String, Object> row) throws IOException;
+
+        /** 페이지 끝 - 이어받기 커서 기록 후 flush */
+        void checkpoint(String token) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    /**
+     * NDJSON (행마다 {"id", "uuid", ["ch_id",] "inst_dtm", "sensor_value"}) - 숫자 형식 값은 숫자로 기록
+     */
+    private static class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            generator = JSON_FACTORY.createGenerator(writer);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        @Override
+        public void row(Map<String, Object> row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", ((Number) row.get("id")).longValue());
+            generator.writeStringField("uuid", String.valueOf(row.get("uuid")));
+            Object channel = row.get("ch_id");
+            if (channel instanceof Number) {
+                generator.writeNumberField("ch_id", ((Number) channel).intValue());
+            }
+            generator.writeStringField("inst_dtm", String.valueOf(row.get("inst_dtm")));
+            generator.writeFieldName("sensor_value");
+            Object value = row.get("sensor_value");
+            String numeric = value == null ? null : SensorDataSchemaService.numericOrNull(String.valueOf(value));
+            if (numeric != null) {
+                generator.writeNumber(numeric);
+            } else if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(String.valueOf(value));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void checkpoint(String token) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("cursor", token);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * CSV (헤더 id, uuid, [ch_id,] inst_dtm, sensor_value / 커서는 # 주석 행)
+     */
+    private static class CsvRowWriter implements RowWriter {
+        private final CSVPrinter printer;
+        private final boolean compact;
+
+        CsvRowWriter(Writer writer, boolean compact) throws IOException {
+            this.compact = compact;
+            String[] header = compact
+                ? new String[] {"id", "uuid", "ch_id", "inst_dtm", "sensor_value"}
+                : new String[] {"id", "uuid", "inst_dtm", "sensor_value"};
+            printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setCommentMarker('#')
+                .setRecordSeparator("\n")
+                .setHeader(header)
+                .build());
+        }
+
+        @Override
+        public void row(Map<String, Object> row) throws IOException {
+            printer.print(row.get("id"));
+            printer.print(row.get("uuid"));
+            if (compact) {
+                printer.print(row.get("ch_id"));
+            }
+            printer.print(row.get("inst_dtm"));
+            printer.print(row.get("sensor_value"));
+            printer.println();
+        }
+
+        @Override
+        public void checkpoint(String token) throws IOException {
+            printer.printComment("cursor=" + token);
+            printer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            printer.close(true);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long count = exports.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pageSize", pageSize);
+        stats.put("active", active.get());
+        stats.put("exports", count);
+        stats.put("resumed", resumed.get());
+        stats.put("aborted", aborted.get());
+        stats.put("rows", rows.get());
+        stats.put("pages", pages.get());
+        long nanos = exportNanos.get();
+        stats.put("rowsPerMinute", nanos == 0 ? 0 : Math.round(rows.get() * 60_000_000_000.0 / nanos));
+        stats.put("avgExportMs", count == 0 ? 0 : Math.round(nanos / (double) count / 10_000) / 100.0);
+        return stats;
+    }
+}
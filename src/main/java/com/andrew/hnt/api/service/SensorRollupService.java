@@ -0,0 +1,440 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.mapper.MqttMapper;
+import com.andrew.hnt.api.model.SensorVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 센서 이력 롤업 (1분 / 1시간 / 1일 구간별 min/max/sum/count)
+ * 차트/보고서 조회가 매번 hnt_sensor_data 원본을 GROUP BY 하던 것을 구간 테이블 조회로 대체
+ *
+ * - 수신 배치 저장과 같은 트랜잭션에서 열린 구간 누적 upsert (원본과 롤업이 항상 함께 커밋)
+ * - 활성화 이전 데이터는 백필 작업이 hnt_sensor_data.id 구간 단위로 반영 (진행 위치 저장, 재기동 시 이어서 진행)
+ * - 조회 구간/출력 단위(gu)에 맞춰 구간 경계가 맞는 가장 큰 롤업 테이블 선택, 맞지 않으면 원본 조회
+ * - 테이블: sql/sensor_rollup.sql
+ */
+@Service
+@Order(0) // MQTT 연결 전 실시간 누적 시작 위치 기록
+public class SensorRollupService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorRollupService.class);
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DATE_MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter COMPACT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final String STATE_LIVE_FROM_ID = "live_from_id";
+    private static final String STATE_LIVE_FROM_DTM = "live_from_dtm";
+    private static final String STATE_BACKFILL_ID = "backfill_id";
+    private static final String STATE_BACKFILL_DONE = "backfill_done";
+
+    /**
+     * 롤업 해상도 (테이블명/구간 형식은 고정값 - 매퍼에서 ${} 로 사용)
+     */
+    public enum Resolution {
+        MINUTE("hnt_sensor_rollup_1m", "%Y-%m-%d %H:%i:00", ChronoUnit.MINUTES),
+        HOUR("hnt_sensor_rollup_1h", "%Y-%m-%d %H:00:00", ChronoUnit.HOURS),
+        DAY("hnt_sensor_rollup_1d", "%Y-%m-%d 00:00:00", ChronoUnit.DAYS);
+
+        private final String table;
+        private final String bucketFormat;
+        private final ChronoUnit unit;
+
+        Resolution(String table, String bucketFormat, ChronoUnit unit) {
+            this.table = table;
+            this.bucketFormat = bucketFormat;
+            this.unit = unit;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getBucketFormat() {
+            return bucketFormat;
+        }
+
+        private boolean isAligned(LocalDateTime time) {
+            return time.truncatedTo(unit).equals(time);
+        }
+    }
+
+    @Autowired
+    private MqttMapper mqttMapper;
+
+    @Autowired
+    private DataMapper dataMapper;
+
+    @Autowired
+    @Lazy // 순환 참조 방지 (배치 저장 트랜잭션에서 applyBatch 호출)
+    private TransactionManagementService transactionManagementService;
+
+    @Value("${custom.rollup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${custom.rollup.backfill.enabled:true}")
+    private boolean backfillEnabled;
+
+    @Value("${custom.rollup.backfill.chunk-size:20000}")
+    private long backfillChunkSize;
+
+    @Value("${custom.rollup.backfill.pause-ms:200}")
+    private long backfillPauseMs;
+
+    private volatile boolean ready = false;
+    private volatile long liveFromId = 0;
+    private volatile LocalDateTime liveFromDtm;
+    private volatile long backfillId = 0;
+    private volatile boolean backfillDone = false;
+
+    private Thread backfillThread;
+    private volatile boolean running = false;
+
+    // 통계 정보
+    private final AtomicLong appliedBatches = new AtomicLong(0);
+    private final AtomicLong appliedRows = new AtomicLong(0);
+    private final AtomicLong skippedValues = new AtomicLong(0);
+    private final AtomicLong routedMinute = new AtomicLong(0);
+    private final AtomicLong routedHour = new AtomicLong(0);
+    private final AtomicLong routedDay = new AtomicLong(0);
+    private final AtomicLong rawQueries = new AtomicLong(0);
+    private final AtomicLong backfillChunks = new AtomicLong(0);
+    private final AtomicLong backfillErrors = new AtomicLong(0);
+    private volatile long lastChunkMs = 0;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        start();
+    }
+
+    /**
+     * 상태 로드 (최초 기동 시 실시간 누적 시작 위치 기록) 후 백필 시작
+     */
+    public synchronized void start() {
+        if (!enabled || ready) {
+            return;
+        }
+
+        try {
+            Long maxId = dataMapper.selectMaxSensorDataId();
+            insertStateIfAbsent(STATE_LIVE_FROM_ID, String.valueOf(maxId != null ? maxId : 0L));
+            insertStateIfAbsent(STATE_LIVE_FROM_DTM, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).format(DATE_TIME));
+            insertStateIfAbsent(STATE_BACKFILL_ID, "0");
+            insertStateIfAbsent(STATE_BACKFILL_DONE, "N");
+            loadState();
+        } catch (Exception e) {
+            logger.warn("센서 이력 롤업 상태 로드 실패 - 롤업 미사용 (sql/sensor_rollup.sql 확인): {}", e.toString());
+            return;
+        }
+
+        ready = true;
+        logger.info("센서 이력 롤업 시작 - 실시간 누적 기준 id: {}, 시각: {}, 백필 위치: {}, 백필 완료: {}",
+            liveFromId, liveFromDtm, backfillId, backfillDone);
+
+        if (backfillEnabled && !backfillDone) {
+            running = true;
+            backfillThread = new Thread(this::runBackfill, "Rollup-Backfill");
+            backfillThread.setDaemon(true);
+            backfillThread.start();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void insertStateIfAbsent(String key, String value) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("stateKey", key);
+        param.put("stateValue", value);
+        dataMapper.insertSensorRollupStateIfAbsent(param);
+    }
+
+    private void loadState() {
+        Map<String, String> state = new HashMap<>();
+        List<Map<String, Object>> rows = dataMapper.selectSensorRollupState();
+        if (rows != null) {
+            for (Map<String, Object> row : rows) {
+                state.put(String.valueOf(row.get("state_key")), String.valueOf(row.get("state_value")));
+            }
+        }
+        liveFromId = Long.parseLong(state.getOrDefault(STATE_LIVE_FROM_ID, "0"));
+        liveFromDtm = LocalDateTime.parse(state.get(STATE_LIVE_FROM_DTM), DATE_TIME);
+        backfillId = Long.parseLong(state.getOrDefault(STATE_BACKFILL_ID, "0"));
+        backfillDone = "Y".equals(state.get(STATE_BACKFILL_DONE)) || backfillId >= liveFromId;
+    }
+
+    /**
+     * 수신 배치 롤업 누적 (배치 저장 트랜잭션 안에서 호출 - 실패 시 원본 저장도 롤백)
+     * 같은 센서/분 구간은 미리 합산하여 해상도별 upsert 1회
+     */
+    public void applyBatch(List<SensorVO> sensorDataList) {
+        if (!ready || sensorDataList == null || sensorDataList.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Object>> deltas = new LinkedHashMap<>();
+        for (SensorVO sensor : sensorDataList) {
+            if (sensor == null || sensor.getUuid() == null) {
+                continue;
+            }
+            double value;
+            try {
+                value = Double.parseDouble(sensor.getSensorValue());
+            } catch (Exception e) {
+                skippedValues.incrementAndGet();
+                continue;
+            }
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                skippedValues.incrementAndGet();
+                continue;
+            }
+
+            // 구간 시각: 원래 수신 시각이 있으면 (WAL 재생) 그 분, 없으면 저장 시각 (SQL now())
+            String instDtm = sensor.getInstDtm();
+            String minute = instDtm != null && instDtm.length() >= 16 ? instDtm.substring(0, 16) + ":00" : null;
+            String key = sensor.getUuid() + "|" + (minute != null ? minute : "");
+
+            Map<String, Object> delta = deltas.get(key);
+            if (delta == null) {
+                delta = new HashMap<>();
+                delta.put("uuid", sensor.getUuid());
+                delta.put("instDtm", minute);
+                delta.put("minValue", value);
+                delta.put("maxValue", value);
+                delta.put("sumValue", value);
+                delta.put("cnt", 1);
+                deltas.put(key, delta);
+            } else {
+                delta.put("minValue", Math.min((Double) delta.get("minValue"), value));
+                delta.put("maxValue", Math.max((Double) delta.get("maxValue"), value));
+                delta.put("sumValue", (Double) delta.get("sumValue") + value);
+                delta.put("cnt", (Integer) delta.get("cnt") + 1);
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, Object>> list = new ArrayList<>(deltas.values());
+        for (Resolution resolution : Resolution.values()) {
+            Map<String, Object> param = new HashMap<>();
+            param.put("table", resolution.getTable());
+            param.put("bucketFormat", resolution.getBucketFormat());
+            param.put("list", list);
+            mqttMapper.upsertSensorRollup(param);
+        }
+        appliedBatches.incrementAndGet();
+        appliedRows.addAndGet(list.size());
+    }
+
+    /**
+     * 조회 해상도 선택 - param 에 rollupTable 설정 (원본 조회 시 제거)
+     * 출력 단위 이하 해상도 중 조회 구간 시작/끝이 구간 경계에 맞는 가장 큰 것 선택
+     * @param coarsest 출력 단위 (일간 차트: MINUTE, 기본: HOUR, 주간/연간: DAY)
+     * @return 선택된 해상도 (원본 조회 시 null)
+     */
+    public Resolution route(Map<String, Object> param, Resolution coarsest) {
+        if (param == null) {
+            return null;
+        }
+        param.remove("rollupTable");
+        if (!ready) {
+            return null;
+        }
+
+        LocalDateTime start;
+        LocalDateTime end; // null 이면 현재 시각까지 (열린 구간)
+        try {
+            String startDateTime = stringOf(param.get("startDateTime"));
+            String endDateTime = stringOf(param.get("endDateTime"));
+            String setDate1 = stringOf(param.get("setDate1"));
+            String setDate2 = stringOf(param.get("setDate2"));
+            if (startDateTime != null && endDateTime != null) {
+                start = parseDateTime(startDateTime);
+                end = parseDateTime(endDateTime);
+            } else if (setDate1 != null && setDate2 != null) {
+                start = LocalDateTime.parse(setDate1, COMPACT);
+                end = LocalDateTime.parse(setDate2, COMPACT);
+            } else if ("d".equals(param.get("gu"))) {
+                start = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+                end = null;
+            } else {
+                // 현재 시각 기준 상대 구간 (1개월/1년/1일 전부터) - 구간 경계가 맞지 않으므로 원본 조회
+                rawQueries.incrementAndGet();
+                return null;
+            }
+        } catch (Exception e) {
+            rawQueries.incrementAndGet();
+            return null;
+        }
+
+        // 백필 완료 전에는 실시간 누적 시작 이후 구간만 롤업 사용
+        if (!backfillDone && start.isBefore(liveFromDtm)) {
+            rawQueries.incrementAndGet();
+            return null;
+        }
+
+        for (int i = coarsest.ordinal(); i >= 0; i--) {
+            Resolution resolution = Resolution.values()[i];
+            if (resolution.isAligned(start) && (end == null || resolution.isAligned(end.plusSeconds(1)))) {
+                param.put("rollupTable", resolution.getTable());
+                routedCounter(resolution).incrementAndGet();
+                return resolution;
+            }
+        }
+        rawQueries.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 센서 삭제/이전 시 롤업 삭제
+     */
+    public void purge(String sensorUuid) {
+        if (!ready || sensorUuid == null) {
+            return;
+        }
+        try {
+            for (Resolution resolution : Resolution.values()) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("table", resolution.getTable());
+                param.put("sensorUuid", sensorUuid);
+                dataMapper.deleteSensorRollup(param);
+            }
+        } catch (Exception e) {
+            logger.warn("센서 이력 롤업 삭제 실패 - sensorUuid: {}, 오류: {}", sensorUuid, e.toString());
+        }
+    }
+
+    /**
+     * 백필 (백그라운드 스레드)
+     * id 구간마다 롤업 반영 + 진행 위치 갱신을 한 트랜잭션으로 처리 (중단 후 재기동 시 이어서 진행)
+     */
+    private void runBackfill() {
+        logger.info("센서 이력 롤업 백필 시작 - 위치: {} / {}", backfillId, liveFromId);
+        while (running && backfillId < liveFromId) {
+            long fromId = backfillId;
+            long toId = Math.min(fromId + backfillChunkSize, liveFromId);
+            long started = System.currentTimeMillis();
+            try {
+                if (!transactionManagementService.backfillSensorRollupChunk(fromId, toId)) {
+                    // 다른 인스턴스가 먼저 진행 - 위치 다시 로드
+                    loadState();
+                    continue;
+                }
+                backfillId = toId;
+                backfillChunks.incrementAndGet();
+                lastChunkMs = System.currentTimeMillis() - started;
+                if (backfillChunks.get() % 50 == 0) {
+                    logger.info("센서 이력 롤업 백필 진행 - 위치: {} / {}", backfillId, liveFromId);
+                }
+                sleep(backfillPauseMs);
+            } catch (Exception e) {
+                backfillErrors.incrementAndGet();
+                logger.warn("센서 이력 롤업 백필 실패 - 구간: {} ~ {}, 오류: {}", fromId, toId, e.toString());
+                sleep(Math.max(backfillPauseMs, 5000));
+            }
+        }
+
+        if (running && backfillId >= liveFromId) {
+            try {
+                Map<String, Object> param = new HashMap<>();
+                param.put("stateKey", STATE_BACKFILL_DONE);
+                param.put("stateValue", "Y");
+                dataMapper.updateSensorRollupState(param);
+            } catch (Exception e) {
+                logger.warn("센서 이력 롤업 백필 완료 기록 실패: {}", e.toString());
+            }
+            backfillDone = true;
+            logger.info("센서 이력 롤업 백필 완료 - 구간 수: {}", backfillChunks.get());
+        }
+    }
+
+    private void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private AtomicLong routedCounter(Resolution resolution) {
+        switch (resolution) {
+            case MINUTE:
+                return routedMinute;
+            case HOUR:
+                return routedHour;
+            default:
+                return routedDay;
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String text) {
+        if (text.length() == 16) {
+            return LocalDateTime.parse(text, DATE_MINUTE);
+        }
+        return LocalDateTime.parse(text.length() > 19 ? text.substring(0, 19) : text, DATE_TIME);
+    }
+
+    private static String stringOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = String.valueOf(value).trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * 통계 정보 반환 (백필 진행 상황 포함)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("appliedBatches", appliedBatches.get());
+        stats.put("appliedRows", appliedRows.get());
+        stats.put("skippedValues", skippedValues.get());
+        stats.put("routedMinute", routedMinute.get());
+        stats.put("routedHour", routedHour.get());
+        stats.put("routedDay", routedDay.get());
+        stats.put("rawQueries", rawQueries.get());
+        stats.put("liveFromId", liveFromId);
+        stats.put("liveFromDtm", liveFromDtm != null ? liveFromDtm.format(DATE_TIME) : null);
+        stats.put("backfillId", backfillId);
+        stats.put("backfillDone", backfillDone);
+        stats.put("backfillChunks", backfillChunks.get());
+        stats.put("backfillErrors", backfillErrors.get());
+        stats.put("backfillLastChunkMs", lastChunkMs);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (backfillThread != null) {
+            backfillThread.interrupt();
+        }
+    }
+}
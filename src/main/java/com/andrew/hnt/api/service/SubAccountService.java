@@ -20,78 +20,90 @@ public class SubAccountService {
     
     @Autowired
     private AdminMapper adminMapper;
+
+    @Autowired
+    private MetadataCache metadataCache;
     
     /**
-     * 부계정 여부 확인 (통일된 로직)
+     * 부계정 여부 확인 (통일된 로직, 메타데이터 캐시)
      * @param userId 사용자 ID
      * @return 부계정 여부
      */
     public boolean isSubAccount(String userId) {
         try {
-            // 1차: parent_user_id 컬럼 확인 (기본 방식)
-            Map<String, Object> param = new HashMap<String, Object>();
-            param.put("userId", userId);
-            
-            boolean isSubByParent = adminMapper.isSubAccount(param);
-            if (isSubByParent) {
-                logger.info("부계정 확인 (parent_user_id 기반) - userId: {}", userId);
-                return true;
-            }
-            
-            // 2차: hnt_sensor_info 테이블에서 user_id != sensor_id 확인 (보조 방식)
-            boolean isSubBySensor = adminMapper.isSubAccountBySensorInfo(param);
-            if (isSubBySensor) {
-                logger.info("부계정 확인 (sensor_info 기반) - userId: {}", userId);
-                return true;
-            }
-            
-            logger.info("주계정 확인 - userId: {}", userId);
-            return false;
-            
+            return metadataCache.isSubAccount(userId, () -> loadIsSubAccount(userId));
         } catch (Exception e) {
             logger.error("부계정 여부 확인 실패 - userId: {}, error: {}", userId, e.toString());
             return false;
         }
     }
+
+    private boolean loadIsSubAccount(String userId) {
+        // 1차: parent_user_id 컬럼 확인 (기본 방식)
+        Map<String, Object> param = new HashMap<String, Object>();
+        param.put("userId", userId);
+        
+        boolean isSubByParent = adminMapper.isSubAccount(param);
+        if (isSubByParent) {
+            logger.info("부계정 확인 (parent_user_id 기반) - userId: {}", userId);
+            return true;
+        }
+        
+        // 2차: hnt_sensor_info 테이블에서 user_id != sensor_id 확인 (보조 방식)
+        boolean isSubBySensor = adminMapper.isSubAccountBySensorInfo(param);
+        if (isSubBySensor) {
+            logger.info("부계정 확인 (sensor_info 기반) - userId: {}", userId);
+            return true;
+        }
+        
+        logger.info("주계정 확인 - userId: {}", userId);
+        return false;
+    }
     
     /**
-     * 부계정의 메인 사용자 ID 조회 (통일된 로직)
+     * 부계정의 메인 사용자 ID 조회 (통일된 로직, 메타데이터 캐시)
      * @param subUserId 부계정 사용자 ID
      * @return 메인 사용자 ID
      */
     public String getMainUserIdForSubUser(String subUserId) {
         try {
-            Map<String, Object> param = new HashMap<String, Object>();
-            param.put("subUserId", subUserId);
-            
-            // 1차: parent_user_id 컬럼에서 조회 (기본 방식)
-            Map<String, Object> result = adminMapper.getMainUserIdForSubUser(param);
-            if (result != null && result.size() > 0) {
-                String mainUserId = String.valueOf(result.get("parent_user_id"));
-                if (mainUserId != null && !"null".equals(mainUserId) && !mainUserId.isEmpty()) {
-                    logger.info("메인 사용자 ID 조회 성공 (parent_user_id 기반) - 부계정: {}, 메인: {}", subUserId, mainUserId);
-                    return mainUserId;
-                }
-            }
-            
-            // 2차: hnt_sensor_info 테이블에서 sensor_id 조회 (보조 방식)
-            result = adminMapper.getMainUserIdForSubUserBySensorInfo(param);
-            if (result != null && result.size() > 0) {
-                String mainUserId = String.valueOf(result.get("sensor_id"));
-                if (mainUserId != null && !"null".equals(mainUserId) && !mainUserId.isEmpty()) {
-                    logger.info("메인 사용자 ID 조회 성공 (sensor_info 기반) - 부계정: {}, 메인: {}", subUserId, mainUserId);
-                    return mainUserId;
-                }
+            String mainUserId = metadataCache.getMainUserId(subUserId, () -> loadMainUserIdForSubUser(subUserId));
+            if (mainUserId == null) {
+                logger.warn("부계정의 메인 사용자 ID를 찾을 수 없음 - 부계정: {}", subUserId);
             }
-            
-            logger.warn("부계정의 메인 사용자 ID를 찾을 수 없음 - 부계정: {}", subUserId);
-            return null;
-            
+            return mainUserId;
         } catch (Exception e) {
             logger.error("부계정의 메인 사용자 ID 조회 실패 - 부계정: {}, error: {}", subUserId, e.toString());
             return null;
         }
     }
+
+    private String loadMainUserIdForSubUser(String subUserId) {
+        Map<String, Object> param = new HashMap<String, Object>();
+        param.put("subUserId", subUserId);
+        
+        // 1차: parent_user_id 컬럼에서 조회 (기본 방식)
+        Map<String, Object> result = adminMapper.getMainUserIdForSubUser(param);
+        if (result != null && result.size() > 0) {
+            String mainUserId = String.valueOf(result.get("parent_user_id"));
+            if (mainUserId != null && !"null".equals(mainUserId) && !mainUserId.isEmpty()) {
+                logger.info("메인 사용자 ID 조회 성공 (parent_user_id 기반) - 부계정: {}, 메인: {}", subUserId, mainUserId);
+                return mainUserId;
+            }
+        }
+        
+        // 2차: hnt_sensor_info 테이블에서 sensor_id 조회 (보조 방식)
+        result = adminMapper.getMainUserIdForSubUserBySensorInfo(param);
+        if (result != null && result.size() > 0) {
+            String mainUserId = String.valueOf(result.get("sensor_id"));
+            if (mainUserId != null && !"null".equals(mainUserId) && !mainUserId.isEmpty()) {
+                logger.info("메인 사용자 ID 조회 성공 (sensor_info 기반) - 부계정: {}, 메인: {}", subUserId, mainUserId);
+                return mainUserId;
+            }
+        }
+        
+        return null;
+    }
     
     /**
      * 부계정이 접근 가능한 센서 리스트 조회
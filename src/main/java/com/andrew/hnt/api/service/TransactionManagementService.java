@@ -26,6 +26,15 @@ public interface TransactionManagementService {
     @Transactional(rollbackFor = Exception.class, timeout = 30)
     Map<String, Object> saveSensorDataBatch(List<SensorVO> sensorDataList);
     
+    /**
+     * MQTT 센서 데이터 배치 저장 + WAL 중복 제거 기준 저장 (같은 트랜잭션)
+     * @param sensorDataList 센서 데이터 리스트
+     * @param ingestCheckpoint WAL 기준 (walId, shardNo, lastLsn), null이면 저장하지 않음
+     * @return 처리 결과
+     */
+    @Transactional(rollbackFor = Exception.class, timeout = 30)
+    Map<String, Object> saveSensorDataBatch(List<SensorVO> sensorDataList, Map<String, Object> ingestCheckpoint);
+    
     /**
      * MQTT 센서 데이터 단일 저장 (트랜잭션)
      * @param sensorVO 센서 데이터
@@ -67,6 +76,15 @@ public interface TransactionManagementService {
     @Transactional(rollbackFor = Exception.class, timeout = 30)
     Map<String, Object> saveAlarmDataWithTransaction(Map<String, Object> alarmData);
     
+    /**
+     * 센서 이력 롤업 백필 (hnt_sensor_data id 구간, 백필 위치 갱신과 같은 트랜잭션)
+     * @param fromId 시작 id (미포함, 현재 백필 위치)
+     * @param toId 끝 id (포함)
+     * @return 반영 여부 (다른 인스턴스가 먼저 진행한 구간이면 false)
+     */
+    @Transactional(rollbackFor = Exception.class, timeout = 300)
+    boolean backfillSensorRollupChunk(long fromId, long toId);
+    
     /**
      * 트랜잭션 상태 확인
      * @return 트랜잭션 상태 정보
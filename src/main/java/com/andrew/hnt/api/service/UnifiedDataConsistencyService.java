@@ -129,6 +129,18 @@ public class UnifiedDataConsistencyService {
      */
     @Transactional(rollbackFor = Exception.class, timeout = 60)
     public Map<String, Object> processBatchWithConsistency(List<DataConsistencyManager.MessageWithId> messageBatch) {
+        return processBatchWithConsistency(messageBatch, null);
+    }
+    
+    /**
+     * 배치 메시지 일관성 처리 (WAL 중복 제거 기준 포함)
+     * @param messageBatch 메시지 배치
+     * @param ingestCheckpoint WAL 기준 (walId, shardNo, lastLsn), null이면 저장하지 않음
+     * @return 처리 결과
+     */
+    @Transactional(rollbackFor = Exception.class, timeout = 60)
+    public Map<String, Object> processBatchWithConsistency(List<DataConsistencyManager.MessageWithId> messageBatch,
+                                                           Map<String, Object> ingestCheckpoint) {
         Map<String, Object> result = new HashMap<>();
         
         try {
@@ -155,7 +167,7 @@ public class UnifiedDataConsistencyService {
             }
             
             // 2. 배치 데이터베이스 저장
-            Map<String, Object> saveResult = transactionManagementService.saveSensorDataBatch(validMessages);
+            Map<String, Object> saveResult = transactionManagementService.saveSensorDataBatch(validMessages, ingestCheckpoint);
             
             if (!"200".equals(saveResult.get("resultCode"))) {
                 logger.error("배치 데이터베이스 저장 실패 - error: {}", saveResult.get("resultMessage"));
@@ -15,7 +15,12 @@ import org.springframework.transaction.annotation.Transactional;
 import com.andrew.hnt.api.mapper.AdminMapper;
 import com.andrew.hnt.api.mapper.LoginMapper;
 import com.andrew.hnt.api.model.UserInfo;
+import com.andrew.hnt.api.mqtt.AlarmStateMachine;
+import com.andrew.hnt.api.mqtt.SensorAlarmConfigCache;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
 import com.andrew.hnt.api.service.AdminService;
+import com.andrew.hnt.api.service.ChartResultCache;
+import com.andrew.hnt.api.service.MetadataCache;
 import com.andrew.hnt.api.common.BaseService;
 
 @Service
@@ -27,6 +32,21 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 	@Autowired
 	private AdminMapper adminMapper;
 
+	@Autowired
+	private SensorHeartbeatTracker heartbeatTracker;
+
+	@Autowired
+	private AlarmStateMachine alarmStateMachine;
+
+	@Autowired
+	private ChartResultCache chartResultCache;
+
+	@Autowired
+	private MetadataCache metadataCache;
+
+	@Autowired
+	private SensorAlarmConfigCache alarmConfigCache;
+
 	private AES256Util aes256;
 
 	private static final Logger logger = LoggerFactory.getLogger(AdminServiceImpl.class);
@@ -57,7 +77,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
                 userInfo = loginMapper.getUserInfoByUserId(userId);
                 logInfo("getUserInfo", "사용자 정보 조회 결과: " + (userInfo != null ? userInfo.toString() : "null"));
 
-				sensorMap = adminMapper.getSensorInfoByUuid(param);
+				sensorMap = metadataCache.getSensorInfoByUuid(sensorUuid, userId);
 				logInfo("getUserInfo", "센서 정보 조회 결과: " + (sensorMap != null ? sensorMap.toString() : "null"));
 				
 				resultMap.put("userInfo", userInfo);
@@ -77,7 +97,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 
 		if(null != param && 0 < param.size()) {
 			try {
-				resultMap = adminMapper.getSensorInfo(param);
+				resultMap = metadataCache.getSensorInfo(stringOf(param.get("userId")), stringOf(param.get("sensorUuid")));
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString());
 			}
@@ -96,7 +116,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 		logger.info("=== getSensorInfoByUuid 호출 ===");
 		logger.info("입력 파라미터 - sensorUuid: {}, userId: {}", sensorUuid, userId);
 		
-		Map<String, Object> result = adminMapper.getSensorInfoByUuid(param);
+		Map<String, Object> result = metadataCache.getSensorInfoByUuid(sensorUuid, userId);
 		
 		logger.info("쿼리 결과: {}", result);
 		if (result != null) {
@@ -114,16 +134,8 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 	@Override
 	@Transactional(readOnly = true)
 	public String getUserToken(String userId) {
-		Map<String, Object> param = new HashMap<>();
-		param.put("userId", userId);
-		
-		Map<String, Object> result = adminMapper.getUserToken(param);
-		
-		if (result != null && result.get("token") != null) {
-			return String.valueOf(result.get("token"));
-		}
-		
-		return null;
+		// 알림 경로와 같은 토큰 캐시 사용 (토큰 갱신 시 무효화)
+		return alarmConfigCache.getUserToken(userId);
 	}
 
 	@Override
@@ -344,6 +356,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 		if(null != param && 0 < param.size()) {
 			try {
 				adminMapper.updateSensorInfo(param);
+				metadataCache.sensorChanged(stringOf(param.get("sensorUuid")));
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString(), e);
 			}
@@ -397,54 +410,50 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 
 		if(null != param && 0 < param.size()) {
 			try {
-				resultMap = adminMapper.chkError(param);
-
-				if(null != resultMap && 0 < resultMap.size()) {
-					result = Integer.parseInt(String.valueOf(resultMap.get("cnt")));
-
-					if(result < 1) {
-						result = 0;
-					} else {
-						// 통신 오류가 해소된 경우 이미 입력되어 있는 발송 대상 정보가 있을 경우 발송되지 않도록 처리
-						param.put("alarmType", "netError1");
+				if(heartbeatTracker.isEnabled()) {
+					// 마지막 수신 시각 기준 메모리 조회 (hnt_sensor_data 조회 없음)
+					result = heartbeatTracker.isOnline(String.valueOf(param.get("sensorUuid"))) ? 1 : 0;
+				} else {
+					resultMap = adminMapper.chkError(param);
 
-						Map<String, Object> chkMap = new HashMap<String, Object>();
-						chkMap = adminMapper.selectNoti(param);
+					if(null != resultMap && 0 < resultMap.size()) {
+						result = Integer.parseInt(String.valueOf(resultMap.get("cnt")));
+					}
+				}
 
-						if(null != chkMap && 0 < chkMap.size()) {
-							param.put("no", String.valueOf(chkMap.get("no")));
+				if(result < 1) {
+					result = 0;
+				} else if(!alarmStateMachine.isEnabled()) {
+					// 통신 오류가 해소된 경우 이미 입력되어 있는 발송 대상 정보가 있을 경우 발송되지 않도록 처리
+					// (알람 상태 머신 사용 시 통신 복구는 상태 머신에서 처리)
+					clearNetErrorNoti(param, "netError1");
+					clearNetErrorNoti(param, "netError2");
+				}
+			} catch(Exception e) {
+				logger.error("Error :  "+ e.toString());
+			}
+		}
 
-							try {
-								adminMapper.updateNoti(param);
-							} catch(Exception e) {
-								logger.error("Error : " + e.toString());
-							}
-						}
+		return result;
+	}
 
-						param.remove("no");
-						param.remove("alarmType");
+	private void clearNetErrorNoti(Map<String, Object> param, String alarmType) {
+		param.put("alarmType", alarmType);
 
-						param.put("alarmType", "netError2");
-						chkMap = new HashMap<String, Object>();
-						chkMap = adminMapper.selectNoti(param);
+		Map<String, Object> chkMap = adminMapper.selectNoti(param);
 
-						if(null != chkMap && 0 < chkMap.size()) {
-							param.put("no", String.valueOf(chkMap.get("no")));
+		if(null != chkMap && 0 < chkMap.size()) {
+			param.put("no", String.valueOf(chkMap.get("no")));
 
-							try {
-								adminMapper.updateNoti(param);
-							} catch(Exception e) {
-								logger.error("Error : " + e.toString());
-							}
-						}
-					}
-				}
+			try {
+				adminMapper.updateNoti(param);
 			} catch(Exception e) {
-				logger.error("Error :  "+ e.toString());
+				logger.error("Error : " + e.toString());
 			}
 		}
 
-		return result;
+		param.remove("no");
+		param.remove("alarmType");
 	}
 
 	@Override
@@ -518,6 +527,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 				// 1. 사용자 센서 데이터 삭제 (모든 센서 데이터 완전 삭제)
 				adminMapper.deleteUserSensorData(userId);
 				logger.info("사용자 센서 데이터 삭제 완료 - userId: {}", userId);
+				chartResultCache.invalidateAll(); // 사용자 UUID 목록 없이 삭제하므로 전체 무효화
 				
 				// 2. 사용자 알림 데이터 삭제
 				Map<String, Object> alarmParam = new HashMap<String, Object>();
@@ -536,6 +546,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 				// 5. 사용자 정보 삭제
 				adminMapper.deleteUser(userId);
 				logger.info("사용자 정보 삭제 완료 - userId: {}", userId);
+				metadataCache.userChanged(userId);
 				
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString());
@@ -550,6 +561,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 				// 부계정 사용자 정보만 삭제 (장치 정보는 보존)
 				adminMapper.deleteSubUser(userId);
 				logger.info("부계정 사용자 정보 삭제 완료 - userId: {}", userId);
+				metadataCache.userChanged(userId);
 				
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString());
@@ -568,6 +580,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 				logger.info("수정할 userGrade: {}", param.get("userGrade"));
 				
 				int updateCount = adminMapper.updateUser(param);
+				metadataCache.userChanged(stringOf(param.get("userId")));
 				
 				logger.info("=== updateUser 실행 완료 ===");
 				logger.info("DB UPDATE 영향받은 행 수: {}", updateCount);
@@ -641,6 +654,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 
 			try {
 				loginMapper.insertUser(userInfo);
+				metadataCache.userChanged(subId); // 생성 전 조회로 캐시된 주계정 판정 제거
 				logger.info("부계정 생성 성공 - subId: {}, parentUserId: {}", subId, parentUserId);
 				logger.info("DB 저장 확인 - UserInfo.parentUserId: {}", userInfo.getParentUserId());
 			} catch(Exception e) {
@@ -673,6 +687,7 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 				if(null != userGrade && !"".equals(userGrade) && 0 < userGrade.length()) {
 					try {
 						adminMapper.updateUserGrade(param);
+						metadataCache.userChanged(userId);
 					} catch(Exception e) {
 						logger.error("Error : " + e.toString());
 						throw new Exception();
@@ -881,4 +896,8 @@ public class AdminServiceImpl extends BaseService implements AdminService {
 			return 0;
 		}
 	}
+
+	private static String stringOf(Object value) {
+		return value != null ? String.valueOf(value) : null;
+	}
 }
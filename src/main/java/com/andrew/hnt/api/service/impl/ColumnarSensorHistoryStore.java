@@ -0,0 +1,349 @@
+package com.andrew.hnt.api.service.impl;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.SensorHistoryStore;
+import com.andrew.hnt.api.tsdb.ColumnarSeriesEngine;
+import com.andrew.hnt.api.tsdb.ColumnarSeriesEngine.Aggregate;
+
+/**
+ * 로컬 디스크 컬럼형 센서 이력 저장소 (tsdb.ColumnarSeriesEngine)
+ * custom.history.columnar.enabled 일 때만 기록하며, 기록 시작 이후 구간만 조회 대상 (covers)
+ * 기존 이력은 MySQL 저장소에서 조회
+ */
+@Service
+public class ColumnarSensorHistoryStore implements SensorHistoryStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ColumnarSensorHistoryStore.class);
+
+	public static final String NAME = "columnar";
+
+	private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+	private static final DateTimeFormatter DATE_MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+	private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+	private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+	private static final long MINUTE_SECONDS = 60L;
+	private static final long DAY_SECONDS = 86400L;
+
+	@Value("${custom.history.columnar.enabled:false}")
+	private boolean enabled;
+
+	@Value("${custom.history.columnar.path:./data/tsdb}")
+	private String path;
+
+	@Value("${custom.history.columnar.chunk-minutes:1440}")
+	private int chunkMinutes;
+
+	private volatile ColumnarSeriesEngine engine;
+
+	private final AtomicLong appendFailures = new AtomicLong(0);
+	private final AtomicLong skippedValues = new AtomicLong(0);
+	private final AtomicLong queries = new AtomicLong(0);
+	private final AtomicLong queryNanos = new AtomicLong(0);
+
+	@PostConstruct
+	public void init() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			engine = new ColumnarSeriesEngine(new File(path), Math.max(1, chunkMinutes) * MINUTE_SECONDS);
+			logger.info("컬럼형 센서 이력 저장소 시작 - 경로: {}, 구간: {}분", new File(path).getAbsolutePath(), chunkMinutes);
+		} catch (Exception e) {
+			logger.error("컬럼형 센서 이력 저장소 시작 실패 - 경로: {}, 오류: {}", path, e.toString());
+		}
+	}
+
+	public boolean isEnabled() {
+		return engine != null;
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void append(List<SensorVO> sensorDataList) {
+		ColumnarSeriesEngine current = engine;
+		if (current == null || sensorDataList == null) {
+			return;
+		}
+		for (SensorVO sensor : sensorDataList) {
+			if (sensor == null || sensor.getUuid() == null) {
+				continue;
+			}
+			double value;
+			try {
+				value = Double.parseDouble(sensor.getSensorValue());
+			} catch (Exception e) {
+				skippedValues.incrementAndGet();
+				continue;
+			}
+			if (Double.isNaN(value) || Double.isInfinite(value)) {
+				skippedValues.incrementAndGet();
+				continue;
+			}
+			try {
+				// 원래 수신 시각이 있으면 (WAL 재생) 그 시각, 없으면 현재 시각 (SQL now() 와 동일)
+				String instDtm = sensor.getInstDtm();
+				LocalDateTime time = instDtm != null && instDtm.length() >= 16
+					? parseDateTime(instDtm) : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+				current.append(sensor.getUuid(), toSeconds(time), value);
+			} catch (Exception e) {
+				appendFailures.incrementAndGet();
+				logger.warn("컬럼형 이력 기록 실패 - uuid: {}, 오류: {}", sensor.getUuid(), e.toString());
+			}
+		}
+	}
+
+	@Override
+	public boolean covers(Map<String, Object> param) {
+		ColumnarSeriesEngine current = engine;
+		String uuid = stringOf(param.get("sensorUuid"));
+		if (current == null || uuid == null) {
+			return false;
+		}
+		try {
+			Long first = current.firstTimestamp(uuid);
+			LocalDateTime start = startOf(param);
+			return first != null && start != null && toSeconds(start) >= first;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	@Override
+	public List<Map<String, Object>> selectDailyData(Map<String, Object> param) {
+		List<Map<String, Object>> resultList = new ArrayList<>();
+		for (Map.Entry<Long, Aggregate> entry : aggregate(param, ts -> Math.floorDiv(ts, MINUTE_SECONDS)).entrySet()) {
+			LocalDateTime time = toDateTime(entry.getKey() * MINUTE_SECONDS);
+			Map<String, Object> row = new HashMap<>();
+			row.put("getDate", time.format(DATE));
+			row.put("inst_dtm", time.format(DATE_MINUTE));
+			row.put("sensor_value", round(entry.getValue().getAverage()));
+			resultList.add(row);
+		}
+		return resultList;
+	}
+
+	@Override
+	public List<Map<String, Object>> selectWeeklyData(Map<String, Object> param) {
+		return series(aggregate(param, ts -> Math.floorDiv(ts, DAY_SECONDS)), DAY_SECONDS, DATE);
+	}
+
+	@Override
+	public List<Map<String, Object>> selectYearlyData(Map<String, Object> param) {
+		// 월 구간 키 = 년 * 12 + 월
+		TreeMap<Long, Aggregate> months = aggregate(param, ts -> {
+			LocalDateTime time = toDateTime(ts);
+			return time.getYear() * 12L + time.getMonthValue() - 1;
+		});
+		List<Map<String, Object>> resultList = new ArrayList<>();
+		for (Map.Entry<Long, Aggregate> entry : months.entrySet()) {
+			LocalDateTime time = LocalDateTime.of((int) (entry.getKey() / 12), (int) (entry.getKey() % 12) + 1, 1, 0, 0);
+			Map<String, Object> row = new HashMap<>();
+			row.put("inst_dtm", time.format(MONTH));
+			row.put("sensor_value", round(entry.getValue().getAverage()));
+			resultList.add(row);
+		}
+		return resultList;
+	}
+
+	@Override
+	public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param) {
+		List<Map<String, Object>> resultList = new ArrayList<>();
+		ColumnarSeriesEngine current = engine;
+		String uuid = stringOf(param.get("sensorUuid"));
+		if (current == null || uuid == null) {
+			return resultList;
+		}
+		long from = Long.MIN_VALUE;
+		long to = Long.MAX_VALUE;
+		LocalDateTime start = startOf(param);
+		LocalDateTime end = endOf(param);
+		String lastCursor = stringOf(param.get("lastCursor"));
+		if (start != null) {
+			from = toSeconds(start);
+		}
+		if (lastCursor != null) {
+			from = Math.max(from, toSeconds(parseDateTime(lastCursor)) + 1);
+		}
+		if (end != null) {
+			to = toSeconds(end);
+		}
+		int pageSize = param.get("pageSize") != null ? Integer.parseInt(String.valueOf(param.get("pageSize"))) : 1000;
+
+		long started = System.nanoTime();
+		try {
+			current.scan(uuid, from, to, (timestamp, value) -> {
+				Map<String, Object> row = new HashMap<>();
+				row.put("inst_dtm", toDateTime(timestamp).format(DATE_TIME));
+				row.put("sensor_value", BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+				row.put("uuid", uuid);
+				resultList.add(row);
+				return resultList.size() < pageSize;
+			});
+		} catch (Exception e) {
+			throw new IllegalStateException("컬럼형 이력 조회 실패 - uuid: " + uuid, e);
+		} finally {
+			queries.incrementAndGet();
+			queryNanos.addAndGet(System.nanoTime() - started);
+		}
+		return resultList;
+	}
+
+	private TreeMap<Long, Aggregate> aggregate(Map<String, Object> param, LongUnaryOperator bucketOf) {
+		ColumnarSeriesEngine current = engine;
+		String uuid = stringOf(param.get("sensorUuid"));
+		LocalDateTime start = startOf(param);
+		LocalDateTime end = endOf(param);
+		if (current == null || uuid == null || start == null || end == null) {
+			return new TreeMap<>();
+		}
+		long started = System.nanoTime();
+		try {
+			return current.aggregate(uuid, toSeconds(start), toSeconds(end), bucketOf);
+		} catch (Exception e) {
+			throw new IllegalStateException("컬럼형 이력 집계 실패 - uuid: " + uuid, e);
+		} finally {
+			queries.incrementAndGet();
+			queryNanos.addAndGet(System.nanoTime() - started);
+		}
+	}
+
+	private static List<Map<String, Object>> series(TreeMap<Long, Aggregate> buckets, long bucketSeconds, DateTimeFormatter format) {
+		List<Map<String, Object>> resultList = new ArrayList<>();
+		for (Map.Entry<Long, Aggregate> entry : buckets.entrySet()) {
+			Map<String, Object> row = new HashMap<>();
+			row.put("inst_dtm", toDateTime(entry.getKey() * bucketSeconds).format(format));
+			row.put("sensor_value", round(entry.getValue().getAverage()));
+			resultList.add(row);
+		}
+		return resultList;
+	}
+
+	@Override
+	public void purge(String sensorUuid) {
+		ColumnarSeriesEngine current = engine;
+		if (current == null || sensorUuid == null) {
+			return;
+		}
+		try {
+			current.purge(sensorUuid);
+		} catch (Exception e) {
+			logger.warn("컬럼형 이력 삭제 실패 - sensorUuid: {}, 오류: {}", sensorUuid, e.toString());
+		}
+	}
+
+	/**
+	 * 열린 구간 스냅샷 주기 기록 (재기동 시 복원)
+	 */
+	@Scheduled(fixedDelayString = "${custom.history.columnar.flush-interval-ms:60000}")
+	public void flush() {
+		ColumnarSeriesEngine current = engine;
+		if (current == null) {
+			return;
+		}
+		try {
+			current.flush();
+		} catch (Exception e) {
+			logger.warn("컬럼형 이력 스냅샷 기록 실패: {}", e.toString());
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	@Override
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		ColumnarSeriesEngine current = engine;
+		stats.put("name", NAME);
+		stats.put("enabled", current != null);
+		stats.put("skippedValues", skippedValues.get());
+		stats.put("appendFailures", appendFailures.get());
+		stats.put("queries", queries.get());
+		stats.put("avgQueryMs", queries.get() == 0 ? 0 : queryNanos.get() / queries.get() / 1_000_000.0);
+		if (current != null) {
+			stats.put("path", current.getDirectory().getAbsolutePath());
+			stats.put("series", current.getSeriesCount());
+			stats.put("appendedPoints", current.getAppendedPoints());
+			stats.put("reorderedOutOfOrder", current.getReorderedPoints());
+			stats.put("droppedOutOfOrder", current.getDroppedPoints());
+			stats.put("sealedBlocks", current.getSealedBlocks());
+			stats.put("sealedBytes", current.getSealedBytes());
+			stats.put("bytesPerPoint", current.getSealedPointCount() == 0 ? 0
+				: Math.round(current.getSealedBytes() * 100.0 / current.getSealedPointCount()) / 100.0);
+			stats.put("scannedBlocks", current.getScannedBlocks());
+			stats.put("summarizedBlocks", current.getSummarizedBlocks());
+		}
+		return stats;
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 10) / 10.0;
+	}
+
+	private static long toSeconds(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	private static LocalDateTime toDateTime(long seconds) {
+		return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+	}
+
+	private static LocalDateTime startOf(Map<String, Object> param) {
+		String text = stringOf(param.get("startDateTime"));
+		return text != null ? parseDateTime(text) : null;
+	}
+
+	private static LocalDateTime endOf(Map<String, Object> param) {
+		String text = stringOf(param.get("endDateTime"));
+		return text != null ? parseDateTime(text) : null;
+	}
+
+	private static LocalDateTime parseDateTime(String value) {
+		String text = value.replace('T', ' ');
+		if (text.length() == 10) {
+			return LocalDateTime.parse(text + " 00:00:00", DATE_TIME);
+		}
+		if (text.length() == 16) {
+			return LocalDateTime.parse(text, DATE_MINUTE);
+		}
+		return LocalDateTime.parse(text.length() > 19 ? text.substring(0, 19) : text, DATE_TIME);
+	}
+
+	private static String stringOf(Object value) {
+		if (value == null) {
+			return null;
+		}
+		String text = String.valueOf(value).trim();
+		return text.isEmpty() ? null : text;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.andrew.hnt.api.mapper.AdminMapper;
 import com.andrew.hnt.api.model.DeviceVO;
@@ -14,7 +15,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.service.ChartResultCache;
+import com.andrew.hnt.api.service.ChartResultCache.Unit;
 import com.andrew.hnt.api.service.DataService;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.service.SensorDataPartitionService;
+import com.andrew.hnt.api.service.SensorHistoryService;
+import com.andrew.hnt.api.service.SensorRollupService;
+import com.andrew.hnt.api.service.SensorRollupService.Resolution;
 
 @Service
 @Transactional(timeout = 300, rollbackFor = Exception.class)
@@ -26,6 +35,24 @@ public class DataServiceImpl implements DataService {
 	@Autowired
 	private AdminMapper adminMapper;
 
+	@Autowired
+	private SensorRollupService sensorRollupService;
+
+	@Autowired
+	private SensorDataPartitionService sensorDataPartitionService;
+
+	@Autowired
+	private SensorHistoryService sensorHistoryService;
+
+	@Autowired
+	private ChartResultCache chartResultCache;
+
+	@Autowired
+	private MetadataCache metadataCache;
+
+	@Autowired
+	private SensorHeartbeatTracker heartbeatTracker;
+
 	private static final Logger logger = LoggerFactory.getLogger(DataServiceImpl.class);
 	
 	// 비동기 처리를 위한 Executor (5개 스레드)
@@ -71,6 +98,7 @@ public class DataServiceImpl implements DataService {
 
 			try {
 				dataMapper.updateSensorInfo(param);
+				metadataCache.sensorChanged(deviceVO.getSensorUuid());
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString(), e);
 			}
@@ -88,6 +116,8 @@ public class DataServiceImpl implements DataService {
 			try {
 				// 1. 장치 기본 정보 삭제 (가장 먼저 실행하여 사용자에게 삭제된 것처럼 보이게 함)
 				dataMapper.deleteSensorInfo(param);
+				metadataCache.sensorChanged(deviceVO.getSensorUuid());
+				heartbeatTracker.evict(deviceVO.getSensorUuid());
 				logger.info("장치 기본 정보 삭제 완료 - sensorUuid: {}", deviceVO.getSensorUuid());
 				
 				// 2. 장치 설정 정보 삭제
@@ -106,26 +136,33 @@ public class DataServiceImpl implements DataService {
 						int deletedCount = 0;
 						int totalDeleted = 0;
 						
-						// 비동기 스레드에서 실행되므로 트랜잭션 관리가 필요할 수 있음
-						// 여기서는 간단히 반복 실행
-						do {
-							// 파라미터 맵 새로 생성 (스레드 안전성)
-							Map<String, Object> asyncParam = new HashMap<>();
-							asyncParam.put("sensorUuid", deviceVO.getSensorUuid());
-							asyncParam.put("batchSize", batchSize);
+						// 파티션 적용 시 구간별 삭제 (각 삭제가 한 구간만 접근)
+						if (sensorDataPartitionService.isPartitioned()) {
+							totalDeleted = sensorDataPartitionService.deleteSensorData(deviceVO.getSensorUuid());
+						} else {
+							// 비동기 스레드에서 실행되므로 트랜잭션 관리가 필요할 수 있음
+							// 여기서는 간단히 반복 실행
+							do {
+								// 파라미터 맵 새로 생성 (스레드 안전성)
+								Map<String, Object> asyncParam = new HashMap<>();
+								asyncParam.put("sensorUuid", deviceVO.getSensorUuid());
+								asyncParam.put("batchSize", batchSize);
 							
-							deletedCount = dataMapper.deleteSensorDataBatch(asyncParam);
-							totalDeleted += deletedCount;
+								deletedCount = dataMapper.deleteSensorDataBatch(asyncParam);
+								totalDeleted += deletedCount;
 							
-							if (totalDeleted % 10000 == 0) {
-								logger.info("센서 데이터 비동기 삭제 진행 중 - 삭제된 개수: {}, 총 삭제: {}, uuid: {}", deletedCount, totalDeleted, deviceVO.getSensorUuid());
-							}
+								if (totalDeleted % 10000 == 0) {
+									logger.info("센서 데이터 비동기 삭제 진행 중 - 삭제된 개수: {}, 총 삭제: {}, uuid: {}", deletedCount, totalDeleted, deviceVO.getSensorUuid());
+								}
 							
-							// DB 부하 방지를 위한 잠시 대기
-							if (deletedCount > 0) {
-								try { Thread.sleep(10); } catch (InterruptedException ie) {}
-							}
-						} while (deletedCount > 0);
+								// DB 부하 방지를 위한 잠시 대기
+								if (deletedCount > 0) {
+									try { Thread.sleep(10); } catch (InterruptedException ie) {}
+								}
+							} while (deletedCount > 0);
+						}
+						
+						sensorHistoryService.purge(deviceVO.getSensorUuid());
 						
 						logger.info("센서 데이터 비동기 삭제 완료 - userId: {}, sensorUuid: {}, 총 삭제: {}", 
 							deviceVO.getUserId(), deviceVO.getSensorUuid(), totalDeleted);
@@ -145,12 +182,22 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectSensorData(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
 		if(null != param && 0 < param.size()) {
 			try {
-				resultList = dataMapper.selectSensorData(param);
+				// 출력 단위: d(1분), w(일), y(월), 기본(시)
+				String gu = String.valueOf(param.get("gu"));
+				Resolution coarsest = "d".equals(gu) ? Resolution.MINUTE
+					: "w".equals(gu) || "y".equals(gu) ? Resolution.DAY : Resolution.HOUR;
+				Unit unit = "d".equals(gu) ? Unit.MINUTE : "w".equals(gu) ? Unit.DAY : "y".equals(gu) ? Unit.MONTH : Unit.HOUR;
+				// 닫힌 구간은 캐시, 끝 구간만 조회 (일간은 원래 쿼리의 limit 1440 유지)
+				resultList = chartResultCache.select("selectSensorData", param, unit, "d".equals(gu) ? 1440 : 0, p -> {
+					sensorRollupService.route(p, coarsest);
+					return dataMapper.selectSensorData(p);
+				});
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString(), e);
 			}
@@ -160,6 +207,7 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectSensorDataForExcel(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
@@ -177,6 +225,7 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectSensorDataForExcelFast(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
@@ -194,13 +243,14 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectDailyData(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
 		if(null != param && 0 < param.size()) {
 			try {
 				logger.info("최적화된 일간 데이터 조회 실행 - param: {}", param);
-				resultList = dataMapper.selectDailyData(param);
+				resultList = chartResultCache.select("history.selectDailyData", param, Unit.MINUTE, 0, sensorHistoryService::selectDailyData);
 				logger.info("최적화된 일간 데이터 조회 결과 - 데이터 수: {}", resultList != null ? resultList.size() : 0);
 			} catch(Exception e) {
 				logger.error("최적화된 일간 데이터 조회 실패: {}", e.toString(), e);
@@ -211,6 +261,16 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
+	public void streamDailyData(Map<String, Object> param, Consumer<Map<String, Object>> consumer) {
+		// 목록을 만들지 않고 한 행씩 전달 (차트 캐시 미사용, 오류는 호출한 쪽에서 응답 처리)
+		if(null != param && 0 < param.size()) {
+			sensorHistoryService.streamDailyData(param, consumer);
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectDailyDataWithCursor(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
@@ -228,13 +288,14 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectWeeklyData(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
 		if(null != param && 0 < param.size()) {
 			try {
 				logger.info("최적화된 주간 데이터 조회 실행 - param: {}", param);
-				resultList = dataMapper.selectWeeklyData(param);
+				resultList = chartResultCache.select("history.selectWeeklyData", param, Unit.DAY, 0, sensorHistoryService::selectWeeklyData);
 				logger.info("최적화된 주간 데이터 조회 결과 - 데이터 수: {}", resultList != null ? resultList.size() : 0);
 			} catch(Exception e) {
 				logger.error("최적화된 주간 데이터 조회 실패: {}", e.toString(), e);
@@ -245,13 +306,14 @@ public class DataServiceImpl implements DataService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeout = 300)
 	public List<Map<String, Object>> selectYearlyData(Map<String, Object> param) {
 		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
 
 		if(null != param && 0 < param.size()) {
 			try {
 				logger.info("최적화된 연간 데이터 조회 실행 - param: {}", param);
-				resultList = dataMapper.selectYearlyData(param);
+				resultList = chartResultCache.select("history.selectYearlyData", param, Unit.MONTH, 0, sensorHistoryService::selectYearlyData);
 				logger.info("최적화된 연간 데이터 조회 결과 - 데이터 수: {}", resultList != null ? resultList.size() : 0);
 			} catch(Exception e) {
 				logger.error("최적화된 연간 데이터 조회 실패: {}", e.toString(), e);
@@ -261,4 +323,20 @@ public class DataServiceImpl implements DataService {
 		return resultList;
 	}
 
+	@Override
+	@Transactional(readOnly = true, timeout = 300)
+	public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param) {
+		List<Map<String, Object>> resultList = new ArrayList<Map<String, Object>>();
+
+		if(null != param && 0 < param.size()) {
+			try {
+				resultList = sensorHistoryService.selectSensorDataWithCursor(param);
+			} catch(Exception e) {
+				logger.error("커서 기반 원본 데이터 조회 실패: {}", e.toString(), e);
+			}
+		}
+
+		return resultList;
+	}
+
 }
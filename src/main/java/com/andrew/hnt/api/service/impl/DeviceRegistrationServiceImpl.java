@@ -2,7 +2,10 @@ package com.andrew.hnt.api.service.impl;
 
 import com.andrew.hnt.api.mapper.AdminMapper;
 import com.andrew.hnt.api.mapper.MqttMapper;
-import com.andrew.hnt.api.mqtt.common.MQTT;
+import com.andrew.hnt.api.mqtt.MqttCommandChannel;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.service.SensorHistoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -31,10 +33,17 @@ public class DeviceRegistrationServiceImpl {
 	
     
     
-    // MQTT 서버 설정
-    private static final String MQTT_SERVER = "tcp://hntsolution.co.kr:1883";
-    private static final String MQTT_USERNAME = "hnt1";
-    private static final String MQTT_PASSWORD = "abcde";
+    @Autowired
+    private MqttCommandChannel commandChannel;
+    
+    @Autowired
+    private SensorHistoryService sensorHistoryService;
+
+    @Autowired
+    private MetadataCache metadataCache;
+
+    @Autowired
+    private SensorHeartbeatTracker heartbeatTracker;
     
 	@Transactional
 	public boolean processDeviceRegistration(String userId, String model, String mac) {
@@ -182,6 +191,7 @@ public class DeviceRegistrationServiceImpl {
             
             logger.info("장치 기본 정보 삽입 시작: param={}", param);
             mqttMapper.insertSensorInfo(param);
+            metadataCache.sensorChanged(mac);
             logger.info("장치 기본 정보 삽입 완료");
             
             // 기본 설정 정보 생성
@@ -211,12 +221,15 @@ public class DeviceRegistrationServiceImpl {
             
             // 1. 기존 사용자의 장치 기본 정보 삭제
             mqttMapper.deleteSensorInfoByUuid(createParamMap("sensorUuid", mac));
+            metadataCache.sensorChanged(mac);
+            heartbeatTracker.evict(mac);
             
             // 2. 기존 사용자의 장치 설정 정보 삭제
             mqttMapper.deleteConfigByUuid(createParamMap("sensorUuid", mac));
             
-            // 3. 기존 사용자의 센서 데이터 삭제
+            // 3. 기존 사용자의 센서 데이터 삭제 (롤업 포함)
             mqttMapper.deleteSensorDataByUuid(createParamMap("sensorUuid", mac));
+            sensorHistoryService.purge(mac);
             
             // 4. 기존 사용자의 알림 데이터 삭제
             mqttMapper.deleteAlarmByUuid(createParamMap("sensorUuid", mac));
@@ -241,16 +254,8 @@ public class DeviceRegistrationServiceImpl {
 			// 응답 토픽: HBEE/($userId)/TC(model)/($mac)/SER
 			String responseTopic = String.format("HBEE/%s/%s/%s/SER", userId, model, mac);
 			
-			// MQTT 클라이언트 생성 및 즉시 응답 전송
-			String clientId = "hnt-server-immediate-" + System.currentTimeMillis();
-			MQTT mqttClient = new MQTT(MQTT_SERVER, clientId, MQTT_USERNAME, MQTT_PASSWORD);
-			
-			// MQTT 클라이언트 초기화 (구독 토픽은 필요 없으므로 빈 문자열)
-			mqttClient.init("", "N");
-			
-			// 즉시 응답 전송
-			mqttClient.publish(responseMessage, 0, responseTopic);
-			boolean sendSuccess = true; // publish는 void이므로 성공으로 간주
+			// 공용 명령 채널로 즉시 응답 전송
+			boolean sendSuccess = commandChannel.publish(responseTopic, responseMessage);
 			
 			if (sendSuccess) {
 				logger.info("즉시 응답 전송 성공: topic={}, message={}", responseTopic, responseMessage);
@@ -277,21 +282,14 @@ public class DeviceRegistrationServiceImpl {
             // 응답 토픽: HBEE/($userId)/TC(model)/($mac)/SER
             String responseTopic = String.format("HBEE/%s/%s/%s/SER", userId, model, mac);
             
-            // MQTT 클라이언트 생성 및 응답 전송
-            String clientId = "hnt-server-" + System.currentTimeMillis();
-            MQTT mqttClient = new MQTT(MQTT_SERVER, clientId, MQTT_USERNAME, MQTT_PASSWORD);
-            
-            // MQTT 클라이언트 초기화 (구독 토픽은 필요 없으므로 빈 문자열)
-            mqttClient.init("", "N");
-            
-            // 응답 전송
-            mqttClient.publish(responseMessage, 0, responseTopic);
+            // 공용 명령 채널로 응답 전송
+            boolean sendSuccess = commandChannel.publish(responseTopic, responseMessage);
             
             if("kimtest".equals(userId)) {
-                logger.info("MQTT 응답 전송 성공: topic={}, message={}", responseTopic, responseMessage);
+                logger.info("MQTT 응답 전송 {}: topic={}, message={}", sendSuccess ? "성공" : "실패", responseTopic, responseMessage);
             }
             
-            return true;
+            return sendSuccess;
             
         } catch (Exception e) {
             if("kimtest".equals(userId)) {
@@ -316,28 +314,18 @@ public class DeviceRegistrationServiceImpl {
 	private void executeDeviceRead(String userId, String mac, String payload, String readType) {
 		try {
 			String sendTopic = String.format("HBEE/%s/TC/%s/SER", userId, mac);
-			String subscribeTopic = String.format("HBEE/%s/TC/%s/DEV", userId, mac);
-			
-			// MQTT 클라이언트 생성 및 메시지 전송
-			com.andrew.hnt.api.mqtt.common.MQTT client = new com.andrew.hnt.api.mqtt.common.MQTT(
-				"tcp://hntsolution.co.kr:1883", 
-				UUID.randomUUID().toString(), 
-				"hnt1", 
-				"abcde"
-			);
 			
-			client.init(subscribeTopic, "Y");
-			client.publish(payload, 0, sendTopic);
+			// 공용 명령 채널로 전송 후 DEV 응답 대기 (시간 초과 시 null)
+			MqttCommandChannel.CommandResponse response = commandChannel.sendAndWait(sendTopic, payload);
 			
 			if("kimtest".equals(userId)) {
 				logger.info("자동 {} 읽기 완료: {} → {}", readType, payload, sendTopic);
 			}
 			
 			// 응답 수신 (선택적)
-			String response = client.getMsg();
-			if(response != null && !response.isEmpty()) {
+			if(response != null && response.getMessage() != null && !response.getMessage().isEmpty()) {
 				if("kimtest".equals(userId)) {
-					logger.info("{} 읽기 응답: {}", readType, response);
+					logger.info("{} 읽기 응답: {} ({}ms)", readType, response.getMessage(), response.getLatencyMs());
 				}
 			}
 			
@@ -17,6 +17,9 @@ import org.springframework.transaction.annotation.Transactional;
 import com.andrew.hnt.api.mapper.LoginMapper;
 import com.andrew.hnt.api.mapper.MqttMapper;
 import com.andrew.hnt.api.service.LoginService;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.service.SensorHistoryService;
 import com.andrew.hnt.api.util.StringUtil;
 import com.andrew.hnt.api.util.AES256Util;
 import com.andrew.hnt.api.common.BaseService;
@@ -30,6 +33,15 @@ public class LoginServiceImpl extends BaseService implements LoginService {
 		@Autowired
 	private MqttMapper mqttMapper;
 
+	@Autowired
+	private SensorHistoryService sensorHistoryService;
+
+	@Autowired
+	private MetadataCache metadataCache;
+
+	@Autowired
+	private SensorHeartbeatTracker heartbeatTracker;
+
 	
 
 	private AES256Util aes256;
@@ -365,9 +377,11 @@ public class LoginServiceImpl extends BaseService implements LoginService {
 					if(0 < cnt) {
 					} else {
 						mqttMapper.insertSensorInfo(param);
+						metadataCache.sensorChanged(String.valueOf(param.get("sensorUuid")));
 					}
 				} else {
 					mqttMapper.insertSensorInfo(param);
+					metadataCache.sensorChanged(String.valueOf(param.get("sensorUuid")));
 				}
 			} catch(Exception e) {
 				logger.error("Error : " + e.toString());
@@ -418,6 +432,7 @@ public class LoginServiceImpl extends BaseService implements LoginService {
 				
 				// 직접 UPDATE 쿼리 실행
 				mqttMapper.updateSensorNameDirect(updateParam);
+				metadataCache.sensorChanged(sensorUuid);
 				
 				resultMap.put("result", "true");
 				resultMap.put("message", "장치 이름이 성공적으로 변경되었습니다.");
@@ -452,6 +467,8 @@ public class LoginServiceImpl extends BaseService implements LoginService {
 			mqttMapper.deleteSensorInfoByUuid(checkParam);
 			mqttMapper.deleteConfigByUuid(checkParam);
 			mqttMapper.deleteAlarmByUuid(checkParam);
+			metadataCache.sensorChanged(sensorUuid);
+			heartbeatTracker.evict(sensorUuid);
 			
 			logger.info("기존 소유자 장치 정보 삭제 완료 - userId: {}, sensorUuid: {}", existingUserId, sensorUuid);
 			
@@ -485,6 +502,8 @@ public class LoginServiceImpl extends BaseService implements LoginService {
 						}
 					} while (deletedCount > 0);
 					
+					sensorHistoryService.purge(finalSensorUuid);
+					
 					logger.info("장치 이전 - 센서 데이터 비동기 삭제 완료 - 기존 소유자: {}, sensorUuid: {}, 총 삭제: {}", 
 						finalExistingUserId, finalSensorUuid, totalDeleted);
 						
@@ -497,6 +516,7 @@ public class LoginServiceImpl extends BaseService implements LoginService {
 		// 5. 새 사용자에게 장치 등록
 		logger.info("장치등록 시작 - userId: {}, sensorUuid: {}", currentUserId, sensorUuid);
 		mqttMapper.insertSensorInfo(param);
+		metadataCache.sensorChanged(sensorUuid);
 		logger.info("장치등록 완료 - userId: {}, sensorUuid: {}", currentUserId, sensorUuid);
 		
 		// 6. 알람설정 초기값 저장
@@ -3,11 +3,16 @@ package com.andrew.hnt.api.service.impl;
 import com.andrew.hnt.api.mapper.MqttMapper;
 import com.andrew.hnt.api.model.SensorVO;
 import com.andrew.hnt.api.service.MqttService;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.service.SensorHistoryService;
 import com.andrew.hnt.api.util.MqttMessageValidator;
+import com.andrew.hnt.api.mqtt.AlarmStateMachine;
 import com.andrew.hnt.api.mqtt.MqttHealthChecker;
 import com.andrew.hnt.api.mqtt.MqttMessageProcessor;
+import com.andrew.hnt.api.mqtt.MqttPayloadDecoder;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.mqtt.SensorLatestValueStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 import okhttp3.*;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -18,12 +23,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Transactional(timeout = 30, rollbackFor = Exception.class)
@@ -41,6 +46,21 @@ public class MqttServiceImpl implements MqttService {
 	@Autowired(required = false)
 	@Lazy
 	private MqttMessageProcessor messageProcessor;
+	
+	@Autowired
+	private SensorLatestValueStore latestValueStore;
+
+	@Autowired
+	private AlarmStateMachine alarmStateMachine;
+
+	@Autowired
+	private SensorHeartbeatTracker heartbeatTracker;
+
+	@Autowired
+	private SensorHistoryService sensorHistoryService;
+
+	@Autowired
+	private MetadataCache metadataCache;
 
     @Autowired
     @Lazy
@@ -48,65 +68,175 @@ public class MqttServiceImpl implements MqttService {
 
     private static final Logger logger = LoggerFactory.getLogger(MqttServiceImpl.class);
 
-    public SensorVO sensorVO1 = new SensorVO();
-    public static ArrayList<String> data = new ArrayList<String>();
-    public static String title = "";
-    public static String name = "";
-    public static String type = "";
-    public static String dinVal = "";
-    public static String outputVal = "";
-    public static String sensorId = "";
-    public static String sensorUuid = "";
-    public static String sensorType = "";
-    public static SensorVO sensorVO = new SensorVO();
+    // ObjectMapper는 스레드 안전 - 메시지마다 생성하지 않고 공유
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private String apiKey = "AAAAoUCvVY0:APA91bFhv_a-RRU0OOJPmGk4MBri_Aqu0MW4r1CDfar4GrhQf3H9XPTWRhoul86dfhLTomTn-WsTrKJ-qPAakoap9vMl7JHmrj8WniVnTQE3y5mhxKFDPp09bAmjaAuDx8qUXH1qhO05";
     private String senderId = "692574967181";
 
-    private ReentrantLock listLock = new ReentrantLock();
-
-    public String setSensorValue(ArrayList<String> data, SensorVO sensorVO) throws Exception {
-        MqttServiceImpl.data = data;
-        MqttServiceImpl.title = sensorVO.getUserId();
-        MqttServiceImpl.name = sensorVO.getName();
-        MqttServiceImpl.type = sensorVO.getType();
-        MqttServiceImpl.dinVal = sensorVO.getDinVal();
-        MqttServiceImpl.outputVal = sensorVO.getOutputVal();
-        MqttServiceImpl.sensorId = sensorVO.getSensorId();
-        MqttServiceImpl.sensorUuid = sensorVO.getUuid();
-        MqttServiceImpl.sensorType = sensorVO.getSensorType();
-        MqttServiceImpl.sensorVO = sensorVO;
-
-        Iterator<String> itrData = data.iterator();
-        while(null != data && itrData.hasNext()) {
-            listLock.lock();
-            try {
-                return data.toString();
-            } finally {
-                listLock.unlock();
+    // 기존 /getData 응답 상태 (폴백 경로에서만 갱신, 불변 뷰를 CAS로 교체)
+    private final AtomicReference<LegacyDataView> legacyDataView = new AtomicReference<>(LegacyDataView.EMPTY);
+
+    /**
+     * 기존 /getData 응답 뷰 (불변)
+     * 기존 정적 필드(data, title, sensorVO 등)와 동일한 누적/갱신 규칙을 유지
+     * - sensorVO: 폴백 메시지마다 설정된 필드만 덮어씀 (이전 메시지 값 유지)
+     * - 나머지 키: 누적된 sensorValue가 있을 때만 갱신
+     */
+    private static final class LegacyDataView {
+        static final LegacyDataView EMPTY = new LegacyDataView(new SensorVO(), "[]", "", "", "", "", "", "", "", "", "");
+
+        final SensorVO sensorVO;
+        final String data;
+        final String title;
+        final String sensorId;
+        final String sensorUuid;
+        final String sensorType;
+        final String name;
+        final String type;
+        final String dinVal;
+        final String outputVal;
+        final String sensorValue;
+
+        LegacyDataView(SensorVO sensorVO, String data, String title, String sensorId, String sensorUuid,
+                       String sensorType, String name, String type, String dinVal, String outputVal, String sensorValue) {
+            this.sensorVO = sensorVO;
+            this.data = data;
+            this.title = title;
+            this.sensorId = sensorId;
+            this.sensorUuid = sensorUuid;
+            this.sensorType = sensorType;
+            this.name = name;
+            this.type = type;
+            this.dinVal = dinVal;
+            this.outputVal = outputVal;
+            this.sensorValue = sensorValue;
+        }
+
+        /**
+         * 메시지 반영
+         * @param message 이번 메시지에서 설정된 필드만 가진 SensorVO
+         * @param completed 메시지 처리가 끝까지 진행되었는지 (중간 반환/예외 시 값 갱신 없음)
+         */
+        LegacyDataView apply(SensorVO message, boolean completed) {
+            SensorVO merged = overlay(sensorVO, message);
+            String value = merged.getSensorValue();
+            if (!completed || null == value || "".equals(value)) {
+                return new LegacyDataView(merged, data, title, sensorId, sensorUuid, sensorType,
+                        name, type, dinVal, outputVal, sensorValue);
             }
+            return new LegacyDataView(merged, Collections.singletonList(value).toString(), merged.getUserId(),
+                    merged.getSensorId(), merged.getUuid(), merged.getSensorType(), merged.getName(),
+                    merged.getType(), merged.getDinVal(), merged.getOutputVal(), value);
         }
 
-        return null;
+        boolean hasSensorValue() {
+            return null != sensorVO.getSensorValue() && !"".equals(sensorVO.getSensorValue());
+        }
+
+        private static SensorVO overlay(SensorVO base, SensorVO message) {
+            SensorVO vo = new SensorVO();
+            vo.setUserId(nvl(message.getUserId(), base.getUserId()));
+            vo.setSensorId(nvl(message.getSensorId(), base.getSensorId()));
+            vo.setUuid(nvl(message.getUuid(), base.getUuid()));
+            vo.setSensorType(nvl(message.getSensorType(), base.getSensorType()));
+            vo.setSensorValue(nvl(message.getSensorValue(), base.getSensorValue()));
+            vo.setTopic(nvl(message.getTopic(), base.getTopic()));
+            vo.setName(nvl(message.getName(), base.getName()));
+            vo.setType(nvl(message.getType(), base.getType()));
+            vo.setDinVal(nvl(message.getDinVal(), base.getDinVal()));
+            vo.setOutputVal(nvl(message.getOutputVal(), base.getOutputVal()));
+            vo.setRawData(nvl(message.getRawData(), base.getRawData()));
+            vo.setInstId(nvl(message.getInstId(), base.getInstId()));
+            vo.setMdfId(nvl(message.getMdfId(), base.getMdfId()));
+            vo.setInstDtm(nvl(message.getInstDtm(), base.getInstDtm()));
+            vo.setDataJson(nvl(message.getDataJson(), base.getDataJson()));
+            return vo;
+        }
+
+        private static String nvl(String value, String fallback) {
+            return null != value ? value : fallback;
+        }
     }
 
+    /**
+     * 기존 /getData 호환 - 폴백 경로에서 마지막으로 반영된 값 반환 (응답 키/형식 동일)
+     */
     @Override
     public Map<String, Object> getData() throws Exception {
         Map<String, Object> resultMap = new HashMap<String, Object>();
-
-        resultMap.put("data", data.toString());
-        resultMap.put("title", title);
-        resultMap.put("sensorId", sensorId);
-        resultMap.put("sensorUuid", sensorUuid);
-        resultMap.put("sensorType", sensorType);
-        resultMap.put("sensorVO", sensorVO);
-        resultMap.put("name", name);
-        resultMap.put("type", type);
-        resultMap.put("dinVal", dinVal);
-        resultMap.put("outputVal", outputVal);
+        LegacyDataView view = legacyDataView.get();
+
+        resultMap.put("data", view.data);
+        resultMap.put("title", view.title);
+        resultMap.put("sensorId", view.sensorId);
+        resultMap.put("sensorUuid", view.sensorUuid);
+        resultMap.put("sensorType", view.sensorType);
+        resultMap.put("sensorVO", view.sensorVO);
+        resultMap.put("name", view.name);
+        resultMap.put("type", view.type);
+        resultMap.put("dinVal", view.dinVal);
+        resultMap.put("outputVal", view.outputVal);
 
         return resultMap;
     }
+
+    private LegacyDataView applyLegacyDataView(SensorVO message, boolean completed) {
+        while (true) {
+            LegacyDataView prev = legacyDataView.get();
+            LegacyDataView next = prev.apply(message, completed);
+            if (legacyDataView.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getSensorSnapshot(Collection<String> uuids, long sinceVersion) {
+        return latestValueStore.snapshot(uuids, sinceVersion);
+    }
+    
+    @Override
+    public void receiveReading(MqttPayloadDecoder.SensorReading reading) {
+        if (reading == null || reading.getPayload() == null || reading.getPayload().length == 0) {
+            logger.warn("MQTT 메시지가 비어있습니다.");
+            return;
+        }
+        
+        MqttPayloadDecoder.Kind kind = reading.getKind();
+        
+        // live/reg 이외의 메시지는 기존 문자열 경로로 처리
+        if (kind != MqttPayloadDecoder.Kind.LIVE && kind != MqttPayloadDecoder.Kind.REG) {
+            receiveData(reading.getTopic() + "@" + reading.getPayloadText());
+            return;
+        }
+        
+        String topic = reading.getTopic() != null ? reading.getTopic() : "";
+        String payloadText = reading.getPayloadText();
+        
+        // 메시지 길이 검증 (기존 topic@message 기준과 동일)
+        if (!messageValidator.isValidMessageLength(topic.length() + 1 + payloadText.length())) {
+            return;
+        }
+        
+        // 보안 위협 검증 (topic@message 문자열 생성 없이 바이트 단위 스캔)
+        if (messageValidator.hasSecurityThreat(reading.getTopic(), reading.getPayload())) {
+            logger.warn("보안 위협이 감지된 MQTT 메시지 - topic: {}", topic);
+            return;
+        }
+        
+        // 헬스 체커에 메시지 수신 기록
+        if (healthChecker != null) {
+            healthChecker.recordMessageReceived();
+        }
+        
+        if (kind == MqttPayloadDecoder.Kind.LIVE) {
+            handleLiveReading(reading);
+        } else {
+            logger.info("=== 장치 등록 메시지 감지 ===");
+            handleDeviceRegistration(reading.getRegUserId(), reading.getRegModel(), reading.getRegMac());
+        }
+    }
     
     @Override
     public void receiveData(String str) {
@@ -161,7 +291,7 @@ public class MqttServiceImpl implements MqttService {
         // actcode: "live" 메시지 처리 (MqttMessageProcessor로 전달)
         if (str.contains("\"actcode\":\"live\"") || str.contains("actcode:live")) {
             logger.info("실시간 데이터 메시지 감지 - MqttMessageProcessor로 전달");
-            handleLiveMessage(str);
+            handleLiveReading(decodeMessageWithTopic(str));
             return;
         }
         
@@ -169,7 +299,8 @@ public class MqttServiceImpl implements MqttService {
         if (str.contains("\"actcode\":\"reg\"") || str.contains("actcode:reg")) {
             logger.info("=== 장치 등록 메시지 감지 ===");
             logger.info("메시지: {}", str);
-            handleDeviceRegistration(str);
+            MqttPayloadDecoder.SensorReading reading = decodeMessageWithTopic(str);
+            handleDeviceRegistration(reading.getRegUserId(), reading.getRegModel(), reading.getRegMac());
             return;
         }
         
@@ -182,13 +313,15 @@ public class MqttServiceImpl implements MqttService {
         
         if(null != str && !"".equals(str) && 0 < str.length()) {
             if(str.contains("@")) {
-                ObjectMapper mapper = new ObjectMapper();
+                ObjectMapper mapper = OBJECT_MAPPER;
+                SensorVO sensorVO = new SensorVO();
 
                 String[] strArr = str.split("@");
 
                 if(null != strArr && 0 < strArr.length) {
                 	sensorVO.setTopic(strArr[0]);
                 	sensorVO.setRawData(strArr[1]);
+                	LegacyDataView view = null;
                     try {
                         String[] topicArr = strArr[0].split("/");
                         
@@ -272,23 +405,28 @@ public class MqttServiceImpl implements MqttService {
                         	}
                         }
 
-                        if(null != sensorVO.getSensorValue() && !"".equals(sensorVO.getSensorValue())) {
-                            listLock.lock();
-                            try {
-                                data = new ArrayList<>();
-                                data.add(sensorVO.getSensorValue());
-                                this.setSensorValue(data, sensorVO);
-                                if (loginService != null) {
-                                    loginService.setData(sensorVO);
-                                }
-                            } finally {
-                                listLock.unlock();
+                        // 센서별 최신값 저장소 갱신 (ain/din/output)
+                        if(null != valueMap && valueMap.containsKey("name")) {
+                            latestValueStore.update(sensorVO.getUuid(), sensorVO.getUserId(), sensorVO.getSensorType(),
+                                    String.valueOf(valueMap.get("name")), String.valueOf(valueMap.get("type")),
+                                    String.valueOf(valueMap.get("value")), System.currentTimeMillis());
+                        }
+
+                        view = applyLegacyDataView(sensorVO, true);
+                        if(view.hasSensorValue()) {
+                            if (loginService != null) {
+                                loginService.setData(view.sensorVO);
                             }
                         }
 
                     } catch(Exception e) {
                         logger.error("Error processing MQTT message", e);
                         logger.error("Error : " + e.toString());
+                    } finally {
+                        // 중간 반환/예외 시에도 기존과 동일하게 설정된 필드는 누적
+                        if (view == null) {
+                            applyLegacyDataView(sensorVO, false);
+                        }
                     }
                 }
             }
@@ -298,10 +436,8 @@ public class MqttServiceImpl implements MqttService {
     public boolean isValidJson(String str) {
     	boolean result = false;
     	
-    	ObjectMapper mapper = new ObjectMapper();
-    	
     	try {
-    		mapper.readTree(str);
+    		OBJECT_MAPPER.readTree(str);
     		result = true;
     	} catch(Exception e) {
     		result = false;
@@ -370,33 +506,19 @@ public class MqttServiceImpl implements MqttService {
     
     /**
      * 장치 등록 메시지 처리 (actcode: "reg")
-     * @param message MQTT 메시지 (JSON 형식)
+     * @param userId 사용자 ID (userid 또는 userId 필드)
+     * @param model 장치 모델
+     * @param mac 장치 MAC 주소 (UUID)
      */
-    private void handleDeviceRegistration(String message) {
+    private void handleDeviceRegistration(String userId, String model, String mac) {
         try {
             logger.info("=== 장치 등록 처리 시작 ===");
-            logger.debug("수신 메시지: {}", message);
-            
-            // 1. JSON 파싱
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode json = mapper.readTree(message);
-            
-            // 필수 필드 추출 (userid 또는 userId 모두 허용)
-            String userId = null;
-            if (json.has("userid")) {
-                userId = json.get("userid").asText();
-            } else if (json.has("userId")) {
-                userId = json.get("userId").asText();
-            }
             
-            if (userId == null || !json.has("model") || !json.has("mac")) {
-                logger.error("장치 등록 실패 - 필수 필드 누락: {}", message);
+            if (userId == null || model == null || mac == null) {
+                logger.error("장치 등록 실패 - 필수 필드 누락 - userId: {}, model: {}, mac: {}", userId, model, mac);
                 return;
             }
             
-            String model = json.get("model").asText();
-            String mac = json.get("mac").asText();
-            
             logger.info("장치 등록 정보 - userId: {}, model: {}, mac: {}", userId, model, mac);
             
             // 2. 중복 등록 체크 (현재 사용자 + UUID 조합)
@@ -447,6 +569,8 @@ public class MqttServiceImpl implements MqttService {
                     mqttMapper.deleteSensorInfoByUuid(ownerCheck);
                     mqttMapper.deleteConfigByUuid(ownerCheck);
                     mqttMapper.deleteAlarmByUuid(ownerCheck);
+                    metadataCache.sensorChanged(mac);
+                    heartbeatTracker.evict(mac);
                     
                     logger.info("기존 소유자 장치 정보 삭제 완료 - userId: {}, mac: {}", oldUserId, mac);
                     
@@ -480,6 +604,8 @@ public class MqttServiceImpl implements MqttService {
                                 }
                             } while (deletedCount > 0);
                             
+                            sensorHistoryService.purge(finalMac);
+                            
                             logger.info("장치 이전 - 센서 데이터 비동기 삭제 완료 - 기존 소유자: {}, mac: {}, 총 삭제: {}", 
                                 finalOldUserId, finalMac, totalDeleted);
                                 
@@ -501,6 +627,7 @@ public class MqttServiceImpl implements MqttService {
             
             logger.info("장치 기본 정보 저장 시작 - userId: {}, mac: {}", userId, mac);
             mqttMapper.insertSensorInfo(param);
+            metadataCache.sensorChanged(mac);
             logger.info("장치 기본 정보 저장 완료 - userId: {}, mac: {}", userId, mac);
             
             // 5. 기본 설정 저장 (hnt_config)
@@ -636,30 +763,33 @@ public class MqttServiceImpl implements MqttService {
         }
     }
     
+    /**
+     * topic@message 형식 문자열 디코딩
+     * @param messageWithTopic 토픽 정보 포함 메시지
+     * @return 디코딩 결과
+     */
+    private MqttPayloadDecoder.SensorReading decodeMessageWithTopic(String messageWithTopic) {
+        int at = messageWithTopic.indexOf('@');
+        if (at < 0) {
+            return MqttPayloadDecoder.decode(null, messageWithTopic.getBytes(StandardCharsets.UTF_8));
+        }
+        return MqttPayloadDecoder.decode(messageWithTopic.substring(0, at),
+                messageWithTopic.substring(at + 1).getBytes(StandardCharsets.UTF_8));
+    }
+    
     /**
      * 실시간 데이터 메시지 처리 (actcode: live)
-     * @param messageWithTopic 토픽 정보 포함 메시지 (형식: topic@message)
+     * @param reading 디코딩된 메시지 (토픽 형식: HBEE/{userId}/TC/{sensorUuid}/DEV)
      */
-    private void handleLiveMessage(String messageWithTopic) {
+    private void handleLiveReading(MqttPayloadDecoder.SensorReading reading) {
         try {
-            // 토픽과 메시지 분리
-            String[] parts = messageWithTopic.split("@", 2);
-            if (parts.length < 2) {
-                return;
-            }
-            
-            String topic = parts[0];
-            String message = parts[1];
-            
-            // 토픽에서 userId와 sensorUuid 추출
-            // 토픽 형식: HBEE/{userId}/TC/{sensorUuid}/DEV
-            String[] topicParts = topic.split("/");
-            if (topicParts.length < 4) {
+            if (reading == null || !reading.hasSensorTopic()) {
                 return;
             }
             
-            String userId = topicParts[1];
-            String sensorUuid = topicParts[3];
+            String topic = reading.getTopic();
+            String userId = reading.getUserId();
+            String sensorUuid = reading.getUuid();
             
             // thepine 사용자만 로그 출력
             boolean isThepine = "thepine".equals(userId);
@@ -667,29 +797,35 @@ public class MqttServiceImpl implements MqttService {
             if (isThepine) {
                 logger.info("=== [thepine] 실시간 데이터 메시지 처리 시작 ===");
                 logger.info("Topic: {}", topic);
-                logger.info("Message: {}", message);
-                logger.info("추출된 정보 - userId: {}, sensorUuid: {}", userId, sensorUuid);
+                logger.info("Message: {}", reading.getPayloadText());
+                logger.info("actcode: {}, name: {}, value: {}", reading.getActcode(), reading.getName(), reading.getValueText());
+            }
+            
+            if (reading.getKind() != MqttPayloadDecoder.Kind.LIVE) {
+                return;
             }
             
-            // JSON 파싱
-            ObjectMapper mapper = new ObjectMapper();
-            @SuppressWarnings("unchecked")
-            Map<String, Object> jsonData = mapper.readValue(message, Map.class);
+            // 센서별 최신값 저장소 갱신 (ain/din/output)
+            latestValueStore.update(reading, System.currentTimeMillis());
             
-            String actcode = String.valueOf(jsonData.get("actcode"));
-            String name = String.valueOf(jsonData.get("name"));
-            String value = String.valueOf(jsonData.get("value"));
+            // 통신 상태 추적 (마지막 수신 시각 갱신, 통신이상 중이었으면 복구 처리)
+            heartbeatTracker.touch(userId, sensorUuid, !reading.isError());
             
-            if (isThepine) {
-                logger.info("actcode: {}, name: {}, value: {}", actcode, name, value);
+            // DI / 통신이상 알람은 저장 없이 바로 상태 머신 반영 (온도 알람은 배치 저장 후 처리)
+            if (reading.getChannel() == SensorLatestValueStore.CHANNEL_DIN && reading.isNumeric()) {
+                alarmStateMachine.onDigitalInput(userId, sensorUuid, null, (int) reading.getValue());
+            } else if (reading.getChannel() == SensorLatestValueStore.CHANNEL_AIN && reading.isError()) {
+                alarmStateMachine.onCommError(userId, sensorUuid, null);
             }
             
             // ain (온도) 데이터만 알람 체크
-            if ("live".equals(actcode) && "ain".equals(name) && !"Error".equals(value)) {
+            if (reading.getChannel() == SensorLatestValueStore.CHANNEL_AIN && !reading.isError()) {
                 if (isThepine) {
                     logger.info("🌡️ [thepine] 온도 데이터 감지 - MqttMessageProcessor로 전달");
                 }
                 
+                String value = String.valueOf(reading.getValueText());
+                
                 // SensorVO 생성
                 SensorVO sensorVO = new SensorVO();
                 sensorVO.setUserId(userId);
@@ -698,7 +834,7 @@ public class MqttServiceImpl implements MqttService {
                 sensorVO.setSensorValue(value);
                 sensorVO.setSensorType("ain"); // 온도 센서 타입
                 sensorVO.setTopic(topic);
-                sensorVO.setRawData(message);
+                sensorVO.setRawData(reading.getPayloadText());
                 sensorVO.setInstId(userId); // inst_id 설정 (필수)
                 sensorVO.setMdfId(userId);  // mdf_id 설정 (필수)
                 
@@ -721,5 +857,3 @@ public class MqttServiceImpl implements MqttService {
     }
 
 }
-
-
@@ -0,0 +1,96 @@
+package com.andrew.hnt.api.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.SensorDataPartitionService;
+import com.andrew.hnt.api.service.SensorDataSchemaService;
+import com.andrew.hnt.api.service.SensorHistoryStore;
+import com.andrew.hnt.api.service.SensorRollupService;
+import com.andrew.hnt.api.service.SensorRollupService.Resolution;
+
+/**
+ * 기본 센서 이력 저장소 (hnt_sensor_data + 롤업 테이블, 압축 형식이면 사전 / 원본 페이로드 테이블 포함)
+ * 원본 저장과 롤업 누적은 수신 트랜잭션에서 처리하므로 append 는 하지 않음
+ */
+@Service
+public class MysqlSensorHistoryStore implements SensorHistoryStore {
+
+	public static final String NAME = "mysql";
+
+	@Autowired
+	private DataMapper dataMapper;
+
+	@Autowired
+	private SensorRollupService sensorRollupService;
+
+	@Autowired
+	private SensorDataSchemaService sensorDataSchemaService;
+
+	@Autowired
+	private SensorDataPartitionService sensorDataPartitionService;
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void append(List<SensorVO> sensorDataList) {
+	}
+
+	@Override
+	public boolean covers(Map<String, Object> param) {
+		return true;
+	}
+
+	@Override
+	public List<Map<String, Object>> selectDailyData(Map<String, Object> param) {
+		sensorRollupService.route(param, Resolution.MINUTE);
+		return dataMapper.selectDailyData(param);
+	}
+
+	@Override
+	public void streamDailyData(Map<String, Object> param, Consumer<Map<String, Object>> consumer) {
+		sensorRollupService.route(param, Resolution.MINUTE);
+		dataMapper.selectDailyDataStream(param, context -> consumer.accept(context.getResultObject()));
+	}
+
+	@Override
+	public List<Map<String, Object>> selectWeeklyData(Map<String, Object> param) {
+		sensorRollupService.route(param, Resolution.DAY);
+		return dataMapper.selectWeeklyData(param);
+	}
+
+	@Override
+	public List<Map<String, Object>> selectYearlyData(Map<String, Object> param) {
+		sensorRollupService.route(param, Resolution.DAY);
+		return dataMapper.selectYearlyData(param);
+	}
+
+	@Override
+	public List<Map<String, Object>> selectSensorDataWithCursor(Map<String, Object> param) {
+		return dataMapper.selectSensorDataWithCursor(param);
+	}
+
+	@Override
+	public void purge(String sensorUuid) {
+		sensorRollupService.purge(sensorUuid);
+		sensorDataSchemaService.purge(sensorUuid);
+		sensorDataPartitionService.purge(sensorUuid);
+	}
+
+	@Override
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new HashMap<>();
+		stats.put("name", NAME);
+		return stats;
+	}
+}
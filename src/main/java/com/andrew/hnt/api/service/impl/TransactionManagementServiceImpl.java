@@ -5,6 +5,12 @@ import com.andrew.hnt.api.mapper.DataMapper;
 import com.andrew.hnt.api.mapper.LoginMapper;
 import com.andrew.hnt.api.mapper.MqttMapper;
 import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.ChartResultCache;
+import com.andrew.hnt.api.service.SensorDataBatchWriter;
+import com.andrew.hnt.api.service.SensorHistoryService;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.service.SensorRollupService;
 import com.andrew.hnt.api.service.TransactionManagementService;
 import com.andrew.hnt.api.util.UnifiedErrorHandler;
 import org.slf4j.Logger;
@@ -13,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +49,24 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
     @Autowired
     private UnifiedErrorHandler errorHandler;
     
+    @Autowired
+    private SensorRollupService sensorRollupService;
+    
+    @Autowired
+    private SensorHistoryService sensorHistoryService;
+    
+    @Autowired
+    private SensorDataBatchWriter sensorDataBatchWriter;
+    
+    @Autowired
+    private ChartResultCache chartResultCache;
+
+    @Autowired
+    private MetadataCache metadataCache;
+
+    @Autowired
+    private SensorHeartbeatTracker heartbeatTracker;
+    
     // 트랜잭션 통계
     private final AtomicLong totalTransactions = new AtomicLong(0);
     private final AtomicLong successfulTransactions = new AtomicLong(0);
@@ -51,6 +76,12 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
     @Override
     @Transactional(rollbackFor = Exception.class, timeout = 30)
     public Map<String, Object> saveSensorDataBatch(List<SensorVO> sensorDataList) {
+        return saveSensorDataBatch(sensorDataList, null);
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class, timeout = 30)
+    public Map<String, Object> saveSensorDataBatch(List<SensorVO> sensorDataList, Map<String, Object> ingestCheckpoint) {
         Map<String, Object> result = new HashMap<>();
         totalTransactions.incrementAndGet();
         
@@ -63,11 +94,18 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
             
             logger.info("센서 데이터 배치 저장 시작 - 데이터 수: {}", sensorDataList.size());
             
-            // 배치 단위로 센서 데이터 저장
-            for (SensorVO sensorVO : sensorDataList) {
-                if (sensorVO != null) {
-                    mqttMapper.insertSensorData(sensorVO);
-                }
+            // 배치 단위로 센서 데이터 저장 (배치 크기별 기록 전략 선택)
+            sensorDataBatchWriter.write(sensorDataList);
+            
+            // 분/시/일 롤업 누적 (원본과 함께 커밋)
+            sensorRollupService.applyBatch(sensorDataList);
+            
+            // 컬럼형 이력 이중 기록 (커밋 이후 반영)
+            sensorHistoryService.append(sensorDataList);
+            
+            // WAL 중복 제거 기준 (데이터와 함께 커밋되어야 재생 시 중복 저장되지 않음)
+            if (ingestCheckpoint != null) {
+                mqttMapper.upsertIngestCheckpoint(ingestCheckpoint);
             }
             
             successfulTransactions.incrementAndGet();
@@ -105,6 +143,8 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
             logger.debug("센서 데이터 단일 저장 시작 - UUID: {}", sensorVO.getUuid());
             
             mqttMapper.insertSensorData(sensorVO);
+            sensorRollupService.applyBatch(Collections.singletonList(sensorVO));
+            sensorHistoryService.append(Collections.singletonList(sensorVO));
             
             successfulTransactions.incrementAndGet();
             result.put("resultCode", "200");
@@ -150,12 +190,15 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
                 mqttMapper.deleteConfigByUuid(checkParam);
                 mqttMapper.deleteSensorDataByUuid(checkParam);
                 mqttMapper.deleteAlarmByUuid(checkParam);
+                sensorHistoryService.purge(sensorUuid);
+                heartbeatTracker.evict(sensorUuid);
                 
                 logger.info("기존 소유자 데이터 삭제 완료 - userId: {}", existingUserId);
             }
             
             // 3. 새 사용자에게 장치 등록
             mqttMapper.insertSensorInfo(param);
+            metadataCache.sensorChanged(sensorUuid);
             
             successfulTransactions.incrementAndGet();
             result.put("resultCode", "200");
@@ -194,6 +237,7 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
             } else {
                 // 메인 사용자인 경우: 모든 정보 삭제
                 adminMapper.deleteUserSensorData(userId);
+                chartResultCache.invalidateAll(); // 사용자 UUID 목록 없이 삭제하므로 전체 무효화
                 adminMapper.deleteDeviceAlarm(createAlarmParam(userId));
                 adminMapper.deleteConfig(userId, "");
                 adminMapper.deleteSensor(userId);
@@ -202,6 +246,7 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
                 result.put("resultMessage", "메인 사용자 삭제 완료 (모든 데이터 삭제)");
                 result.put("deletedType", "mainUser");
             }
+            metadataCache.userChanged(userId);
             
             successfulTransactions.incrementAndGet();
             logger.info("사용자 삭제 트랜잭션 완료 - userId: {}, userGrade: {}", userId, userGrade);
@@ -228,14 +273,17 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
             String sensorUuid = (String) param.get("sensorUuid");
             logger.info("센서 데이터 삭제 트랜잭션 시작 - sensorUuid: {}", sensorUuid);
             
-            // 1. 센서 데이터 삭제
+            // 1. 센서 데이터 삭제 (롤업 포함)
             dataMapper.deleteSensorData(param);
+            sensorHistoryService.purge(sensorUuid);
             
             // 2. 장치 관련 알림 데이터 삭제
             adminMapper.deleteDeviceAlarm(param);
             
             // 3. 장치 기본 정보 삭제
             dataMapper.deleteSensorInfo(param);
+            metadataCache.sensorChanged(sensorUuid);
+            heartbeatTracker.evict(sensorUuid);
             
             // 4. 장치 설정 정보 삭제
             String userId = (String) param.get("userId");
@@ -289,6 +337,29 @@ public class TransactionManagementServiceImpl implements TransactionManagementSe
         return result;
     }
     
+    @Override
+    @Transactional(rollbackFor = Exception.class, timeout = 300)
+    public boolean backfillSensorRollupChunk(long fromId, long toId) {
+        // 백필 위치 선점 (행 잠금은 커밋까지 유지 - 같은 구간 중복 반영 방지)
+        Map<String, Object> state = new HashMap<>();
+        state.put("stateKey", "backfill_id");
+        state.put("expectedValue", String.valueOf(fromId));
+        state.put("stateValue", String.valueOf(toId));
+        if (dataMapper.compareAndSetSensorRollupState(state) == 0) {
+            return false;
+        }
+        
+        for (SensorRollupService.Resolution resolution : SensorRollupService.Resolution.values()) {
+            Map<String, Object> param = new HashMap<>();
+            param.put("table", resolution.getTable());
+            param.put("bucketFormat", resolution.getBucketFormat());
+            param.put("fromId", fromId);
+            param.put("toId", toId);
+            dataMapper.backfillSensorRollup(param);
+        }
+        return true;
+    }
+    
     @Override
     public Map<String, Object> getTransactionStatus() {
         Map<String, Object> status = new HashMap<>();
@@ -0,0 +1,596 @@
+package com.andrew.hnt.api.tsdb;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * 로컬 디스크 컬럼형 시계열 엔진
+ *
+ * UUID 마다 세 개의 파일을 사용
+ * - {uuid}.blk  : 시간 구간(chunk) 단위로 압축한 블록을 이어 붙인 파일 (추가 전용)
+ * - {uuid}.idx  : 블록당 고정 길이 레코드 1개인 희소 시간 인덱스 (시각 순 정렬, mmap 이진 탐색)
+ * - {uuid}.open : 아직 닫히지 않은 현재 구간 스냅샷 (주기 flush, 재기동 시 복원)
+ *
+ * 시각은 로컬 일시를 UTC 로 환산한 초 (DATETIME 값 그대로, 일/분 경계를 나눗셈으로 계산)
+ * 늦게 도착한 포인트(마지막 시각보다 이전)는 열린 구간 또는 마지막 확정 블록 구간이면 다시 인코딩하여 순서대로 삽입,
+ * 그보다 오래된 구간(블록 중간 삽입)은 버림 (droppedPoints - MySQL 원본에는 남아 있음)
+ */
+public class ColumnarSeriesEngine {
+
+    // minTs, maxTs, offset, length, count, min, max, sum
+    static final int INDEX_RECORD_SIZE = 8 + 8 + 8 + 4 + 4 + 8 + 8 + 8;
+
+    private final File directory;
+    private final long chunkSeconds;
+    private final Map<String, Series> seriesMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong appendedPoints = new AtomicLong(0);
+    private final AtomicLong droppedPoints = new AtomicLong(0);
+    private final AtomicLong reorderedPoints = new AtomicLong(0);
+    private final AtomicLong sealedBlocks = new AtomicLong(0);
+    private final AtomicLong sealedBytes = new AtomicLong(0);
+    private final AtomicLong sealedPointCount = new AtomicLong(0);
+    private final AtomicLong scannedBlocks = new AtomicLong(0);
+    private final AtomicLong summarizedBlocks = new AtomicLong(0);
+
+    /** 원본 포인트 방문자 (false 반환 시 중단) */
+    public interface PointVisitor {
+        boolean visit(long timestamp, double value);
+    }
+
+    /** 구간 집계 결과 */
+    public static final class Aggregate {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private long count;
+
+        void add(double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        void merge(double blockMin, double blockMax, double blockSum, long blockCount) {
+            min = Math.min(min, blockMin);
+            max = Math.max(max, blockMax);
+            sum += blockSum;
+            count += blockCount;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /** 블록 인덱스 레코드 */
+    private static final class BlockRef {
+        long minTs;
+        long maxTs;
+        long offset;
+        int length;
+        int count;
+        double min;
+        double max;
+        double sum;
+
+        static BlockRef read(ByteBuffer index, int position) {
+            BlockRef ref = new BlockRef();
+            ref.minTs = index.getLong(position);
+            ref.maxTs = index.getLong(position + 8);
+            ref.offset = index.getLong(position + 16);
+            ref.length = index.getInt(position + 24);
+            ref.count = index.getInt(position + 28);
+            ref.min = index.getDouble(position + 32);
+            ref.max = index.getDouble(position + 40);
+            ref.sum = index.getDouble(position + 48);
+            return ref;
+        }
+    }
+
+    /** UUID 별 상태 (추가 위치 + 열린 구간) */
+    private final class Series {
+        final File blockFile;
+        final File indexFile;
+        final File openFile;
+        // 확정 블록 파일 접근 (조회: read, 마지막 블록 재기록: write) - 추가 기록은 기존 영역을 건드리지 않아 read 와 병행
+        final ReentrantReadWriteLock files = new ReentrantReadWriteLock();
+        long blockFileSize;
+        int blockCount;
+        long lastTimestamp = Long.MIN_VALUE;
+        long openChunk = Long.MIN_VALUE;
+        GorillaCodec.Encoder open;
+        boolean dirty;
+
+        Series(String uuid) {
+            String name = fileName(uuid);
+            this.blockFile = new File(directory, name + ".blk");
+            this.indexFile = new File(directory, name + ".idx");
+            this.openFile = new File(directory, name + ".open");
+        }
+
+        /** 파일에서 추가 위치 복원 (인덱스 기록 전 중단된 블록은 잘라냄) */
+        void load() throws IOException {
+            long blockLength = blockFile.length();
+            int records = (int) (indexFile.length() / INDEX_RECORD_SIZE);
+            long validEnd = 0;
+            if (records > 0) {
+                try (RandomAccessFile file = new RandomAccessFile(indexFile, "r")) {
+                    ByteBuffer index = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, (long) records * INDEX_RECORD_SIZE);
+                    while (records > 0) {
+                        BlockRef last = BlockRef.read(index, (records - 1) * INDEX_RECORD_SIZE);
+                        if (last.offset + last.length <= blockLength) {
+                            validEnd = last.offset + last.length;
+                            lastTimestamp = last.maxTs;
+                            break;
+                        }
+                        records--;
+                    }
+                }
+            }
+            truncate(indexFile, (long) records * INDEX_RECORD_SIZE);
+            truncate(blockFile, validEnd);
+            blockFileSize = validEnd;
+            blockCount = records;
+
+            if (openFile.exists()) {
+                try (DataInputStream in = new DataInputStream(new FileInputStream(openFile))) {
+                    int count = in.readInt();
+                    byte[] bytes = new byte[(int) openFile.length() - 4];
+                    in.readFully(bytes);
+                    GorillaCodec.Decoder decoder = new GorillaCodec.Decoder(ByteBuffer.wrap(bytes), 0, count);
+                    while (decoder.next()) {
+                        if (decoder.getTimestamp() >= lastTimestamp) {
+                            appendPoint(decoder.getTimestamp(), decoder.getValue());
+                        }
+                    }
+                }
+                dirty = false;
+            }
+        }
+
+        boolean append(long timestamp, double value) throws IOException {
+            if (timestamp < lastTimestamp) {
+                return insertLate(timestamp, value);
+            }
+            long chunk = Math.floorDiv(timestamp, chunkSeconds);
+            if (open != null && chunk != openChunk) {
+                seal();
+            }
+            appendPoint(timestamp, value);
+            return true;
+        }
+
+        /**
+         * 늦게 도착한 포인트 삽입
+         * - 열린 구간: 해석 후 순서대로 다시 인코딩
+         * - 마지막 확정 블록 구간 (열린 구간 이전): 파일 끝 블록/인덱스 레코드를 잘라내고 다시 기록
+         * - 그 이전 구간: 버림 (false)
+         */
+        private boolean insertLate(long timestamp, double value) throws IOException {
+            long chunk = Math.floorDiv(timestamp, chunkSeconds);
+            if (open != null && chunk == openChunk) {
+                open = reencode(open.toByteArray(), open.getCount(), timestamp, value);
+                dirty = true;
+                reorderedPoints.incrementAndGet();
+                return true;
+            }
+            if (blockCount == 0) {
+                return false;
+            }
+
+            BlockRef last;
+            byte[] bytes;
+            try (RandomAccessFile index = new RandomAccessFile(indexFile, "r")) {
+                ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_SIZE);
+                index.getChannel().read(record, (long) (blockCount - 1) * INDEX_RECORD_SIZE);
+                last = BlockRef.read(record, 0);
+            }
+            if (Math.floorDiv(last.minTs, chunkSeconds) != chunk) {
+                return false;
+            }
+            bytes = new byte[last.length];
+            try (RandomAccessFile block = new RandomAccessFile(blockFile, "r")) {
+                block.seek(last.offset);
+                block.readFully(bytes);
+            }
+
+            GorillaCodec.Encoder rebuilt = reencode(bytes, last.count, timestamp, value);
+            files.writeLock().lock();
+            try {
+                // 인덱스 먼저 잘라냄 (중단 시 load 가 남은 블록 바이트 정리)
+                truncate(indexFile, (long) (blockCount - 1) * INDEX_RECORD_SIZE);
+                truncate(blockFile, last.offset);
+                blockFileSize = last.offset;
+                blockCount--;
+                sealedBlocks.decrementAndGet();
+                sealedBytes.addAndGet(-last.length);
+                sealedPointCount.addAndGet(-last.count);
+                writeBlock(rebuilt);
+            } finally {
+                files.writeLock().unlock();
+            }
+            reorderedPoints.incrementAndGet();
+            return true;
+        }
+
+        /** 인코딩된 구간에 포인트 하나를 시각 순서대로 넣어 다시 인코딩 (같은 시각은 뒤에) */
+        private GorillaCodec.Encoder reencode(byte[] bytes, int count, long timestamp, double value) {
+            GorillaCodec.Decoder decoder = new GorillaCodec.Decoder(ByteBuffer.wrap(bytes), 0, count);
+            GorillaCodec.Encoder encoder = new GorillaCodec.Encoder();
+            boolean inserted = false;
+            while (decoder.next()) {
+                if (!inserted && decoder.getTimestamp() > timestamp) {
+                    encoder.append(timestamp, value);
+                    inserted = true;
+                }
+                encoder.append(decoder.getTimestamp(), decoder.getValue());
+            }
+            if (!inserted) {
+                encoder.append(timestamp, value);
+            }
+            return encoder;
+        }
+
+        private void appendPoint(long timestamp, double value) {
+            if (open == null) {
+                open = new GorillaCodec.Encoder();
+                openChunk = Math.floorDiv(timestamp, chunkSeconds);
+            }
+            open.append(timestamp, value);
+            lastTimestamp = timestamp;
+            dirty = true;
+        }
+
+        /** 열린 구간을 블록으로 확정 (블록 먼저, 인덱스 나중에 기록) */
+        void seal() throws IOException {
+            if (open == null || open.getCount() == 0) {
+                return;
+            }
+            writeBlock(open);
+
+            open = null;
+            openChunk = Long.MIN_VALUE;
+            dirty = false;
+            Files.deleteIfExists(openFile.toPath());
+        }
+
+        private void writeBlock(GorillaCodec.Encoder encoder) throws IOException {
+            byte[] bytes = encoder.toByteArray();
+            try (FileOutputStream out = new FileOutputStream(blockFile, true)) {
+                out.write(bytes);
+            }
+            ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_SIZE);
+            record.putLong(encoder.getFirstTimestamp()).putLong(encoder.getLastTimestamp())
+                .putLong(blockFileSize).putInt(bytes.length).putInt(encoder.getCount())
+                .putDouble(encoder.getMin()).putDouble(encoder.getMax()).putDouble(encoder.getSum());
+            try (FileOutputStream out = new FileOutputStream(indexFile, true)) {
+                out.write(record.array());
+            }
+            blockFileSize += bytes.length;
+            blockCount++;
+            sealedBlocks.incrementAndGet();
+            sealedBytes.addAndGet(bytes.length);
+            sealedPointCount.addAndGet(encoder.getCount());
+        }
+
+        /** 열린 구간 스냅샷 기록 (임시 파일 후 교체) */
+        void snapshot() throws IOException {
+            if (!dirty || open == null) {
+                return;
+            }
+            File temp = new File(openFile.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+                out.writeInt(open.getCount());
+                out.write(open.toByteArray());
+            }
+            Files.move(temp.toPath(), openFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        }
+    }
+
+    public ColumnarSeriesEngine(File directory, long chunkSeconds) {
+        this.directory = directory;
+        this.chunkSeconds = chunkSeconds;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("시계열 저장 디렉터리 생성 실패: " + directory.getAbsolutePath());
+        }
+    }
+
+    private Series series(String uuid) throws IOException {
+        Series series = seriesMap.get(uuid);
+        if (series != null) {
+            return series;
+        }
+        synchronized (seriesMap) {
+            series = seriesMap.get(uuid);
+            if (series == null) {
+                series = new Series(uuid);
+                series.load();
+                seriesMap.put(uuid, series);
+            }
+            return series;
+        }
+    }
+
+    /**
+     * 포인트 추가 (열린 구간 / 마지막 확정 블록보다 오래된 늦은 포인트면 false)
+     */
+    public boolean append(String uuid, long timestamp, double value) throws IOException {
+        Series series = series(uuid);
+        boolean appended;
+        synchronized (series) {
+            appended = series.append(timestamp, value);
+        }
+        (appended ? appendedPoints : droppedPoints).incrementAndGet();
+        return appended;
+    }
+
+    /**
+     * 열린 구간 스냅샷 기록 (주기 호출)
+     */
+    public void flush() throws IOException {
+        for (Series series : seriesMap.values()) {
+            synchronized (series) {
+                series.snapshot();
+            }
+        }
+    }
+
+    /**
+     * UUID 데이터 전체 삭제
+     */
+    public void purge(String uuid) throws IOException {
+        Series series = series(uuid);
+        synchronized (series) {
+            seriesMap.remove(uuid);
+            Files.deleteIfExists(series.blockFile.toPath());
+            Files.deleteIfExists(series.indexFile.toPath());
+            Files.deleteIfExists(series.openFile.toPath());
+            series.open = null;
+        }
+    }
+
+    /**
+     * UUID 의 가장 이른 시각 (데이터 없으면 null)
+     */
+    public Long firstTimestamp(String uuid) throws IOException {
+        Series series = series(uuid);
+        synchronized (series) {
+            if (series.blockCount > 0) {
+                try (RandomAccessFile file = new RandomAccessFile(series.indexFile, "r")) {
+                    return file.readLong();
+                }
+            }
+            return series.open != null ? series.open.getFirstTimestamp() : null;
+        }
+    }
+
+    /**
+     * 원본 포인트 순차 조회 [from, to]
+     */
+    public void scan(String uuid, long from, long to, PointVisitor visitor) throws IOException {
+        Snapshot snapshot = snapshot(uuid);
+        if (snapshot.blockCount > 0) {
+            Lock lock = snapshot.series.files.readLock();
+            lock.lock();
+            try (RandomAccessFile indexFile = new RandomAccessFile(snapshot.series.indexFile, "r");
+                 RandomAccessFile blockFile = new RandomAccessFile(snapshot.series.blockFile, "r")) {
+                List<BlockRef> blocks = findBlocks(indexFile, snapshot.blockCount, from, to);
+                ByteBuffer data = mapBlocks(blockFile, blocks);
+                long base = blocks.isEmpty() ? 0 : blocks.get(0).offset;
+                for (BlockRef block : blocks) {
+                    scannedBlocks.incrementAndGet();
+                    if (!visitBlock(new GorillaCodec.Decoder(data, (int) (block.offset - base), block.count), from, to, visitor)) {
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (snapshot.openBytes != null) {
+            visitBlock(new GorillaCodec.Decoder(ByteBuffer.wrap(snapshot.openBytes), 0, snapshot.openCount), from, to, visitor);
+        }
+    }
+
+    /**
+     * 구간별 집계 [from, to]
+     * 블록 전체가 조회 범위와 한 구간 안에 들어가면 인덱스 레코드의 합계/건수만 사용 (블록 해석 생략)
+     */
+    public TreeMap<Long, Aggregate> aggregate(String uuid, long from, long to, LongUnaryOperator bucketOf) throws IOException {
+        TreeMap<Long, Aggregate> result = new TreeMap<>();
+        PointVisitor collector = (timestamp, value) -> {
+            result.computeIfAbsent(bucketOf.applyAsLong(timestamp), key -> new Aggregate()).add(value);
+            return true;
+        };
+        Snapshot snapshot = snapshot(uuid);
+        if (snapshot.blockCount > 0) {
+            Lock lock = snapshot.series.files.readLock();
+            lock.lock();
+            try (RandomAccessFile indexFile = new RandomAccessFile(snapshot.series.indexFile, "r");
+                 RandomAccessFile blockFile = new RandomAccessFile(snapshot.series.blockFile, "r")) {
+                List<BlockRef> blocks = findBlocks(indexFile, snapshot.blockCount, from, to);
+                List<BlockRef> decode = new ArrayList<>();
+                for (BlockRef block : blocks) {
+                    long bucket = bucketOf.applyAsLong(block.minTs);
+                    if (block.minTs >= from && block.maxTs <= to && bucket == bucketOf.applyAsLong(block.maxTs)) {
+                        result.computeIfAbsent(bucket, key -> new Aggregate()).merge(block.min, block.max, block.sum, block.count);
+                        summarizedBlocks.incrementAndGet();
+                    } else {
+                        decode.add(block);
+                    }
+                }
+                if (!decode.isEmpty()) {
+                    ByteBuffer data = mapBlocks(blockFile, decode);
+                    long base = decode.get(0).offset;
+                    for (BlockRef block : decode) {
+                        scannedBlocks.incrementAndGet();
+                        visitBlock(new GorillaCodec.Decoder(data, (int) (block.offset - base), block.count), from, to, collector);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (snapshot.openBytes != null) {
+            visitBlock(new GorillaCodec.Decoder(ByteBuffer.wrap(snapshot.openBytes), 0, snapshot.openCount), from, to, collector);
+        }
+        return result;
+    }
+
+    private static boolean visitBlock(GorillaCodec.Decoder decoder, long from, long to, PointVisitor visitor) {
+        while (decoder.next()) {
+            long timestamp = decoder.getTimestamp();
+            if (timestamp > to) {
+                return false;
+            }
+            if (timestamp >= from && !visitor.visit(timestamp, decoder.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 조회 시점의 확정 블록 수 + 열린 구간 복사본 */
+    private static final class Snapshot {
+        Series series;
+        int blockCount;
+        byte[] openBytes;
+        int openCount;
+    }
+
+    private Snapshot snapshot(String uuid) throws IOException {
+        Snapshot snapshot = new Snapshot();
+        snapshot.series = series(uuid);
+        synchronized (snapshot.series) {
+            snapshot.blockCount = snapshot.series.blockCount;
+            if (snapshot.series.open != null) {
+                snapshot.openBytes = snapshot.series.open.toByteArray();
+                snapshot.openCount = snapshot.series.open.getCount();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 희소 인덱스 이진 탐색 - maxTs >= from 인 첫 블록부터 minTs <= to 인 블록까지
+     */
+    private static List<BlockRef> findBlocks(RandomAccessFile indexFile, int blockCount, long from, long to) throws IOException {
+        MappedByteBuffer index = indexFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, (long) blockCount * INDEX_RECORD_SIZE);
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index.getLong(mid * INDEX_RECORD_SIZE + 8) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<BlockRef> blocks = new ArrayList<>();
+        for (int i = low; i < blockCount; i++) {
+            BlockRef block = BlockRef.read(index, i * INDEX_RECORD_SIZE);
+            if (block.minTs > to) {
+                break;
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /** 대상 블록 범위만 mmap */
+    private static ByteBuffer mapBlocks(RandomAccessFile blockFile, List<BlockRef> blocks) throws IOException {
+        if (blocks.isEmpty()) {
+            return ByteBuffer.allocate(0);
+        }
+        long start = blocks.get(0).offset;
+        BlockRef last = blocks.get(blocks.size() - 1);
+        return blockFile.getChannel().map(FileChannel.MapMode.READ_ONLY, start, last.offset + last.length - start);
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        if (file.exists() && file.length() > length) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(length);
+            }
+        }
+    }
+
+    /** 파일명에 쓸 수 없는 문자 치환 */
+    private static String fileName(String uuid) {
+        return uuid.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public int getSeriesCount() {
+        return seriesMap.size();
+    }
+
+    public long getAppendedPoints() {
+        return appendedPoints.get();
+    }
+
+    public long getDroppedPoints() {
+        return droppedPoints.get();
+    }
+
+    public long getReorderedPoints() {
+        return reorderedPoints.get();
+    }
+
+    public long getSealedBlocks() {
+        return sealedBlocks.get();
+    }
+
+    public long getSealedBytes() {
+        return sealedBytes.get();
+    }
+
+    public long getSealedPointCount() {
+        return sealedPointCount.get();
+    }
+
+    public long getScannedBlocks() {
+        return scannedBlocks.get();
+    }
+
+    public long getSummarizedBlocks() {
+        return summarizedBlocks.get();
+    }
+}
@@ -0,0 +1,235 @@
+package com.andrew.hnt.api.tsdb;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 시계열 블록 압축 코덱 (Gorilla 방식)
+ * - 시각(초): delta-of-delta 가변 길이 (1분 주기 수신이면 대부분 1비트)
+ * - 값(double): 이전 값과 XOR 후 의미 있는 비트만 기록 (같은 값이면 1비트)
+ * 블록 헤더 없이 비트열만 생성하며 건수는 인덱스 레코드에 따로 보관
+ */
+public final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * 블록 인코더 (단일 스레드 사용, 호출 측에서 동기화)
+     */
+    public static final class Encoder {
+        private byte[] buffer = new byte[256];
+        private long bitPosition;
+        private int count;
+
+        private long firstTimestamp;
+        private long previousTimestamp;
+        private long previousDelta;
+        private long previousBits;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+
+        public void append(long timestamp, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                writeBits(timestamp, 64);
+                writeBits(bits, 64);
+            } else {
+                long delta = timestamp - previousTimestamp;
+                writeTimestamp(delta - previousDelta);
+                previousDelta = delta;
+                writeValue(bits ^ previousBits);
+            }
+            previousTimestamp = timestamp;
+            previousBits = bits;
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        private void writeTimestamp(long deltaOfDelta) {
+            if (deltaOfDelta == 0) {
+                writeBits(0, 1);
+            } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+                writeBits(0b10, 2);
+                writeBits(deltaOfDelta + 63, 7);
+            } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+                writeBits(0b110, 3);
+                writeBits(deltaOfDelta + 255, 9);
+            } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+                writeBits(0b1110, 4);
+                writeBits(deltaOfDelta + 2047, 12);
+            } else {
+                // 블록은 시간 구간 단위라 32비트를 넘지 않음
+                writeBits(0b1111, 4);
+                writeBits(deltaOfDelta, 32);
+            }
+        }
+
+        private void writeValue(long xor) {
+            if (xor == 0) {
+                writeBits(0, 1);
+                return;
+            }
+            writeBits(1, 1);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // 이전 의미 비트 범위 재사용
+                writeBits(0, 1);
+                writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                writeBits(1, 1);
+                writeBits(leading, 5);
+                writeBits(significant == 64 ? 0 : significant, 6);
+                writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        private void writeBits(long value, int length) {
+            while (length > 0) {
+                int index = (int) (bitPosition >>> 3);
+                if (index >= buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int free = 8 - (int) (bitPosition & 7);
+                int take = Math.min(free, length);
+                int chunk = (int) ((value >>> (length - take)) & ((1 << take) - 1));
+                buffer[index] |= (byte) (chunk << (free - take));
+                bitPosition += take;
+                length -= take;
+            }
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size());
+        }
+
+        public int size() {
+            return (int) ((bitPosition + 7) >>> 3);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getFirstTimestamp() {
+            return firstTimestamp;
+        }
+
+        public long getLastTimestamp() {
+            return previousTimestamp;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+    }
+
+    /**
+     * 블록 디코더 - 압축된 비트열을 풀지 않고 한 건씩 순차 해석
+     * (mmap 버퍼를 그대로 읽으므로 블록 전체를 배열로 복원하지 않음)
+     */
+    public static final class Decoder {
+        private final ByteBuffer buffer;
+        private final int base;
+        private final int count;
+        private long bitPosition;
+        private int read;
+
+        private long timestamp;
+        private long delta;
+        private long bits;
+        private int leading;
+        private int trailing;
+
+        public Decoder(ByteBuffer buffer, int base, int count) {
+            this.buffer = buffer;
+            this.base = base;
+            this.count = count;
+        }
+
+        public boolean next() {
+            if (read >= count) {
+                return false;
+            }
+            if (read == 0) {
+                timestamp = readBits(64);
+                bits = readBits(64);
+            } else {
+                delta += readTimestamp();
+                timestamp += delta;
+                readValue();
+            }
+            read++;
+            return true;
+        }
+
+        private long readTimestamp() {
+            if (readBits(1) == 0) {
+                return 0;
+            }
+            if (readBits(1) == 0) {
+                return readBits(7) - 63;
+            }
+            if (readBits(1) == 0) {
+                return readBits(9) - 255;
+            }
+            if (readBits(1) == 0) {
+                return readBits(12) - 2047;
+            }
+            return (int) readBits(32);
+        }
+
+        private void readValue() {
+            if (readBits(1) == 0) {
+                return;
+            }
+            if (readBits(1) == 1) {
+                leading = (int) readBits(5);
+                int significant = (int) readBits(6);
+                trailing = 64 - leading - (significant == 0 ? 64 : significant);
+            }
+            int significant = 64 - leading - trailing;
+            bits ^= readBits(significant) << trailing;
+        }
+
+        private long readBits(int length) {
+            long value = 0;
+            while (length > 0) {
+                int current = buffer.get(base + (int) (bitPosition >>> 3)) & 0xff;
+                int available = 8 - (int) (bitPosition & 7);
+                int take = Math.min(available, length);
+                value = (value << take) | ((current >>> (available - take)) & ((1 << take) - 1));
+                bitPosition += take;
+                length -= take;
+            }
+            return value;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public double getValue() {
+            return Double.longBitsToDouble(bits);
+        }
+    }
+}
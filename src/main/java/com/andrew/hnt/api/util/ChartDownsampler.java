@@ -0,0 +1,254 @@
+package com.andrew.hnt.api.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 차트 응답 축소 (Largest-Triangle-Three-Buckets) 및 끊김 표시
+ *
+ * - inst_dtm("yyyy-MM-dd HH:mm") / sensor_value 행을 기본형 배열(분, 값)로 바꿔 계산
+ * - 이웃한 점 간격이 gapMinutes 를 넘으면 장치 미수신 구간으로 보고 구간을 나눔
+ *   (구간 사이에는 sensor_value 가 null 인 끊김 행을 넣어 차트가 선으로 잇지 않도록 함)
+ * - 구간별로 점 개수 비율만큼 maxPoints 를 나눠 LTTB 적용 (구간 첫/끝 점은 항상 유지)
+ * - 출력 행 수(점 + 끊김 행)는 maxPoints 이하: 구간마다 최소 2점 + 끊김 행 1개가 필요하므로
+ *   끊김이 너무 많으면 긴 끊김부터 (maxPoints - 2) / 3 개만 표시하고 나머지는 이어서 축소 (hiddenGaps)
+ */
+public class ChartDownsampler {
+
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private ChartDownsampler() {
+    }
+
+    /**
+     * 축소 결과 (행 목록 + 원래 점 수 / 끊김 수)
+     */
+    public static class Result {
+        private final List<Map<String, Object>> rows;
+        private final int originalPoints;
+        private final int gaps;
+        private final int hiddenGaps;
+
+        Result(List<Map<String, Object>> rows, int originalPoints, int gaps, int hiddenGaps) {
+            this.rows = rows;
+            this.originalPoints = originalPoints;
+            this.gaps = gaps;
+            this.hiddenGaps = hiddenGaps;
+        }
+
+        public List<Map<String, Object>> getRows() {
+            return rows;
+        }
+
+        public int getOriginalPoints() {
+            return originalPoints;
+        }
+
+        /** 끊김 행 수 (sensor_value null) */
+        public int getGaps() {
+            return gaps;
+        }
+
+        /** 출력 행 수 상한 때문에 표시하지 못한 끊김 수 */
+        public int getHiddenGaps() {
+            return hiddenGaps;
+        }
+    }
+
+    /**
+     * @param rows       시간 순 행 (inst_dtm, sensor_value) - 숫자가 아닌 값은 제외
+     * @param maxPoints  출력 행 수 상한 (끊김 행 포함, 0 이하면 축소하지 않음, 최소 2)
+     * @param gapMinutes 이 간격(분)을 넘으면 끊김 표시 (0 이하면 표시하지 않음)
+     */
+    public static Result downsample(List<Map<String, Object>> rows, int maxPoints, int gapMinutes) {
+        int size = rows == null ? 0 : rows.size();
+        long[] minutes = new long[size];
+        double[] values = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> row = rows.get(i);
+            Object instDtm = row == null ? null : row.get("inst_dtm");
+            double value = row == null ? Double.NaN : valueOf(row.get("sensor_value"));
+            if (instDtm == null || Double.isNaN(value)) {
+                continue;
+            }
+            long minute = minuteOf(String.valueOf(instDtm));
+            if (minute == Long.MIN_VALUE) {
+                continue;
+            }
+            minutes[n] = minute;
+            values[n++] = value;
+        }
+
+        // 끊김 위치 (새 구간 시작 위치), 상한이 있으면 긴 끊김부터 (maxPoints - 2) / 3 개만 사용
+        List<Integer> breaks = new ArrayList<>();
+        for (int i = 1; i < n; i++) {
+            if (gapMinutes > 0 && minutes[i] - minutes[i - 1] > gapMinutes) {
+                breaks.add(i);
+            }
+        }
+        int limit = maxPoints <= 0 ? 0 : Math.max(2, maxPoints);
+        int hiddenGaps = 0;
+        if (limit > 0 && breaks.size() > (limit - 2) / 3) {
+            hiddenGaps = breaks.size() - (limit - 2) / 3;
+            breaks.sort((a, b) -> Long.compare(minutes[b] - minutes[b - 1], minutes[a] - minutes[a - 1]));
+            breaks = new ArrayList<>(breaks.subList(0, (limit - 2) / 3));
+            breaks.sort(null);
+        }
+        int[] starts = new int[breaks.size() + 2];
+        for (int s = 0; s < breaks.size(); s++) {
+            starts[s + 1] = breaks.get(s);
+        }
+        starts[starts.length - 1] = n;
+
+        // 구간별 점 수: 최소 min(길이, 2) + 남은 점을 길이 비율로 (합계 <= limit - 끊김 행 수)
+        int segments = starts.length - 1;
+        int[] budgets = new int[segments];
+        if (limit > 0 && n > 0) {
+            int rest = limit - breaks.size();
+            for (int s = 0; s < segments; s++) {
+                budgets[s] = Math.min(starts[s + 1] - starts[s], 2);
+                rest -= budgets[s];
+            }
+            for (int s = 0; s < segments; s++) {
+                int length = starts[s + 1] - starts[s];
+                budgets[s] += (int) Math.min(length - budgets[s], (long) rest * length / n);
+            }
+        }
+
+        List<Map<String, Object>> resultList = new ArrayList<>(limit > 0 ? Math.min(n + breaks.size(), limit) : n + breaks.size());
+        int gaps = 0;
+        for (int s = 0; s < segments; s++) {
+            int from = starts[s];
+            int to = starts[s + 1];
+            if (from >= to) {
+                continue;
+            }
+            if (s > 0) {
+                // 직전 점 다음 1분에 끊김 행
+                resultList.add(row(minutes[from - 1] + 1, null));
+                gaps++;
+            }
+            int budget = limit <= 0 ? to - from : budgets[s];
+            for (int index : lttb(minutes, values, from, to, budget)) {
+                resultList.add(row(minutes[index], values[index]));
+            }
+        }
+        return new Result(resultList, n, gaps, hiddenGaps);
+    }
+
+    /**
+     * [from, to) 구간에서 threshold 개 점 선택 (선택된 원래 위치 반환)
+     */
+    static int[] lttb(long[] x, double[] y, int from, int to, int threshold) {
+        int length = to - from;
+        if (threshold >= length) {
+            int[] indexes = new int[length];
+            for (int i = 0; i < length; i++) {
+                indexes[i] = from + i;
+            }
+            return indexes;
+        }
+        if (threshold < 3) {
+            // 첫/끝 점만 유지
+            return new int[] {from, to - 1};
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        double every = (double) (length - 2) / (threshold - 2);
+        int a = from;
+        selected[count++] = a;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // 다음 버킷 평균점
+            int avgStart = from + (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min(from + (int) Math.floor((i + 2) * every) + 1, to);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            if (avgLength > 0) {
+                avgX /= avgLength;
+                avgY /= avgLength;
+            } else {
+                avgX = x[to - 1];
+                avgY = y[to - 1];
+            }
+
+            // 현재 버킷에서 삼각형 넓이가 가장 큰 점
+            int rangeStart = from + (int) Math.floor(i * every) + 1;
+            int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+            double pointX = x[a];
+            double pointY = y[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointX - avgX) * (y[j] - pointY) - (pointX - x[j]) * (avgY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            selected[count++] = next;
+            a = next;
+        }
+        selected[count++] = to - 1;
+        return selected;
+    }
+
+    /** "yyyy-MM-dd HH:mm" -> epoch 분 (형식이 다르면 Long.MIN_VALUE) */
+    static long minuteOf(String text) {
+        if (text.length() < 16 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(13) != ':') {
+            return Long.MIN_VALUE;
+        }
+        try {
+            long day = LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10)).toEpochDay();
+            return day * 1440 + digits(text, 11, 13) * 60 + digits(text, 14, 16);
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static Map<String, Object> row(long minute, Double value) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("inst_dtm", LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC).format(MINUTE));
+        row.put("sensor_value", value);
+        return row;
+    }
+
+    private static double valueOf(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.andrew.hnt.api.util;
 
 import com.andrew.hnt.api.model.ExcelTest;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.slf4j.Logger;
@@ -9,8 +10,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class ExcelUtils {
     
@@ -250,79 +254,7 @@ public class ExcelUtils {
             logger.info("일간 데이터 처리 완료 - 소요시간: {}ms", System.currentTimeMillis() - startTime);
 
             // === 월간 데이터 처리 (세로=년도+월, 가로=일자) ===
-            Row titleRow2 = sheet2.createRow(rowNo2++);
-            Cell titleCell2 = titleRow2.createCell(0);
-            titleCell2.setCellStyle(titleStyle);
-            titleCell2.setCellValue(sensorName + "장치 데이터");
-            
-            // 월간 데이터 매핑 (년월과 일자 추출)
-            Map<String, Map<String, Object>> monthlyDataMap = new HashMap<>();
-            Set<String> yearMonthSet = new HashSet<>();
-            
-            if (monthlyList != null && !monthlyList.isEmpty()) {
-                for (Map<String, Object> data : monthlyList) {
-                    String instDtm = String.valueOf(data.get("inst_dtm"));
-                    // inst_dtm 형식: YYYY-MM-DD
-                    if (instDtm != null && instDtm.length() >= 10) {
-                        String yearMonth = instDtm.substring(0, 7);  // YYYY-MM
-                        String day = instDtm.substring(8, 10);  // DD
-                        monthlyDataMap.put(yearMonth + "_" + day, data);
-                        yearMonthSet.add(yearMonth);
-                    }
-                }
-            }
-            
-            List<String> yearMonthList = new ArrayList<>(yearMonthSet);
-            Collections.sort(yearMonthList);
-            
-            // 헤더 행 생성
-            Row headerRow2 = sheet2.createRow(rowNo2++);
-            
-            // 첫 번째 셀: "날짜명" 헤더
-            Cell yearMonthHeaderCell = headerRow2.createCell(0);
-            yearMonthHeaderCell.setCellStyle(headStyle);
-            yearMonthHeaderCell.setCellValue("날짜명");
-            
-            // 나머지 셀: 일자 헤더 (1일~31일)
-            for (int i = 1; i <= 31; i++) {
-                Cell headerCell = headerRow2.createCell(i);
-                headerCell.setCellStyle(headStyle);
-                headerCell.setCellValue(i + "일");
-            }
-            
-            // 월간 데이터 행 생성 (년월별로 행 생성, 성능 최적화)
-            for (int j = 0; j < yearMonthList.size(); j++) {
-                Row dataRow2 = sheet2.createRow(j + rowNo2);
-                Cell yearMonthCell = dataRow2.createCell(0);
-                yearMonthCell.setCellStyle(dataStyle);
-                yearMonthCell.setCellValue(yearMonthList.get(j));
-                
-                // 각 일자별 데이터 매핑 (1일~31일, 빈 셀 생략)
-                for (int day = 1; day <= 31; day++) {
-                    String yearMonth = yearMonthList.get(j);
-                    String dayStr = String.format("%02d", day);  // 01, 02, ..., 31
-                    String key = yearMonth + "_" + dayStr;
-                    Map<String, Object> data = monthlyDataMap.get(key);
-                    
-                    // 데이터가 있을 때만 셀 생성 (성능 최적화)
-                    if (data != null) {
-                        Cell dataCell = dataRow2.createCell(day);
-                        dataCell.setCellStyle(dataStyle);
-                        
-                        Object sensorValue = data.get("sensor_value");
-                        if (sensorValue != null) {
-                            try {
-                                // 숫자 타입으로 변환 시도 (성능 최적화)
-                                double numValue = Double.parseDouble(String.valueOf(sensorValue));
-                                dataCell.setCellValue(numValue);
-                            } catch (NumberFormatException e) {
-                                // 문자열로 저장
-                                dataCell.setCellValue(String.valueOf(sensorValue));
-                            }
-                        }
-                    }
-                }
-            }
+            writeMonthlySheet(sheet2, rowNo2, monthlyList, sensorName, headStyle, titleStyle, dataStyle);
 
             // === 차트 생성 비활성화 (안정성 우선) ===
             // Apache POI로 생성한 차트는 엑셀에서 "내용에 문제가 있다"는 경고를 발생시킬 수 있습니다.
@@ -361,6 +293,292 @@ public class ExcelUtils {
         }
     }
     
+    /**
+     * 1분 단위 헤더 (00:00 ~ 23:59)
+     */
+    public static List<String> minuteHeader() {
+        List<String> header = new ArrayList<String>(1440);
+        for (int hour = 0; hour < 24; hour++) {
+            for (int minute = 0; minute < 60; minute++) {
+                header.add(String.format("%02d:%02d", hour, minute));
+            }
+        }
+        return header;
+    }
+
+    /**
+     * 스트리밍 엑셀 작성 (/data/excelDownload 스트리밍 모드)
+     *
+     * - SXSSF: 메모리에는 windowRows 행만 두고 나머지는 압축 임시 파일로 내보냄
+     * - 일간 행은 시간 순(order by inst_dtm)으로 accept 되며 날짜가 바뀔 때 한 행으로 기록 (현재 날짜 1440칸만 보관)
+     * - 템플릿이 있으면 템플릿 시트/서식을 유지하고 템플릿에 있는 행 아래부터 작성
+     * - 집계된 1분 값 배열은 writeDay 로 바로 기록, 여러 센서 보고서는 addSensor 로 센서별 시트 쌍 추가
+     * - write 전까지 응답에 아무것도 쓰지 않으므로 데이터가 없으면 호출한 쪽에서 오류 응답 가능
+     */
+    public static class StreamingDataExcel implements Consumer<Map<String, Object>>, Closeable {
+
+        private final SXSSFWorkbook workbook;
+        private final List<String> excelHeader;
+        private final CellStyle headStyle;
+        private final CellStyle titleStyle;
+        private final CellStyle dataStyle;
+        // 시간 헤더("HH:mm") -> 열 번호
+        private final Map<String, Integer> slotColumns = new HashMap<>();
+        private final Object[] slotValues;
+
+        private Sheet sheet;
+        private Sheet sheet2;
+        private int monthlyStartRow;
+        private int sensorCount;
+        private int rowNo;
+        private String currentDate;
+        private long acceptedRows;
+        private long validRows;
+        private int dayRows;
+
+        public StreamingDataExcel(List<String> excelHeader, String sensorName, int windowRows) {
+            Workbook template = loadTemplateIfExists();
+            int dailyStartRow = 2;
+            int monthlyStartRow = 2;
+            if (template instanceof XSSFWorkbook) {
+                // SXSSF 는 템플릿에 이미 있는 행 위로 쓸 수 없으므로 그 아래부터 작성
+                dailyStartRow = startRowOf(template.getSheet("일간 데이터"));
+                monthlyStartRow = startRowOf(template.getSheet("월간 데이터"));
+                workbook = new SXSSFWorkbook((XSSFWorkbook) template, windowRows, true);
+            } else {
+                workbook = new SXSSFWorkbook(null, windowRows, true);
+            }
+            this.excelHeader = excelHeader;
+            headStyle = createHeaderStyle(workbook);
+            titleStyle = createTitleStyle(workbook);
+            dataStyle = createDataStyle(workbook);
+            for (int i = 0; i < excelHeader.size(); i++) {
+                slotColumns.put(excelHeader.get(i), i);
+            }
+            slotValues = new Object[excelHeader.size()];
+
+            startSensor(sheetOf(workbook, "일간 데이터"), sheetOf(workbook, "월간 데이터"), dailyStartRow, monthlyStartRow, sensorName);
+        }
+
+        /**
+         * 다음 센서 시트 쌍 추가 (여러 센서 보고서, "일간 데이터 2" / "월간 데이터 2" ...)
+         */
+        public void addSensor(String sensorName) {
+            flushDay();
+            int index = sensorCount + 1;
+            startSensor(workbook.createSheet("일간 데이터 " + index), workbook.createSheet("월간 데이터 " + index), 2, 2, sensorName);
+        }
+
+        private void startSensor(Sheet daily, Sheet monthly, int dailyStartRow, int monthlyStartRow, String sensorName) {
+            sheet = daily;
+            sheet2 = monthly;
+            this.monthlyStartRow = monthlyStartRow;
+            sensorCount++;
+
+            rowNo = dailyStartRow;
+            Row titleRow = sheet.createRow(rowNo++);
+            Cell titleCell = titleRow.createCell(0);
+            titleCell.setCellStyle(titleStyle);
+            titleCell.setCellValue(sensorName + "장치 데이터");
+
+            Row headerRow = sheet.createRow(rowNo++);
+            Cell dateHeaderCell = headerRow.createCell(0);
+            dateHeaderCell.setCellStyle(headStyle);
+            dateHeaderCell.setCellValue("날짜명");
+            for (int i = 0; i < excelHeader.size(); i++) {
+                Cell headerCell = headerRow.createCell(i + 1);
+                headerCell.setCellStyle(headStyle);
+                headerCell.setCellValue(excelHeader.get(i));
+            }
+        }
+
+        private static int startRowOf(Sheet templateSheet) {
+            return templateSheet == null ? 2 : Math.max(2, templateSheet.getLastRowNum() + 1);
+        }
+
+        private static Sheet sheetOf(Workbook workbook, String name) {
+            Sheet sheet = workbook.getSheet(name);
+            return sheet != null ? sheet : workbook.createSheet(name);
+        }
+
+        /**
+         * 일간 행 1건 (getDate, inst_dtm, sensor_value)
+         */
+        @Override
+        public void accept(Map<String, Object> data) {
+            acceptedRows++;
+            if (data == null || data.get("inst_dtm") == null || data.get("sensor_value") == null) {
+                return;
+            }
+            String date = String.valueOf(data.get("getDate"));
+            String time = String.valueOf(data.get("inst_dtm"));
+            Integer column = slotColumns.get(time.contains(" ") ? time.split(" ")[1] : time);
+            if (column == null) {
+                return;
+            }
+            if (!date.equals(currentDate)) {
+                flushDay();
+                currentDate = date;
+            }
+            slotValues[column] = data.get("sensor_value");
+            validRows++;
+        }
+
+        private void flushDay() {
+            if (currentDate == null) {
+                return;
+            }
+            Row dataRow = sheet.createRow(rowNo++);
+            Cell dateCell = dataRow.createCell(0);
+            dateCell.setCellStyle(dataStyle);
+            dateCell.setCellValue(currentDate);
+            for (int k = 0; k < slotValues.length; k++) {
+                // 데이터가 있을 때만 셀 생성
+                if (slotValues[k] != null) {
+                    Cell dataCell = dataRow.createCell(k + 1);
+                    dataCell.setCellStyle(dataStyle);
+                    setSensorValue(dataCell, slotValues[k]);
+                    slotValues[k] = null;
+                }
+            }
+            currentDate = null;
+            dayRows++;
+        }
+
+        /**
+         * 일간 행 1건을 바로 기록 (집계된 1분 값 배열, 값 없음은 NaN)
+         */
+        public void writeDay(String date, double[] values) {
+            flushDay();
+            Row dataRow = sheet.createRow(rowNo++);
+            Cell dateCell = dataRow.createCell(0);
+            dateCell.setCellStyle(dataStyle);
+            dateCell.setCellValue(date);
+            for (int k = 0; k < values.length && k < slotValues.length; k++) {
+                if (!Double.isNaN(values[k])) {
+                    Cell dataCell = dataRow.createCell(k + 1);
+                    dataCell.setCellStyle(dataStyle);
+                    dataCell.setCellValue(values[k]);
+                    validRows++;
+                }
+            }
+            dayRows++;
+        }
+
+        /** 월간 시트 작성 (일 단위 목록, 최대 수백 행) */
+        public void writeMonthly(List<Map<String, Object>> monthlyList, String sensorName) {
+            writeMonthlySheet(sheet2, monthlyStartRow, monthlyList, sensorName, headStyle, titleStyle, dataStyle);
+        }
+
+        /** 마지막 날짜 행을 기록하고 통합 문서를 출력 스트림으로 바로 작성 */
+        public void write(OutputStream out) throws IOException {
+            flushDay();
+            workbook.write(out);
+            out.flush();
+        }
+
+        public long getAcceptedRows() {
+            return acceptedRows;
+        }
+
+        /** inst_dtm / sensor_value 가 있는 행 수 */
+        public long getValidRows() {
+            return validRows;
+        }
+
+        public int getDayRows() {
+            return dayRows;
+        }
+
+        /** 임시 파일 삭제 */
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * 월간 시트 작성 (세로=년도+월, 가로=일자, 제목/헤더/데이터 순)
+     */
+    private static void writeMonthlySheet(Sheet sheet2, int rowNo2, List<Map<String, Object>> monthlyList, String sensorName,
+                                          CellStyle headStyle, CellStyle titleStyle, CellStyle dataStyle) {
+        Row titleRow2 = sheet2.createRow(rowNo2++);
+        Cell titleCell2 = titleRow2.createCell(0);
+        titleCell2.setCellStyle(titleStyle);
+        titleCell2.setCellValue(sensorName + "장치 데이터");
+
+        // 월간 데이터 매핑 (년월과 일자 추출)
+        Map<String, Map<String, Object>> monthlyDataMap = new HashMap<>();
+        Set<String> yearMonthSet = new HashSet<>();
+
+        if (monthlyList != null && !monthlyList.isEmpty()) {
+            for (Map<String, Object> data : monthlyList) {
+                String instDtm = String.valueOf(data.get("inst_dtm"));
+                // inst_dtm 형식: YYYY-MM-DD
+                if (instDtm != null && instDtm.length() >= 10) {
+                    String yearMonth = instDtm.substring(0, 7);  // YYYY-MM
+                    String day = instDtm.substring(8, 10);  // DD
+                    monthlyDataMap.put(yearMonth + "_" + day, data);
+                    yearMonthSet.add(yearMonth);
+                }
+            }
+        }
+
+        List<String> yearMonthList = new ArrayList<>(yearMonthSet);
+        Collections.sort(yearMonthList);
+
+        // 헤더 행 생성
+        Row headerRow2 = sheet2.createRow(rowNo2++);
+
+        // 첫 번째 셀: "날짜명" 헤더
+        Cell yearMonthHeaderCell = headerRow2.createCell(0);
+        yearMonthHeaderCell.setCellStyle(headStyle);
+        yearMonthHeaderCell.setCellValue("날짜명");
+
+        // 나머지 셀: 일자 헤더 (1일~31일)
+        for (int i = 1; i <= 31; i++) {
+            Cell headerCell = headerRow2.createCell(i);
+            headerCell.setCellStyle(headStyle);
+            headerCell.setCellValue(i + "일");
+        }
+
+        // 월간 데이터 행 생성 (년월별로 행 생성, 빈 셀 생략)
+        for (int j = 0; j < yearMonthList.size(); j++) {
+            Row dataRow2 = sheet2.createRow(j + rowNo2);
+            Cell yearMonthCell = dataRow2.createCell(0);
+            yearMonthCell.setCellStyle(dataStyle);
+            yearMonthCell.setCellValue(yearMonthList.get(j));
+
+            for (int day = 1; day <= 31; day++) {
+                Map<String, Object> data = monthlyDataMap.get(yearMonthList.get(j) + "_" + String.format("%02d", day));
+                if (data != null) {
+                    Cell dataCell = dataRow2.createCell(day);
+                    dataCell.setCellStyle(dataStyle);
+                    setSensorValue(dataCell, data.get("sensor_value"));
+                }
+            }
+        }
+    }
+
+    /**
+     * 센서 값 셀 기록 (숫자로 변환되면 숫자, 아니면 문자열)
+     */
+    private static void setSensorValue(Cell cell, Object sensorValue) {
+        if (sensorValue == null) {
+            return;
+        }
+        if (sensorValue instanceof Number) {
+            cell.setCellValue(((Number) sensorValue).doubleValue());
+            return;
+        }
+        try {
+            cell.setCellValue(Double.parseDouble(String.valueOf(sensorValue)));
+        } catch (NumberFormatException e) {
+            cell.setCellValue(String.valueOf(sensorValue));
+        }
+    }
+
     /**
      * 숫자를 엑셀 컬럼명으로 변환 (1 -> A, 2 -> B, ..., 27 -> AA, ...)
      */
@@ -2,8 +2,15 @@ package com.andrew.hnt.api.util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.Map;
 
@@ -43,6 +50,47 @@ public class MqttMessageValidator {
         "live", "setres", "actres"
     };
     
+    // 메시지 정제 패턴 (사전 컴파일)
+    private static final Pattern SANITIZE_TAG_PATTERN = Pattern.compile("<[^>]*>");
+    private static final Pattern SANITIZE_SQL_PATTERN = Pattern.compile("(?i)(union|select|insert|update|delete|drop|create|alter|exec|execute)");
+    private static final Pattern SANITIZE_SCRIPT_PATTERN = Pattern.compile("(?i)<script[^>]*>.*?</script>");
+    private static final Pattern SANITIZE_SPECIAL_PATTERN = Pattern.compile("[<>\"'&]");
+    
+    // 보안 위협 스캔 설정
+    @Value("${custom.mqtt.threat-scan.strict-keywords:true}")
+    private boolean strictKeywords;
+    
+    @Value("${custom.mqtt.threat-scan.fast-path-topic-types:DEV}")
+    private String fastPathTopicTypesConfig;
+    
+    private MqttThreatScanner threatScanner = new MqttThreatScanner(true);
+    private Set<String> fastPathTopicTypes = new HashSet<>();
+    
+    // 보안 위협 스캔 통계
+    private final AtomicLong threatScanCount = new AtomicLong(0);
+    private final AtomicLong threatFastPathCount = new AtomicLong(0);
+    private final AtomicLong threatDetectedCount = new AtomicLong(0);
+    
+    /**
+     * 보안 위협 스캐너 초기화 (시그니처는 여기서 한 번만 구성)
+     */
+    @PostConstruct
+    public void initThreatScanner() {
+        threatScanner = new MqttThreatScanner(strictKeywords);
+        
+        Set<String> types = new HashSet<>();
+        if (fastPathTopicTypesConfig != null) {
+            for (String type : fastPathTopicTypesConfig.split(",")) {
+                if (!type.trim().isEmpty()) {
+                    types.add(type.trim());
+                }
+            }
+        }
+        fastPathTopicTypes = types;
+        
+        logger.info("MQTT 보안 위협 스캐너 초기화 - strictKeywords: {}, 빠른 경로 토픽 유형: {}", strictKeywords, fastPathTopicTypes);
+    }
+    
     /**
      * MQTT 토픽 검증
      */
@@ -373,16 +421,16 @@ public class MqttMessageValidator {
         }
         
         // HTML 태그 제거
-        String sanitized = message.replaceAll("<[^>]*>", "");
+        String sanitized = SANITIZE_TAG_PATTERN.matcher(message).replaceAll("");
         
         // SQL Injection 패턴 제거
-        sanitized = sanitized.replaceAll("(?i)(union|select|insert|update|delete|drop|create|alter|exec|execute)", "");
+        sanitized = SANITIZE_SQL_PATTERN.matcher(sanitized).replaceAll("");
         
         // 스크립트 태그 제거
-        sanitized = sanitized.replaceAll("(?i)<script[^>]*>.*?</script>", "");
+        sanitized = SANITIZE_SCRIPT_PATTERN.matcher(sanitized).replaceAll("");
         
         // 특수 문자 정제
-        sanitized = sanitized.replaceAll("[<>\"'&]", "");
+        sanitized = SANITIZE_SPECIAL_PATTERN.matcher(sanitized).replaceAll("");
         
         return sanitized.trim();
     }
@@ -436,48 +484,69 @@ public class MqttMessageValidator {
             return false;
         }
         
-        // SQL 인젝션 패턴 검증
-        String[] sqlPatterns = {
-            "(?i)(union|select|insert|update|delete|drop|create|alter|exec)",
-            "(?i)(or|and)\\s+\\d+\\s*=\\s*\\d+",
-            "(?i)(or|and)\\s+['\"]\\s*=\\s*['\"]",
-            "(?i)union\\s+select",
-            "(?i)drop\\s+table",
-            "(?i)insert\\s+into",
-            "(?i)update\\s+set",
-            "(?i)delete\\s+from"
-        };
+        threatScanCount.incrementAndGet();
+        String threat = threatScanner.scan(message);
+        return reportThreat(threat, message);
+    }
+    
+    /**
+     * 보안 위협 검증 (토픽 + 페이로드 바이트)
+     * 토픽 유형이 빠른 경로 대상(기본: DEV)이고 평탄한 숫자형 페이로드이면 전체 스캔 생략
+     * @param topic MQTT 토픽
+     * @param payload 페이로드 바이트
+     * @return 위협 여부
+     */
+    public boolean hasSecurityThreat(String topic, byte[] payload) {
+        threatScanCount.incrementAndGet();
         
-        for (String pattern : sqlPatterns) {
-            if (message.matches(".*" + pattern + ".*")) {
-                logger.warn("SQL 인젝션 패턴 감지: {}", message);
-                return true;
-            }
+        String threat;
+        if (isFastPathTopic(topic) && threatScanner.isFastPathSafe(payload)) {
+            threatFastPathCount.incrementAndGet();
+            threat = threatScanner.scan(topic);
+        } else {
+            threat = threatScanner.scan(topic, payload);
         }
         
-        // XSS 패턴 검증
-        String[] xssPatterns = {
-            "(?i)<script[^>]*>.*?</script>",
-            "(?i)<iframe[^>]*>.*?</iframe>",
-            "(?i)<object[^>]*>.*?</object>",
-            "(?i)<embed[^>]*>.*?</embed>",
-            "(?i)<link[^>]*>.*?</link>",
-            "(?i)<meta[^>]*>.*?</meta>",
-            "(?i)javascript:",
-            "(?i)vbscript:",
-            "(?i)onload\\s*=",
-            "(?i)onerror\\s*=",
-            "(?i)onclick\\s*="
-        };
-        
-        for (String pattern : xssPatterns) {
-            if (message.matches(".*" + pattern + ".*")) {
-                logger.warn("XSS 패턴 감지: {}", message);
-                return true;
-            }
+        if (threat == null) {
+            return false;
         }
-        
-        return false;
+        return reportThreat(threat, topic + "@" + (payload != null ? new String(payload, StandardCharsets.UTF_8) : ""));
+    }
+    
+    /**
+     * 보안 위협 스캔 통계
+     */
+    public Map<String, Object> getThreatScanStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("scanCount", threatScanCount.get());
+        stats.put("fastPathCount", threatFastPathCount.get());
+        stats.put("threatCount", threatDetectedCount.get());
+        stats.put("strictKeywords", threatScanner.isStrictKeywords());
+        stats.put("fastPathTopicTypes", fastPathTopicTypes);
+        return stats;
+    }
+    
+    private boolean reportThreat(String threat, String message) {
+        if (threat == null) {
+            return false;
+        }
+        threatDetectedCount.incrementAndGet();
+        if (MqttThreatScanner.THREAT_SQL.equals(threat)) {
+            logger.warn("SQL 인젝션 패턴 감지: {}", message);
+        } else {
+            logger.warn("XSS 패턴 감지: {}", message);
+        }
+        return true;
+    }
+    
+    /**
+     * 토픽 유형(마지막 세그먼트)이 빠른 경로 대상인지 확인
+     */
+    private boolean isFastPathTopic(String topic) {
+        if (topic == null || fastPathTopicTypes.isEmpty()) {
+            return false;
+        }
+        return fastPathTopicTypes.contains(topic.substring(topic.lastIndexOf('/') + 1));
     }
     
     /**
@@ -488,9 +557,16 @@ public class MqttMessageValidator {
             return false;
         }
         
+        return isValidMessageLength(message.length());
+    }
+    
+    /**
+     * 메시지 길이 검증 (길이만 전달)
+     */
+    public boolean isValidMessageLength(int length) {
         // 최대 길이 제한 (1KB)
-        if (message.length() > 1024) {
-            logger.warn("메시지가 너무 깁니다: {} bytes", message.length());
+        if (length > 1024) {
+            logger.warn("메시지가 너무 깁니다: {} bytes", length);
             return false;
         }
         
@@ -0,0 +1,570 @@
+package com.andrew.hnt.api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * MQTT 메시지 보안 위협 스캐너
+ * HnT Sensor API 프로젝트
+ *
+ * SQL/XSS 시그니처를 생성 시 한 번만 키워드 트라이(DFA)로 구성하고,
+ * 소문자화한 바이트를 한 번만 읽으면서 토큰 경계 규칙으로 판정
+ * (String.matches 반복 호출에 의한 정규식 재컴파일/백트래킹 제거)
+ *
+ * 판정 규칙 (토큰 단위):
+ * - SQL 구문: union select, drop table, insert into, update set, delete from (공백으로만 구분)
+ * - SQL 항진식: or|and 1=1, or|and '='
+ * - XSS 태그: &lt;script ... &lt;/script (iframe, object, embed, link, meta 동일)
+ * - XSS 스킴: javascript:, vbscript:
+ * - XSS 이벤트: onload=, onerror=, onclick=
+ *
+ * strictKeywords 설정 시(기본값)에는 기존 hasSecurityThreat와 판정이 동일:
+ * 기존 정규식이 성립하려면 반드시 포함해야 하는 리터럴(키워드 부분 문자열, or/and+공백, &lt;태그명 등)을
+ * 한 번의 선형 스캔으로 먼저 찾고, 있을 때만 미리 컴파일한 기존 정규식으로 최종 판정
+ */
+public final class MqttThreatScanner {
+
+    // 기존 hasSecurityThreat 정규식 (String.matches(".*" + pattern + ".*")와 동일하게 컴파일)
+    private static final Pattern[] LEGACY_SQL_PATTERNS = legacyPatterns(
+        "(?i)(union|select|insert|update|delete|drop|create|alter|exec)",
+        "(?i)(or|and)\\s+\\d+\\s*=\\s*\\d+",
+        "(?i)(or|and)\\s+['\"]\\s*=\\s*['\"]",
+        "(?i)union\\s+select",
+        "(?i)drop\\s+table",
+        "(?i)insert\\s+into",
+        "(?i)update\\s+set",
+        "(?i)delete\\s+from"
+    );
+
+    private static final Pattern[] LEGACY_XSS_PATTERNS = legacyPatterns(
+        "(?i)<script[^>]*>.*?</script>",
+        "(?i)<iframe[^>]*>.*?</iframe>",
+        "(?i)<object[^>]*>.*?</object>",
+        "(?i)<embed[^>]*>.*?</embed>",
+        "(?i)<link[^>]*>.*?</link>",
+        "(?i)<meta[^>]*>.*?</meta>",
+        "(?i)javascript:",
+        "(?i)vbscript:",
+        "(?i)onload\\s*=",
+        "(?i)onerror\\s*=",
+        "(?i)onclick\\s*="
+    );
+
+    // 키워드 ID
+    private static final int KW_NONE = 0;
+    private static final int KW_UNION = 1;
+    private static final int KW_SELECT = 2;
+    private static final int KW_INSERT = 3;
+    private static final int KW_UPDATE = 4;
+    private static final int KW_DELETE = 5;
+    private static final int KW_DROP = 6;
+    private static final int KW_CREATE = 7;
+    private static final int KW_ALTER = 8;
+    private static final int KW_EXEC = 9;
+    private static final int KW_OR = 10;
+    private static final int KW_AND = 11;
+    private static final int KW_TABLE = 12;
+    private static final int KW_INTO = 13;
+    private static final int KW_SET = 14;
+    private static final int KW_FROM = 15;
+    private static final int KW_JAVASCRIPT = 16;
+    private static final int KW_VBSCRIPT = 17;
+    private static final int KW_ONLOAD = 18;
+    private static final int KW_ONERROR = 19;
+    private static final int KW_ONCLICK = 20;
+    // XSS 태그 (비트마스크 위치 = ID - KW_SCRIPT)
+    private static final int KW_SCRIPT = 21;
+    private static final int KW_IFRAME = 22;
+    private static final int KW_OBJECT = 23;
+    private static final int KW_EMBED = 24;
+    private static final int KW_LINK = 25;
+    private static final int KW_META = 26;
+
+    private static final String[] KEYWORDS = {
+        null, "union", "select", "insert", "update", "delete", "drop", "create", "alter", "exec",
+        "or", "and", "table", "into", "set", "from",
+        "javascript", "vbscript", "onload", "onerror", "onclick",
+        "script", "iframe", "object", "embed", "link", "meta"
+    };
+
+    // 위협 유형
+    public static final String THREAT_SQL = "SQL";
+    public static final String THREAT_XSS = "XSS";
+
+    // 트라이 알파벳: a-z(0~25), 0-9(26~35), _(36)
+    private static final int ALPHABET = 37;
+    private static final int DEAD = -1;
+
+    // 바이트 분류
+    private static final byte C_OTHER = 0;
+    private static final byte C_WORD = 1;     // a-z, 0-9, _, 0x80 이상
+    private static final byte C_SPACE = 2;
+    private static final byte C_QUOTE = 3;    // ' "
+    private static final byte C_EQ = 4;
+    private static final byte C_LT = 5;
+    private static final byte C_SLASH = 6;
+    private static final byte C_COLON = 7;
+
+    private static final byte[] CLASS = new byte[256];
+    private static final int[] TRIE_INDEX = new int[256];
+    // 빠른 경로 허용 바이트 (평탄한 숫자형 JSON: 영숫자 { } " , . + - _ 및 따옴표 뒤의 :)
+    private static final boolean[] FAST_SAFE = new boolean[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            TRIE_INDEX[b] = -1;
+            if (b >= 0x80) {
+                CLASS[b] = C_WORD;
+            }
+        }
+        for (int b = 'a'; b <= 'z'; b++) {
+            CLASS[b] = C_WORD;
+            CLASS[b - 32] = C_WORD;
+            TRIE_INDEX[b] = b - 'a';
+            TRIE_INDEX[b - 32] = b - 'a';
+            FAST_SAFE[b] = true;
+            FAST_SAFE[b - 32] = true;
+        }
+        for (int b = '0'; b <= '9'; b++) {
+            CLASS[b] = C_WORD;
+            TRIE_INDEX[b] = 26 + (b - '0');
+            FAST_SAFE[b] = true;
+        }
+        CLASS['_'] = C_WORD;
+        TRIE_INDEX['_'] = 36;
+        CLASS[' '] = C_SPACE;
+        CLASS['\t'] = C_SPACE;
+        CLASS['\n'] = C_SPACE;
+        CLASS['\r'] = C_SPACE;
+        CLASS[0x0B] = C_SPACE;
+        CLASS['\f'] = C_SPACE;
+        CLASS['\''] = C_QUOTE;
+        CLASS['"'] = C_QUOTE;
+        CLASS['='] = C_EQ;
+        CLASS['<'] = C_LT;
+        CLASS['/'] = C_SLASH;
+        CLASS[':'] = C_COLON;
+        for (char c : new char[] {'_', '{', '}', '"', ',', '.', '+', '-'}) {
+            FAST_SAFE[c] = true;
+        }
+    }
+
+    // 키워드 트라이 (상태 x 알파벳 -> 다음 상태)
+    private final int[] transitions;
+    private final int[] terminal;
+    private final boolean strictKeywords;
+
+    /**
+     * @param strictKeywords true이면 기존 정규식 판정과 동일 (SQL 키워드가 부분 문자열로만 있어도 위협),
+     *                       false이면 토큰 경계 규칙만 적용
+     */
+    public MqttThreatScanner(boolean strictKeywords) {
+        this.strictKeywords = strictKeywords;
+
+        int maxStates = 1;
+        for (String keyword : KEYWORDS) {
+            if (keyword != null) {
+                maxStates += keyword.length();
+            }
+        }
+        int[] trans = new int[maxStates * ALPHABET];
+        java.util.Arrays.fill(trans, DEAD);
+        int[] term = new int[maxStates];
+        int stateCount = 1;
+
+        for (int id = 1; id < KEYWORDS.length; id++) {
+            int state = 0;
+            for (char c : KEYWORDS[id].toCharArray()) {
+                int idx = state * ALPHABET + TRIE_INDEX[c];
+                if (trans[idx] == DEAD) {
+                    trans[idx] = stateCount++;
+                }
+                state = trans[idx];
+            }
+            term[state] = id;
+        }
+
+        this.transitions = trans;
+        this.terminal = term;
+    }
+
+    public boolean isStrictKeywords() {
+        return strictKeywords;
+    }
+
+    /**
+     * 문자열 스캔
+     * @param message 검사할 메시지
+     * @return 위협 유형 (THREAT_SQL / THREAT_XSS), 위협이 없으면 null
+     */
+    public String scan(CharSequence message) {
+        if (message == null) {
+            return null;
+        }
+        if (strictKeywords) {
+            return hasLegacyTrigger(message) ? legacyScan(message.toString()) : null;
+        }
+        ScanState state = new ScanState();
+        for (int i = 0, n = message.length(); i < n; i++) {
+            char c = message.charAt(i);
+            if (state.feed(c < 0x80 ? c : 0x80)) {
+                return state.threat;
+            }
+        }
+        return state.finish();
+    }
+
+    /**
+     * 토픽 + 페이로드 스캔 (topic@payload 문자열을 만들지 않고 이어서 스캔)
+     * @param topic MQTT 토픽 (null 허용)
+     * @param payload 페이로드 바이트
+     * @return 위협 유형, 위협이 없으면 null
+     */
+    public String scan(String topic, byte[] payload) {
+        if (strictKeywords) {
+            if (!hasLegacyTrigger(new TopicPayloadChars(topic, payload))) {
+                return null;
+            }
+            String payloadText = payload != null ? new String(payload, StandardCharsets.UTF_8) : "";
+            return legacyScan(topic != null ? topic + "@" + payloadText : payloadText);
+        }
+        ScanState state = new ScanState();
+        if (topic != null) {
+            for (int i = 0, n = topic.length(); i < n; i++) {
+                char c = topic.charAt(i);
+                if (state.feed(c < 0x80 ? c : 0x80)) {
+                    return state.threat;
+                }
+            }
+            if (state.feed('@')) {
+                return state.threat;
+            }
+        }
+        if (payload != null) {
+            for (byte b : payload) {
+                if (state.feed(b & 0xFF)) {
+                    return state.threat;
+                }
+            }
+        }
+        return state.finish();
+    }
+
+    /**
+     * 빠른 경로 판정 (평탄한 숫자형 JSON 페이로드)
+     * 허용 바이트만으로 구성되면 어떤 규칙도 성립할 수 없으므로 위협 없음으로 확정
+     * (공백, =, &lt;, 작은따옴표가 없고 :는 큰따옴표 바로 뒤에만 위치)
+     * @return true이면 위협 없음 확정, false이면 전체 스캔 필요
+     */
+    public boolean isFastPathSafe(byte[] payload) {
+        if (strictKeywords || payload == null) {
+            return false;
+        }
+        int prev = -1;
+        for (byte value : payload) {
+            int b = value & 0xFF;
+            if (!FAST_SAFE[b] && !(b == ':' && prev == '"')) {
+                return false;
+            }
+            prev = b;
+        }
+        return true;
+    }
+
+    /**
+     * 스캔 상태 (호출마다 생성, 스레드 간 공유하지 않음)
+     */
+    private final class ScanState {
+        String threat;
+
+        // 현재 단어
+        boolean inWord;
+        int trieState;
+        boolean wordNumeric;
+
+        // 직전 토큰 정보
+        byte prevToken = C_OTHER;       // 직전 토큰 분류 (C_WORD, C_QUOTE, C_EQ ...)
+        int prevKeyword = KW_NONE;      // 직전 토큰이 단어일 때 키워드 ID
+        boolean spaceSincePrev;         // 직전 토큰 이후 공백 여부
+
+        // 태그 상태: 0 없음, 1 '<' 직후, 2 '</' 직후
+        int tagState;
+        int openTags;                   // 열린 XSS 태그 비트마스크
+
+        // 항진식 상태: 0 없음, 1 or/and 이후, 2 피연산자 이후, 3 '=' 이후
+        int tautState;
+        byte tautOperand;
+
+        /**
+         * 바이트 하나 입력
+         * @return 위협이 확정되면 true
+         */
+        boolean feed(int b) {
+            byte cls = CLASS[b];
+            if (cls == C_WORD) {
+                if (!inWord) {
+                    inWord = true;
+                    trieState = 0;
+                    wordNumeric = true;
+                }
+                if (trieState != DEAD) {
+                    int idx = TRIE_INDEX[b];
+                    trieState = idx < 0 ? DEAD : transitions[trieState * ALPHABET + idx];
+                }
+                if (b < '0' || b > '9') {
+                    wordNumeric = false;
+                }
+                return false;
+            }
+            if (inWord && endWord()) {
+                return true;
+            }
+            if (cls == C_SPACE) {
+                spaceSincePrev = true;
+                return false;
+            }
+            return punct(cls);
+        }
+
+        String finish() {
+            if (inWord && endWord()) {
+                return threat;
+            }
+            return null;
+        }
+
+        private boolean endWord() {
+            inWord = false;
+            int keyword = trieState == DEAD ? KW_NONE : terminal[trieState];
+            boolean numeric = wordNumeric;
+
+            // XSS 태그 (<script ... </script)
+            if (keyword >= KW_SCRIPT && !spaceSincePrev) {
+                int bit = 1 << (keyword - KW_SCRIPT);
+                if (tagState == 1) {
+                    openTags |= bit;
+                } else if (tagState == 2 && (openTags & bit) != 0) {
+                    return found(THREAT_XSS);
+                }
+            }
+            tagState = 0;
+
+            // SQL 구문 (공백으로만 구분된 두 키워드)
+            if (prevToken == C_WORD && spaceSincePrev && isSqlPhrase(prevKeyword, keyword)) {
+                return found(THREAT_SQL);
+            }
+
+            // 항진식 (or 1=1)
+            if (tautState == 1 && spaceSincePrev && numeric) {
+                tautState = 2;
+                tautOperand = C_WORD;
+            } else if (tautState == 3 && numeric && tautOperand == C_WORD) {
+                return found(THREAT_SQL);
+            } else {
+                tautState = (keyword == KW_OR || keyword == KW_AND) ? 1 : 0;
+            }
+
+            prevToken = C_WORD;
+            prevKeyword = keyword;
+            spaceSincePrev = false;
+            return false;
+        }
+
+        private boolean punct(byte cls) {
+            switch (cls) {
+                case C_COLON:
+                    // javascript: / vbscript:
+                    if (prevToken == C_WORD && !spaceSincePrev
+                            && (prevKeyword == KW_JAVASCRIPT || prevKeyword == KW_VBSCRIPT)) {
+                        return found(THREAT_XSS);
+                    }
+                    break;
+                case C_EQ:
+                    // onload= / onerror= / onclick=
+                    if (prevToken == C_WORD
+                            && (prevKeyword == KW_ONLOAD || prevKeyword == KW_ONERROR || prevKeyword == KW_ONCLICK)) {
+                        return found(THREAT_XSS);
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            // 태그 상태
+            if (cls == C_LT) {
+                tagState = 1;
+            } else if (cls == C_SLASH && tagState == 1 && !spaceSincePrev) {
+                tagState = 2;
+            } else {
+                tagState = 0;
+            }
+
+            // 항진식 상태
+            if (cls == C_QUOTE && tautState == 1 && spaceSincePrev) {
+                tautState = 2;
+                tautOperand = C_QUOTE;
+            } else if (cls == C_EQ && tautState == 2) {
+                tautState = 3;
+            } else if (cls == C_QUOTE && tautState == 3 && tautOperand == C_QUOTE) {
+                return found(THREAT_SQL);
+            } else {
+                tautState = 0;
+            }
+
+            prevToken = cls;
+            prevKeyword = KW_NONE;
+            spaceSincePrev = false;
+            return false;
+        }
+
+        private boolean found(String type) {
+            threat = type;
+            return true;
+        }
+    }
+
+    /**
+     * 기존 정규식 판정 (트리거 리터럴이 있을 때만 호출)
+     */
+    private static String legacyScan(String message) {
+        for (Pattern pattern : LEGACY_SQL_PATTERNS) {
+            if (pattern.matcher(message).matches()) {
+                return THREAT_SQL;
+            }
+        }
+        for (Pattern pattern : LEGACY_XSS_PATTERNS) {
+            if (pattern.matcher(message).matches()) {
+                return THREAT_XSS;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 기존 정규식 중 하나라도 성립하려면 필요한 리터럴이 있는지 확인 (ASCII 대소문자 무시)
+     * - SQL 키워드: union, select, insert, update, delete, drop, create, alter, exec (부분 문자열)
+     * - 항진식: or/and 바로 뒤 공백
+     * - XSS: &lt;script 등 태그 시작, javascript:, vbscript:, onload/onerror/onclick
+     */
+    static boolean hasLegacyTrigger(CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            switch (lower(s.charAt(i))) {
+                case 'u':
+                    if (at(s, i, "union") || at(s, i, "update")) return true;
+                    break;
+                case 's':
+                    if (at(s, i, "select")) return true;
+                    break;
+                case 'i':
+                    if (at(s, i, "insert")) return true;
+                    break;
+                case 'd':
+                    if (at(s, i, "delete") || at(s, i, "drop")) return true;
+                    break;
+                case 'c':
+                    if (at(s, i, "create")) return true;
+                    break;
+                case 'a':
+                    if (at(s, i, "alter") || (at(s, i, "and") && isSpaceAt(s, i + 3))) return true;
+                    break;
+                case 'e':
+                    if (at(s, i, "exec")) return true;
+                    break;
+                case 'o':
+                    if ((at(s, i, "or") && isSpaceAt(s, i + 2))
+                            || at(s, i, "onload") || at(s, i, "onerror") || at(s, i, "onclick")) return true;
+                    break;
+                case '<':
+                    if (at(s, i, "<script") || at(s, i, "<iframe") || at(s, i, "<object")
+                            || at(s, i, "<embed") || at(s, i, "<link") || at(s, i, "<meta")) return true;
+                    break;
+                case 'j':
+                    if (at(s, i, "javascript:")) return true;
+                    break;
+                case 'v':
+                    if (at(s, i, "vbscript:")) return true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean at(CharSequence s, int offset, String literal) {
+        int len = literal.length();
+        if (offset + len > s.length()) {
+            return false;
+        }
+        for (int k = 0; k < len; k++) {
+            if (lower(s.charAt(offset + k)) != literal.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 정규식 \s (UNICODE_CHARACTER_CLASS 미사용) 와 동일: 공백, \t, \n, \x0B, \f, \r
+    private static boolean isSpaceAt(CharSequence s, int offset) {
+        return offset < s.length() && CLASS[Math.min(s.charAt(offset), 0x80)] == C_SPACE;
+    }
+
+    // (?i)는 UNICODE_CASE 없이 ASCII만 대소문자 무시
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static Pattern[] legacyPatterns(String... patterns) {
+        Pattern[] compiled = new Pattern[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            compiled[i] = Pattern.compile(".*" + patterns[i] + ".*");
+        }
+        return compiled;
+    }
+
+    /**
+     * topic@payload를 문자열로 만들지 않고 트리거 스캔용으로 읽는 뷰
+     * (0x80 이상 바이트는 ASCII 리터럴과 일치할 수 없으므로 0x80으로 취급)
+     */
+    private static final class TopicPayloadChars implements CharSequence {
+        private final String topic;
+        private final byte[] payload;
+        private final int topicLength;
+
+        TopicPayloadChars(String topic, byte[] payload) {
+            this.topic = topic;
+            this.payload = payload != null ? payload : new byte[0];
+            this.topicLength = topic != null ? topic.length() + 1 : 0;
+        }
+
+        @Override
+        public int length() {
+            return topicLength + payload.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < topicLength) {
+                return index == topicLength - 1 ? '@' : topic.charAt(index);
+            }
+            int b = payload[index - topicLength] & 0xFF;
+            return b < 0x80 ? (char) b : 0x80;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static boolean isSqlPhrase(int first, int second) {
+        switch (first) {
+            case KW_UNION: return second == KW_SELECT;
+            case KW_DROP: return second == KW_TABLE;
+            case KW_INSERT: return second == KW_INTO;
+            case KW_UPDATE: return second == KW_SET;
+            case KW_DELETE: return second == KW_FROM;
+            default: return false;
+        }
+    }
+}
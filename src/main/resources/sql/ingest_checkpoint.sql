@@ -0,0 +1,12 @@
+-- MQTT 수신 WAL 중복 제거 기준 테이블
+-- custom.mqtt.processor.wal.enabled: true 사용 전 생성 필요
+-- 배치 저장과 같은 트랜잭션에서 노드/샤드별 마지막 저장 LSN을 기록하여
+-- 재시작 시 WAL 재생이 이미 저장된 데이터를 다시 저장하지 않도록 함
+
+CREATE TABLE IF NOT EXISTS hnt_ingest_checkpoint (
+    wal_id      VARCHAR(64) NOT NULL COMMENT 'WAL 노드 ID (custom.mqtt.processor.wal.node-id)',
+    shard_no    INT         NOT NULL COMMENT '샤드 번호',
+    last_lsn    BIGINT      NOT NULL COMMENT '마지막 저장 LSN',
+    mdf_dtm     DATETIME    NOT NULL COMMENT '수정 일시',
+    PRIMARY KEY (wal_id, shard_no)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='MQTT 수신 WAL 체크포인트';
@@ -0,0 +1,73 @@
+-- hnt_sensor_data 압축 형식 (값 행에서 반복 저장하던 토픽/원본 페이로드/사용자 정보 분리)
+-- SensorDataSchemaService 가 아래 작업을 자동으로 수행하며, 이 파일은 수동 확인/복구용 참고
+--
+-- 1. 구조
+--    - hnt_sensor_data : id, uuid, ch_id(1:ain 2:din 3:output 0:기타), sensor_value decimal(8,1), inst_dtm
+--      (기존 인덱스 / 파티션은 CREATE TABLE LIKE 로 유지, 삭제된 컬럼은 인덱스에서 제외됨)
+--    - hnt_sensor_dict : UUID 별 user_id / sensor_id / topic / inst_id / mdf_id (수신 시 값이 바뀐 경우만 갱신)
+--    - hnt_sensor_raw  : 원본 페이로드 compress() 저장 (custom.sensor-data.compact.raw.retention-days 보관)
+--    - getCurTemp / chkError 는 raw_data like '%ain%' 대신 ch_id = 1 조건 사용
+--    - 값은 소수 1자리로 저장 (숫자가 아닌 값은 null)
+--
+-- 2. 온라인 전환 (POST /monitoring/db/sensor-data/compact/migrate)
+--    - 전환 전 행당 크기 / 조회 지연 측정 (migration.reportBefore)
+--    - hnt_sensor_data_compact 생성 후 id 구간 단위 복사 (값 / 사전 / 보관 기간 이내 원본, 중단 시 max(id) 부터 재개)
+--    - 잔여분이 한 구간 이하가 되면 AUTO_INCREMENT 를 여유 있게 올린 뒤 RENAME 으로 교체,
+--      교체 직전 구 테이블에 들어온 행을 추가 복사, 교체 후 측정 (migration.reportAfter)
+--    - 구 테이블은 hnt_sensor_data_wide 로 남김 (확인 후 수동 삭제)
+--    - 교체 순간 진행 중이던 기존 형식 배치는 실패할 수 있음 (WAL 재처리 대상)
+
+CREATE TABLE IF NOT EXISTS hnt_sensor_dict (
+    uuid varchar(64) NOT NULL,
+    user_id varchar(64) NULL,
+    sensor_id varchar(64) NULL,
+    topic varchar(255) NULL,
+    inst_id varchar(64) NULL,
+    mdf_id varchar(64) NULL,
+    mdf_dtm datetime NOT NULL,
+    PRIMARY KEY (uuid),
+    KEY idx_hnt_sensor_dict_user_id (user_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS hnt_sensor_raw (
+    id bigint NOT NULL AUTO_INCREMENT,
+    uuid varchar(64) NOT NULL,
+    inst_dtm datetime NOT NULL,
+    raw_z blob NULL,
+    PRIMARY KEY (id),
+    KEY idx_hnt_sensor_raw_uuid_inst_dtm (uuid, inst_dtm),
+    KEY idx_hnt_sensor_raw_inst_dtm (inst_dtm)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 행당 크기 (추정치)
+SELECT table_name, table_rows, data_length, index_length,
+       round((data_length + index_length) / nullif(table_rows, 0)) AS bytes_per_row
+FROM information_schema.tables
+WHERE table_schema = DATABASE()
+AND table_name IN ('hnt_sensor_data', 'hnt_sensor_data_wide', 'hnt_sensor_dict', 'hnt_sensor_raw');
+
+-- 원본 페이로드 조회
+-- SELECT id, uuid, inst_dtm, uncompress(raw_z) AS raw_data
+-- FROM hnt_sensor_raw
+-- WHERE uuid = '0008DC000000'
+-- AND inst_dtm >= '2025-01-01 00:00:00'
+-- ORDER BY inst_dtm DESC
+-- LIMIT 10;
+
+-- 수동 전환 예시 (소량 데이터 / 점검 시간 확보 시)
+-- CREATE TABLE hnt_sensor_data_compact LIKE hnt_sensor_data;
+-- ALTER TABLE hnt_sensor_data_compact
+--     ADD COLUMN ch_id tinyint unsigned NOT NULL DEFAULT 0 AFTER uuid,
+--     MODIFY COLUMN sensor_value decimal(8,1) NULL,
+--     DROP COLUMN user_id, DROP COLUMN sensor_id, DROP COLUMN sensor_type, DROP COLUMN topic,
+--     DROP COLUMN raw_data, DROP COLUMN inst_id, DROP COLUMN mdf_id, DROP COLUMN mdf_dtm;
+-- INSERT IGNORE INTO hnt_sensor_data_compact (id, uuid, ch_id, sensor_value, inst_dtm)
+-- SELECT id, uuid,
+--        CASE WHEN sensor_type = 'ain' THEN 1 WHEN sensor_type = 'din' THEN 2 WHEN sensor_type = 'output' THEN 3
+--             WHEN raw_data LIKE '%ain%' THEN 1 WHEN raw_data LIKE '%din%' THEN 2 WHEN raw_data LIKE '%output%' THEN 3
+--             ELSE 0 END,
+--        CASE WHEN sensor_value REGEXP '^-?[0-9]+([.][0-9]+)?$' THEN sensor_value + 0 END,
+--        inst_dtm
+-- FROM hnt_sensor_data WHERE id > 0 AND id <= 100000;
+-- ...
+-- RENAME TABLE hnt_sensor_data TO hnt_sensor_data_wide, hnt_sensor_data_compact TO hnt_sensor_data;
@@ -0,0 +1,48 @@
+-- hnt_sensor_data 시간 파티션 (inst_dtm RANGE COLUMNS, 기본 월 단위)
+-- SensorDataPartitionService 가 아래 작업을 자동으로 수행하며, 이 파일은 수동 확인/복구용 참고
+--
+-- 1. 온라인 전환 (POST /monitoring/db/partitions/migrate)
+--    - hnt_sensor_data_part 를 같은 구조로 생성, PK 를 (id, inst_dtm) 으로 변경 후 파티션 적용
+--      (파티션 키는 모든 유니크 키에 포함되어야 함 - 다른 유니크 키 / 외래 키가 있으면 전환 실패)
+--    - id 구간 단위로 복사 (INSERT IGNORE, 중단 시 hnt_sensor_data_part 의 max(id) 부터 재개)
+--    - 잔여분이 한 구간 이하가 되면 AUTO_INCREMENT 를 여유 있게 올린 뒤 RENAME 으로 교체,
+--      교체 직전 구 테이블에 들어온 행을 추가 복사
+--    - 구 테이블은 hnt_sensor_data_old 로 남김 (확인 후 수동 삭제)
+--
+-- 2. 정기 관리 (custom.partition.maintenance-cron)
+--    - pmax 를 분할하여 앞으로 premake-count 개 구간 미리 생성
+--    - retention-days 보다 오래된 구간은 DROP 또는 EXCHANGE (hnt_sensor_data_arch_{파티션명} 로 분리)
+
+-- 파티션 현황
+SELECT partition_name, partition_description, table_rows
+FROM information_schema.partitions
+WHERE table_schema = DATABASE()
+AND table_name = 'hnt_sensor_data'
+ORDER BY partition_ordinal_position;
+
+-- 파티션 제외(pruning) 확인 - partitions 컬럼에 조회 기간 구간만 표시되어야 함
+EXPLAIN
+SELECT date_format(inst_dtm, '%Y-%m-%d') AS inst_dtm, round(avg(sensor_value), 1) AS sensor_value
+FROM hnt_sensor_data
+WHERE uuid = '0008DC000000'
+AND inst_dtm BETWEEN '2025-01-01 00:00:00' AND '2025-01-31 23:59:59'
+GROUP BY date_format(inst_dtm, '%Y-%m-%d');
+
+-- 수동 전환 예시 (소량 데이터 / 점검 시간 확보 시)
+-- CREATE TABLE hnt_sensor_data_part LIKE hnt_sensor_data;
+-- ALTER TABLE hnt_sensor_data_part DROP PRIMARY KEY, ADD PRIMARY KEY (id, inst_dtm);
+-- ALTER TABLE hnt_sensor_data_part PARTITION BY RANGE COLUMNS(inst_dtm) (
+--     PARTITION p202501 VALUES LESS THAN ('2025-02-01 00:00:00'),
+--     PARTITION p202502 VALUES LESS THAN ('2025-03-01 00:00:00'),
+--     PARTITION pmax VALUES LESS THAN (MAXVALUE)
+-- );
+-- INSERT IGNORE INTO hnt_sensor_data_part SELECT * FROM hnt_sensor_data WHERE id > 0 AND id <= 100000;
+-- ...
+-- RENAME TABLE hnt_sensor_data TO hnt_sensor_data_old, hnt_sensor_data_part TO hnt_sensor_data;
+
+-- 구간 추가 / 보관 기간 초과 구간 삭제 예시
+-- ALTER TABLE hnt_sensor_data REORGANIZE PARTITION pmax INTO (
+--     PARTITION p202503 VALUES LESS THAN ('2025-04-01 00:00:00'),
+--     PARTITION pmax VALUES LESS THAN (MAXVALUE)
+-- );
+-- ALTER TABLE hnt_sensor_data DROP PARTITION p202401;
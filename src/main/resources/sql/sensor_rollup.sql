@@ -0,0 +1,53 @@
+-- 센서 이력 롤업 테이블 (1분 / 1시간 / 1일)
+-- custom.rollup.enabled: true 사용 전 생성 필요
+-- 수신 배치 저장과 같은 트랜잭션에서 열린 구간을 누적 upsert 하고,
+-- 기존 데이터는 백필 작업이 hnt_sensor_data.id 구간 단위로 채움 (hnt_sensor_rollup_state 에 진행 위치 기록)
+-- 평균은 sum_value / cnt 로 계산 (상위 구간 합산 시 가중 평균 유지)
+--
+-- 롤업을 비활성화했다가 다시 활성화하는 경우 그 사이 저장분이 빠지므로
+-- 아래 테이블을 비우고 hnt_sensor_rollup_state 를 삭제한 뒤 재기동하여 다시 백필할 것
+
+CREATE TABLE IF NOT EXISTS hnt_sensor_rollup_1m (
+    uuid        VARCHAR(100) NOT NULL COMMENT '센서 UUID',
+    bucket_dtm  DATETIME     NOT NULL COMMENT '구간 시작 시각 (분)',
+    min_value   DOUBLE       NOT NULL COMMENT '최소값',
+    max_value   DOUBLE       NOT NULL COMMENT '최대값',
+    sum_value   DOUBLE       NOT NULL COMMENT '합계',
+    cnt         INT          NOT NULL COMMENT '건수',
+    mdf_dtm     DATETIME     NOT NULL COMMENT '수정 일시',
+    PRIMARY KEY (uuid, bucket_dtm)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='센서 이력 1분 롤업';
+
+CREATE TABLE IF NOT EXISTS hnt_sensor_rollup_1h (
+    uuid        VARCHAR(100) NOT NULL COMMENT '센서 UUID',
+    bucket_dtm  DATETIME     NOT NULL COMMENT '구간 시작 시각 (시)',
+    min_value   DOUBLE       NOT NULL COMMENT '최소값',
+    max_value   DOUBLE       NOT NULL COMMENT '최대값',
+    sum_value   DOUBLE       NOT NULL COMMENT '합계',
+    cnt         INT          NOT NULL COMMENT '건수',
+    mdf_dtm     DATETIME     NOT NULL COMMENT '수정 일시',
+    PRIMARY KEY (uuid, bucket_dtm)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='센서 이력 1시간 롤업';
+
+CREATE TABLE IF NOT EXISTS hnt_sensor_rollup_1d (
+    uuid        VARCHAR(100) NOT NULL COMMENT '센서 UUID',
+    bucket_dtm  DATETIME     NOT NULL COMMENT '구간 시작 시각 (일)',
+    min_value   DOUBLE       NOT NULL COMMENT '최소값',
+    max_value   DOUBLE       NOT NULL COMMENT '최대값',
+    sum_value   DOUBLE       NOT NULL COMMENT '합계',
+    cnt         INT          NOT NULL COMMENT '건수',
+    mdf_dtm     DATETIME     NOT NULL COMMENT '수정 일시',
+    PRIMARY KEY (uuid, bucket_dtm)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='센서 이력 1일 롤업';
+
+-- 롤업 유지 상태
+-- live_from_id  : 실시간 누적 시작 시점의 hnt_sensor_data 최대 id (이하 구간은 백필 대상)
+-- live_from_dtm : 실시간 누적 시작 시각 (백필 완료 전에는 이후 구간 조회만 롤업 사용)
+-- backfill_id   : 백필 완료 위치 (id, 이 값까지 반영됨)
+-- backfill_done : 백필 완료 여부 (Y/N)
+CREATE TABLE IF NOT EXISTS hnt_sensor_rollup_state (
+    state_key   VARCHAR(32)  NOT NULL COMMENT '상태 키',
+    state_value VARCHAR(64)  NOT NULL COMMENT '상태 값',
+    mdf_dtm     DATETIME     NOT NULL COMMENT '수정 일시',
+    PRIMARY KEY (state_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='센서 이력 롤업 상태';
@@ -869,31 +869,78 @@
 
                         console.log('다운로드 버튼 비활성화 - 중복 클릭 방지');
 
-                        // URL 파라미터 생성
-                        var urlParams = new URLSearchParams();
-                        urlParams.append('userId', params.userId || '');
-                        urlParams.append('sensorId', params.sensorId || '');
-                        urlParams.append('sensorUuid', params.sensorUuid);
-                        urlParams.append('sensorName', params.sensorName || '');
-                        urlParams.append('startDate', params.startDate);
-                        urlParams.append('endDate', params.endDate);
-                        urlParams.append('gu', 'd'); // 일간 데이터
-
-                        // 다운로드 URL 생성
-                        var downloadUrl = '/data/excelDownload?' + urlParams.toString();
-
-                        console.log('다운로드 URL:', downloadUrl);
-
-                        // 현재 창에서 다운로드 실행
-                        location.href = downloadUrl;
-
-                        // 3초 후 버튼 재활성화 (다운로드 완료 예상 시간)
-                        setTimeout(function () {
+                        function finishDownload() {
                             isDownloading = false;
                             $downloadBtn.prop('disabled', false);
                             $downloadBtn.text(originalText);
                             console.log('다운로드 버튼 재활성화');
-                        }, 3000);
+                        }
+
+                        // 내보내기 작업 등록 (같은 센서/기간 작업이 진행 중이면 합류, 캐시된 파일이면 바로 완료)
+                        $.ajax({
+                            url: '/data/submitExportJob',
+                            method: 'POST',
+                            cache: false,
+                            timeout: 30000,
+                            data: {
+                                sensorUuid: params.sensorUuid,
+                                sensorName: params.sensorName || '',
+                                startDate: params.startDate,
+                                endDate: params.endDate,
+                                format: 'xlsx'
+                            },
+                            success: function (response) {
+                                if (response.resultCode === '200' && response.job) {
+                                    console.log('내보내기 작업 등록:', response.job);
+                                    waitExportJob(response.job, $downloadBtn, finishDownload);
+                                } else {
+                                    alert('엑셀 다운로드를 요청할 수 없습니다: ' + response.resultMessage);
+                                    finishDownload();
+                                }
+                            },
+                            error: function (xhr, status, error) {
+                                console.error('내보내기 작업 등록 오류:', error);
+                                alert('엑셀 다운로드 요청 중 오류가 발생했습니다: ' + error);
+                                finishDownload();
+                            }
+                        });
+                    }
+
+                    // 내보내기 작업 진행률 확인 후 완료되면 파일 다운로드 (1초 간격)
+                    function waitExportJob(job, $downloadBtn, done) {
+                        if (job.status === 'DONE') {
+                            location.href = '/data/downloadExportJob?jobId=' + encodeURIComponent(job.jobId);
+                            done();
+                            return;
+                        }
+                        if (job.status === 'FAILED') {
+                            alert(job.message || '엑셀 파일 작성 중 오류가 발생했습니다.');
+                            done();
+                            return;
+                        }
+                        $downloadBtn.text('작성 중... ' + (job.percent || 0) + '%');
+                        setTimeout(function () {
+                            $.ajax({
+                                url: '/data/getExportJob',
+                                method: 'POST',
+                                cache: false,
+                                timeout: 30000,
+                                data: { jobId: job.jobId },
+                                success: function (response) {
+                                    if (response.resultCode === '200' && response.job) {
+                                        waitExportJob(response.job, $downloadBtn, done);
+                                    } else {
+                                        alert('엑셀 다운로드 작업을 확인할 수 없습니다: ' + response.resultMessage);
+                                        done();
+                                    }
+                                },
+                                error: function (xhr, status, error) {
+                                    console.error('내보내기 작업 조회 오류:', error);
+                                    alert('엑셀 다운로드 작업 확인 중 오류가 발생했습니다: ' + error);
+                                    done();
+                                }
+                            });
+                        }, 1000);
                     }
 
                     function goMain() {
@@ -2017,7 +2064,9 @@
                             data: {
                                 sensorUuid: sensorUuid,
                                 startDate: startDate,
-                                endDate: endDate
+                                endDate: endDate,
+                                // 차트 폭(px)만큼만 점을 받음 (서버 LTTB 축소 + 미수신 구간 끊김 표시)
+                                maxPoints: Math.round($('#dailyChart').width() || 1500)
                             },
                             success: function (response) {
                                 console.log('차트 데이터 로드 성공:', response);
@@ -2026,7 +2075,7 @@
 
                                 if (response.resultCode === '200' && response.dailyData) {
                                     // 새 데이터로 차트 업데이트
-                                    updateChartWithNewData(response.dailyData);
+                                    updateChartWithNewData(response.dailyData, response.downsample);
                                 } else {
                                     console.warn('차트 데이터 로드 실패:', response.resultMessage);
                                     alert('데이터를 불러올 수 없습니다: ' + response.resultMessage);
@@ -2041,8 +2090,9 @@
                         });
                     }
 
-                    function updateChartWithNewData(dailyData) {
+                    function updateChartWithNewData(dailyData, downsample) {
                         console.log('차트 업데이트 시작 - 데이터 길이:', dailyData ? dailyData.length : 0);
+                        var renderStart = window.performance ? performance.now() : Date.now();
 
                         // daily 데이터 업데이트
                         $('#daily').val(dailyData);
@@ -2066,7 +2116,8 @@
                             var parts = window.dailyArr[i].split('^');
                             if (parts.length === 2) {
                                 labels.push(parts[0]);
-                                data.push(parseFloat(parts[1]));
+                                // 값이 비어 있으면 장치 미수신 끊김 표시 (선으로 잇지 않음)
+                                data.push(parts[1] === '' ? null : parseFloat(parts[1]));
                             }
                         }
                         
@@ -2075,11 +2126,14 @@
                             console.log('기존 차트 데이터 업데이트 (재생성 없음)');
                             window.dailyChart.data.labels = labels;
                             window.dailyChart.data.datasets[0].data = data;
+                            // 서버가 끊김을 표시한 응답이면 null 구간을 잇지 않음
+                            window.dailyChart.data.datasets[0].spanGaps = !downsample;
                             window.dailyChart.update({
                                 duration: 300,  // 애니메이션 시간 단축 (기본 1000ms → 300ms)
                                 lazy: false
                             });
                             console.log('차트 데이터 업데이트 완료 (재생성 없음)');
+                            recordChartRender(renderStart, labels.length, dailyData ? dailyData.length : 0, downsample);
                         } else {
                             // 차트가 없으면 새로 생성
                             console.log('차트 초기 생성');
@@ -2088,6 +2142,25 @@
                         }
                     }
 
+                    // 차트 응답 크기 / 서버 축소 시간 / 브라우저 그리기 시간 기록 (window.chartRenderStats, 최근 20건)
+                    function recordChartRender(renderStart, points, payloadBytes, downsample) {
+                        var raf = window.requestAnimationFrame || function (callback) { setTimeout(callback, 0); };
+                        raf(function () {
+                            var renderMs = (window.performance ? performance.now() : Date.now()) - renderStart;
+                            var stat = {
+                                points: points,
+                                payloadBytes: payloadBytes,
+                                originalPoints: downsample ? downsample.originalPoints : points,
+                                originalBytes: downsample ? downsample.originalBytes : payloadBytes,
+                                gaps: downsample ? downsample.gaps : 0,
+                                serverComputeMs: downsample ? downsample.computeMs : 0,
+                                renderMs: Math.round(renderMs * 10) / 10
+                            };
+                            window.chartRenderStats = (window.chartRenderStats || []).concat([stat]).slice(-20);
+                            console.log('차트 그리기 측정:', stat);
+                        });
+                    }
+
                     function prevDate() {
                         var startDate = $('#startDate').val();
                         var endDate = $('#endDate').val();
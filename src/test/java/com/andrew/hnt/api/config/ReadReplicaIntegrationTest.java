@@ -0,0 +1,264 @@
+package com.andrew.hnt.api.config;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.mapper.MqttMapper;
+import com.andrew.hnt.api.support.DisposableSchema;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 읽기 복제본 라우팅 / 지연 대체 통합 확인 (주 DB + 복제본 두 인스턴스)
+ *
+ * 주 DB 에 일회용 스키마를 만들고 복제본에 복제된 같은 스키마로 운영과 같은 구성
+ * (LazyConnectionDataSourceProxy + ReplicaRoutingDataSource + ReadReplicaInterceptor + mapper/*.xml)
+ * 복제본에만 넣은 표시 행으로 어느 쪽에서 읽었는지 구분
+ * - 차트 조회: 복제본, 복제 중지 / 지연이 max-lag-seconds 초과면 주 DB
+ * - 권한 확인(getSubSensorList) / 등록 직후 목록(getDeviceList): 복제본이 정상이어도 주 DB (방금 등록한 센서 보임)
+ *
+ * 복제본 서버는 hnt.test.jdbc-url 서버를 복제 중이어야 함 (없으면 건너뜀, 복제 설정을 바꾸므로 전용 서버 사용)
+ * 실행: mvn test -Dtest=ReadReplicaIntegrationTest -Dhnt.test.jdbc-url=jdbc:mysql://127.0.0.1:3306/
+ *       -Dhnt.test.replica-jdbc-url=jdbc:mysql://127.0.0.1:3307/
+ */
+class ReadReplicaIntegrationTest {
+
+    private static final String REPLICA_URL_PROPERTY = "hnt.test.replica-jdbc-url";
+    private static final long MAX_LAG_SECONDS = 2;
+    private static final String CHART_UUID = "REPLICA00001";
+    private static final String LAG_UUID = "PRIMARY00001";
+    private static final String START = "2026-01-01 00:00:00";
+    private static final String END = "2026-01-01 23:59:59";
+
+    private static DisposableSchema schema;
+    private static String replicaServerUrl;
+    private static ReplicaRoutingDataSource routing;
+    private static DataMapper dataMapper;
+    private static AdminMapper adminMapper;
+    private static MqttMapper mqttMapper;
+    private static TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        replicaServerUrl = System.getProperty(REPLICA_URL_PROPERTY);
+        Assumptions.assumeTrue(replicaServerUrl != null && !replicaServerUrl.isEmpty(),
+            REPLICA_URL_PROPERTY + " 미지정 - 복제본 서버가 필요한 테스트 건너뜀");
+        schema = DisposableSchema.create(4, "sql/hnt_sensor_data.sql", "sql/hnt_sensor_info.sql");
+
+        HikariConfig replicaConfig = new HikariConfig();
+        replicaConfig.setJdbcUrl(schema.url(replicaServerUrl));
+        replicaConfig.setUsername(schema.getUser());
+        replicaConfig.setPassword(schema.getPassword());
+        replicaConfig.setMaximumPoolSize(4);
+        replicaConfig.setPoolName("DisposableSchema-Replica");
+        replicaConfig.setReadOnly(true);
+        replicaConfig.setInitializationFailTimeout(-1);
+        HikariDataSource replica = new HikariDataSource(replicaConfig);
+        waitReplicated(replica, "select count(*) from hnt_sensor_info");
+
+        routing = new ReplicaRoutingDataSource((HikariDataSource) schema.getDataSource(), replica,
+            MAX_LAG_SECONDS, 200, false, false);
+        routing.afterPropertiesSet();
+        routing.start();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        ReadReplicaInterceptor interceptor = new ReadReplicaInterceptor();
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        ReflectionTestUtils.setField(interceptor, "statements", ReadReplicaInterceptor.DEFAULT_STATEMENTS);
+        ReflectionTestUtils.setField(interceptor, "excludeStatements", "");
+        interceptor.init();
+
+        SqlSessionFactoryBean bean = new SqlSessionFactoryBean();
+        bean.setDataSource(dataSource);
+        bean.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath*:mapper/*.xml"));
+        bean.setPlugins(new Interceptor[] {interceptor});
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(bean.getObject());
+        dataMapper = sqlSession.getMapper(DataMapper.class);
+        adminMapper = sqlSession.getMapper(AdminMapper.class);
+        mqttMapper = sqlSession.getMapper(MqttMapper.class);
+
+        readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTransaction.setReadOnly(true);
+
+        // 복제본에만 있는 차트 표시 행 (복제와 겹치지 않는 id)
+        replicaExecute("insert into " + schema.getName() + ".hnt_sensor_data (id, user_id, sensor_id, uuid, sensor_type, "
+            + "sensor_value, inst_id, inst_dtm, mdf_id, mdf_dtm) values (900000001, 'replica', 'replica', '" + CHART_UUID
+            + "', 'ain', '1.0', 'replica', '2026-01-01 10:00:00', 'replica', now())");
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (routing != null) {
+            routing.close();
+        }
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @AfterEach
+    void restoreReplication() throws Exception {
+        replicaExecute("stop slave");
+        replicaExecute("change master to master_delay = 0");
+        replicaExecute("start slave");
+        waitHealthy(true);
+    }
+
+    @Test
+    void chartReadUsesReplicaAndFallsBackWhenReplicationStops() throws Exception {
+        waitHealthy(true);
+        long replicaRoutes = stat("replicaRoutes");
+        assertEquals(1, chartRows(CHART_UUID).size(), "복제본 표시 행");
+        assertTrue(stat("replicaRoutes") > replicaRoutes);
+
+        replicaExecute("stop slave sql_thread");
+        waitHealthy(false);
+        long fallbackRoutes = stat("fallbackRoutes");
+        assertEquals(0, chartRows(CHART_UUID).size(), "주 DB 에는 표시 행 없음");
+        assertTrue(stat("fallbackRoutes") > fallbackRoutes);
+    }
+
+    @Test
+    void chartReadFallsBackWhenLagExceedsLimit() throws Exception {
+        waitHealthy(true);
+        replicaExecute("stop slave");
+        replicaExecute("change master to master_delay = 30");
+        replicaExecute("start slave");
+        // 지연 적용 후 주 DB 쓰기 -> 복제본 Seconds_Behind_Master 증가
+        schema.execute("insert into hnt_sensor_data (user_id, sensor_id, uuid, sensor_type, sensor_value, inst_id, "
+            + "inst_dtm, mdf_id, mdf_dtm) values ('primary', 'primary', '" + LAG_UUID + "', 'ain', '2.0', 'primary', "
+            + "'2026-01-01 11:00:00', 'primary', now())");
+        waitHealthy(false);
+
+        assertTrue(String.valueOf(routing.getStats().get("unhealthyReason")).contains("지연"),
+            String.valueOf(routing.getStats()));
+        List<Map<String, Object>> rows = chartRows(LAG_UUID);
+        assertEquals(1, rows.size());
+        assertEquals("2.0", String.valueOf(rows.get(0).get("sensor_value")), "주 DB 에서 읽은 행");
+    }
+
+    @Test
+    void permissionAndPostRegistrationReadsStayOnPrimary() throws Exception {
+        waitHealthy(true);
+        // 복제 지연이 한도 안으로 보고된 상태에서 등록 -> 복제본에는 아직 없음
+        ((ScheduledExecutorService) ReflectionTestUtils.getField(routing, "lagChecker")).shutdownNow();
+        try {
+            replicaExecute("stop slave sql_thread");
+            registerAndRead();
+        } finally {
+            routing.start();
+        }
+    }
+
+    private static void registerAndRead() throws Exception {
+
+        Map<String, Object> sensor = new HashMap<>();
+        sensor.put("userId", "main01");
+        sensor.put("sensorId", "main01");
+        sensor.put("sensorUuid", "NEWSENSOR001");
+        sensor.put("sensorType", "ain");
+        sensor.put("instId", "test");
+        sensor.put("mdfId", "test");
+        mqttMapper.insertSensorInfo(sensor);
+        long replicaRoutes = stat("replicaRoutes");
+
+        Map<String, Object> param = new HashMap<>();
+        param.put("mainUserId", "main01");
+        param.put("subUserId", "sub01");
+        assertTrue(uuids(adminMapper.getSubSensorList(param)).contains("NEWSENSOR001"), "부계정 권한 확인");
+        assertTrue(uuids(dataMapper.getDeviceList("main01")).contains("NEWSENSOR001"), "등록 직후 목록");
+        List<Map<String, Object>> inTransaction = readOnlyTransaction.execute(status -> dataMapper.getDeviceList("main01"));
+        assertTrue(uuids(inTransaction).contains("NEWSENSOR001"), "읽기 전용 트랜잭션 안 목록");
+        assertEquals(replicaRoutes, stat("replicaRoutes"));
+
+        // 같은 상태에서 차트 조회는 복제본
+        assertEquals(1, readOnlyTransaction.execute(status -> chartRows(CHART_UUID)).size());
+        assertTrue(stat("replicaRoutes") > replicaRoutes);
+        assertFalse(countOnReplica("select count(*) from hnt_sensor_info where sensor_uuid = 'NEWSENSOR001'") > 0,
+            "복제본에는 아직 복제되지 않음");
+    }
+
+    private static List<Map<String, Object>> chartRows(String uuid) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("sensorUuid", uuid);
+        param.put("gu", "d");
+        param.put("startDateTime", START);
+        param.put("endDateTime", END);
+        return dataMapper.selectSensorData(param);
+    }
+
+    private static List<Object> uuids(List<Map<String, Object>> rows) {
+        List<Object> uuids = new java.util.ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            uuids.add(row.get("sensor_uuid"));
+        }
+        return uuids;
+    }
+
+    private static long stat(String name) {
+        return (Long) routing.getStats().get(name);
+    }
+
+    private static void waitHealthy(boolean healthy) throws InterruptedException {
+        for (int i = 0; i < 300 && !Boolean.valueOf(healthy).equals(routing.getStats().get("replicaHealthy")); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(healthy, routing.getStats().get("replicaHealthy"), String.valueOf(routing.getStats()));
+    }
+
+    private static void waitReplicated(HikariDataSource replica, String sql) throws InterruptedException {
+        SQLException last = null;
+        for (int i = 0; i < 100; i++) {
+            try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+                statement.executeQuery(sql).close();
+                return;
+            } catch (SQLException e) {
+                last = e;
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("복제본에 스키마가 복제되지 않음: " + last);
+    }
+
+    private static long countOnReplica(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(schema.url(replicaServerUrl), schema.getUser(), schema.getPassword());
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void replicaExecute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(schema.url(replicaServerUrl), schema.getUser(), schema.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
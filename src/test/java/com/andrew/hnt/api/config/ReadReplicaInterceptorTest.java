@@ -0,0 +1,105 @@
+package com.andrew.hnt.api.config;
+
+import com.andrew.hnt.api.config.ReplicaRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 읽기 복제본 라우팅 대상 확인
+ * - 기본 허용 목록: 차트/이력/내보내기 조회만, 권한 확인 / 등록 직후 목록 / 쓰기 경로 조회는 주 DB
+ * - 읽기 전용 트랜잭션도 허용 목록 문장만 복제본 (read-only-transactions=false 기본값)
+ */
+class ReadReplicaInterceptorTest {
+
+    private static final String MAPPER = "com.andrew.hnt.api.mapper.";
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void defaultAllowListCoversOnlyChartAndExportReads() {
+        ReadReplicaInterceptor interceptor = interceptor(ReadReplicaInterceptor.DEFAULT_STATEMENTS, "");
+
+        for (String statement : new String[] {"DataMapper.selectSensorData", "DataMapper.selectSensorDataForExcelFast",
+                "DataMapper.selectDailyData", "DataMapper.selectDailyDataStream", "DataMapper.selectWeeklyData",
+                "DataMapper.selectYearlyData", "DataMapper.selectReportMinuteSums", "DataMapper.selectSensorRawPage"}) {
+            assertTrue(interceptor.matches(MAPPER + statement), statement);
+        }
+        // 권한 확인 / 등록 직후 목록 / 쓰기 경로 조회
+        for (String statement : new String[] {"AdminMapper.getSubSensorList", "AdminMapper.getSensorList",
+                "AdminMapper.getFullSensorList", "DataMapper.getDeviceList", "DataMapper.selectMaxSensorDataId",
+                "DataMapper.selectSensorRollupState", "DataMapper.selectLatestSensorDataUuid", "MqttMapper.getSensorInfo"}) {
+            assertFalse(interceptor.matches(MAPPER + statement), statement);
+        }
+    }
+
+    @Test
+    void excludeOverridesInclude() {
+        ReadReplicaInterceptor interceptor = interceptor("DataMapper.select*", "DataMapper.selectTable*");
+
+        assertTrue(interceptor.matches(MAPPER + "DataMapper.selectDailyData"));
+        assertFalse(interceptor.matches(MAPPER + "DataMapper.selectTableSize"));
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplicaOnlyForMarkedStatements() {
+        ReplicaRoutingDataSource routing = routing(true);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(Route.PRIMARY, routing.determineCurrentLookupKey());
+        Boolean previous = ReplicaRoutingDataSource.beginRead();
+        try {
+            assertEquals(Route.REPLICA, routing.determineCurrentLookupKey());
+        } finally {
+            ReplicaRoutingDataSource.endRead(previous);
+        }
+    }
+
+    @Test
+    void writeTransactionAndUnhealthyReplicaUsePrimary() {
+        Boolean previous = ReplicaRoutingDataSource.beginRead();
+        try {
+            // 복제본 지연 / 확인 실패
+            ReplicaRoutingDataSource unhealthy = routing(false);
+            assertEquals(Route.PRIMARY, unhealthy.determineCurrentLookupKey());
+            assertEquals(1L, unhealthy.getStats().get("fallbackRoutes"));
+
+            // 쓰기 트랜잭션 안의 조회
+            ReplicaRoutingDataSource healthy = routing(true);
+            TransactionSynchronizationManager.initSynchronization();
+            assertEquals(Route.PRIMARY, healthy.determineCurrentLookupKey());
+        } finally {
+            ReplicaRoutingDataSource.endRead(previous);
+        }
+    }
+
+    private static ReadReplicaInterceptor interceptor(String statements, String excludeStatements) {
+        ReadReplicaInterceptor interceptor = new ReadReplicaInterceptor();
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        ReflectionTestUtils.setField(interceptor, "statements", statements);
+        ReflectionTestUtils.setField(interceptor, "excludeStatements", excludeStatements);
+        interceptor.init();
+        return interceptor;
+    }
+
+    private static ReplicaRoutingDataSource routing(boolean healthy) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(mock(HikariDataSource.class),
+            mock(HikariDataSource.class), 5, 5000, false, false);
+        ReflectionTestUtils.setField(routing, "healthy", healthy);
+        return routing;
+    }
+}
@@ -0,0 +1,660 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import com.andrew.hnt.api.model.NotificationRequest;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * 알람 상태 머신과 기존 경로 (MainController.sendAlarm + ScheduleWork.runSchedule, hnt_alarm 기반) 의 발송 결과 비교
+ *
+ * 같은 분 단위 측정값 시퀀스를 양쪽에 넣고 (발송 분, alarmType, 문구) 목록이 같은지 확인.
+ * 기존 경로는 hnt_alarm 을 메모리 목록으로 옮긴 모델 - 매분 스케줄러 스캔 후 그 분의 측정값 처리.
+ *
+ * 기존과 다르게 두는 부분 (비교 대상 제외)
+ * - 즉시 발송 문구의 센서명: 기존 sendNoti 는 UUID 를 넣었으나 스케줄러와 같이 sensor_name 사용
+ * - 즉시 발송 alarmType: 기존 sendNoti 는 비워 두었으나 hnt_alarm 에 기록하던 코드 (high, di, netError ...) 사용
+ * - 특정온도: 기존 스케줄러는 specific 행을 발송하지 않았음 (문구 없음)
+ * - 여러 알람이 동시에 대기 중일 때 스케줄러 deleteNoti 가 다른 종류 행까지 지우던 동작
+ *
+ * 재기동 비교: 중간에 상태 머신을 새로 만들어 후기록된 hnt_alarm 행 (메모리 목록) 으로 복구한 뒤 이어서 구동
+ * - 기존 경로는 hnt_alarm 기반이라 재기동 영향이 없으므로 발송 결과가 그대로 같아야 함
+ */
+class AlarmStateMachineEquivalenceTest {
+
+    private static final String USER_ID = "user1";
+    private static final String SENSOR_UUID = "0008DC755397";
+    private static final String SENSOR_NAME = "1번 냉장고";
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int[][] DELAY_REPEAT = {{0, 0}, {0, 3}, {2, 0}, {2, 3}};
+
+    @Test
+    void temperatureSequencesMatchLegacy() {
+        int runs = 0;
+        for (int[] high : DELAY_REPEAT) {
+            for (int[] low : DELAY_REPEAT) {
+                for (long seed = 1; seed <= 10; seed++) {
+                    Map<String, Object> config = config();
+                    enable(config, 1, "5", high[0], high[1]);
+                    enable(config, 2, "0", low[0], low[1]);
+
+                    List<Step> steps = new ArrayList<>();
+                    Random random = new Random(seed);
+                    double temp = 2.5;
+                    for (int minute = 0; minute < 240; minute++) {
+                        temp = Math.max(-3, Math.min(8, temp + (random.nextInt(7) - 3) * 0.5));
+                        steps.add(Step.ain(String.format(Locale.ROOT, "%.1f", temp)));
+                    }
+                    runs += compare("high" + describe(high) + " low" + describe(low) + " seed " + seed, config, steps);
+                }
+            }
+        }
+        assertFalse(runs == 0, "비교할 발송이 없음");
+    }
+
+    @Test
+    void digitalInputSequencesMatchLegacy() {
+        int runs = 0;
+        for (int[] di : DELAY_REPEAT) {
+            for (long seed = 1; seed <= 10; seed++) {
+                Map<String, Object> config = config();
+                enable(config, 4, "0", di[0], di[1]);
+                runs += compare("di" + describe(di) + " seed " + seed, config, digitalInputSteps(seed));
+            }
+        }
+        assertFalse(runs == 0, "비교할 발송이 없음");
+    }
+
+    @Test
+    void communicationErrorSequencesMatchLegacy() {
+        int runs = 0;
+        for (int[] net : DELAY_REPEAT) {
+            for (long seed = 1; seed <= 10; seed++) {
+                Map<String, Object> config = config();
+                enable(config, 5, "0", net[0], net[1]);
+                runs += compare("net" + describe(net) + " seed " + seed, config, communicationErrorSteps(seed));
+            }
+        }
+        assertFalse(runs == 0, "비교할 발송이 없음");
+    }
+
+    @Test
+    void urgentHoldSurvivesRestart() {
+        int runs = 0;
+        for (int no : new int[] {4, 5}) {
+            for (int[] delayRepeat : new int[][] {{0, 0}, {0, 3}}) {
+                for (long seed = 1; seed <= 10; seed++) {
+                    Map<String, Object> config = config();
+                    enable(config, no, "0", delayRepeat[0], delayRepeat[1]);
+                    List<Step> steps = no == 4 ? digitalInputSteps(seed) : communicationErrorSteps(seed);
+
+                    // 240분 < 12시간 - 재기동 후 재발생은 모두 즉시 알람 생략 구간
+                    List<String> legacy = new LegacyPipeline(config).run(steps);
+                    for (int restartMinute = 20; restartMinute < 240; restartMinute += 40) {
+                        assertEquals(legacy, runStateMachine(config, steps, restartMinute),
+                            "alarm" + no + describe(delayRepeat) + " seed " + seed + " restart " + restartMinute);
+                    }
+                    runs += legacy.size();
+                }
+            }
+        }
+        assertFalse(runs == 0, "비교할 발송이 없음");
+    }
+
+    @Test
+    void delayedHighAlarmUsesLegacyCodesAndText() {
+        Map<String, Object> config = config();
+        enable(config, 1, "5", 2, 3);
+
+        List<Step> steps = new ArrayList<>();
+        for (int minute = 0; minute < 9; minute++) {
+            steps.add(Step.ain(minute < 8 ? "6.5" : "4.0"));
+        }
+
+        List<String> expected = new ArrayList<>();
+        expected.add("2 high " + SENSOR_NAME + "장치 이상 발생 : 온도 높음(설정온도 : 5°C, 현재온도 : 6.5°C)");
+        expected.add("5 rehigh " + SENSOR_NAME + "장치 이상 발생 : 온도 높음(설정온도 : 5°C, 현재온도 : 6.5°C)");
+        expected.add("8 rehigh " + SENSOR_NAME + "장치 이상 발생 : 온도 높음(설정온도 : 5°C, 현재온도 : 6.5°C)");
+
+        assertEquals(expected, new LegacyPipeline(config).run(steps));
+        assertEquals(expected, runStateMachine(config, steps));
+    }
+
+    private static int compare(String label, Map<String, Object> config, List<Step> steps) {
+        List<String> legacy = new LegacyPipeline(config).run(steps);
+        List<String> current = runStateMachine(config, steps);
+        assertEquals(legacy, current, label);
+        return legacy.size();
+    }
+
+    // ---- 알람 상태 머신 구동 (수동 시계, 작업은 호출 스레드에서 바로 실행) ----
+
+    private static List<String> runStateMachine(Map<String, Object> config, List<Step> steps) {
+        return runStateMachine(config, steps, -1);
+    }
+
+    /**
+     * @param restartMinute 이 분의 측정값 전에 재기동 (후기록 반영 후 새 상태 머신으로 복구), -1 이면 재기동 없음
+     */
+    private static List<String> runStateMachine(Map<String, Object> config, List<Step> steps, int restartMinute) {
+        ManualTimers[] timers = {new ManualTimers()};
+        AdminMapper adminMapper = Mockito.mock(AdminMapper.class);
+        Mockito.when(adminMapper.selectSetting(anyMap())).thenReturn(config);
+        Map<String, Object> token = new HashMap<>();
+        token.put("token", "fcm-token");
+        Mockito.when(adminMapper.getUserToken(anyMap())).thenReturn(token);
+        fakeAlarmTable(adminMapper, () -> timers[0].now);
+
+        SensorAlarmConfigCache configCache = new SensorAlarmConfigCache();
+        ReflectionTestUtils.setField(configCache, "adminMapper", adminMapper);
+        ReflectionTestUtils.setField(configCache, "ttlSeconds", 3600L);
+
+        MetadataCache metadataCache = Mockito.mock(MetadataCache.class);
+        Map<String, Object> sensorInfo = new HashMap<>();
+        sensorInfo.put("sensor_name", SENSOR_NAME);
+        Mockito.when(metadataCache.getSensorInfo(anyString(), anyString())).thenReturn(sensorInfo);
+
+        List<String> sent = new ArrayList<>();
+        NotificationService notificationService = Mockito.mock(NotificationService.class);
+        Mockito.when(notificationService.sendDualNotificationAsync(any())).thenAnswer(invocation -> {
+            NotificationRequest request = invocation.getArgument(0);
+            sent.add(timers[0].now / MINUTE_MS + " " + request.getAlarmType() + " " + request.getMessage());
+            return CompletableFuture.completedFuture(true);
+        });
+
+        AlarmStateMachine machine = newMachine(configCache, notificationService, adminMapper, metadataCache, timers[0]);
+
+        int minute = -1;
+        for (Step step : steps) {
+            if (step.kind == Step.AIN || step.kind == Step.ERROR) {
+                minute++;
+                if (minute == restartMinute) {
+                    // 이 분의 만료 타이머까지 처리 후 후기록 반영, 새 상태 머신 / 설정 캐시로 hnt_alarm 복구
+                    timers[0].advanceTo(minute * MINUTE_MS + 1000);
+                    ReflectionTestUtils.invokeMethod(machine, "flushPersist");
+                    ManualTimers restarted = new ManualTimers();
+                    restarted.now = timers[0].now;
+                    timers[0] = restarted;
+                    configCache = new SensorAlarmConfigCache();
+                    ReflectionTestUtils.setField(configCache, "adminMapper", adminMapper);
+                    ReflectionTestUtils.setField(configCache, "ttlSeconds", 3600L);
+                    machine = newMachine(configCache, notificationService, adminMapper, metadataCache, restarted);
+                }
+            }
+            // 측정값은 매분 1초 시점 - 같은 시각 만료 타이머가 먼저 처리 (기존 스케줄러 스캔 후 측정값 처리와 같은 순서)
+            timers[0].advanceTo(minute * MINUTE_MS + 1000);
+            switch (step.kind) {
+                case Step.AIN:
+                    machine.onTemperature(USER_ID, SENSOR_UUID, null, step.value);
+                    break;
+                case Step.DIN:
+                    machine.onDigitalInput(USER_ID, SENSOR_UUID, null, Integer.parseInt(step.value));
+                    break;
+                case Step.ERROR:
+                    machine.onCommError(USER_ID, SENSOR_UUID, null);
+                    break;
+                default:
+                    machine.onCommRestored(USER_ID, SENSOR_UUID, null);
+                    break;
+            }
+        }
+        timers[0].advanceTo((minute + 1) * MINUTE_MS + 1000);
+        return sent;
+    }
+
+    private static AlarmStateMachine newMachine(SensorAlarmConfigCache configCache, NotificationService notificationService,
+                                                AdminMapper adminMapper, MetadataCache metadataCache, ManualTimers timers) {
+        AlarmStateMachine machine = new AlarmStateMachine();
+        ReflectionTestUtils.setField(machine, "enabled", true);
+        ReflectionTestUtils.setField(machine, "retrySeconds", 60L);
+        ReflectionTestUtils.setField(machine, "alarmConfigCache", configCache);
+        ReflectionTestUtils.setField(machine, "notificationService", notificationService);
+        ReflectionTestUtils.setField(machine, "adminMapper", adminMapper);
+        ReflectionTestUtils.setField(machine, "metadataCache", metadataCache);
+        machine.startWith(timers, new DirectExecutorService(), () -> timers.now);
+        return machine;
+    }
+
+    /**
+     * 후기록 대상 hnt_alarm (inst_id = 'alarm-sm') 메모리 목록 - 매퍼 조건과 동일하게 삭제/조회
+     */
+    private static void fakeAlarmTable(AdminMapper adminMapper, LongSupplier now) {
+        List<Map<String, Object>> table = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            Map<String, Object> param = invocation.getArgument(0);
+            List<Object> types = Arrays.asList(param.get("alarmType"), param.get("delayAlarmType"), param.get("reAlarmType"));
+            table.removeIf(row -> row.get("sensor_uuid").equals(param.get("sensorUuid"))
+                && types.contains(row.get("alarm_type")) && !"Y".equals(row.get("urgent_yn")));
+            return null;
+        }).when(adminMapper).deleteAlarmState(anyMap());
+        Mockito.doAnswer(invocation -> {
+            Map<String, Object> param = invocation.getArgument(0);
+            table.removeIf(row -> row.get("sensor_uuid").equals(param.get("sensorUuid"))
+                && row.get("alarm_type").equals(param.get("alarmType")) && "Y".equals(row.get("urgent_yn")));
+            return null;
+        }).when(adminMapper).deleteAlarmUrgent(anyMap());
+        Mockito.doAnswer(invocation -> {
+            Map<String, Object> param = invocation.getArgument(0);
+            Map<String, Object> row = new HashMap<>();
+            row.put("user_id", param.get("userId"));
+            row.put("sensor_uuid", param.get("sensorUuid"));
+            row.put("alarm_type", param.get("alarmType"));
+            row.put("alarm_time", param.get("alarmTime"));
+            row.put("cur_temp", param.get("curTemp"));
+            row.put("in_temp", param.get("inTemp"));
+            row.put("urgent_yn", param.get("urgentYn") != null ? param.get("urgentYn") : "N");
+            row.put("inst_dtm", param.get("instDtm") != null ? param.get("instDtm") : new Timestamp(now.getAsLong()));
+            table.add(row);
+            return null;
+        }).when(adminMapper).insertAlarmState(anyMap());
+        Mockito.when(adminMapper.selectAlarmStates()).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Map<String, Object> row : table) {
+                if (!"Y".equals(row.get("urgent_yn"))
+                        || ((Timestamp) row.get("inst_dtm")).getTime() >= now.getAsLong() - TimeUnit.HOURS.toMillis(12)) {
+                    rows.add(new HashMap<>(row));
+                }
+            }
+            return rows;
+        });
+    }
+
+    // ---- 기존 경로 모델 (sendAlarm + runSchedule, hnt_alarm 메모리 목록) ----
+
+    private static final class AlarmRow {
+        private final String type;
+        private final long alarmMinute;
+        private final boolean urgent;
+        private final long instMinute;
+
+        private AlarmRow(String type, long alarmMinute, boolean urgent, long instMinute) {
+            this.type = type;
+            this.alarmMinute = alarmMinute;
+            this.urgent = urgent;
+            this.instMinute = instMinute;
+        }
+    }
+
+    private static final class LegacyPipeline {
+        private final Map<String, Object> config;
+        private final List<AlarmRow> rows = new ArrayList<>();
+        private final List<String> sent = new ArrayList<>();
+        private String latestTemp = "null";
+        private long minute = -1;
+
+        private LegacyPipeline(Map<String, Object> config) {
+            this.config = config;
+        }
+
+        private List<String> run(List<Step> steps) {
+            for (Step step : steps) {
+                if (step.kind == Step.AIN || step.kind == Step.ERROR) {
+                    minute++;
+                    runSchedule();
+                }
+                switch (step.kind) {
+                    case Step.AIN:
+                        latestTemp = step.value;
+                        sendAlarmAin(step.value);
+                        break;
+                    case Step.DIN:
+                        sendAlarmDin(step.value);
+                        break;
+                    case Step.ERROR:
+                        sendAlarmError();
+                        break;
+                    default:
+                        sendAlarmErrorRelease();
+                        break;
+                }
+            }
+            minute++;
+            runSchedule();
+            return sent;
+        }
+
+        private String conf(String key) {
+            return String.valueOf(config.get(key));
+        }
+
+        // MainController.sendAlarm - name=ain (고온/저온)
+        private void sendAlarmAin(String value) {
+            temperatureAlarm(1, "high", "rehigh", Double.compare(Double.parseDouble(value), Double.parseDouble(conf("set_val1"))) > 0, value);
+            temperatureAlarm(2, "low", "relow", Double.compare(Double.parseDouble(value), Double.parseDouble(conf("set_val2"))) < 0, value);
+        }
+
+        private void temperatureAlarm(int no, String type, String reType, boolean condition, String value) {
+            if (!"Y".equals(conf("alarm_yn" + no))) {
+                return;
+            }
+            String delay = conf("delay_time" + no);
+            String reDelay = conf("re_delay_time" + no);
+            if (condition) {
+                if (!"0".equals(delay)) {
+                    if (find(type, true) == null) {
+                        rows.add(new AlarmRow(type, minute + Integer.parseInt(delay), true, minute));
+                    }
+                } else {
+                    if (!hasRecentUrgent(type)) {
+                        send(type, warnText(type, conf("set_val" + no), value));
+                        rows.add(new AlarmRow(type, minute, true, minute));
+                    }
+                }
+                if (!"0".equals(reDelay) && find(reType, false) == null) {
+                    rows.add(new AlarmRow(reType, minute + Integer.parseInt(delay) + Integer.parseInt(reDelay), false, minute));
+                }
+            } else {
+                rows.remove(find(type, false));
+                rows.removeIf(row -> row.type.equals(type) && row.urgent);
+                rows.remove(find(reType, false));
+            }
+        }
+
+        // MainController.sendAlarm - name=din
+        private void sendAlarmDin(String value) {
+            if (!"Y".equals(conf("alarm_yn4"))) {
+                return;
+            }
+            urgentAlarm(4, "di1", "di", "di2", "1".equals(value));
+        }
+
+        // MainController.sendAlarm - name=error / error_release
+        private void sendAlarmError() {
+            if (!"Y".equals(conf("alarm_yn5"))) {
+                return;
+            }
+            urgentAlarm(5, "netError1", "netError", "netError2", true);
+        }
+
+        private void sendAlarmErrorRelease() {
+            rows.remove(find("netError1", false));
+            rows.remove(find("netError2", false));
+        }
+
+        private void urgentAlarm(int no, String delayType, String type, String reType, boolean condition) {
+            String delay = conf("delay_time" + no);
+            String reDelay = conf("re_delay_time" + no);
+            if (condition) {
+                if (!"0".equals(delay)) {
+                    if (find(delayType, true) == null) {
+                        rows.add(new AlarmRow(delayType, minute + Integer.parseInt(delay), true, minute));
+                    }
+                } else if (!hasRecentUrgent(type)) {
+                    send(type, warnText(type, null, latestTemp));
+                    rows.add(new AlarmRow(type, minute, true, minute));
+                }
+                if (!"0".equals(reDelay) && find(reType, false) == null) {
+                    rows.add(new AlarmRow(reType, minute + Integer.parseInt(delay) + Integer.parseInt(reDelay), false, minute));
+                }
+            } else {
+                // 기존 din 해제는 di1/di2 만 삭제 (즉시 발송 이력 di 는 유지)
+                rows.remove(find(delayType, false));
+                rows.remove(find(reType, false));
+            }
+        }
+
+        // ScheduleWork.runSchedule - alarm_time 이 이번 분인 행 발송 후 재전송 행 등록
+        private void runSchedule() {
+            List<AlarmRow> due = new ArrayList<>();
+            for (AlarmRow row : rows) {
+                if (row.alarmMinute == minute) {
+                    due.add(row);
+                }
+            }
+            for (AlarmRow row : due) {
+                String type = row.type;
+                int no;
+                String reType;
+                boolean alarm;
+                String warnText;
+                if (type.contains("high")) {
+                    no = 1;
+                    reType = "rehigh";
+                    alarm = Double.compare(Double.parseDouble(latestTemp), Double.parseDouble(conf("set_val1"))) > 0;
+                    warnText = warnText("high", conf("set_val1"), latestTemp);
+                } else if (type.contains("low")) {
+                    no = 2;
+                    reType = "relow";
+                    alarm = Double.compare(Double.parseDouble(latestTemp), Double.parseDouble(conf("set_val2"))) < 0;
+                    warnText = warnText("low", conf("set_val2"), latestTemp);
+                } else if (type.contains("di")) {
+                    no = 4;
+                    reType = "di2";
+                    alarm = true;
+                    warnText = warnText("di", null, latestTemp);
+                } else {
+                    no = 5;
+                    reType = "netError2";
+                    alarm = true;
+                    warnText = warnText("netError", null, latestTemp);
+                }
+                if (!"Y".equals(conf("alarm_yn" + no)) || !alarm) {
+                    continue;
+                }
+
+                send(type, warnText);
+                rows.removeIf(r -> !r.urgent); // deleteNoti
+                rows.add(new AlarmRow(reType, minute + Integer.parseInt(conf("re_delay_time" + no)), false, minute));
+            }
+        }
+
+        private boolean hasRecentUrgent(String type) {
+            for (AlarmRow row : rows) {
+                if (row.type.equals(type) && row.urgent && row.instMinute >= minute - 12 * 60) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private AlarmRow find(String type, boolean urgentOnly) {
+            for (Iterator<AlarmRow> it = rows.iterator(); it.hasNext(); ) {
+                AlarmRow row = it.next();
+                if (row.type.equals(type) && (!urgentOnly || row.urgent)) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        private static String warnText(String type, String curTemp, String inTemp) {
+            switch (type) {
+                case "high":
+                    return "온도 높음(설정온도 : " + curTemp + "°C, 현재온도 : " + inTemp + "°C)";
+                case "low":
+                    return "온도 낮음(설정온도 : " + curTemp + "°C, 현재온도 : " + inTemp + "°C)";
+                case "di":
+                    return "DI알람(에러, 현재온도 : " + inTemp + ")";
+                default:
+                    return "통신에러";
+            }
+        }
+
+        private void send(String alarmType, String warnText) {
+            sent.add(minute + " " + alarmType + " " + SENSOR_NAME + "장치 이상 발생 : " + warnText);
+        }
+    }
+
+    // ---- 공통 ----
+
+    private static List<Step> digitalInputSteps(long seed) {
+        List<Step> steps = new ArrayList<>();
+        Random random = new Random(seed);
+        boolean on = false;
+        for (int minute = 0; minute < 240; minute++) {
+            if (random.nextInt(10) == 0) {
+                on = !on;
+            }
+            steps.add(Step.ain(String.format(Locale.ROOT, "%.1f", 3 + random.nextInt(20) / 10.0)));
+            steps.add(Step.din(on ? 1 : 0));
+        }
+        return steps;
+    }
+
+    private static List<Step> communicationErrorSteps(long seed) {
+        List<Step> steps = new ArrayList<>();
+        Random random = new Random(seed);
+        boolean offline = false;
+        for (int minute = 0; minute < 240; minute++) {
+            if (random.nextInt(12) == 0) {
+                if (offline) {
+                    steps.add(Step.errorRelease());
+                }
+                offline = !offline;
+            }
+            steps.add(offline ? Step.error() : Step.ain("4.0"));
+        }
+        return steps;
+    }
+
+    private static Map<String, Object> config() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("sensor_uuid", SENSOR_UUID);
+        config.put("user_id", USER_ID);
+        for (int i = 1; i <= 5; i++) {
+            config.put("alarm_yn" + i, "N");
+            config.put("set_val" + i, "0");
+            config.put("delay_time" + i, "0");
+            config.put("re_delay_time" + i, "0");
+        }
+        return config;
+    }
+
+    private static void enable(Map<String, Object> config, int no, String setValue, int delay, int reDelay) {
+        config.put("alarm_yn" + no, "Y");
+        config.put("set_val" + no, setValue);
+        config.put("delay_time" + no, String.valueOf(delay));
+        config.put("re_delay_time" + no, String.valueOf(reDelay));
+    }
+
+    private static String describe(int[] delayRepeat) {
+        return "(delay " + delayRepeat[0] + ", re " + delayRepeat[1] + ")";
+    }
+
+    /**
+     * 측정 단계 (ain / error 는 새 분 시작, din / error_release 는 같은 분)
+     */
+    private static final class Step {
+        private static final int AIN = 0;
+        private static final int DIN = 1;
+        private static final int ERROR = 2;
+        private static final int ERROR_RELEASE = 3;
+
+        private final int kind;
+        private final String value;
+
+        private Step(int kind, String value) {
+            this.kind = kind;
+            this.value = value;
+        }
+
+        private static Step ain(String value) {
+            return new Step(AIN, value);
+        }
+
+        private static Step din(int value) {
+            return new Step(DIN, String.valueOf(value));
+        }
+
+        private static Step error() {
+            return new Step(ERROR, null);
+        }
+
+        private static Step errorRelease() {
+            return new Step(ERROR_RELEASE, null);
+        }
+    }
+
+    /**
+     * 수동 시계 타이머 (마감 순서대로 실행)
+     */
+    private static final class ManualTimers implements AlarmStateMachine.TimerScheduler {
+        private final PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        private final List<Runnable> tasks = new ArrayList<>();
+        private final List<Boolean> cancelled = new ArrayList<>();
+        private long now;
+
+        @Override
+        public Runnable schedule(Runnable task, long delayMs) {
+            int id = tasks.size();
+            tasks.add(task);
+            cancelled.add(false);
+            queue.add(new long[]{now + delayMs, id});
+            return () -> cancelled.set(id, true);
+        }
+
+        private void advanceTo(long time) {
+            while (!queue.isEmpty() && queue.peek()[0] <= time) {
+                long[] next = queue.poll();
+                now = next[0];
+                int id = (int) next[1];
+                if (!cancelled.get(id)) {
+                    cancelled.set(id, true);
+                    tasks.get(id).run();
+                }
+            }
+            now = time;
+        }
+    }
+
+    private static final class DirectExecutorService extends AbstractExecutorService {
+        private volatile boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.UnifiedDataConsistencyService;
+import com.andrew.hnt.api.util.DataConsistencyManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * 오버플로 저널 재생 시 원래 수신 시각(inst_dtm) 유지 확인
+ */
+class MqttMessageProcessorOverflowTest {
+
+    @TempDir
+    Path overflowDir;
+
+    private MqttMessageProcessor processor;
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null) {
+            processor.cleanup();
+        }
+    }
+
+    @Test
+    void replayedJournalEntryKeepsReceivedTime() throws Exception {
+        long receivedAt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2026-01-02 03:04:05").getTime();
+        try (SensorOverflowJournal journal = new SensorOverflowJournal(overflowDir, "shard-0", 1024 * 1024, 8L * 1024 * 1024)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(sensor("uuid-1", String.valueOf(20 + i)), receivedAt + i * 1000L);
+            }
+        }
+
+        List<SensorVO> saved = Collections.synchronizedList(new ArrayList<>());
+        processor = newProcessor(saved);
+        processor.init();
+
+        waitFor(saved, 3);
+        assertEquals("2026-01-02 03:04:05", saved.get(0).getInstDtm());
+        assertEquals("2026-01-02 03:04:06", saved.get(1).getInstDtm());
+        assertEquals("2026-01-02 03:04:07", saved.get(2).getInstDtm());
+    }
+
+    @Test
+    void queuedMessageIsStampedByDatabase() throws Exception {
+        List<SensorVO> saved = Collections.synchronizedList(new ArrayList<>());
+        processor = newProcessor(saved);
+        processor.init();
+
+        processor.addMessage(sensor("uuid-1", "21.0"));
+
+        waitFor(saved, 1);
+        assertNull(saved.get(0).getInstDtm());
+    }
+
+    private MqttMessageProcessor newProcessor(List<SensorVO> saved) {
+        UnifiedDataConsistencyService consistencyService = Mockito.mock(UnifiedDataConsistencyService.class);
+        Mockito.when(consistencyService.processBatchWithConsistency(anyList(), any())).thenAnswer(invocation -> {
+            List<DataConsistencyManager.MessageWithId> batch = invocation.getArgument(0);
+            for (DataConsistencyManager.MessageWithId message : batch) {
+                saved.add(message.getSensorData());
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("resultCode", "200");
+            result.put("processedCount", batch.size());
+            return result;
+        });
+
+        MqttMessageProcessor created = new MqttMessageProcessor();
+        ReflectionTestUtils.setField(created, "unifiedDataConsistencyService", consistencyService);
+        ReflectionTestUtils.setField(created, "alarmStateMachine", Mockito.mock(AlarmStateMachine.class));
+        ReflectionTestUtils.setField(created, "shardCount", 1);
+        ReflectionTestUtils.setField(created, "batchSize", 10);
+        ReflectionTestUtils.setField(created, "batchTimeoutMs", 100L);
+        ReflectionTestUtils.setField(created, "queueCapacity", 10);
+        ReflectionTestUtils.setField(created, "overflowEnabled", true);
+        ReflectionTestUtils.setField(created, "overflowDirectory", overflowDir.toString());
+        ReflectionTestUtils.setField(created, "overflowSegmentSizeMb", 1);
+        ReflectionTestUtils.setField(created, "overflowMaxSizeMb", 8L);
+        return created;
+    }
+
+    private static SensorVO sensor(String uuid, String value) {
+        SensorVO sensor = new SensorVO();
+        sensor.setUserId("user1");
+        sensor.setSensorId("user1");
+        sensor.setUuid(uuid);
+        sensor.setSensorType("ain");
+        sensor.setSensorValue(value);
+        sensor.setInstId("user1");
+        sensor.setMdfId("user1");
+        return sensor;
+    }
+
+    private static void waitFor(List<SensorVO> saved, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (saved.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, saved.size());
+    }
+}
@@ -0,0 +1,174 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mapper.MqttMapper;
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.TransactionManagementService;
+import com.andrew.hnt.api.service.UnifiedDataConsistencyService;
+import com.andrew.hnt.api.util.DataConsistencyManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * WAL 사용 시 배치 저장 실패 처리 확인
+ * - 저장 실패(saveSensorDataBatch 예외) 배치는 체크포인트를 넘기지 않고 같은 순서로 재시도
+ * - 재시도 중 종료되면 재기동 시 WAL 재생으로 저장 (유실 없음)
+ */
+class MqttMessageProcessorWalTest {
+
+    @TempDir
+    Path walDir;
+
+    // 가짜 DB: 저장된 행 / 중복 제거 기준 (hnt_ingest_checkpoint)
+    private final List<String> saved = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong dbLsn = new AtomicLong(0);
+    private final AtomicInteger failuresLeft = new AtomicInteger(0);
+    private final AtomicInteger saveCalls = new AtomicInteger(0);
+
+    private MqttMessageProcessor processor;
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null) {
+            processor.cleanup();
+        }
+    }
+
+    @Test
+    void failedBatchIsRetriedBeforeCheckpoint() throws Exception {
+        failuresLeft.set(2);
+        processor = newProcessor();
+        processor.init();
+
+        for (int i = 0; i < 3; i++) {
+            processor.addMessage(sensor(String.valueOf(20 + i)));
+        }
+
+        waitFor(3);
+        assertEquals(3, saveCalls.get(), "실패 2회 후 같은 배치 저장");
+        assertEquals(3L, dbLsn.get());
+        assertEquals(Arrays.asList("20", "21", "22"), saved);
+    }
+
+    @Test
+    void batchFailingUntilShutdownIsReplayedOnRestart() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        processor = newProcessor();
+        processor.init();
+        for (int i = 0; i < 3; i++) {
+            processor.addMessage(sensor(String.valueOf(20 + i)));
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (saveCalls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        processor.cleanup();
+        processor = null;
+        assertTrue(saved.isEmpty());
+        assertEquals(0L, dbLsn.get());
+
+        // DB 복구 후 재기동
+        failuresLeft.set(0);
+        processor = newProcessor();
+        processor.init();
+
+        waitFor(3);
+        assertEquals(Arrays.asList("20", "21", "22"), saved);
+        assertEquals(3L, dbLsn.get());
+    }
+
+    private MqttMessageProcessor newProcessor() {
+        TransactionManagementService transactionManagementService = Mockito.mock(TransactionManagementService.class);
+        Mockito.when(transactionManagementService.saveSensorDataBatch(anyList(), any())).thenAnswer(invocation -> {
+            saveCalls.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Communications link failure");
+            }
+            List<SensorVO> batch = invocation.getArgument(0);
+            Map<String, Object> checkpoint = invocation.getArgument(1);
+            for (SensorVO sensor : batch) {
+                saved.add(sensor.getSensorValue());
+            }
+            if (checkpoint != null) {
+                dbLsn.accumulateAndGet((Long) checkpoint.get("lastLsn"), Math::max);
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("resultCode", "200");
+            return result;
+        });
+
+        // 일관성 서비스와 같은 처리: 저장 예외는 500 응답
+        UnifiedDataConsistencyService consistencyService = Mockito.mock(UnifiedDataConsistencyService.class);
+        Mockito.when(consistencyService.processBatchWithConsistency(anyList(), any())).thenAnswer(invocation -> {
+            List<DataConsistencyManager.MessageWithId> batch = invocation.getArgument(0);
+            List<SensorVO> sensors = new ArrayList<>();
+            for (DataConsistencyManager.MessageWithId message : batch) {
+                sensors.add(message.getSensorData());
+            }
+            Map<String, Object> result = new HashMap<>();
+            try {
+                result.putAll(transactionManagementService.saveSensorDataBatch(sensors, invocation.getArgument(1)));
+            } catch (RuntimeException e) {
+                result.put("resultCode", "500");
+                result.put("resultMessage", e.getMessage());
+            }
+            return result;
+        });
+
+        MqttMapper mqttMapper = Mockito.mock(MqttMapper.class);
+        Mockito.when(mqttMapper.selectIngestCheckpoint(any())).thenAnswer(invocation -> dbLsn.get() > 0 ? dbLsn.get() : null);
+
+        MqttMessageProcessor created = new MqttMessageProcessor();
+        ReflectionTestUtils.setField(created, "unifiedDataConsistencyService", consistencyService);
+        ReflectionTestUtils.setField(created, "transactionManagementService", transactionManagementService);
+        ReflectionTestUtils.setField(created, "mqttMapper", mqttMapper);
+        ReflectionTestUtils.setField(created, "alarmStateMachine", Mockito.mock(AlarmStateMachine.class));
+        ReflectionTestUtils.setField(created, "shardCount", 1);
+        ReflectionTestUtils.setField(created, "batchSize", 10);
+        ReflectionTestUtils.setField(created, "batchTimeoutMs", 100L);
+        ReflectionTestUtils.setField(created, "queueCapacity", 10);
+        ReflectionTestUtils.setField(created, "walEnabled", true);
+        ReflectionTestUtils.setField(created, "walDirectory", walDir.toString());
+        ReflectionTestUtils.setField(created, "walNodeId", "test");
+        ReflectionTestUtils.setField(created, "walFsyncIntervalMs", 50L);
+        ReflectionTestUtils.setField(created, "walSegmentSizeMb", 1);
+        return created;
+    }
+
+    private static SensorVO sensor(String value) {
+        SensorVO sensor = new SensorVO();
+        sensor.setUserId("user1");
+        sensor.setSensorId("user1");
+        sensor.setUuid("uuid-1");
+        sensor.setSensorType("ain");
+        sensor.setSensorValue(value);
+        sensor.setInstId("user1");
+        sensor.setMdfId("user1");
+        return sensor;
+    }
+
+    private void waitFor(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (saved.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, saved.size());
+    }
+}
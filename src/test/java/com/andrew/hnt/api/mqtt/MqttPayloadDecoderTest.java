@@ -0,0 +1,78 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MqttPayloadDecoder 결과가 기존 handleLiveMessage 파싱 결과(split + ObjectMapper Map)와 같은지 확인
+ */
+class MqttPayloadDecoderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String TOPIC = "HBEE/thepine/TC/0008DC755397/DEV";
+
+    private static final String[] LIVE_PAYLOADS = {
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"23.4\"}",
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"-18.5\"}",
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"Error\"}",
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"value\":23.4}",
+            "{\"actcode\":\"live\",\"name\":\"din\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"0\"}",
+            "{\"actcode\":\"live\",\"name\":\"output\",\"type\":\"2\",\"ch\":\"1\",\"value\":\"1\"}",
+            "{\"name\":\"ain\",\"value\":\"5.0\",\"actcode\":\"live\"}",
+    };
+
+    @Test
+    void liveReadingsMatchLegacyParse() throws Exception {
+        for (String payload : LIVE_PAYLOADS) {
+            MqttPayloadDecoder.SensorReading reading = decode(TOPIC, payload);
+
+            String[] topicParts = TOPIC.split("/");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> jsonData = MAPPER.readValue(payload, Map.class);
+
+            assertEquals(MqttPayloadDecoder.Kind.LIVE, reading.getKind(), payload);
+            assertEquals(topicParts[1], reading.getUserId(), payload);
+            assertEquals(topicParts[3], reading.getUuid(), payload);
+            assertEquals(String.valueOf(jsonData.get("actcode")), reading.getActcode(), payload);
+            assertEquals(String.valueOf(jsonData.get("name")), reading.getName(), payload);
+            assertEquals(String.valueOf(jsonData.get("value")), reading.getValueText(), payload);
+            assertEquals("Error".equals(String.valueOf(jsonData.get("value"))), reading.isError(), payload);
+            if (reading.isNumeric()) {
+                assertEquals(Double.parseDouble(String.valueOf(jsonData.get("value"))), reading.getValue(), payload);
+            }
+        }
+    }
+
+    @Test
+    void classifiesRegAndSetres() {
+        MqttPayloadDecoder.SensorReading reg = decode(TOPIC,
+                "{\"actcode\":\"reg\",\"userId\":\"thepine\",\"model\":\"TC\",\"mac\":\"0008DC755397\"}");
+        assertEquals(MqttPayloadDecoder.Kind.REG, reg.getKind());
+        assertEquals("thepine", reg.getRegUserId());
+        assertEquals("TC", reg.getRegModel());
+        assertEquals("0008DC755397", reg.getRegMac());
+
+        MqttPayloadDecoder.SensorReading setres = decode(TOPIC, "{\"actcode\":\"setres\",\"p01\":\"-18.0\"}");
+        assertEquals(MqttPayloadDecoder.Kind.SETRES, setres.getKind());
+    }
+
+    @Test
+    void nonJsonPayloadIsInvalid() {
+        MqttPayloadDecoder.SensorReading reading = decode(TOPIC, "temperature=21.5");
+        assertEquals(MqttPayloadDecoder.Kind.INVALID, reading.getKind());
+        assertFalse(reading.isNumeric());
+        assertTrue(reading.hasSensorTopic());
+    }
+
+    private static MqttPayloadDecoder.SensorReading decode(String topic, String payload) {
+        return MqttPayloadDecoder.decode(topic, payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
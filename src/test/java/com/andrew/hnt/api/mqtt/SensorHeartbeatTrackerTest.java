@@ -0,0 +1,180 @@
+package com.andrew.hnt.api.mqtt;
+
+import com.andrew.hnt.api.mapper.AdminMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SensorHeartbeatTracker 장치 삭제(evict) 반영 확인
+ * - 삭제 후 남은 항목 조회가 그대로인지 (개방 주소법 삭제 시 탐사 연속성)
+ * - 삭제 전에 걸어둔 만료 타이머가 통신이상 알람을 내지 않는지
+ * - 예열 시 기동 시각이 아닌 DB 마지막 수신 시각 기준으로 추적하는지
+ */
+class SensorHeartbeatTrackerTest {
+
+    private SensorHeartbeatTracker tracker;
+    private AlarmStateMachine alarmStateMachine;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new SensorHeartbeatTracker();
+        alarmStateMachine = mock(AlarmStateMachine.class);
+        ReflectionTestUtils.setField(tracker, "alarmStateMachine", alarmStateMachine);
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "offlineThresholdSeconds", 3600L);
+        ReflectionTestUtils.setField(tracker, "tickMs", 1000L);
+        ReflectionTestUtils.setField(tracker, "wheelSize", 64);
+        ReflectionTestUtils.setField(tracker, "warmUp", false);
+        tracker.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.shutdown();
+    }
+
+    @Test
+    void evictKeepsOtherEntriesReachable() {
+        Random random = new Random(7);
+        Set<String> live = new HashSet<>();
+        // 테이블 확장이 여러 번 일어나도록 초기 용량보다 많이 등록
+        for (int i = 0; i < 3000; i++) {
+            String uuid = String.format("0008DC%06X", i);
+            tracker.touch("user", uuid, true);
+            live.add(uuid);
+        }
+        for (int round = 0; round < 2000; round++) {
+            String uuid = String.format("0008DC%06X", random.nextInt(3000));
+            if (live.remove(uuid)) {
+                tracker.evict(uuid);
+            } else {
+                tracker.touch("user", uuid, true);
+                live.add(uuid);
+            }
+        }
+
+        for (int i = 0; i < 3000; i++) {
+            String uuid = String.format("0008DC%06X", i);
+            assertEquals(live.contains(uuid), tracker.isOnline(uuid), uuid);
+        }
+        assertEquals(live.size(), tracker.getStats().get("tracked"));
+    }
+
+    @Test
+    void staleTimerAfterEvictDoesNotRaiseCommError() {
+        String uuid = "0008DC755397";
+        tracker.touch("user", uuid, true);
+        long timerId = timerIdOf(uuid);
+
+        tracker.evict(uuid);
+        assertFalse(tracker.isOnline(uuid));
+        assertEquals(0L, tracker.getLastSeen(uuid));
+        verify(alarmStateMachine).evict(uuid);
+
+        // 삭제 전 타이머 만료 - 무시
+        ReflectionTestUtils.invokeMethod(tracker, "onExpire", uuid, timerId);
+        verify(alarmStateMachine, never()).onCommError(any(), anyString(), any());
+
+        // 다시 수신되면 새 타이머로 추적, 이전 타이머는 계속 무시
+        tracker.touch("user", uuid, true);
+        assertTrue(tracker.isOnline(uuid));
+        ReflectionTestUtils.invokeMethod(tracker, "onExpire", uuid, timerId);
+        verify(alarmStateMachine, never()).onCommError(any(), anyString(), any());
+        assertEquals(0, tracker.getStats().get("offline"));
+    }
+
+    @Test
+    void evictClearsOfflineCount() {
+        String uuid = "0008DC755398";
+        tracker.touch("user", uuid, true);
+        // 기준 시간 경과 상태로 만들어 통신이상 전환
+        Map<String, Object> before = new HashMap<>(tracker.getStats());
+        long[] lastSeen = (long[]) ReflectionTestUtils.getField(tracker, "lastSeen");
+        String[] keys = (String[]) ReflectionTestUtils.getField(tracker, "keys");
+        for (int i = 0; i < keys.length; i++) {
+            if (uuid.equals(keys[i])) {
+                lastSeen[i] = 1L;
+            }
+        }
+        ReflectionTestUtils.invokeMethod(tracker, "onExpire", uuid, timerIdOf(uuid));
+        verify(alarmStateMachine).onCommError("user", uuid, null);
+        assertEquals(1, tracker.getStats().get("offline"));
+
+        tracker.evict(uuid);
+        assertEquals(0, tracker.getStats().get("offline"));
+        assertEquals(((Integer) before.get("tracked")) - 1, tracker.getStats().get("tracked"));
+    }
+
+    @Test
+    void warmUpSeedsFromLastReadingTime() {
+        tracker.shutdown();
+        AdminMapper adminMapper = mock(AdminMapper.class);
+        long now = System.currentTimeMillis();
+        when(adminMapper.selectHeartbeatSensors()).thenReturn(Arrays.asList(
+            sensorRow("0008DC000001", new Timestamp(now - 60_000L)),
+            sensorRow("0008DC000002", LocalDateTime.now().minusHours(2)),
+            sensorRow("0008DC000003", null)));
+        tracker = new SensorHeartbeatTracker();
+        ReflectionTestUtils.setField(tracker, "adminMapper", adminMapper);
+        ReflectionTestUtils.setField(tracker, "alarmStateMachine", alarmStateMachine);
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "offlineThresholdSeconds", 300L);
+        ReflectionTestUtils.setField(tracker, "tickMs", 100L);
+        ReflectionTestUtils.setField(tracker, "wheelSize", 64);
+        ReflectionTestUtils.setField(tracker, "warmUp", true);
+        tracker.start();
+
+        // 1분 전 수신 장치만 정상, 재기동 전부터 무수신 / 수신 기록 없는 장치는 바로 통신이상
+        assertTrue(tracker.isOnline("0008DC000001"));
+        assertEquals(now - 60_000L, tracker.getLastSeen("0008DC000001"));
+        assertFalse(tracker.isOnline("0008DC000002"));
+        assertFalse(tracker.isOnline("0008DC000003"));
+        verify(alarmStateMachine, timeout(3000)).onCommError("user", "0008DC000002", "sensor");
+        verify(alarmStateMachine, timeout(3000)).onCommError("user", "0008DC000003", "sensor");
+        verify(alarmStateMachine, never()).onCommError(any(), eq("0008DC000001"), any());
+        assertEquals(2, tracker.getStats().get("offline"));
+    }
+
+    private static Map<String, Object> sensorRow(String uuid, Object lastDtm) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("sensor_uuid", uuid);
+        row.put("user_id", "user");
+        row.put("sensor_name", "sensor");
+        row.put("last_dtm", lastDtm);
+        return row;
+    }
+
+    private long timerIdOf(String uuid) {
+        String[] keys = (String[]) ReflectionTestUtils.getField(tracker, "keys");
+        long[] timerIds = (long[]) ReflectionTestUtils.getField(tracker, "timerIds");
+        for (int i = 0; i < keys.length; i++) {
+            if (uuid.equals(keys[i])) {
+                return timerIds[i];
+            }
+        }
+        throw new AssertionError("not tracked: " + uuid);
+    }
+}
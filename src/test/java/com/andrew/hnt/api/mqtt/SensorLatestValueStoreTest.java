@@ -0,0 +1,53 @@
+package com.andrew.hnt.api.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorLatestValueStoreTest {
+
+    private static final String TOPIC = "HBEE/user1/TC/uuid-1/DEV";
+
+    @Test
+    void missingAinValueIsNotStored() {
+        SensorLatestValueStore store = new SensorLatestValueStore();
+
+        assertNull(store.update("uuid-1", "user1", "TC", "ain", "1", null, 1L));
+        assertNull(store.update("uuid-1", "user1", "TC", "ain", "1", "null", 2L));
+        assertNull(store.update("uuid-1", "user1", "TC", "ain", "1", "", 3L));
+        assertNull(store.get("uuid-1"));
+    }
+
+    @Test
+    void missingAinValueKeepsPreviousReading() {
+        SensorLatestValueStore store = new SensorLatestValueStore();
+        store.update("uuid-1", "user1", "TC", "ain", "1", "21.5", 1L);
+
+        store.update("uuid-1", "user1", "TC", "ain", "1", "null", 2L);
+        store.update(decode("{\"actcode\":\"live\",\"name\":\"ain\",\"value\":null}"), 3L);
+
+        SensorLatestValueStore.Snapshot snapshot = store.get("uuid-1");
+        assertEquals(21.5d, snapshot.getAinValue());
+        assertEquals(1L, snapshot.getAinTime());
+        assertFalse(snapshot.isAinError());
+    }
+
+    @Test
+    void errorValueIsStoredAsError() {
+        SensorLatestValueStore store = new SensorLatestValueStore();
+        store.update(decode("{\"actcode\":\"live\",\"name\":\"ain\",\"value\":\"Error\"}"), 1L);
+
+        SensorLatestValueStore.Snapshot snapshot = store.get("uuid-1");
+        assertTrue(snapshot.isAinError());
+        assertEquals("Error", snapshot.getAinText());
+    }
+
+    private static MqttPayloadDecoder.SensorReading decode(String payload) {
+        return MqttPayloadDecoder.decode(TOPIC, payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
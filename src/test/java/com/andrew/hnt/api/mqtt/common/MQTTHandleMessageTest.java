@@ -0,0 +1,106 @@
+package com.andrew.hnt.api.mqtt.common;
+
+import com.andrew.hnt.api.mqtt.MqttPayloadDecoder;
+import com.andrew.hnt.api.service.MqttService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 여러 소비자 스레드가 handleMessage를 동시에 호출할 때 메시지 상태가 섞이지 않는지 확인
+ */
+class MQTTHandleMessageTest {
+
+    private static final int THREADS = 4;
+    private static final int MESSAGES_PER_THREAD = 5000;
+
+    @Test
+    void concurrentConsumersKeepTopicAndMessagePaired() throws Exception {
+        AtomicInteger mismatched = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        MQTT mqtt = new MQTT("tcp://127.0.0.1:1883", "test-client", "user", "password");
+        MqttService service = Mockito.mock(MqttService.class);
+        // 전달된 디코딩 결과의 토픽과 페이로드가 같은 메시지인지 기록
+        Mockito.doAnswer(invocation -> {
+            MqttPayloadDecoder.SensorReading reading = invocation.getArgument(0);
+            received.incrementAndGet();
+            if (!reading.getPayloadText().contains(reading.getUuid())) {
+                mismatched.incrementAndGet();
+            }
+            return null;
+        }).when(service).receiveReading(Mockito.any());
+        mqtt.setMqttService(service);
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> readerFailure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                MQTT.ReceivedMessage last = mqtt.getLastMessage();
+                if (last != null && !last.getMessage().contains(uuidOf(last.getTopic()))) {
+                    readerFailure.compareAndSet(null, last.getTopic() + " / " + last.getMessage());
+                }
+            }
+        });
+        reader.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> consumers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String uuid = "uuid-" + t;
+            Thread consumer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                    String payload = "{\"actcode\":\"setres\",\"id\":\"" + uuid + "\",\"seq\":\"" + i + "\"}";
+                    mqtt.handleMessage("HBEE/user1/TC/" + uuid + "/DEV", payload.getBytes(StandardCharsets.UTF_8));
+                }
+            });
+            consumers.add(consumer);
+            consumer.start();
+        }
+        start.countDown();
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(readerFailure.get());
+        assertEquals(0, mismatched.get());
+        assertEquals(THREADS * MESSAGES_PER_THREAD, received.get());
+        assertTrue(mqtt.getMsg().contains(uuidOf(mqtt.getRcvTopic())));
+    }
+
+    @Test
+    void newMessageFlagFollowsLastMessage() {
+        MQTT mqtt = new MQTT("tcp://127.0.0.1:1883", "test-client", "user", "password");
+        assertFalse(mqtt.hasNewMessage());
+
+        mqtt.setMsg("{\"actcode\":\"setres\"}", "HBEE/user1/TC/uuid-1/DEV");
+        assertTrue(mqtt.hasNewMessage());
+        assertEquals("HBEE/user1/TC/uuid-1/DEV", mqtt.getRcvTopic());
+
+        mqtt.clearNewMessageFlag();
+        assertFalse(mqtt.hasNewMessage());
+        assertEquals("{\"actcode\":\"setres\"}", mqtt.getMsg());
+    }
+
+    private static String uuidOf(String topic) {
+        return topic.split("/")[3];
+    }
+}
@@ -0,0 +1,151 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.ChartResultCache.Unit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ChartResultCache 닫힌 구간 캐시 결과가 원래 조회와 같은지, 원본/무효화 구분 확인
+ * 분 단위 값을 시각으로 계산하는 조회 함수로 원래 조회와 캐시 응답을 비교
+ */
+class ChartResultCacheTest {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String UUID = "0008DC755397";
+
+    private ChartResultCache cache;
+    private LocalDateTime day;
+    private List<String> loadedRanges;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChartResultCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.setField(cache, "offHeap", false);
+        ReflectionTestUtils.setField(cache, "closedLagSeconds", 120L);
+        day = LocalDate.now().minusDays(3).atStartOfDay();
+        loadedRanges = new ArrayList<>();
+    }
+
+    @Test
+    void cachedResultMatchesOriginalQuery() {
+        Map<String, Object> param = param(day, day.plusDays(1).minusSeconds(1));
+        Function<Map<String, Object>, List<Map<String, Object>>> loader = minutes(0);
+
+        List<Map<String, Object>> expected = rows(param, 0);
+        assertEquals(expected, cache.select("selectSensorData", param, Unit.MINUTE, 0, loader));
+        int firstLoads = loadedRanges.size();
+        // 두 번째 조회는 모든 블록이 닫혀 있어 조회 없이 같은 결과
+        assertEquals(expected, cache.select("selectSensorData", param, Unit.MINUTE, 0, loader));
+        assertEquals(firstLoads, loadedRanges.size());
+        assertEquals(24L, cache.getStats().get("blockHits"));
+    }
+
+    @Test
+    void sourcesDoNotShareBlocks() {
+        // 같은 장치 / 단위 / 기간이라도 읽는 저장소가 다르면 따로 보관
+        Map<String, Object> param = param(day, day.plusHours(2).minusSeconds(1));
+        List<Map<String, Object>> rollup = cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(0));
+        List<Map<String, Object>> history = cache.select("history.selectDailyData", param, Unit.MINUTE, 0, minutes(100));
+
+        assertEquals(rows(param, 0), rollup);
+        assertEquals(rows(param, 100), history);
+    }
+
+    @Test
+    void lateValueInvalidatesClosedBlock() {
+        Map<String, Object> param = param(day, day.plusHours(2).minusSeconds(1));
+        cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(0));
+        cache.select("history.selectDailyData", param, Unit.MINUTE, 0, minutes(0));
+
+        // 첫 시간 블록에 늦게 들어온 값 → 두 원본 모두 해당 블록만 다시 조회
+        SensorVO late = new SensorVO();
+        late.setUuid(UUID);
+        late.setInstDtm(day.plusMinutes(30).format(DATE_TIME));
+        cache.onWrite(Collections.singletonList(late));
+        assertEquals(2L, cache.getStats().get("invalidations"));
+
+        loadedRanges.clear();
+        List<Map<String, Object>> expected = new ArrayList<>(rows(param, 5).subList(0, 60));
+        expected.addAll(rows(param, 0).subList(60, 120));
+        assertEquals(expected, cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(5)));
+        assertEquals(1, loadedRanges.size());
+        assertEquals(day.format(DATE_TIME) + "~" + day.plusHours(1).minusSeconds(1).format(DATE_TIME), loadedRanges.get(0));
+    }
+
+    @Test
+    void invalidateDropsDeviceBlocks() {
+        Map<String, Object> param = param(day, day.plusHours(2).minusSeconds(1));
+        cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(0));
+        cache.invalidate(UUID);
+
+        assertEquals(0, cache.getStats().get("entries"));
+
+        assertEquals(rows(param, 7), cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(7)));
+        assertEquals(2, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void disabledCacheCallsOriginalQuery() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        Map<String, Object> param = param(day, day.plusHours(2).minusSeconds(1));
+        cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(0));
+        cache.select("selectSensorData", param, Unit.MINUTE, 0, minutes(0));
+
+        assertEquals(2, loadedRanges.size());
+        assertEquals(2L, cache.getStats().get("bypassed"));
+    }
+
+    @Test
+    void limitMatchesOriginalQuery() {
+        Map<String, Object> param = param(day, day.plusDays(1).minusSeconds(1));
+        assertEquals(rows(param, 0).subList(0, 100), cache.select("selectSensorData", param, Unit.MINUTE, 100, minutes(0)));
+    }
+
+    private static Map<String, Object> param(LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("sensorUuid", UUID);
+        param.put("startDateTime", from.format(DATE_TIME));
+        param.put("endDateTime", to.format(DATE_TIME));
+        return param;
+    }
+
+    /** 조회 기간을 기록하는 원래 조회 */
+    private Function<Map<String, Object>, List<Map<String, Object>>> minutes(int offset) {
+        return p -> {
+            loadedRanges.add(p.get("startDateTime") + "~" + p.get("endDateTime"));
+            return rows(p, offset);
+        };
+    }
+
+    /** 원래 selectDailyData 형식 (getDate / inst_dtm / sensor_value) - 값은 분 번호 + offset */
+    private static List<Map<String, Object>> rows(Map<String, Object> p, int offset) {
+        LocalDateTime from = LocalDateTime.parse(String.valueOf(p.get("startDateTime")), DATE_TIME);
+        LocalDateTime to = LocalDateTime.parse(String.valueOf(p.get("endDateTime")), DATE_TIME);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (LocalDateTime minute = from; !minute.isAfter(to); minute = minute.plusMinutes(1)) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("getDate", minute.toLocalDate().toString());
+            row.put("inst_dtm", minute.format(MINUTE));
+            row.put("sensor_value", (double) (minute.getHour() * 60 + minute.getMinute() + offset));
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,154 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.tsdb.ColumnarSeriesEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 컬럼형 이력 엔진 합성 데이터 벤치마크 (로컬 임시 디렉터리, DB 사용 안 함)
+ * 1분 주기 센서(랜덤 워크, 0.1 단위 값, 가끔 수신 지연 / 순서 뒤바뀜) N개 x D일을 적재한 뒤
+ * 포인트당 디스크 크기, 적재 속도, 일간(1분)/주간(일)/연간(달력 월) 조회 시간을 측정
+ *
+ * 실행: mvn test -Dtest=ColumnarSensorHistoryPerformanceTest
+ *       (-Dhnt.bench.sensors=100 -Dhnt.bench.days=7 -Dhnt.bench.queries=50)
+ */
+class ColumnarSensorHistoryPerformanceTest {
+
+    private static final long MINUTE = 60L;
+    private static final long DAY = 86400L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void ingestAndQuery() throws IOException {
+        int sensors = Integer.getInteger("hnt.bench.sensors", 100);
+        int days = Integer.getInteger("hnt.bench.days", 7);
+        int queries = Integer.getInteger("hnt.bench.queries", 50);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sensors", sensors);
+        result.put("days", days);
+        Random random = new Random(42);
+        // 2025-01-01 00:00:00 (로컬 일시 초)
+        long origin = 1735689600L;
+
+        ColumnarSeriesEngine engine = new ColumnarSeriesEngine(directory.toFile(), DAY);
+        double[] values = new double[sensors];
+        for (int s = 0; s < sensors; s++) {
+            values[s] = 20 + random.nextInt(100) / 10.0;
+        }
+
+        // 다음 포인트 뒤에 도착할 포인트 (센서별, 없으면 Long.MIN_VALUE)
+        long[] lateTs = new long[sensors];
+        double[] lateValues = new double[sensors];
+        Arrays.fill(lateTs, Long.MIN_VALUE);
+
+        long started = System.nanoTime();
+        for (int day = 0; day < days; day++) {
+            for (int s = 0; s < sensors; s++) {
+                String uuid = uuid(s);
+                long dayStart = origin + day * DAY;
+                double value = values[s];
+                for (int minute = 0; minute < 1440; minute++) {
+                    if (random.nextInt(8) == 0) {
+                        value = Math.round((value + (random.nextInt(3) - 1) / 10.0) * 10) / 10.0;
+                    }
+                    // 수신 지연 (약 2%, 1~20초)
+                    long jitter = random.nextInt(50) == 0 ? 1 + random.nextInt(20) : 0;
+                    long timestamp = dayStart + minute * MINUTE + jitter;
+                    // 순서 뒤바뀜 (약 0.5%, 다음 포인트 뒤에 도착 - 자정이면 확정 블록에 삽입)
+                    if (lateTs[s] == Long.MIN_VALUE && random.nextInt(200) == 0) {
+                        lateTs[s] = timestamp;
+                        lateValues[s] = value;
+                        continue;
+                    }
+                    engine.append(uuid, timestamp, value);
+                    if (lateTs[s] != Long.MIN_VALUE) {
+                        engine.append(uuid, lateTs[s], lateValues[s]);
+                        lateTs[s] = Long.MIN_VALUE;
+                    }
+                }
+                values[s] = value;
+            }
+        }
+        for (int s = 0; s < sensors; s++) {
+            if (lateTs[s] != Long.MIN_VALUE) {
+                engine.append(uuid(s), lateTs[s], lateValues[s]);
+            }
+        }
+        engine.flush();
+        long ingestNanos = System.nanoTime() - started;
+        long points = engine.getAppendedPoints();
+        long diskBytes = directorySize(directory.toFile());
+
+        assertEquals((long) sensors * days * 1440, points);
+        assertEquals(0L, engine.getDroppedPoints());
+
+        result.put("points", points);
+        result.put("reorderedPoints", engine.getReorderedPoints());
+        result.put("ingestMs", ingestNanos / 1_000_000);
+        result.put("ingestPointsPerSec", ingestNanos == 0 ? 0 : points * 1_000_000_000L / ingestNanos);
+        result.put("diskBytes", diskBytes);
+        result.put("bytesPerPoint", points == 0 ? 0 : Math.round(diskBytes * 100.0 / points) / 100.0);
+
+        long end = origin + days * DAY - 1;
+        result.put("dailyQueryAvgMs", timeQueries(random, sensors, queries,
+            uuid -> engine.aggregate(uuid, end - DAY + 1, end, ts -> Math.floorDiv(ts, MINUTE))));
+        result.put("weeklyQueryAvgMs", timeQueries(random, sensors, queries,
+            uuid -> engine.aggregate(uuid, Math.max(origin, end - 7 * DAY + 1), end, ts -> Math.floorDiv(ts, DAY))));
+        result.put("yearlyQueryAvgMs", timeQueries(random, sensors, queries,
+            uuid -> engine.aggregate(uuid, origin, end, ColumnarSensorHistoryPerformanceTest::monthOf)));
+        result.put("rawScanAvgMs", timeQueries(random, sensors, queries,
+            uuid -> engine.scan(uuid, end - DAY + 1, end, (ts, value) -> true)));
+        result.put("summarizedBlocks", engine.getSummarizedBlocks());
+        result.put("scannedBlocks", engine.getScannedBlocks());
+
+        System.out.println("[columnar benchmark] " + result);
+    }
+
+    /** 달력 월 구간 키 (년 * 12 + 월, ColumnarSensorHistoryStore.selectYearlyData 와 같은 방식) */
+    private static long monthOf(long timestamp) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(timestamp, 0, ZoneOffset.UTC);
+        return time.getYear() * 12L + time.getMonthValue() - 1;
+    }
+
+    private interface Query {
+        void run(String uuid) throws IOException;
+    }
+
+    private static double timeQueries(Random random, int sensors, int queries, Query query) throws IOException {
+        long started = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            query.run(uuid(random.nextInt(sensors)));
+        }
+        return queries == 0 ? 0 : Math.round((System.nanoTime() - started) / 1000.0 / queries) / 1000.0;
+    }
+
+    private static String uuid(int index) {
+        return String.format("BENCH%07d", index);
+    }
+
+    private static long directorySize(File directory) {
+        long size = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,145 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.service.ExportJobService.ExportJob;
+import com.andrew.hnt.api.service.ExportJobService.Format;
+import com.andrew.hnt.api.service.ExportJobService.Status;
+import com.andrew.hnt.api.service.ReportAggregationService.ReportSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ExportJobService 작업 합류 / 캐시 키 (센서 이름 포함) / 기동 시 이전 파일 정리 확인
+ */
+class ExportJobServiceTest {
+
+    private static final String UUID = "0008DC755397";
+    private static final LocalDate START = LocalDate.of(2026, 9, 1);
+    private static final LocalDate END = LocalDate.of(2026, 9, 30);
+
+    @TempDir
+    File directory;
+
+    private ExportJobService service;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        release = new CountDownLatch(1);
+        ReportAggregationService reportAggregationService = mock(ReportAggregationService.class);
+        when(reportAggregationService.aggregate(anyList(), any(), any())).thenAnswer(i -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            ReportSeries series = new ReportSeries(UUID, START, END);
+            series.add(0, 21.5, 1);
+            return Collections.singletonList(series);
+        });
+        // 엑셀 대신 시트 제목(센서 이름)만 기록
+        doAnswer(i -> {
+            OutputStream out = i.getArgument(3);
+            out.write(String.valueOf(((java.util.List<?>) i.getArgument(1)).get(0)).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reportAggregationService).writeExcel(anyList(), anyList(), anyInt(), any());
+
+        service = new ExportJobService();
+        ReflectionTestUtils.setField(service, "reportAggregationService", reportAggregationService);
+        ReflectionTestUtils.setField(service, "workers", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "maxPerUser", 2);
+        ReflectionTestUtils.setField(service, "retentionMinutes", 60L);
+        ReflectionTestUtils.setField(service, "cacheDir", directory.getAbsolutePath());
+        ReflectionTestUtils.setField(service, "cacheMaxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "openTtlMinutes", 5L);
+        ReflectionTestUtils.setField(service, "excelWindowRows", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void initDeletesOnlyJobFiles() throws IOException {
+        File leftover = write("0123456789abcdef0123456789abcdef.xlsx");
+        File part = write("fedcba9876543210fedcba9876543210.part");
+        File other = write("backup.xlsx");
+        File shortName = write("abc.csv");
+
+        service.init();
+
+        assertFalse(leftover.exists());
+        assertFalse(part.exists());
+        assertTrue(other.exists());
+        assertTrue(shortName.exists());
+    }
+
+    @Test
+    void sameSensorNameJoinsAndDifferentNameRunsSeparately() throws Exception {
+        service.init();
+        ExportJob first = service.submit("user1", UUID, "냉장고1", START, END, Format.XLSX);
+        ExportJob joined = service.submit("user2", UUID, "냉장고1", START, END, Format.XLSX);
+        ExportJob renamed = service.submit("user3", UUID, "창고 냉장고", START, END, Format.XLSX);
+
+        assertSame(first, joined);
+        assertNotSame(first, renamed);
+        assertTrue(first.isAllowed("user2"));
+        assertFalse(first.isAllowed("user3"));
+
+        release.countDown();
+        await(first);
+        await(renamed);
+        assertEquals("냉장고1", content(service.openFile(first)));
+        assertEquals("창고 냉장고", content(service.openFile(renamed)));
+
+        // 캐시도 이름별 (다른 이름 요청이 다른 제목의 파일을 받지 않음)
+        ExportJob cached = service.submit("user4", UUID, "창고 냉장고", START, END, Format.XLSX);
+        assertEquals(Status.DONE, cached.getStatus());
+        assertEquals("창고 냉장고", content(service.openFile(cached)));
+        ExportJob other = service.submit("user4", UUID, "냉장고2", START, END, Format.XLSX);
+        assertTrue(other.getStatus() == Status.QUEUED || other.getStatus() == Status.RUNNING);
+        await(other);
+        assertEquals("냉장고2", content(service.openFile(other)));
+    }
+
+    private File write(String name) throws IOException {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), new byte[] {1});
+        return file;
+    }
+
+    private static void await(ExportJob job) throws InterruptedException {
+        for (int i = 0; i < 500 && job.getStatus() != Status.DONE && job.getStatus() != Status.FAILED; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Status.DONE, job.getStatus(), String.valueOf(job.toMap()));
+    }
+
+    private static String content(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,160 @@
+package com.andrew.hnt.api.service;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * FcmDispatcher 재시도 / Retry-After / 토큰 재발급 / 병합 확인
+ * 로컬 HTTP 스텁(FCM v1 messages:send 경로)에 정해 둔 응답 순서대로 응답
+ */
+class FcmDispatcherTest {
+
+    private static final String PATH = "/v1/projects/test/messages:send";
+
+    private HttpServer server;
+    // 응답 순서 (상태 코드, Retry-After), 비면 200
+    private final ConcurrentLinkedQueue<String[]> responses = new ConcurrentLinkedQueue<>();
+    private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+    private FCMService fcmService;
+    private FcmDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, exchange -> {
+            requestTimes.add(System.currentTimeMillis());
+            String[] response = responses.poll();
+            int code = response == null ? 200 : Integer.parseInt(response[0]);
+            if (response != null && response.length > 1) {
+                exchange.getResponseHeaders().add("Retry-After", response[1]);
+            }
+            byte[] body = (code == 200 ? "{\"name\":\"projects/test/messages/1\"}" : "{\"error\":{\"code\":" + code + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+
+        fcmService = mock(FCMService.class);
+        when(fcmService.buildSendRequest(anyString(), anyString(), anyString(), any())).thenAnswer(i -> new Request.Builder()
+            .url(url)
+            .addHeader("Authorization", "Bearer test")
+            .post(RequestBody.create("{\"message\":{\"token\":\"" + i.getArgument(0) + "\"}}", MediaType.parse("application/json")))
+            .build());
+
+        dispatcher = new FcmDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "fcmService", fcmService);
+        ReflectionTestUtils.setField(dispatcher, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "timeoutSeconds", 5L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 4);
+        ReflectionTestUtils.setField(dispatcher, "backoffBaseMs", 20L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 5000L);
+        ReflectionTestUtils.setField(dispatcher, "coalesceWindowMs", 30000L);
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void retriesAfterRetryAfterSeconds() throws Exception {
+        responses.add(new String[] {"429", "1"});
+
+        assertTrue(send(null));
+        assertEquals(2, requestTimes.size());
+        assertTrue(requestTimes.get(1) - requestTimes.get(0) >= 900, "Retry-After 1초 대기");
+        assertEquals(1L, dispatcher.getStats().get("retried"));
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoffUntilMaxAttempts() throws Exception {
+        responses.add(new String[] {"503"});
+        responses.add(new String[] {"500"});
+        assertTrue(send(null));
+        assertEquals(3, requestTimes.size());
+
+        requestTimes.clear();
+        for (int i = 0; i < 4; i++) {
+            responses.add(new String[] {"503"});
+        }
+        assertFalse(send(null));
+        assertEquals(4, requestTimes.size(), "max-attempts 회 시도 후 실패");
+        assertEquals(1L, dispatcher.getStats().get("failed"));
+    }
+
+    @Test
+    void unauthorizedRefreshesTokenOnce() throws Exception {
+        responses.add(new String[] {"401"});
+        assertTrue(send(null));
+        verify(fcmService, times(1)).invalidateAccessToken();
+
+        // 재발급 후에도 401 이면 재시도하지 않음
+        responses.add(new String[] {"401"});
+        responses.add(new String[] {"401"});
+        assertFalse(send(null));
+        verify(fcmService, times(2)).invalidateAccessToken();
+    }
+
+    @Test
+    void clientErrorIsNotRetried() throws Exception {
+        responses.add(new String[] {"404"});
+
+        assertFalse(send(null));
+        assertEquals(1, requestTimes.size());
+        assertEquals(404L, dispatcher.getStats().get("lastStatus"));
+    }
+
+    @Test
+    void identicalAlarmsInWindowAreCoalesced() throws Exception {
+        String key = "token-1|0008DC755397|HIGH";
+        CompletableFuture<Boolean> first = dispatcher.send("token-1", "알림", "고온", null, key);
+        CompletableFuture<Boolean> second = dispatcher.send("token-1", "알림", "고온", null, key);
+
+        assertSame(first, second);
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(dispatcher.send("token-1", "알림", "저온", null, "token-1|0008DC755397|LOW").get(10, TimeUnit.SECONDS));
+        assertEquals(2, requestTimes.size());
+        Map<String, Object> stats = dispatcher.getStats();
+        assertEquals(1L, stats.get("coalesced"));
+        assertEquals(0, stats.get("queueDepth"));
+    }
+
+    private boolean send(String coalesceKey) throws Exception {
+        return dispatcher.send("token-1", "알림", "내용", null, coalesceKey).get(15, TimeUnit.SECONDS);
+    }
+}
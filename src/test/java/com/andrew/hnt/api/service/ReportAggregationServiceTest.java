@@ -0,0 +1,109 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.service.ReportAggregationService.ReportSeries;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ReportSeries 단일 조회 집계가 기존 쿼리(round(avg(sensor_value), 1))와 같은 값인지 확인
+ * 원본 소수 1자리 값으로 1분 구간 (합계, 건수) 을 만들고 순서를 섞어 누적한 뒤 BigDecimal HALF_UP 평균과 비교
+ */
+class ReportAggregationServiceTest {
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    @Test
+    void minuteAndDaySeriesMatchSqlRounding() {
+        LocalDate start = LocalDate.of(2026, 1, 30);
+        int days = 45; // 월 경계 포함
+        Random random = new Random(11);
+
+        // 1분 구간별 원본 값 (음수 포함, 일부 구간 비움, 하루는 통째로 비움)
+        Map<Integer, List<BigDecimal>> raw = new HashMap<>();
+        for (int slot = 0; slot < days * MINUTES_PER_DAY; slot++) {
+            if (slot / MINUTES_PER_DAY == 10 || random.nextInt(10) == 0) {
+                continue;
+            }
+            List<BigDecimal> values = new ArrayList<>();
+            for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                values.add(BigDecimal.valueOf(random.nextInt(900) - 300, 1));
+            }
+            raw.put(slot, values);
+        }
+
+        ReportSeries series = new ReportSeries("0008DC755397", start, start.plusDays(days - 1));
+        List<Integer> slots = new ArrayList<>(raw.keySet());
+        Collections.shuffle(slots, random);
+        for (int slot : slots) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (BigDecimal value : raw.get(slot)) {
+                sum = sum.add(value);
+            }
+            series.add(slot, sum.doubleValue(), raw.get(slot).size());
+        }
+
+        assertEquals(days, series.getDays());
+        assertEquals(raw.size(), series.getRows());
+        double[] values = new double[MINUTES_PER_DAY];
+        List<Map<String, Object>> dailyRows = series.getDailyRows();
+        int dailyIndex = 0;
+        for (int day = 0; day < days; day++) {
+            BigDecimal daySum = BigDecimal.ZERO;
+            int dayCount = 0;
+            boolean present = series.minuteValues(day, values);
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                List<BigDecimal> slotValues = raw.get(day * MINUTES_PER_DAY + minute);
+                if (slotValues == null) {
+                    if (present) {
+                        assertTrue(Double.isNaN(values[minute]));
+                    }
+                    continue;
+                }
+                BigDecimal sum = BigDecimal.ZERO;
+                for (BigDecimal value : slotValues) {
+                    sum = sum.add(value);
+                }
+                assertEquals(average(sum, slotValues.size()), values[minute], 1e-9, series.dayLabel(day) + " " + minute);
+                daySum = daySum.add(sum);
+                dayCount += slotValues.size();
+            }
+            if (dayCount == 0) {
+                assertFalse(present);
+                continue;
+            }
+            Map<String, Object> row = dailyRows.get(dailyIndex++);
+            assertEquals(start.plusDays(day).toString(), row.get("inst_dtm"));
+            assertEquals(average(daySum, dayCount), (Double) row.get("sensor_value"), 1e-9);
+        }
+        assertEquals(dailyRows.size(), dailyIndex);
+    }
+
+    @Test
+    void slotOutsideRangeIsIgnored() {
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        ReportSeries series = new ReportSeries("0008DC755397", start, start);
+        series.add(-1, 10, 1);
+        series.add(MINUTES_PER_DAY, 10, 1);
+        series.add(5, 10, 0);
+
+        assertEquals(0, series.getRows());
+        assertTrue(series.getDailyRows().isEmpty());
+    }
+
+    private static double average(BigDecimal sum, int count) {
+        return sum.divide(BigDecimal.valueOf(count), 10, RoundingMode.HALF_UP).setScale(1, RoundingMode.HALF_UP).doubleValue();
+    }
+}
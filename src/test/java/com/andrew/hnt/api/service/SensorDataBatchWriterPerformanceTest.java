@@ -0,0 +1,127 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.SensorDataBatchWriter.Strategy;
+import com.andrew.hnt.api.support.DisposableSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * hnt_sensor_data 기록 전략별 처리량 측정 (로컬 DB 일회용 스키마, 운영 DB 사용 안 함)
+ * 전략마다 같은 합성 데이터를 batchSize 단위 트랜잭션으로 기록하고 건수 확인 후 비움
+ *
+ * 실행: mvn test -Dtest=SensorDataBatchWriterPerformanceTest -Dhnt.test.jdbc-url=jdbc:mysql://127.0.0.1:3306/
+ *       (-Dhnt.bench.rows=20000 -Dhnt.bench.batch-size=200, LOAD_DATA 는 서버 local_infile=ON 필요)
+ */
+class SensorDataBatchWriterPerformanceTest {
+
+    private static final String TABLE = "hnt_sensor_data_bench";
+
+    private static DisposableSchema schema;
+    private static SensorDataBatchWriter writer;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        schema = DisposableSchema.create(2, "sql/hnt_sensor_data.sql");
+        schema.execute("create table " + TABLE + " like hnt_sensor_data");
+        writer = new SensorDataBatchWriter();
+        ReflectionTestUtils.setField(writer, "dataSource", schema.getDataSource());
+        ReflectionTestUtils.setField(writer, "multiRowChunk", 100);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void compareStrategies() throws SQLException {
+        int rows = Integer.getInteger("hnt.bench.rows", 20000);
+        int batchSize = Integer.getInteger("hnt.bench.batch-size", 200);
+        List<SensorVO> data = syntheticRows(rows);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        try (Connection connection = schema.getDataSource().getConnection()) {
+            for (Strategy each : new Strategy[] {Strategy.SINGLE, Strategy.JDBC_BATCH, Strategy.MULTI_ROW, Strategy.LOAD_DATA}) {
+                long started = System.nanoTime();
+                try {
+                    connection.setAutoCommit(false);
+                    for (int start = 0; start < data.size(); start += batchSize) {
+                        writer.writer(each).write(connection, TABLE, data.subList(start, Math.min(start + batchSize, data.size())));
+                        connection.commit();
+                    }
+                    long elapsed = System.nanoTime() - started;
+                    assertEquals(rows, count(connection), each.name());
+                    result.put(each.name(), rows * 1_000_000_000L / Math.max(1, elapsed) + " rows/s (" + elapsed / 1_000_000 + " ms)");
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (each != Strategy.LOAD_DATA) {
+                        throw e;
+                    }
+                    // 서버 local_infile=OFF 이면 운영에서도 JDBC_BATCH 로 전환되므로 기록만
+                    result.put(each.name(), "unavailable: " + e.getMessage());
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("truncate table " + TABLE);
+                }
+            }
+            result.put("server", serverVersion(connection));
+        }
+        System.out.println("[writer benchmark] rows=" + rows + ", batchSize=" + batchSize + " " + result);
+    }
+
+    private static long count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from " + TABLE)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String serverVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select version()")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static List<SensorVO> syntheticRows(int rows) {
+        Random random = new Random(42);
+        List<SensorVO> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String uuid = String.format("BENCH%07d", i % 1000);
+            String value = String.valueOf(Math.round((20 + random.nextGaussian() * 3) * 10) / 10.0);
+            SensorVO sensorVO = new SensorVO();
+            sensorVO.setUserId("bench");
+            sensorVO.setSensorId("bench");
+            sensorVO.setUuid(uuid);
+            sensorVO.setSensorType("ain");
+            sensorVO.setSensorValue(value);
+            sensorVO.setTopic("HBEE/bench/TC/" + uuid + "/DEV");
+            sensorVO.setRawData("{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"" + value + "\"}");
+            sensorVO.setInstId("bench");
+            sensorVO.setMdfId("bench");
+            data.add(sensorVO);
+        }
+        return data;
+    }
+}
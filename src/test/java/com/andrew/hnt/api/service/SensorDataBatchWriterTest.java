@@ -0,0 +1,153 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.service.SensorDataBatchWriter.Strategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * SensorDataBatchWriter 저장 형식 변경 시 재시도 / LOAD DATA 실패 처리 확인
+ * - 다른 인스턴스가 압축 형식 전환을 마쳐 기존 형식 문장이 실패하면 형식을 다시 확인하고 새 형식으로 한 번 재시도
+ * - LOCAL INFILE 거부면 JDBC_BATCH 로 전환, 그 밖의 오류는 전달 (트랜잭션 롤백 후 배치 재시도)
+ */
+class SensorDataBatchWriterTest {
+
+    private SensorDataBatchWriter writer;
+    private SensorDataSchemaService schemaService;
+    private List<String> statements;
+    private boolean tableCompact;
+    private Statement loadStatement;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statements = new ArrayList<>();
+        tableCompact = false;
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(i -> {
+            String sql = i.getArgument(0);
+            statements.add(sql);
+            if (sql.contains("user_id") == tableCompact) {
+                throw new SQLSyntaxErrorException("Unknown column in 'field list'", "42S22", 1054);
+            }
+            return mock(PreparedStatement.class);
+        });
+        // LOAD DATA 문 (MySQL 드라이버 Statement 로 unwrap)
+        loadStatement = mock(Statement.class, withSettings().extraInterfaces(Class.forName("com.mysql.cj.jdbc.JdbcStatement")));
+        when(loadStatement.unwrap(any())).thenReturn(loadStatement);
+        when(connection.createStatement()).thenReturn(loadStatement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        schemaService = mock(SensorDataSchemaService.class);
+        // 실제 서비스처럼 테이블 형식을 다시 읽어 바뀌었으면 true
+        when(schemaService.refreshLayout()).thenAnswer(i -> {
+            boolean changed = SensorDataSchemaService.isCompact() != tableCompact;
+            ReflectionTestUtils.setField(SensorDataSchemaService.class, "compact", tableCompact);
+            return changed;
+        });
+
+        writer = new SensorDataBatchWriter();
+        ReflectionTestUtils.setField(writer, "dataSource", dataSource);
+        ReflectionTestUtils.setField(writer, "sensorDataSchemaService", schemaService);
+        ReflectionTestUtils.setField(writer, "strategy", Strategy.JDBC_BATCH);
+        ReflectionTestUtils.setField(SensorDataSchemaService.class, "compact", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(SensorDataSchemaService.class, "compact", false);
+    }
+
+    @Test
+    void retriesWithNewLayoutAfterSwapByOtherInstance() {
+        tableCompact = true;
+
+        assertEquals(1, writer.write(Collections.singletonList(row())));
+
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).contains("user_id"));
+        assertTrue(statements.get(1).contains("ch_id"));
+        assertTrue(SensorDataSchemaService.isCompact());
+        assertEquals(1L, writer.getStats().get("layoutRetries"));
+    }
+
+    @Test
+    void failureWithUnchangedLayoutIsNotRetried() {
+        // 형식이 그대로인 실패는 재시도 없이 전달
+        when(schemaService.refreshLayout()).thenReturn(false);
+        tableCompact = true;
+
+        assertThrows(RuntimeException.class, () -> writer.write(Collections.singletonList(row())));
+        assertEquals(1, statements.size());
+        assertEquals(0L, writer.getStats().get("layoutRetries"));
+    }
+
+    @Test
+    void localInfileRefusalFallsBackToJdbcBatch() throws SQLException {
+        enableLoadData();
+        when(loadStatement.executeUpdate(anyString()))
+            .thenThrow(new SQLSyntaxErrorException("Loading local data is disabled; this must be enabled on both the client and server sides", "42000", 3948));
+
+        assertEquals(1, writer.write(Collections.singletonList(row())));
+
+        assertEquals(1, statements.size(), "JDBC_BATCH 로 기록");
+        assertEquals(false, writer.getStats().get("loadDataEnabled"));
+        // 이후 배치는 LOAD DATA 시도 없음
+        assertEquals(1, writer.write(Collections.singletonList(row())));
+        verify(loadStatement, times(1)).executeUpdate(anyString());
+    }
+
+    @Test
+    void transientLoadDataFailureIsRethrown() throws SQLException {
+        enableLoadData();
+        when(loadStatement.executeUpdate(anyString()))
+            .thenThrow(new SQLTransientException("Lock wait timeout exceeded; try restarting transaction", "40001", 1205));
+        when(schemaService.refreshLayout()).thenReturn(false);
+
+        assertThrows(DataAccessException.class, () -> writer.write(Collections.singletonList(row())));
+
+        assertTrue(statements.isEmpty(), "다른 전략으로 일부만 기록하지 않음");
+        assertEquals(true, writer.getStats().get("loadDataEnabled"));
+    }
+
+    private void enableLoadData() {
+        ReflectionTestUtils.setField(writer, "strategy", Strategy.LOAD_DATA);
+        ReflectionTestUtils.setField(writer, "loadDataEnabled", true);
+    }
+
+    private static SensorVO row() {
+        SensorVO sensorVO = new SensorVO();
+        sensorVO.setUserId("user");
+        sensorVO.setSensorId("user");
+        sensorVO.setUuid("0008DC755397");
+        sensorVO.setSensorType("ain");
+        sensorVO.setSensorValue("21.5");
+        sensorVO.setTopic("HBEE/user/TC/0008DC755397/DEV");
+        return sensorVO;
+    }
+}
@@ -0,0 +1,169 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SensorDataPartitionService 온라인 전환 중 장치 데이터 삭제 반영 확인
+ * 테이블을 메모리(id → uuid)로 흉내 낸 DataMapper 로 전환 전 과정을 실행
+ */
+class SensorDataPartitionServiceTest {
+
+    private static final String TABLE = "hnt_sensor_data";
+
+    private SensorDataPartitionService service;
+    private Map<String, TreeMap<Long, String>> tables;
+    private Runnable afterFirstCopy;
+    private Runnable beforeCatchUp;
+    private int copies;
+
+    @BeforeEach
+    void setUp() {
+        tables = new HashMap<>();
+        TreeMap<Long, String> source = new TreeMap<>();
+        for (long id = 1; id <= 100; id++) {
+            source.put(id, id % 2 == 0 ? "A" : "B");
+        }
+        tables.put(TABLE, source);
+        copies = 0;
+        afterFirstCopy = () -> { };
+        beforeCatchUp = () -> { };
+
+        DataMapper dataMapper = mock(DataMapper.class);
+        when(dataMapper.countTable(anyMap())).thenAnswer(i -> tables.containsKey(table(i.getArgument(0))) ? 1 : 0);
+        when(dataMapper.selectTableMaxId(anyMap())).thenAnswer(i -> {
+            TreeMap<Long, String> rows = tables.get(table(i.getArgument(0)));
+            return rows == null || rows.isEmpty() ? 0L : rows.lastKey();
+        });
+        when(dataMapper.selectTablePartitions(anyMap())).thenReturn(Collections.emptyList());
+        doAnswer(i -> {
+            tables.put(table(i.getArgument(0)), new TreeMap<>());
+            return null;
+        }).when(dataMapper).createTableLike(anyMap());
+        when(dataMapper.copySensorDataChunk(anyMap())).thenAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            if (TABLE.equals(param.get("target"))) {
+                beforeCatchUp.run();
+            }
+            TreeMap<Long, String> target = tables.get(String.valueOf(param.get("target")));
+            int copied = 0;
+            // insert ignore ... select (이미 있는 id 는 무시)
+            for (Map.Entry<Long, String> row : tables.get(String.valueOf(param.get("source")))
+                    .subMap((Long) param.get("fromId"), false, (Long) param.get("toId"), true).entrySet()) {
+                if (target.putIfAbsent(row.getKey(), row.getValue()) == null) {
+                    copied++;
+                }
+            }
+            if (++copies == 1) {
+                afterFirstCopy.run();
+            }
+            return copied;
+        });
+        when(dataMapper.deleteTableSensorData(anyMap())).thenAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            return deleteUuid(table(param), String.valueOf(param.get("sensorUuid")));
+        });
+        doAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            tables.put(String.valueOf(param.get("oldTable")), tables.remove(TABLE));
+            tables.put(TABLE, tables.remove(String.valueOf(param.get("newTable"))));
+            return null;
+        }).when(dataMapper).swapSensorDataTable(anyMap());
+
+        service = new SensorDataPartitionService();
+        ReflectionTestUtils.setField(service, "dataMapper", dataMapper);
+        ReflectionTestUtils.setField(service, "interval", "MONTH");
+        ReflectionTestUtils.setField(service, "premakeCount", 1);
+        ReflectionTestUtils.setField(service, "deleteBatchSize", 7);
+        ReflectionTestUtils.setField(service, "migrationChunkSize", 10L);
+        ReflectionTestUtils.setField(service, "migrationPauseMs", 0L);
+        ReflectionTestUtils.setField(service, "autoIncrementGap", 1000L);
+    }
+
+    @Test
+    void deleteDuringCopyIsNotResurrectedBySwap() {
+        // 첫 구간 복사 후 장치 A 삭제 (원본 삭제 → purge)
+        afterFirstCopy = () -> deleteDevice("A");
+
+        migrate();
+
+        assertEquals("DONE", ReflectionTestUtils.getField(service, "migrationPhase"));
+        assertEquals(0, count(TABLE, "A"));
+        assertEquals(50, count(TABLE, "B"));
+    }
+
+    @Test
+    void deleteBetweenSwapAndCatchUpIsReapplied() {
+        // 교체 직전 구 테이블 유입분 (추가 복사 대상) + 교체 후 장치 A 삭제
+        beforeCatchUp = () -> {
+            tables.get("hnt_sensor_data_old").put(101L, "A");
+            tables.get("hnt_sensor_data_old").put(102L, "B");
+            deleteDevice("A");
+        };
+
+        migrate();
+
+        assertEquals(0, count(TABLE, "A"));
+        assertEquals(51, count(TABLE, "B"));
+    }
+
+    @Test
+    void deleteAfterStoppedMigrationCleansLeftoverTable() {
+        afterFirstCopy = () -> service.stopMigration();
+        migrate();
+        assertEquals("STOPPED", ReflectionTestUtils.getField(service, "migrationPhase"));
+
+        // 중단 상태에서 삭제 → 남아 있는 새 테이블에도 반영되어 재개 시 되살아나지 않음
+        deleteDevice("A");
+        afterFirstCopy = () -> { };
+        migrate();
+
+        assertEquals(0, count(TABLE, "A"));
+        assertEquals(50, count(TABLE, "B"));
+    }
+
+    private void migrate() {
+        ReflectionTestUtils.setField(service, "migrating", true);
+        ReflectionTestUtils.invokeMethod(service, "migrate");
+    }
+
+    private void deleteDevice(String uuid) {
+        deleteUuid(TABLE, uuid);
+        service.purge(uuid);
+    }
+
+    private int deleteUuid(String table, String uuid) {
+        TreeMap<Long, String> rows = tables.get(table);
+        List<Long> ids = new ArrayList<>();
+        for (Map.Entry<Long, String> row : rows.entrySet()) {
+            if (row.getValue().equals(uuid)) {
+                ids.add(row.getKey());
+            }
+        }
+        ids.forEach(rows::remove);
+        return ids.size();
+    }
+
+    private long count(String table, String uuid) {
+        return tables.get(table).values().stream().filter(uuid::equals).count();
+    }
+
+    private static String table(Map<String, Object> param) {
+        return String.valueOf(param.get("table"));
+    }
+}
@@ -0,0 +1,242 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SensorDataSchemaService 저장 형식 재확인 / 압축 전환 중 장치 데이터 삭제 반영 확인
+ * 값 / 원본 테이블을 메모리(id → uuid)로, 사전을 uuid 집합으로 흉내 낸 DataMapper 로 전환 전 과정을 실행
+ */
+class SensorDataSchemaServiceTest {
+
+    private static final String TABLE = "hnt_sensor_data";
+    private static final String RAW_TABLE = "hnt_sensor_raw";
+
+    private SensorDataSchemaService service;
+    private Map<String, TreeMap<Long, String>> tables;
+    private Set<String> compactTables;
+    private Set<String> dictionary;
+    private Runnable afterFirstCopy;
+    private Runnable beforeCatchUp;
+    private int copies;
+
+    @BeforeEach
+    void setUp() {
+        tables = new HashMap<>();
+        TreeMap<Long, String> source = new TreeMap<>();
+        for (long id = 1; id <= 100; id++) {
+            source.put(id, id % 2 == 0 ? "A" : "B");
+        }
+        tables.put(TABLE, source);
+        tables.put(RAW_TABLE, new TreeMap<>());
+        compactTables = new HashSet<>();
+        dictionary = new HashSet<>();
+        copies = 0;
+        afterFirstCopy = () -> { };
+        beforeCatchUp = () -> { };
+
+        DataMapper dataMapper = mock(DataMapper.class);
+        when(dataMapper.countTable(anyMap())).thenAnswer(i -> tables.containsKey(table(i.getArgument(0))) ? 1 : 0);
+        when(dataMapper.countTableColumn(anyMap())).thenAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            boolean compact = compactTables.contains(table(param));
+            return "ch_id".equals(param.get("column")) == compact ? 1 : 0;
+        });
+        when(dataMapper.selectTableMaxId(anyMap())).thenAnswer(i -> {
+            TreeMap<Long, String> rows = tables.get(table(i.getArgument(0)));
+            return rows == null || rows.isEmpty() ? 0L : rows.lastKey();
+        });
+        doAnswer(i -> {
+            tables.put(table(i.getArgument(0)), new TreeMap<>());
+            return null;
+        }).when(dataMapper).createTableLike(anyMap());
+        doAnswer(i -> {
+            compactTables.add(table(i.getArgument(0)));
+            return null;
+        }).when(dataMapper).alterSensorDataCompact(anyMap());
+        when(dataMapper.copySensorDataCompactChunk(anyMap())).thenAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            if (TABLE.equals(param.get("target"))) {
+                beforeCatchUp.run();
+            }
+            int copied = copyRange(param, String.valueOf(param.get("target")));
+            if (++copies == 1) {
+                afterFirstCopy.run();
+            }
+            return copied;
+        });
+        when(dataMapper.copySensorRawChunk(anyMap())).thenAnswer(i -> copyRange(i.getArgument(0), RAW_TABLE));
+        when(dataMapper.upsertSensorDictChunk(anyMap())).thenAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            dictionary.addAll(range(param).values());
+            return 0;
+        });
+        when(dataMapper.deleteTableSensorData(anyMap())).thenAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            return deleteUuid(table(param), String.valueOf(param.get("sensorUuid")));
+        });
+        when(dataMapper.deleteSensorRaw(anyMap())).thenAnswer(i -> deleteUuid(RAW_TABLE, String.valueOf(((Map<?, ?>) i.getArgument(0)).get("sensorUuid"))));
+        when(dataMapper.deleteSensorDict(anyMap())).thenAnswer(i -> dictionary.remove(String.valueOf(((Map<?, ?>) i.getArgument(0)).get("sensorUuid"))) ? 1 : 0);
+        doAnswer(i -> {
+            Map<String, Object> param = i.getArgument(0);
+            String oldTable = String.valueOf(param.get("oldTable"));
+            String newTable = String.valueOf(param.get("newTable"));
+            tables.put(oldTable, tables.remove(TABLE));
+            tables.put(TABLE, tables.remove(newTable));
+            compactTables.remove(newTable);
+            compactTables.add(TABLE);
+            return null;
+        }).when(dataMapper).swapSensorDataTable(anyMap());
+
+        service = new SensorDataSchemaService();
+        ReflectionTestUtils.setField(service, "dataMapper", dataMapper);
+        ReflectionTestUtils.setField(service, "deleteBatchSize", 7);
+        ReflectionTestUtils.setField(service, "rawRetentionDays", 7);
+        ReflectionTestUtils.setField(service, "migrationChunkSize", 10L);
+        ReflectionTestUtils.setField(service, "migrationPauseMs", 0L);
+        ReflectionTestUtils.setField(service, "autoIncrementGap", 1000L);
+        ReflectionTestUtils.setField(SensorDataSchemaService.class, "compact", false);
+        ReflectionTestUtils.setField(SensorDataSchemaService.class, "rawEnabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 매퍼 OGNL 용 정적 상태 - 다른 테스트에 남지 않도록 기존 형식으로 되돌림
+        ReflectionTestUtils.setField(SensorDataSchemaService.class, "compact", false);
+    }
+
+    @Test
+    void deleteDuringCopyIsNotResurrectedBySwap() {
+        // 첫 구간 복사 후 장치 A 삭제 (원본 삭제 → purge) - 새 테이블 / 원본 / 사전에 복사된 A 도 삭제
+        afterFirstCopy = () -> deleteDevice("A");
+
+        migrate();
+
+        assertEquals("DONE", ReflectionTestUtils.getField(service, "migrationPhase"));
+        assertTrue(SensorDataSchemaService.isCompact());
+        assertEquals(0, count(TABLE, "A"));
+        assertEquals(50, count(TABLE, "B"));
+        assertEquals(0, count(RAW_TABLE, "A"));
+        assertFalse(dictionary.contains("A"));
+    }
+
+    @Test
+    void deleteBetweenSwapAndCatchUpIsReapplied() {
+        // 교체 직전 구 테이블 유입분 (추가 복사 대상) + 교체 후 장치 A 삭제
+        beforeCatchUp = () -> {
+            tables.get("hnt_sensor_data_wide").put(101L, "A");
+            tables.get("hnt_sensor_data_wide").put(102L, "B");
+            deleteDevice("A");
+        };
+
+        migrate();
+
+        assertEquals(0, count(TABLE, "A"));
+        assertEquals(51, count(TABLE, "B"));
+        assertEquals(0, count(RAW_TABLE, "A"));
+        assertFalse(dictionary.contains("A"));
+    }
+
+    @Test
+    void deleteAfterStoppedMigrationCleansLeftoverTable() {
+        afterFirstCopy = () -> service.stopMigration();
+        migrate();
+        assertEquals("STOPPED", ReflectionTestUtils.getField(service, "migrationPhase"));
+
+        // 중단 상태 (기존 형식) 에서 삭제 → 남아 있는 새 테이블 / 원본에도 반영되어 재개 시 되살아나지 않음
+        deleteDevice("A");
+        assertEquals(0, count("hnt_sensor_data_compact", "A"));
+        afterFirstCopy = () -> { };
+        migrate();
+
+        assertEquals(0, count(TABLE, "A"));
+        assertEquals(50, count(TABLE, "B"));
+        assertEquals(0, count(RAW_TABLE, "A"));
+    }
+
+    @Test
+    void refreshLayoutPicksUpSwapByOtherInstance() {
+        assertFalse(service.refreshLayout());
+        assertFalse(SensorDataSchemaService.isCompact());
+
+        // 다른 인스턴스가 전환을 마침
+        compactTables.add(TABLE);
+
+        assertTrue(service.refreshLayout());
+        assertTrue(SensorDataSchemaService.isCompact());
+        assertFalse(service.refreshLayout());
+        assertEquals(1L, service.getStatus().get("layoutChanges"));
+
+        // 압축 형식으로 바뀐 뒤의 삭제는 원본 / 사전에도 반영
+        dictionary.add("A");
+        tables.get(RAW_TABLE).put(1L, "A");
+        service.purge("A");
+        assertEquals(0, count(RAW_TABLE, "A"));
+        assertFalse(dictionary.contains("A"));
+    }
+
+    private void migrate() {
+        ReflectionTestUtils.setField(service, "migrating", true);
+        ReflectionTestUtils.invokeMethod(service, "migrate");
+    }
+
+    private void deleteDevice(String uuid) {
+        deleteUuid(TABLE, uuid);
+        service.purge(uuid);
+    }
+
+    private TreeMap<Long, String> range(Map<String, Object> param) {
+        return new TreeMap<>(tables.get(String.valueOf(param.get("source")))
+            .subMap((Long) param.get("fromId"), false, (Long) param.get("toId"), true));
+    }
+
+    /** insert ignore ... select (이미 있는 id 는 무시) */
+    private int copyRange(Map<String, Object> param, String target) {
+        int copied = 0;
+        for (Map.Entry<Long, String> row : range(param).entrySet()) {
+            if (tables.get(target).putIfAbsent(row.getKey(), row.getValue()) == null) {
+                copied++;
+            }
+        }
+        return copied;
+    }
+
+    private int deleteUuid(String table, String uuid) {
+        TreeMap<Long, String> rows = tables.get(table);
+        List<Long> ids = new ArrayList<>();
+        for (Map.Entry<Long, String> row : rows.entrySet()) {
+            if (row.getValue().equals(uuid)) {
+                ids.add(row.getKey());
+            }
+        }
+        ids.forEach(rows::remove);
+        return ids.size();
+    }
+
+    private long count(String table, String uuid) {
+        return tables.get(table).values().stream().filter(uuid::equals).count();
+    }
+
+    private static String table(Map<String, Object> param) {
+        return String.valueOf(param.get("table"));
+    }
+}
@@ -0,0 +1,198 @@
+package com.andrew.hnt.api.service;
+
+import com.andrew.hnt.api.mapper.DataMapper;
+import com.andrew.hnt.api.service.SensorRawExportService.Cursor;
+import com.andrew.hnt.api.service.SensorRawExportService.Format;
+import com.andrew.hnt.api.support.DisposableSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * /data/exportRaw 처리량 / 이어받기 확인 (로컬 DB 일회용 스키마, 운영 DB 사용 안 함)
+ * 운영과 같은 DataMapper.xml 의 selectSensorRawPage 로 실제 키셋 페이지 조회 후 형식별로 기록
+ * - 처리량 목표: hnt.bench.target-rows-per-minute (기본 1,000,000 rows/min)
+ * - 이어받기: 중간에 끊긴 응답의 마지막 커서로 재요청하면 이후 행이 빠짐 없이 이어짐
+ *
+ * 실행: mvn test -Dtest=SensorRawExportPerformanceTest -Dhnt.test.jdbc-url=jdbc:mysql://127.0.0.1:3306/
+ *       (-Dhnt.bench.rows=1000000, 센서 10개에 고르게 나눔)
+ */
+class SensorRawExportPerformanceTest {
+
+    private static final String START = "2026-01-01 00:00:00";
+    private static final String END = "2026-12-31 23:59:59";
+    private static final int SENSORS = 10;
+
+    private static DisposableSchema schema;
+    private static SensorRawExportService service;
+    private static long rows;
+    private static List<String> uuids;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        schema = DisposableSchema.create(4, "sql/hnt_sensor_data.sql");
+        rows = Long.getLong("hnt.bench.rows", 1_000_000L);
+        load(rows);
+        uuids = new ArrayList<>();
+        for (int i = 0; i < SENSORS; i++) {
+            uuids.add(String.format("EXPORT%06d", i));
+        }
+
+        service = new SensorRawExportService();
+        ReflectionTestUtils.setField(service, "dataMapper", schema.mapper(DataMapper.class));
+        ReflectionTestUtils.setField(service, "pageSize", Integer.getInteger("hnt.bench.page-size", 10000));
+        ReflectionTestUtils.setField(service, "maxSensors", 20);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void throughputMeetsTarget() throws IOException {
+        long target = Long.getLong("hnt.bench.target-rows-per-minute", 1_000_000L);
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String mode : new String[] {"NDJSON", "CSV", "CSV+gzip"}) {
+            CountingOutputStream counter = new CountingOutputStream();
+            long started = System.nanoTime();
+            long written;
+            if (mode.endsWith("gzip")) {
+                try (GZIPOutputStream gzip = new GZIPOutputStream(counter, 64 * 1024)) {
+                    written = service.export(uuids, START, END, Format.CSV, null, gzip);
+                }
+            } else {
+                written = service.export(uuids, START, END, Format.of(mode), null, counter);
+            }
+            long elapsed = System.nanoTime() - started;
+            long perMinute = written * 60_000_000_000L / Math.max(1, elapsed);
+
+            assertEquals(rows, written, mode);
+            result.put(mode, perMinute + " rows/min (" + elapsed / 1_000_000 + " ms, " + counter.count / 1024 + " KB)");
+            assertTrue(perMinute >= target, mode + " " + perMinute + " rows/min < " + target);
+        }
+        result.put("server", serverVersion());
+        System.out.println("[export benchmark] rows=" + rows + " " + result);
+    }
+
+    @Test
+    void resumeFromLastCursorContinuesWithoutGaps() throws IOException {
+        // 약 3페이지 기록 후 연결 끊김 → 마지막 커서로 다시 요청
+        ReflectionTestUtils.setField(service, "pageSize", 1000);
+        try {
+            List<String> sensors = uuids.subList(0, 2);
+            ByteArrayOutputStream first = new ByteArrayOutputStream();
+            assertThrows(IOException.class, () -> service.export(sensors, START, END, Format.NDJSON, null, new FailingOutputStream(first, 150_000)));
+
+            // 마지막 커서 행과 그 앞까지 받은 행 수 (커서 이후 받은 행은 다시 전송됨)
+            String token = null;
+            long beforeCursor = 0;
+            long received = 0;
+            for (String line : new String(first.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+                if (line.startsWith("{\"cursor\":\"") && line.endsWith("\"}")) {
+                    token = line.substring(11, line.length() - 2);
+                    beforeCursor = received;
+                } else if (line.startsWith("{\"id\":")) {
+                    received++;
+                }
+            }
+            assertTrue(token != null, "커서 없이 끊김");
+            assertTrue(beforeCursor < rows / SENSORS * 2);
+
+            long resumed = service.export(sensors, START, END, Format.NDJSON, Cursor.parse(token), new CountingOutputStream());
+
+            // 커서까지 받은 행 + 이어받은 행 = 전체 (중복 / 누락 없음)
+            assertEquals(rows / SENSORS * 2, beforeCursor + resumed);
+        } finally {
+            ReflectionTestUtils.setField(service, "pageSize", Integer.getInteger("hnt.bench.page-size", 10000));
+        }
+    }
+
+    /** 0~9 숫자 테이블 교차 조인으로 rows 건 생성 (센서 10개, 센서마다 1분 간격) */
+    private static void load(long rows) throws SQLException {
+        long started = System.nanoTime();
+        schema.execute("create table bench_digits (d int primary key)");
+        schema.execute("insert into bench_digits values (0), (1), (2), (3), (4), (5), (6), (7), (8), (9)");
+        schema.execute("insert into hnt_sensor_data (user_id, sensor_id, uuid, sensor_type, sensor_value, topic, raw_data, inst_id, inst_dtm, mdf_id, mdf_dtm)"
+            + " select 'bench', 'bench', concat('EXPORT', lpad(n mod " + SENSORS + ", 6, '0')), 'ain',"
+            + " cast(round(20 + (n mod 97) / 10 - 4.8, 1) as char), null, null, 'bench',"
+            + " timestamp('" + START + "') + interval (n div " + SENSORS + ") minute, 'bench', now()"
+            + " from (select a.d + b.d * 10 + c.d * 100 + e.d * 1000 + f.d * 10000 + g.d * 100000 + h.d * 1000000 as n"
+            + " from bench_digits a, bench_digits b, bench_digits c, bench_digits e, bench_digits f, bench_digits g, bench_digits h) s"
+            + " where n < " + rows);
+        schema.execute("analyze table hnt_sensor_data");
+        System.out.println("[export benchmark] loaded " + rows + " rows in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    private static String serverVersion() {
+        try (Connection connection = schema.getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select version()")) {
+            rs.next();
+            return rs.getString(1);
+        } catch (SQLException e) {
+            return e.toString();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /** limit 바이트 이후 연결 끊김 흉내 */
+    private static final class FailingOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final long limit;
+        private long count;
+
+        FailingOutputStream(OutputStream target, long limit) {
+            this.target = target;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (count + len > limit) {
+                throw new IOException("Broken pipe");
+            }
+            target.write(b, off, len);
+            count += len;
+        }
+    }
+}
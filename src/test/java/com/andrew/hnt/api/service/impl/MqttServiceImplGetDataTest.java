@@ -0,0 +1,267 @@
+package com.andrew.hnt.api.service.impl;
+
+import com.andrew.hnt.api.mapper.MqttMapper;
+import com.andrew.hnt.api.model.SensorVO;
+import com.andrew.hnt.api.mqtt.AlarmStateMachine;
+import com.andrew.hnt.api.mqtt.MqttHealthChecker;
+import com.andrew.hnt.api.mqtt.SensorHeartbeatTracker;
+import com.andrew.hnt.api.mqtt.SensorLatestValueStore;
+import com.andrew.hnt.api.service.MetadataCache;
+import com.andrew.hnt.api.service.SensorHistoryService;
+import com.andrew.hnt.api.util.MqttMessageValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * /getData 응답 호환성 테스트
+ * 기존 정적 필드 구현(LegacyGetData)과 현재 구현에 같은 메시지 순서를 넣고 응답을 비교
+ */
+class MqttServiceImplGetDataTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private MqttMessageValidator validator;
+    private MqttServiceImpl service;
+    private LegacyGetData legacy;
+
+    @BeforeEach
+    void setUp() {
+        validator = new MqttMessageValidator();
+        ReflectionTestUtils.setField(validator, "strictKeywords", true);
+        validator.initThreatScanner();
+
+        service = new MqttServiceImpl();
+        ReflectionTestUtils.setField(service, "messageValidator", validator);
+        ReflectionTestUtils.setField(service, "latestValueStore", new SensorLatestValueStore());
+        ReflectionTestUtils.setField(service, "mqttMapper", Mockito.mock(MqttMapper.class));
+        ReflectionTestUtils.setField(service, "healthChecker", Mockito.mock(MqttHealthChecker.class));
+        ReflectionTestUtils.setField(service, "alarmStateMachine", Mockito.mock(AlarmStateMachine.class));
+        ReflectionTestUtils.setField(service, "heartbeatTracker", Mockito.mock(SensorHeartbeatTracker.class));
+        ReflectionTestUtils.setField(service, "sensorHistoryService", Mockito.mock(SensorHistoryService.class));
+        ReflectionTestUtils.setField(service, "metadataCache", Mockito.mock(MetadataCache.class));
+
+        legacy = new LegacyGetData(validator);
+    }
+
+    @Test
+    void emptyResponseMatchesLegacy() throws Exception {
+        assertSameResponse();
+    }
+
+    @Test
+    void messageSequenceMatchesLegacy() throws Exception {
+        List<String> messages = Arrays.asList(
+                "HBEE/user1/TC/uuid-1/DEV@temperature=21.5",
+                "HBEE/user1/TC/uuid-1/DEV@{\"actcode\":\"live\",\"name\":\"ain\",\"value\":\"22.0\"}",
+                "HBEE/user2/TC/uuid-2/SER@{\"actcode\":\"setres\",\"p01\":\"10\",\"p02\":\"3\"}",
+                "HBEE/user3/XX/uuid-3/DEV@temperature=1.0",
+                "HBEE/user3/TC/uuid-3/SER@plain",
+                "HBEE/user4/TC/uuid-4/DEV@{\"actcode\":\"live\",\"name\":\"din\",\"type\":\"1\",\"value\":\"1\"}",
+                "HBEE/user4/TC/uuid-4/DEV@temperature=null",
+                "no-separator-message",
+                "HBEE/user5/TC/uuid-5/DEV@temperature=-3.25");
+
+        for (String message : messages) {
+            service.receiveData(message);
+            legacy.receiveData(message);
+            assertSameResponse();
+        }
+    }
+
+    @Test
+    void liveMessagesDoNotChangeLegacyResponse() throws Exception {
+        service.receiveData("HBEE/user1/TC/uuid-1/DEV@temperature=18.0");
+        Map<String, Object> before = normalize(service.getData());
+
+        service.receiveData("HBEE/user1/TC/uuid-1/DEV@{\"actcode\":\"live\",\"name\":\"ain\",\"value\":\"30.0\"}");
+
+        assertEquals(before, normalize(service.getData()));
+        assertEquals("[temperature=18.0]", service.getData().get("data"));
+    }
+
+    private void assertSameResponse() throws Exception {
+        assertEquals(normalize(legacy.getData()), normalize(service.getData()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> normalize(Map<String, Object> response) {
+        return JSON.convertValue(response, Map.class);
+    }
+
+    /**
+     * 기존 MqttServiceImpl의 /getData 관련 로직 (정적 필드 → 인스턴스 필드로만 변경)
+     * live/reg 메시지는 별도 경로로 처리되어 /getData 상태를 바꾸지 않았음
+     */
+    static final class LegacyGetData {
+        private final MqttMessageValidator messageValidator;
+
+        private ArrayList<String> data = new ArrayList<String>();
+        private String title = "";
+        private String name = "";
+        private String type = "";
+        private String dinVal = "";
+        private String outputVal = "";
+        private String sensorId = "";
+        private String sensorUuid = "";
+        private String sensorType = "";
+        private SensorVO sensorVO = new SensorVO();
+
+        LegacyGetData(MqttMessageValidator messageValidator) {
+            this.messageValidator = messageValidator;
+        }
+
+        void setSensorValue(ArrayList<String> data, SensorVO sensorVO) {
+            this.data = data;
+            this.title = sensorVO.getUserId();
+            this.name = sensorVO.getName();
+            this.type = sensorVO.getType();
+            this.dinVal = sensorVO.getDinVal();
+            this.outputVal = sensorVO.getOutputVal();
+            this.sensorId = sensorVO.getSensorId();
+            this.sensorUuid = sensorVO.getUuid();
+            this.sensorType = sensorVO.getSensorType();
+            this.sensorVO = sensorVO;
+        }
+
+        Map<String, Object> getData() {
+            Map<String, Object> resultMap = new HashMap<String, Object>();
+            resultMap.put("data", data.toString());
+            resultMap.put("title", title);
+            resultMap.put("sensorId", sensorId);
+            resultMap.put("sensorUuid", sensorUuid);
+            resultMap.put("sensorType", sensorType);
+            resultMap.put("sensorVO", sensorVO);
+            resultMap.put("name", name);
+            resultMap.put("type", type);
+            resultMap.put("dinVal", dinVal);
+            resultMap.put("outputVal", outputVal);
+            return resultMap;
+        }
+
+        void receiveData(String str) {
+            if (str == null || str.trim().isEmpty()) {
+                return;
+            }
+            if (!messageValidator.isValidMessageLength(str)) {
+                return;
+            }
+            if (messageValidator.hasSecurityThreat(str)) {
+                return;
+            }
+            boolean isDeviceRegistration = str.contains("\"actcode\":\"reg\"") || str.contains("actcode:reg");
+            boolean isLiveMessage = str.contains("\"actcode\":\"live\"") || str.contains("actcode:live");
+            if (!isDeviceRegistration && !isLiveMessage) {
+                str = messageValidator.sanitizeMessage(str);
+            }
+            if (isLiveMessage || isDeviceRegistration) {
+                return;
+            }
+
+            if(null != str && !"".equals(str) && 0 < str.length()) {
+                if(str.contains("@")) {
+                    ObjectMapper mapper = new ObjectMapper();
+                    String[] strArr = str.split("@");
+
+                    if(null != strArr && 0 < strArr.length) {
+                        sensorVO.setTopic(strArr[0]);
+                        sensorVO.setRawData(strArr[1]);
+                        try {
+                            String[] topicArr = strArr[0].split("/");
+
+                            if (!messageValidator.isValidTopic(strArr[0])) {
+                                return;
+                            }
+
+                            Map<String, Object> valueMap = new HashMap<String, Object>();
+
+                            if(!str.contains("temperature")) {
+                                if(isValidJson(mapper, strArr[1])) {
+                                    @SuppressWarnings("unchecked")
+                                    Map<String, Object> tempValueMap = mapper.readValue(strArr[1], Map.class);
+                                    if (!messageValidator.isValidJsonMessage(tempValueMap)) {
+                                        return;
+                                    }
+                                    valueMap = tempValueMap;
+                                    if(topicArr.length > 2) { sensorVO.setSensorType(topicArr[2]); }
+                                } else {
+                                    topicArr = null;
+                                }
+                            } else {
+                                String[] tempArr = strArr[0].split("/");
+                                sensorVO.setSensorValue(strArr[1]);
+                                if(null != tempArr && tempArr.length > 3) { sensorVO.setSensorType(tempArr[3]); }
+                            }
+
+                            if(null != topicArr && 0 < topicArr.length && !str.contains("register")) {
+                                if(topicArr.length > 1) { sensorVO.setUserId(topicArr[1]); }
+                                if(topicArr.length > 1) { sensorVO.setSensorId(topicArr[1]); }
+                                if(topicArr.length > 3) { sensorVO.setUuid(topicArr[3]); }
+                            }
+
+                            if(null != valueMap && 0 < valueMap.size()) {
+                                Object value = valueMap.get("value");
+                                if(valueMap.containsKey("actcode")) {
+                                    if("setres".equals(valueMap.get("actcode"))) {
+                                        if(2 < valueMap.size()) {
+                                            sensorVO.setDataJson(strArr[1]);
+                                        }
+                                    } else if("live".equals(valueMap.get("actcode"))) {
+                                        if(null != value && !"".equals(String.valueOf(value))) {
+                                            if(!"null".equals(String.valueOf(value))) {
+                                                sensorVO.setSensorValue(String.valueOf(value));
+                                            } else {
+                                                sensorVO.setSensorValue("0");
+                                            }
+                                        }
+                                        sensorVO.setName(String.valueOf(valueMap.get("name")));
+                                        sensorVO.setType(String.valueOf(valueMap.get("type")));
+                                    } else if("din".equals(valueMap.get("name"))) {
+                                        if("1".equals(valueMap.get("type"))) {
+                                            sensorVO.setDinVal(String.valueOf(value));
+                                        }
+                                    } else if("output".equals(valueMap.get("name"))) {
+                                        if("1".equals(String.valueOf(valueMap.get("type")))) {
+                                            sensorVO.setOutputVal("comp/" + String.valueOf(value));
+                                        } else if("2".equals(String.valueOf(valueMap.get("type")))) {
+                                            sensorVO.setOutputVal("def/" + String.valueOf(value));
+                                        } else if("3".equals(String.valueOf(valueMap.get("type")))) {
+                                            sensorVO.setOutputVal("fan/" + String.valueOf(value));
+                                        }
+                                    }
+                                }
+                            }
+
+                            if(null != sensorVO.getSensorValue() && !"".equals(sensorVO.getSensorValue())) {
+                                ArrayList<String> list = new ArrayList<>();
+                                list.add(sensorVO.getSensorValue());
+                                setSensorValue(list, sensorVO);
+                            }
+                        } catch(Exception e) {
+                            // 기존 구현과 동일하게 로그만 남기고 무시
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean isValidJson(ObjectMapper mapper, String str) {
+            try {
+                mapper.readTree(str);
+                return true;
+            } catch(Exception e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.andrew.hnt.api.support;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Assumptions;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Scanner;
+
+/**
+ * 성능/통합 테스트용 일회용 스키마
+ * 운영 DB 가 아닌 로컬 MySQL/MariaDB 서버에 임의 이름의 스키마를 만들고 종료 시 삭제
+ *
+ * 서버 주소는 시스템 속성으로 지정 (없으면 테스트 건너뜀)
+ * - hnt.test.jdbc-url  : 스키마 없는 서버 주소 (예: jdbc:mysql://127.0.0.1:3306/)
+ * - hnt.test.jdbc-user / hnt.test.jdbc-password
+ *
+ * 예) mvn test -Dtest=SensorDataBatchWriterPerformanceTest -Dhnt.test.jdbc-url=jdbc:mysql://127.0.0.1:3306/
+ */
+public final class DisposableSchema implements AutoCloseable {
+
+    public static final String URL_PROPERTY = "hnt.test.jdbc-url";
+
+    // 운영 DbConfig 와 같은 드라이버 옵션 + LOAD DATA 허용
+    private static final String OPTIONS = "useUnicode=yes&characterEncoding=UTF-8&serverTimezone=Asia/Seoul"
+        + "&allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true&allowLoadLocalInfile=true";
+
+    private final String serverUrl;
+    private final String user;
+    private final String password;
+    private final String name;
+    private final HikariDataSource dataSource;
+    private SqlSessionTemplate sqlSession;
+
+    private DisposableSchema(String serverUrl, String user, String password, String name, int poolSize) {
+        this.serverUrl = serverUrl;
+        this.user = user;
+        this.password = password;
+        this.name = name;
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url());
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setPoolName("DisposableSchema-" + name);
+        this.dataSource = new HikariDataSource(config);
+    }
+
+    /**
+     * 스키마 생성 후 테스트 리소스 SQL 실행 (예: "sql/hnt_sensor_data.sql")
+     */
+    public static DisposableSchema create(int poolSize, String... scripts) throws SQLException, IOException {
+        String serverUrl = System.getProperty(URL_PROPERTY);
+        Assumptions.assumeTrue(serverUrl != null && !serverUrl.isEmpty(),
+            URL_PROPERTY + " 미지정 - 로컬 MySQL 서버가 필요한 테스트 건너뜀");
+        String user = System.getProperty("hnt.test.jdbc-user", "root");
+        String password = System.getProperty("hnt.test.jdbc-password", "");
+        String name = "hnt_test_" + Long.toString(System.nanoTime(), 36);
+
+        try (Connection connection = DriverManager.getConnection(withOptions(serverUrl), user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("create database " + name + " character set utf8mb4");
+        }
+        DisposableSchema schema = new DisposableSchema(serverUrl, user, password, name, poolSize);
+        try {
+            for (String script : scripts) {
+                schema.runScript(script);
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            schema.close();
+            throw e;
+        }
+        return schema;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /** 스키마 포함 JDBC 주소 (별도 인스턴스/풀 구성용) */
+    public String url() {
+        return url(serverUrl);
+    }
+
+    /** 다른 서버(예: 이 서버를 복제하는 복제본)의 같은 스키마 JDBC 주소 */
+    public String url(String otherServerUrl) {
+        String base = otherServerUrl.endsWith("/") ? otherServerUrl : otherServerUrl + "/";
+        return withOptions(base + name);
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    /** 운영 DbConfig 와 같은 mapper/*.xml 로 구성한 매퍼 (인터셉터 없음, 문장마다 자동 커밋) */
+    public synchronized <T> T mapper(Class<T> type) throws Exception {
+        if (sqlSession == null) {
+            SqlSessionFactoryBean bean = new SqlSessionFactoryBean();
+            bean.setDataSource(dataSource);
+            bean.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath*:mapper/*.xml"));
+            sqlSession = new SqlSessionTemplate(bean.getObject());
+        }
+        return sqlSession.getMapper(type);
+    }
+
+    public void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /** 세미콜론으로 구분된 문장 실행 (-- 주석 줄 제외) */
+    public void runScript(String resource) throws SQLException, IOException {
+        String text;
+        try (InputStream in = DisposableSchema.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("테스트 리소스 없음: " + resource);
+            }
+            text = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next();
+        }
+        StringBuilder sql = new StringBuilder();
+        for (String line : text.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sql.append(line).append('\n');
+            }
+        }
+        for (String statement : sql.toString().split(";")) {
+            if (!statement.trim().isEmpty()) {
+                execute(statement);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        dataSource.close();
+        try (Connection connection = DriverManager.getConnection(withOptions(serverUrl), user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop database if exists " + name);
+        }
+    }
+
+    private static String withOptions(String url) {
+        return url + (url.contains("?") ? "&" : "?") + OPTIONS;
+    }
+}
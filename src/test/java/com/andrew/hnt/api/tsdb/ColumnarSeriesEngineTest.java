@@ -0,0 +1,118 @@
+package com.andrew.hnt.api.tsdb;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ColumnarSeriesEngine 늦게 도착한 포인트 처리 확인
+ * - 열린 구간 / 마지막 확정 블록 구간은 순서대로 삽입, 그 이전 구간은 버림
+ * - 재기동 후에도 삽입된 포인트 유지, 블록 요약 집계와 원본 해석 결과 일치
+ */
+class ColumnarSeriesEngineTest {
+
+    private static final long DAY = 86400L;
+    private static final String UUID = "0008DC755397";
+
+    @TempDir
+    File directory;
+
+    @Test
+    void latePointInOpenChunkIsInsertedInOrder() throws IOException {
+        ColumnarSeriesEngine engine = new ColumnarSeriesEngine(directory, DAY);
+        engine.append(UUID, 60, 1.0);
+        engine.append(UUID, 180, 3.0);
+        assertTrue(engine.append(UUID, 120, 2.0));
+
+        assertEquals(timestamps(60, 120, 180), scan(engine, 0, DAY));
+        assertEquals(1, engine.getReorderedPoints());
+        assertEquals(0, engine.getDroppedPoints());
+    }
+
+    @Test
+    void latePointInLastSealedBlockRewritesBlock() throws IOException {
+        ColumnarSeriesEngine engine = new ColumnarSeriesEngine(directory, DAY);
+        engine.append(UUID, DAY - 120, 1.0);
+        engine.append(UUID, DAY + 60, 5.0); // 자정 이후 포인트로 전날 블록 확정
+        assertTrue(engine.append(UUID, DAY - 60, 3.0));
+        engine.append(UUID, DAY + 120, 7.0);
+
+        assertEquals(timestamps(DAY - 120, DAY - 60, DAY + 60, DAY + 120), scan(engine, 0, 2 * DAY));
+        // 블록 요약(인덱스 레코드) 사용 집계에도 반영
+        TreeMap<Long, ColumnarSeriesEngine.Aggregate> days = engine.aggregate(UUID, 0, 2 * DAY - 1, ts -> Math.floorDiv(ts, DAY));
+        assertEquals(2, days.get(0L).getCount());
+        assertEquals(2.0, days.get(0L).getAverage(), 1e-9);
+        assertEquals(3.0, days.get(0L).getMax(), 1e-9);
+        assertEquals(1, engine.getSealedBlocks());
+        engine.flush();
+
+        // 재기동 후 복원
+        ColumnarSeriesEngine reopened = new ColumnarSeriesEngine(directory, DAY);
+        assertEquals(timestamps(DAY - 120, DAY - 60, DAY + 60, DAY + 120), scan(reopened, 0, 2 * DAY));
+    }
+
+    @Test
+    void pointOlderThanLastSealedBlockIsDropped() throws IOException {
+        ColumnarSeriesEngine engine = new ColumnarSeriesEngine(directory, DAY);
+        engine.append(UUID, 60, 1.0);
+        engine.append(UUID, DAY + 60, 2.0);
+        engine.append(UUID, 2 * DAY + 60, 3.0);
+
+        assertFalse(engine.append(UUID, 120, 9.0));
+        assertEquals(1, engine.getDroppedPoints());
+        assertEquals(timestamps(60, DAY + 60, 2 * DAY + 60), scan(engine, 0, 3 * DAY));
+    }
+
+    @Test
+    void shuffledDayMatchesSortedDay() throws IOException {
+        // 인접 포인트를 바꿔 넣어도 정렬 입력과 같은 결과
+        ColumnarSeriesEngine sorted = new ColumnarSeriesEngine(new File(directory, "sorted"), DAY);
+        ColumnarSeriesEngine shuffled = new ColumnarSeriesEngine(new File(directory, "shuffled"), DAY);
+        for (long minute = 0; minute < 3 * 1440; minute++) {
+            sorted.append(UUID, minute * 60, minute % 97 / 10.0);
+        }
+        for (long minute = 0; minute < 3 * 1440; minute += 2) {
+            shuffled.append(UUID, (minute + 1) * 60, (minute + 1) % 97 / 10.0);
+            shuffled.append(UUID, minute * 60, minute % 97 / 10.0);
+        }
+
+        assertEquals(scanValues(sorted), scanValues(shuffled));
+        assertEquals(0, shuffled.getDroppedPoints());
+        Map<Long, ColumnarSeriesEngine.Aggregate> expected = sorted.aggregate(UUID, 0, 3 * DAY - 1, ts -> Math.floorDiv(ts, DAY));
+        Map<Long, ColumnarSeriesEngine.Aggregate> actual = shuffled.aggregate(UUID, 0, 3 * DAY - 1, ts -> Math.floorDiv(ts, DAY));
+        for (Long day : expected.keySet()) {
+            assertEquals(expected.get(day).getCount(), actual.get(day).getCount());
+            assertEquals(expected.get(day).getAverage(), actual.get(day).getAverage(), 1e-9);
+        }
+    }
+
+    private static List<Long> timestamps(long... values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static List<Long> scan(ColumnarSeriesEngine engine, long from, long to) throws IOException {
+        List<Long> list = new ArrayList<>();
+        engine.scan(UUID, from, to, (timestamp, value) -> list.add(timestamp));
+        return list;
+    }
+
+    private static List<String> scanValues(ColumnarSeriesEngine engine) throws IOException {
+        List<String> list = new ArrayList<>();
+        engine.scan(UUID, 0, Long.MAX_VALUE, (timestamp, value) -> list.add(timestamp + "=" + value));
+        return list;
+    }
+}
@@ -0,0 +1,147 @@
+package com.andrew.hnt.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ChartDownsampler 출력 행 수 상한 / 끊김 표시 확인
+ * - 끊김 행을 포함한 출력 행 수는 항상 maxPoints 이하
+ * - 표시하는 끊김은 긴 것부터, 구간 첫/끝 점 유지
+ */
+class ChartDownsamplerTest {
+
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final LocalDateTime START = LocalDateTime.of(2026, 9, 1, 0, 0);
+
+    @Test
+    void outputNeverExceedsMaxPoints() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            List<Map<String, Object>> rows = series(random, 1 + random.nextInt(5000), random.nextInt(40));
+            int maxPoints = 2 + random.nextInt(300);
+            ChartDownsampler.Result result = ChartDownsampler.downsample(rows, maxPoints, 5);
+
+            assertTrue(result.getRows().size() <= maxPoints,
+                "rows=" + result.getRows().size() + " maxPoints=" + maxPoints + " gaps=" + result.getGaps());
+            assertEquals(result.getOriginalPoints(), rows.size());
+            assertOrdered(result.getRows());
+        }
+    }
+
+    @Test
+    void manySmallSegmentsKeepLongestGaps() {
+        // 1분 간격 3점 구간 50개, 10번째 끊김만 12시간 나머지는 10분
+        List<Map<String, Object>> rows = new ArrayList<>();
+        LocalDateTime time = START;
+        for (int segment = 0; segment < 50; segment++) {
+            for (int i = 0; i < 3; i++) {
+                rows.add(row(time, segment + i / 10.0));
+                time = time.plusMinutes(1);
+            }
+            time = time.plusMinutes(segment == 9 ? 720 : 10);
+        }
+
+        ChartDownsampler.Result result = ChartDownsampler.downsample(rows, 5, 5);
+
+        assertEquals(5, result.getRows().size());
+        assertEquals(1, result.getGaps());
+        assertEquals(48, result.getHiddenGaps());
+        // 끊김 행은 12시간 끊김 직전 점 다음 1분
+        Map<String, Object> gap = result.getRows().stream().filter(r -> r.get("sensor_value") == null).findFirst().get();
+        assertEquals(START.plusMinutes(9 * 13 + 3).format(MINUTE), gap.get("inst_dtm"));
+        // 첫 / 마지막 점 유지
+        assertEquals(rows.get(0).get("inst_dtm"), result.getRows().get(0).get("inst_dtm"));
+        assertEquals(rows.get(rows.size() - 1).get("inst_dtm"), result.getRows().get(4).get("inst_dtm"));
+    }
+
+    @Test
+    void noLimitKeepsAllPointsAndMarksGaps() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(row(START, 1.0));
+        rows.add(row(START.plusMinutes(1), 2.0));
+        rows.add(row(START.plusMinutes(30), 3.0));
+
+        ChartDownsampler.Result result = ChartDownsampler.downsample(rows, 0, 5);
+
+        assertEquals(4, result.getRows().size());
+        assertEquals(1, result.getGaps());
+        assertEquals(0, result.getHiddenGaps());
+        assertNull(result.getRows().get(2).get("sensor_value"));
+        assertEquals(START.plusMinutes(2).format(MINUTE), result.getRows().get(2).get("inst_dtm"));
+    }
+
+    @Test
+    void monthOfMinutesFitsViewport() {
+        // 30일 1분 데이터 (장치 미수신 3회) → 화면 폭 1500 점
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Random random = new Random(5);
+        for (int minute = 0; minute < 30 * 1440; minute++) {
+            if (minute % 10000 < 90) {
+                continue;
+            }
+            rows.add(row(START.plusMinutes(minute), Math.round((20 + Math.sin(minute / 300.0) * 5 + random.nextGaussian()) * 10) / 10.0));
+        }
+
+        // 첫 호출(JIT 전) 포함 5회 중 최소 시간
+        ChartDownsampler.Result result = null;
+        long elapsed = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long started = System.nanoTime();
+            result = ChartDownsampler.downsample(rows, 1500, 5);
+            elapsed = Math.min(elapsed, System.nanoTime() - started);
+        }
+
+        assertTrue(result.getRows().size() <= 1500);
+        assertEquals(4, result.getGaps());
+        System.out.println("[downsample] points " + rows.size() + " -> " + (result.getRows().size() - result.getGaps())
+            + " (+" + result.getGaps() + " gaps), payload " + payloadBytes(rows) + " -> " + payloadBytes(result.getRows())
+            + " bytes, " + elapsed / 100_000 / 10.0 + " ms");
+    }
+
+    private static void assertOrdered(List<Map<String, Object>> rows) {
+        String previous = "";
+        for (Map<String, Object> row : rows) {
+            String instDtm = String.valueOf(row.get("inst_dtm"));
+            assertTrue(instDtm.compareTo(previous) > 0, instDtm + " after " + previous);
+            previous = instDtm;
+        }
+    }
+
+    /** getDailyData 의 "inst_dtm^value" 배열 JSON 크기 */
+    private static long payloadBytes(List<Map<String, Object>> rows) {
+        long bytes = 2;
+        for (Map<String, Object> row : rows) {
+            Object value = row.get("sensor_value");
+            bytes += String.valueOf(row.get("inst_dtm")).length() + 1 + (value == null ? 0 : String.valueOf(value).length()) + 3;
+        }
+        return bytes;
+    }
+
+    private static List<Map<String, Object>> series(Random random, int points, int gaps) {
+        List<Map<String, Object>> rows = new ArrayList<>(points);
+        LocalDateTime time = START;
+        for (int i = 0; i < points; i++) {
+            rows.add(row(time, Math.round(random.nextGaussian() * 100) / 10.0));
+            time = time.plusMinutes(random.nextInt(points) < gaps ? 6 + random.nextInt(600) : 1);
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> row(LocalDateTime time, double value) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("inst_dtm", time.format(MINUTE));
+        row.put("sensor_value", value);
+        return row;
+    }
+}
@@ -0,0 +1,160 @@
+package com.andrew.hnt.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * /data/excelDownload 요청당 최대 힙 회귀 확인
+ * 힙 상한(-Xmx)을 둔 별도 JVM 에서 합성 1분 데이터로 엑셀을 작성하고 성공 여부 / 최대 힙 사용량 확인
+ * - 스트리밍(SXSSF + 행 단위 전달): 120일도 작은 힙에서 완료되어야 함
+ * - 기존 방식(목록 + XSSFWorkbook): 같은 힙에서 30일도 실패 (상한이 의미 있는 값인지 확인)
+ */
+class ExcelExportHeapTest {
+
+    private static final String HEAP = "-Xmx32m";
+    private static final int OUT_OF_MEMORY = 3;
+
+    @Test
+    void streamingExportFitsInSmallHeap() throws Exception {
+        Result result = run("stream", 120);
+        assertEquals(0, result.exitCode, result.output);
+        assertTrue(result.output.contains("rows=172800"), result.output);
+    }
+
+    @Test
+    void legacyExportDoesNotFitInSameHeap() throws Exception {
+        Result result = run("legacy", 30);
+        assertNotEquals(0, result.exitCode, result.output);
+    }
+
+    private static Result run(String mode, int days) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<>(Arrays.asList(java, HEAP, "-XX:+UseSerialGC",
+            "-cp", System.getProperty("java.class.path"), ExcelExportHeapTest.class.getName(), mode, String.valueOf(days)));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[excel heap]")) {
+                    System.out.println(line);
+                }
+                output.append(line).append('\n');
+            }
+        }
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES), "엑셀 작성 시간 초과");
+        return new Result(process.exitValue(), output.toString());
+    }
+
+    private static final class Result {
+        final int exitCode;
+        final String output;
+
+        Result(int exitCode, String output) {
+            this.exitCode = exitCode;
+            this.output = output;
+        }
+    }
+
+    /**
+     * 별도 JVM 진입점: args = mode(stream|legacy), days
+     */
+    public static void main(String[] args) throws IOException {
+        String mode = args[0];
+        int days = Integer.parseInt(args[1]);
+        long started = System.nanoTime();
+        CountingOutputStream out = new CountingOutputStream();
+        long rows;
+        try {
+            if ("stream".equals(mode)) {
+                try (ExcelUtils.StreamingDataExcel excel = new ExcelUtils.StreamingDataExcel(ExcelUtils.minuteHeader(), "heap", 100)) {
+                    // 커서처럼 한 행씩 전달
+                    rows = generate(days, excel);
+                    excel.write(out);
+                }
+            } else {
+                List<Map<String, Object>> dailyList = new ArrayList<>();
+                rows = generate(days, dailyList::add);
+                try (InputStream stream = ExcelUtils.createDataExcel(ExcelUtils.minuteHeader(), new ArrayList<>(), new ArrayList<>(),
+                        dailyList, new ArrayList<>(), new ArrayList<>(), "heap")) {
+                    if (stream == null) {
+                        throw new OutOfMemoryError("createDataExcel returned null");
+                    }
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = stream.read(buffer)) > 0) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+        } catch (OutOfMemoryError e) {
+            System.out.println("[excel heap] mode=" + mode + " days=" + days + " OutOfMemoryError");
+            System.exit(OUT_OF_MEMORY);
+            return;
+        }
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.println("[excel heap] mode=" + mode + " days=" + days + " rows=" + rows
+            + " maxHeapMb=" + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " peakHeapMb=" + peak / (1024 * 1024)
+            + " bytes=" + out.count + " ms=" + (System.nanoTime() - started) / 1_000_000);
+        System.exit(0);
+    }
+
+    /** selectDailyData 형식 (getDate / inst_dtm / sensor_value) 1분 간격 행 */
+    private static long generate(int days, Consumer<Map<String, Object>> consumer) {
+        LocalDate first = LocalDate.of(2026, 1, 1);
+        long rows = 0;
+        for (int day = 0; day < days; day++) {
+            String date = first.plusDays(day).toString();
+            for (int minute = 0; minute < 1440; minute++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("getDate", date);
+                row.put("inst_dtm", date + " " + String.format("%02d:%02d", minute / 60, minute % 60));
+                row.put("sensor_value", String.valueOf(20 + (minute % 50) / 10.0));
+                consumer.accept(row);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
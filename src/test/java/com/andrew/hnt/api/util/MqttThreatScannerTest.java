@@ -0,0 +1,170 @@
+package com.andrew.hnt.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * MqttThreatScanner 판정이 기존 hasSecurityThreat(String.matches 반복)와 같은지 코퍼스로 비교
+ */
+class MqttThreatScannerTest {
+
+    private static final String TOPIC = "HBEE/thepine/TC/0008DC755397/DEV";
+
+    // 운영 메시지 + 공격 문자열 + 경계 사례
+    private static final List<String> PAYLOADS = Arrays.asList(
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"23.4\"}",
+            "{\"actcode\":\"live\",\"name\":\"ain\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"Error\"}",
+            "{\"actcode\":\"live\",\"name\":\"din\",\"type\":\"1\",\"ch\":\"1\",\"value\":\"0\"}",
+            "{\"actcode\":\"live\",\"name\":\"output\",\"type\":\"3\",\"ch\":\"1\",\"value\":\"1\"}",
+            "{\"actcode\":\"setres\",\"p01\":\"-18.0\",\"p02\":\"2.0\",\"p03\":\"0\"}",
+            "{\"actcode\":\"reg\",\"userId\":\"thepine\",\"model\":\"TC\",\"mac\":\"0008DC755397\"}",
+            "SET&p01=-18.0&p02=2.0",
+            "GET&type=1",
+            "ACT&name=output&type=1&ch=1&value=1",
+            "{\"value\":\"updated\"}",
+            "{\"name\":\"created_at\"}",
+            "{\"state\":\"dropdown\"}",
+            "{\"state\":\"executor\"}",
+            "{\"msg\":\"SELECT\"}",
+            "' or 1=1 --",
+            "x OR 2 = 2",
+            "a and '='",
+            "for 1=1",
+            "Error 5=5",
+            "error\n1=1",
+            "union select * from users",
+            "UNION\nSELECT",
+            "drop   table sensor",
+            "insert into t values(1)",
+            "update set a=1",
+            "delete from t",
+            "<script>alert(1)</script>",
+            "<SCRIPT src=x></SCRIPT>",
+            "<script>\nalert(1)</script>",
+            "<iframe src=x></iframe>",
+            "<object></object>",
+            "<embed a></embed>",
+            "<link rel=x></link>",
+            "<meta></meta>",
+            "<scriptx>",
+            "javascript:alert(1)",
+            "JavaScript :x",
+            "vbscript:msgbox",
+            "<img onload=x>",
+            "<img onerror = x>",
+            "<a onclick\t=x>",
+            "onclickx=1",
+            "line1\nunion",
+            "선택\u0085select",
+            "온도 23.4",
+            "",
+            "@",
+            "\r\n");
+
+    @Test
+    void strictVerdictsMatchLegacyOnCorpus() {
+        MqttThreatScanner scanner = new MqttThreatScanner(true);
+        for (String payload : PAYLOADS) {
+            assertSameVerdict(scanner, payload);
+        }
+    }
+
+    @Test
+    void strictVerdictsMatchLegacyOnRandomCorpus() {
+        MqttThreatScanner scanner = new MqttThreatScanner(true);
+        String[] tokens = {
+                "union", "SELECT", "insert", "Update", "delete", "drop", "create", "alter", "exec",
+                "or", "AND", "table", "into", "set", "from", "script", "iframe", "object", "embed", "link", "meta",
+                "javascript", "vbscript", "onload", "onerror", "onclick",
+                "<", ">", "/", "=", ":", "'", "\"", " ", "  ", "\t", "\n", "\r", "\u0085", "{", "}", ",",
+                "1", "23", "x", "ab", "sel", "ect", "o", "r", "온도", "\"value\":", "actcode", "live"
+        };
+        Random random = new Random(20261018L);
+        for (int i = 0; i < 50000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int count = 1 + random.nextInt(12);
+            for (int k = 0; k < count; k++) {
+                sb.append(tokens[random.nextInt(tokens.length)]);
+            }
+            assertSameVerdict(scanner, sb.toString());
+        }
+    }
+
+    @Test
+    void bareKeywordsAreThreatsByDefault() {
+        MqttMessageValidator validator = new MqttMessageValidator();
+        assertEquals(true, validator.hasSecurityThreat(TOPIC + "@{\"msg\":\"select\"}"));
+        assertEquals(true, validator.hasSecurityThreat(TOPIC, "{\"value\":\"updated\"}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(false, validator.hasSecurityThreat(TOPIC, PAYLOADS.get(0).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void tokenModeStillDetectsAttacks() {
+        MqttThreatScanner scanner = new MqttThreatScanner(false);
+        List<String> attacks = new ArrayList<>(Arrays.asList(
+                "' or 1=1 --", "union select * from users", "drop table sensor",
+                "<script>alert(1)</script>", "javascript:alert(1)", "<img onerror=x>"));
+        for (String attack : attacks) {
+            assertNotNull(scanner.scan(attack), attack);
+        }
+        assertNull(scanner.scan("{\"value\":\"updated\"}"));
+        assertNull(scanner.scan(TOPIC + "@" + PAYLOADS.get(0)));
+    }
+
+    private static void assertSameVerdict(MqttThreatScanner scanner, String payload) {
+        String message = TOPIC + "@" + payload;
+        String legacy = legacyThreat(message);
+        assertEquals(legacy, scanner.scan(message), message);
+        assertEquals(legacy, scanner.scan(TOPIC, payload.getBytes(StandardCharsets.UTF_8)), message);
+        assertEquals(legacyThreat(payload), scanner.scan(payload), payload);
+    }
+
+    /**
+     * 기존 MqttMessageValidator.hasSecurityThreat (위협 유형 반환으로만 변경)
+     */
+    static String legacyThreat(String message) {
+        String[] sqlPatterns = {
+            "(?i)(union|select|insert|update|delete|drop|create|alter|exec)",
+            "(?i)(or|and)\\s+\\d+\\s*=\\s*\\d+",
+            "(?i)(or|and)\\s+['\"]\\s*=\\s*['\"]",
+            "(?i)union\\s+select",
+            "(?i)drop\\s+table",
+            "(?i)insert\\s+into",
+            "(?i)update\\s+set",
+            "(?i)delete\\s+from"
+        };
+        for (String pattern : sqlPatterns) {
+            if (message.matches(".*" + pattern + ".*")) {
+                return MqttThreatScanner.THREAT_SQL;
+            }
+        }
+        String[] xssPatterns = {
+            "(?i)<script[^>]*>.*?</script>",
+            "(?i)<iframe[^>]*>.*?</iframe>",
+            "(?i)<object[^>]*>.*?</object>",
+            "(?i)<embed[^>]*>.*?</embed>",
+            "(?i)<link[^>]*>.*?</link>",
+            "(?i)<meta[^>]*>.*?</meta>",
+            "(?i)javascript:",
+            "(?i)vbscript:",
+            "(?i)onload\\s*=",
+            "(?i)onerror\\s*=",
+            "(?i)onclick\\s*="
+        };
+        for (String pattern : xssPatterns) {
+            if (message.matches(".*" + pattern + ".*")) {
+                return MqttThreatScanner.THREAT_XSS;
+            }
+        }
+        return null;
+    }
+}
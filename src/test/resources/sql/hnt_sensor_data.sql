@@ -0,0 +1,20 @@
+-- 성능/통합 테스트용 hnt_sensor_data (DisposableSchema 가 임시 스키마에 생성)
+-- 운영 테이블과 같은 컬럼 / 조회 인덱스 (일간/주간/연간 조회, 다운로드)
+CREATE TABLE hnt_sensor_data (
+    id bigint NOT NULL AUTO_INCREMENT,
+    user_id varchar(100) NOT NULL,
+    sensor_id varchar(100) NOT NULL,
+    uuid varchar(100) DEFAULT NULL,
+    sensor_type varchar(20) DEFAULT NULL,
+    sensor_value varchar(50) NOT NULL,
+    topic varchar(300) DEFAULT NULL,
+    raw_data varchar(500) DEFAULT NULL,
+    inst_id varchar(50) NOT NULL,
+    inst_dtm datetime NOT NULL,
+    mdf_id varchar(50) NOT NULL,
+    mdf_dtm datetime NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_hnt_sensor_data_uuid_inst_dtm (uuid, inst_dtm),
+    KEY idx_sensor_data_performance (user_id, sensor_id, uuid, inst_dtm),
+    KEY idx_sensor_data_download_date_range (inst_dtm, user_id, uuid)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
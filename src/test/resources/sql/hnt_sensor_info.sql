@@ -0,0 +1,18 @@
+-- 통합 테스트용 hnt_sensor_info (DisposableSchema 가 임시 스키마에 생성)
+-- 센서 목록 / 권한 확인 / 등록 매퍼가 사용하는 컬럼과 운영 UNIQUE / 조회 인덱스
+CREATE TABLE hnt_sensor_info (
+    user_id varchar(100) NOT NULL,
+    sensor_id varchar(100) NOT NULL,
+    sensor_uuid varchar(100) NOT NULL,
+    sensor_name varchar(100) DEFAULT NULL,
+    sensor_loc varchar(100) DEFAULT NULL,
+    sensor_type varchar(20) DEFAULT NULL,
+    sensor_gu varchar(20) DEFAULT NULL,
+    chart_type varchar(20) DEFAULT NULL,
+    inst_id varchar(50) NOT NULL,
+    inst_dtm datetime NOT NULL,
+    mdf_id varchar(50) NOT NULL,
+    mdf_dtm datetime NOT NULL,
+    UNIQUE KEY hnt_sensor_info_UN (user_id, sensor_id, sensor_uuid),
+    KEY idx_sensor_info_sensor_uuid (sensor_uuid)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;